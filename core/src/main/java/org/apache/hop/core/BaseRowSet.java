@@ -38,6 +38,9 @@ abstract class BaseRowSet implements Comparable<IRowSet>, IRowSet {
   protected volatile String remoteHopServerName;
   private ReadWriteLock lock;
 
+  /** The signal of the transform reading from this row set, raised when rows arrive */
+  private volatile RowSetSignal consumerSignal;
+
   public BaseRowSet() {
     // not done putting data into this IRowSet
     done = new AtomicBoolean(false);
@@ -132,6 +135,25 @@ abstract class BaseRowSet implements Comparable<IRowSet>, IRowSet {
   @Override
   public void setDone() {
     done.set(true);
+    signalConsumer();
+  }
+
+  @Override
+  public boolean setConsumerSignal(RowSetSignal signal) {
+    // Only write when it changes: the producer reads this field for every row it puts
+    //
+    if (consumerSignal != signal) {
+      consumerSignal = signal;
+    }
+    return true;
+  }
+
+  /** Wake up the transform reading from this row set. Call this after rows were put. */
+  protected void signalConsumer() {
+    RowSetSignal signal = consumerSignal;
+    if (signal != null) {
+      signal.signal();
+    }
   }
 
   /*
@@ -173,6 +173,12 @@ public class BlockingBatchingRowSet extends BaseRowSet implements Comparable<IRo
     putArray.clear();
   }
 
+  /** Rows only become visible per batch and getRowImmediate() waits: the reader has to poll. */
+  @Override
+  public boolean setConsumerSignal(RowSetSignal signal) {
+    return false;
+  }
+
   @Override
   public void clear() {
     putArray.clear();
@@ -70,6 +70,9 @@ public class BlockingListeningRowSet extends BaseRowSet implements Comparable<IR
       blocking.set(true);
       boolean b = queArray.offer(rowData, time, tu);
       blocking.set(false);
+      if (b) {
+        signalConsumer();
+      }
       return b;
     } catch (InterruptedException | NullPointerException e) {
       blocking.set(false);
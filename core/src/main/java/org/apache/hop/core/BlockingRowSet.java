@@ -17,6 +17,8 @@
 
 package org.apache.hop.core;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
@@ -69,8 +71,11 @@ public class BlockingRowSet extends BaseRowSet implements Comparable<IRowSet>, I
   public boolean putRowWait(IRowMeta rowMeta, Object[] rowData, long time, TimeUnit tu) {
     this.rowMeta = rowMeta;
     try {
-
-      return queArray.offer(rowData, time, tu);
+      if (queArray.offer(rowData, time, tu)) {
+        signalConsumer();
+        return true;
+      }
+      return false;
     } catch (InterruptedException | NullPointerException e) {
       return false;
     }
@@ -114,6 +119,21 @@ public class BlockingRowSet extends BaseRowSet implements Comparable<IRowSet>, I
     }
   }
 
+  /** Takes the available rows out of the queue while grabbing the queue lock only once. */
+  @Override
+  public Object[][] getRows(int max) {
+    Object[] row = getRow();
+    if (row == null) {
+      return null;
+    }
+    List<Object[]> rows = new ArrayList<>(Math.max(1, max));
+    rows.add(row);
+    if (max > 1) {
+      queArray.drainTo(rows, max - 1);
+    }
+    return rows.toArray(new Object[rows.size()][]);
+  }
+
   @Override
   public int size() {
     return queArray.size();
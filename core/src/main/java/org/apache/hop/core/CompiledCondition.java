@@ -0,0 +1,560 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+import org.apache.commons.lang.StringUtils;
+import org.apache.hop.core.Condition.Function;
+import org.apache.hop.core.Condition.Operator;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.util.Utils;
+
+/**
+ * A condition compiled against the layout of the rows it's evaluated on. The field indexes are
+ * looked up, the constant values are converted and the regular expressions and IN lists are
+ * prepared once instead of for every row. A series of conditions which are only combined with AND
+ * or only with OR is evaluated cheapest first.
+ *
+ * <p>The result is the same as {@link Condition#evaluate(IRowMeta, Object[])} for rows with the
+ * layout the condition was compiled for. A compiled condition keeps state for the right-hand fields
+ * and should be used by one thread at a time.
+ */
+public class CompiledCondition {
+  private static final int COST_CONSTANT = 0;
+  private static final int COST_NULL = 1;
+  private static final int COST_COMPARE = 2;
+  private static final int COST_STRING = 3;
+  private static final int COST_LIST = 4;
+  private static final int COST_REGEX = 8;
+
+  private final Condition condition;
+  private final Node root;
+
+  /**
+   * Compile a condition for rows with the given layout.
+   *
+   * @param condition the condition to compile
+   * @param rowMeta the layout of the rows to evaluate
+   * @throws HopException in case a constant value of the condition can't be converted
+   */
+  public CompiledCondition(Condition condition, IRowMeta rowMeta) throws HopException {
+    this.condition = condition;
+    this.root = compile(condition, rowMeta);
+  }
+
+  /**
+   * Evaluate the condition.
+   *
+   * @param row the row data
+   * @return true if the condition evaluates to true.
+   */
+  public boolean evaluate(Object[] row) {
+    try {
+      return root.evaluate(row);
+    } catch (Exception e) {
+      throw new RuntimeException("Unexpected error evaluation condition [" + condition + "]", e);
+    }
+  }
+
+  private static Node compile(Condition condition, IRowMeta rowMeta) throws HopException {
+    if (condition.isAtomic()) {
+      return compileAtomic(condition, rowMeta);
+    }
+
+    List<Node> nodes = new ArrayList<>();
+    for (Condition child : condition.getChildren()) {
+      nodes.add(compile(child, rowMeta));
+    }
+
+    // Without precedence a series of conditions is evaluated from left to right. If they're all
+    // combined with AND (or all with OR) the order doesn't matter and the cheapest go first.
+    //
+    boolean and = true;
+    boolean or = true;
+    for (int i = 1; i < nodes.size(); i++) {
+      Operator operator = condition.getChildren().get(i).getOperator();
+      and &= operator == Operator.AND || operator == Operator.AND_NOT;
+      or &= operator == Operator.OR || operator == Operator.OR_NOT;
+    }
+    if (nodes.size() > 1 && (and || or)) {
+      for (int i = 1; i < nodes.size(); i++) {
+        Operator operator = condition.getChildren().get(i).getOperator();
+        if (operator == Operator.AND_NOT || operator == Operator.OR_NOT) {
+          nodes.set(i, new NotNode(nodes.get(i)));
+        }
+      }
+      List<Node> ordered = new ArrayList<>(nodes);
+      ordered.sort(Comparator.comparingInt(Node::getCost));
+      return new JunctionNode(ordered, and, condition.isNegated());
+    }
+
+    List<Operator> operators = new ArrayList<>();
+    for (Condition child : condition.getChildren()) {
+      operators.add(child.getOperator());
+    }
+    return new SequenceNode(nodes, operators, condition.isNegated());
+  }
+
+  private static Node compileAtomic(Condition condition, IRowMeta rowMeta) throws HopException {
+    Function function = condition.getFunction();
+    if (function == Function.TRUE) {
+      return new ConstantNode(!condition.isNegated());
+    }
+
+    int leftIndex =
+        StringUtils.isNotEmpty(condition.getLeftValueName())
+            ? rowMeta.indexOfValue(condition.getLeftValueName())
+            : -1;
+    if (leftIndex < 0) {
+      // No fields to evaluate, regardless of the negation
+      return new ConstantNode(false);
+    }
+    IValueMeta leftMeta = rowMeta.getValueMeta(leftIndex);
+
+    RightValue right;
+    if (StringUtils.isNotEmpty(condition.getRightValueName())) {
+      int rightIndex = rowMeta.indexOfValue(condition.getRightValueName());
+      right =
+          rightIndex >= 0
+              ? new FieldValue(rightIndex, rowMeta.getValueMeta(rightIndex))
+              : new ConstantValue(null, null);
+    } else if (condition.getRightValue() != null) {
+      Condition.CValue value = condition.getRightValue();
+      right = new ConstantValue(value.createValueMeta(), value.createValueData());
+    } else {
+      right = new ConstantValue(null, null);
+    }
+
+    boolean negated = condition.isNegated();
+    return switch (function) {
+      case EQUAL, NOT_EQUAL, SMALLER, SMALLER_EQUAL, LARGER, LARGER_EQUAL ->
+          new CompareNode(leftIndex, leftMeta, right, function, negated);
+      case NULL -> new NullNode(leftIndex, leftMeta, true, negated);
+      case NOT_NULL -> new NullNode(leftIndex, leftMeta, false, negated);
+      case REGEXP -> new RegexNode(leftIndex, leftMeta, right, false, negated);
+      case LIKE -> new RegexNode(leftIndex, leftMeta, right, true, negated);
+      case IN_LIST -> new InListNode(leftIndex, leftMeta, right, negated);
+      case CONTAINS, STARTS_WITH, ENDS_WITH ->
+          new StringNode(leftIndex, leftMeta, right, function, negated);
+      default -> new ConstantNode(negated);
+    };
+  }
+
+  /** A part of the compiled condition */
+  private abstract static class Node {
+    protected final boolean negated;
+
+    protected Node(boolean negated) {
+      this.negated = negated;
+    }
+
+    public boolean evaluate(Object[] row) throws Exception {
+      return test(row) != negated;
+    }
+
+    protected abstract boolean test(Object[] row) throws Exception;
+
+    /** A relative indication of the time it takes to evaluate this node */
+    public abstract int getCost();
+  }
+
+  private static final class ConstantNode extends Node {
+    private final boolean value;
+
+    private ConstantNode(boolean value) {
+      super(false);
+      this.value = value;
+    }
+
+    @Override
+    protected boolean test(Object[] row) {
+      return value;
+    }
+
+    @Override
+    public int getCost() {
+      return COST_CONSTANT;
+    }
+  }
+
+  private static final class NotNode extends Node {
+    private final Node node;
+
+    private NotNode(Node node) {
+      super(true);
+      this.node = node;
+    }
+
+    @Override
+    protected boolean test(Object[] row) throws Exception {
+      return node.evaluate(row);
+    }
+
+    @Override
+    public int getCost() {
+      return node.getCost();
+    }
+  }
+
+  /** Conditions which are all combined with AND or all with OR */
+  private static final class JunctionNode extends Node {
+    private final Node[] nodes;
+    private final boolean and;
+    private final int cost;
+
+    private JunctionNode(List<Node> nodes, boolean and, boolean negated) {
+      super(negated);
+      this.nodes = nodes.toArray(new Node[0]);
+      this.and = and;
+      this.cost = nodes.stream().mapToInt(Node::getCost).sum();
+    }
+
+    @Override
+    protected boolean test(Object[] row) throws Exception {
+      for (Node node : nodes) {
+        if (node.evaluate(row) != and) {
+          return !and;
+        }
+      }
+      return and;
+    }
+
+    @Override
+    public int getCost() {
+      return cost;
+    }
+  }
+
+  /** Conditions which are evaluated from left to right with their operators */
+  private static final class SequenceNode extends Node {
+    private final Node[] nodes;
+    private final Operator[] operators;
+    private final int cost;
+
+    private SequenceNode(List<Node> nodes, List<Operator> operators, boolean negated) {
+      super(negated);
+      this.nodes = nodes.toArray(new Node[0]);
+      this.operators = operators.toArray(new Operator[0]);
+      this.cost = nodes.stream().mapToInt(Node::getCost).sum();
+    }
+
+    @Override
+    protected boolean test(Object[] row) throws Exception {
+      boolean evaluation = nodes[0].evaluate(row);
+      for (int i = 1; i < nodes.length; i++) {
+        switch (operators[i]) {
+          case OR -> evaluation = evaluation || nodes[i].evaluate(row);
+          case AND -> evaluation = evaluation && nodes[i].evaluate(row);
+          case OR_NOT -> evaluation = evaluation || !nodes[i].evaluate(row);
+          case AND_NOT -> evaluation = evaluation && !nodes[i].evaluate(row);
+          case XOR -> evaluation = evaluation ^ nodes[i].evaluate(row);
+          default -> {
+            // Not a valid operator, the condition is ignored
+          }
+        }
+      }
+      return evaluation;
+    }
+
+    @Override
+    public int getCost() {
+      return cost;
+    }
+  }
+
+  /** The right-hand side of an atomic condition: a field or a constant */
+  private interface RightValue {
+    IValueMeta getValueMeta();
+
+    Object getData(Object[] row);
+
+    boolean isConstant();
+  }
+
+  private record FieldValue(int index, IValueMeta valueMeta) implements RightValue {
+    @Override
+    public IValueMeta getValueMeta() {
+      return valueMeta;
+    }
+
+    @Override
+    public Object getData(Object[] row) {
+      return row[index];
+    }
+
+    @Override
+    public boolean isConstant() {
+      return false;
+    }
+  }
+
+  private record ConstantValue(IValueMeta valueMeta, Object data) implements RightValue {
+    @Override
+    public IValueMeta getValueMeta() {
+      return valueMeta;
+    }
+
+    @Override
+    public Object getData(Object[] row) {
+      return data;
+    }
+
+    @Override
+    public boolean isConstant() {
+      return true;
+    }
+  }
+
+  /** An atomic condition on a field */
+  private abstract static class FieldNode extends Node {
+    protected final int leftIndex;
+    protected final IValueMeta leftMeta;
+
+    private FieldNode(int leftIndex, IValueMeta leftMeta, boolean negated) {
+      super(negated);
+      this.leftIndex = leftIndex;
+      this.leftMeta = leftMeta;
+    }
+  }
+
+  private static final class NullNode extends FieldNode {
+    private final boolean isNull;
+
+    private NullNode(int leftIndex, IValueMeta leftMeta, boolean isNull, boolean negated) {
+      super(leftIndex, leftMeta, negated);
+      this.isNull = isNull;
+    }
+
+    @Override
+    protected boolean test(Object[] row) throws Exception {
+      return leftMeta.isNull(row[leftIndex]) == isNull;
+    }
+
+    @Override
+    public int getCost() {
+      return COST_NULL;
+    }
+  }
+
+  private static final class CompareNode extends FieldNode {
+    private final RightValue right;
+    private final Function function;
+
+    /**
+     * The way the right value is compared to the left one: a plain comparison when the values have
+     * the same type and storage, else a comparison which converts the right value.
+     */
+    private final boolean sameType;
+
+    /** The constant right value converted to the type of the left value, if any */
+    private final Object convertedConstant;
+
+    private CompareNode(
+        int leftIndex, IValueMeta leftMeta, RightValue right, Function function, boolean negated) {
+      super(leftIndex, leftMeta, negated);
+      this.right = right;
+      this.function = function;
+
+      IValueMeta rightMeta = right.getValueMeta();
+      sameType =
+          rightMeta != null
+              && leftMeta.getType() == rightMeta.getType()
+              && leftMeta.getStorageType() == rightMeta.getStorageType();
+
+      // A constant of another type is converted to the type of the left value for every row.
+      // Doing that once gives the same result, unless the conversion fails.
+      //
+      Object converted = null;
+      if (right.isConstant()
+          && rightMeta != null
+          && !sameType
+          && leftMeta.getType() != rightMeta.getType()
+          && !(leftMeta.getType() == IValueMeta.TYPE_INTEGER
+              && rightMeta.getType() == IValueMeta.TYPE_NUMBER)) {
+        try {
+          converted = leftMeta.convertData(rightMeta, right.getData(null));
+        } catch (Exception e) {
+          converted = null;
+        }
+      }
+      this.convertedConstant = converted;
+    }
+
+    @Override
+    protected boolean test(Object[] row) throws Exception {
+      Object left = row[leftIndex];
+      if ((function == Function.SMALLER || function == Function.SMALLER_EQUAL)
+          && leftMeta.isNull(left)) {
+        return false;
+      }
+
+      int cmp;
+      if (sameType) {
+        cmp = leftMeta.compare(left, right.getData(row));
+      } else if (convertedConstant != null) {
+        cmp = leftMeta.compare(left, convertedConstant);
+      } else {
+        cmp = leftMeta.compare(left, right.getValueMeta(), right.getData(row));
+      }
+
+      return switch (function) {
+        case EQUAL -> cmp == 0;
+        case NOT_EQUAL -> cmp != 0;
+        case SMALLER -> cmp < 0;
+        case SMALLER_EQUAL -> cmp <= 0;
+        case LARGER -> cmp > 0;
+        default -> cmp >= 0;
+      };
+    }
+
+    @Override
+    public int getCost() {
+      return COST_COMPARE;
+    }
+  }
+
+  /** REGEXP and LIKE, the pattern is compiled once for a constant, or when a field changes */
+  private static final class RegexNode extends FieldNode {
+    private final RightValue right;
+    private final boolean like;
+
+    private String lastExpression;
+    private Pattern pattern;
+
+    private RegexNode(
+        int leftIndex, IValueMeta leftMeta, RightValue right, boolean like, boolean negated) {
+      super(leftIndex, leftMeta, negated);
+      this.right = right;
+      this.like = like;
+    }
+
+    @Override
+    protected boolean test(Object[] row) throws Exception {
+      Object left = row[leftIndex];
+      Object rightData = right.getData(row);
+      if (leftMeta.isNull(left) || rightData == null) {
+        return false;
+      }
+      String expression = right.getValueMeta().getCompatibleString(rightData);
+      if (pattern == null || !Objects.equals(expression, lastExpression)) {
+        String regex = expression;
+        if (like) {
+          regex = regex.replace("%", ".*");
+          regex = regex.replace("?", ".");
+        }
+        pattern = Pattern.compile(regex);
+        lastExpression = expression;
+      }
+      return pattern.matcher(leftMeta.getCompatibleString(left)).matches();
+    }
+
+    @Override
+    public int getCost() {
+      return right.isConstant() ? COST_REGEX : COST_REGEX * 2;
+    }
+  }
+
+  /** IN LIST with a hash set of the values, created once for a constant or when a field changes */
+  private static final class InListNode extends FieldNode {
+    private final RightValue right;
+
+    private String lastList;
+    private Set<String> values;
+
+    private InListNode(int leftIndex, IValueMeta leftMeta, RightValue right, boolean negated) {
+      super(leftIndex, leftMeta, negated);
+      this.right = right;
+    }
+
+    @Override
+    protected boolean test(Object[] row) throws Exception {
+      String list = right.getValueMeta().getString(right.getData(row));
+      if (values == null || !Objects.equals(list, lastList)) {
+        String[] items = Const.splitString(list, ';', true);
+        values = new HashSet<>();
+        for (String item : items) {
+          values.add(item == null ? null : item.replace("\\", ""));
+        }
+        lastList = list;
+      }
+      String searchString = leftMeta.getCompatibleString(row[leftIndex]);
+      return searchString != null && values.contains(searchString);
+    }
+
+    @Override
+    public int getCost() {
+      return right.isConstant() ? COST_LIST : COST_LIST * 2;
+    }
+  }
+
+  /** CONTAINS, STARTS WITH and ENDS WITH */
+  private static final class StringNode extends FieldNode {
+    private final RightValue right;
+    private final Function function;
+
+    /** The constant right value as a string */
+    private String constantString;
+
+    private boolean constantConverted;
+
+    private StringNode(
+        int leftIndex, IValueMeta leftMeta, RightValue right, Function function, boolean negated) {
+      super(leftIndex, leftMeta, negated);
+      this.right = right;
+      this.function = function;
+    }
+
+    @Override
+    protected boolean test(Object[] row) throws Exception {
+      String string = leftMeta.getCompatibleString(row[leftIndex]);
+      if (function == Function.ENDS_WITH ? Utils.isEmpty(string) : string == null) {
+        return false;
+      }
+      String rightString = getRightString(row);
+      return switch (function) {
+        case CONTAINS -> string.contains(rightString);
+        case STARTS_WITH -> string.startsWith(rightString);
+        default -> rightString != null && string.endsWith(rightString);
+      };
+    }
+
+    private String getRightString(Object[] row) throws Exception {
+      if (!right.isConstant()) {
+        return right.getValueMeta().getCompatibleString(right.getData(row));
+      }
+      if (!constantConverted) {
+        constantString = right.getValueMeta().getCompatibleString(right.getData(row));
+        constantConverted = true;
+      }
+      return constantString;
+    }
+
+    @Override
+    public int getCost() {
+      return COST_STRING;
+    }
+  }
+}
@@ -547,6 +547,18 @@ public class Condition implements Cloneable {
     return evaluation;
   }
 
+  /**
+   * Compile the condition for rows with the given layout. Use this instead of {@link
+   * #evaluate(IRowMeta, Object[])} to evaluate the condition on many rows.
+   *
+   * @param rowMeta the layout of the rows to evaluate
+   * @return the compiled condition
+   * @throws HopException in case a constant value of the condition can't be converted
+   */
+  public CompiledCondition compile(IRowMeta rowMeta) throws HopException {
+    return new CompiledCondition(this, rowMeta);
+  }
+
   public void addCondition(Condition cb) {
     if (isAtomic() && getLeftValueName() != null) {
       /*
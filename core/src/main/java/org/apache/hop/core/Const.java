@@ -114,6 +114,9 @@ public class Const {
   /** Size of rowset: bigger = faster for large amounts of data */
   public static final int ROWS_IN_ROWSET = 10000;
 
+  /** The maximum number of rows handed over between transforms in one batch (getRows/putRows) */
+  public static final int ROWS_IN_BATCH = 100;
+
   /** Fetch size in rows when querying a database */
   public static final int FETCH_SIZE = 10000;
 
@@ -577,6 +580,13 @@ public class Const {
           "The maximum age (in minutes) of a log line while being kept internally by Hop. Set to 0 to keep all rows indefinitely (default)")
   public static final String HOP_MAX_WORKFLOW_TRACKER_SIZE = "HOP_MAX_WORKFLOW_TRACKER_SIZE";
 
+  /** A variable to configure the maximum number of parsed pipeline and workflow files kept. */
+  @Variable(
+      value = "100",
+      description =
+          "The maximum number of parsed pipeline and workflow files which are kept in memory to load them again without parsing. Set to 0 to parse the files every time they are loaded.")
+  public static final String HOP_METADATA_FILE_CACHE_SIZE = "HOP_METADATA_FILE_CACHE_SIZE";
+
   /**
    * A variable to configure the maximum number of action results kept in memory for logging
    * purposes.
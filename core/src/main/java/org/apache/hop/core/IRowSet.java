@@ -17,6 +17,7 @@
 
 package org.apache.hop.core;
 
+import java.util.Arrays;
 import java.util.concurrent.TimeUnit;
 import org.apache.hop.core.row.IRowMeta;
 
@@ -44,6 +45,25 @@ public interface IRowSet {
    */
   boolean putRowWait(IRowMeta rowMeta, Object[] rowData, long time, TimeUnit tu);
 
+  /**
+   * Offer a batch of rows to this rowset. If the buffer is full, wait (block) for a small period of
+   * time for room to become available. Implementations can override this to hand over the whole
+   * batch at once.
+   *
+   * @param rowMeta The description of the row data
+   * @param rows the rows of data
+   * @param n the number of rows to take from the start of the rows array
+   * @return the number of rows that were added to the rowset, less than n if this buffer was full.
+   */
+  default int putRows(IRowMeta rowMeta, Object[][] rows, int n) {
+    for (int i = 0; i < n; i++) {
+      if (!putRow(rowMeta, rows[i])) {
+        return i;
+      }
+    }
+    return n;
+  }
+
   /**
    * Get a row from the input buffer, it blocks for a short period until a new row becomes
    * available. Otherwise, it returns null.
@@ -52,6 +72,27 @@ public interface IRowSet {
    */
   Object[] getRow();
 
+  /**
+   * Get a batch of rows from the input buffer. It blocks for a short period until a first row
+   * becomes available and then takes the rows which are available right away, up to max rows.
+   *
+   * @param max the maximum number of rows to return
+   * @return the rows of data or null if no row is available.
+   */
+  default Object[][] getRows(int max) {
+    Object[] row = getRow();
+    if (row == null) {
+      return null;
+    }
+    Object[][] rows = new Object[Math.max(1, max)][];
+    rows[0] = row;
+    int n = 1;
+    while (n < max && (row = getRowImmediate()) != null) {
+      rows[n++] = row;
+    }
+    return n == rows.length ? rows : Arrays.copyOf(rows, n);
+  }
+
   /**
    * Get the first row in the list immediately.
    *
@@ -59,6 +100,17 @@ public interface IRowSet {
    */
   Object[] getRowImmediate();
 
+  /**
+   * Register the signal to raise when a row is put in this row set or when this row set is done.
+   * The reading transform can then wait for the signal instead of polling the row set.
+   *
+   * @param signal the signal of the transform reading from this row set
+   * @return true if this row set raises the signal, false if the reader needs to poll it
+   */
+  default boolean setConsumerSignal(RowSetSignal signal) {
+    return false;
+  }
+
   /**
    * get the first row in the list immediately if it is available or wait until timeout
    *
@@ -52,6 +52,7 @@ public class QueueRowSet extends BaseRowSet implements Comparable<IRowSet>, IRow
   public boolean putRow(IRowMeta rowMeta, Object[] rowData) {
     this.rowMeta = rowMeta;
     buffer.add(rowData);
+    signalConsumer();
     return true;
   }
 
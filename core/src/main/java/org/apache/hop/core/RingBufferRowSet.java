@@ -0,0 +1,329 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.apache.hop.core.row.IRowMeta;
+
+/**
+ * A lock-free row set backed by a single-producer/single-consumer ring buffer. Exactly one thread
+ * is allowed to put rows in this row set and exactly one (other) thread is allowed to get rows from
+ * it. This is the case for a hop between two transforms that both run in a single copy.
+ *
+ * <p>The producer and the consumer each own one index. An index is only ever written by its owner
+ * and published to the other side with release semantics, so no locks or compare-and-set operations
+ * are needed to hand off a row. When the buffer is full (or empty) the waiting side spins for a
+ * short while and then parks until it is woken up by the other side or until the timeout expires.
+ */
+public class RingBufferRowSet extends BaseRowSet implements Comparable<IRowSet>, IRowSet {
+
+  /** The number of times we busy-spin before parking the waiting thread. */
+  private static final int SPIN_TRIES = 100;
+
+  /**
+   * The maximum time we park in one go. A wake-up can be missed in a narrow race between a thread
+   * going to sleep and the other side publishing its index. This bounds the resulting latency.
+   */
+  private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private final Object[][] buffer;
+  private final int mask;
+  private final int capacity;
+
+  /** The sequence number of the next row to read. Only written by the consumer. */
+  private final AtomicLong head;
+
+  /** The sequence number of the next row to write. Only written by the producer. */
+  private final AtomicLong tail;
+
+  /** The producer's last known value of head, saves reading the shared index on every put */
+  private long cachedHead;
+
+  /** The consumer's last known value of tail, saves reading the shared index on every get */
+  private long cachedTail;
+
+  private volatile Thread waitingProducer;
+  private volatile Thread waitingConsumer;
+
+  private final int timeoutPut;
+  private final int timeoutGet;
+
+  /**
+   * Create a new ring buffer row set with maxSize capacity.
+   *
+   * @param maxSize the maximum number of rows kept in this row set
+   */
+  public RingBufferRowSet(int maxSize) {
+    super();
+
+    capacity = Math.max(1, maxSize);
+    int length = Integer.highestOneBit(capacity);
+    if (length < capacity) {
+      length <<= 1;
+    }
+    buffer = new Object[length][];
+    mask = length - 1;
+
+    head = new AtomicLong(0L);
+    tail = new AtomicLong(0L);
+
+    timeoutGet =
+        Const.toInt(System.getProperty(Const.HOP_ROWSET_GET_TIMEOUT), Const.TIMEOUT_GET_MILLIS);
+    timeoutPut =
+        Const.toInt(System.getProperty(Const.HOP_ROWSET_PUT_TIMEOUT), Const.TIMEOUT_PUT_MILLIS);
+  }
+
+  @Override
+  public boolean putRow(IRowMeta rowMeta, Object[] rowData) {
+    return putRowWait(rowMeta, rowData, timeoutPut, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public boolean putRowWait(IRowMeta rowMeta, Object[] rowData, long time, TimeUnit tu) {
+    this.rowMeta = rowMeta;
+    if (rowData == null) {
+      return false;
+    }
+    if (offer(rowData)) {
+      return true;
+    }
+
+    long deadline = System.nanoTime() + tu.toNanos(time);
+    int spins = 0;
+    while (true) {
+      if (spins < SPIN_TRIES) {
+        spins++;
+        Thread.onSpinWait();
+        if (offer(rowData)) {
+          return true;
+        }
+        continue;
+      }
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        return false;
+      }
+      waitingProducer = Thread.currentThread();
+      try {
+        if (offer(rowData)) {
+          return true;
+        }
+        LockSupport.parkNanos(this, Math.min(remaining, MAX_PARK_NANOS));
+      } finally {
+        waitingProducer = null;
+      }
+      if (Thread.interrupted()) {
+        return false;
+      }
+      if (offer(rowData)) {
+        return true;
+      }
+    }
+  }
+
+  /** Publishes as many rows as there is room for in one go, then waits for room for the rest. */
+  @Override
+  public int putRows(IRowMeta rowMeta, Object[][] rows, int n) {
+    this.rowMeta = rowMeta;
+    int written = 0;
+    while (written < n) {
+      written += offer(rows, written, n - written);
+      if (written < n) {
+        // The buffer is full: wait for room for the next row
+        //
+        if (!putRowWait(rowMeta, rows[written], timeoutPut, TimeUnit.MILLISECONDS)) {
+          return written;
+        }
+        written++;
+      }
+    }
+    return written;
+  }
+
+  /** Takes all the available rows (up to max) and releases the slots to the producer at once. */
+  @Override
+  public Object[][] getRows(int max) {
+    Object[] row = getRow();
+    if (row == null) {
+      return null;
+    }
+    long h = head.get();
+    cachedTail = tail.get();
+    int count = (int) Math.min(Math.max(0, max - 1), cachedTail - h);
+
+    Object[][] rows = new Object[count + 1][];
+    rows[0] = row;
+    for (int i = 0; i < count; i++) {
+      int index = (int) (h + i) & mask;
+      rows[i + 1] = buffer[index];
+      buffer[index] = null;
+    }
+    if (count > 0) {
+      head.lazySet(h + count);
+      Thread producer = waitingProducer;
+      if (producer != null) {
+        LockSupport.unpark(producer);
+      }
+    }
+    return rows;
+  }
+
+  @Override
+  public Object[] getRow() {
+    return getRowWait(timeoutGet, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public Object[] getRowImmediate() {
+    return poll();
+  }
+
+  @Override
+  public Object[] getRowWait(long timeout, TimeUnit tu) {
+    Object[] row = poll();
+    if (row != null) {
+      return row;
+    }
+
+    long deadline = System.nanoTime() + tu.toNanos(timeout);
+    int spins = 0;
+    while (true) {
+      if (spins < SPIN_TRIES) {
+        spins++;
+        Thread.onSpinWait();
+        row = poll();
+        if (row != null) {
+          return row;
+        }
+        continue;
+      }
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        return null;
+      }
+      waitingConsumer = Thread.currentThread();
+      try {
+        row = poll();
+        if (row != null || done.get()) {
+          return row;
+        }
+        LockSupport.parkNanos(this, Math.min(remaining, MAX_PARK_NANOS));
+      } finally {
+        waitingConsumer = null;
+      }
+      if (Thread.interrupted()) {
+        return null;
+      }
+      row = poll();
+      if (row != null) {
+        return row;
+      }
+    }
+  }
+
+  /** Producer side: add a row to the buffer if there is room for it. */
+  private boolean offer(Object[] rowData) {
+    long t = tail.get();
+    if (t - cachedHead >= capacity) {
+      cachedHead = head.get();
+      if (t - cachedHead >= capacity) {
+        return false;
+      }
+    }
+    buffer[(int) t & mask] = rowData;
+    tail.lazySet(t + 1);
+
+    Thread consumer = waitingConsumer;
+    if (consumer != null) {
+      LockSupport.unpark(consumer);
+    }
+    signalConsumer();
+    return true;
+  }
+
+  /** Producer side: add up to n rows, starting at offset, for as far as there is room. */
+  private int offer(Object[][] rows, int offset, int n) {
+    long t = tail.get();
+    if (capacity - (t - cachedHead) < n) {
+      cachedHead = head.get();
+    }
+    int count = (int) Math.min(n, capacity - (t - cachedHead));
+    if (count <= 0) {
+      return 0;
+    }
+    for (int i = 0; i < count; i++) {
+      buffer[(int) (t + i) & mask] = rows[offset + i];
+    }
+    tail.lazySet(t + count);
+
+    Thread consumer = waitingConsumer;
+    if (consumer != null) {
+      LockSupport.unpark(consumer);
+    }
+    signalConsumer();
+    return count;
+  }
+
+  /** Consumer side: take the next row from the buffer if there is one. */
+  private Object[] poll() {
+    long h = head.get();
+    if (h >= cachedTail) {
+      cachedTail = tail.get();
+      if (h >= cachedTail) {
+        return null;
+      }
+    }
+    int index = (int) h & mask;
+    Object[] row = buffer[index];
+    buffer[index] = null; // prevent any hold-up to GC
+    head.lazySet(h + 1);
+
+    Thread producer = waitingProducer;
+    if (producer != null) {
+      LockSupport.unpark(producer);
+    }
+    return row;
+  }
+
+  @Override
+  public void setDone() {
+    super.setDone();
+    Thread consumer = waitingConsumer;
+    if (consumer != null) {
+      LockSupport.unpark(consumer);
+    }
+  }
+
+  @Override
+  public int size() {
+    return (int) Math.max(0L, tail.get() - head.get());
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(buffer, null);
+    head.set(0L);
+    tail.set(0L);
+    cachedHead = 0L;
+    cachedTail = 0L;
+    done.set(false);
+  }
+}
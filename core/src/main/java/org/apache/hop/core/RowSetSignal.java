@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Wakes up the thread of a transform which waits for something to happen on one of its row sets: a
+ * row was put in an input row set, an input row set is done, the transform was stopped or resumed.
+ * A single signal can be shared by all the row sets a transform reads from. Only the thread of the
+ * transform itself is expected to wait for the signal.
+ *
+ * <p>Signalling is cheap when nobody waits: it costs a volatile read, without any fence. The
+ * waiting thread parks, so it doesn't use any CPU and a virtual thread releases its carrier thread.
+ *
+ * <p>There is deliberately no happens-before between a producer publishing a row and the waiter
+ * registering itself. A row set like {@link RingBufferRowSet} publishes with a lazy write, which
+ * can be reordered with the read of the waiter in {@link #signal()}. A producer can then miss a
+ * waiter which registered at the same time, while that waiter doesn't see the row yet. Closing this
+ * race takes a full fence on every row put. Instead, the waiting thread checks its condition again
+ * after a short first park of one millisecond. A missed signal delays a waiter for that long at
+ * most, and it can only happen when the row set runs empty.
+ */
+public class RowSetSignal {
+
+  /**
+   * The first time we park. Anything published before we registered as waiter is visible once it
+   * expires, everything published after it sees the waiter and unparks it.
+   */
+  private static final long FIRST_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private volatile Thread waiter;
+
+  /**
+   * Wake up the waiting thread, if there is one. A thread which registers as waiter while this
+   * method runs may not be seen, it wakes up by itself after its first park.
+   */
+  public void signal() {
+    Thread thread = waiter;
+    if (thread != null) {
+      LockSupport.unpark(thread);
+    }
+  }
+
+  /**
+   * Wait until the given condition holds, the signal is raised or the timeout expires. The
+   * condition is evaluated after the waiter is registered, and again after a short first park, so a
+   * signal raised in between can't keep the thread waiting for long. Callers should re-check their
+   * condition after this method returns.
+   *
+   * @param condition the condition to wait for
+   * @param timeout the maximum time to wait
+   * @param unit the unit of the timeout
+   */
+  public void await(BooleanSupplier condition, long timeout, TimeUnit unit) {
+    long start = System.nanoTime();
+    long timeoutNanos = unit.toNanos(timeout);
+    long firstDeadline = start + Math.min(timeoutNanos, FIRST_PARK_NANOS);
+    waiter = Thread.currentThread();
+    try {
+      // Keep checking until the first park really expired: a permit left by an earlier signal
+      // ends a park right away.
+      //
+      while (!condition.getAsBoolean()) {
+        long now = System.nanoTime();
+        if (now - firstDeadline >= 0) {
+          long remaining = start + timeoutNanos - now;
+          if (remaining > 0) {
+            LockSupport.parkNanos(this, remaining);
+          }
+          return;
+        }
+        LockSupport.parkNanos(this, firstDeadline - now);
+      }
+    } finally {
+      waiter = null;
+    }
+  }
+}
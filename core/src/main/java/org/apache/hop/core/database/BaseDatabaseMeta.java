@@ -103,6 +103,55 @@ public abstract class BaseDatabaseMeta implements Cloneable, IDatabase {
    */
   public static final String ATTRIBUTE_PRESERVE_RESERVED_WORD_CASE = "PRESERVE_RESERVED_WORD_CASE";
 
+  /** A flag to determine if we should get the connections from a connection pool */
+  public static final String ATTRIBUTE_USE_POOLING = "USE_POOLING";
+
+  /** The prefix for all the connection pool parameters */
+  public static final String ATTRIBUTE_POOLING_PARAMETER_PREFIX = "POOLING_";
+
+  public static final String POOLING_PARAMETER_MAX_SIZE = "maxSize";
+  public static final String POOLING_PARAMETER_MIN_IDLE = "minIdle";
+  public static final String POOLING_PARAMETER_IDLE_TIMEOUT = "idleTimeout";
+  public static final String POOLING_PARAMETER_MAX_WAIT = "maxWait";
+  public static final String POOLING_PARAMETER_VALIDATION_QUERY = "validationQuery";
+  public static final String POOLING_PARAMETER_VALIDATION_TIMEOUT = "validationTimeout";
+  public static final String POOLING_PARAMETER_LEAK_DETECTION_THRESHOLD = "leakDetectionThreshold";
+
+  /** The parameters of a connection pool with their default values */
+  public static final DatabaseConnectionPoolParameter[] poolingParameters =
+      new DatabaseConnectionPoolParameter[] {
+        new DatabaseConnectionPoolParameter(
+            POOLING_PARAMETER_MAX_SIZE,
+            "10",
+            "The maximum number of connections in the pool, in use or idle."),
+        new DatabaseConnectionPoolParameter(
+            POOLING_PARAMETER_MIN_IDLE,
+            "0",
+            "The minimum number of idle connections the pool keeps open."),
+        new DatabaseConnectionPoolParameter(
+            POOLING_PARAMETER_IDLE_TIMEOUT,
+            "600000",
+            "The time in milliseconds after which an idle connection above the minimum is closed."),
+        new DatabaseConnectionPoolParameter(
+            POOLING_PARAMETER_MAX_WAIT,
+            "30000",
+            "The maximum time in milliseconds to wait for a connection when they are all in use."),
+        new DatabaseConnectionPoolParameter(
+            POOLING_PARAMETER_VALIDATION_QUERY,
+            "",
+            "The query validating a connection before it is handed out. When empty the JDBC driver"
+                + " validates the connection."),
+        new DatabaseConnectionPoolParameter(
+            POOLING_PARAMETER_VALIDATION_TIMEOUT,
+            "5",
+            "The maximum time in seconds to validate a connection."),
+        new DatabaseConnectionPoolParameter(
+            POOLING_PARAMETER_LEAK_DETECTION_THRESHOLD,
+            "0",
+            "The time in milliseconds a connection can be in use before a possible leak is logged."
+                + " 0 disables leak detection."),
+      };
+
   public static final String SEQUENCE_FOR_BATCH_ID = "SEQUENCE_FOR_BATCH_ID";
   public static final String AUTOINCREMENT_SQL_FOR_BATCH_ID = "AUTOINCREMENT_SQL_FOR_BATCH_ID";
 
@@ -1106,6 +1155,50 @@ public abstract class BaseDatabaseMeta implements Cloneable, IDatabase {
     attributes.put(ATTRIBUTE_USE_RESULT_STREAMING, useStreaming ? "Y" : "N");
   }
 
+  /**
+   * @return true if the connections are taken from a connection pool
+   */
+  @Override
+  public boolean isUsingConnectionPool() {
+    String usePool = getAttributeProperty(ATTRIBUTE_USE_POOLING, "N");
+    return "Y".equalsIgnoreCase(usePool);
+  }
+
+  /**
+   * @param usePool true if the connections are taken from a connection pool
+   */
+  @Override
+  public void setUsingConnectionPool(boolean usePool) {
+    attributes.put(ATTRIBUTE_USE_POOLING, usePool ? "Y" : "N");
+  }
+
+  /**
+   * @return the connection pool parameters which are set, by parameter name
+   */
+  @Override
+  public Map<String, String> getConnectionPoolingParameters() {
+    Map<String, String> map = new HashMap<>();
+    for (String attribute : attributes.keySet()) {
+      if (attribute.startsWith(ATTRIBUTE_POOLING_PARAMETER_PREFIX)) {
+        map.put(
+            attribute.substring(ATTRIBUTE_POOLING_PARAMETER_PREFIX.length()),
+            getAttributeProperty(attribute, ""));
+      }
+    }
+    return map;
+  }
+
+  /**
+   * @param parameters the connection pool parameters to set, by parameter name
+   */
+  @Override
+  public void setConnectionPoolingParameters(Map<String, String> parameters) {
+    attributes.keySet().removeIf(key -> key.startsWith(ATTRIBUTE_POOLING_PARAMETER_PREFIX));
+    for (Map.Entry<String, String> entry : parameters.entrySet()) {
+      attributes.put(ATTRIBUTE_POOLING_PARAMETER_PREFIX + entry.getKey(), entry.getValue());
+    }
+  }
+
   /**
    * @return true if all fields should always be quoted in db
    */
@@ -1388,6 +1481,101 @@ public abstract class BaseDatabaseMeta implements Cloneable, IDatabase {
     return "insert into " + schemaTable + "(" + keyField + ", " + versionField + ") values (0, 1)";
   }
 
+  @Override
+  public String getSqlCreateStagingTable(String stagingTable, String schemaTable, String columns) {
+    return "CREATE TEMPORARY TABLE "
+        + stagingTable
+        + " AS SELECT "
+        + columns
+        + " FROM "
+        + schemaTable
+        + " WHERE 1 = 0";
+  }
+
+  /** The standard MERGE statement, the target table is aliased t and the staging table s. */
+  @Override
+  public String getSqlMergeFromStagingTable(
+      String schemaTable,
+      String stagingTable,
+      List<String> keyColumns,
+      List<String> insertColumns,
+      List<String> updateColumns) {
+    StringBuilder sql = new StringBuilder();
+    sql.append("MERGE INTO ").append(schemaTable).append(" t USING ").append(stagingTable);
+    sql.append(" s ON (").append(getSqlJoinCondition(keyColumns)).append(")");
+    if (!updateColumns.isEmpty()) {
+      sql.append(" WHEN MATCHED AND (").append(getSqlChangedCondition(updateColumns, "s."));
+      sql.append(") THEN UPDATE SET ").append(getSqlUpdateAssignments(updateColumns, "s."));
+    }
+    sql.append(" WHEN NOT MATCHED THEN INSERT (").append(String.join(", ", insertColumns));
+    sql.append(") VALUES (").append(getSqlPrefixedColumns(insertColumns, "s.")).append(")");
+    return sql.toString();
+  }
+
+  /**
+   * @return the condition which matches the rows of target table t with those of staging table s
+   */
+  protected String getSqlJoinCondition(List<String> keyColumns) {
+    StringBuilder sql = new StringBuilder();
+    for (String column : keyColumns) {
+      if (!sql.isEmpty()) {
+        sql.append(" AND ");
+      }
+      sql.append("t.").append(column).append(" = s.").append(column);
+    }
+    return sql.toString();
+  }
+
+  /**
+   * @param source the prefix of the new values
+   * @return the condition which is true if a column of target table t differs from its new value,
+   *     null values included
+   */
+  protected String getSqlChangedCondition(List<String> columns, String source) {
+    StringBuilder sql = new StringBuilder();
+    for (String column : columns) {
+      if (!sql.isEmpty()) {
+        sql.append(" OR ");
+      }
+      String target = "t." + column;
+      String value = source + column;
+      sql.append(target).append(" <> ").append(value);
+      sql.append(" OR (").append(target).append(" IS NULL AND ").append(value);
+      sql.append(" IS NOT NULL) OR (").append(target).append(" IS NOT NULL AND ").append(value);
+      sql.append(" IS NULL)");
+    }
+    return sql.toString();
+  }
+
+  /**
+   * @param source the prefix of the new values
+   * @return the assignments of the new values to the columns
+   */
+  protected String getSqlUpdateAssignments(List<String> columns, String source) {
+    StringBuilder sql = new StringBuilder();
+    for (String column : columns) {
+      if (!sql.isEmpty()) {
+        sql.append(", ");
+      }
+      sql.append(column).append(" = ").append(source).append(column);
+    }
+    return sql.toString();
+  }
+
+  /**
+   * @return the comma separated columns with a prefix
+   */
+  protected String getSqlPrefixedColumns(List<String> columns, String prefix) {
+    StringBuilder sql = new StringBuilder();
+    for (String column : columns) {
+      if (!sql.isEmpty()) {
+        sql.append(", ");
+      }
+      sql.append(prefix).append(column);
+    }
+    return sql.toString();
+  }
+
   /**
    * @return true if this is a relational database you can explore. Return false for SAP, PALO, etc.
    */
@@ -21,6 +21,9 @@ import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.sql.BatchUpdateException;
 import java.sql.Blob;
 import java.sql.CallableStatement;
@@ -41,10 +44,12 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.TreeSet;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.hop.core.Const;
@@ -56,6 +61,9 @@ import org.apache.hop.core.IProgressMonitor;
 import org.apache.hop.core.Result;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.database.map.DatabaseConnectionMap;
+import org.apache.hop.core.database.pool.DatabaseConnectionPool;
+import org.apache.hop.core.database.pool.DatabaseConnectionPoolMap;
+import org.apache.hop.core.database.pool.DatabaseConnectionPoolSettings;
 import org.apache.hop.core.encryption.Encr;
 import org.apache.hop.core.exception.HopDatabaseBatchException;
 import org.apache.hop.core.exception.HopDatabaseException;
@@ -391,7 +399,126 @@ public class Database implements IVariables, ILoggingObject, AutoCloseable {
    * @return true if the connect was successful, false if something went wrong.
    */
   private void connectUsingClass(String classname, String partitionId) throws HopDatabaseException {
+    if (databaseMeta.isUsingConnectionPool()) {
+      connectUsingPool(classname);
+      return;
+    }
+
     // Install and load the jdbc Driver
+    loadDriver(classname);
+
+    try {
+      String url = resolve(databaseMeta.getURL(this));
+      log.logDebug("Connecting to database using URL: " + url);
+
+      Properties properties = new Properties();
+      url = getConnectionProperties(url, properties);
+      connection = DriverManager.getConnection(url, properties);
+    } catch (Exception e) {
+      throw new HopDatabaseException(
+          "Error connecting to database: (using class " + classname + ")", e);
+    }
+  }
+
+  /**
+   * Borrow the connection from the connection pool of the database connection. The pool is created
+   * the first time it is needed. There is a separate pool for every combination of URL,
+   * credentials, connection properties and pool settings after resolving variables.
+   *
+   * @param classname the class of the JDBC driver
+   * @throws HopDatabaseException in case no connection could be obtained from the pool
+   */
+  private void connectUsingPool(String classname) throws HopDatabaseException {
+    String url;
+    Properties properties = new Properties();
+    DatabaseConnectionPoolSettings settings;
+    try {
+      url = resolve(databaseMeta.getURL(this));
+      url = getConnectionProperties(url, properties);
+
+      Map<String, String> parameters = new HashMap<>();
+      for (Map.Entry<String, String> entry :
+          databaseMeta.getConnectionPoolingParameters().entrySet()) {
+        parameters.put(entry.getKey(), resolve(entry.getValue()));
+      }
+      settings = DatabaseConnectionPoolSettings.fromParameters(parameters);
+    } catch (Exception e) {
+      throw new HopDatabaseException(
+          "Error configuring the connection pool of database connection '"
+              + databaseMeta.getName()
+              + "'",
+          e);
+    }
+
+    // The password is in the properties and possibly in the URL: they are only part of the key as
+    // a hash, the key is kept in memory for as long as the pool exists.
+    //
+    String key =
+        databaseMeta.getName()
+            + "|"
+            + databaseMeta.getPluginId()
+            + "|"
+            + Const.NVL(properties.getProperty("user"), "")
+            + "|"
+            + hashConnectionDetails(url, properties)
+            + "|"
+            + settings;
+    DatabaseConnectionPool pool = DatabaseConnectionPoolMap.getInstance().getPool(key);
+    if (pool == null) {
+      loadDriver(classname);
+      String poolUrl = url;
+      if (log.isDetailed()) {
+        log.logDetailed(
+            "Creating connection pool for database connection '"
+                + databaseMeta.getName()
+                + "' with "
+                + settings);
+      }
+      pool =
+          DatabaseConnectionPoolMap.getInstance()
+              .getOrCreatePool(
+                  key,
+                  databaseMeta.getName(),
+                  settings,
+                  () -> DriverManager.getConnection(poolUrl, properties));
+    }
+
+    try {
+      log.snap(Metrics.METRIC_DATABASE_POOL_WAIT_START, databaseMeta.getName());
+      connection = pool.getConnection();
+    } catch (SQLException e) {
+      throw new HopDatabaseException(
+          "Error getting a connection from the pool of database connection '"
+              + databaseMeta.getName()
+              + "' ("
+              + pool
+              + ")",
+          e);
+    } finally {
+      log.snap(Metrics.METRIC_DATABASE_POOL_WAIT_STOP, databaseMeta.getName());
+    }
+  }
+
+  /**
+   * @return a SHA-256 hash of the URL and the connection properties, in a stable order
+   */
+  private static String hashConnectionDetails(String url, Properties properties)
+      throws HopDatabaseException {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(url.getBytes(StandardCharsets.UTF_8));
+      for (String name : new TreeSet<>(properties.stringPropertyNames())) {
+        digest.update(
+            ("\n" + name + "=" + properties.getProperty(name)).getBytes(StandardCharsets.UTF_8));
+      }
+      return HexFormat.of().formatHex(digest.digest());
+    } catch (NoSuchAlgorithmException e) {
+      throw new HopDatabaseException("Unable to hash the connection details", e);
+    }
+  }
+
+  /** Load the JDBC driver class, from the class loader of the database plugin */
+  private void loadDriver(String classname) throws HopDatabaseException {
     IPlugin plugin =
         PluginRegistry.getInstance()
             .getPlugin(DatabasePluginType.class, databaseMeta.getIDatabase());
@@ -433,51 +560,48 @@ public class Database implements IVariables, ILoggingObject, AutoCloseable {
     } catch (Exception e) {
       throw new HopDatabaseException("Exception while loading class", e);
     }
+  }
 
-    try {
-      String url = resolve(databaseMeta.getURL(this));
-      log.logDebug("Connecting to database using URL: " + url);
-
-      String username = resolve(databaseMeta.getUsername());
-      String password =
-          Encr.decryptPasswordOptionallyEncrypted(resolve(databaseMeta.getPassword()));
-
-      Properties properties = databaseMeta.getConnectionProperties(this);
-
-      if (databaseMeta.supportsOptionsInURL()) {
-        if (!Utils.isEmpty(username) || !Utils.isEmpty(password)) {
-          // Allow for empty username with given password, in this case username must be given with
-          // one variables
-          properties.put("user", Const.NVL(username, " "));
-          properties.put("password", Const.NVL(password, ""));
-          if (databaseMeta.getIDatabase().isMsSqlServerNativeVariant()) {
-            // Handle MSSQL Instance name. Would rather this was handled in the dialect
-            // but cannot (without refactor) get to variablespace for variable substitution from
-            // a BaseDatabaseMeta subclass.
-            String instance = resolve(databaseMeta.getSqlServerInstance());
-            if (!Utils.isEmpty(instance)) {
-              url += ";instanceName=" + instance;
-            }
+  /**
+   * Add the connection properties and the credentials to the given properties.
+   *
+   * @param url the resolved URL
+   * @param properties the properties to add to
+   * @return the URL to connect to, it can have the SQL Server instance name appended to it
+   */
+  private String getConnectionProperties(String url, Properties properties)
+      throws HopDatabaseException {
+    String username = resolve(databaseMeta.getUsername());
+    String password = Encr.decryptPasswordOptionallyEncrypted(resolve(databaseMeta.getPassword()));
+
+    properties.putAll(databaseMeta.getConnectionProperties(this));
+
+    if (databaseMeta.supportsOptionsInURL()) {
+      if (!Utils.isEmpty(username) || !Utils.isEmpty(password)) {
+        // Allow for empty username with given password, in this case username must be given with
+        // one variables
+        properties.put("user", Const.NVL(username, " "));
+        properties.put("password", Const.NVL(password, ""));
+        if (databaseMeta.getIDatabase().isMsSqlServerNativeVariant()) {
+          // Handle MSSQL Instance name. Would rather this was handled in the dialect
+          // but cannot (without refactor) get to variablespace for variable substitution from
+          // a BaseDatabaseMeta subclass.
+          String instance = resolve(databaseMeta.getSqlServerInstance());
+          if (!Utils.isEmpty(instance)) {
+            url += ";instanceName=" + instance;
           }
-          connection = DriverManager.getConnection(url, properties);
-        } else {
-          // Perhaps the username is in the URL or no username is required...
-          connection = DriverManager.getConnection(url, properties);
-        }
-      } else {
-        if (!Utils.isEmpty(username)) {
-          properties.put("user", username);
         }
-        if (!Utils.isEmpty(password)) {
-          properties.put("password", password);
-        }
-
-        connection = DriverManager.getConnection(url, properties);
       }
-    } catch (Exception e) {
-      throw new HopDatabaseException(
-          "Error connecting to database: (using class " + classname + ")", e);
+      // Otherwise perhaps the username is in the URL or no username is required...
+    } else {
+      if (!Utils.isEmpty(username)) {
+        properties.put("user", username);
+      }
+      if (!Utils.isEmpty(password)) {
+        properties.put("password", password);
+      }
     }
+    return url;
   }
 
   /** close() and disconnect() are the same. */
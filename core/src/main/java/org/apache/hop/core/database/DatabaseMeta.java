@@ -1954,6 +1954,34 @@ public class DatabaseMeta extends HopMetadataBase implements Cloneable, IHopMeta
     iDatabase.setStreamingResults(useStreaming);
   }
 
+  /**
+   * @return true if the connections are taken from a connection pool
+   */
+  public boolean isUsingConnectionPool() {
+    return iDatabase.isUsingConnectionPool();
+  }
+
+  /**
+   * @param usePool true if the connections are taken from a connection pool
+   */
+  public void setUsingConnectionPool(boolean usePool) {
+    iDatabase.setUsingConnectionPool(usePool);
+  }
+
+  /**
+   * @return the connection pool parameters which are set, by parameter name
+   */
+  public Map<String, String> getConnectionPoolingParameters() {
+    return iDatabase.getConnectionPoolingParameters();
+  }
+
+  /**
+   * @param parameters the connection pool parameters to set, by parameter name
+   */
+  public void setConnectionPoolingParameters(Map<String, String> parameters) {
+    iDatabase.setConnectionPoolingParameters(parameters);
+  }
+
   /**
    * @return true if all fields should always be quoted in db
    */
@@ -2204,6 +2232,59 @@ public class DatabaseMeta extends HopMetadataBase implements Cloneable, IHopMeta
     return iDatabase.getSqlInsertAutoIncUnknownDimensionRow(schemaTable, keyField, versionField);
   }
 
+  /**
+   * Get the name of a staging table on this database, some databases require temporary tables to
+   * have a prefix.
+   *
+   * @param name the name of the staging table
+   * @return the name to create the staging table with
+   */
+  public String getStagingTableName(String name) {
+    return iDatabase.getStagingTableName(name);
+  }
+
+  /**
+   * Get the SQL to create an empty, temporary staging table with the columns of a table.
+   *
+   * @param stagingTable the name of the staging table, see {@link #getStagingTableName(String)}
+   * @param schemaTable the schema-table name to copy the columns from
+   * @param columns the comma separated, quoted columns to copy
+   * @return the SQL to create the staging table or null if the database doesn't support it
+   */
+  public String getSqlCreateStagingTable(String stagingTable, String schemaTable, String columns) {
+    return iDatabase.getSqlCreateStagingTable(stagingTable, schemaTable, columns);
+  }
+
+  /**
+   * Get the SQL to merge all the rows of a staging table into a table in one statement.
+   *
+   * @param schemaTable the schema-table name to merge the rows into
+   * @param stagingTable the name of the staging table with the rows
+   * @param keyColumns the quoted columns which identify a row, with a unique key on them
+   * @param insertColumns the quoted columns to insert
+   * @param updateColumns the quoted columns to update, empty to only insert new rows
+   * @return the SQL to merge the rows or null if the database doesn't support it
+   */
+  public String getSqlMergeFromStagingTable(
+      String schemaTable,
+      String stagingTable,
+      List<String> keyColumns,
+      List<String> insertColumns,
+      List<String> updateColumns) {
+    return iDatabase.getSqlMergeFromStagingTable(
+        schemaTable, stagingTable, keyColumns, insertColumns, updateColumns);
+  }
+
+  /**
+   * Get the SQL to remove all the rows of a staging table after they are merged.
+   *
+   * @param stagingTable the name of the staging table
+   * @return the SQL to empty the staging table
+   */
+  public String getSqlClearStagingTable(String stagingTable) {
+    return iDatabase.getSqlClearStagingTable(stagingTable);
+  }
+
   /**
    * @return true if this is a relational database you can explore. Return false for SAP, PALO, etc.
    */
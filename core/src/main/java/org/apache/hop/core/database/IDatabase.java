@@ -21,6 +21,7 @@ import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import org.apache.hop.core.exception.HopDatabaseException;
@@ -672,6 +673,34 @@ public interface IDatabase extends Cloneable {
    */
   void setStreamingResults(boolean useStreaming);
 
+  /**
+   * @return true if the connections are taken from a connection pool
+   */
+  default boolean isUsingConnectionPool() {
+    return false;
+  }
+
+  /**
+   * @param usePool true if the connections are taken from a connection pool
+   */
+  default void setUsingConnectionPool(boolean usePool) {
+    // Default implementation does nothing
+  }
+
+  /**
+   * @return the connection pool parameters which are set, by parameter name
+   */
+  default Map<String, String> getConnectionPoolingParameters() {
+    return new HashMap<>();
+  }
+
+  /**
+   * @param parameters the connection pool parameters to set, by parameter name
+   */
+  default void setConnectionPoolingParameters(Map<String, String> parameters) {
+    // Default implementation does nothing
+  }
+
   /**
    * @return true if all fields should always be quoted in db
    */
@@ -824,6 +853,63 @@ public interface IDatabase extends Cloneable {
   String getSqlInsertAutoIncUnknownDimensionRow(
       String schemaTable, String keyField, String versionField);
 
+  /**
+   * Get the name of a staging table on this database, some databases require temporary tables to
+   * have a prefix.
+   *
+   * @param name the name of the staging table
+   * @return the name to create the staging table with
+   */
+  default String getStagingTableName(String name) {
+    return name;
+  }
+
+  /**
+   * Get the SQL to create an empty staging table with the columns of a table. A staging table is
+   * temporary: its rows are only visible to the connection. Since a pooled connection isn't closed
+   * when it's returned to the pool, the staging table is dropped by the transform which created it.
+   *
+   * @param stagingTable the name of the staging table, see {@link #getStagingTableName(String)}
+   * @param schemaTable the schema-table name to copy the columns from
+   * @param columns the comma separated, quoted columns to copy
+   * @return the SQL to create the staging table or null if the database doesn't support it
+   */
+  default String getSqlCreateStagingTable(String stagingTable, String schemaTable, String columns) {
+    return null;
+  }
+
+  /**
+   * Get the SQL to merge all the rows of a staging table into a table in one statement. The rows
+   * with a key which isn't in the table yet are inserted, the other rows update the columns which
+   * changed. The staging table has no two rows with the same key.
+   *
+   * @param schemaTable the schema-table name to merge the rows into
+   * @param stagingTable the name of the staging table with the rows
+   * @param keyColumns the quoted columns which identify a row, with a unique key on them
+   * @param insertColumns the quoted columns to insert
+   * @param updateColumns the quoted columns to update, empty to only insert new rows
+   * @return the SQL to merge the rows or null if the database doesn't support it
+   */
+  default String getSqlMergeFromStagingTable(
+      String schemaTable,
+      String stagingTable,
+      List<String> keyColumns,
+      List<String> insertColumns,
+      List<String> updateColumns) {
+    return null;
+  }
+
+  /**
+   * Get the SQL to remove all the rows of a staging table after they are merged. It runs in the
+   * transaction of the merge, so it can't be a statement which commits implicitly.
+   *
+   * @param stagingTable the name of the staging table
+   * @return the SQL to empty the staging table
+   */
+  default String getSqlClearStagingTable(String stagingTable) {
+    return getTruncateTableStatement(stagingTable);
+  }
+
   /**
    * @return true if this is a relational database you can explore. Return false for SAP, PALO, etc.
    */
@@ -0,0 +1,594 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.database.pool;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+import org.apache.commons.pool.BasePoolableObjectFactory;
+import org.apache.commons.pool.impl.GenericObjectPool;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.core.logging.LogChannel;
+import org.apache.hop.core.util.Utils;
+
+/**
+ * A pool of JDBC connections to one database, with one set of credentials. Connections handed out
+ * by the pool are returned to it when they are closed. The pooling itself is done by a commons-pool
+ * {@link GenericObjectPool}, this class adds what a JDBC connection needs on top of it.
+ *
+ * <ul>
+ *   <li>At most maxSize connections exist at any time. When they are all in use, callers wait up to
+ *       maxWait milliseconds for one to be returned.
+ *   <li>Idle connections above minIdle are closed after idleTimeout milliseconds. The pool opens
+ *       connections in the background to keep at least minIdle of them.
+ *   <li>A connection which was idle for a while is validated before it is handed out, with the
+ *       validation query or else by the JDBC driver.
+ *   <li>Statements left open by the user of a connection are closed when the connection is given
+ *       back, uncommitted work is rolled back and the auto-commit and isolation level are restored.
+ *   <li>A connection which is in use for longer than the leak detection threshold is logged
+ *       together with the stack trace of the code which borrowed it.
+ *   <li>The time callers wait for a connection is measured.
+ * </ul>
+ */
+public class DatabaseConnectionPool implements DataSource, AutoCloseable {
+
+  /** Opens a new physical connection to the database */
+  @FunctionalInterface
+  public interface IConnectionFactory {
+    Connection createConnection() throws SQLException;
+  }
+
+  /** Connections returned less than this number of milliseconds ago are not validated again */
+  private static final long VALIDATION_BYPASS_MS = 500L;
+
+  /** The closed statements of a borrowed connection are forgotten once there are this many */
+  private static final int STATEMENT_PRUNE_SIZE = 100;
+
+  private static final ScheduledExecutorService housekeeper =
+      Executors.newSingleThreadScheduledExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "Hop database connection pool housekeeper");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  private final String name;
+  private final DatabaseConnectionPoolSettings settings;
+  private final IConnectionFactory connectionFactory;
+  private final ILogChannel log;
+  private final GenericObjectPool<PooledConnection> pool;
+  private volatile boolean closed;
+
+  private final AtomicInteger waitingCallers = new AtomicInteger();
+  private final LongAdder borrowCount = new LongAdder();
+  private final LongAdder waitTimeNanos = new LongAdder();
+  private final AtomicLong maxWaitTimeNanos = new AtomicLong();
+  private final LongAdder timeoutCount = new LongAdder();
+  private final LongAdder createdCount = new LongAdder();
+  private final LongAdder leakCount = new LongAdder();
+
+  /**
+   * Create a new connection pool. Connections are only opened when they are needed, or in the
+   * background to reach the minimum number of idle connections.
+   *
+   * @param name the name of the pool, typically the name of the database connection
+   * @param settings the settings of the pool
+   * @param connectionFactory opens the physical connections
+   */
+  public DatabaseConnectionPool(
+      String name, DatabaseConnectionPoolSettings settings, IConnectionFactory connectionFactory) {
+    this.name = name;
+    this.settings = settings;
+    this.connectionFactory = connectionFactory;
+    this.log = new LogChannel("Connection pool " + name);
+
+    GenericObjectPool.Config config = new GenericObjectPool.Config();
+    config.maxActive = settings.getMaxSize();
+    config.maxIdle = settings.getMaxSize();
+    config.minIdle = settings.getMinIdle();
+    config.whenExhaustedAction = GenericObjectPool.WHEN_EXHAUSTED_BLOCK;
+    // A maximum wait of 0 means forever for commons-pool, for us it means not waiting
+    config.maxWait = Math.max(1L, settings.getMaxWait());
+    config.testOnBorrow = true;
+    config.testOnReturn = false;
+    config.testWhileIdle = false;
+    config.lifo = true;
+    config.timeBetweenEvictionRunsMillis =
+        Math.max(1_000L, Math.min(30_000L, settings.getIdleTimeout() / 2));
+    config.numTestsPerEvictionRun = -1;
+    // Only close idle connections above the minimum
+    config.minEvictableIdleTimeMillis = -1L;
+    config.softMinEvictableIdleTimeMillis = settings.getIdleTimeout();
+    this.pool = new GenericObjectPool<>(new PooledConnectionFactory(), config);
+
+    // The evictor only opens the minimum number of idle connections after its first run
+    //
+    if (settings.getMinIdle() > 0) {
+      housekeeper.execute(this::ensureMinIdle);
+    }
+  }
+
+  /**
+   * Get a connection from the pool, waiting for one to be returned if they are all in use. Close
+   * the connection to give it back to the pool.
+   *
+   * @return the connection
+   * @throws SQLException in case no connection could be obtained
+   */
+  @Override
+  public Connection getConnection() throws SQLException {
+    if (closed) {
+      throw new SQLException("Connection pool '" + name + "' is closed");
+    }
+    PooledConnection pooledConnection;
+    long start = System.nanoTime();
+    waitingCallers.incrementAndGet();
+    try {
+      pooledConnection = pool.borrowObject();
+    } catch (NoSuchElementException e) {
+      if (System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(pool.getMaxWait())) {
+        // No connection could be opened or validated
+        throw new SQLException(
+            "Unable to get a valid connection from pool '" + name + "' : " + e.getMessage(), e);
+      }
+      timeoutCount.increment();
+      throw new SQLTimeoutException(
+          "Timeout waiting "
+              + settings.getMaxWait()
+              + "ms for a connection from pool '"
+              + name
+              + "', all "
+              + settings.getMaxSize()
+              + " connections are in use",
+          e);
+    } catch (SQLException e) {
+      throw e;
+    } catch (IllegalStateException e) {
+      throw new SQLException("Connection pool '" + name + "' is closed", e);
+    } catch (Exception e) {
+      throw new SQLException("Error getting a connection from pool '" + name + "'", e);
+    } finally {
+      waitingCallers.decrementAndGet();
+      long waited = System.nanoTime() - start;
+      waitTimeNanos.add(waited);
+      maxWaitTimeNanos.accumulateAndGet(waited, Math::max);
+    }
+    borrowCount.increment();
+    return pooledConnection.borrow();
+  }
+
+  private void ensureMinIdle() {
+    try {
+      while (!closed
+          && pool.getNumIdle() < settings.getMinIdle()
+          && pool.getNumIdle() + pool.getNumActive() < settings.getMaxSize()) {
+        pool.addObject();
+      }
+    } catch (Exception e) {
+      log.logError("Unable to open an idle connection for pool '" + name + "'", e);
+    }
+  }
+
+  /** Called when a borrowed connection is closed */
+  private void giveBack(PooledConnection pooledConnection) {
+    try {
+      pool.returnObject(pooledConnection);
+    } catch (Exception e) {
+      log.logDetailed("Error giving a connection back to pool '" + name + "': " + e.getMessage());
+    }
+  }
+
+  /**
+   * Close the pool and all the idle connections. Connections which are in use are closed when they
+   * are given back.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    try {
+      pool.close();
+    } catch (Exception e) {
+      log.logError("Error closing connection pool '" + name + "'", e);
+    }
+  }
+
+  public boolean isClosed() {
+    return closed;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public DatabaseConnectionPoolSettings getSettings() {
+    return settings;
+  }
+
+  /**
+   * @return the number of open connections, in use or idle
+   */
+  public int getTotalConnections() {
+    return pool.getNumActive() + pool.getNumIdle();
+  }
+
+  /**
+   * @return the number of idle connections
+   */
+  public int getIdleConnections() {
+    return pool.getNumIdle();
+  }
+
+  /**
+   * @return the number of connections in use
+   */
+  public int getActiveConnections() {
+    return pool.getNumActive();
+  }
+
+  /**
+   * @return the number of callers waiting for a connection
+   */
+  public int getWaitingCallers() {
+    return waitingCallers.get();
+  }
+
+  /**
+   * @return the number of connections handed out
+   */
+  public long getBorrowCount() {
+    return borrowCount.sum();
+  }
+
+  /**
+   * @return the number of physical connections opened
+   */
+  public long getCreatedCount() {
+    return createdCount.sum();
+  }
+
+  /**
+   * @return the number of times a caller gave up waiting for a connection
+   */
+  public long getTimeoutCount() {
+    return timeoutCount.sum();
+  }
+
+  /**
+   * @return the number of connections which were reported as possible leaks
+   */
+  public long getLeakCount() {
+    return leakCount.sum();
+  }
+
+  /**
+   * @return the total time in milliseconds callers waited for a connection
+   */
+  public long getTotalWaitTime() {
+    return TimeUnit.NANOSECONDS.toMillis(waitTimeNanos.sum());
+  }
+
+  /**
+   * @return the longest time in milliseconds a caller waited for a connection
+   */
+  public long getMaxWaitTime() {
+    return TimeUnit.NANOSECONDS.toMillis(maxWaitTimeNanos.get());
+  }
+
+  /**
+   * @return the average time in milliseconds a caller waited for a connection
+   */
+  public double getAverageWaitTime() {
+    long count = borrowCount.sum() + timeoutCount.sum();
+    return count == 0 ? 0.0 : waitTimeNanos.sum() / 1_000_000.0 / count;
+  }
+
+  @Override
+  public String toString() {
+    return "Connection pool '"
+        + name
+        + "' : active="
+        + getActiveConnections()
+        + ", idle="
+        + getIdleConnections()
+        + ", waiting="
+        + getWaitingCallers()
+        + ", borrowed="
+        + getBorrowCount()
+        + ", created="
+        + getCreatedCount()
+        + ", timeouts="
+        + getTimeoutCount()
+        + ", leaks="
+        + getLeakCount()
+        + ", total wait="
+        + getTotalWaitTime()
+        + "ms, max wait="
+        + getMaxWaitTime()
+        + "ms";
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    throw new SQLFeatureNotSupportedException(
+        "The credentials of a pooled connection can't be changed");
+  }
+
+  @Override
+  public PrintWriter getLogWriter() {
+    return null;
+  }
+
+  @Override
+  public void setLogWriter(PrintWriter out) {
+    // Logging goes to the Hop log channel
+  }
+
+  @Override
+  public void setLoginTimeout(int seconds) {
+    // The connection factory determines the login timeout
+  }
+
+  @Override
+  public int getLoginTimeout() {
+    return 0;
+  }
+
+  @Override
+  public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public <T> T unwrap(Class<T> iface) throws SQLException {
+    if (iface.isInstance(this)) {
+      return iface.cast(this);
+    }
+    throw new SQLException("Connection pool '" + name + "' is not a " + iface.getName());
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> iface) {
+    return iface.isInstance(this);
+  }
+
+  /** Opens, validates, resets and closes the physical connections for the commons-pool pool */
+  private final class PooledConnectionFactory extends BasePoolableObjectFactory<PooledConnection> {
+    @Override
+    public PooledConnection makeObject() throws SQLException {
+      PooledConnection pooledConnection =
+          new PooledConnection(connectionFactory.createConnection());
+      createdCount.increment();
+      return pooledConnection;
+    }
+
+    @Override
+    public void destroyObject(PooledConnection pooledConnection) {
+      try {
+        pooledConnection.connection.close();
+      } catch (SQLException e) {
+        log.logDetailed("Error closing pooled connection: " + e.getMessage());
+      }
+    }
+
+    @Override
+    public boolean validateObject(PooledConnection pooledConnection) {
+      return !pooledConnection.isIdleFor(VALIDATION_BYPASS_MS) || isValid(pooledConnection);
+    }
+
+    @Override
+    public void passivateObject(PooledConnection pooledConnection) throws SQLException {
+      pooledConnection.reset();
+    }
+
+    private boolean isValid(PooledConnection pooledConnection) {
+      Connection connection = pooledConnection.connection;
+      try {
+        if (Utils.isEmpty(settings.getValidationQuery())) {
+          return connection.isValid(settings.getValidationTimeout());
+        }
+        try (Statement statement = connection.createStatement()) {
+          statement.setQueryTimeout(settings.getValidationTimeout());
+          statement.execute(settings.getValidationQuery());
+        }
+        if (!connection.getAutoCommit()) {
+          connection.rollback();
+        }
+        return true;
+      } catch (SQLException e) {
+        log.logDetailed("Closing connection which failed validation: " + e.getMessage());
+        return false;
+      }
+    }
+  }
+
+  /** A physical connection in the pool */
+  private final class PooledConnection {
+    private final Connection connection;
+    private final boolean initialAutoCommit;
+    private final int initialTransactionIsolation;
+    private volatile long lastUsed;
+    private ScheduledFuture<?> leakDetection;
+
+    private PooledConnection(Connection connection) throws SQLException {
+      this.connection = connection;
+      this.initialAutoCommit = connection.getAutoCommit();
+      this.initialTransactionIsolation = connection.getTransactionIsolation();
+      this.lastUsed = System.currentTimeMillis();
+    }
+
+    private boolean isIdleFor(long milliseconds) {
+      return System.currentTimeMillis() - lastUsed >= milliseconds;
+    }
+
+    /** Hand out a proxy for the connection which gives it back to the pool when it is closed */
+    private Connection borrow() {
+      BorrowedConnection borrowedConnection = new BorrowedConnection(this);
+      long threshold = settings.getLeakDetectionThreshold();
+      if (threshold > 0) {
+        Exception borrowedAt = new Exception("The connection was borrowed here");
+        leakDetection =
+            housekeeper.schedule(
+                () -> {
+                  leakCount.increment();
+                  log.logError(
+                      "Possible connection leak: a connection of pool '"
+                          + name
+                          + "' is in use for more than "
+                          + threshold
+                          + "ms"
+                          + Const.CR
+                          + Const.getStackTracker(borrowedAt));
+                },
+                threshold,
+                TimeUnit.MILLISECONDS);
+      }
+      return (Connection)
+          Proxy.newProxyInstance(
+              DatabaseConnectionPool.class.getClassLoader(),
+              new Class<?>[] {Connection.class},
+              borrowedConnection);
+    }
+
+    /**
+     * Undo what the last user did to the connection.
+     *
+     * @throws SQLException in case the connection can't be used again
+     */
+    private void reset() throws SQLException {
+      if (leakDetection != null) {
+        leakDetection.cancel(false);
+        leakDetection = null;
+      }
+      if (connection.isClosed()) {
+        throw new SQLException("The connection is closed");
+      }
+      if (!connection.getAutoCommit()) {
+        // Don't let uncommitted work leak to the next user of the connection
+        connection.rollback();
+      }
+      if (connection.getAutoCommit() != initialAutoCommit) {
+        connection.setAutoCommit(initialAutoCommit);
+      }
+      if (connection.getTransactionIsolation() != initialTransactionIsolation) {
+        connection.setTransactionIsolation(initialTransactionIsolation);
+      }
+      connection.clearWarnings();
+      lastUsed = System.currentTimeMillis();
+    }
+  }
+
+  /**
+   * The connection as seen by one user, from borrowing it until closing it. It keeps track of the
+   * statements it creates to close the ones which are still open when the connection is closed.
+   */
+  private final class BorrowedConnection implements InvocationHandler {
+    private final PooledConnection pooledConnection;
+    private final List<Statement> statements = new ArrayList<>();
+    private boolean closed;
+
+    private BorrowedConnection(PooledConnection pooledConnection) {
+      this.pooledConnection = pooledConnection;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case "close":
+          synchronized (this) {
+            if (!closed) {
+              closed = true;
+              closeStatements();
+              giveBack(pooledConnection);
+            }
+          }
+          return null;
+        case "isClosed":
+          return closed || pooledConnection.connection.isClosed();
+        case "equals":
+          return proxy == args[0];
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        case "toString":
+          return "Pooled connection of '" + name + "' : " + pooledConnection.connection;
+        default:
+          break;
+      }
+      if (closed) {
+        throw new SQLException("The connection is closed");
+      }
+      Object result;
+      try {
+        result = method.invoke(pooledConnection.connection, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+      if (result instanceof Statement statement) {
+        track(statement);
+      }
+      return result;
+    }
+
+    private synchronized void track(Statement statement) {
+      if (statements.size() >= STATEMENT_PRUNE_SIZE) {
+        statements.removeIf(BorrowedConnection::isClosed);
+      }
+      statements.add(statement);
+    }
+
+    private void closeStatements() {
+      for (Statement statement : statements) {
+        try {
+          if (!statement.isClosed()) {
+            statement.close();
+          }
+        } catch (SQLException e) {
+          log.logDetailed("Error closing a statement left open: " + e.getMessage());
+        }
+      }
+      statements.clear();
+    }
+
+    private static boolean isClosed(Statement statement) {
+      try {
+        return statement.isClosed();
+      } catch (SQLException e) {
+        return true;
+      }
+    }
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.database.pool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * This class keeps the connection pools of the database connections which use pooling. There is one
+ * pool per database connection name, URL, credentials, connection properties and pool settings so
+ * that a change in any of those after resolving variables results in a new pool.
+ */
+public class DatabaseConnectionPoolMap {
+  private final ConcurrentMap<String, DatabaseConnectionPool> map;
+
+  private static final DatabaseConnectionPoolMap poolMap = new DatabaseConnectionPoolMap();
+
+  public static DatabaseConnectionPoolMap getInstance() {
+    return poolMap;
+  }
+
+  private DatabaseConnectionPoolMap() {
+    map = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * @param key the key of the pool
+   * @return the pool for the key or null if there is none yet
+   */
+  public DatabaseConnectionPool getPool(String key) {
+    return map.get(key);
+  }
+
+  /**
+   * Get the pool for a key, create it if there is none yet.
+   *
+   * @param key the key of the pool
+   * @param name the name of the pool, typically the name of the database connection
+   * @param settings the settings used to create the pool
+   * @param connectionFactory opens the connections of a new pool
+   * @return the pool
+   */
+  public DatabaseConnectionPool getOrCreatePool(
+      String key,
+      String name,
+      DatabaseConnectionPoolSettings settings,
+      DatabaseConnectionPool.IConnectionFactory connectionFactory) {
+    return map.computeIfAbsent(
+        key, k -> new DatabaseConnectionPool(name, settings, connectionFactory));
+  }
+
+  /**
+   * @return all the connection pools
+   */
+  public List<DatabaseConnectionPool> getPools() {
+    return new ArrayList<>(map.values());
+  }
+
+  /**
+   * Close all the connection pools. Connections which are in use are closed when they are given
+   * back.
+   */
+  public void closeAll() {
+    for (String key : new ArrayList<>(map.keySet())) {
+      DatabaseConnectionPool pool = map.remove(key);
+      if (pool != null) {
+        pool.close();
+      }
+    }
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.database.pool;
+
+import static org.apache.hop.core.database.BaseDatabaseMeta.POOLING_PARAMETER_IDLE_TIMEOUT;
+import static org.apache.hop.core.database.BaseDatabaseMeta.POOLING_PARAMETER_LEAK_DETECTION_THRESHOLD;
+import static org.apache.hop.core.database.BaseDatabaseMeta.POOLING_PARAMETER_MAX_SIZE;
+import static org.apache.hop.core.database.BaseDatabaseMeta.POOLING_PARAMETER_MAX_WAIT;
+import static org.apache.hop.core.database.BaseDatabaseMeta.POOLING_PARAMETER_MIN_IDLE;
+import static org.apache.hop.core.database.BaseDatabaseMeta.POOLING_PARAMETER_VALIDATION_QUERY;
+import static org.apache.hop.core.database.BaseDatabaseMeta.POOLING_PARAMETER_VALIDATION_TIMEOUT;
+
+import java.util.Map;
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.database.BaseDatabaseMeta;
+import org.apache.hop.core.database.DatabaseConnectionPoolParameter;
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.util.Utils;
+
+/** The settings of a {@link DatabaseConnectionPool} */
+@Getter
+@Setter
+public class DatabaseConnectionPoolSettings {
+  /** The maximum number of connections, in use or idle */
+  private int maxSize;
+
+  /** The minimum number of idle connections to keep open */
+  private int minIdle;
+
+  /** The time in milliseconds after which an idle connection above the minimum is closed */
+  private long idleTimeout;
+
+  /** The maximum time in milliseconds to wait for a connection */
+  private long maxWait;
+
+  /** The query to validate a connection with, the JDBC driver validates it if empty */
+  private String validationQuery;
+
+  /** The maximum time in seconds to validate a connection */
+  private int validationTimeout;
+
+  /** The time in milliseconds after which a connection in use is reported as leaked, 0 is off */
+  private long leakDetectionThreshold;
+
+  public DatabaseConnectionPoolSettings() {
+    maxSize = 10;
+    minIdle = 0;
+    idleTimeout = 600_000L;
+    maxWait = 30_000L;
+    validationQuery = null;
+    validationTimeout = 5;
+    leakDetectionThreshold = 0L;
+  }
+
+  /**
+   * Get the settings from connection pool parameters. The parameters which are not specified get
+   * their default value from {@link BaseDatabaseMeta#poolingParameters}.
+   *
+   * @param parameters the parameters with the variables resolved
+   * @return the settings
+   * @throws HopDatabaseException in case a parameter value is not valid
+   */
+  public static DatabaseConnectionPoolSettings fromParameters(Map<String, String> parameters)
+      throws HopDatabaseException {
+    DatabaseConnectionPoolSettings settings = new DatabaseConnectionPoolSettings();
+    settings.maxSize = (int) getNumber(parameters, POOLING_PARAMETER_MAX_SIZE);
+    settings.minIdle = (int) getNumber(parameters, POOLING_PARAMETER_MIN_IDLE);
+    settings.idleTimeout = getNumber(parameters, POOLING_PARAMETER_IDLE_TIMEOUT);
+    settings.maxWait = getNumber(parameters, POOLING_PARAMETER_MAX_WAIT);
+    settings.validationQuery = getValue(parameters, POOLING_PARAMETER_VALIDATION_QUERY);
+    settings.validationTimeout = (int) getNumber(parameters, POOLING_PARAMETER_VALIDATION_TIMEOUT);
+    settings.leakDetectionThreshold =
+        getNumber(parameters, POOLING_PARAMETER_LEAK_DETECTION_THRESHOLD);
+
+    if (settings.maxSize < 1) {
+      throw new HopDatabaseException(
+          "The maximum size of a connection pool needs to be at least 1, not " + settings.maxSize);
+    }
+    settings.minIdle = Math.max(0, Math.min(settings.minIdle, settings.maxSize));
+    return settings;
+  }
+
+  private static String getValue(Map<String, String> parameters, String name) {
+    String value = parameters.get(name);
+    if (Utils.isEmpty(value)) {
+      DatabaseConnectionPoolParameter parameter =
+          DatabaseConnectionPoolParameter.findParameter(name, BaseDatabaseMeta.poolingParameters);
+      value = parameter == null ? null : parameter.getDefaultValue();
+    }
+    return Utils.isEmpty(value) ? null : value.trim();
+  }
+
+  private static long getNumber(Map<String, String> parameters, String name)
+      throws HopDatabaseException {
+    String value = getValue(parameters, name);
+    try {
+      return Long.parseLong(Const.NVL(value, "0"));
+    } catch (NumberFormatException e) {
+      throw new HopDatabaseException(
+          "Invalid value '" + value + "' for connection pool parameter " + name, e);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "maxSize="
+        + maxSize
+        + ", minIdle="
+        + minIdle
+        + ", idleTimeout="
+        + idleTimeout
+        + ", maxWait="
+        + maxWait
+        + ", validationQuery="
+        + validationQuery
+        + ", validationTimeout="
+        + validationTimeout
+        + ", leakDetectionThreshold="
+        + leakDetectionThreshold;
+  }
+}
@@ -18,26 +18,39 @@
 package org.apache.hop.core.logging;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
 import lombok.Getter;
 import lombok.Setter;
 import org.apache.hop.core.Const;
 
-/** This class keeps the last N lines in a buffer */
+/**
+ * This class keeps the last N lines in a buffer.
+ *
+ * <p>The lines are kept in a ring of slots which are addressed by an ever increasing position.
+ * Every log channel also keeps the positions of its own lines so that the lines of a pipeline or
+ * workflow and its children can be retrieved without looking at the lines of all the other
+ * channels. Writers take a lock, readers don't: they only trust the lines which are still in the
+ * buffer after they're done reading.
+ */
 public class LoggingBuffer {
+  private static final int MIN_CAPACITY = 1024;
+  private static final int MIN_CHANNEL_CAPACITY = 16;
+
   @Getter @Setter private String name;
 
-  private List<BufferLine> buffer;
-  private ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final ReentrantLock lock = new ReentrantLock();
 
-  private int bufferSize;
+  private volatile Ring ring;
+
+  private volatile int bufferSize;
 
   @Getter @Setter private HopLogLayout layout;
 
@@ -47,10 +60,7 @@ public class LoggingBuffer {
 
   public LoggingBuffer(int bufferSize) {
     this.bufferSize = bufferSize;
-    // The buffer overflow protection allows it to be overflowed for 1 item within a single thread.
-    // Considering a possible high contention, let's set it's max overflow size to be 10%.
-    // Anyway, even an overflow goes higher than 10%, it wouldn't cost us too much.
-    buffer = new ArrayList<>((int) (bufferSize * 1.1));
+    ring = new Ring(getInitialCapacity());
     layout = new HopLogLayout(true);
     eventListeners = new CopyOnWriteArrayList<>();
   }
@@ -60,15 +70,12 @@ public class LoggingBuffer {
    *     buffer, 0 is returned.
    */
   public int getLastBufferLineNr() {
-    lock.readLock().lock();
-    try {
-      if (!buffer.isEmpty()) {
-        return buffer.get(buffer.size() - 1).getNr();
-      } else {
-        return 0;
-      }
-    } finally {
-      lock.readLock().unlock();
+    Ring current = ring;
+    long tail = current.tail;
+    if (tail > current.head) {
+      return current.nrs[current.slot(tail - 1)];
+    } else {
+      return 0;
     }
   }
 
@@ -81,24 +88,78 @@ public class LoggingBuffer {
    */
   public List<HopLoggingEvent> getLogBufferFromTo(
       List<String> channelId, boolean includeGeneral, int from, int to) {
-    lock.readLock().lock();
-    try {
-      Stream<BufferLine> bufferStream =
-          buffer.stream().filter(line -> line.getNr() > from && line.getNr() <= to);
-      if (channelId != null) {
-        bufferStream =
-            bufferStream.filter(
-                line -> {
-                  String logChannelId = getLogChId(line);
-                  return includeGeneral
-                      ? isGeneral(logChannelId) || channelId.contains(logChannelId)
-                      : channelId.contains(logChannelId);
-                });
+    Ring current = ring;
+
+    // Read the tail first: all the lines before it are in the ring.
+    //
+    long tail = current.tail;
+    long head = current.head;
+
+    long[] positions;
+    int nrPositions;
+    if (channelId == null) {
+      long start = current.getFirstPositionAfter(from, head, tail);
+      long end = start;
+      while (end < tail && current.nrs[current.slot(end)] <= to) {
+        end++;
+      }
+      nrPositions = (int) (end - start);
+      positions = new long[nrPositions];
+      for (int i = 0; i < nrPositions; i++) {
+        positions[i] = start + i;
+      }
+    } else {
+      Set<String> ids = new LinkedHashSet<>(channelId);
+      if (includeGeneral) {
+        for (String id : current.generalChannels) {
+          if (isGeneral(id)) {
+            ids.add(id);
+          }
+        }
+      }
+      positions = new long[16];
+      nrPositions = 0;
+      int nrChannels = 0;
+      for (String id : ids) {
+        ChannelLines channelLines = id == null ? null : current.channels.get(id);
+        if (channelLines == null) {
+          continue;
+        }
+        nrChannels++;
+        int count = channelLines.size;
+        long[] channelPositions = channelLines.positions;
+        for (int i = channelLines.getFirstIndexAfter(current, from, head, count); i < count; i++) {
+          long position = channelPositions[i];
+          if (position >= tail || current.nrs[current.slot(position)] > to) {
+            break;
+          }
+          if (nrPositions == positions.length) {
+            positions = Arrays.copyOf(positions, nrPositions * 2);
+          }
+          positions[nrPositions++] = position;
+        }
+      }
+      if (nrChannels > 1) {
+        Arrays.sort(positions, 0, nrPositions);
       }
-      return bufferStream.map(BufferLine::getEvent).collect(Collectors.toList());
-    } finally {
-      lock.readLock().unlock();
     }
+
+    List<BufferLine> lines = new ArrayList<>(nrPositions);
+    for (int i = 0; i < nrPositions; i++) {
+      lines.add(current.lines.get(current.slot(positions[i])));
+    }
+
+    // Lines which dropped out of the buffer while we were reading can have been replaced.
+    //
+    long oldest = current.head;
+    List<HopLoggingEvent> events = new ArrayList<>(nrPositions);
+    for (int i = 0; i < nrPositions; i++) {
+      BufferLine line = lines.get(i);
+      if (line != null && positions[i] >= oldest) {
+        events.add(line.getEvent());
+      }
+    }
+    return events;
   }
 
   /**
@@ -151,15 +212,27 @@ public class LoggingBuffer {
   }
 
   public void doAppend(HopLoggingEvent event) {
-    if (event.getMessage() instanceof LogMessage) {
-      lock.writeLock().lock();
+    if (event.getMessage() instanceof LogMessage logMessage) {
+      lock.lock();
       try {
-        buffer.add(new BufferLine(event));
-        while (bufferSize > 0 && buffer.size() > bufferSize) {
-          buffer.remove(0);
+        Ring current = ring;
+        int maxNrLines = bufferSize;
+        while (maxNrLines > 0 && current.size >= maxNrLines) {
+          current.removeOldest();
+        }
+        if (current.isFull()) {
+          // Grow the ring or just get rid of the holes left by removed lines
+          //
+          int capacity = current.lines.length();
+          if (current.size * 2 >= capacity) {
+            capacity *= 2;
+          }
+          current = current.copy(capacity);
+          ring = current;
         }
+        current.add(new BufferLine(event), logMessage.getLogChannelId());
       } finally {
-        lock.writeLock().unlock();
+        lock.unlock();
       }
     }
   }
@@ -169,11 +242,11 @@ public class LoggingBuffer {
   }
 
   public void clear() {
-    lock.writeLock().lock();
+    lock.lock();
     try {
-      buffer.clear();
+      ring = new Ring(getInitialCapacity());
     } finally {
-      lock.writeLock().unlock();
+      lock.unlock();
     }
   }
 
@@ -196,7 +269,7 @@ public class LoggingBuffer {
    * @return the nrLines
    */
   public int getNrLines() {
-    return buffer.size();
+    return ring.size;
   }
 
   /**
@@ -205,47 +278,45 @@ public class LoggingBuffer {
    * @param id the id of the logging channel to remove
    */
   public void removeChannelFromBuffer(String id) {
-    lock.writeLock().lock();
+    lock.lock();
     try {
-      buffer.removeIf(line -> id.equals(getLogChId(line)));
+      ring.removeChannel(id);
     } finally {
-      lock.writeLock().unlock();
+      lock.unlock();
     }
   }
 
   public int size() {
-    return buffer.size();
+    return ring.size;
   }
 
   public void removeGeneralMessages() {
-    lock.writeLock().lock();
+    lock.lock();
     try {
-      buffer.removeIf(line -> isGeneral(getLogChId(line)));
+      Ring current = ring;
+      for (String id : new ArrayList<>(current.generalChannels)) {
+        if (isGeneral(id)) {
+          current.removeChannel(id);
+        }
+      }
     } finally {
-      lock.writeLock().unlock();
+      lock.unlock();
     }
   }
 
   public void removeBufferLinesBefore(long minTimeBoundary) {
-    // Using HashSet even though BufferLine does not implement hashcode and equals,
-    // we just need to remove the exact objects we have found and put in the set.
-    Set<BufferLine> linesToRemove = new HashSet<>();
-    lock.writeLock().lock();
+    lock.lock();
     try {
-      for (BufferLine bufferLine : buffer) {
-        if (bufferLine.getEvent().timeStamp < minTimeBoundary) {
-          linesToRemove.add(bufferLine);
-        } else {
+      Ring current = ring;
+      while (current.head < current.tail) {
+        BufferLine line = current.lines.get(current.slot(current.head));
+        if (line != null && line.getEvent().timeStamp >= minTimeBoundary) {
           break;
         }
+        current.removeOldest();
       }
-      // removeAll should run fast against a HashSet,
-      // since ArrayList.batchRemove check for each element of a collection given if it is in the
-      // ArrayList.
-      // Thus, removeAll should run in a linear time.
-      buffer.removeAll(linesToRemove);
     } finally {
-      lock.writeLock().unlock();
+      lock.unlock();
     }
   }
 
@@ -270,4 +341,195 @@ public class LoggingBuffer {
   private static String getLogChId(BufferLine bufferLine) {
     return ((LogMessage) bufferLine.getEvent().getMessage()).getLogChannelId();
   }
+
+  private int getInitialCapacity() {
+    int maxNrLines = bufferSize;
+    if (maxNrLines <= 0 || maxNrLines >= MIN_CAPACITY) {
+      return MIN_CAPACITY;
+    }
+    return Integer.highestOneBit(maxNrLines) << 1;
+  }
+
+  /**
+   * The lines between the head and tail positions. Only the thread holding the lock changes a ring.
+   * A ring is replaced by a copy when it's full, the readers of the old ring keep a consistent
+   * view.
+   */
+  private final class Ring {
+    private final AtomicReferenceArray<BufferLine> lines;
+
+    /** The line numbers, these are kept after a line is removed */
+    private final int[] nrs;
+
+    private final int mask;
+
+    /** The log channels and the positions of their lines */
+    private final Map<String, ChannelLines> channels = new ConcurrentHashMap<>();
+
+    /** The log channels of the general logging objects */
+    private final Set<String> generalChannels = ConcurrentHashMap.newKeySet();
+
+    /** The position of the oldest line */
+    private volatile long head;
+
+    /** The position of the next line */
+    private volatile long tail;
+
+    /** The number of lines which were not removed */
+    private volatile int size;
+
+    private Ring(int capacity) {
+      lines = new AtomicReferenceArray<>(capacity);
+      nrs = new int[capacity];
+      mask = capacity - 1;
+    }
+
+    private int slot(long position) {
+      return (int) (position & mask);
+    }
+
+    private boolean isFull() {
+      return tail - head == lines.length();
+    }
+
+    private void add(BufferLine line, String logChannelId) {
+      long position = tail;
+      int slot = slot(position);
+      nrs[slot] = line.getNr();
+      lines.set(slot, line);
+      if (logChannelId != null) {
+        ChannelLines channelLines = channels.get(logChannelId);
+        if (channelLines == null) {
+          channelLines = new ChannelLines(MIN_CHANNEL_CAPACITY);
+          channels.put(logChannelId, channelLines);
+          if (isGeneral(logChannelId)) {
+            generalChannels.add(logChannelId);
+          }
+        } else if (channelLines.isFull()) {
+          channelLines = channelLines.copy(head);
+          channels.put(logChannelId, channelLines);
+        }
+        channelLines.add(position);
+      }
+      size++;
+      tail = position + 1;
+    }
+
+    /** Drops the oldest line. The head moves before the slot is cleared or reused. */
+    private void removeOldest() {
+      long position = head;
+      int slot = slot(position);
+      BufferLine line = lines.get(slot);
+      head = position + 1;
+      lines.set(slot, null);
+      if (line != null) {
+        size--;
+        String logChannelId = getLogChId(line);
+        ChannelLines channelLines = logChannelId == null ? null : channels.get(logChannelId);
+        if (channelLines != null && channelLines.getLastPosition() <= position) {
+          channels.remove(logChannelId);
+          generalChannels.remove(logChannelId);
+        }
+      }
+    }
+
+    private void removeChannel(String logChannelId) {
+      ChannelLines channelLines = channels.remove(logChannelId);
+      generalChannels.remove(logChannelId);
+      if (channelLines == null) {
+        return;
+      }
+      for (int i = 0; i < channelLines.size; i++) {
+        long position = channelLines.positions[i];
+        if (position >= head) {
+          int slot = slot(position);
+          if (lines.get(slot) != null) {
+            lines.set(slot, null);
+            size--;
+          }
+        }
+      }
+    }
+
+    /** A copy of the remaining lines in a new ring with the given capacity */
+    private Ring copy(int capacity) {
+      Ring copy = new Ring(capacity);
+      for (long position = head; position < tail; position++) {
+        BufferLine line = lines.get(slot(position));
+        if (line != null) {
+          copy.add(line, getLogChId(line));
+        }
+      }
+      return copy;
+    }
+
+    /** The first position between head and tail with a line number after the given one */
+    private long getFirstPositionAfter(int nr, long head, long tail) {
+      long low = head;
+      long high = tail;
+      while (low < high) {
+        long middle = (low + high) >>> 1;
+        if (nrs[slot(middle)] <= nr) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+      return low;
+    }
+  }
+
+  /**
+   * The positions of the lines of a log channel. Only the thread holding the lock adds positions, a
+   * full list is replaced by a copy without the positions which are no longer in the ring.
+   */
+  private static final class ChannelLines {
+    private final long[] positions;
+    private volatile int size;
+
+    private ChannelLines(int capacity) {
+      positions = new long[capacity];
+    }
+
+    private boolean isFull() {
+      return size == positions.length;
+    }
+
+    private void add(long position) {
+      positions[size] = position;
+      size++;
+    }
+
+    private long getLastPosition() {
+      return positions[size - 1];
+    }
+
+    private ChannelLines copy(long head) {
+      int first = 0;
+      while (first < size && positions[first] < head) {
+        first++;
+      }
+      int remaining = size - first;
+      ChannelLines copy = new ChannelLines(Math.max(MIN_CHANNEL_CAPACITY, remaining * 2));
+      System.arraycopy(positions, first, copy.positions, 0, remaining);
+      copy.size = remaining;
+      return copy;
+    }
+
+    /** The index of the first position in the ring with a line number after the given one */
+    private int getFirstIndexAfter(Ring ring, int nr, long head, int count) {
+      int low = 0;
+      int high = count;
+      while (low < high) {
+        int middle = (low + high) >>> 1;
+        long position = positions[middle];
+        if (position < head || ring.nrs[ring.slot(position)] <= nr) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+      return low;
+    }
+  }
 }
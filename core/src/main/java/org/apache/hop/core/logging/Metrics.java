@@ -28,6 +28,16 @@ public class Metrics implements IMetrics {
       new Metrics(MetricsSnapshotType.START, "METRIC_DATABASE_CONNECT", "Connect to database");
   public static final Metrics METRIC_DATABASE_CONNECT_STOP =
       new Metrics(MetricsSnapshotType.STOP, "METRIC_DATABASE_CONNECT", "Connect to database");
+  public static final Metrics METRIC_DATABASE_POOL_WAIT_START =
+      new Metrics(
+          MetricsSnapshotType.START,
+          "METRIC_DATABASE_POOL_WAIT",
+          "Wait for a pooled database connection");
+  public static final Metrics METRIC_DATABASE_POOL_WAIT_STOP =
+      new Metrics(
+          MetricsSnapshotType.STOP,
+          "METRIC_DATABASE_POOL_WAIT",
+          "Wait for a pooled database connection");
   public static final Metrics METRIC_DATABASE_PREPARE_SQL_START =
       new Metrics(
           MetricsSnapshotType.START, "METRIC_DATABASE_PREPARE_SQL", "Prepare SQL statement");
@@ -0,0 +1,661 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.row;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.exception.HopEofException;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopFileException;
+import org.apache.hop.core.exception.HopPluginException;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.value.ValueMetaBase;
+import org.apache.hop.core.row.value.ValueMetaFactory;
+import org.apache.hop.core.util.Utils;
+import org.apache.hop.core.xml.XmlHandler;
+import org.w3c.dom.Node;
+
+/**
+ * Row metadata which is handed out to the transforms reading the rows of a row set. Every row set
+ * gets its own copy of the value metadata so that a transform changing its input row metadata
+ * doesn't affect the other readers. Since the layout rarely changes after that, the field positions
+ * and the values that need a real clone are calculated once for every layout and everything can be
+ * read without locking. A change to the layout builds and publishes a new layout, like a {@link
+ * java.util.concurrent.CopyOnWriteArrayList}.
+ */
+public class CopyOnWriteRowMeta implements IRowMeta {
+  private volatile Layout layout;
+
+  private CopyOnWriteRowMeta(List<IValueMeta> valueMetaList) {
+    this.layout = new Layout(valueMetaList);
+  }
+
+  /**
+   * Copy the given row metadata. The value metadata is cloned so that later changes to the source
+   * don't affect the copy and the other way around.
+   *
+   * @param rowMeta the row metadata to copy
+   * @return the copy
+   */
+  public static CopyOnWriteRowMeta of(IRowMeta rowMeta) {
+    return new CopyOnWriteRowMeta(rowMeta.clone().getValueMetaList());
+  }
+
+  /** The value metadata of a row and the information calculated from it. */
+  private static final class Layout {
+    private final IValueMeta[] valueMetas;
+    private final Map<String, Integer> indexes;
+    private final Map<String, Integer> lowerCaseIndexes;
+    private final int[] needRealClone;
+
+    private Layout(List<IValueMeta> valueMetaList) {
+      this.valueMetas = valueMetaList.toArray(new IValueMeta[0]);
+      this.indexes = new HashMap<>();
+      this.lowerCaseIndexes = new HashMap<>();
+      int[] realClones = new int[valueMetas.length];
+      int nrRealClones = 0;
+      for (int i = 0; i < valueMetas.length; i++) {
+        String name = valueMetas[i].getName();
+        if (!Utils.isEmpty(name)) {
+          // With duplicate names the first value wins, like in RowMeta
+          indexes.putIfAbsent(name, i);
+          lowerCaseIndexes.putIfAbsent(name.toLowerCase(), i);
+        }
+        if (valueMetas[i].requiresRealClone()) {
+          realClones[nrRealClones++] = i;
+        }
+      }
+      this.needRealClone = Arrays.copyOf(realClones, nrRealClones);
+    }
+  }
+
+  /** A change to the layout, applied to a {@link RowMeta} */
+  private interface ILayoutChange {
+    void apply(RowMeta rowMeta) throws HopValueException;
+  }
+
+  /**
+   * Apply a change to a {@link RowMeta} holding the current value metadata and publish the result
+   * as the new layout. The value metadata itself isn't copied, the same as when the row metadata is
+   * changed directly.
+   */
+  private synchronized void change(ILayoutChange change) throws HopValueException {
+    RowMeta rowMeta = new RowMeta();
+    rowMeta.setValueMetaList(new ArrayList<>(Arrays.asList(layout.valueMetas)));
+    change.apply(rowMeta);
+    layout = new Layout(rowMeta.getValueMetaList());
+  }
+
+  private void changeUnchecked(ILayoutChange change) {
+    try {
+      change(change);
+    } catch (HopValueException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof RowMeta) && !(o instanceof CopyOnWriteRowMeta)) return false;
+    IValueMeta[] valueMetas = layout.valueMetas;
+    IRowMeta rowMeta = (IRowMeta) o;
+    for (int i = 0; i < valueMetas.length; i++) {
+      if (!valueMetas[i].equals(rowMeta.getValueMeta(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(Arrays.asList(layout.valueMetas));
+  }
+
+  /**
+   * @return a copy of this row metadata which can be changed
+   */
+  @Override
+  public RowMeta clone() {
+    try {
+      return toRowMeta(null);
+    } catch (HopPluginException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Override
+  public IRowMeta cloneToType(int targetType) throws HopValueException {
+    try {
+      return toRowMeta(targetType);
+    } catch (HopPluginException e) {
+      throw new HopValueException(e);
+    }
+  }
+
+  private RowMeta toRowMeta(Integer targetType) throws HopPluginException {
+    IValueMeta[] valueMetas = layout.valueMetas;
+    List<IValueMeta> list = new ArrayList<>(valueMetas.length);
+    for (IValueMeta valueMeta : valueMetas) {
+      list.add(
+          ValueMetaFactory.cloneValueMeta(
+              valueMeta, targetType == null ? valueMeta.getType() : targetType));
+    }
+    RowMeta rowMeta = new RowMeta();
+    rowMeta.setValueMetaList(list);
+    return rowMeta;
+  }
+
+  @Override
+  public String toString() {
+    IValueMeta[] valueMetas = layout.valueMetas;
+    StringBuilder buffer = new StringBuilder();
+    for (int i = 0; i < valueMetas.length; i++) {
+      if (i > 0) {
+        buffer.append(", ");
+      }
+      buffer.append("[").append(valueMetas[i].toString()).append("]");
+    }
+    return buffer.toString();
+  }
+
+  @Override
+  public List<IValueMeta> getValueMetaList() {
+    return new ArrayList<>(Arrays.asList(layout.valueMetas));
+  }
+
+  @Override
+  public void setValueMetaList(List<IValueMeta> valueMetaList) {
+    changeUnchecked(rowMeta -> rowMeta.setValueMetaList(new ArrayList<>(valueMetaList)));
+  }
+
+  @Override
+  public int size() {
+    IValueMeta[] valueMetas = layout.valueMetas;
+    return valueMetas.length;
+  }
+
+  @Override
+  @JsonIgnore
+  public boolean isEmpty() {
+    IValueMeta[] valueMetas = layout.valueMetas;
+    return valueMetas.length == 0;
+  }
+
+  @Override
+  public boolean exists(IValueMeta meta) {
+    return (meta != null) && searchValueMeta(meta.getName()) != null;
+  }
+
+  @Override
+  public void addValueMeta(IValueMeta meta) {
+    changeUnchecked(rowMeta -> rowMeta.addValueMeta(meta));
+  }
+
+  @Override
+  public void addValueMeta(int index, IValueMeta meta) {
+    changeUnchecked(rowMeta -> rowMeta.addValueMeta(index, meta));
+  }
+
+  @Override
+  public IValueMeta getValueMeta(int index) {
+    IValueMeta[] valueMetas = layout.valueMetas;
+    if ((index >= 0) && (index < valueMetas.length)) {
+      return valueMetas[index];
+    } else {
+      return null;
+    }
+  }
+
+  @Override
+  public void setValueMeta(int index, IValueMeta valueMeta) {
+    changeUnchecked(rowMeta -> rowMeta.setValueMeta(index, valueMeta));
+  }
+
+  @Override
+  public String getString(Object[] dataRow, int index) throws HopValueException {
+    IValueMeta[] valueMetas = layout.valueMetas;
+    if (dataRow == null) {
+      return null;
+    }
+    return valueMetas[index].getString(dataRow[index]);
+  }
+
+  @Override
+  public Long getInteger(Object[] dataRow, int index) throws HopValueException {
+    IValueMeta[] valueMetas = layout.valueMetas;
+    if (dataRow == null) {
+      return null;
+    }
+    return valueMetas[index].getInteger(dataRow[index]);
+  }
+
+  @Override
+  public Double getNumber(Object[] dataRow, int index) throws HopValueException {
+    IValueMeta[] valueMetas = layout.valueMetas;
+    if (dataRow == null) {
+      return null;
+    }
+    return valueMetas[index].getNumber(dataRow[index]);
+  }
+
+  @Override
+  public Date getDate(Object[] dataRow, int index) throws HopValueException {
+    IValueMeta[] valueMetas = layout.valueMetas;
+    if (dataRow == null) {
+      return null;
+    }
+    return valueMetas[index].getDate(dataRow[index]);
+  }
+
+  @Override
+  public BigDecimal getBigNumber(Object[] dataRow, int index) throws HopValueException {
+    IValueMeta[] valueMetas = layout.valueMetas;
+    if (dataRow == null) {
+      return null;
+    }
+    return valueMetas[index].getBigNumber(dataRow[index]);
+  }
+
+  @Override
+  public Boolean getBoolean(Object[] dataRow, int index) throws HopValueException {
+    IValueMeta[] valueMetas = layout.valueMetas;
+    if (dataRow == null) {
+      return null;
+    }
+    return valueMetas[index].getBoolean(dataRow[index]);
+  }
+
+  @Override
+  public byte[] getBinary(Object[] dataRow, int index) throws HopValueException {
+    IValueMeta[] valueMetas = layout.valueMetas;
+    if (dataRow == null) {
+      return null;
+    }
+    return valueMetas[index].getBinary(dataRow[index]);
+  }
+
+  @Override
+  public boolean isNull(Object[] dataRow, int index) throws HopValueException {
+    IValueMeta[] valueMetas = layout.valueMetas;
+    if (dataRow == null) {
+      return true;
+    }
+    return valueMetas[index].isNull(dataRow[index]);
+  }
+
+  @Override
+  public Object[] cloneRow(Object[] objects) throws HopValueException {
+    return cloneRow(objects, objects.clone());
+  }
+
+  @Override
+  public Object[] cloneRow(Object[] objects, Object[] newObjects) throws HopValueException {
+    Layout current = layout;
+    for (int i : current.needRealClone) {
+      newObjects[i] = current.valueMetas[i].cloneValueData(objects[i]);
+    }
+    return newObjects;
+  }
+
+  @Override
+  public String getString(Object[] dataRow, String valueName, String defaultValue)
+      throws HopValueException {
+    int index = indexOfValue(valueName);
+    if (index < 0) {
+      return defaultValue;
+    }
+    return getString(dataRow, index);
+  }
+
+  @Override
+  public Long getInteger(Object[] dataRow, String valueName, Long defaultValue)
+      throws HopValueException {
+    int index = indexOfValue(valueName);
+    if (index < 0) {
+      return defaultValue;
+    }
+    return getInteger(dataRow, index);
+  }
+
+  @Override
+  public Date getDate(Object[] dataRow, String valueName, Date defaultValue)
+      throws HopValueException {
+    int index = indexOfValue(valueName);
+    if (index < 0) {
+      return defaultValue;
+    }
+    return getDate(dataRow, index);
+  }
+
+  @Override
+  public Boolean getBoolean(Object[] dataRow, String valueName, Boolean defaultValue)
+      throws HopValueException {
+    int index = indexOfValue(valueName);
+    if (index < 0) {
+      return defaultValue;
+    }
+    return getBoolean(dataRow, index);
+  }
+
+  /**
+   * Searches the index of a value meta with a given name, ignoring case. The exact name is looked
+   * up first so that the usual lookups don't need to convert the name to lower case.
+   *
+   * @param valueName the name of the value metadata to look for
+   * @return the index or -1 in case we didn't find the value
+   */
+  @Override
+  public int indexOfValue(String valueName) {
+    Layout current = layout;
+    if (valueName == null) {
+      return -1;
+    }
+    Integer index = current.indexes.get(valueName);
+    if (index == null) {
+      index = current.lowerCaseIndexes.get(valueName.toLowerCase());
+    }
+    // The value metadata itself can still be renamed, so verify the name
+    if (index != null && valueName.equalsIgnoreCase(current.valueMetas[index].getName())) {
+      return index;
+    }
+    for (int i = 0; i < current.valueMetas.length; i++) {
+      if (valueName.equalsIgnoreCase(current.valueMetas[i].getName())) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public IValueMeta searchValueMeta(String valueName) {
+    IValueMeta[] valueMetas = layout.valueMetas;
+    int index = indexOfValue(valueName);
+    if (index < 0) {
+      return null;
+    }
+    return valueMetas[index];
+  }
+
+  @Override
+  public void addRowMeta(IRowMeta rowMeta) {
+    changeUnchecked(target -> target.addRowMeta(rowMeta));
+  }
+
+  @Override
+  public void mergeRowMeta(IRowMeta r) {
+    changeUnchecked(rowMeta -> rowMeta.mergeRowMeta(r));
+  }
+
+  @Override
+  public void mergeRowMeta(IRowMeta r, String originTransformName) {
+    changeUnchecked(rowMeta -> rowMeta.mergeRowMeta(r, originTransformName));
+  }
+
+  @Override
+  @JsonIgnore
+  public String[] getFieldNames() {
+    IValueMeta[] valueMetas = layout.valueMetas;
+    String[] retval = new String[valueMetas.length];
+    for (int i = 0; i < valueMetas.length; i++) {
+      String valueName = valueMetas[i].getName();
+      retval[i] = valueName == null ? "" : valueName;
+    }
+    return retval;
+  }
+
+  @Override
+  public void writeMeta(DataOutputStream outputStream) throws HopFileException {
+    IValueMeta[] valueMetas = layout.valueMetas;
+    try {
+      outputStream.writeInt(valueMetas.length);
+    } catch (IOException e) {
+      throw new HopFileException("Unable to write nr of metadata values", e);
+    }
+    for (IValueMeta valueMeta : valueMetas) {
+      valueMeta.writeMeta(outputStream);
+    }
+  }
+
+  @Override
+  public void writeData(DataOutputStream outputStream, Object[] data) throws HopFileException {
+    IValueMeta[] valueMetas = layout.valueMetas;
+    for (int i = 0; i < valueMetas.length; i++) {
+      valueMetas[i].writeData(outputStream, data[i]);
+    }
+
+    // If there are 0 values in the row, we write a marker flag to be able to detect an EOF on the
+    // other end (sockets etc.)
+    //
+    if (valueMetas.length == 0) {
+      try {
+        outputStream.writeBoolean(true);
+      } catch (IOException e) {
+        throw new HopFileException("Error writing marker flag", e);
+      }
+    }
+  }
+
+  @Override
+  public Object[] readData(DataInputStream inputStream)
+      throws HopFileException, SocketTimeoutException {
+    IValueMeta[] valueMetas = layout.valueMetas;
+    Object[] data = new Object[valueMetas.length];
+    for (int i = 0; i < valueMetas.length; i++) {
+      data[i] = valueMetas[i].readData(inputStream);
+    }
+    if (valueMetas.length == 0) {
+      try {
+        inputStream.readBoolean();
+      } catch (EOFException e) {
+        throw new HopEofException(e);
+      } catch (SocketTimeoutException e) {
+        throw e;
+      } catch (IOException e) {
+        throw new HopFileException(
+            this + " : Unable to read the marker flag data from input stream", e);
+      }
+    }
+    return data;
+  }
+
+  @Override
+  public void clear() {
+    changeUnchecked(RowMeta::clear);
+  }
+
+  @Override
+  public void removeValueMeta(String string) throws HopValueException {
+    change(rowMeta -> rowMeta.removeValueMeta(string));
+  }
+
+  @Override
+  public void removeValueMeta(int index) {
+    changeUnchecked(rowMeta -> rowMeta.removeValueMeta(index));
+  }
+
+  @Override
+  public String toStringMeta() {
+    IValueMeta[] valueMetas = layout.valueMetas;
+    StringBuilder buffer = new StringBuilder();
+    for (int i = 0; i < valueMetas.length; i++) {
+      if (i > 0) {
+        buffer.append(", ");
+      }
+      buffer.append("[").append(valueMetas[i].toStringMeta()).append("]");
+    }
+    return buffer.toString();
+  }
+
+  @Override
+  public String getString(Object[] row) throws HopValueException {
+    IValueMeta[] valueMetas = layout.valueMetas;
+    StringBuilder buffer = new StringBuilder();
+    for (int i = 0; i < valueMetas.length; i++) {
+      if (i > 0) {
+        buffer.append(", ");
+      }
+      buffer.append("[");
+      buffer.append(getString(row, i));
+      buffer.append("]");
+    }
+    return buffer.toString();
+  }
+
+  @Override
+  public String[] getFieldNamesAndTypes(int maxlen) {
+    IValueMeta[] valueMetas = layout.valueMetas;
+    String[] retval = new String[valueMetas.length];
+    for (int i = 0; i < valueMetas.length; i++) {
+      IValueMeta v = valueMetas[i];
+      retval[i] = Const.rightPad(v.getName(), maxlen) + "   (" + v.getTypeDesc() + ")";
+    }
+    return retval;
+  }
+
+  @Override
+  public int compare(Object[] rowData1, Object[] rowData2, int[] fieldnrs)
+      throws HopValueException {
+    IValueMeta[] valueMetas = layout.valueMetas;
+    for (int fieldnr : fieldnrs) {
+      int cmp = valueMetas[fieldnr].compare(rowData1[fieldnr], rowData2[fieldnr]);
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+    return 0;
+  }
+
+  @Override
+  public boolean equals(Object[] rowData1, Object[] rowData2, int[] fieldnrs)
+      throws HopValueException {
+    return compare(rowData1, rowData2, fieldnrs) == 0;
+  }
+
+  @Override
+  public int compare(Object[] rowData1, Object[] rowData2, int[] fieldnrs1, int[] fieldnrs2)
+      throws HopValueException {
+    IValueMeta[] valueMetas = layout.valueMetas;
+    int len = Math.min(fieldnrs1.length, fieldnrs2.length);
+    for (int i = 0; i < len; i++) {
+      int cmp = valueMetas[fieldnrs1[i]].compare(rowData1[fieldnrs1[i]], rowData2[fieldnrs2[i]]);
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+    return 0;
+  }
+
+  @Override
+  public int compare(
+      Object[] rowData1, IRowMeta rowMeta2, Object[] rowData2, int[] fieldnrs1, int[] fieldnrs2)
+      throws HopValueException {
+    IValueMeta[] valueMetas = layout.valueMetas;
+    int len = Math.min(fieldnrs1.length, fieldnrs2.length);
+    for (int i = 0; i < len; i++) {
+      IValueMeta valueMeta2 = rowMeta2.getValueMeta(fieldnrs2[i]);
+      int cmp =
+          valueMetas[fieldnrs1[i]].compare(
+              rowData1[fieldnrs1[i]], valueMeta2, rowData2[fieldnrs2[i]]);
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+    return 0;
+  }
+
+  @Override
+  public int compare(Object[] rowData1, Object[] rowData2) throws HopValueException {
+    IValueMeta[] valueMetas = layout.valueMetas;
+    for (int i = 0; i < valueMetas.length; i++) {
+      int cmp = valueMetas[i].compare(rowData1[i], rowData2[i]);
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+    return 0;
+  }
+
+  @Override
+  public int hashCode(Object[] rowData) throws HopValueException {
+    return Arrays.deepHashCode(rowData);
+  }
+
+  @Override
+  public int convertedValuesHashCode(Object[] rowData) throws HopValueException {
+    IValueMeta[] valueMetas = layout.valueMetas;
+    if (rowData == null) {
+      return 0;
+    }
+    int result = 1;
+    for (int i = 0; i < rowData.length; i++) {
+      result = 31 * result + valueMetas[i].hashCode();
+    }
+    return result;
+  }
+
+  @Override
+  @JsonIgnore
+  public String getMetaXml() throws IOException {
+    IValueMeta[] valueMetas = layout.valueMetas;
+    StringBuilder xml = new StringBuilder();
+    xml.append("<").append(RowMeta.XML_META_TAG).append(">");
+    for (IValueMeta valueMeta : valueMetas) {
+      xml.append(valueMeta.getMetaXml());
+    }
+    xml.append("</").append(RowMeta.XML_META_TAG).append(">");
+    return xml.toString();
+  }
+
+  @Override
+  public String getDataXml(Object[] rowData) throws IOException {
+    IValueMeta[] valueMetas = layout.valueMetas;
+    StringBuilder xml = new StringBuilder();
+    xml.append("<").append(RowMeta.XML_DATA_TAG).append(">");
+    for (int i = 0; i < valueMetas.length; i++) {
+      xml.append(valueMetas[i].getDataXml(rowData[i]));
+    }
+    xml.append("</").append(RowMeta.XML_DATA_TAG).append(">");
+    return xml.toString();
+  }
+
+  @Override
+  public Object[] getRow(Node node) throws HopException {
+    IValueMeta[] valueMetas = layout.valueMetas;
+    Object[] rowData = RowDataUtil.allocateRowData(valueMetas.length);
+    for (int i = 0; i < valueMetas.length; i++) {
+      Node valueDataNode = XmlHandler.getSubNodeByNr(node, ValueMetaBase.XML_DATA_TAG, i);
+      rowData[i] = valueMetas[i].getValue(valueDataNode);
+    }
+    return rowData;
+  }
+}
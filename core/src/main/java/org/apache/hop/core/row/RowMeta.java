@@ -88,8 +88,10 @@ public class RowMeta implements IRowMeta {
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
-    if (o == null || getClass() != o.getClass()) return false;
-    RowMeta rowMeta = (RowMeta) o;
+    if (o == null || (getClass() != o.getClass() && !(o instanceof CopyOnWriteRowMeta))) {
+      return false;
+    }
+    IRowMeta rowMeta = (IRowMeta) o;
     for (int i = 0; i < valueMetaList.size(); i++) {
       IValueMeta thisValue = valueMetaList.get(i);
       IValueMeta thatValue = rowMeta.getValueMeta(i);
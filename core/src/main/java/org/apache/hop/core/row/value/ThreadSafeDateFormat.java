@@ -0,0 +1,324 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.row.value;
+
+import java.text.DecimalFormat;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.SignStyle;
+import java.time.temporal.ChronoField;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A thread-safe version of a {@link SimpleDateFormat} which gives the same results. Masks with
+ * numeric fields only, like <code>yyyy/MM/dd HH:mm:ss.SSS</code>, are formatted with an immutable
+ * {@link DateTimeFormatter} and parsed without a calendar. Everything else, like text fields, two
+ * digit years, dates before 1900 or values a lenient format needs to roll over, is handled by a
+ * copy of the simple date format per thread.
+ *
+ * <p>Instances are shared: {@link #of(SimpleDateFormat)} returns the same instance for equal
+ * formats.
+ */
+public final class ThreadSafeDateFormat {
+  private static final int MAX_CACHE_SIZE = 10000;
+  private static final Map<List<Object>, ThreadSafeDateFormat> cache = new ConcurrentHashMap<>();
+
+  /** The fast path leaves the Julian calendar and old local mean times to the calendar */
+  private static final int MIN_YEAR = 1900;
+
+  private static final int MAX_YEAR = 9999;
+
+  private final SimpleDateFormat prototype;
+  private final ThreadLocal<SimpleDateFormat> formats;
+
+  /** The compiled pattern or null if the pattern isn't supported by the fast path */
+  private final Element[] elements;
+
+  private final DateTimeFormatter formatter;
+  private final ZoneId zoneId;
+  private final ZoneRules zoneRules;
+
+  private ThreadSafeDateFormat(SimpleDateFormat format) {
+    this.prototype = (SimpleDateFormat) format.clone();
+    this.formats = ThreadLocal.withInitial(() -> (SimpleDateFormat) prototype.clone());
+
+    Element[] compiled = null;
+    ZoneId zone = null;
+    if (prototype.getClass() == SimpleDateFormat.class
+        && prototype.getCalendar() instanceof GregorianCalendar
+        && prototype.getNumberFormat() instanceof DecimalFormat decimalFormat
+        && decimalFormat.getDecimalFormatSymbols().getZeroDigit() == '0') {
+      TimeZone timeZone = prototype.getTimeZone();
+      zone = timeZone.toZoneId();
+      if (TimeZone.getTimeZone(zone).hasSameRules(timeZone)) {
+        compiled = compile(prototype.toPattern());
+      }
+    }
+    this.elements = compiled;
+    this.zoneId = zone;
+    this.zoneRules = compiled == null ? null : zone.getRules();
+    this.formatter = compiled == null ? null : createFormatter(compiled);
+  }
+
+  /**
+   * Get a thread-safe version of the given date format. Later changes to the given format are not
+   * reflected in the result.
+   *
+   * @param format the date format to copy
+   * @return a thread-safe date format which formats and parses like the given one
+   */
+  public static ThreadSafeDateFormat of(SimpleDateFormat format) {
+    // The equality of simple date formats doesn't consider the class or the calendar type
+    List<Object> key = List.of(format.clone(), format.getClass(), format.getCalendar().getClass());
+    ThreadSafeDateFormat threadSafeFormat = cache.get(key);
+    if (threadSafeFormat == null) {
+      if (cache.size() >= MAX_CACHE_SIZE) {
+        cache.clear();
+      }
+      threadSafeFormat = cache.computeIfAbsent(key, k -> new ThreadSafeDateFormat(format));
+    }
+    return threadSafeFormat;
+  }
+
+  /**
+   * @return the pattern of the date format
+   */
+  public String toPattern() {
+    return prototype.toPattern();
+  }
+
+  /**
+   * @return true if the pattern can be handled without the simple date format
+   */
+  boolean isFastPathSupported() {
+    return elements != null;
+  }
+
+  /**
+   * Format a date like {@link SimpleDateFormat#format(Date)}
+   *
+   * @param date the date to format
+   * @return the formatted date
+   */
+  public String format(Date date) {
+    if (formatter != null) {
+      ZonedDateTime dateTime = Instant.ofEpochMilli(date.getTime()).atZone(zoneId);
+      if (dateTime.getYear() >= MIN_YEAR && dateTime.getYear() <= MAX_YEAR) {
+        return formatter.format(dateTime);
+      }
+    }
+    return formats.get().format(date);
+  }
+
+  /**
+   * Parse a date like {@link SimpleDateFormat#parse(String, ParsePosition)}: the text after the
+   * date is ignored and the error index of the position is set when the text can't be parsed.
+   *
+   * @param text the text to parse
+   * @param position the position to start parsing at, updated after parsing
+   * @return the parsed date or null if there was an error
+   */
+  public Date parse(String text, ParsePosition position) {
+    if (elements != null) {
+      Date date = parseFast(text, position);
+      if (date != null) {
+        return date;
+      }
+    }
+    return formats.get().parse(text, position);
+  }
+
+  /** Parse the text or return null to leave it to the simple date format */
+  private Date parseFast(String text, ParsePosition position) {
+    int year = 1970;
+    int month = 1;
+    int day = 1;
+    int hour = 0;
+    int minute = 0;
+    int second = 0;
+    int millisecond = 0;
+
+    int index = position.getIndex();
+    int length = text.length();
+    for (int e = 0; e < elements.length; e++) {
+      Element element = elements[e];
+      if (element.literal != null) {
+        if (!text.startsWith(element.literal, index)) {
+          return null;
+        }
+        index += element.literal.length();
+        continue;
+      }
+
+      // A number followed by another number only takes as many digits as the pattern letters
+      //
+      int end = length;
+      if (e + 1 < elements.length && elements[e + 1].literal == null) {
+        end = Math.min(length, index + element.count);
+      }
+      int value = 0;
+      int start = index;
+      while (index < end && text.charAt(index) >= '0' && text.charAt(index) <= '9') {
+        if (index - start == 9) {
+          return null;
+        }
+        value = value * 10 + (text.charAt(index++) - '0');
+      }
+      if (index == start) {
+        return null;
+      }
+      switch (element.field) {
+        case 'y' -> year = value;
+        case 'M' -> month = value;
+        case 'd' -> day = value;
+        case 'H' -> hour = value;
+        case 'm' -> minute = value;
+        case 's' -> second = value;
+        default -> millisecond = value;
+      }
+    }
+
+    // Values out of range are left to the simple date format: it either rolls them over or fails
+    //
+    if (year < MIN_YEAR
+        || year > MAX_YEAR
+        || month < 1
+        || month > 12
+        || day < 1
+        || day > 28 && day > YearMonth.of(year, month).lengthOfMonth()
+        || hour > 23
+        || minute > 59
+        || second > 59
+        || millisecond > 999) {
+      return null;
+    }
+    LocalDateTime dateTime = LocalDateTime.of(year, month, day, hour, minute, second);
+    if (zoneRules.getTransition(dateTime) != null) {
+      // In a gap or an overlap of the time zone, let the calendar decide
+      return null;
+    }
+    long seconds = dateTime.toEpochSecond(zoneRules.getOffset(dateTime));
+    position.setIndex(index);
+    return new Date(seconds * 1000 + millisecond);
+  }
+
+  /**
+   * Compile a simple date format pattern into literals and numeric fields
+   *
+   * @return the elements or null if the pattern contains anything else
+   */
+  private static Element[] compile(String pattern) {
+    List<Element> elements = new ArrayList<>();
+    StringBuilder literal = new StringBuilder();
+    int i = 0;
+    while (i < pattern.length()) {
+      char c = pattern.charAt(i);
+      if (c == '\'') {
+        int end = i + 1;
+        if (end < pattern.length() && pattern.charAt(end) == '\'') {
+          literal.append('\'');
+          i += 2;
+          continue;
+        }
+        while (true) {
+          if (end >= pattern.length()) {
+            return null;
+          }
+          if (pattern.charAt(end) == '\'') {
+            if (end + 1 < pattern.length() && pattern.charAt(end + 1) == '\'') {
+              literal.append('\'');
+              end += 2;
+              continue;
+            }
+            break;
+          }
+          literal.append(pattern.charAt(end++));
+        }
+        i = end + 1;
+      } else if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+        int count = 1;
+        while (i + count < pattern.length() && pattern.charAt(i + count) == c) {
+          count++;
+        }
+        boolean supported =
+            switch (c) {
+              case 'y' -> count != 2;
+              case 'M' -> count <= 2;
+              case 'd', 'H', 'm', 's', 'S' -> true;
+              default -> false;
+            };
+        if (!supported) {
+          return null;
+        }
+        if (!literal.isEmpty()) {
+          elements.add(new Element(literal.toString(), c, 0));
+          literal.setLength(0);
+        }
+        elements.add(new Element(null, c, count));
+        i += count;
+      } else {
+        literal.append(c);
+        i++;
+      }
+    }
+    if (!literal.isEmpty()) {
+      elements.add(new Element(literal.toString(), ' ', 0));
+    }
+    return elements.toArray(new Element[0]);
+  }
+
+  private static DateTimeFormatter createFormatter(Element[] elements) {
+    DateTimeFormatterBuilder builder = new DateTimeFormatterBuilder();
+    for (Element element : elements) {
+      if (element.literal != null) {
+        builder.appendLiteral(element.literal);
+        continue;
+      }
+      ChronoField field =
+          switch (element.field) {
+            case 'y' -> ChronoField.YEAR_OF_ERA;
+            case 'M' -> ChronoField.MONTH_OF_YEAR;
+            case 'd' -> ChronoField.DAY_OF_MONTH;
+            case 'H' -> ChronoField.HOUR_OF_DAY;
+            case 'm' -> ChronoField.MINUTE_OF_HOUR;
+            case 's' -> ChronoField.SECOND_OF_MINUTE;
+            default -> ChronoField.MILLI_OF_SECOND;
+          };
+      // Like the simple date format: pad to the number of letters, never truncate
+      builder.appendValue(field, Math.min(element.count, 19), 19, SignStyle.NOT_NEGATIVE);
+    }
+    return builder.toFormatter();
+  }
+
+  /** A literal text or a numeric field with the number of pattern letters */
+  private record Element(String literal, char field, int count) {}
+}
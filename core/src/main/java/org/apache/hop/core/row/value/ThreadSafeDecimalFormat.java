@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.row.value;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.ParseException;
+import java.text.ParsePosition;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A thread-safe version of a {@link DecimalFormat} which gives the same results. Plain numbers like
+ * <code>-1234.5</code> are parsed and integers are formatted without the decimal format when the
+ * mask allows it, everything else is handled by a copy of the decimal format per thread.
+ *
+ * <p>Instances are shared: {@link #of(DecimalFormat)} returns the same instance for equal formats.
+ */
+public final class ThreadSafeDecimalFormat {
+  private static final int MAX_CACHE_SIZE = 10000;
+  private static final Map<DecimalFormat, ThreadSafeDecimalFormat> cache =
+      new ConcurrentHashMap<>();
+
+  /** The decimal format rounds numbers with more digits before converting them to a double */
+  private static final int MAX_FAST_DIGITS = 18;
+
+  private final DecimalFormat prototype;
+  private final ThreadLocal<DecimalFormat> formats;
+
+  private final boolean fastParse;
+  private final char decimalSeparator;
+
+  private final boolean fastIntegerFormat;
+  private final String positivePrefix;
+  private final String positiveSuffix;
+  private final String negativePrefix;
+  private final String negativeSuffix;
+  private final int minimumIntegerDigits;
+
+  private ThreadSafeDecimalFormat(DecimalFormat format) {
+    this.prototype = (DecimalFormat) format.clone();
+    this.formats = ThreadLocal.withInitial(() -> (DecimalFormat) prototype.clone());
+
+    DecimalFormatSymbols symbols = prototype.getDecimalFormatSymbols();
+    this.decimalSeparator = symbols.getDecimalSeparator();
+    this.positivePrefix = prototype.getPositivePrefix();
+    this.positiveSuffix = prototype.getPositiveSuffix();
+    this.negativePrefix = prototype.getNegativePrefix();
+    this.negativeSuffix = prototype.getNegativeSuffix();
+    this.minimumIntegerDigits = prototype.getMinimumIntegerDigits();
+
+    boolean plainNumbers =
+        symbols.getZeroDigit() == '0'
+            && prototype.getMultiplier() == 1
+            && positivePrefix.isEmpty()
+            && positiveSuffix.isEmpty()
+            && negativePrefix.equals("-")
+            && negativeSuffix.isEmpty();
+    this.fastParse =
+        plainNumbers
+            && !prototype.isParseBigDecimal()
+            && !prototype.isParseIntegerOnly()
+            && (decimalSeparator < '0' || decimalSeparator > '9')
+            && decimalSeparator != '-';
+    this.fastIntegerFormat =
+        symbols.getZeroDigit() == '0'
+            && prototype.getMultiplier() == 1
+            && !prototype.isGroupingUsed()
+            && !prototype.toPattern().contains("E")
+            && !prototype.isDecimalSeparatorAlwaysShown()
+            && prototype.getMinimumFractionDigits() == 0
+            && minimumIntegerDigits <= 19
+            && prototype.getMaximumIntegerDigits() >= 19;
+  }
+
+  /**
+   * Get a thread-safe version of the given decimal format. Later changes to the given format are
+   * not reflected in the result.
+   *
+   * @param format the decimal format to copy
+   * @return a thread-safe decimal format which formats and parses like the given one
+   */
+  public static ThreadSafeDecimalFormat of(DecimalFormat format) {
+    ThreadSafeDecimalFormat threadSafeFormat = cache.get(format);
+    if (threadSafeFormat == null) {
+      if (cache.size() >= MAX_CACHE_SIZE) {
+        cache.clear();
+      }
+      DecimalFormat key = (DecimalFormat) format.clone();
+      threadSafeFormat = cache.computeIfAbsent(key, ThreadSafeDecimalFormat::new);
+    }
+    return threadSafeFormat;
+  }
+
+  /**
+   * @return the pattern of the decimal format
+   */
+  public String toPattern() {
+    return prototype.toPattern();
+  }
+
+  /**
+   * Format a number like {@link DecimalFormat#format(Object)}
+   *
+   * @param number the number to format
+   * @return the formatted number
+   */
+  public String format(Object number) {
+    if (fastIntegerFormat && number instanceof Long value && value != Long.MIN_VALUE) {
+      return format(value.longValue());
+    }
+    return formats.get().format(number);
+  }
+
+  private String format(long value) {
+    String digits = Long.toString(Math.abs(value));
+    StringBuilder builder = new StringBuilder(digits.length() + 8);
+    builder.append(value < 0 ? negativePrefix : positivePrefix);
+    for (int i = digits.length(); i < minimumIntegerDigits; i++) {
+      builder.append('0');
+    }
+    builder.append(digits);
+    builder.append(value < 0 ? negativeSuffix : positiveSuffix);
+    return builder.toString();
+  }
+
+  /**
+   * Parse a number like {@link DecimalFormat#parse(String)}
+   *
+   * @param text the text to parse
+   * @return the parsed number
+   * @throws ParseException if the beginning of the text can't be parsed
+   */
+  public Number parse(String text) throws ParseException {
+    if (fastParse) {
+      Number number = parseFast(text, 0);
+      if (number != null) {
+        return number;
+      }
+    }
+    return formats.get().parse(text);
+  }
+
+  /**
+   * Parse a number like {@link DecimalFormat#parse(String, ParsePosition)}
+   *
+   * @param text the text to parse
+   * @param position the position to start parsing at, updated after parsing
+   * @return the parsed number or null if there was an error
+   */
+  public Number parse(String text, ParsePosition position) {
+    if (fastParse) {
+      Number number = parseFast(text, position.getIndex());
+      if (number != null) {
+        position.setIndex(text.length());
+        return number;
+      }
+    }
+    return formats.get().parse(text, position);
+  }
+
+  /**
+   * Parse a plain number which runs until the end of the text, or return null to leave it to the
+   * decimal format. Like the decimal format, integral values are returned as a Long.
+   */
+  private Number parseFast(String text, int start) {
+    int length = text.length();
+    int index = start;
+    boolean negative = index < length && text.charAt(index) == '-';
+    if (negative) {
+      index++;
+    }
+    long integerPart = 0;
+    int digits = 0;
+    int integerEnd = -1;
+    boolean integral = true;
+    for (; index < length; index++) {
+      char c = text.charAt(index);
+      if (c >= '0' && c <= '9') {
+        if (++digits > MAX_FAST_DIGITS) {
+          return null;
+        }
+        if (integerEnd < 0) {
+          integerPart = integerPart * 10 + (c - '0');
+        } else if (c != '0') {
+          integral = false;
+        }
+      } else if (c == decimalSeparator && integerEnd < 0 && digits > 0) {
+        integerEnd = index;
+      } else {
+        return null;
+      }
+    }
+    if (digits == 0 || integerEnd == length - 1) {
+      return null;
+    }
+    if (integral) {
+      if (negative && integerPart == 0) {
+        return -0.0d;
+      }
+      return negative ? -integerPart : integerPart;
+    }
+    String number = text.substring(start, length);
+    if (decimalSeparator != '.') {
+      number = number.replace(decimalSeparator, '.');
+    }
+    return Double.parseDouble(number);
+  }
+}
@@ -228,6 +228,11 @@ public class ValueMetaBase implements IValueMeta {
   @JsonIgnore protected DecimalFormat decimalFormat;
   @JsonIgnore protected boolean decimalFormatChanged;
 
+  /** The formats used by the conversions, shared with other value metadata with the same format */
+  @JsonIgnore private volatile ThreadSafeDateFormat threadSafeDateFormat;
+
+  @JsonIgnore private volatile ThreadSafeDecimalFormat[] threadSafeDecimalFormats;
+
   @JsonIgnore protected IValueMeta storageMetadata;
   @JsonIgnore protected boolean identicalFormat;
 
@@ -650,6 +655,8 @@ public class ValueMetaBase implements IValueMeta {
       ValueMetaBase valueMeta = (ValueMetaBase) super.clone();
       valueMeta.dateFormat = null;
       valueMeta.decimalFormat = null;
+      valueMeta.threadSafeDateFormat = null;
+      valueMeta.threadSafeDecimalFormats = null;
       if (dateFormatLocale != null) {
         valueMeta.dateFormatLocale = (Locale) dateFormatLocale.clone();
       }
@@ -849,7 +856,9 @@ public class ValueMetaBase implements IValueMeta {
   public void setConversionMask(String conversionMask) {
     this.conversionMask = conversionMask;
     dateFormatChanged = true;
+    threadSafeDateFormat = null;
     decimalFormatChanged = true;
+    threadSafeDecimalFormats = null;
     compareStorageAndActualFormat();
   }
 
@@ -886,6 +895,7 @@ public class ValueMetaBase implements IValueMeta {
   public void setDecimalSymbol(String decimalSymbol) {
     this.decimalSymbol = decimalSymbol;
     decimalFormatChanged = true;
+    threadSafeDecimalFormats = null;
     compareStorageAndActualFormat();
   }
 
@@ -904,6 +914,7 @@ public class ValueMetaBase implements IValueMeta {
   public void setGroupingSymbol(String groupingSymbol) {
     this.groupingSymbol = groupingSymbol;
     decimalFormatChanged = true;
+    threadSafeDecimalFormats = null;
     compareStorageAndActualFormat();
   }
 
@@ -922,6 +933,7 @@ public class ValueMetaBase implements IValueMeta {
   public void setCurrencySymbol(String currencySymbol) {
     this.currencySymbol = currencySymbol;
     decimalFormatChanged = true;
+    threadSafeDecimalFormats = null;
   }
 
   /**
@@ -1057,6 +1069,7 @@ public class ValueMetaBase implements IValueMeta {
   public void setDateFormatLenient(boolean dateFormatLenient) {
     this.dateFormatLenient = dateFormatLenient;
     dateFormatChanged = true;
+    threadSafeDateFormat = null;
   }
 
   /**
@@ -1074,32 +1087,30 @@ public class ValueMetaBase implements IValueMeta {
   public void setDateFormatLocale(Locale dateFormatLocale) {
     this.dateFormatLocale = dateFormatLocale;
     dateFormatChanged = true;
+    threadSafeDateFormat = null;
   }
 
   // DATE + STRING
 
-  protected synchronized String convertDateToString(Date date) {
+  protected String convertDateToString(Date date) {
     if (date == null) {
       return null;
     }
 
-    return getDateFormat().format(date);
+    return getThreadSafeDateFormat(getType()).format(date);
   }
 
   protected static SimpleDateFormat compatibleDateFormat =
       new SimpleDateFormat(COMPATIBLE_DATE_FORMAT_PATTERN);
 
-  protected synchronized String convertDateToCompatibleString(Date date) {
+  protected String convertDateToCompatibleString(Date date) {
     if (date == null) {
       return null;
     }
-    // If a date format already exists use it otherwise use the compatible date format
-    return (getDateFormat() != null
-        ? getDateFormat().format(date)
-        : compatibleDateFormat.format(date));
+    return getThreadSafeDateFormat(getType()).format(date);
   }
 
-  public synchronized Date convertStringToDate(String string) throws HopValueException {
+  public Date convertStringToDate(String string) throws HopValueException {
     string = Const.trimToType(string, getTrimType()); // see if trimming needs
     // to be performed before
     // conversion
@@ -1108,9 +1119,10 @@ public class ValueMetaBase implements IValueMeta {
       return null;
     }
 
+    ThreadSafeDateFormat format = getThreadSafeDateFormat(TYPE_DATE);
     try {
       ParsePosition pp = new ParsePosition(0);
-      Date result = getDateFormat(TYPE_DATE).parse(string, pp);
+      Date result = format.parse(string, pp);
       if (pp.getErrorIndex() >= 0) {
         // error happen
         throw new ParseException(string, pp.getErrorIndex());
@@ -1122,13 +1134,12 @@ public class ValueMetaBase implements IValueMeta {
       // If there are only spaces after pp.getIndex() - that means full values was parsed
       return result;
     } catch (ParseException e) {
-      String dateFormatString = (getDateFormat() != null) ? getDateFormat().toPattern() : "null";
       throw new HopValueException(
           this
               + " : couldn't convert string ["
               + string
               + "] to a date using format ["
-              + dateFormatString
+              + format.toPattern()
               + "] on offset location "
               + e.getErrorOffset(),
           e);
@@ -1165,7 +1176,7 @@ public class ValueMetaBase implements IValueMeta {
     return new Date(number.longValue());
   }
 
-  public synchronized String convertNumberToString(Double number) throws HopValueException {
+  public String convertNumberToString(Double number) throws HopValueException {
     if (number == null) {
       if (!outputPaddingEnabled || length < 1) {
         return null;
@@ -1184,28 +1195,25 @@ public class ValueMetaBase implements IValueMeta {
     }
 
     try {
-      DecimalFormat format = getDecimalFormat(false);
-
       // When conversion masks are different, we must ensure the number precision is not lost
-      if (this.conversionMask != null
-          && storageMetadata != null
-          && !this.conversionMask.equals(storageMetadata.getConversionMask())) {
-        format.setMaximumFractionDigits(50);
-      }
-      return format.format(number);
+      boolean keepPrecision =
+          this.conversionMask != null
+              && storageMetadata != null
+              && !this.conversionMask.equals(storageMetadata.getConversionMask());
+      return getThreadSafeDecimalFormat(false, keepPrecision).format(number);
     } catch (Exception e) {
       throw new HopValueException(this + " : couldn't convert Number to String ", e);
     }
   }
 
-  protected synchronized String convertNumberToCompatibleString(Double number) {
+  protected String convertNumberToCompatibleString(Double number) {
     if (number == null) {
       return null;
     }
     return Double.toString(number);
   }
 
-  protected synchronized Double convertStringToNumber(String string) throws HopValueException {
+  protected Double convertStringToNumber(String string) throws HopValueException {
     string = Const.trimToType(string, getTrimType()); // see if trimming needs
     // to be performed before
     // conversion
@@ -1215,7 +1223,7 @@ public class ValueMetaBase implements IValueMeta {
     }
 
     try {
-      DecimalFormat format = getDecimalFormat(false);
+      ThreadSafeDecimalFormat format = getThreadSafeDecimalFormat(false, false);
       Number number;
       if (lenientStringToNumber) {
         number = format.parse(string);
@@ -1278,38 +1286,66 @@ public class ValueMetaBase implements IValueMeta {
     }
 
     if (dateFormat == null || dateFormatChanged) {
-      // This may not become static as the class is not thread-safe!
-      dateFormat = new SimpleDateFormat();
+      dateFormat = createDateFormat(valueMetaType);
+      dateFormatChanged = false;
+    }
 
-      String mask = this.getMask(valueMetaType);
+    return dateFormat;
+  }
 
-      // Do we have a locale?
-      //
-      if (dateFormatLocale == null || dateFormatLocale.equals(Locale.getDefault())) {
-        if (mask != null) {
-          dateFormat = new SimpleDateFormat(mask);
-        }
-      } else {
-        if (mask == null) {
-          mask = dateFormat.toPattern();
-        }
-        dateFormat = new SimpleDateFormat(mask, dateFormatLocale);
-      }
+  private SimpleDateFormat createDateFormat(int valueMetaType) {
+    // This may not become static as the class is not thread-safe!
+    SimpleDateFormat format = new SimpleDateFormat();
 
-      // Do we have a time zone?
-      //
-      if (dateFormatTimeZone != null) {
-        dateFormat.setTimeZone(dateFormatTimeZone);
+    String mask = this.getMask(valueMetaType);
+
+    // Do we have a locale?
+    //
+    if (dateFormatLocale == null || dateFormatLocale.equals(Locale.getDefault())) {
+      if (mask != null) {
+        format = new SimpleDateFormat(mask);
       }
+    } else {
+      if (mask == null) {
+        mask = format.toPattern();
+      }
+      format = new SimpleDateFormat(mask, dateFormatLocale);
+    }
 
-      // Set the conversion leniency as well
-      //
-      dateFormat.setLenient(dateFormatLenient);
+    // Do we have a time zone?
+    //
+    if (dateFormatTimeZone != null) {
+      format.setTimeZone(dateFormatTimeZone);
+    }
 
-      dateFormatChanged = false;
+    // Set the conversion leniency as well
+    //
+    format.setLenient(dateFormatLenient);
+
+    return format;
+  }
+
+  /**
+   * The date format used to convert dates from and to strings. Unlike {@link #getDateFormat()} it
+   * can be used by several threads at once.
+   *
+   * @param valueMetaType the type to take the default mask of
+   * @return the thread-safe date format
+   */
+  protected ThreadSafeDateFormat getThreadSafeDateFormat(int valueMetaType) {
+    if (conversionMetadata instanceof ValueMetaBase conversionValueMeta) {
+      return conversionValueMeta.getThreadSafeDateFormat(conversionValueMeta.getType());
+    }
+    if (conversionMetadata != null) {
+      return ThreadSafeDateFormat.of(conversionMetadata.getDateFormat());
     }
 
-    return dateFormat;
+    ThreadSafeDateFormat format = threadSafeDateFormat;
+    if (format == null) {
+      format = ThreadSafeDateFormat.of(createDateFormat(valueMetaType));
+      threadSafeDateFormat = format;
+    }
+    return format;
   }
 
   @Override
@@ -1335,61 +1371,106 @@ public class ValueMetaBase implements IValueMeta {
     // hungry.
     //
     if (decimalFormat == null || decimalFormatChanged) {
-      decimalFormat = (DecimalFormat) NumberFormat.getInstance();
-      decimalFormat.setParseBigDecimal(useBigDecimal);
-      DecimalFormatSymbols decimalFormatSymbols = decimalFormat.getDecimalFormatSymbols();
+      decimalFormat = createDecimalFormat(useBigDecimal);
+      decimalFormatChanged = false;
+    }
 
-      // Set the Rounding mode
+    return decimalFormat;
+  }
 
-      if (roundingType != null) {
-        switch (roundingType) {
-          case "unnecessary":
-            decimalFormat.setRoundingMode(RoundingMode.UNNECESSARY);
-            break;
-          case "ceiling":
-            decimalFormat.setRoundingMode(RoundingMode.CEILING);
-            break;
-          case "down":
-            decimalFormat.setRoundingMode(RoundingMode.DOWN);
-            break;
-          case "floor":
-            decimalFormat.setRoundingMode(RoundingMode.FLOOR);
-            break;
-          case "half_down":
-            decimalFormat.setRoundingMode(RoundingMode.HALF_DOWN);
-            break;
-          case "half_even":
-            decimalFormat.setRoundingMode(RoundingMode.HALF_EVEN);
-            break;
-          case "half_up":
-            decimalFormat.setRoundingMode(RoundingMode.HALF_UP);
-            break;
-          case "up":
-            decimalFormat.setRoundingMode(RoundingMode.UP);
-            break;
-          default:
-            decimalFormat.setRoundingMode(RoundingMode.HALF_EVEN);
-            break;
-        }
+  /**
+   * The decimal format used to convert numbers from and to strings. Unlike {@link
+   * #getDecimalFormat(boolean)} it can be used by several threads at once.
+   *
+   * @param useBigDecimal true if parsing needs to return big decimals
+   * @param keepPrecision true to format up to 50 fraction digits
+   * @return the thread-safe decimal format
+   */
+  protected ThreadSafeDecimalFormat getThreadSafeDecimalFormat(
+      boolean useBigDecimal, boolean keepPrecision) {
+    if (conversionMetadata instanceof ValueMetaBase conversionValueMeta) {
+      return conversionValueMeta.getThreadSafeDecimalFormat(useBigDecimal, keepPrecision);
+    }
+    if (conversionMetadata != null) {
+      DecimalFormat format =
+          (DecimalFormat) conversionMetadata.getDecimalFormat(useBigDecimal).clone();
+      if (keepPrecision) {
+        format.setMaximumFractionDigits(50);
       }
+      return ThreadSafeDecimalFormat.of(format);
+    }
 
-      if (!Utils.isEmpty(currencySymbol)) {
-        decimalFormatSymbols.setCurrencySymbol(currencySymbol);
-      }
-      if (!Utils.isEmpty(groupingSymbol)) {
-        decimalFormatSymbols.setGroupingSeparator(groupingSymbol.charAt(0));
-      }
-      if (!Utils.isEmpty(decimalSymbol)) {
-        decimalFormatSymbols.setDecimalSeparator(decimalSymbol.charAt(0));
+    int index = (useBigDecimal ? 1 : 0) + (keepPrecision ? 2 : 0);
+    ThreadSafeDecimalFormat[] formats = threadSafeDecimalFormats;
+    if (formats == null) {
+      formats = new ThreadSafeDecimalFormat[4];
+      threadSafeDecimalFormats = formats;
+    }
+    ThreadSafeDecimalFormat format = formats[index];
+    if (format == null) {
+      DecimalFormat decimalFormat = createDecimalFormat(useBigDecimal);
+      if (keepPrecision) {
+        decimalFormat.setMaximumFractionDigits(50);
       }
-      decimalFormat.setDecimalFormatSymbols(decimalFormatSymbols);
+      format = ThreadSafeDecimalFormat.of(decimalFormat);
+      formats[index] = format;
+    }
+    return format;
+  }
 
-      String decimalPattern = getMask(getType());
-      if (!Utils.isEmpty(decimalPattern)) {
-        decimalFormat.applyPattern(decimalPattern);
+  private DecimalFormat createDecimalFormat(boolean useBigDecimal) {
+    DecimalFormat decimalFormat = (DecimalFormat) NumberFormat.getInstance();
+    decimalFormat.setParseBigDecimal(useBigDecimal);
+    DecimalFormatSymbols decimalFormatSymbols = decimalFormat.getDecimalFormatSymbols();
+
+    // Set the Rounding mode
+
+    if (roundingType != null) {
+      switch (roundingType) {
+        case "unnecessary":
+          decimalFormat.setRoundingMode(RoundingMode.UNNECESSARY);
+          break;
+        case "ceiling":
+          decimalFormat.setRoundingMode(RoundingMode.CEILING);
+          break;
+        case "down":
+          decimalFormat.setRoundingMode(RoundingMode.DOWN);
+          break;
+        case "floor":
+          decimalFormat.setRoundingMode(RoundingMode.FLOOR);
+          break;
+        case "half_down":
+          decimalFormat.setRoundingMode(RoundingMode.HALF_DOWN);
+          break;
+        case "half_even":
+          decimalFormat.setRoundingMode(RoundingMode.HALF_EVEN);
+          break;
+        case "half_up":
+          decimalFormat.setRoundingMode(RoundingMode.HALF_UP);
+          break;
+        case "up":
+          decimalFormat.setRoundingMode(RoundingMode.UP);
+          break;
+        default:
+          decimalFormat.setRoundingMode(RoundingMode.HALF_EVEN);
+          break;
       }
+    }
 
-      decimalFormatChanged = false;
+    if (!Utils.isEmpty(currencySymbol)) {
+      decimalFormatSymbols.setCurrencySymbol(currencySymbol);
+    }
+    if (!Utils.isEmpty(groupingSymbol)) {
+      decimalFormatSymbols.setGroupingSeparator(groupingSymbol.charAt(0));
+    }
+    if (!Utils.isEmpty(decimalSymbol)) {
+      decimalFormatSymbols.setDecimalSeparator(decimalSymbol.charAt(0));
+    }
+    decimalFormat.setDecimalFormatSymbols(decimalFormatSymbols);
+
+    String decimalPattern = getMask(getType());
+    if (!Utils.isEmpty(decimalPattern)) {
+      decimalFormat.applyPattern(decimalPattern);
     }
 
     return decimalFormat;
@@ -1535,7 +1616,7 @@ public class ValueMetaBase implements IValueMeta {
     return numberPattern.toString();
   }
 
-  protected synchronized String convertIntegerToString(Long integer) throws HopValueException {
+  protected String convertIntegerToString(Long integer) throws HopValueException {
     if (integer == null) {
       if (!outputPaddingEnabled || length < 1) {
         return null;
@@ -1554,20 +1635,20 @@ public class ValueMetaBase implements IValueMeta {
     }
 
     try {
-      return getDecimalFormat(false).format(integer);
+      return getThreadSafeDecimalFormat(false, false).format(integer);
     } catch (Exception e) {
       throw new HopValueException(this + " : couldn't convert Long to String ", e);
     }
   }
 
-  protected synchronized String convertIntegerToCompatibleString(Long integer) {
+  protected String convertIntegerToCompatibleString(Long integer) {
     if (integer == null) {
       return null;
     }
     return Long.toString(integer);
   }
 
-  protected synchronized Long convertStringToInteger(String string) throws HopValueException {
+  protected Long convertStringToInteger(String string) throws HopValueException {
     string = Const.trimToType(string, getTrimType()); // see if trimming needs
     // to be performed before
     // conversion
@@ -1577,12 +1658,13 @@ public class ValueMetaBase implements IValueMeta {
     }
 
     try {
+      ThreadSafeDecimalFormat format = getThreadSafeDecimalFormat(false, false);
       Number number;
       if (lenientStringToNumber) {
-        number = getDecimalFormat(false).parse(string).longValue();
+        number = format.parse(string).longValue();
       } else {
         ParsePosition parsePosition = new ParsePosition(0);
-        number = getDecimalFormat(false).parse(string, parsePosition);
+        number = format.parse(string, parsePosition);
 
         if (parsePosition.getIndex() < string.length()) {
           throw new HopValueException(
@@ -1600,21 +1682,19 @@ public class ValueMetaBase implements IValueMeta {
     }
   }
 
-  protected synchronized String convertBigNumberToString(BigDecimal number)
-      throws HopValueException {
+  protected String convertBigNumberToString(BigDecimal number) throws HopValueException {
     if (number == null) {
       return null;
     }
 
     try {
-      return getDecimalFormat(bigNumberFormatting).format(number);
+      return getThreadSafeDecimalFormat(bigNumberFormatting, false).format(number);
     } catch (Exception e) {
       throw new HopValueException(this + " : couldn't convert BigNumber to String ", e);
     }
   }
 
-  protected synchronized BigDecimal convertStringToBigNumber(String string)
-      throws HopValueException {
+  protected BigDecimal convertStringToBigNumber(String string) throws HopValueException {
     string = Const.trimToType(string, getTrimType()); // see if trimming needs
     // to be performed before
     // conversion
@@ -1624,7 +1704,7 @@ public class ValueMetaBase implements IValueMeta {
     }
 
     try {
-      DecimalFormat format = getDecimalFormat(bigNumberFormatting);
+      ThreadSafeDecimalFormat format = getThreadSafeDecimalFormat(bigNumberFormatting, false);
       Number number;
       if (lenientStringToNumber) {
         number = format.parse(string);
@@ -5114,6 +5194,7 @@ public class ValueMetaBase implements IValueMeta {
   public void setDateFormatTimeZone(TimeZone dateFormatTimeZone) {
     this.dateFormatTimeZone = dateFormatTimeZone;
     dateFormatChanged = true;
+    threadSafeDateFormat = null;
   }
 
   @Override
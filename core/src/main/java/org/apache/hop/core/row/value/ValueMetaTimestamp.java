@@ -274,6 +274,25 @@ public class ValueMetaTimestamp extends ValueMetaDate {
     return getDateFormat().format(timestamp);
   }
 
+  @Override
+  protected ThreadSafeDateFormat getThreadSafeDateFormat(int valueMetaType) {
+    return ThreadSafeDateFormat.of(getDateFormat());
+  }
+
+  @Override
+  protected synchronized String convertDateToString(Date date) {
+    // The timestamp format keeps its nanoseconds in a decimal format, so it isn't shared
+    if (date == null) {
+      return null;
+    }
+    return getDateFormat().format(date);
+  }
+
+  @Override
+  protected synchronized String convertDateToCompatibleString(Date date) {
+    return convertDateToString(date);
+  }
+
   @Override
   public Object convertDataFromString(
       String pol, IValueMeta convertMeta, String nullIf, String ifNull, int trimType)
@@ -29,6 +29,7 @@ import java.text.ParsePosition;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Locale;
+import java.util.Objects;
 
 /** User: Dzmitry Stsiapanau Date: 3/13/14 Time: 6:32 PM */
 public class SimpleTimestampFormat extends SimpleDateFormat {
@@ -70,11 +71,13 @@ public class SimpleTimestampFormat extends SimpleDateFormat {
 
   private static final String DEFAULT_MILLISECOND_DATE_FORMAT = "SSS";
 
-  private static final SimpleDateFormat defaultTimestampFormat =
-      new SimpleDateFormat(DEFAULT_TIMESTAMP_FORMAT_FOR_TIMESTAMP, Locale.US);
+  private static final ThreadLocal<SimpleDateFormat> defaultTimestampFormat =
+      ThreadLocal.withInitial(
+          () -> new SimpleDateFormat(DEFAULT_TIMESTAMP_FORMAT_FOR_TIMESTAMP, Locale.US));
 
-  private static final SimpleDateFormat defaultMillisecondDateFormat =
-      new SimpleDateFormat(DEFAULT_MILLISECOND_DATE_FORMAT, Locale.US);
+  private static final ThreadLocal<SimpleDateFormat> defaultMillisecondDateFormat =
+      ThreadLocal.withInitial(
+          () -> new SimpleDateFormat(DEFAULT_MILLISECOND_DATE_FORMAT, Locale.US));
 
   /**
    * Nanoseconds placeholder to specify unformatted nanoseconds position after formatting <code>Date
@@ -251,7 +254,7 @@ public class SimpleTimestampFormat extends SimpleDateFormat {
 
     } else {
       dateBuffer = super.format(timestamp, toAppendTo, pos);
-      String milliseconds = defaultMillisecondDateFormat.format(timestamp);
+      String milliseconds = defaultMillisecondDateFormat.get().format(timestamp);
       nan = formatNanoseconds(Integer.parseInt(milliseconds) * Math.pow(10, 6));
     }
 
@@ -372,7 +375,7 @@ public class SimpleTimestampFormat extends SimpleDateFormat {
       return null;
     }
 
-    timestampFormatDate = defaultTimestampFormat.format(tempDate);
+    timestampFormatDate = defaultTimestampFormat.get().format(tempDate);
     String result = timestampFormatDate + '.' + nanoseconds;
     Timestamp res = Timestamp.valueOf(timestampFormatDate + '.' + nanoseconds);
     pos.setIndex(pos.getIndex() + result.length());
@@ -436,6 +439,27 @@ public class SimpleTimestampFormat extends SimpleDateFormat {
     init(pattern, formatSymbols, true);
   }
 
+  @Override
+  public Object clone() {
+    SimpleTimestampFormat other = (SimpleTimestampFormat) super.clone();
+    // The nanoseconds formatter isn't thread-safe, every copy gets its own
+    other.nanoseconds = (DecimalFormat) nanoseconds.clone();
+    return other;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    // Patterns with a different number of nanosecond digits share the same parent pattern
+    return super.equals(obj)
+        && obj instanceof SimpleTimestampFormat other
+        && Objects.equals(originalPattern, other.originalPattern);
+  }
+
+  @Override
+  public int hashCode() {
+    return super.hashCode();
+  }
+
   /**
    * Parses text from the beginning of the given string to produce a date. The method may not use
    * the entire text of the given string.
@@ -47,7 +47,6 @@ import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
-import org.apache.http.impl.conn.BasicHttpClientConnectionManager;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.ssl.SSLContexts;
 import org.apache.http.ssl.TrustStrategy;
@@ -154,15 +153,22 @@ public class HttpClientManager {
               .register("http", new PlainConnectionSocketFactory())
               .build();
 
-      BasicHttpClientConnectionManager connectionManager =
-          new BasicHttpClientConnectionManager(socketFactoryRegistry);
+      // A pool of its own, closed together with the client
+      PoolingHttpClientConnectionManager connectionManager =
+          new PoolingHttpClientConnectionManager(socketFactoryRegistry);
+      connectionManager.setDefaultMaxPerRoute(CONNECTIONS_PER_ROUTE);
+      connectionManager.setMaxTotal(TOTAL_CONNECTIONS);
 
-      httpClientBuilder.setSSLSocketFactory(sslsf).setConnectionManager(connectionManager);
+      httpClientBuilder
+          .setSSLSocketFactory(sslsf)
+          .setConnectionManager(connectionManager)
+          .setConnectionManagerShared(false);
     }
 
     public CloseableHttpClient build() {
       HttpClientBuilder httpClientBuilder = HttpClientBuilder.create();
-      httpClientBuilder.setConnectionManager(manager);
+      // Closing the client must not shut down the connection pool all clients share
+      httpClientBuilder.setConnectionManager(manager).setConnectionManagerShared(true);
 
       RequestConfig.Builder requestConfigBuilder = RequestConfig.custom();
       if (socketTimeout > 0) {
@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.util;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.i18n.BaseMessages;
+
+/**
+ * Runs calls for a stream of inputs (typically rows) on a fixed number of threads and hands the
+ * results back in the order in which the calls were submitted. A transform uses it to keep several
+ * slow requests, like HTTP calls, in flight at the same time while its output keeps the order of
+ * its input:
+ *
+ * <pre>
+ *   queue.submit(row, () -&gt; call(row));
+ *   queue.take(false, result -&gt; putRow(result), (row, e) -&gt; handleError(row, e));
+ * </pre>
+ *
+ * The calls run on virtual threads if the JVM supports them. The queue itself is not thread safe:
+ * it is meant to be used by the thread of a single transform copy.
+ *
+ * @param <I> the type of the inputs
+ * @param <O> the type of the results
+ */
+public class OrderedCallQueue<I, O> implements AutoCloseable {
+  private static final Class<?> PKG = OrderedCallQueue.class;
+
+  private final int maxInFlight;
+  private final ExecutorService executor;
+  private final Deque<Call<I, O>> calls;
+
+  /**
+   * @param name the name of the threads of the queue
+   * @param maxInFlight the maximum number of calls which run at the same time
+   */
+  public OrderedCallQueue(String name, int maxInFlight) {
+    this.maxInFlight = Math.max(1, maxInFlight);
+    this.calls = new ArrayDeque<>(this.maxInFlight);
+    AtomicInteger threadNr = new AtomicInteger(1);
+    this.executor =
+        Executors.newFixedThreadPool(
+            this.maxInFlight,
+            r -> {
+              Thread thread =
+                  ThreadUtil.newThread(r, name + " call " + threadNr.getAndIncrement(), true);
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /** Starts the call for the given input */
+  public void submit(I input, Callable<O> callable) {
+    calls.addLast(new Call<>(input, executor.submit(callable)));
+  }
+
+  /**
+   * @return true if the maximum number of calls are in flight, the oldest one should be taken
+   *     before another one is submitted
+   */
+  public boolean isFull() {
+    return calls.size() >= maxInFlight;
+  }
+
+  /**
+   * @return true if there are no calls left to take
+   */
+  public boolean isEmpty() {
+    return calls.isEmpty();
+  }
+
+  /**
+   * @return the number of calls which are submitted and not taken yet
+   */
+  public int size() {
+    return calls.size();
+  }
+
+  /**
+   * Waits for the oldest call to finish and removes it from the queue.
+   *
+   * @return the oldest call or null if the queue is empty
+   * @throws InterruptedException if the thread is interrupted while waiting
+   */
+  public Call<I, O> take() throws InterruptedException {
+    Call<I, O> call = calls.pollFirst();
+    if (call != null) {
+      call.await();
+    }
+    return call;
+  }
+
+  /**
+   * Hands the finished calls to the handlers in the order in which they were submitted.
+   *
+   * @param all true to wait for all the calls in flight, false to wait only until there is room for
+   *     another call
+   * @param resultHandler receives the result of a call which succeeded
+   * @param errorHandler receives the input and the exception of a call which failed, or of a result
+   *     which could not be handled
+   * @return false as soon as the error handler returns false
+   * @throws HopException if the thread is interrupted or a handler fails
+   */
+  public boolean take(boolean all, IResultHandler<O> resultHandler, IErrorHandler<I> errorHandler)
+      throws HopException {
+    while (all ? !isEmpty() : isFull()) {
+      Call<I, O> call;
+      try {
+        call = take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new HopException(
+            BaseMessages.getString(PKG, "OrderedCallQueue.Exception.Interrupted"), e);
+      }
+      try {
+        resultHandler.handle(call.getResult());
+      } catch (HopException e) {
+        if (!errorHandler.handle(call.getInput(), e)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /** Cancels the calls in flight and stops the threads */
+  @Override
+  public void close() {
+    for (Call<I, O> call : calls) {
+      call.future.cancel(true);
+    }
+    calls.clear();
+    executor.shutdownNow();
+  }
+
+  /** Handles the result of a call, on the thread which takes the calls */
+  @FunctionalInterface
+  public interface IResultHandler<O> {
+    void handle(O result) throws HopException;
+  }
+
+  /** Handles the exception of a call, on the thread which takes the calls */
+  @FunctionalInterface
+  public interface IErrorHandler<I> {
+    /**
+     * @return false to stop taking calls
+     */
+    boolean handle(I input, HopException e) throws HopException;
+  }
+
+  /** A finished call: its input with the result or the exception of the call */
+  public static final class Call<I, O> {
+    private final I input;
+    private final Future<O> future;
+    private O result;
+    private Throwable error;
+
+    private Call(I input, Future<O> future) {
+      this.input = input;
+      this.future = future;
+    }
+
+    private void await() throws InterruptedException {
+      try {
+        result = future.get();
+      } catch (ExecutionException e) {
+        error = e.getCause();
+      }
+    }
+
+    /**
+     * @return the input the call was submitted with
+     */
+    public I getInput() {
+      return input;
+    }
+
+    /**
+     * @return the result of the call
+     * @throws HopException the exception thrown by the call, wrapped if it is not a HopException
+     */
+    public O getResult() throws HopException {
+      if (error instanceof HopException hopException) {
+        throw hopException;
+      }
+      if (error != null) {
+        throw new HopException(error.getMessage(), error);
+      }
+      return result;
+    }
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Creates the threads that run transforms and other units of work. Virtual threads are only
+ * available from Java 21 onwards while Hop is built for Java 17, so they are looked up at runtime.
+ * On older runtimes a platform thread is created instead.
+ */
+public class ThreadUtil {
+
+  /** Thread.ofVirtual(), or null if virtual threads are not supported by the running JVM */
+  private static final MethodHandle OF_VIRTUAL;
+
+  /** Thread.Builder.name(String) */
+  private static final MethodHandle BUILDER_NAME;
+
+  /** Thread.Builder.unstarted(Runnable) */
+  private static final MethodHandle BUILDER_UNSTARTED;
+
+  /** Thread.isVirtual() */
+  private static final MethodHandle IS_VIRTUAL;
+
+  static {
+    MethodHandle ofVirtual = null;
+    MethodHandle builderName = null;
+    MethodHandle builderUnstarted = null;
+    MethodHandle isVirtual = null;
+    try {
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      Class<?> ofVirtualClass = Class.forName("java.lang.Thread$Builder$OfVirtual");
+      MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+      ofVirtual =
+          lookup.findStatic(Thread.class, "ofVirtual", MethodType.methodType(ofVirtualClass));
+      builderName =
+          lookup.findVirtual(
+              builderClass, "name", MethodType.methodType(builderClass, String.class));
+      builderUnstarted =
+          lookup.findVirtual(
+              builderClass, "unstarted", MethodType.methodType(Thread.class, Runnable.class));
+      isVirtual =
+          lookup.findVirtual(Thread.class, "isVirtual", MethodType.methodType(boolean.class));
+
+      // Virtual threads are a preview feature on Java 19 and 20: make sure we can really use them
+      //
+      ofVirtual.invoke();
+    } catch (Throwable e) {
+      ofVirtual = null;
+    }
+    OF_VIRTUAL = ofVirtual;
+    BUILDER_NAME = builderName;
+    BUILDER_UNSTARTED = builderUnstarted;
+    IS_VIRTUAL = ofVirtual == null ? null : isVirtual;
+  }
+
+  private ThreadUtil() {}
+
+  /**
+   * @return true if the running JVM can create virtual threads
+   */
+  public static boolean isVirtualThreadSupported() {
+    return OF_VIRTUAL != null;
+  }
+
+  /**
+   * @param thread the thread to check
+   * @return true if the given thread is a virtual thread
+   */
+  public static boolean isVirtual(Thread thread) {
+    if (IS_VIRTUAL == null) {
+      return false;
+    }
+    try {
+      return (boolean) IS_VIRTUAL.invokeExact(thread);
+    } catch (Throwable e) {
+      return false;
+    }
+  }
+
+  /**
+   * Create a new thread which is not started yet.
+   *
+   * @param runnable the work to do in the thread
+   * @param name the name of the thread
+   * @param virtual true if you want a virtual thread. If the JVM doesn't support virtual threads a
+   *     platform thread is created.
+   * @return the new unstarted thread
+   */
+  public static Thread newThread(Runnable runnable, String name, boolean virtual) {
+    if (virtual && OF_VIRTUAL != null) {
+      try {
+        Object builder = OF_VIRTUAL.invoke();
+        builder = BUILDER_NAME.invoke(builder, name);
+        return (Thread) BUILDER_UNSTARTED.invoke(builder, runnable);
+      } catch (Throwable e) {
+        // Fall through to a platform thread
+      }
+    }
+    Thread thread = new Thread(runnable);
+    thread.setName(name);
+    return thread;
+  }
+}
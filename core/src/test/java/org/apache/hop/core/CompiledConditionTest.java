@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.apache.hop.core.Condition.Function;
+import org.apache.hop.core.Condition.Operator;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.ValueMetaAndData;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.RestoreHopEnvironment;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+public class CompiledConditionTest {
+  @ClassRule public static RestoreHopEnvironment env = new RestoreHopEnvironment();
+
+  private static final String[] NAMES = {"Anna", "Bart", "Bert", "Caroline", "", null};
+  private static final String[] PATTERNS = {"B.*", "%r%", "A?na", "Bart;Anna;C\\;D"};
+
+  @BeforeClass
+  public static void setUpClass() throws Exception {
+    HopClientEnvironment.init();
+  }
+
+  private static IRowMeta createRowMeta() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+    rowMeta.addValueMeta(new ValueMetaInteger("age"));
+    rowMeta.addValueMeta(new ValueMetaNumber("score"));
+    rowMeta.addValueMeta(new ValueMetaString("pattern"));
+    rowMeta.addValueMeta(new ValueMetaInteger("limit"));
+    return rowMeta;
+  }
+
+  private static Object[] createRow(Random random) {
+    return new Object[] {
+      NAMES[random.nextInt(NAMES.length)],
+      random.nextInt(5) == 0 ? null : (long) random.nextInt(100),
+      random.nextInt(5) == 0 ? null : random.nextDouble() * 100,
+      PATTERNS[random.nextInt(PATTERNS.length)],
+      (long) random.nextInt(100)
+    };
+  }
+
+  private static Condition createAtomic(Random random) throws Exception {
+    Function[] functions = Function.values();
+    Function function = functions[random.nextInt(functions.length)];
+    boolean negated = random.nextBoolean();
+    switch (function) {
+      case REGEXP, LIKE, IN_LIST, CONTAINS, STARTS_WITH, ENDS_WITH:
+        if (random.nextBoolean()) {
+          return new Condition(negated, "name", function, "pattern", null);
+        }
+        String text =
+            switch (function) {
+              case REGEXP -> "B.*";
+              case LIKE -> "%a%";
+              case IN_LIST -> "Bert;Caroline;X\\;Y";
+              default -> "a";
+            };
+        return new Condition(
+            negated,
+            "name",
+            function,
+            null,
+            new ValueMetaAndData(new ValueMetaString("constant"), text));
+      default:
+        String left = random.nextBoolean() ? "age" : "score";
+        switch (random.nextInt(4)) {
+          case 0:
+            return new Condition(negated, left, function, "limit", null);
+          case 1:
+            // A string constant is converted to the type of the field
+            return new Condition(
+                negated,
+                left,
+                function,
+                null,
+                new ValueMetaAndData(new ValueMetaString("constant"), "50"));
+          case 2:
+            return new Condition(
+                negated,
+                left,
+                function,
+                null,
+                new ValueMetaAndData(new ValueMetaNumber("constant"), 42.5));
+          default:
+            return new Condition(
+                negated,
+                left,
+                function,
+                null,
+                new ValueMetaAndData(new ValueMetaInteger("constant"), 30L));
+        }
+    }
+  }
+
+  private static Condition createComposite(Random random, int depth) throws Exception {
+    Condition condition = new Condition();
+    int nrChildren = 2 + random.nextInt(3);
+    Operator[] operators = Operator.values();
+    boolean sameOperator = random.nextBoolean();
+    Operator common = random.nextBoolean() ? Operator.AND : Operator.OR;
+    for (int i = 0; i < nrChildren; i++) {
+      Condition child =
+          depth > 0 && random.nextInt(3) == 0
+              ? createComposite(random, depth - 1)
+              : createAtomic(random);
+      if (i > 0) {
+        child.setOperator(sameOperator ? common : operators[random.nextInt(operators.length)]);
+      }
+      condition.getChildren().add(child);
+    }
+    condition.setNegated(random.nextInt(4) == 0);
+    return condition;
+  }
+
+  @Test
+  public void testSameResultAsEvaluate() throws Exception {
+    Random random = new Random(123);
+    IRowMeta rowMeta = createRowMeta();
+    List<Object[]> rows = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      rows.add(createRow(random));
+    }
+
+    for (int c = 0; c < 300; c++) {
+      Condition condition = c % 2 == 0 ? createAtomic(random) : createComposite(random, 2);
+      CompiledCondition compiled = condition.compile(rowMeta);
+      for (Object[] row : rows) {
+        Boolean expected;
+        try {
+          expected = condition.evaluate(rowMeta, row);
+        } catch (RuntimeException e) {
+          expected = null;
+        }
+        if (expected != null) {
+          assertEquals(condition.toString(), expected, compiled.evaluate(row));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testCheapestConditionFirst() throws Exception {
+    IRowMeta rowMeta = createRowMeta();
+    Condition condition = new Condition();
+    condition
+        .getChildren()
+        .add(
+            new Condition(
+                "name",
+                Function.REGEXP,
+                null,
+                new ValueMetaAndData(new ValueMetaString("constant"), "[")));
+    Condition isNull = new Condition("age", Function.NULL, null, null);
+    isNull.setOperator(Operator.AND);
+    condition.getChildren().add(isNull);
+
+    Object[] row = new Object[] {"Anna", 10L, 1.0, "", 0L};
+    CompiledCondition compiled = condition.compile(rowMeta);
+
+    // The invalid regular expression isn't evaluated when age is not null
+    assertFalse(compiled.evaluate(row));
+    assertThrows(RuntimeException.class, () -> condition.evaluate(rowMeta, row));
+
+    row[1] = null;
+    assertThrows(RuntimeException.class, () -> compiled.evaluate(row));
+  }
+
+  @Test
+  public void testRightFieldChanges() throws Exception {
+    IRowMeta rowMeta = createRowMeta();
+    CompiledCondition inList =
+        new Condition("name", Function.IN_LIST, "pattern", null).compile(rowMeta);
+    CompiledCondition regexp =
+        new Condition("name", Function.REGEXP, "pattern", null).compile(rowMeta);
+
+    assertTrue(inList.evaluate(new Object[] {"Anna", 1L, 1.0, "Bart;Anna", 0L}));
+    assertFalse(inList.evaluate(new Object[] {"Anna", 1L, 1.0, "Bart;Bert", 0L}));
+    assertTrue(regexp.evaluate(new Object[] {"Bert", 1L, 1.0, "B.*", 0L}));
+    assertFalse(regexp.evaluate(new Object[] {"Bert", 1L, 1.0, "A.*", 0L}));
+  }
+
+  @Test
+  public void testMissingField() throws Exception {
+    Condition condition = new Condition(true, "unknown", Function.NULL, null, null);
+    assertFalse(condition.compile(createRowMeta()).evaluate(new Object[5]));
+    assertFalse(condition.evaluate(createRowMeta(), new Object[5]));
+  }
+}
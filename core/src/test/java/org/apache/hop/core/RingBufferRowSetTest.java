@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.junit.rules.RestoreHopEnvironment;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+/** Test class for the basic functionality of the ring buffer row set. */
+public class RingBufferRowSetTest {
+  @ClassRule public static RestoreHopEnvironment env = new RestoreHopEnvironment();
+
+  private IRowMeta createRowMeta() {
+    IRowMeta rm = new RowMeta();
+    rm.addValueMeta(new ValueMetaInteger("ROWNR"));
+    return rm;
+  }
+
+  @Test
+  public void testBasicCreation() {
+    IRowSet set = new RingBufferRowSet(10);
+
+    assertFalse(set.isDone());
+    assertEquals(0, set.size());
+  }
+
+  @Test
+  public void testCapacity() {
+    IRowSet set = new RingBufferRowSet(3);
+    IRowMeta rm = createRowMeta();
+
+    assertTrue(set.putRowWait(rm, new Object[] {1L}, 1, TimeUnit.MILLISECONDS));
+    assertTrue(set.putRowWait(rm, new Object[] {2L}, 1, TimeUnit.MILLISECONDS));
+    assertTrue(set.putRowWait(rm, new Object[] {3L}, 1, TimeUnit.MILLISECONDS));
+    assertEquals(3, set.size());
+
+    // The buffer is full: even though the backing array holds 4 rows we only accept 3
+    //
+    assertFalse(set.putRowWait(rm, new Object[] {4L}, 1, TimeUnit.MILLISECONDS));
+    assertEquals(3, set.size());
+
+    assertArrayEquals(new Object[] {1L}, set.getRowImmediate());
+    assertTrue(set.putRowWait(rm, new Object[] {4L}, 1, TimeUnit.MILLISECONDS));
+
+    assertArrayEquals(new Object[] {2L}, set.getRowImmediate());
+    assertArrayEquals(new Object[] {3L}, set.getRowImmediate());
+    assertArrayEquals(new Object[] {4L}, set.getRowImmediate());
+    assertNull(set.getRowImmediate());
+    assertEquals(0, set.size());
+  }
+
+  @Test
+  public void testDoneAndClear() {
+    IRowSet set = new RingBufferRowSet(5);
+    IRowMeta rm = createRowMeta();
+
+    set.putRow(rm, new Object[] {1L});
+    set.setDone();
+    assertTrue(set.isDone());
+    assertEquals(rm, set.getRowMeta());
+
+    assertArrayEquals(new Object[] {1L}, set.getRowWait(1, TimeUnit.SECONDS));
+
+    // Done and empty: don't wait for the timeout
+    //
+    long start = System.currentTimeMillis();
+    assertNull(set.getRowWait(10, TimeUnit.SECONDS));
+    assertTrue(System.currentTimeMillis() - start < 5000);
+
+    set.putRow(rm, new Object[] {2L});
+    set.clear();
+    assertFalse(set.isDone());
+    assertEquals(0, set.size());
+    assertNull(set.getRowImmediate());
+  }
+
+  @Test
+  public void testBatches() {
+    IRowSet set = new RingBufferRowSet(5);
+    IRowMeta rm = createRowMeta();
+
+    Object[][] rows = new Object[8][];
+    for (int i = 0; i < rows.length; i++) {
+      rows[i] = new Object[] {(long) i};
+    }
+
+    // Only 5 rows fit
+    //
+    assertEquals(5, set.putRows(rm, rows, 8));
+    assertEquals(5, set.size());
+
+    Object[][] batch = set.getRows(3);
+    assertEquals(3, batch.length);
+    assertArrayEquals(rows[0], batch[0]);
+    assertArrayEquals(rows[2], batch[2]);
+
+    batch = set.getRows(10);
+    assertEquals(2, batch.length);
+    assertArrayEquals(rows[4], batch[1]);
+
+    set.setDone();
+    assertNull(set.getRows(10));
+  }
+
+  /** One producer thread and one consumer thread, the rows need to arrive in order. */
+  @Test
+  public void testProducerConsumer() throws Exception {
+    final int nrRows = 1_000_000;
+    final IRowSet set = new RingBufferRowSet(100);
+    final IRowMeta rm = createRowMeta();
+    final AtomicReference<Throwable> error = new AtomicReference<>();
+
+    Thread producer =
+        new Thread(
+            () -> {
+              for (long i = 0; i < nrRows; i++) {
+                Object[] row = new Object[] {i};
+                while (!set.putRow(rm, row)) {
+                  // Keep trying
+                }
+              }
+              set.setDone();
+            });
+
+    Thread consumer =
+        new Thread(
+            () -> {
+              try {
+                long expected = 0;
+                while (true) {
+                  Object[] row = set.getRow();
+                  if (row == null) {
+                    if (set.isDone() && set.size() == 0) {
+                      break;
+                    }
+                    continue;
+                  }
+                  assertEquals(expected++, row[0]);
+                }
+                assertEquals(nrRows, expected);
+              } catch (Throwable t) {
+                error.set(t);
+              }
+            });
+
+    producer.start();
+    consumer.start();
+    producer.join(60000);
+    consumer.join(60000);
+
+    if (error.get() != null) {
+      throw new AssertionError(error.get());
+    }
+    assertFalse(consumer.isAlive());
+  }
+}
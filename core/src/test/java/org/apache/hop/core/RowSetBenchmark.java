@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import java.util.concurrent.TimeUnit;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures how many rows per millisecond can be handed over from one producer thread to one
+ * consumer thread through the various row set implementations. Run it with the main method or with
+ * the JMH runner from the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RowSetBenchmark {
+  private static final int NR_ROWS = 100_000;
+
+  @Param({"Blocking", "BlockingBatching", "RingBuffer"})
+  public String rowSetType;
+
+  @Param({"10000"})
+  public int rowSetSize;
+
+  private IRowMeta rowMeta;
+  private Object[] row;
+
+  @Setup
+  public void setup() {
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+    row = new Object[] {1L, "Apache Hop"};
+  }
+
+  private IRowSet createRowSet() {
+    return switch (rowSetType) {
+      case "BlockingBatching" -> new BlockingBatchingRowSet(rowSetSize);
+      case "RingBuffer" -> new RingBufferRowSet(rowSetSize);
+      default -> new BlockingRowSet(rowSetSize);
+    };
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NR_ROWS)
+  public long handOver() throws InterruptedException {
+    final IRowSet rowSet = createRowSet();
+
+    Thread producer =
+        new Thread(
+            () -> {
+              for (int i = 0; i < NR_ROWS; i++) {
+                while (!rowSet.putRow(rowMeta, row)) {
+                  // Buffer full, try again
+                }
+              }
+              rowSet.setDone();
+            });
+    producer.start();
+
+    long count = 0;
+    while (true) {
+      Object[] r = rowSet.getRow();
+      if (r != null) {
+        count++;
+      } else if (rowSet.isDone() && rowSet.size() == 0) {
+        break;
+      }
+    }
+    producer.join();
+    return count;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(RowSetBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.junit.Test;
+
+public class RowSetSignalTest {
+
+  @Test
+  public void testSupportedRowSets() {
+    RowSetSignal signal = new RowSetSignal();
+    assertTrue(new BlockingRowSet(10).setConsumerSignal(signal));
+    assertTrue(new RingBufferRowSet(10).setConsumerSignal(signal));
+    assertTrue(new QueueRowSet().setConsumerSignal(signal));
+    assertTrue(new SingleRowRowSet().setConsumerSignal(signal));
+    assertFalse(new BlockingBatchingRowSet(10).setConsumerSignal(signal));
+  }
+
+  @Test
+  public void testWakeUpOnPutRow() throws Exception {
+    testWakeUp(new BlockingRowSet(10), false);
+    testWakeUp(new RingBufferRowSet(10), false);
+  }
+
+  @Test
+  public void testWakeUpOnDone() throws Exception {
+    testWakeUp(new BlockingRowSet(10), true);
+    testWakeUp(new RingBufferRowSet(10), true);
+  }
+
+  @Test
+  public void testConditionCheckedAgainAfterFirstPark() {
+    RowSetSignal signal = new RowSetSignal();
+    AtomicInteger checks = new AtomicInteger();
+
+    // The condition becomes true without any signal, like when a row published while registering
+    // the waiter only becomes visible afterwards. We shouldn't wait for the timeout.
+    //
+    long start = System.nanoTime();
+    signal.await(() -> checks.incrementAndGet() > 1, 10, TimeUnit.SECONDS);
+
+    assertEquals(2, checks.get());
+    assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5000);
+  }
+
+  /**
+   * A row published while the consumer registers as waiter can miss the consumer. The signal is
+   * lost then, the row is found when the first park expires.
+   */
+  @Test
+  public void testMissedSignalBoundedByFirstPark() {
+    AtomicInteger signals = new AtomicInteger();
+    RowSetSignal signal =
+        new RowSetSignal() {
+          @Override
+          public void signal() {
+            // The producer didn't see the waiter
+            signals.incrementAndGet();
+          }
+        };
+    RingBufferRowSet rowSet = new RingBufferRowSet(10);
+    rowSet.setConsumerSignal(signal);
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    AtomicInteger checks = new AtomicInteger();
+
+    long start = System.nanoTime();
+    signal.await(
+        () -> {
+          if (checks.incrementAndGet() == 1) {
+            rowSet.putRow(rowMeta, new Object[] {1L});
+            return false;
+          }
+          return rowSet.size() > 0;
+        },
+        10,
+        TimeUnit.SECONDS);
+
+    assertTrue(signals.get() > 0);
+    assertEquals(1, rowSet.size());
+    assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+  }
+
+  private void testWakeUp(IRowSet rowSet, boolean done) throws Exception {
+    RowSetSignal signal = new RowSetSignal();
+    rowSet.setConsumerSignal(signal);
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+
+    Thread producer =
+        new Thread(
+            () -> {
+              try {
+                Thread.sleep(100);
+              } catch (InterruptedException e) {
+                // Ignore
+              }
+              if (done) {
+                rowSet.setDone();
+              } else {
+                rowSet.putRow(rowMeta, new Object[] {1L});
+              }
+            });
+    producer.start();
+
+    long start = System.nanoTime();
+    while (rowSet.size() == 0 && !rowSet.isDone()) {
+      signal.await(() -> rowSet.size() > 0 || rowSet.isDone(), 10, TimeUnit.SECONDS);
+    }
+    assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5000);
+    producer.join();
+  }
+}
@@ -158,6 +158,27 @@ public class RowSetTest {
      **********************************************************************/
   }
 
+  /** Batches of rows in and out. */
+  @Test
+  public void testBatches() {
+    IRowSet set = new BlockingRowSet(10);
+    IRowMeta rm = createRowMetaInterface();
+
+    Object[][] rows = new Object[][] {{1L}, {2L}, {3L}, {4L}};
+    assertEquals(3, set.putRows(rm, rows, 3));
+    assertEquals(3, set.size());
+
+    Object[][] batch = set.getRows(2);
+    assertEquals(2, batch.length);
+    assertEquals(1L, batch[0][0]);
+    assertEquals(2L, batch[1][0]);
+
+    batch = set.getRows(100);
+    assertEquals(1, batch.length);
+    assertEquals(3L, batch[0][0]);
+    assertEquals(0, set.size());
+  }
+
   /** Names test. Just for completeness. */
   @Test
   public void testNames() {
@@ -26,6 +26,7 @@ import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import org.apache.hop.core.HopClientEnvironment;
@@ -182,6 +183,23 @@ public class BaseDatabaseMetaTest {
             .toString());
     assertEquals("CREATE TABLE ", nativeMeta.getCreateTableStatement());
     assertEquals("DROP TABLE IF EXISTS FOO", nativeMeta.getDropTableIfExistsStatement("FOO"));
+    assertEquals("STG", nativeMeta.getStagingTableName("STG"));
+    assertEquals(
+        "CREATE TEMPORARY TABLE STG AS SELECT ID, NAME FROM FOO WHERE 1 = 0",
+        nativeMeta.getSqlCreateStagingTable("STG", "FOO", "ID, NAME"));
+    assertEquals("TRUNCATE TABLE STG", nativeMeta.getSqlClearStagingTable("STG"));
+    assertEquals(
+        "MERGE INTO FOO t USING STG s ON (t.ID = s.ID)"
+            + " WHEN MATCHED AND (t.NAME <> s.NAME OR (t.NAME IS NULL AND s.NAME IS NOT NULL)"
+            + " OR (t.NAME IS NOT NULL AND s.NAME IS NULL)) THEN UPDATE SET NAME = s.NAME"
+            + " WHEN NOT MATCHED THEN INSERT (ID, NAME) VALUES (s.ID, s.NAME)",
+        nativeMeta.getSqlMergeFromStagingTable(
+            "FOO", "STG", List.of("ID"), List.of("ID", "NAME"), List.of("NAME")));
+    assertEquals(
+        "MERGE INTO FOO t USING STG s ON (t.ID = s.ID)"
+            + " WHEN NOT MATCHED THEN INSERT (ID, NAME) VALUES (s.ID, s.NAME)",
+        nativeMeta.getSqlMergeFromStagingTable(
+            "FOO", "STG", List.of("ID"), List.of("ID", "NAME"), List.of()));
   }
 
   @Test
@@ -0,0 +1,330 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.database.pool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.hop.core.HopClientEnvironment;
+import org.apache.hop.core.database.BaseDatabaseMeta;
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.junit.rules.RestoreHopEnvironment;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+public class DatabaseConnectionPoolTest {
+  @ClassRule public static RestoreHopEnvironment env = new RestoreHopEnvironment();
+
+  private final List<Connection> connections = new ArrayList<>();
+  private DatabaseConnectionPool pool;
+
+  @BeforeClass
+  public static void setUpClass() throws Exception {
+    HopClientEnvironment.init();
+  }
+
+  @After
+  public void tearDown() {
+    if (pool != null) {
+      pool.close();
+    }
+  }
+
+  private Connection createConnection() throws SQLException {
+    Connection connection = mock(Connection.class);
+    AtomicBoolean autoCommit = new AtomicBoolean(true);
+    AtomicBoolean closed = new AtomicBoolean(false);
+    when(connection.getAutoCommit()).thenAnswer(invocation -> autoCommit.get());
+    doAnswer(
+            invocation -> {
+              autoCommit.set(invocation.getArgument(0));
+              return null;
+            })
+        .when(connection)
+        .setAutoCommit(anyBoolean());
+    when(connection.getTransactionIsolation()).thenReturn(Connection.TRANSACTION_READ_COMMITTED);
+    when(connection.isClosed()).thenAnswer(invocation -> closed.get());
+    doAnswer(
+            invocation -> {
+              closed.set(true);
+              return null;
+            })
+        .when(connection)
+        .close();
+    when(connection.isValid(5)).thenReturn(true);
+    connections.add(connection);
+    return connection;
+  }
+
+  private DatabaseConnectionPool createPool(Map<String, String> parameters)
+      throws HopDatabaseException {
+    pool =
+        new DatabaseConnectionPool(
+            "test",
+            DatabaseConnectionPoolSettings.fromParameters(parameters),
+            this::createConnection);
+    return pool;
+  }
+
+  @Test
+  public void testDefaultSettings() throws Exception {
+    DatabaseConnectionPoolSettings settings =
+        DatabaseConnectionPoolSettings.fromParameters(new HashMap<>());
+    assertEquals(10, settings.getMaxSize());
+    assertEquals(0, settings.getMinIdle());
+    assertEquals(600_000L, settings.getIdleTimeout());
+    assertEquals(30_000L, settings.getMaxWait());
+    assertEquals(5, settings.getValidationTimeout());
+    assertEquals(0L, settings.getLeakDetectionThreshold());
+
+    assertThrows(
+        HopDatabaseException.class,
+        () ->
+            DatabaseConnectionPoolSettings.fromParameters(
+                Map.of(BaseDatabaseMeta.POOLING_PARAMETER_MAX_SIZE, "0")));
+    assertThrows(
+        HopDatabaseException.class,
+        () ->
+            DatabaseConnectionPoolSettings.fromParameters(
+                Map.of(BaseDatabaseMeta.POOLING_PARAMETER_MAX_WAIT, "abc")));
+  }
+
+  @Test
+  public void testConnectionIsReused() throws Exception {
+    createPool(new HashMap<>());
+
+    Connection first = pool.getConnection();
+    assertEquals(1, pool.getActiveConnections());
+    first.close();
+    assertTrue(first.isClosed());
+    assertEquals(0, pool.getActiveConnections());
+    assertEquals(1, pool.getIdleConnections());
+
+    Connection second = pool.getConnection();
+    assertFalse(second.isClosed());
+    assertNotSame(first, second);
+    second.close();
+
+    assertEquals(1, connections.size());
+    assertEquals(1, pool.getCreatedCount());
+    assertEquals(2, pool.getBorrowCount());
+    verify(connections.get(0), never()).close();
+
+    // A closed borrowed connection can't be used anymore
+    assertThrows(SQLException.class, first::createStatement);
+  }
+
+  @Test
+  public void testMaxSizeTimeout() throws Exception {
+    createPool(
+        Map.of(
+            BaseDatabaseMeta.POOLING_PARAMETER_MAX_SIZE, "2",
+            BaseDatabaseMeta.POOLING_PARAMETER_MAX_WAIT, "100"));
+
+    Connection first = pool.getConnection();
+    Connection second = pool.getConnection();
+    assertThrows(SQLTimeoutException.class, pool::getConnection);
+    assertEquals(1, pool.getTimeoutCount());
+    assertTrue(pool.getMaxWaitTime() >= 100);
+
+    first.close();
+    second.close();
+  }
+
+  @Test
+  public void testWaitingCallerGetsReturnedConnection() throws Exception {
+    createPool(
+        Map.of(
+            BaseDatabaseMeta.POOLING_PARAMETER_MAX_SIZE, "1",
+            BaseDatabaseMeta.POOLING_PARAMETER_MAX_WAIT, "10000"));
+
+    Connection first = pool.getConnection();
+    Thread thread =
+        new Thread(
+            () -> {
+              try {
+                Thread.sleep(100);
+                first.close();
+              } catch (Exception e) {
+                // The test fails on the timeout
+              }
+            });
+    thread.start();
+
+    Connection second = pool.getConnection();
+    second.close();
+    thread.join();
+
+    assertEquals(1, connections.size());
+    assertEquals(2, pool.getBorrowCount());
+    assertTrue(pool.getMaxWaitTime() >= 50);
+    assertTrue(pool.getAverageWaitTime() > 0);
+  }
+
+  @Test
+  public void testInvalidConnectionIsReplaced() throws Exception {
+    createPool(Map.of(BaseDatabaseMeta.POOLING_PARAMETER_VALIDATION_QUERY, "SELECT 1"));
+
+    Connection first = pool.getConnection();
+    first.close();
+    Connection physical = connections.get(0);
+    Statement statement = mock(Statement.class);
+    when(physical.createStatement()).thenReturn(statement);
+    doThrow(new SQLException("Connection reset")).when(statement).execute(anyString());
+
+    // Only connections which were idle for a while are validated
+    Thread.sleep(600);
+
+    Connection second = pool.getConnection();
+    verify(statement).setQueryTimeout(5);
+    verify(statement).execute("SELECT 1");
+    verify(physical).close();
+    assertEquals(2, connections.size());
+    assertEquals(1, pool.getTotalConnections());
+    second.close();
+  }
+
+  @Test
+  public void testUncommittedWorkIsRolledBack() throws Exception {
+    createPool(new HashMap<>());
+
+    Connection connection = pool.getConnection();
+    connection.setAutoCommit(false);
+    connection.close();
+
+    Connection physical = connections.get(0);
+    verify(physical).rollback();
+    assertTrue(physical.getAutoCommit());
+  }
+
+  @Test
+  public void testOpenStatementsAreClosed() throws Exception {
+    createPool(new HashMap<>());
+
+    Connection connection = pool.getConnection();
+    Connection physical = connections.get(0);
+    Statement open = mock(Statement.class);
+    Statement closed = mock(Statement.class);
+    when(closed.isClosed()).thenReturn(true);
+    when(physical.createStatement()).thenReturn(open, closed);
+    connection.createStatement();
+    connection.createStatement();
+    connection.close();
+
+    verify(open).close();
+    verify(closed, never()).close();
+    assertEquals(1, pool.getIdleConnections());
+  }
+
+  @Test
+  public void testBrokenConnectionIsNotReturned() throws Exception {
+    createPool(new HashMap<>());
+
+    Connection connection = pool.getConnection();
+    connections.get(0).close();
+    connection.close();
+
+    assertEquals(0, pool.getIdleConnections());
+    assertEquals(0, pool.getTotalConnections());
+  }
+
+  @Test
+  public void testLeakDetection() throws Exception {
+    createPool(Map.of(BaseDatabaseMeta.POOLING_PARAMETER_LEAK_DETECTION_THRESHOLD, "50"));
+
+    Connection connection = pool.getConnection();
+    long end = System.currentTimeMillis() + 5_000;
+    while (pool.getLeakCount() == 0 && System.currentTimeMillis() < end) {
+      Thread.sleep(10);
+    }
+    assertEquals(1, pool.getLeakCount());
+    connection.close();
+
+    // A connection given back in time isn't reported
+    pool.getConnection().close();
+    Thread.sleep(150);
+    assertEquals(1, pool.getLeakCount());
+  }
+
+  @Test
+  public void testMinIdle() throws Exception {
+    createPool(Map.of(BaseDatabaseMeta.POOLING_PARAMETER_MIN_IDLE, "2"));
+
+    long end = System.currentTimeMillis() + 5_000;
+    while (pool.getIdleConnections() < 2 && System.currentTimeMillis() < end) {
+      Thread.sleep(10);
+    }
+    assertEquals(2, pool.getIdleConnections());
+    assertEquals(2, pool.getTotalConnections());
+  }
+
+  @Test
+  public void testClose() throws Exception {
+    createPool(new HashMap<>());
+
+    Connection idle = pool.getConnection();
+    Connection inUse = pool.getConnection();
+    idle.close();
+    pool.close();
+
+    verify(connections.get(0), times(1)).close();
+    verify(connections.get(1), never()).close();
+    inUse.close();
+    verify(connections.get(1), times(1)).close();
+    assertEquals(0, pool.getTotalConnections());
+    assertThrows(SQLException.class, pool::getConnection);
+  }
+
+  @Test
+  public void testPoolMap() {
+    DatabaseConnectionPoolMap map = DatabaseConnectionPoolMap.getInstance();
+    DatabaseConnectionPoolSettings settings = new DatabaseConnectionPoolSettings();
+    DatabaseConnectionPool first =
+        map.getOrCreatePool("key", "test", settings, this::createConnection);
+    assertSame(first, map.getOrCreatePool("key", "test", settings, this::createConnection));
+    assertSame(first, map.getPool("key"));
+
+    map.closeAll();
+    assertTrue(first.isClosed());
+    assertTrue(map.getPools().isEmpty());
+  }
+}
@@ -17,8 +17,11 @@
 
 package org.apache.hop.core.logging;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -126,4 +129,155 @@ public class LoggingBufferTest {
     loggingBuffer.removeChannelFromBuffer(logChannelId);
     Assert.assertEquals(10, loggingBuffer.size());
   }
+
+  @Test
+  public void testKeepsLastLines() {
+    LoggingBuffer loggingBuffer = new LoggingBuffer(10);
+    for (int i = 0; i < 25; i++) {
+      loggingBuffer.addLogggingEvent(createEvent("line" + i, "1"));
+    }
+    Assert.assertEquals(10, loggingBuffer.size());
+
+    int lastNr = loggingBuffer.getLastBufferLineNr();
+    List<String> messages =
+        getMessages(loggingBuffer.getLogBufferFromTo((List<String>) null, true, 0, lastNr));
+    Assert.assertEquals(10, messages.size());
+    Assert.assertEquals("line15", messages.get(0));
+    Assert.assertEquals("line24", messages.get(9));
+
+    // Only the lines after the given line number
+    //
+    messages =
+        getMessages(loggingBuffer.getLogBufferFromTo(List.of("1"), false, lastNr - 3, lastNr - 1));
+    Assert.assertEquals(List.of("line22", "line23"), messages);
+
+    loggingBuffer.clear();
+    Assert.assertEquals(0, loggingBuffer.size());
+    Assert.assertEquals(0, loggingBuffer.getLastBufferLineNr());
+  }
+
+  @Test
+  public void testLinesOfChildChannels() {
+    LoggingRegistry registry = LoggingRegistry.getInstance();
+    String parentId =
+        registry.registerLoggingSource(
+            new SimpleLoggingObject("buffer-parent", LoggingObjectType.PIPELINE, null));
+    String childId =
+        registry.registerLoggingSource(
+            new SimpleLoggingObject(
+                "buffer-child", LoggingObjectType.TRANSFORM, registry.getLoggingObject(parentId)));
+    String otherId =
+        registry.registerLoggingSource(
+            new SimpleLoggingObject("buffer-other", LoggingObjectType.PIPELINE, null));
+    String generalId = new LogChannel("general").getLogChannelId();
+
+    LoggingBuffer loggingBuffer = new LoggingBuffer(100);
+    int startNr = loggingBuffer.getLastBufferLineNr();
+    loggingBuffer.addLogggingEvent(createEvent("parent1", parentId));
+    loggingBuffer.addLogggingEvent(createEvent("other1", otherId));
+    loggingBuffer.addLogggingEvent(createEvent("child1", childId));
+    loggingBuffer.addLogggingEvent(createEvent("general1", generalId));
+    loggingBuffer.addLogggingEvent(createEvent("parent2", parentId));
+    int middleNr = loggingBuffer.getLastBufferLineNr();
+    loggingBuffer.addLogggingEvent(createEvent("child2", childId));
+    loggingBuffer.addLogggingEvent(createEvent("other2", otherId));
+    int endNr = loggingBuffer.getLastBufferLineNr();
+
+    Assert.assertEquals(
+        List.of("parent1", "child1", "parent2", "child2"),
+        getMessages(loggingBuffer.getLogBufferFromTo(parentId, false, startNr, endNr)));
+    Assert.assertEquals(
+        List.of("parent1", "child1", "general1", "parent2", "child2"),
+        getMessages(loggingBuffer.getLogBufferFromTo(parentId, true, startNr, endNr)));
+    Assert.assertEquals(
+        List.of("child2"),
+        getMessages(loggingBuffer.getLogBufferFromTo(parentId, false, middleNr, endNr)));
+
+    loggingBuffer.removeGeneralMessages();
+    loggingBuffer.removeChannelFromBuffer(childId);
+    Assert.assertEquals(
+        List.of("parent1", "parent2"),
+        getMessages(loggingBuffer.getLogBufferFromTo(parentId, true, startNr, endNr)));
+    Assert.assertEquals(4, loggingBuffer.size());
+  }
+
+  @Test
+  public void testUnlimitedBufferGrows() {
+    LoggingBuffer loggingBuffer = new LoggingBuffer(0);
+    for (int i = 0; i < 5000; i++) {
+      loggingBuffer.addLogggingEvent(createEvent("line" + i, i % 2 == 0 ? "even" : "odd"));
+    }
+    Assert.assertEquals(5000, loggingBuffer.size());
+    loggingBuffer.removeChannelFromBuffer("odd");
+    Assert.assertEquals(2500, loggingBuffer.size());
+
+    // The lines of the removed channel leave holes which are dropped when the buffer is full
+    //
+    for (int i = 5000; i < 10000; i++) {
+      loggingBuffer.addLogggingEvent(createEvent("line" + i, "even"));
+    }
+    List<String> messages =
+        getMessages(
+            loggingBuffer.getLogBufferFromTo(
+                (List<String>) null, true, 0, loggingBuffer.getLastBufferLineNr()));
+    Assert.assertEquals(7500, messages.size());
+    Assert.assertEquals("line0", messages.get(0));
+    Assert.assertEquals("line4998", messages.get(2499));
+    Assert.assertEquals("line9999", messages.get(7499));
+  }
+
+  @Test
+  public void testReadWhileWriting() throws Exception {
+    LoggingBuffer loggingBuffer = new LoggingBuffer(100);
+    AtomicBoolean done = new AtomicBoolean(false);
+    AtomicReference<String> error = new AtomicReference<>();
+
+    Thread reader =
+        new Thread(
+            () -> {
+              int lastNr = 0;
+              int lastMessage = 0;
+              while (!done.get() && error.get() == null) {
+                int endNr = loggingBuffer.getLastBufferLineNr();
+                List<HopLoggingEvent> events =
+                    loggingBuffer.getLogBufferFromTo(List.of("b"), false, lastNr, endNr);
+                for (HopLoggingEvent event : events) {
+                  LogMessage message = (LogMessage) event.getMessage();
+                  if (!"b".equals(message.getLogChannelId())) {
+                    error.set("Line of channel " + message.getLogChannelId());
+                  }
+                  int messageNr = Integer.parseInt(message.getMessage());
+                  if (messageNr <= lastMessage) {
+                    error.set("Line " + messageNr + " after " + lastMessage);
+                  }
+                  lastMessage = messageNr;
+                }
+                lastNr = endNr;
+              }
+            });
+    reader.start();
+
+    for (int i = 1; i <= 200_000; i++) {
+      loggingBuffer.addLogggingEvent(createEvent(Integer.toString(i), i % 3 == 0 ? "b" : "a"));
+    }
+    done.set(true);
+    reader.join();
+    Assert.assertNull(error.get());
+    Assert.assertEquals(100, loggingBuffer.size());
+  }
+
+  private static HopLoggingEvent createEvent(String message, String logChannelId) {
+    HopLoggingEvent event = new HopLoggingEvent();
+    event.setMessage(new LogMessage(message, logChannelId, LogLevel.BASIC));
+    event.setTimeStamp(System.currentTimeMillis());
+    return event;
+  }
+
+  private static List<String> getMessages(List<HopLoggingEvent> events) {
+    List<String> messages = new ArrayList<>();
+    for (HopLoggingEvent event : events) {
+      messages.add(((LogMessage) event.getMessage()).getMessage());
+    }
+    return messages;
+  }
 }
@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.row;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.hop.core.HopClientEnvironment;
+import org.apache.hop.core.row.value.ValueMetaBinary;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.RestoreHopEnvironment;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+public class CopyOnWriteRowMetaTest {
+  @ClassRule public static RestoreHopEnvironment env = new RestoreHopEnvironment();
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws Exception {
+    HopClientEnvironment.init();
+  }
+
+  private static RowMeta createRowMeta() {
+    RowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("Name"));
+    rowMeta.addValueMeta(new ValueMetaInteger("age"));
+    rowMeta.addValueMeta(new ValueMetaDate("birthday"));
+    rowMeta.addValueMeta(new ValueMetaBinary("photo"));
+    return rowMeta;
+  }
+
+  @Test
+  public void testCopyIsIndependent() {
+    RowMeta rowMeta = createRowMeta();
+    CopyOnWriteRowMeta copy = CopyOnWriteRowMeta.of(rowMeta);
+    rowMeta.addValueMeta(new ValueMetaString("extra"));
+    rowMeta.getValueMeta(0).setName("renamed");
+
+    assertEquals(4, copy.size());
+    assertEquals("Name", copy.getValueMeta(0).getName());
+    assertNull(copy.getValueMeta(4));
+
+    // Every row set gets its own value metadata, also when copying a copy
+    CopyOnWriteRowMeta other = CopyOnWriteRowMeta.of(copy);
+    assertNotSame(copy, other);
+    for (int i = 0; i < copy.size(); i++) {
+      assertNotSame(copy.getValueMeta(i), other.getValueMeta(i));
+    }
+    other.getValueMeta(2).setSortedDescending(true);
+    assertFalse(copy.getValueMeta(2).isSortedDescending());
+  }
+
+  @Test
+  public void testIndexOfValue() {
+    RowMeta rowMeta = createRowMeta();
+    CopyOnWriteRowMeta copy = CopyOnWriteRowMeta.of(rowMeta);
+
+    for (String name : new String[] {"Name", "name", "AGE", "birthday", "photo", "x", null}) {
+      assertEquals(name, rowMeta.indexOfValue(name), copy.indexOfValue(name));
+    }
+    assertEquals("age", copy.searchValueMeta("Age").getName());
+
+    // A renamed value is still found by its new name
+    copy.getValueMeta(1).setName("years");
+    assertEquals(1, copy.indexOfValue("YEARS"));
+    assertEquals(-1, copy.indexOfValue("age"));
+  }
+
+  @Test
+  public void testChanges() throws Exception {
+    CopyOnWriteRowMeta copy = CopyOnWriteRowMeta.of(createRowMeta());
+    CopyOnWriteRowMeta other = CopyOnWriteRowMeta.of(copy);
+
+    copy.addValueMeta(new ValueMetaString("extra"));
+    assertEquals(5, copy.size());
+    assertEquals(4, copy.indexOfValue("EXTRA"));
+
+    // A value with an existing name is renamed, like in RowMeta
+    copy.addValueMeta(0, new ValueMetaString("extra"));
+    assertEquals("extra_1", copy.getValueMeta(0).getName());
+    assertEquals(5, copy.indexOfValue("extra"));
+    assertEquals(2, copy.indexOfValue("age"));
+
+    copy.removeValueMeta("extra_1");
+    copy.setValueMeta(1, new ValueMetaBinary("picture"));
+    assertEquals(1, copy.indexOfValue("picture"));
+    assertEquals(-1, copy.indexOfValue("age"));
+
+    // A binary value needs a real clone
+    byte[] picture = new byte[] {1};
+    Object[] row = new Object[] {"Anna", picture, null, null, "x"};
+    assertNotSame(picture, copy.cloneRow(row)[1]);
+
+    RowMeta more = new RowMeta();
+    more.addValueMeta(new ValueMetaInteger("more"));
+    copy.addRowMeta(more);
+    copy.mergeRowMeta(more);
+    assertArrayEquals(
+        new String[] {"Name", "picture", "birthday", "photo", "extra", "more", "more_1"},
+        copy.getFieldNames());
+
+    copy.removeValueMeta(0);
+    assertEquals(0, copy.indexOfValue("picture"));
+    copy.clear();
+    assertTrue(copy.isEmpty());
+
+    // The other copy isn't affected by any of this
+    assertEquals(4, other.size());
+    assertEquals(1, other.indexOfValue("age"));
+
+    // Changing the returned list doesn't change the row metadata
+    other.getValueMetaList().add(new ValueMetaString("extra"));
+    assertEquals(4, other.size());
+    other.setValueMetaList(createRowMeta().getValueMetaList().subList(0, 2));
+    assertEquals(2, other.size());
+    assertEquals(-1, other.indexOfValue("birthday"));
+  }
+
+  @Test
+  public void testConcurrentReadsDuringChanges() throws Exception {
+    CopyOnWriteRowMeta copy = CopyOnWriteRowMeta.of(createRowMeta());
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    Thread reader =
+        new Thread(
+            () -> {
+              try {
+                for (int i = 0; i < 10_000; i++) {
+                  int index = copy.indexOfValue("age");
+                  assertEquals("age", copy.getValueMeta(index).getName());
+                }
+              } catch (Throwable e) {
+                failure.set(e);
+              }
+            });
+    reader.start();
+    for (int i = 0; i < 1_000; i++) {
+      copy.addValueMeta(new ValueMetaString("value" + i));
+    }
+    reader.join();
+    assertNull(failure.get());
+  }
+
+  @Test
+  public void testSameBehaviourAsRowMeta() throws Exception {
+    RowMeta rowMeta = createRowMeta();
+    CopyOnWriteRowMeta copy = CopyOnWriteRowMeta.of(rowMeta);
+    byte[] photo = new byte[] {1, 2, 3};
+    Object[] row = new Object[] {"Anna", 42L, new Date(0L), photo};
+
+    assertTrue(rowMeta.equals(copy));
+    assertTrue(copy.equals(rowMeta));
+    assertEquals(rowMeta.hashCode(), copy.hashCode());
+    assertEquals(rowMeta.toString(), copy.toString());
+    assertEquals(rowMeta.getString(row), copy.getString(row));
+    assertEquals(rowMeta.getMetaXml(), copy.getMetaXml());
+    assertEquals(rowMeta.getDataXml(row), copy.getDataXml(row));
+    assertArrayEquals(rowMeta.getFieldNames(), copy.getFieldNames());
+    assertEquals(0, copy.compare(row, rowMeta.cloneRow(row)));
+
+    Object[] clone = copy.cloneRow(row);
+    assertNotSame(photo, clone[3]);
+    assertArrayEquals(photo, (byte[]) clone[3]);
+    assertSame(row[0], clone[0]);
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    copy.writeData(new DataOutputStream(bytes), row);
+    Object[] read =
+        rowMeta.readData(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    assertEquals(0, copy.compare(row, read));
+  }
+}
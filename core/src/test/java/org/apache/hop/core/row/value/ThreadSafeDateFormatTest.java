@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.row.value;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+
+/** The thread-safe date format needs to give the same results as the simple date format */
+public class ThreadSafeDateFormatTest {
+
+  private static final String[] PATTERNS = {
+    ValueMetaBase.DEFAULT_DATE_PARSE_MASK,
+    ValueMetaBase.DEFAULT_DATE_FORMAT_MASK,
+    "yyyy-MM-dd",
+    "yyyy-MM-dd HH:mm:ss",
+    "yyyy-MM-dd'T'HH:mm:ss.SSS",
+    "yyyyMMdd",
+    "yyyyMMddHHmmss",
+    "dd/MM/yyyy",
+    "d-M-y H:m:s.S",
+    "HH:mm",
+    "yyyy 'o''clock' ''HH''",
+    "yy-MM-dd",
+    "dd MMM yyyy",
+    "yyyy-MM-dd HH:mm:ss z",
+    "EEE, d MMM yyyy hh:mm a"
+  };
+
+  private static final String[] TIME_ZONES = {
+    "UTC", "Europe/Brussels", "America/New_York", "Australia/Lord_Howe", "Asia/Kolkata", "GMT+05:30"
+  };
+
+  private static final Locale[] LOCALES = {
+    Locale.US, Locale.FRANCE, new Locale("th", "TH", "TH"), new Locale("ja", "JP", "JP")
+  };
+
+  private static SimpleDateFormat createFormat(
+      String pattern, Locale locale, String timeZone, boolean lenient) {
+    SimpleDateFormat format = new SimpleDateFormat(pattern, locale);
+    format.setTimeZone(TimeZone.getTimeZone(timeZone));
+    format.setLenient(lenient);
+    return format;
+  }
+
+  @Test
+  public void testSameFormattedDates() {
+    Random random = new Random(42);
+    for (String pattern : PATTERNS) {
+      for (Locale locale : LOCALES) {
+        for (String timeZone : TIME_ZONES) {
+          SimpleDateFormat expected = createFormat(pattern, locale, timeZone, true);
+          ThreadSafeDateFormat actual = ThreadSafeDateFormat.of(expected);
+          for (int i = 0; i < 500; i++) {
+            Date date = randomDate(random);
+            assertEquals(
+                pattern + " " + timeZone + " " + date.getTime(),
+                expected.format(date),
+                actual.format(date));
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testSameParsedDates() {
+    Random random = new Random(1234);
+    for (String pattern : PATTERNS) {
+      for (String timeZone : TIME_ZONES) {
+        for (boolean lenient : new boolean[] {true, false}) {
+          SimpleDateFormat expected = createFormat(pattern, Locale.US, timeZone, lenient);
+          ThreadSafeDateFormat actual = ThreadSafeDateFormat.of(expected);
+          for (String text : createTexts(random, expected)) {
+            ParsePosition expectedPosition = new ParsePosition(0);
+            ParsePosition actualPosition = new ParsePosition(0);
+            Date expectedDate = expected.parse(text, expectedPosition);
+            Date actualDate = actual.parse(text, actualPosition);
+            String message = pattern + " " + timeZone + " " + lenient + " [" + text + "]";
+            assertEquals(message, expectedDate, actualDate);
+            assertEquals(message, expectedPosition.getIndex(), actualPosition.getIndex());
+            assertEquals(message, expectedPosition.getErrorIndex(), actualPosition.getErrorIndex());
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testNumericPatternsAvoidTheSimpleDateFormat() {
+    assertTrue(fastPath(ValueMetaBase.DEFAULT_DATE_PARSE_MASK, Locale.US));
+    assertTrue(fastPath("yyyy-MM-dd'T'HH:mm:ss", Locale.GERMANY));
+    assertFalse(fastPath("dd MMM yyyy", Locale.US));
+    assertFalse(fastPath("yy-MM-dd", Locale.US));
+    assertFalse(fastPath("yyyy-MM-dd", new Locale("th", "TH", "TH")));
+  }
+
+  @Test
+  public void testSharedInstances() {
+    SimpleDateFormat format = createFormat("yyyy-MM-dd", Locale.US, "UTC", true);
+    ThreadSafeDateFormat threadSafeFormat = ThreadSafeDateFormat.of(format);
+    assertSame(
+        threadSafeFormat,
+        ThreadSafeDateFormat.of(createFormat("yyyy-MM-dd", Locale.US, "UTC", true)));
+
+    // Later changes don't affect the thread-safe format
+    format.applyPattern("dd/MM/yyyy");
+    assertEquals("yyyy-MM-dd", threadSafeFormat.toPattern());
+  }
+
+  @Test
+  public void testConcurrentUse() throws Exception {
+    SimpleDateFormat format = createFormat("yyyy/MM/dd HH:mm:ss", Locale.US, "UTC", true);
+    ThreadSafeDateFormat threadSafeFormat = ThreadSafeDateFormat.of(format);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        long seed = t;
+        futures.add(
+            executor.submit(
+                () -> {
+                  Random random = new Random(seed);
+                  SimpleDateFormat expected = (SimpleDateFormat) format.clone();
+                  for (int i = 0; i < 10000; i++) {
+                    // Include dates the simple date format per thread handles
+                    Date date = new Date(random.nextLong() % 100_000_000_000_000L);
+                    String text = threadSafeFormat.format(date);
+                    assertEquals(expected.format(date), text);
+                    assertEquals(
+                        expected.parse(text, new ParsePosition(0)),
+                        threadSafeFormat.parse(text, new ParsePosition(0)));
+                  }
+                  return null;
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static boolean fastPath(String pattern, Locale locale) {
+    return ThreadSafeDateFormat.of(createFormat(pattern, locale, "UTC", true))
+        .isFastPathSupported();
+  }
+
+  /** Dates from the year 1500 to 2300, some of them around midnight */
+  private static Date randomDate(Random random) {
+    long millis = -14_831_769_600_000L + (long) (random.nextDouble() * 25_245_000_000_000L);
+    if (random.nextInt(4) == 0) {
+      millis -= millis % 86_400_000L;
+    }
+    return new Date(millis);
+  }
+
+  /** Formatted dates, some of them changed, with values out of range or with extra text */
+  private static List<String> createTexts(Random random, SimpleDateFormat format) {
+    List<String> texts = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      String text = format.format(randomDate(random));
+      switch (random.nextInt(8)) {
+        case 0 -> {
+          // Change a digit
+          int position = random.nextInt(text.length());
+          if (Character.isDigit(text.charAt(position))) {
+            char digit = (char) ('0' + random.nextInt(10));
+            text = text.substring(0, position) + digit + text.substring(position + 1);
+          }
+        }
+        case 1 -> text = text.substring(0, random.nextInt(text.length() + 1));
+        case 2 -> text = text + " 12:34:56";
+        case 3 -> text = " " + text;
+        case 4 -> text = text.replaceFirst("0", "");
+        case 5 -> text = text.replaceFirst("1", "-1");
+        default -> {
+          // Keep the formatted date
+        }
+      }
+      texts.add(text);
+    }
+    texts.add("");
+    texts.add("2024-02-30");
+    texts.add("2024/02/29 24:00:00.000");
+    texts.add("2024/13/01 00:00:00.000");
+    texts.add("2024/03/31 02:30:00.000");
+    texts.add("2024/10/27 02:30:00.000");
+    texts.add("20240101");
+    texts.add("2024010112");
+    texts.add("999999999/01/01");
+    return texts;
+  }
+}
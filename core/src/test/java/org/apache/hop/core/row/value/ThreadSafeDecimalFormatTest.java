@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.row.value;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.ParseException;
+import java.text.ParsePosition;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import org.junit.Test;
+
+/** The thread-safe decimal format needs to give the same results as the decimal format */
+public class ThreadSafeDecimalFormatTest {
+
+  private static final String[] PATTERNS = {
+    ValueMetaBase.DEFAULT_INTEGER_PARSE_MASK,
+    ValueMetaBase.DEFAULT_NUMBER_PARSE_MASK,
+    ValueMetaBase.DEFAULT_BIGNUMBER_PARSE_MASK,
+    ValueMetaBase.DEFAULT_INTEGER_FORMAT_MASK,
+    ValueMetaBase.DEFAULT_NUMBER_FORMAT_MASK,
+    " 00000;-00000",
+    " 0000000.00;-0000000.00",
+    "#,##0.00",
+    "#",
+    "0.###E0",
+    "#%",
+    "#.##;(#.##)",
+    "€ #,##0.00"
+  };
+
+  private static DecimalFormat createFormat(String pattern, Locale locale, boolean bigDecimal) {
+    DecimalFormat format = new DecimalFormat(pattern, new DecimalFormatSymbols(locale));
+    format.setParseBigDecimal(bigDecimal);
+    return format;
+  }
+
+  @Test
+  public void testSameFormattedNumbers() {
+    Random random = new Random(42);
+    for (String pattern : PATTERNS) {
+      for (Locale locale : new Locale[] {Locale.US, Locale.GERMANY, new Locale("ar", "EG")}) {
+        DecimalFormat expected = createFormat(pattern, locale, false);
+        ThreadSafeDecimalFormat actual = ThreadSafeDecimalFormat.of(expected);
+        for (int i = 0; i < 1000; i++) {
+          Object number =
+              switch (random.nextInt(4)) {
+                case 0 -> (long) random.nextInt(2000) - 1000;
+                case 1 -> random.nextLong();
+                case 2 -> (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(12));
+                default -> new BigDecimal(random.nextLong()).movePointLeft(random.nextInt(6));
+              };
+          assertEquals(pattern + " " + number, expected.format(number), actual.format(number));
+        }
+        assertEquals(expected.format(Long.MIN_VALUE), actual.format(Long.MIN_VALUE));
+        assertEquals(expected.format(0L), actual.format(0L));
+      }
+    }
+  }
+
+  @Test
+  public void testSameParsedNumbers() throws Exception {
+    Random random = new Random(1234);
+    for (String pattern : PATTERNS) {
+      for (Locale locale : new Locale[] {Locale.US, Locale.GERMANY}) {
+        for (boolean bigDecimal : new boolean[] {false, true}) {
+          DecimalFormat expected = createFormat(pattern, locale, bigDecimal);
+          ThreadSafeDecimalFormat actual = ThreadSafeDecimalFormat.of(expected);
+          for (String text : createTexts(random, expected)) {
+            String message = pattern + " " + locale + " [" + text + "]";
+            ParsePosition expectedPosition = new ParsePosition(0);
+            ParsePosition actualPosition = new ParsePosition(0);
+            Number expectedNumber = expected.parse(text, expectedPosition);
+            Number actualNumber = actual.parse(text, actualPosition);
+            assertSameNumber(message, expectedNumber, actualNumber);
+            assertEquals(message, expectedPosition.getIndex(), actualPosition.getIndex());
+            assertEquals(message, expectedPosition.getErrorIndex(), actualPosition.getErrorIndex());
+
+            Object expectedResult;
+            Object actualResult;
+            try {
+              expectedResult = expected.parse(text);
+            } catch (ParseException e) {
+              expectedResult = e.getErrorOffset();
+            }
+            try {
+              actualResult = actual.parse(text);
+            } catch (ParseException e) {
+              actualResult = e.getErrorOffset();
+            }
+            assertSameNumber(message, expectedResult, actualResult);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testSharedInstances() {
+    DecimalFormat format = createFormat("#.##", Locale.US, false);
+    ThreadSafeDecimalFormat threadSafeFormat = ThreadSafeDecimalFormat.of(format);
+    assertSame(
+        threadSafeFormat, ThreadSafeDecimalFormat.of(createFormat("#.##", Locale.US, false)));
+
+    // Later changes don't affect the thread-safe format
+    format.applyPattern("0.00");
+    assertEquals("#0.##", threadSafeFormat.toPattern());
+  }
+
+  /** Numbers need to have the same class: a Long, a Double or a BigDecimal */
+  private static void assertSameNumber(String message, Object expected, Object actual) {
+    if (expected == null || actual == null) {
+      assertSame(message, expected, actual);
+      return;
+    }
+    assertEquals(message, expected.getClass(), actual.getClass());
+    assertEquals(message, expected, actual);
+  }
+
+  private static List<String> createTexts(Random random, DecimalFormat format) {
+    char decimal = format.getDecimalFormatSymbols().getDecimalSeparator();
+    List<String> texts = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      StringBuilder text = new StringBuilder();
+      if (random.nextInt(3) == 0) {
+        text.append('-');
+      }
+      int digits = 1 + random.nextInt(random.nextInt(5) == 0 ? 25 : 8);
+      for (int d = 0; d < digits; d++) {
+        text.append((char) ('0' + random.nextInt(random.nextBoolean() ? 10 : 2)));
+      }
+      if (random.nextBoolean()) {
+        text.append(decimal);
+        int fraction = random.nextInt(random.nextInt(5) == 0 ? 20 : 6);
+        for (int d = 0; d < fraction; d++) {
+          text.append((char) ('0' + random.nextInt(10)));
+        }
+      }
+      switch (random.nextInt(10)) {
+        case 0 -> text.append("abc");
+        case 1 -> text.insert(0, ' ');
+        case 2 -> text.append("E3");
+        case 3 ->
+            text.insert(
+                Math.min(2, text.length()),
+                format.getDecimalFormatSymbols().getGroupingSeparator());
+        case 4 -> text.append('%');
+        default -> {
+          // Keep the number
+        }
+      }
+      texts.add(text.toString());
+    }
+    texts.add("");
+    texts.add("-");
+    texts.add("-0");
+    texts.add("-0" + decimal + "0");
+    texts.add("0" + decimal + "000");
+    texts.add(decimal + "5");
+    texts.add("5" + decimal);
+    texts.add("9223372036854775807");
+    texts.add("9223372036854775808");
+    texts.add("123456789012345678");
+    texts.add("0.1234567890123456789");
+    return texts;
+  }
+}
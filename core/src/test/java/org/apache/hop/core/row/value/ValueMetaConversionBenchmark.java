@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.row.value;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IValueMeta;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures how many strings per millisecond are converted to integers, numbers and dates the way
+ * the text file input does it: with a string value metadata carrying the conversion mask. The
+ * shared variant converts with the same value metadata from 4 threads, like transform copies which
+ * share the metadata of a row. Run it with the main method or with the JMH runner from the test
+ * classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ValueMetaConversionBenchmark {
+  private static final int NR_VALUES = 10_000;
+
+  @Param({"Integer", "Number", "Date"})
+  public String type;
+
+  private IValueMeta valueMeta;
+  private IValueMeta convertMeta;
+  private String[] strings;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(42);
+    strings = new String[NR_VALUES];
+    switch (type) {
+      case "Number" -> {
+        valueMeta = new ValueMetaNumber("number");
+        convertMeta = new ValueMetaString("number");
+        convertMeta.setConversionMask("#.#");
+        for (int i = 0; i < NR_VALUES; i++) {
+          strings[i] = Double.toString(Math.round(random.nextDouble() * 1_000_000) / 100.0);
+        }
+      }
+      case "Date" -> {
+        valueMeta = new ValueMetaDate("date");
+        convertMeta = new ValueMetaString("date");
+        convertMeta.setConversionMask("yyyy-MM-dd HH:mm:ss");
+        SimpleDateFormat format = new SimpleDateFormat(convertMeta.getConversionMask());
+        for (int i = 0; i < NR_VALUES; i++) {
+          strings[i] = format.format(new Date(random.nextLong() % 2_000_000_000_000L));
+        }
+      }
+      default -> {
+        valueMeta = new ValueMetaInteger("integer");
+        convertMeta = new ValueMetaString("integer");
+        convertMeta.setConversionMask("#");
+        for (int i = 0; i < NR_VALUES; i++) {
+          strings[i] = Integer.toString(random.nextInt());
+        }
+      }
+    }
+  }
+
+  private long convert() throws HopValueException {
+    long count = 0;
+    for (String string : strings) {
+      if (valueMeta.convertDataFromString(
+              string, convertMeta, null, null, IValueMeta.TRIM_TYPE_NONE)
+          != null) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NR_VALUES)
+  public long singleThread() throws HopValueException {
+    return convert();
+  }
+
+  @Benchmark
+  @Threads(4)
+  @OperationsPerInvocation(NR_VALUES)
+  public long shared() throws HopValueException {
+    return convert();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+            new OptionsBuilder()
+                .include(ValueMetaConversionBenchmark.class.getSimpleName())
+                .build())
+        .run();
+  }
+}
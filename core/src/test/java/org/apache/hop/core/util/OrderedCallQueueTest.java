@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.apache.hop.core.exception.HopException;
+import org.junit.Test;
+
+public class OrderedCallQueueTest {
+
+  /** The later calls finish first, the results still come back in the order of submission */
+  @Test
+  public void testOrder() throws Exception {
+    List<Integer> results = new ArrayList<>();
+    try (OrderedCallQueue<Integer, Integer> queue = new OrderedCallQueue<>("test", 4)) {
+      for (int i = 0; i < 20; i++) {
+        int input = i;
+        queue.submit(
+            input,
+            () -> {
+              Thread.sleep((20L - input) % 5 * 5);
+              return input * 10;
+            });
+        while (queue.isFull()) {
+          OrderedCallQueue.Call<Integer, Integer> call = queue.take();
+          assertEquals(call.getInput() * 10, (int) call.getResult());
+          results.add(call.getInput());
+        }
+      }
+      while (!queue.isEmpty()) {
+        results.add(queue.take().getInput());
+      }
+      assertNull(queue.take());
+    }
+    for (int i = 0; i < 20; i++) {
+      assertEquals(i, (int) results.get(i));
+    }
+  }
+
+  /** The calls really run at the same time */
+  @Test
+  public void testConcurrency() throws Exception {
+    CountDownLatch latch = new CountDownLatch(3);
+    try (OrderedCallQueue<String, Boolean> queue = new OrderedCallQueue<>("test", 3)) {
+      for (int i = 0; i < 3; i++) {
+        queue.submit(
+            "call" + i,
+            () -> {
+              latch.countDown();
+              return latch.await(10, TimeUnit.SECONDS);
+            });
+      }
+      assertTrue(queue.isFull());
+      assertEquals(3, queue.size());
+      for (int i = 0; i < 3; i++) {
+        assertTrue(queue.take().getResult());
+      }
+    }
+  }
+
+  @Test
+  public void testErrors() throws Exception {
+    HopException hopException = new HopException("hop");
+    try (OrderedCallQueue<String, String> queue = new OrderedCallQueue<>("test", 2)) {
+      queue.submit(
+          "hop",
+          () -> {
+            throw hopException;
+          });
+      queue.submit(
+          "runtime",
+          () -> {
+            throw new IllegalStateException("runtime");
+          });
+
+      OrderedCallQueue.Call<String, String> call = queue.take();
+      assertEquals("hop", call.getInput());
+      try {
+        call.getResult();
+        fail();
+      } catch (HopException e) {
+        assertSame(hopException, e);
+      }
+
+      call = queue.take();
+      assertEquals("runtime", call.getInput());
+      try {
+        call.getResult();
+        fail();
+      } catch (HopException e) {
+        assertTrue(e.getCause() instanceof IllegalStateException);
+      }
+    }
+  }
+
+  /** The handlers get the results and errors in order, a false error handler stops taking */
+  @Test
+  public void testTakeWithHandlers() throws Exception {
+    List<String> handled = new ArrayList<>();
+    try (OrderedCallQueue<String, String> queue = new OrderedCallQueue<>("test", 4)) {
+      queue.submit("a", () -> "A");
+      queue.submit(
+          "b",
+          () -> {
+            throw new HopException("b");
+          });
+      queue.submit("c", () -> "C");
+      queue.submit(
+          "d",
+          () -> {
+            throw new HopException("d");
+          });
+
+      assertTrue(queue.take(false, handled::add, (input, e) -> handled.add("error " + input)));
+      assertEquals(List.of("A"), handled);
+      assertEquals(3, queue.size());
+
+      assertFalse(queue.take(true, handled::add, (input, e) -> !"d".equals(input)));
+      assertEquals(List.of("A", "C"), handled);
+      assertTrue(queue.isEmpty());
+    }
+  }
+
+  @Test
+  public void testClose() {
+    OrderedCallQueue<String, String> queue = new OrderedCallQueue<>("test", 1);
+    queue.submit(
+        "slow",
+        () -> {
+          Thread.sleep(60000);
+          return "slow";
+        });
+    queue.close();
+    assertTrue(queue.isEmpty());
+    assertFalse(queue.isFull());
+  }
+}
@@ -0,0 +1,407 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.base;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.vfs2.FileContent;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopMissingPluginsException;
+import org.apache.hop.core.exception.HopXmlException;
+import org.apache.hop.core.extension.ExtensionPointHandler;
+import org.apache.hop.core.extension.HopExtensionPoint;
+import org.apache.hop.core.logging.LogChannel;
+import org.apache.hop.core.util.EnvUtil;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.core.vfs.HopVfs;
+import org.apache.hop.core.xml.XmlHandler;
+import org.apache.hop.metadata.api.IHopMetadataProvider;
+import org.apache.hop.pipeline.AbstractMetaInfo;
+import org.apache.hop.pipeline.PipelineHopMeta;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.PipelineMetaInfo;
+import org.apache.hop.pipeline.transform.ITransformMeta;
+import org.apache.hop.pipeline.transform.TransformErrorMeta;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.workflow.WorkflowHopMeta;
+import org.apache.hop.workflow.WorkflowMeta;
+import org.apache.hop.workflow.WorkflowMetaInfo;
+import org.apache.hop.workflow.action.ActionMeta;
+import org.apache.hop.workflow.action.IAction;
+import org.w3c.dom.Node;
+
+/**
+ * Singleton which keeps the pipelines and workflows loaded from files, so that loading the same
+ * file again doesn't parse it again. Loops which execute the same pipeline or workflow many times,
+ * like the Repeat action or the Pipeline executor transform, load it from here.<br>
+ * <br>
+ * A parsed file is kept as a template which is never handed out: every caller gets a copy of its
+ * own. The settings of the transforms and actions are copied through XML, since their clones can
+ * share lists of fields with the template and callers are free to change their copy. The template
+ * is parsed without calling the loaded extension point, it is called on every copy with the
+ * variables of its caller. The file is parsed again when its modification time or size changes.
+ * Since metadata like database connections is looked up while parsing, a file is kept for every
+ * metadata provider it is loaded with. When more than HOP_METADATA_FILE_CACHE_SIZE files are kept,
+ * the file which was loaded the longest time ago is removed. Set the variable to 0 to parse the
+ * files every time.
+ */
+public class MetaFileCache {
+
+  private static MetaFileCache instance;
+
+  private final int maxSize;
+  private final Map<Key, Entry> cache;
+  private final AtomicLong hits;
+  private final AtomicLong misses;
+  private final AtomicLong evictions;
+
+  MetaFileCache(int maxSize) {
+    this.maxSize = maxSize;
+    this.hits = new AtomicLong();
+    this.misses = new AtomicLong();
+    this.evictions = new AtomicLong();
+    this.cache =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            if (size() > MetaFileCache.this.maxSize) {
+              evictions.incrementAndGet();
+              return true;
+            }
+            return false;
+          }
+        };
+  }
+
+  public static synchronized MetaFileCache getInstance() {
+    if (instance == null) {
+      instance =
+          new MetaFileCache(
+              Const.toInt(EnvUtil.getSystemProperty(Const.HOP_METADATA_FILE_CACHE_SIZE), 100));
+    }
+    return instance;
+  }
+
+  /**
+   * Loads a pipeline from a file, like {@link PipelineMeta#PipelineMeta(String,
+   * IHopMetadataProvider, IVariables)} does.
+   *
+   * @param filename the name of the file to load
+   * @param metadataProvider the metadata provider to look up metadata with
+   * @param variables the variables to pass to the extension points
+   * @return a copy of the pipeline for the caller to change and execute
+   */
+  public PipelineMeta loadPipelineMeta(
+      String filename, IHopMetadataProvider metadataProvider, IVariables variables)
+      throws HopXmlException, HopMissingPluginsException {
+    FileVersion version = getFileVersion(filename, metadataProvider);
+    if (version == null) {
+      return new PipelineMeta(filename, metadataProvider, variables);
+    }
+    Key key = new Key(version.uri(), metadataProvider);
+    Object template = getTemplate(key, version);
+    PipelineMeta pipelineMeta;
+    if (template instanceof PipelineMeta cached) {
+      pipelineMeta = cached;
+    } else {
+      pipelineMeta = new PipelineMeta();
+      pipelineMeta.loadXml(filename, metadataProvider, variables, false);
+      putTemplate(key, version, pipelineMeta);
+    }
+    PipelineMeta copy = copyOf(pipelineMeta, filename, metadataProvider);
+    callLoadedExtensionPoint(variables, HopExtensionPoint.PipelineMetaLoaded, copy);
+    return copy;
+  }
+
+  /**
+   * Loads a workflow from a file, like {@link WorkflowMeta#WorkflowMeta(IVariables, String,
+   * IHopMetadataProvider)} does.
+   *
+   * @param variables the variables to pass to the extension points
+   * @param filename the name of the file to load
+   * @param metadataProvider the metadata provider to look up metadata with
+   * @return a copy of the workflow for the caller to change and execute
+   */
+  public WorkflowMeta loadWorkflowMeta(
+      IVariables variables, String filename, IHopMetadataProvider metadataProvider)
+      throws HopXmlException {
+    FileVersion version = getFileVersion(filename, metadataProvider);
+    if (version == null) {
+      return new WorkflowMeta(variables, filename, metadataProvider);
+    }
+    Key key = new Key(version.uri(), metadataProvider);
+    Object template = getTemplate(key, version);
+    WorkflowMeta workflowMeta;
+    if (template instanceof WorkflowMeta cached) {
+      workflowMeta = cached;
+    } else {
+      workflowMeta = new WorkflowMeta();
+      workflowMeta.setMetadataProvider(metadataProvider);
+      workflowMeta.loadXml(variables, filename, metadataProvider, false);
+      putTemplate(key, version, workflowMeta);
+    }
+    WorkflowMeta copy = copyOf(workflowMeta, filename, metadataProvider, variables);
+    callLoadedExtensionPoint(variables, HopExtensionPoint.WorkflowMetaLoaded, copy);
+    return copy;
+  }
+
+  /**
+   * @return the version of the file or null if the file can't be kept in the cache
+   */
+  private FileVersion getFileVersion(String filename, IHopMetadataProvider metadataProvider) {
+    if (maxSize <= 0 || metadataProvider == null) {
+      return null;
+    }
+    try {
+      FileObject file = HopVfs.getFileObject(filename);
+      if (!file.isFile()) {
+        return null;
+      }
+      FileContent content = file.getContent();
+      long lastModified = content.getLastModifiedTime();
+      if (lastModified <= 0) {
+        // Without a modification time we can't tell if the file changed
+        return null;
+      }
+      return new FileVersion(file.getName().getURI(), lastModified, content.getSize());
+    } catch (Exception e) {
+      // Let the parser report the problems with the file
+      return null;
+    }
+  }
+
+  private synchronized Object getTemplate(Key key, FileVersion version) {
+    Entry entry = cache.get(key);
+    if (entry != null && entry.version().equals(version)) {
+      hits.incrementAndGet();
+      return entry.template();
+    }
+    misses.incrementAndGet();
+    return null;
+  }
+
+  private synchronized void putTemplate(Key key, FileVersion version, Object template) {
+    cache.put(key, new Entry(version, template));
+  }
+
+  private static void callLoadedExtensionPoint(
+      IVariables variables, HopExtensionPoint extensionPoint, Object meta) throws HopXmlException {
+    try {
+      ExtensionPointHandler.callExtensionPoint(
+          LogChannel.GENERAL, variables, extensionPoint.id, meta);
+    } catch (HopException e) {
+      throw new HopXmlException(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Copies a pipeline. {@link PipelineMeta#clone()} copies the transforms, hops, notes and
+   * parameters, the rest of what was loaded from the file is copied here. The settings of every
+   * transform are read again from their XML. The hops and the error handling of the copy point to
+   * the transforms of the copy.
+   */
+  private static PipelineMeta copyOf(
+      PipelineMeta template, String filename, IHopMetadataProvider metadataProvider)
+      throws HopXmlException {
+    PipelineMeta copy = (PipelineMeta) template.clone();
+    PipelineMetaInfo info = new PipelineMetaInfo();
+    copyInfo(template.getInfo(), info);
+    info.setPipelineVersion(template.getInfo().getPipelineVersion());
+    info.setPipelineType(template.getInfo().getPipelineType());
+    info.setCapturingTransformPerformanceSnapShots(
+        template.getInfo().isCapturingTransformPerformanceSnapShots());
+    info.setTransformPerformanceCapturingDelay(
+        template.getInfo().getTransformPerformanceCapturingDelay());
+    info.setTransformPerformanceCapturingSizeLimit(
+        template.getInfo().getTransformPerformanceCapturingSizeLimit());
+    copy.setInfo(info);
+    copy.setPipelineStatus(template.getPipelineStatus());
+    copy.setAttributesMap(copyOf(template.getAttributesMap()));
+
+    for (PipelineHopMeta hop : copy.getPipelineHops()) {
+      if (hop.getFromTransform() != null) {
+        hop.setFromTransform(copy.findTransform(hop.getFromTransform().getName()));
+      }
+      if (hop.getToTransform() != null) {
+        hop.setToTransform(copy.findTransform(hop.getToTransform().getName()));
+      }
+    }
+    for (TransformMeta transformMeta : copy.getTransforms()) {
+      transformMeta.setTransform(copyOf(transformMeta, metadataProvider));
+      TransformErrorMeta errorMeta = transformMeta.getTransformErrorMeta();
+      if (errorMeta != null) {
+        errorMeta.setSourceTransform(transformMeta);
+        if (errorMeta.getTargetTransform() != null) {
+          errorMeta.setTargetTransform(
+              copy.findTransform(errorMeta.getTargetTransform().getName()));
+        }
+      }
+    }
+
+    copy.setFilename(filename);
+    copy.setMetadataProvider(metadataProvider);
+    copy.clearChanged();
+    return copy;
+  }
+
+  /**
+   * Copies a workflow. {@link WorkflowMeta#clone()} copies the actions, hops, notes and parameters,
+   * the rest of what was loaded from the file is copied here. The settings of every action are read
+   * again from their XML. The hops and the actions of the copy point to each other.
+   */
+  private static WorkflowMeta copyOf(
+      WorkflowMeta template,
+      String filename,
+      IHopMetadataProvider metadataProvider,
+      IVariables variables)
+      throws HopXmlException {
+    WorkflowMeta copy = (WorkflowMeta) template.clone();
+    WorkflowMetaInfo info = new WorkflowMetaInfo();
+    copyInfo(template.getInfo(), info);
+    copy.setInfo(info);
+    copy.setWorkflowVersion(template.getWorkflowVersion());
+    copy.setWorkflowStatus(template.getWorkflowStatus());
+    copy.setAttributesMap(copyOf(template.getAttributesMap()));
+
+    for (ActionMeta actionMeta : copy.getActions()) {
+      actionMeta.setAction(copyOf(actionMeta, metadataProvider, variables));
+      actionMeta.setParentWorkflowMeta(copy);
+    }
+    for (WorkflowHopMeta hop : copy.getWorkflowHops()) {
+      if (hop.getFromAction() != null) {
+        hop.setFromAction(copy.findAction(hop.getFromAction().getName()));
+      }
+      if (hop.getToAction() != null) {
+        hop.setToAction(copy.findAction(hop.getToAction().getName()));
+      }
+    }
+
+    copy.setFilename(filename);
+    copy.setMetadataProvider(metadataProvider);
+    copy.clearChanged();
+    return copy;
+  }
+
+  /**
+   * @return a copy of the settings of the transform which doesn't share anything with the original
+   */
+  private static ITransformMeta copyOf(
+      TransformMeta transformMeta, IHopMetadataProvider metadataProvider) throws HopXmlException {
+    try {
+      Node transformNode = XmlHandler.loadXmlString(transformMeta.getXml(), TransformMeta.XML_TAG);
+      return new TransformMeta(transformNode, metadataProvider).getTransform();
+    } catch (HopXmlException e) {
+      throw e;
+    } catch (HopException e) {
+      throw new HopXmlException(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * @return a copy of the settings of the action which doesn't share anything with the original
+   */
+  private static IAction copyOf(
+      ActionMeta actionMeta, IHopMetadataProvider metadataProvider, IVariables variables)
+      throws HopXmlException {
+    Node actionNode = XmlHandler.loadXmlString(actionMeta.getXml(), ActionMeta.XML_TAG);
+    return new ActionMeta(actionNode, metadataProvider, variables).getAction();
+  }
+
+  private static void copyInfo(AbstractMetaInfo from, AbstractMetaInfo to) {
+    to.setName(from.getName());
+    to.setNameSynchronizedWithFilename(from.isNameSynchronizedWithFilename());
+    to.setDescription(from.getDescription());
+    to.setExtendedDescription(from.getExtendedDescription());
+    to.setCreatedUser(from.getCreatedUser());
+    to.setModifiedUser(from.getModifiedUser());
+    if (from.getCreatedDate() != null) {
+      to.setCreatedDate(new Date(from.getCreatedDate().getTime()));
+    }
+    if (from.getModifiedDate() != null) {
+      to.setModifiedDate(new Date(from.getModifiedDate().getTime()));
+    }
+  }
+
+  private static Map<String, Map<String, String>> copyOf(
+      Map<String, Map<String, String>> attributesMap) {
+    Map<String, Map<String, String>> copy = new HashMap<>();
+    if (attributesMap != null) {
+      for (Map.Entry<String, Map<String, String>> entry : attributesMap.entrySet()) {
+        copy.put(entry.getKey(), entry.getValue() == null ? null : new HashMap<>(entry.getValue()));
+      }
+    }
+    return copy;
+  }
+
+  /**
+   * @return the number of times a file was loaded from the cache
+   */
+  public long getHits() {
+    return hits.get();
+  }
+
+  /**
+   * @return the number of times a file was parsed
+   */
+  public long getMisses() {
+    return misses.get();
+  }
+
+  /**
+   * @return the number of files removed from the cache to make room for others
+   */
+  public long getEvictions() {
+    return evictions.get();
+  }
+
+  /**
+   * @return the number of files in the cache
+   */
+  public synchronized int size() {
+    return cache.size();
+  }
+
+  /** Removes all the files from the cache */
+  public synchronized void clear() {
+    cache.clear();
+  }
+
+  /** The file, by its full URI, and the metadata provider by identity */
+  private record Key(String uri, IHopMetadataProvider metadataProvider) {
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Key key
+          && uri.equals(key.uri)
+          && metadataProvider == key.metadataProvider;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * uri.hashCode() + System.identityHashCode(metadataProvider);
+    }
+  }
+
+  private record FileVersion(String uri, long lastModified, long size) {}
+
+  private record Entry(FileVersion version, Object template) {}
+}
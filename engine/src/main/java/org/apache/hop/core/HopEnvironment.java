@@ -28,6 +28,7 @@ import org.apache.hop.core.auth.AuthenticationProviderPluginType;
 import org.apache.hop.core.compress.CompressionPluginType;
 import org.apache.hop.core.config.HopConfig;
 import org.apache.hop.core.config.plugin.ConfigPluginType;
+import org.apache.hop.core.database.pool.DatabaseConnectionPoolMap;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.extension.ExtensionPointHandler;
 import org.apache.hop.core.extension.HopExtensionPoint;
@@ -198,7 +199,8 @@ public class HopEnvironment {
 
   // Shutdown the Hop environment programmatically
   public static void shutdown() {
-    // Do Nothing
+    // Close the idle connections of the database connection pools
+    DatabaseConnectionPoolMap.getInstance().closeAll();
   }
 
   /**
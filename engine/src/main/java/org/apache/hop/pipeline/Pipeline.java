@@ -55,6 +55,7 @@ import org.apache.hop.core.IRowSet;
 import org.apache.hop.core.QueueRowSet;
 import org.apache.hop.core.Result;
 import org.apache.hop.core.ResultFile;
+import org.apache.hop.core.RingBufferRowSet;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.exception.HopException;
@@ -84,6 +85,7 @@ import org.apache.hop.core.row.RowBuffer;
 import org.apache.hop.core.row.value.ValueMetaBase;
 import org.apache.hop.core.util.EnvUtil;
 import org.apache.hop.core.util.ExecutorUtil;
+import org.apache.hop.core.util.ThreadUtil;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.core.variables.Variables;
@@ -309,7 +311,7 @@ public abstract class Pipeline
   private List<IExecutionStoppedListener<IPipelineEngine<PipelineMeta>>> executionStoppedListeners;
 
   /** The number of finished transforms. */
-  private int nrOfFinishedTransforms;
+  private final AtomicInteger nrOfFinishedTransforms = new AtomicInteger(0);
 
   /** The named parameters. */
   private final INamedParameters namedParams = new NamedParameters();
@@ -361,6 +363,12 @@ public abstract class Pipeline
 
   protected int rowSetSize;
 
+  /** Whether lock-free ring buffer row sets are used for hops between single copy transforms. */
+  protected boolean ringBufferRowSetEnabled;
+
+  /** Whether the transforms run (and are initialized) in virtual threads. */
+  protected boolean virtualThreadsEnabled;
+
   /** Whether the feedback is shown. */
   protected boolean feedbackShown;
 
@@ -708,6 +716,10 @@ public abstract class Pipeline
                         System.getProperty(Const.HOP_BATCHING_ROWSET));
                 if (batchingRowSet != null && batchingRowSet) {
                   rowSet = new BlockingBatchingRowSet(rowSetSize);
+                } else if (dispatchType == TYPE_DISP_1_1 && ringBufferRowSetEnabled) {
+                  // Exactly one producer and one consumer thread: no locking needed
+                  //
+                  rowSet = new RingBufferRowSet(rowSetSize);
                 } else {
                   rowSet = new BlockingRowSet(rowSetSize);
                 }
@@ -998,9 +1010,11 @@ public abstract class Pipeline
 
       // Put it in a separate thread!
       //
-      threads[i] = new Thread(initThreads[i]);
-      threads[i].setName(
-          "init of " + sid.transformName + "." + sid.copy + " (" + threads[i].getName() + ")");
+      threads[i] =
+          ThreadUtil.newThread(
+              initThreads[i],
+              "init of " + sid.transformName + "." + sid.copy,
+              virtualThreadsEnabled);
 
       ExtensionPointHandler.callExtensionPoint(
           log, this, HopExtensionPoint.TransformBeforeInitialize.id, initThreads[i]);
@@ -1108,7 +1122,7 @@ public abstract class Pipeline
   public void startThreads() throws HopException {
     // Now prepare to start all the threads...
     //
-    nrOfFinishedTransforms = 0;
+    nrOfFinishedTransforms.set(0);
 
     ExtensionPointHandler.callExtensionPoint(
         log, this, HopExtensionPoint.PipelineStartThreads.id, this);
@@ -1124,52 +1138,49 @@ public abstract class Pipeline
       //
       ITransformFinishedListener finishedListener =
           (pipeline, transformMeta, transform) -> {
-            synchronized (Pipeline.this) {
-              nrOfFinishedTransforms++;
-
-              if (nrOfFinishedTransforms >= transforms.size()) {
-                // Set the finished flag
-                //
-                setFinished(true);
-
-                // Grab the performance statistics one last time (if enabled)
-                //
-                addTransformPerformanceSnapShot();
-
-                // We're really done now.
-                //
-                executionEndDate = new Date();
+            // Only the last transform to finish wraps up the pipeline. No monitor is held while
+            // doing so: the listeners can take a while and would pin a virtual carrier thread.
+            //
+            if (nrOfFinishedTransforms.incrementAndGet() >= transforms.size()) {
+              // Set the finished flag
+              //
+              setFinished(true);
 
-                try {
-                  fireExecutionFinishedListeners();
-                } catch (Exception e) {
-                  transform.setErrors(transform.getErrors() + 1L);
-                  log.logError(
-                      getName()
-                          + " : "
-                          + BaseMessages.getString(
-                              PKG, "Pipeline.Log.UnexpectedErrorAtPipelineEnd"),
-                      e);
-                }
+              // Grab the performance statistics one last time (if enabled)
+              //
+              addTransformPerformanceSnapShot();
 
-                log.logBasic(
-                    "Execution finished on a local pipeline engine with run configuration '"
-                        + pipelineRunConfiguration.getName()
-                        + "'");
+              // We're really done now.
+              //
+              executionEndDate = new Date();
+
+              try {
+                fireExecutionFinishedListeners();
+              } catch (Exception e) {
+                transform.setErrors(transform.getErrors() + 1L);
+                log.logError(
+                    getName()
+                        + " : "
+                        + BaseMessages.getString(PKG, "Pipeline.Log.UnexpectedErrorAtPipelineEnd"),
+                    e);
               }
 
-              // If a transform fails with an error, we want to kill/stop the others
-              // too...
-              //
-              if (transform.getErrors() > 0) {
+              log.logBasic(
+                  "Execution finished on a local pipeline engine with run configuration '"
+                      + pipelineRunConfiguration.getName()
+                      + "'");
+            }
 
-                log.logMinimal(BaseMessages.getString(PKG, "Pipeline.Log.PipelineDetectedErrors"));
-                log.logMinimal(
-                    BaseMessages.getString(
-                        PKG, "Pipeline.Log.PipelineIsKillingTheOtherTransforms"));
+            // If a transform fails with an error, we want to kill/stop the others
+            // too...
+            //
+            if (transform.getErrors() > 0) {
 
-                killAllNoWait();
-              }
+              log.logMinimal(BaseMessages.getString(PKG, "Pipeline.Log.PipelineDetectedErrors"));
+              log.logMinimal(
+                  BaseMessages.getString(PKG, "Pipeline.Log.PipelineIsKillingTheOtherTransforms"));
+
+              killAllNoWait();
             }
           };
 
@@ -1260,8 +1271,9 @@ public abstract class Pipeline
         //
         for (final TransformMetaDataCombi combi : transforms) {
           RunThread runThread = new RunThread(combi);
-          Thread thread = new Thread(runThread);
-          thread.setName(getName() + " - " + combi.transformName);
+          Thread thread =
+              ThreadUtil.newThread(
+                  runThread, getName() + " - " + combi.transformName, virtualThreadsEnabled);
           ExtensionPointHandler.callExtensionPoint(
               log, this, HopExtensionPoint.TransformBeforeStart.id, combi);
           // Call an extension point at the end of the transform
@@ -3352,6 +3364,11 @@ public abstract class Pipeline
             metrics.setComponentMetric(
                 combi.transform, METRIC_REJECTED, combi.transform.getLinesRejected());
             metrics.setComponentMetric(combi.transform, METRIC_ERROR, combi.transform.getErrors());
+            for (Map.Entry<IEngineMetric, Long> customMetric :
+                transform.getCustomMetrics().entrySet()) {
+              metrics.setComponentMetric(
+                  combi.transform, customMetric.getKey(), customMetric.getValue());
+            }
 
             long inputBufferSize = 0;
             for (IRowSet rowSet : transform.getInputRowSets()) {
@@ -3538,6 +3555,38 @@ public abstract class Pipeline
     this.rowSetSize = rowSetSize;
   }
 
+  /**
+   * Gets ringBufferRowSetEnabled
+   *
+   * @return value of ringBufferRowSetEnabled
+   */
+  public boolean isRingBufferRowSetEnabled() {
+    return ringBufferRowSetEnabled;
+  }
+
+  /**
+   * @param ringBufferRowSetEnabled The ringBufferRowSetEnabled to set
+   */
+  public void setRingBufferRowSetEnabled(boolean ringBufferRowSetEnabled) {
+    this.ringBufferRowSetEnabled = ringBufferRowSetEnabled;
+  }
+
+  /**
+   * Gets virtualThreadsEnabled
+   *
+   * @return value of virtualThreadsEnabled
+   */
+  public boolean isVirtualThreadsEnabled() {
+    return virtualThreadsEnabled;
+  }
+
+  /**
+   * @param virtualThreadsEnabled The virtualThreadsEnabled to set
+   */
+  public void setVirtualThreadsEnabled(boolean virtualThreadsEnabled) {
+    this.virtualThreadsEnabled = virtualThreadsEnabled;
+  }
+
   /**
    * Gets feedbackShown
    *
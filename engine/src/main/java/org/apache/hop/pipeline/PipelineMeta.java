@@ -1658,6 +1658,28 @@ public class PipelineMeta extends AbstractMeta
   public void loadXml(
       String fname, IHopMetadataProvider metadataProvider, IVariables parentVariableSpace)
       throws HopXmlException, HopMissingPluginsException {
+    loadXml(fname, metadataProvider, parentVariableSpace, true);
+  }
+
+  /**
+   * Parses a file containing the XML that describes the pipeline.
+   *
+   * @param fname The filename
+   * @param metadataProvider the metadata store to reference
+   * @param parentVariableSpace the parent variable variables to use during PipelineMeta
+   *     construction
+   * @param callLoadedExtensionPoint false to leave calling the PipelineMetaLoaded extension point
+   *     to the caller
+   * @throws HopXmlException if any errors occur during parsing of the specified file
+   * @throws HopMissingPluginsException in case missing plugins were found (details are in the
+   *     exception in that case)
+   */
+  public void loadXml(
+      String fname,
+      IHopMetadataProvider metadataProvider,
+      IVariables parentVariableSpace,
+      boolean callLoadedExtensionPoint)
+      throws HopXmlException, HopMissingPluginsException {
     // OK, try to load using the VFS stuff...
     Document doc = null;
     try {
@@ -1685,7 +1707,7 @@ public class PipelineMeta extends AbstractMeta
       }
 
       // Load from this node...
-      loadXml(pipelineNode, fname, metadataProvider, parentVariableSpace);
+      loadXml(pipelineNode, fname, metadataProvider, parentVariableSpace, callLoadedExtensionPoint);
 
     } else {
       throw new HopXmlException(
@@ -1739,6 +1761,28 @@ public class PipelineMeta extends AbstractMeta
       IHopMetadataProvider metadataProvider,
       IVariables variables)
       throws HopXmlException, HopMissingPluginsException {
+    loadXml(pipelineNode, filename, metadataProvider, variables, true);
+  }
+
+  /**
+   * Parses an XML DOM (starting at the specified Node) that describes the pipeline.
+   *
+   * @param pipelineNode The XML node to load from
+   * @param filename The filename
+   * @param variables the parent variable variables to use during PipelineMeta construction
+   * @param callLoadedExtensionPoint false to leave calling the PipelineMetaLoaded extension point
+   *     to the caller
+   * @throws HopXmlException if any errors occur during parsing of the specified file
+   * @throws HopMissingPluginsException in case missing plugins were found (details are in the
+   *     exception in that case)
+   */
+  public void loadXml(
+      Node pipelineNode,
+      String filename,
+      IHopMetadataProvider metadataProvider,
+      IVariables variables,
+      boolean callLoadedExtensionPoint)
+      throws HopXmlException, HopMissingPluginsException {
 
     HopMissingPluginsException missingPluginsException =
         new HopMissingPluginsException(
@@ -1924,8 +1968,10 @@ public class PipelineMeta extends AbstractMeta
       } catch (Exception e) {
         throw new HopXmlException(e);
       } finally {
-        ExtensionPointHandler.callExtensionPoint(
-            LogChannel.GENERAL, variables, HopExtensionPoint.PipelineMetaLoaded.id, this);
+        if (callLoadedExtensionPoint) {
+          ExtensionPointHandler.callExtensionPoint(
+              LogChannel.GENERAL, variables, HopExtensionPoint.PipelineMetaLoaded.id, this);
+        }
       }
     } catch (Exception e) {
       // See if we have missing plugins to report, those take precedence!
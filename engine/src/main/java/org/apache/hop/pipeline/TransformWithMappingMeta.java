@@ -28,6 +28,7 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import org.apache.commons.lang.ArrayUtils;
+import org.apache.hop.base.MetaFileCache;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.logging.LogChannel;
@@ -93,7 +94,7 @@ public abstract class TransformWithMappingMeta<Main extends ITransform, Data ext
     return tmpSpace;
   }
 
-  public static synchronized PipelineMeta loadMappingMeta(
+  public static PipelineMeta loadMappingMeta(
       TransformWithMappingMeta executorMeta,
       IHopMetadataProvider metadataProvider,
       IVariables variables)
@@ -120,7 +121,8 @@ public abstract class TransformWithMappingMeta<Main extends ITransform, Data ext
       // OK, load the meta-data from file...
       // Don't set internal variables: they belong to the parent thread!
       if (mappingPipelineMeta == null) {
-        mappingPipelineMeta = new PipelineMeta(realFilename, metadataProvider, tmpSpace);
+        mappingPipelineMeta =
+            MetaFileCache.getInstance().loadPipelineMeta(realFilename, metadataProvider, tmpSpace);
         LogChannel.GENERAL.logDetailed(
             "Loading pipeline", "Pipeline was loaded from XML file [" + realFilename + "]");
       }
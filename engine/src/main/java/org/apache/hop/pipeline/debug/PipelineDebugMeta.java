@@ -22,6 +22,7 @@ import java.util.List;
 import java.util.Map;
 import lombok.Getter;
 import lombok.Setter;
+import org.apache.hop.core.CompiledCondition;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopTransformException;
 import org.apache.hop.core.row.IRowMeta;
@@ -69,6 +70,19 @@ public class PipelineDebugMeta {
         if (component instanceof ITransform baseTransform) {
           baseTransform.addRowListener(
               new RowAdapter() {
+                private IRowMeta compiledRowMeta;
+                private CompiledCondition compiledCondition;
+
+                /** The break-point condition, compiled again when the row layout changes */
+                private CompiledCondition getCompiledCondition(IRowMeta rowMeta)
+                    throws HopException {
+                  if (compiledCondition == null || compiledRowMeta != rowMeta) {
+                    compiledCondition = transformDebugMeta.getCondition().compile(rowMeta);
+                    compiledRowMeta = rowMeta;
+                  }
+                  return compiledCondition;
+                }
+
                 @Override
                 public void rowWrittenEvent(IRowMeta rowMeta, Object[] row)
                     throws HopTransformException {
@@ -136,7 +150,7 @@ public class PipelineDebugMeta {
 
                         // Now evaluate the condition and see if we need to pause the pipeline
                         //
-                        if (transformDebugMeta.getCondition().evaluate(rowMeta, row)) {
+                        if (getCompiledCondition(rowMeta).evaluate(row)) {
                           // We hit the break-point: pause the pipeline
                           //
                           pipeline.pauseExecution();
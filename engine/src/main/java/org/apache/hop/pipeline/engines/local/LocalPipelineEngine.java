@@ -36,6 +36,7 @@ import org.apache.hop.core.logging.ILoggingObject;
 import org.apache.hop.core.parameters.INamedParameters;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.util.ExecutorUtil;
+import org.apache.hop.core.util.ThreadUtil;
 import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.execution.ExecutionBuilder;
 import org.apache.hop.execution.ExecutionDataBuilder;
@@ -125,6 +126,13 @@ public class LocalPipelineEngine extends Pipeline implements IPipelineEngine<Pip
 
     int sizeRowsSet = Const.toInt(resolve(config.getRowSetSize()), Const.ROWS_IN_ROWSET);
     setRowSetSize(sizeRowsSet);
+    setRingBufferRowSetEnabled(config.isRingBufferRowSets());
+    setVirtualThreadsEnabled(config.isVirtualThreads());
+    if (config.isVirtualThreads() && !ThreadUtil.isVirtualThreadSupported()) {
+      log.logBasic(
+          "Virtual threads are not supported by this Java runtime (Java 21 or later is needed), "
+              + "the transforms run in platform threads.");
+    }
     setSafeModeEnabled(config.isSafeModeEnabled());
     setSortingTransformsTopologically(config.isSortingTransformsTopologically());
     setGatheringMetrics(config.isGatheringMetrics());
@@ -45,6 +45,30 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
   @HopMetadataProperty(key = "rowset_size")
   protected String rowSetSize;
 
+  @GuiWidgetElement(
+      id = "ringBufferRowSets",
+      order = "015",
+      parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.CHECKBOX,
+      label =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.RingBufferRowSets.Label",
+      toolTip =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.RingBufferRowSets.ToolTip")
+  @HopMetadataProperty(key = "ring_buffer_rowsets")
+  protected boolean ringBufferRowSets;
+
+  @GuiWidgetElement(
+      id = "virtualThreads",
+      order = "017",
+      parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.CHECKBOX,
+      label =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.VirtualThreads.Label",
+      toolTip =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.VirtualThreads.ToolTip")
+  @HopMetadataProperty(key = "virtual_threads")
+  protected boolean virtualThreads;
+
   @GuiWidgetElement(
       id = "safeModeEnabled",
       order = "020",
@@ -154,6 +178,7 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
   public LocalPipelineRunConfiguration() {
     super();
     this.rowSetSize = Integer.toString(Const.ROWS_IN_ROWSET);
+    this.ringBufferRowSets = true;
     this.feedbackShown = false;
     this.feedbackSize = Integer.toString(Const.ROWS_UPDATE);
     this.waitTime = EnvUtil.getSystemProperty(Const.HOP_DEFAULT_BUFFER_POLLING_WAITTIME, "20");
@@ -165,6 +190,8 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
   public LocalPipelineRunConfiguration(LocalPipelineRunConfiguration config) {
     super(config);
     this.rowSetSize = config.rowSetSize;
+    this.ringBufferRowSets = config.ringBufferRowSets;
+    this.virtualThreads = config.virtualThreads;
     this.feedbackShown = config.feedbackShown;
     this.feedbackSize = config.feedbackSize;
     this.waitTime = config.waitTime;
@@ -205,6 +232,38 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
     this.rowSetSize = rowSetSize;
   }
 
+  /**
+   * Gets ringBufferRowSets
+   *
+   * @return value of ringBufferRowSets
+   */
+  public boolean isRingBufferRowSets() {
+    return ringBufferRowSets;
+  }
+
+  /**
+   * @param ringBufferRowSets The ringBufferRowSets to set
+   */
+  public void setRingBufferRowSets(boolean ringBufferRowSets) {
+    this.ringBufferRowSets = ringBufferRowSets;
+  }
+
+  /**
+   * Gets virtualThreads
+   *
+   * @return value of virtualThreads
+   */
+  public boolean isVirtualThreads() {
+    return virtualThreads;
+  }
+
+  /**
+   * @param virtualThreads The virtualThreads to set
+   */
+  public void setVirtualThreads(boolean virtualThreads) {
+    this.virtualThreads = virtualThreads;
+  }
+
   /**
    * Gets safeModeEnabled
    *
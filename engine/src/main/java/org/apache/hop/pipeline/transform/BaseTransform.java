@@ -42,6 +42,7 @@ import org.apache.hop.core.Const;
 import org.apache.hop.core.IExtensionData;
 import org.apache.hop.core.IRowSet;
 import org.apache.hop.core.ResultFile;
+import org.apache.hop.core.RowSetSignal;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopRowException;
 import org.apache.hop.core.exception.HopTransformException;
@@ -51,11 +52,13 @@ import org.apache.hop.core.logging.ILogChannel;
 import org.apache.hop.core.logging.ILoggingObject;
 import org.apache.hop.core.logging.LogLevel;
 import org.apache.hop.core.logging.LoggingObjectType;
+import org.apache.hop.core.row.CopyOnWriteRowMeta;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.row.value.ValueMetaBase;
 import org.apache.hop.core.util.EnvUtil;
+import org.apache.hop.core.util.ThreadUtil;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.core.variables.Variables;
@@ -148,8 +151,6 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
 
   private final IPipelineEngine<PipelineMeta> pipeline;
 
-  private final Object statusCountersLock = new Object();
-
   protected Date initStartDate;
   protected Date executionStartDate;
   protected Date firstRowReadDate;
@@ -157,25 +158,25 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
   protected Date executionEndDate;
 
   /** Number of lines read from previous transform(s) */
-  private long linesRead;
+  private final TransformStatusCounter linesRead = new TransformStatusCounter();
 
   /** Number of lines written to next transform(s) */
-  private long linesWritten;
+  private final TransformStatusCounter linesWritten = new TransformStatusCounter();
 
   /** Number of lines read from file or database */
-  private long linesInput;
+  private final TransformStatusCounter linesInput = new TransformStatusCounter();
 
   /** Number of lines written to file or database */
-  private long linesOutput;
+  private final TransformStatusCounter linesOutput = new TransformStatusCounter();
 
   /** Number of updates in a database table or file */
-  private long linesUpdated;
+  private final TransformStatusCounter linesUpdated = new TransformStatusCounter();
 
   /** Number of lines skipped */
-  private long linesSkipped;
+  private final TransformStatusCounter linesSkipped = new TransformStatusCounter();
 
   /** Number of lines rejected to an error handling transform */
-  private long linesRejected;
+  private final TransformStatusCounter linesRejected = new TransformStatusCounter();
 
   private boolean distributed;
 
@@ -200,6 +201,15 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
 
   private DynamicWaitTimes.SingleStreamStatus waitingTime;
 
+  /** Raised by the input row sets when rows arrive and when the transform is resumed or stopped */
+  private final RowSetSignal rowSetSignal = new RowSetSignal();
+
+  /** true if input row sets were added, removed or replaced since the signal was registered */
+  private boolean inputRowSetsChanged = true;
+
+  /** true if all input row sets raise the signal, false if we need to poll them */
+  private boolean inputRowSetsSignalled;
+
   private final ReadWriteLock outputRowSetsLock = new ReentrantReadWriteLock();
 
   /** the rowset for the error rows */
@@ -285,6 +295,12 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
 
   private static final int NR_OF_ROWS_IN_BLOCK = 500;
 
+  /**
+   * The longest we wait for a signal in one go. Nothing depends on this timeout: it just makes sure
+   * a transform looks around every now and then, whatever happens.
+   */
+  private static final long MAX_SIGNAL_WAIT_MILLIS = 500L;
+
   private int blockPointer;
 
   private List<ITransformFinishedListener> transformFinishedListeners;
@@ -383,15 +399,13 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
 
     init = false;
 
-    synchronized (statusCountersLock) {
-      linesRead = 0L;
-      linesWritten = 0L;
-      linesUpdated = 0L;
-      linesSkipped = 0L;
-      linesRejected = 0L;
-      linesInput = 0L;
-      linesOutput = 0L;
-    }
+    linesRead.reset();
+    linesWritten.reset();
+    linesUpdated.reset();
+    linesSkipped.reset();
+    linesRejected.reset();
+    linesInput.reset();
+    linesOutput.reset();
 
     inputRowSets = new ArrayList<>();
     outputRowSets = new ArrayList<>();
@@ -640,9 +654,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   @Override
   public long getLinesRead() {
-    synchronized (statusCountersLock) {
-      return linesRead;
-    }
+    return linesRead.get();
   }
 
   /**
@@ -654,9 +666,17 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @return Returns the new value
    */
   public long incrementLinesRead() {
-    synchronized (statusCountersLock) {
-      return ++linesRead;
-    }
+    return linesRead.increment();
+  }
+
+  /**
+   * Increments the number of lines read from previous transforms by a batch of rows
+   *
+   * @param count the number of rows read
+   * @return Returns the new value
+   */
+  public long incrementLinesRead(long count) {
+    return linesRead.add(count);
   }
 
   /**
@@ -665,9 +685,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @return Returns the new value
    */
   public long decrementLinesRead() {
-    synchronized (statusCountersLock) {
-      return --linesRead;
-    }
+    return linesRead.decrement();
   }
 
   /**
@@ -677,9 +695,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @see #decrementLinesRead()
    */
   public void setLinesRead(long newLinesReadValue) {
-    synchronized (statusCountersLock) {
-      linesRead = newLinesReadValue;
-    }
+    linesRead.set(newLinesReadValue);
   }
 
   /**
@@ -688,9 +704,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   @Override
   public long getLinesInput() {
-    synchronized (statusCountersLock) {
-      return linesInput;
-    }
+    return linesInput.get();
   }
 
   /**
@@ -701,9 +715,17 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @return the new incremented value
    */
   public long incrementLinesInput() {
-    synchronized (statusCountersLock) {
-      return ++linesInput;
-    }
+    return linesInput.increment();
+  }
+
+  /**
+   * Increments the number of lines read from an input source by a batch of rows
+   *
+   * @param count the number of rows read
+   * @return the new incremented value
+   */
+  public long incrementLinesInput(long count) {
+    return linesInput.add(count);
   }
 
   /**
@@ -713,9 +735,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @see #incrementLinesInput()
    */
   public void setLinesInput(long newLinesInputValue) {
-    synchronized (statusCountersLock) {
-      linesInput = newLinesInputValue;
-    }
+    linesInput.set(newLinesInputValue);
   }
 
   /**
@@ -725,9 +745,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   @Override
   public long getLinesOutput() {
-    synchronized (statusCountersLock) {
-      return linesOutput;
-    }
+    return linesOutput.get();
   }
 
   /**
@@ -738,9 +756,17 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @see #setLinesOutput(long)
    */
   public long incrementLinesOutput() {
-    synchronized (statusCountersLock) {
-      return ++linesOutput;
-    }
+    return linesOutput.increment();
+  }
+
+  /**
+   * Increments the number of lines written to an output target by a batch of rows
+   *
+   * @param count the number of rows written
+   * @return the new incremented value
+   */
+  public long incrementLinesOutput(long count) {
+    return linesOutput.add(count);
   }
 
   /**
@@ -750,9 +776,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @see #incrementLinesOutput()
    */
   public void setLinesOutput(long newLinesOutputValue) {
-    synchronized (statusCountersLock) {
-      linesOutput = newLinesOutputValue;
-    }
+    linesOutput.set(newLinesOutputValue);
   }
 
   /**
@@ -764,9 +788,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   @Override
   public long getLinesWritten() {
-    synchronized (statusCountersLock) {
-      return linesWritten;
-    }
+    return linesWritten.get();
   }
 
   /**
@@ -777,9 +799,17 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @return Returns the new value
    */
   public long incrementLinesWritten() {
-    synchronized (statusCountersLock) {
-      return ++linesWritten;
-    }
+    return linesWritten.increment();
+  }
+
+  /**
+   * Increments the number of lines written to next transforms by a batch of rows
+   *
+   * @param count the number of rows written
+   * @return Returns the new value
+   */
+  public long incrementLinesWritten(long count) {
+    return linesWritten.add(count);
   }
 
   /**
@@ -790,9 +820,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @return Returns the new value
    */
   public long decrementLinesWritten() {
-    synchronized (statusCountersLock) {
-      return --linesWritten;
-    }
+    return linesWritten.decrement();
   }
 
   /**
@@ -804,9 +832,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @see #decrementLinesWritten()
    */
   public void setLinesWritten(long newLinesWrittenValue) {
-    synchronized (statusCountersLock) {
-      linesWritten = newLinesWrittenValue;
-    }
+    linesWritten.set(newLinesWrittenValue);
   }
 
   /**
@@ -816,9 +842,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   @Override
   public long getLinesUpdated() {
-    synchronized (statusCountersLock) {
-      return linesUpdated;
-    }
+    return linesUpdated.get();
   }
 
   /**
@@ -829,9 +853,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @see #setLinesUpdated(long)
    */
   public long incrementLinesUpdated() {
-    synchronized (statusCountersLock) {
-      return ++linesUpdated;
-    }
+    return linesUpdated.increment();
   }
 
   /**
@@ -841,9 +863,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @see #incrementLinesUpdated()
    */
   public void setLinesUpdated(long newLinesUpdatedValue) {
-    synchronized (statusCountersLock) {
-      linesUpdated = newLinesUpdatedValue;
-    }
+    linesUpdated.set(newLinesUpdatedValue);
   }
 
   /**
@@ -855,9 +875,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   @Override
   public long getLinesRejected() {
-    synchronized (statusCountersLock) {
-      return linesRejected;
-    }
+    return linesRejected.get();
   }
 
   /**
@@ -868,9 +886,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @return the new incremented value
    */
   public long incrementLinesRejected() {
-    synchronized (statusCountersLock) {
-      return ++linesRejected;
-    }
+    return linesRejected.increment();
   }
 
   /**
@@ -880,9 +896,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   @Override
   public void setLinesRejected(long newLinesRejectedValue) {
-    synchronized (statusCountersLock) {
-      linesRejected = newLinesRejectedValue;
-    }
+    linesRejected.set(newLinesRejectedValue);
   }
 
   /**
@@ -891,9 +905,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @see #incrementLinesSkipped()
    */
   public long getLinesSkipped() {
-    synchronized (statusCountersLock) {
-      return linesSkipped;
-    }
+    return linesSkipped.get();
   }
 
   /**
@@ -904,9 +916,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @see #setLinesSkipped(long)
    */
   public long incrementLinesSkipped() {
-    synchronized (statusCountersLock) {
-      return ++linesSkipped;
-    }
+    return linesSkipped.increment();
   }
 
   /**
@@ -915,9 +925,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @see #incrementLinesSkipped()
    */
   public void setLinesSkipped(long newLinesSkippedValue) {
-    synchronized (statusCountersLock) {
-      linesSkipped = newLinesSkippedValue;
-    }
+    linesSkipped.set(newLinesSkippedValue);
   }
 
   @Override
@@ -1009,6 +1017,42 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   @Override
   public void putRow(IRowMeta rowMeta, Object[] row) throws HopTransformException {
+    checkOutputRowMeta(rowMeta);
+    getRowHandler().putRow(rowMeta, row);
+
+    // This transform is not reading data, only writing
+    //
+    if (firstRowReadDate == null) {
+      firstRowReadDate = new Date();
+    }
+  }
+
+  /**
+   * putRows is used to pass a batch of rows to the output rowset(s) in one go. The rows are treated
+   * exactly like when they are passed one by one with {@link #putRow(IRowMeta, Object[])}, but the
+   * pausing and stopping checks, the locking of the output rowsets and the updating of the counters
+   * are done only once for the whole batch.
+   *
+   * @param rowMeta The row metadata of all the rows in the batch
+   * @param rows The rows to put to the destination rowset(s).
+   * @param n The number of rows to take from the start of the rows array
+   * @throws HopTransformException In case something unexpected goes wrong
+   */
+  public void putRows(IRowMeta rowMeta, Object[][] rows, int n) throws HopTransformException {
+    if (n <= 0) {
+      return;
+    }
+    checkOutputRowMeta(rowMeta);
+    getRowHandler().putRows(rowMeta, rows, n);
+
+    // This transform is not reading data, only writing
+    //
+    if (firstRowReadDate == null) {
+      firstRowReadDate = new Date();
+    }
+  }
+
+  private void checkOutputRowMeta(IRowMeta rowMeta) throws HopTransformException {
     if (rowMeta != null && !allowEmptyFieldNamesAndTypes) {
       // check row meta for empty field name (BACKLOG-18004)
       for (IValueMeta vmi : rowMeta.getValueMetaList()) {
@@ -1024,25 +1068,87 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
         }
       }
     }
-    getRowHandler().putRow(rowMeta, row);
+  }
 
-    // This transform is not reading data, only writing
-    //
-    if (firstRowReadDate == null) {
-      firstRowReadDate = new Date();
+  /**
+   * Stall while the transform is paused. Resuming or stopping the transform raises the signal.
+   *
+   * @throws HopTransformException if the thread was interrupted
+   */
+  private void waitWhilePaused() throws HopTransformException {
+    while (paused.get() && !stopped.get()) {
+      rowSetSignal.await(
+          () -> !paused.get() || stopped.get(), MAX_SIGNAL_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+      if (Thread.interrupted()) {
+        throw new HopTransformException(new InterruptedException());
+      }
     }
   }
 
-  private void handlePutRow(IRowMeta rowMeta, Object[] row) throws HopTransformException {
-    // Are we pausing the transform? If so, stall forever...
-    //
-    while (paused.get() && !stopped.get()) {
-      try {
-        Thread.sleep(1);
-      } catch (InterruptedException e) {
-        throw new HopTransformException(e);
+  /**
+   * Make sure all input row sets raise the signal of this transform when rows arrive. This is done
+   * again whenever the list of input row sets changes. Call this with the input row sets lock.
+   *
+   * @return true if all the input row sets raise the signal, false if some of them need polling
+   */
+  private boolean signalInputRowSets() {
+    if (inputRowSetsChanged) {
+      boolean signalled = true;
+      for (IRowSet rowSet : inputRowSets) {
+        signalled &= rowSet.setConsumerSignal(rowSetSignal);
       }
+      inputRowSetsSignalled = signalled;
+      inputRowSetsChanged = false;
     }
+    return inputRowSetsSignalled;
+  }
+
+  /**
+   * Wait until one of the input row sets has rows or is done, or until the transform is stopped.
+   * Call this with the input row sets lock.
+   */
+  private void waitForInputRows() {
+    rowSetSignal.await(this::isInputAvailable, MAX_SIGNAL_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  private boolean isInputAvailable() {
+    if (stopped.get()) {
+      return true;
+    }
+    for (IRowSet rowSet : inputRowSets) {
+      if (rowSet.size() > 0 || rowSet.isDone()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Give the transform on the other side of a row set a moment to fill or drain the buffer. A
+   * virtual thread simply yields its carrier thread to the other transforms.
+   */
+  private void backOff() {
+    if (ThreadUtil.isVirtual(Thread.currentThread())) {
+      Thread.yield();
+      return;
+    }
+    try {
+      Thread.sleep(0, 1);
+    } catch (InterruptedException e) {
+      // Ignore sleep interruption exception
+    }
+  }
+
+  /**
+   * Stall while the transform is paused, see if we're stopped and wait until all threads have been
+   * started.
+   *
+   * @return false if the transform is stopped and no rows should be written anymore
+   */
+  private boolean waitUntilReadyToPutRows() throws HopTransformException {
+    // Are we pausing the transform? If so, stall forever...
+    //
+    waitWhilePaused();
 
     // Right after the pause loop we have to check if this thread is stopped or
     // not.
@@ -1052,7 +1158,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
         logDebug(BaseMessages.getString(PKG, "BaseTransform.Log.StopPuttingARow"));
       }
       stopAll();
-      return;
+      return false;
     }
 
     // Have all threads started?
@@ -1075,6 +1181,13 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
       }
       this.checkPipelineRunning = true;
     }
+    return true;
+  }
+
+  private void handlePutRow(IRowMeta rowMeta, Object[] row) throws HopTransformException {
+    if (!waitUntilReadyToPutRows()) {
+      return;
+    }
 
     // call all row listeners...
     //
@@ -1084,13 +1197,36 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
 
     // Keep adding to terminator_rows buffer...
     //
-    if (terminator && terminatorRows != null) {
-      try {
-        terminatorRows.add(rowMeta.cloneRow(row));
-      } catch (HopValueException e) {
-        throw new HopTransformException(
-            "Unable to clone row while adding rows to the terminator rows.", e);
+    addTerminatorRow(rowMeta, row);
+
+    outputRowSetsLock.readLock().lock();
+    try {
+      if (outputRowSets.isEmpty()) {
+        // No more output rowsets!
+        // Still update the nr of lines written.
+        //
+        incrementLinesWritten();
+
+        return; // we're done here!
       }
+
+      sendRowToOutputRowSets(rowMeta, row);
+    } finally {
+      outputRowSetsLock.readLock().unlock();
+    }
+  }
+
+  private void handlePutRows(IRowMeta rowMeta, Object[][] rows, int n)
+      throws HopTransformException {
+    if (!waitUntilReadyToPutRows()) {
+      return;
+    }
+
+    for (int i = 0; i < n; i++) {
+      for (IRowListener listener : rowListeners) {
+        listener.rowWrittenEvent(rowMeta, rows[i]);
+      }
+      addTerminatorRow(rowMeta, rows[i]);
     }
 
     outputRowSetsLock.readLock().lock();
@@ -1099,36 +1235,63 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
         // No more output rowsets!
         // Still update the nr of lines written.
         //
-        incrementLinesWritten();
+        incrementLinesWritten(n);
 
         return; // we're done here!
       }
 
-      // Repartitioning happens when the current transform is not partitioned, but the next one is.
-      // That means we need to look up the partitioning information in the next transform..
-      // If there are multiple transforms, we need to look at the first (they should be all the
-      // same)
+      // A single target without any special distribution: hand over the whole batch at once
       //
-      switch (repartitioning) {
-        case TransformPartitioningMeta.PARTITIONING_METHOD_NONE:
-          noPartitioning(rowMeta, row);
-          break;
+      if (repartitioning == TransformPartitioningMeta.PARTITIONING_METHOD_NONE
+          && outputRowSets.size() == 1
+          && (!distributed || rowDistribution == null)) {
+        putRowsToRowSet(outputRowSets.get(0), rowMeta, rows, n);
+        incrementLinesWritten(n);
+        return;
+      }
 
-        case TransformPartitioningMeta.PARTITIONING_METHOD_SPECIAL:
-          specialPartitioning(rowMeta, row);
-          break;
-        case TransformPartitioningMeta.PARTITIONING_METHOD_MIRROR:
-          mirrorPartitioning(rowMeta, row);
-          break;
-        default:
-          throw new HopTransformException(
-              "Internal error: invalid repartitioning type: " + repartitioning);
+      for (int i = 0; i < n; i++) {
+        sendRowToOutputRowSets(rowMeta, rows[i]);
       }
     } finally {
       outputRowSetsLock.readLock().unlock();
     }
   }
 
+  private void addTerminatorRow(IRowMeta rowMeta, Object[] row) throws HopTransformException {
+    if (terminator && terminatorRows != null) {
+      try {
+        terminatorRows.add(rowMeta.cloneRow(row));
+      } catch (HopValueException e) {
+        throw new HopTransformException(
+            "Unable to clone row while adding rows to the terminator rows.", e);
+      }
+    }
+  }
+
+  private void sendRowToOutputRowSets(IRowMeta rowMeta, Object[] row) throws HopTransformException {
+    // Repartitioning happens when the current transform is not partitioned, but the next one is.
+    // That means we need to look up the partitioning information in the next transform..
+    // If there are multiple transforms, we need to look at the first (they should be all the
+    // same)
+    //
+    switch (repartitioning) {
+      case TransformPartitioningMeta.PARTITIONING_METHOD_NONE:
+        noPartitioning(rowMeta, row);
+        break;
+
+      case TransformPartitioningMeta.PARTITIONING_METHOD_SPECIAL:
+        specialPartitioning(rowMeta, row);
+        break;
+      case TransformPartitioningMeta.PARTITIONING_METHOD_MIRROR:
+        mirrorPartitioning(rowMeta, row);
+        break;
+      default:
+        throw new HopTransformException(
+            "Internal error: invalid repartitioning type: " + repartitioning);
+    }
+  }
+
   /** Copy always to all target transforms/copies */
   private void mirrorPartitioning(IRowMeta rowMeta, Object[] row) {
     for (IRowSet rowSet : outputRowSets) {
@@ -1213,17 +1376,6 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
         //
         IRowSet rs = outputRowSets.get(currentOutputRowSetNr);
 
-        // To reduce stress on the locking system we are NOT going to allow
-        // the buffer to grow to its full capacity.
-
-        if (!rs.isDone() && rs.size() >= upperBufferBoundary && !isStopped()) {
-          try {
-            Thread.sleep(0, 1);
-          } catch (InterruptedException e) {
-            // Ignore sleep interruption exception
-          }
-        }
-
         // Loop until we find room in the target rowset
         //
         putRowToRowSet(rs, rowMeta, row);
@@ -1249,17 +1401,6 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
 
         IRowSet rs = outputRowSets.get(i);
 
-        // To reduce stress on the locking system we are NOT going to allow
-        // the buffer to grow to its full capacity.
-
-        if (!rs.isDone() && rs.size() >= upperBufferBoundary && !isStopped()) {
-          try {
-            Thread.sleep(0, 1);
-          } catch (InterruptedException e) {
-            // Ignore sleep interruption exception
-          }
-        }
-
         try {
           // Loop until we find room in the target rowset
           //
@@ -1283,8 +1424,8 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     IRowMeta toBeSent;
     IRowMeta metaFromRs = rs.getRowMeta();
     if (metaFromRs == null) {
-      // IRowSet is not initialised so far
-      toBeSent = rowMeta.clone();
+      // IRowSet is not initialised so far, give its readers a copy of their own
+      toBeSent = CopyOnWriteRowMeta.of(rowMeta);
     } else {
       // use the existing
       toBeSent = metaFromRs;
@@ -1297,6 +1438,23 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     }
   }
 
+  private void putRowsToRowSet(IRowSet rs, IRowMeta rowMeta, Object[][] rows, int n) {
+    IRowMeta metaFromRs = rs.getRowMeta();
+    IRowMeta toBeSent = metaFromRs == null ? CopyOnWriteRowMeta.of(rowMeta) : metaFromRs;
+
+    int written = rs.putRows(toBeSent, rows, n);
+
+    // Loop until we find room in the target rowset for the rest
+    //
+    for (int i = written; i < n; i++) {
+      while (!rs.putRow(toBeSent, rows[i])) {
+        if (isStopped() && !safeStopped.get()) {
+          return;
+        }
+      }
+    }
+  }
+
   /**
    * putRowTo is used to put a row in a certain specific IRowSet.
    *
@@ -1321,13 +1479,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
 
     // Are we pausing the transform? If so, stall forever...
     //
-    while (paused.get() && !stopped.get()) {
-      try {
-        Thread.sleep(1);
-      } catch (InterruptedException e) {
-        throw new HopTransformException(e);
-      }
-    }
+    waitWhilePaused();
 
     // Do not call the row listeners for targeted rows.
     // It can cause rows with varying layouts to arrive at the same listener without a way to keep
@@ -1404,10 +1556,9 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     TransformErrorMeta transformErrorMeta = transformMeta.getTransformErrorMeta();
 
     if (errorRowMeta == null) {
-      errorRowMeta = rowMeta.clone();
-
-      IRowMeta add = transformErrorMeta.getErrorRowMeta(variables);
-      errorRowMeta.addRowMeta(add);
+      IRowMeta errorFields = rowMeta.clone();
+      errorFields.addRowMeta(transformErrorMeta.getErrorRowMeta(variables));
+      errorRowMeta = CopyOnWriteRowMeta.of(errorFields);
     }
 
     Object[] errorRowData = RowDataUtil.allocateRowData(errorRowMeta.size());
@@ -1544,18 +1695,75 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     return row;
   }
 
-  private Object[] handleGetRow() throws HopException {
+  /**
+   * getRows is used to receive a batch of rows from the previous transforms in one go. It waits for
+   * rows exactly like {@link #getRow()}, but when more rows are available right away they are all
+   * returned, up to the given maximum. The locking of the input rowsets, the updating of the
+   * counters and the other checks are then only done once for the whole batch.
+   *
+   * @param max the maximum number of rows to return
+   * @return the rows which were read or null if there is no more input
+   * @throws HopException In case something unexpected goes wrong
+   */
+  public Object[][] getRows(int max) throws HopException {
+    Object[][] rows = getRowHandler().getRows(max);
 
-    // Are we pausing the transform? If so, stall forever...
+    if (firstRowReadDate == null) {
+      firstRowReadDate = new Date();
+    }
+
+    return rows;
+  }
+
+  private Object[][] handleGetRows(int max) throws HopException {
+    Object[][] rows = null;
+
+    // We only read batches straight from a single input rowset once the row metadata is known.
+    // Everything else (pausing, multiple input streams, row sets which are done, ...) is
+    // handled one row at a time.
     //
-    while (paused.get() && !stopped.get()) {
+    if (max > 1 && checkPipelineRunning && inputRowMeta != null && prevTransforms.length <= 1) {
+      inputRowSetsLock.readLock().lock();
       try {
-        Thread.sleep(100);
-      } catch (InterruptedException e) {
-        throw new HopTransformException(e);
+        if (inputRowSets.size() == 1 && !paused.get() && !stopped.get()) {
+          rows = inputRowSets.get(0).getRows(max);
+        }
+      } finally {
+        inputRowSetsLock.readLock().unlock();
       }
     }
 
+    if (rows == null || rows.length == 0) {
+      Object[] row = handleGetRow();
+      return row == null ? null : new Object[][] {row};
+    }
+
+    incrementLinesRead(rows.length);
+    blockPointer += rows.length;
+
+    if (pipeline.isSafeModeEnabled()) {
+      pipelineMeta.checkRowMixingStatically(this, transformMeta, null);
+    }
+    if (!rowListeners.isEmpty()) {
+      for (Object[] row : rows) {
+        for (IRowListener listener : rowListeners) {
+          listener.rowReadEvent(inputRowMeta, row);
+        }
+      }
+    }
+
+    // Check the rejection rates etc. as well.
+    verifyRejectionRates();
+
+    return rows;
+  }
+
+  private Object[] handleGetRow() throws HopException {
+
+    // Are we pausing the transform? If so, stall forever...
+    //
+    waitWhilePaused();
+
     if (stopped.get()) {
       if (log.isDebug()) {
         logDebug(BaseMessages.getString(PKG, "BaseTransform.Log.StopLookingForMoreRows"));
@@ -1605,12 +1813,12 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
       // The buffer to grow beyond "a few" entries.
       // We'll only do that if the previous transform has not ended...
 
-      if (!inputRowSet.isDone() && inputRowSet.size() <= lowerBufferBoundary && !isStopped()) {
-        try {
-          Thread.sleep(0, 1);
-        } catch (InterruptedException e) {
-          // Ignore sleep interruption exception
-        }
+      boolean signalled = signalInputRowSets();
+      if (!signalled
+          && !inputRowSet.isDone()
+          && inputRowSet.size() <= lowerBufferBoundary
+          && !isStopped()) {
+        backOff();
       }
 
       // See if this transform is receiving partitioned data...
@@ -1634,12 +1842,24 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
         }
         waitingTime = DynamicWaitTimes.build(inputRowSets, this::getCurrentInputRowSetNr, waitTime);
       }
+      int emptyRowSets = 0;
       while (row == null && !isStopped()) {
         // Get a row from the input in row set ...
         // Timeout immediately if nothing is there to read.
         // We will then switch to the next row set to read from...
         //
-        row = inputRowSet.getRowWait(waitingTime.get(), TimeUnit.MILLISECONDS);
+        if (signalled) {
+          // Only when none of the input row sets has anything to read we wait for a signal.
+          //
+          row = inputRowSet.getRowImmediate();
+          if (row == null && !inputRowSet.isDone() && ++emptyRowSets >= inputRowSets.size()) {
+            waitForInputRows();
+            emptyRowSets = 0;
+            row = inputRowSet.getRowImmediate();
+          }
+        } else {
+          row = inputRowSet.getRowWait(waitingTime.get(), TimeUnit.MILLISECONDS);
+        }
         boolean timeout = false;
         if (row != null) {
           obtainInputRowMeta(row, inputRowSet);
@@ -1931,13 +2151,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
   public Object[] handleGetRowFrom(IRowSet rowSet) throws HopTransformException {
     // Are we pausing the transform? If so, stall forever...
     //
-    while (paused.get() && !stopped.get()) {
-      try {
-        Thread.sleep(10);
-      } catch (InterruptedException e) {
-        throw new HopTransformException(e);
-      }
-    }
+    waitWhilePaused();
 
     // Have all threads started?
     // Are we running yet? If not, wait a bit until all threads have been
@@ -1954,23 +2168,34 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     }
     Object[] rowData = null;
 
-    // To reduce stress on the locking system we are going to allow
-    // The buffer to grow beyond "a few" entries.
-    // We'll only do that if the previous transform has not ended...
+    // If the row set signals us when rows arrive we can simply wait for that.
+    //
+    boolean signalled = rowSet.setConsumerSignal(rowSetSignal);
+
+    if (signalled) {
+      rowData = rowSet.getRowImmediate();
+      while (rowData == null && !rowSet.isDone() && !stopped.get()) {
+        rowSetSignal.await(
+            () -> rowSet.size() > 0 || rowSet.isDone() || stopped.get(),
+            MAX_SIGNAL_WAIT_MILLIS,
+            TimeUnit.MILLISECONDS);
+        rowData = rowSet.getRowImmediate();
+      }
+    } else {
+      // To reduce stress on the locking system we are going to allow
+      // The buffer to grow beyond "a few" entries.
+      // We'll only do that if the previous transform has not ended...
 
-    if (!rowSet.isDone() && rowSet.size() <= lowerBufferBoundary && !isStopped()) {
-      try {
-        Thread.sleep(0, 1);
-      } catch (InterruptedException e) {
-        // Ignore sleep interruption exception
+      if (!rowSet.isDone() && rowSet.size() <= lowerBufferBoundary && !isStopped()) {
+        backOff();
       }
-    }
 
-    // Grab a row... If nothing received after a timeout, try again.
-    //
-    rowData = rowSet.getRow();
-    while (rowData == null && !rowSet.isDone() && !stopped.get()) {
+      // Grab a row... If nothing received after a timeout, try again.
+      //
       rowData = rowSet.getRow();
+      while (rowData == null && !rowSet.isDone() && !stopped.get()) {
+        rowData = rowSet.getRow();
+      }
     }
 
     // Still nothing: no more rows to be had?
@@ -1979,7 +2204,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
       // Try one more time to get a row to make sure we don't get a
       // race-condition between the get and the isDone()
       //
-      rowData = rowSet.getRow();
+      rowData = signalled ? rowSet.getRowImmediate() : rowSet.getRow();
     }
 
     if (stopped.get()) {
@@ -1993,7 +2218,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     if (rowData == null && rowSet.isDone()) {
       // Try one more time...
       //
-      rowData = rowSet.getRow();
+      rowData = signalled ? rowSet.getRowImmediate() : rowSet.getRow();
       if (rowData == null) {
         Integer waitTime = 20;
         if (pipeline.getPipelineRunConfiguration().getEngineRunConfiguration()
@@ -2367,6 +2592,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
           }
           if (rowSet != null) {
             inputRowSets.add(rowSet);
+            inputRowSetsChanged = true;
             if (log.isDetailed()) {
               logDetailed(
                   BaseMessages.getString(
@@ -2672,6 +2898,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
   @Override
   public void stopAll() {
     stopped.set(true);
+    rowSetSignal.signal();
     pipeline.stopAll();
   }
 
@@ -2713,6 +2940,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
   @Override
   public void setStopped(boolean stopped) {
     this.stopped.set(stopped);
+    rowSetSignal.signal();
   }
 
   @Override
@@ -2762,6 +2990,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   public void setPaused(boolean paused) {
     this.paused.set(paused);
+    rowSetSignal.signal();
   }
 
   /**
@@ -2806,12 +3035,11 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @see org.apache.hop.pipeline.transform.ITransform#markStop()
    */
   @Override
-  public synchronized void markStop() {
+  public void markStop() {
 
     // Only mark a transform as stopped once
     //
-    if (!markStopped.get()) {
-      markStopped.set(true);
+    if (markStopped.compareAndSet(false, true)) {
 
       Calendar cal = Calendar.getInstance();
       stopTime = cal.getTime();
@@ -2828,11 +3056,15 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     }
   }
 
-  private synchronized void fireTransformFinishedListeners() {
+  private void fireTransformFinishedListeners() {
+    // Don't hold the lock on the list while the listeners run, they can take a while.
+    //
+    List<ITransformFinishedListener> listeners;
     synchronized (transformFinishedListeners) {
-      for (ITransformFinishedListener transformListener : transformFinishedListeners) {
-        transformListener.transformFinished(pipeline, transformMeta, this);
-      }
+      listeners = new ArrayList<>(transformFinishedListeners);
+    }
+    for (ITransformFinishedListener transformListener : listeners) {
+      transformListener.transformFinished(pipeline, transformMeta, this);
     }
   }
 
@@ -2949,36 +3181,34 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
 
   /** Log summary. */
   public void logSummary() {
-    synchronized (statusCountersLock) {
-      long li = getLinesInput();
-      long lo = getLinesOutput();
-      long lr = getLinesRead();
-      long lw = getLinesWritten();
-      long lu = getLinesUpdated();
-      long lj = getLinesRejected();
-      if (li > 0 || lo > 0 || lr > 0 || lw > 0 || lu > 0 || lj > 0 || errors > 0) {
-        logBasic(
-            BaseMessages.getString(
-                PKG,
-                "BaseTransform.Log.SummaryInfo",
-                String.valueOf(li),
-                String.valueOf(lo),
-                String.valueOf(lr),
-                String.valueOf(lw),
-                String.valueOf(lw),
-                String.valueOf(errors + lj)));
-      } else {
-        logDetailed(
-            BaseMessages.getString(
-                PKG,
-                "BaseTransform.Log.SummaryInfo",
-                String.valueOf(li),
-                String.valueOf(lo),
-                String.valueOf(lr),
-                String.valueOf(lw),
-                String.valueOf(lw),
-                String.valueOf(errors + lj)));
-      }
+    long li = getLinesInput();
+    long lo = getLinesOutput();
+    long lr = getLinesRead();
+    long lw = getLinesWritten();
+    long lu = getLinesUpdated();
+    long lj = getLinesRejected();
+    if (li > 0 || lo > 0 || lr > 0 || lw > 0 || lu > 0 || lj > 0 || errors > 0) {
+      logBasic(
+          BaseMessages.getString(
+              PKG,
+              "BaseTransform.Log.SummaryInfo",
+              String.valueOf(li),
+              String.valueOf(lo),
+              String.valueOf(lr),
+              String.valueOf(lw),
+              String.valueOf(lw),
+              String.valueOf(errors + lj)));
+    } else {
+      logDetailed(
+          BaseMessages.getString(
+              PKG,
+              "BaseTransform.Log.SummaryInfo",
+              String.valueOf(li),
+              String.valueOf(lo),
+              String.valueOf(lr),
+              String.valueOf(lw),
+              String.valueOf(lw),
+              String.valueOf(errors + lj)));
     }
   }
 
@@ -3008,6 +3238,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     inputRowSetsLock.writeLock().lock();
     try {
       inputRowSets.add(rowSet);
+      inputRowSetsChanged = true;
     } finally {
       inputRowSetsLock.writeLock().unlock();
     }
@@ -3015,7 +3246,10 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
 
   private void removeRowSetFromInputRowSets(IRowSet rowSet) {
     inputRowSets.remove(rowSet);
-    waitingTime.remove(rowSet);
+    inputRowSetsChanged = true;
+    if (waitingTime != null) {
+      waitingTime.remove(rowSet);
+    }
     if (currentInputRowSetNr > 0) {
       currentInputRowSetNr--;
     }
@@ -3034,6 +3268,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     inputRowSetsLock.writeLock().lock();
     try {
       inputRowSets.clear();
+      inputRowSetsChanged = true;
     } finally {
       inputRowSetsLock.writeLock().unlock();
     }
@@ -3050,6 +3285,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
           IRowSet zero = inputRowSets.get(0);
           inputRowSets.set(0, rs);
           inputRowSets.set(i, zero);
+          inputRowSetsChanged = true;
         }
       }
     } finally {
@@ -3064,6 +3300,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     inputRowSetsLock.writeLock().lock();
     try {
       this.inputRowSets = inputRowSets;
+      inputRowSetsChanged = true;
     } finally {
       inputRowSetsLock.writeLock().unlock();
     }
@@ -3313,6 +3550,22 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
         && (lines % getPipeline().getFeedbackSize()) == 0;
   }
 
+  /**
+   * Check feedback after a batch of rows was processed.
+   *
+   * @param lines the lines
+   * @param batchSize the number of lines processed in the last batch
+   * @return true, if a feedback line should be logged for one of the lines in the batch
+   */
+  protected boolean checkFeedback(long lines, int batchSize) {
+    if (!getPipeline().isFeedbackShown() || lines <= 0) {
+      return false;
+    }
+    long feedbackSize = getPipeline().getFeedbackSize();
+    return feedbackSize > 0
+        && lines / feedbackSize != Math.max(0, lines - batchSize) / feedbackSize;
+  }
+
   /**
    * @return the rowMeta
    */
@@ -3857,6 +4110,16 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
       handlePutRow(rowMeta, row);
     }
 
+    @Override
+    public Object[][] getRows(int max) throws HopException {
+      return handleGetRows(max);
+    }
+
+    @Override
+    public void putRows(IRowMeta rowMeta, Object[][] rows, int n) throws HopTransformException {
+      handlePutRows(rowMeta, rows, n);
+    }
+
     @Override
     public void putError(
         IRowMeta rowMeta,
@@ -38,6 +38,33 @@ public interface IRowHandler {
 
   void putRow(IRowMeta rowMeta, Object[] row) throws HopTransformException;
 
+  /**
+   * Get a batch of rows. By default, this returns a single row obtained through {@link #getRow()}.
+   *
+   * @param max the maximum number of rows to return
+   * @return the rows or null if there is no more input
+   * @throws HopException In case something goes wrong
+   */
+  default Object[][] getRows(int max) throws HopException {
+    Object[] row = getRow();
+    return row == null ? null : new Object[][] {row};
+  }
+
+  /**
+   * Put a batch of rows. By default, this passes the rows one by one to {@link #putRow(IRowMeta,
+   * Object[])}.
+   *
+   * @param rowMeta the row metadata of all the rows
+   * @param rows the rows to put
+   * @param n the number of rows to take from the start of the rows array
+   * @throws HopTransformException In case something goes wrong
+   */
+  default void putRows(IRowMeta rowMeta, Object[][] rows, int n) throws HopTransformException {
+    for (int i = 0; i < n; i++) {
+      putRow(rowMeta, rows[i]);
+    }
+  }
+
   void putError(
       IRowMeta rowMeta,
       Object[] row,
@@ -35,6 +35,7 @@ import org.apache.hop.metadata.api.IHopMetadataProvider;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.engine.EngineComponent.ComponentExecutionStatus;
 import org.apache.hop.pipeline.engine.IEngineComponent;
+import org.apache.hop.pipeline.engine.IEngineMetric;
 import org.apache.hop.pipeline.engine.IPipelineEngine;
 
 /**
@@ -422,6 +423,17 @@ public interface ITransform extends IVariables, IHasLogChannel, IEngineComponent
     return Collections.emptyList();
   }
 
+  /**
+   * Metrics of this transform copy on top of the standard ones, like the statistics of a cache.
+   * They are collected with the other metrics of the pipeline, so they can be followed while the
+   * pipeline runs.
+   *
+   * @return the values of the extra metrics, empty by default
+   */
+  default Map<IEngineMetric, Long> getCustomMetrics() {
+    return Collections.emptyMap();
+  }
+
   default void addRowSetToInputRowSets(IRowSet rowSet) {
     getInputRowSets().add(rowSet);
   }
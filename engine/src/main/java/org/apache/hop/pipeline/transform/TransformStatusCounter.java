@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transform;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free counter for the status metrics of a transform (lines read, written, ...).
+ *
+ * <p>Nearly all updates of such a counter come from the one thread that runs the transform while
+ * other threads (the GUI, the status servlet, the performance snapshot timer) only read it. The
+ * first thread that updates the counter becomes its owner. The owner keeps the count in a plain
+ * long which it publishes with release semantics: no lock, no compare-and-set. Updates from any
+ * other thread go to a {@link LongAdder} so they are never lost. A reader sees the sum of both.
+ */
+public final class TransformStatusCounter {
+  private static final VarHandle VALUE;
+  private static final VarHandle OWNER;
+
+  static {
+    try {
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      VALUE = lookup.findVarHandle(TransformStatusCounter.class, "value", long.class);
+      OWNER = lookup.findVarHandle(TransformStatusCounter.class, "owner", Thread.class);
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  /** The count of the owner thread. Only ever written by the owner (or by {@link #reset()}). */
+  @SuppressWarnings("unused")
+  private long value;
+
+  /** The thread that claimed this counter with its first update */
+  @SuppressWarnings("unused")
+  private Thread owner;
+
+  /** The updates of all the other threads, created when first needed */
+  private volatile LongAdder others;
+
+  /**
+   * Add a delta to the counter.
+   *
+   * @param delta the number to add, can be negative
+   * @return the new value of the counter
+   */
+  public long add(long delta) {
+    Thread current = Thread.currentThread();
+    Thread o = (Thread) OWNER.getOpaque(this);
+    if (o == current || (o == null && OWNER.compareAndSet(this, null, current))) {
+      long v = (long) VALUE.getOpaque(this) + delta;
+      VALUE.setRelease(this, v);
+      LongAdder adder = others;
+      return adder == null ? v : v + adder.sum();
+    }
+    LongAdder adder = getOthers();
+    adder.add(delta);
+    return (long) VALUE.getAcquire(this) + adder.sum();
+  }
+
+  /**
+   * Add one to the counter.
+   *
+   * @return the new value of the counter
+   */
+  public long increment() {
+    return add(1L);
+  }
+
+  /**
+   * Subtract one from the counter.
+   *
+   * @return the new value of the counter
+   */
+  public long decrement() {
+    return add(-1L);
+  }
+
+  /**
+   * @return the current value of the counter
+   */
+  public long get() {
+    LongAdder adder = others;
+    long v = (long) VALUE.getAcquire(this);
+    return adder == null ? v : v + adder.sum();
+  }
+
+  /**
+   * Set a new value for the counter. Any thread can do this at any time: the difference with the
+   * current value is added like any other update, so an update of another thread is never lost. It
+   * counts either before or after the new value.
+   *
+   * @param newValue the new value of the counter
+   */
+  public void set(long newValue) {
+    add(newValue - get());
+  }
+
+  /**
+   * Set the counter back to zero and release the ownership, so that the next thread that updates
+   * the counter becomes its owner. Only call this while nobody else updates the counter, typically
+   * before (re-)running a transform: updates made at the same time can get lost.
+   */
+  public void reset() {
+    LongAdder adder = others;
+    if (adder != null) {
+      adder.reset();
+    }
+    VALUE.setRelease(this, 0L);
+    OWNER.setRelease(this, null);
+  }
+
+  private LongAdder getOthers() {
+    LongAdder adder = others;
+    if (adder == null) {
+      synchronized (this) {
+        adder = others;
+        if (adder == null) {
+          adder = new LongAdder();
+          others = adder;
+        }
+      }
+    }
+    return adder;
+  }
+
+  @Override
+  public String toString() {
+    return Long.toString(get());
+  }
+}
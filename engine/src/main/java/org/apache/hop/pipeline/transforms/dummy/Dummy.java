@@ -17,6 +17,7 @@
 
 package org.apache.hop.pipeline.transforms.dummy;
 
+import org.apache.hop.core.Const;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
@@ -40,16 +41,16 @@ public class Dummy extends BaseTransform<DummyMeta, DummyData> {
 
   @Override
   public boolean processRow() throws HopException {
-    Object[] r = getRow(); // get row, set busy!
+    Object[][] rows = getRows(Const.ROWS_IN_BATCH); // get a batch of rows, set busy!
     // no more input to be expected...
-    if (r == null) {
+    if (rows == null) {
       setOutputDone();
       return false;
     }
 
-    putRow(getInputRowMeta(), r); // copy row to possible alternate rowset(s).
+    putRows(getInputRowMeta(), rows, rows.length); // copy rows to possible alternate rowset(s).
 
-    if (checkFeedback(getLinesRead()) && isBasic()) {
+    if (checkFeedback(getLinesRead(), rows.length) && isBasic()) {
       logBasic(BaseMessages.getString(PKG, "Dummy.Log.LineNumber") + getLinesRead());
     }
 
@@ -374,10 +374,7 @@ public abstract class BaseFileInputTransform<
   private void rejectCurrentFile(String errorMsg) {
     if (StringUtils.isNotBlank(meta.errorHandling.fileErrorField)
         || StringUtils.isNotBlank(meta.errorHandling.fileErrorMessageField)) {
-      IRowMeta rowMeta = getInputRowMeta();
-      if (rowMeta == null) {
-        rowMeta = new RowMeta();
-      }
+      IRowMeta rowMeta = getInputRowMeta() == null ? new RowMeta() : getInputRowMeta().clone();
 
       int errorFileIndex =
           (StringUtils.isBlank(meta.errorHandling.fileErrorField))
@@ -454,6 +454,25 @@ public class WorkflowMeta extends AbstractMeta
 
   public void loadXml(IVariables variables, String fname, IHopMetadataProvider metadataProvider)
       throws HopXmlException {
+    loadXml(variables, fname, metadataProvider, true);
+  }
+
+  /**
+   * Load the workflow from the XML file specified
+   *
+   * @param variables
+   * @param fname
+   * @param metadataProvider
+   * @param callLoadedExtensionPoint false to leave calling the WorkflowMetaLoaded extension point
+   *     to the caller
+   * @throws HopXmlException
+   */
+  public void loadXml(
+      IVariables variables,
+      String fname,
+      IHopMetadataProvider metadataProvider,
+      boolean callLoadedExtensionPoint)
+      throws HopXmlException {
     try {
       // OK, try to load using the VFS stuff...
       Document doc = XmlHandler.loadXmlFile(HopVfs.getFileObject(fname));
@@ -461,7 +480,7 @@ public class WorkflowMeta extends AbstractMeta
         // The workflowNode
         Node workflowNode = XmlHandler.getSubNode(doc, XML_TAG);
 
-        loadXml(workflowNode, fname, metadataProvider, variables);
+        loadXml(workflowNode, fname, metadataProvider, variables, callLoadedExtensionPoint);
       } else {
         throw new HopXmlException(
             BaseMessages.getString(PKG, "WorkflowMeta.Exception.ErrorReadingFromXMLFile") + fname);
@@ -490,6 +509,27 @@ public class WorkflowMeta extends AbstractMeta
       IHopMetadataProvider metadataProvider,
       IVariables variables)
       throws HopXmlException {
+    loadXml(workflowNode, filename, metadataProvider, variables, true);
+  }
+
+  /**
+   * Load a block of XML from an DOM node.
+   *
+   * @param workflowNode The node to load from
+   * @param filename The filename
+   * @param metadataProvider the MetaStore to use
+   * @param variables
+   * @param callLoadedExtensionPoint false to leave calling the WorkflowMetaLoaded extension point
+   *     to the caller
+   * @throws HopXmlException
+   */
+  public void loadXml(
+      Node workflowNode,
+      String filename,
+      IHopMetadataProvider metadataProvider,
+      IVariables variables,
+      boolean callLoadedExtensionPoint)
+      throws HopXmlException {
     try {
       // clear the workflows
       clear();
@@ -588,8 +628,10 @@ public class WorkflowMeta extends AbstractMeta
 
       clearChanged();
 
-      ExtensionPointHandler.callExtensionPoint(
-          LogChannel.GENERAL, variables, HopExtensionPoint.WorkflowMetaLoaded.id, this);
+      if (callLoadedExtensionPoint) {
+        ExtensionPointHandler.callExtensionPoint(
+            LogChannel.GENERAL, variables, HopExtensionPoint.WorkflowMetaLoaded.id, this);
+      }
 
     } catch (Exception e) {
       throw new HopXmlException(
@@ -0,0 +1,323 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.extension.ExtensionPointPluginType;
+import org.apache.hop.core.extension.HopExtensionPoint;
+import org.apache.hop.core.extension.IExtensionPoint;
+import org.apache.hop.core.plugins.IClassLoadingPlugin;
+import org.apache.hop.core.plugins.IPlugin;
+import org.apache.hop.core.plugins.PluginRegistry;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.core.variables.Variables;
+import org.apache.hop.metadata.api.IHopMetadataProvider;
+import org.apache.hop.metadata.serializer.memory.MemoryMetadataProvider;
+import org.apache.hop.pipeline.PipelineHopMeta;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.dummy.DummyMeta;
+import org.apache.hop.pipeline.transforms.injector.InjectorField;
+import org.apache.hop.pipeline.transforms.injector.InjectorMeta;
+import org.apache.hop.workflow.WorkflowHopMeta;
+import org.apache.hop.workflow.WorkflowMeta;
+import org.apache.hop.workflow.action.ActionMeta;
+import org.apache.hop.workflow.actions.dummy.ActionDummy;
+import org.apache.hop.workflow.actions.start.ActionStart;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MetaFileCacheTest {
+
+  @Rule public TemporaryFolder testFolder = new TemporaryFolder();
+
+  private IVariables variables;
+  private IHopMetadataProvider metadataProvider;
+  private final List<IPlugin> extensionPoints = new ArrayList<>();
+
+  @BeforeClass
+  public static void initHop() throws Exception {
+    HopEnvironment.init();
+  }
+
+  @Before
+  public void setUp() {
+    variables = new Variables();
+    metadataProvider = new MemoryMetadataProvider();
+  }
+
+  @After
+  public void tearDown() {
+    for (IPlugin plugin : extensionPoints) {
+      PluginRegistry.getInstance().removePlugin(ExtensionPointPluginType.class, plugin);
+    }
+  }
+
+  @Test
+  public void testLoadPipelineMeta() throws Exception {
+    String filename = writePipeline("pipeline.hpl", "output");
+    MetaFileCache cache = new MetaFileCache(10);
+
+    PipelineMeta first = cache.loadPipelineMeta(filename, metadataProvider, variables);
+    PipelineMeta second = cache.loadPipelineMeta(filename, metadataProvider, variables);
+
+    assertEquals(1, cache.getMisses());
+    assertEquals(1, cache.getHits());
+    assertNotSame(first, second);
+    assertEquals("pipeline", second.getName());
+    assertEquals(filename, second.getFilename());
+    assertEquals("description", second.getDescription());
+    assertEquals("value", second.getAttribute("group", "key"));
+    assertEquals("default", second.getParameterDefault("PARAM"));
+    assertSame(metadataProvider, second.getMetadataProvider());
+    assertFalse(second.hasChanged());
+
+    // The copies have transforms of their own, connected by hops of their own
+    //
+    assertEquals(2, second.nrTransforms());
+    assertNotSame(first.findTransform("output"), second.findTransform("output"));
+    PipelineHopMeta hop = second.getPipelineHop(0);
+    assertSame(second.findTransform("input"), hop.getFromTransform());
+    assertSame(second.findTransform("output"), hop.getToTransform());
+    assertSame(second, second.findTransform("output").getParentPipelineMeta());
+
+    // Changing a copy doesn't change the next one
+    //
+    second.setName("changed");
+    second.findTransform("output").setName("renamed");
+    second.setAttribute("group", "key", "changed");
+    PipelineMeta third = cache.loadPipelineMeta(filename, metadataProvider, variables);
+    assertEquals("pipeline", third.getName());
+    assertEquals("value", third.getAttribute("group", "key"));
+    assertNotNull(third.findTransform("output"));
+  }
+
+  /** The clone of a transform shares its fields, the copies of the cache don't */
+  @Test
+  public void testChangingTransformOfCopy() throws Exception {
+    String filename = writePipeline("pipeline.hpl", "output");
+    MetaFileCache cache = new MetaFileCache(10);
+
+    PipelineMeta first = cache.loadPipelineMeta(filename, metadataProvider, variables);
+    InjectorMeta injectorMeta = (InjectorMeta) first.findTransform("input").getTransform();
+    assertSame(first.findTransform("input"), injectorMeta.getParentTransformMeta());
+    injectorMeta.getInjectorFields().get(0).setName("changed");
+    injectorMeta.getInjectorFields().add(new InjectorField("added", "String", "", ""));
+
+    PipelineMeta second = cache.loadPipelineMeta(filename, metadataProvider, variables);
+    List<InjectorField> fields =
+        ((InjectorMeta) second.findTransform("input").getTransform()).getInjectorFields();
+    assertEquals(1, fields.size());
+    assertEquals("id", fields.get(0).getName());
+  }
+
+  @Test
+  public void testChangedFileIsParsedAgain() throws Exception {
+    String filename = writePipeline("pipeline.hpl", "output");
+    MetaFileCache cache = new MetaFileCache(10);
+    cache.loadPipelineMeta(filename, metadataProvider, variables);
+
+    File file = new File(filename);
+    long lastModified = file.lastModified();
+    writePipeline("pipeline.hpl", "changed output");
+    file.setLastModified(lastModified + 2000);
+
+    PipelineMeta pipelineMeta = cache.loadPipelineMeta(filename, metadataProvider, variables);
+
+    assertEquals(2, cache.getMisses());
+    assertEquals(0, cache.getHits());
+    assertNotNull(pipelineMeta.findTransform("changed output"));
+  }
+
+  @Test
+  public void testFilesPerMetadataProvider() throws Exception {
+    String filename = writePipeline("pipeline.hpl", "output");
+    MetaFileCache cache = new MetaFileCache(10);
+
+    cache.loadPipelineMeta(filename, metadataProvider, variables);
+    PipelineMeta pipelineMeta =
+        cache.loadPipelineMeta(filename, new MemoryMetadataProvider(), variables);
+
+    assertEquals(2, cache.getMisses());
+    assertEquals(2, cache.size());
+    assertNotSame(metadataProvider, pipelineMeta.getMetadataProvider());
+  }
+
+  @Test
+  public void testEviction() throws Exception {
+    String filename1 = writePipeline("pipeline1.hpl", "output");
+    String filename2 = writePipeline("pipeline2.hpl", "output");
+    MetaFileCache cache = new MetaFileCache(1);
+
+    cache.loadPipelineMeta(filename1, metadataProvider, variables);
+    cache.loadPipelineMeta(filename2, metadataProvider, variables);
+    cache.loadPipelineMeta(filename1, metadataProvider, variables);
+
+    assertEquals(3, cache.getMisses());
+    assertEquals(2, cache.getEvictions());
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void testDisabled() throws Exception {
+    String filename = writePipeline("pipeline.hpl", "output");
+    MetaFileCache cache = new MetaFileCache(0);
+
+    cache.loadPipelineMeta(filename, metadataProvider, variables);
+    PipelineMeta pipelineMeta = cache.loadPipelineMeta(filename, metadataProvider, variables);
+
+    assertEquals(0, cache.getHits());
+    assertEquals(0, cache.size());
+    assertEquals("pipeline", pipelineMeta.getName());
+  }
+
+  @Test
+  public void testLoadWorkflowMeta() throws Exception {
+    String filename = writeWorkflow("workflow.hwf");
+    MetaFileCache cache = new MetaFileCache(10);
+
+    WorkflowMeta first = cache.loadWorkflowMeta(variables, filename, metadataProvider);
+    WorkflowMeta second = cache.loadWorkflowMeta(variables, filename, metadataProvider);
+
+    assertEquals(1, cache.getMisses());
+    assertEquals(1, cache.getHits());
+    assertEquals("workflow", second.getName());
+    assertEquals(filename, second.getFilename());
+    assertNotSame(first.findAction("Dummy"), second.findAction("Dummy"));
+    assertNotSame(first.findAction("Dummy").getAction(), second.findAction("Dummy").getAction());
+    WorkflowHopMeta hop = second.getWorkflowHop(0);
+    assertSame(second.findAction("Start"), hop.getFromAction());
+    assertSame(second.findAction("Dummy"), hop.getToAction());
+    assertSame(second, second.findAction("Dummy").getParentWorkflowMeta());
+  }
+
+  @Test
+  public void testPipelineMetaLoadedExtensionPoint() throws Exception {
+    List<Object[]> calls = new ArrayList<>();
+    registerExtensionPoint(HopExtensionPoint.PipelineMetaLoaded, calls);
+    String filename = writePipeline("pipeline.hpl", "output");
+    MetaFileCache cache = new MetaFileCache(10);
+    IVariables firstVariables = new Variables();
+    IVariables secondVariables = new Variables();
+
+    PipelineMeta first = cache.loadPipelineMeta(filename, metadataProvider, firstVariables);
+    PipelineMeta second = cache.loadPipelineMeta(filename, metadataProvider, secondVariables);
+
+    // Called once on every copy with the variables of its caller, never on the template
+    //
+    assertEquals(2, calls.size());
+    assertSame(first, calls.get(0)[0]);
+    assertSame(firstVariables, calls.get(0)[1]);
+    assertSame(second, calls.get(1)[0]);
+    assertSame(secondVariables, calls.get(1)[1]);
+    assertEquals("description loaded", first.getDescription());
+    assertEquals("description loaded", second.getDescription());
+  }
+
+  @Test
+  public void testWorkflowMetaLoadedExtensionPoint() throws Exception {
+    List<Object[]> calls = new ArrayList<>();
+    registerExtensionPoint(HopExtensionPoint.WorkflowMetaLoaded, calls);
+    String filename = writeWorkflow("workflow.hwf");
+    MetaFileCache cache = new MetaFileCache(10);
+    IVariables firstVariables = new Variables();
+    IVariables secondVariables = new Variables();
+
+    WorkflowMeta first = cache.loadWorkflowMeta(firstVariables, filename, metadataProvider);
+    WorkflowMeta second = cache.loadWorkflowMeta(secondVariables, filename, metadataProvider);
+
+    assertEquals(2, calls.size());
+    assertSame(first, calls.get(0)[0]);
+    assertSame(firstVariables, calls.get(0)[1]);
+    assertSame(second, calls.get(1)[0]);
+    assertSame(secondVariables, calls.get(1)[1]);
+    assertEquals("description loaded", first.getDescription());
+    assertEquals("description loaded", second.getDescription());
+  }
+
+  /**
+   * Registers an extension point which records the object and the variables it is called with and
+   * appends to the description of the object
+   */
+  private void registerExtensionPoint(HopExtensionPoint extensionPoint, List<Object[]> calls)
+      throws Exception {
+    IExtensionPoint<AbstractMeta> recorder =
+        (log, vars, meta) -> {
+          calls.add(new Object[] {meta, vars});
+          meta.setDescription(meta.getDescription() + " loaded");
+        };
+    IPlugin plugin = mock(IPlugin.class, withSettings().extraInterfaces(IClassLoadingPlugin.class));
+    when(plugin.getName()).thenReturn(extensionPoint.id);
+    when(plugin.getIds()).thenReturn(new String[] {"MetaFileCacheTest" + extensionPoint.id});
+    when(plugin.getMainType()).thenReturn((Class) IExtensionPoint.class);
+    when(((IClassLoadingPlugin) plugin).loadClass(IExtensionPoint.class)).thenReturn(recorder);
+    PluginRegistry.getInstance().registerPlugin(ExtensionPointPluginType.class, plugin);
+    extensionPoints.add(plugin);
+  }
+
+  private String writeWorkflow(String name) throws Exception {
+    WorkflowMeta workflowMeta = new WorkflowMeta();
+    workflowMeta.setName("workflow");
+    workflowMeta.setDescription("description");
+    ActionMeta start = new ActionMeta(new ActionStart("Start"));
+    ActionMeta dummy = new ActionMeta(new ActionDummy("Dummy"));
+    workflowMeta.addAction(start);
+    workflowMeta.addAction(dummy);
+    workflowMeta.addWorkflowHop(new WorkflowHopMeta(start, dummy));
+    File file = new File(testFolder.getRoot(), name);
+    Files.writeString(file.toPath(), workflowMeta.getXml(variables), StandardCharsets.UTF_8);
+    return file.getAbsolutePath();
+  }
+
+  private String writePipeline(String name, String outputName) throws Exception {
+    PipelineMeta pipelineMeta = new PipelineMeta();
+    pipelineMeta.setName("pipeline");
+    pipelineMeta.setDescription("description");
+    pipelineMeta.setAttribute("group", "key", "value");
+    pipelineMeta.addParameterDefinition("PARAM", "default", "");
+    InjectorMeta injectorMeta = new InjectorMeta();
+    injectorMeta.getInjectorFields().add(new InjectorField("id", "Integer", "", ""));
+    TransformMeta input = new TransformMeta("Injector", "input", injectorMeta);
+    TransformMeta output = new TransformMeta("Dummy", outputName, new DummyMeta());
+    pipelineMeta.addTransform(input);
+    pipelineMeta.addTransform(output);
+    pipelineMeta.addPipelineHop(new PipelineHopMeta(input, output));
+
+    File file = new File(testFolder.getRoot(), name);
+    Files.writeString(file.toPath(), pipelineMeta.getXml(variables), StandardCharsets.UTF_8);
+    return file.getAbsolutePath();
+  }
+}
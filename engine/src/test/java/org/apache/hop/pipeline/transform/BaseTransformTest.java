@@ -17,6 +17,8 @@
 
 package org.apache.hop.pipeline.transform;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
@@ -32,6 +34,7 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -241,6 +244,156 @@ public class BaseTransformTest {
     }
     // whereas instances differ
     assertNotSame(meta1, meta2);
+    assertNotSame(meta1.getValueMeta(0), meta2.getValueMeta(0));
+
+    // a reader can change its input row metadata in place without affecting the other one
+    meta1.getValueMeta(0).setSortedDescending(true);
+    meta1.addValueMeta(new ValueMetaString("extra"));
+    assertFalse(meta2.getValueMeta(0).isSortedDescending());
+    assertEquals(2, meta2.size());
+    assertEquals(2, rowMeta.size());
+  }
+
+  @Test
+  public void putRowsAndGetRowsInBatches() throws Exception {
+    IRowSet output = new BlockingRowSet(100);
+
+    when(mockHelper.pipeline.isRunning()).thenReturn(true);
+    BaseTransform<ITransformMeta, ITransformData> baseTransform =
+        new BaseTransform(
+            mockHelper.transformMeta,
+            mockHelper.iTransformMeta,
+            mockHelper.iTransformData,
+            0,
+            mockHelper.pipelineMeta,
+            mockHelper.pipeline);
+    baseTransform.setStopped(false);
+    baseTransform.setRepartitioning(TransformPartitioningMeta.PARTITIONING_METHOD_NONE);
+    baseTransform.setOutputRowSets(Arrays.asList(output));
+
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+
+    Object[][] rows = new Object[10][];
+    for (int i = 0; i < rows.length; i++) {
+      rows[i] = new Object[] {(long) i};
+    }
+    baseTransform.putRows(rowMeta, rows, 7);
+    assertEquals(7, output.size());
+    assertEquals(7, baseTransform.getLinesWritten());
+    output.setDone();
+
+    BaseTransform<ITransformMeta, ITransformData> nextTransform =
+        new BaseTransform(
+            mockHelper.transformMeta,
+            mockHelper.iTransformMeta,
+            mockHelper.iTransformData,
+            0,
+            mockHelper.pipelineMeta,
+            mockHelper.pipeline);
+    nextTransform.setStopped(false);
+    nextTransform.setInputRowSets(new ArrayList<>(Arrays.asList(output)));
+
+    // The first row locks in the row metadata, the rest comes in one batch
+    //
+    Object[][] batch = nextTransform.getRows(100);
+    assertEquals(1, batch.length);
+    batch = nextTransform.getRows(100);
+    assertEquals(6, batch.length);
+    for (int i = 0; i < batch.length; i++) {
+      assertEquals((long) (i + 1), batch[i][0]);
+    }
+    assertEquals(7, nextTransform.getLinesRead());
+    assertNull(nextTransform.getRows(100));
+  }
+
+  @Test
+  public void getRowIsWokenUpByRowsOnAnyInput() throws Exception {
+    IRowSet first = new BlockingRowSet(10);
+    IRowSet second = new BlockingRowSet(10);
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+
+    when(mockHelper.pipeline.isRunning()).thenReturn(true);
+    BaseTransform<ITransformMeta, ITransformData> baseTransform =
+        new BaseTransform(
+            mockHelper.transformMeta,
+            mockHelper.iTransformMeta,
+            mockHelper.iTransformData,
+            0,
+            mockHelper.pipelineMeta,
+            mockHelper.pipeline);
+    baseTransform.setStopped(false);
+    baseTransform.setInputRowSets(new ArrayList<>(Arrays.asList(first, second)));
+
+    Thread producer =
+        new Thread(
+            () -> {
+              try {
+                Thread.sleep(200);
+              } catch (InterruptedException e) {
+                // Ignore
+              }
+              second.putRow(rowMeta, new Object[] {1L});
+              first.setDone();
+              second.setDone();
+            });
+    producer.start();
+
+    Object[] row = baseTransform.getRow();
+    assertNotNull(row);
+    assertEquals(1L, row[0]);
+
+    // Both inputs are done: we shouldn't have to wait for any timeout
+    //
+    long start = System.currentTimeMillis();
+    assertNull(baseTransform.getRow());
+    assertTrue(System.currentTimeMillis() - start < 400);
+    producer.join();
+  }
+
+  @Test
+  public void getRowIsWokenUpByReplacedInput() throws Exception {
+    IRowSet first = new BlockingRowSet(10);
+    IRowSet second = new BlockingRowSet(10);
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+
+    when(mockHelper.pipeline.isRunning()).thenReturn(true);
+    BaseTransform<ITransformMeta, ITransformData> baseTransform =
+        new BaseTransform(
+            mockHelper.transformMeta,
+            mockHelper.iTransformMeta,
+            mockHelper.iTransformData,
+            0,
+            mockHelper.pipelineMeta,
+            mockHelper.pipeline);
+    baseTransform.setStopped(false);
+    baseTransform.setInputRowSets(new ArrayList<>(Arrays.asList(first)));
+    first.putRow(rowMeta, new Object[] {1L});
+    assertNotNull(baseTransform.getRow());
+
+    // Same number of input row sets, but a different one: it has to signal the transform as well
+    //
+    baseTransform.setInputRowSets(new ArrayList<>(Arrays.asList(second)));
+    Thread producer =
+        new Thread(
+            () -> {
+              try {
+                Thread.sleep(100);
+              } catch (InterruptedException e) {
+                // Ignore
+              }
+              second.putRow(rowMeta, new Object[] {2L});
+            });
+    producer.start();
+
+    long start = System.currentTimeMillis();
+    Object[] row = baseTransform.getRow();
+    assertNotNull(row);
+    assertEquals(2L, row[0]);
+    assertTrue(System.currentTimeMillis() - start < 400);
+    producer.join();
   }
 
   @Test
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transform;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the cost of updating a transform status counter with the synchronized counter it
+ * replaces. The "uncontended" benchmarks have a single writer, the "polled" groups add a reader
+ * thread like the GUI or the status servlet, the "shared" groups have several writers.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TransformStatusCounterBenchmark {
+
+  private final Object lock = new Object();
+  private long synchronizedValue;
+
+  private final TransformStatusCounter counter = new TransformStatusCounter();
+
+  private long synchronizedIncrement() {
+    synchronized (lock) {
+      return ++synchronizedValue;
+    }
+  }
+
+  private long synchronizedGet() {
+    synchronized (lock) {
+      return synchronizedValue;
+    }
+  }
+
+  @Benchmark
+  @Group("uncontendedSynchronized")
+  public long uncontendedSynchronized() {
+    return synchronizedIncrement();
+  }
+
+  @Benchmark
+  @Group("uncontendedCounter")
+  public long uncontendedCounter() {
+    return counter.increment();
+  }
+
+  @Benchmark
+  @Group("polledSynchronized")
+  @GroupThreads(1)
+  public long polledSynchronizedWriter() {
+    return synchronizedIncrement();
+  }
+
+  @Benchmark
+  @Group("polledSynchronized")
+  @GroupThreads(1)
+  public long polledSynchronizedReader() {
+    return synchronizedGet();
+  }
+
+  @Benchmark
+  @Group("polledCounter")
+  @GroupThreads(1)
+  public long polledCounterWriter() {
+    return counter.increment();
+  }
+
+  @Benchmark
+  @Group("polledCounter")
+  @GroupThreads(1)
+  public long polledCounterReader() {
+    return counter.get();
+  }
+
+  @Benchmark
+  @Group("sharedSynchronized")
+  @GroupThreads(4)
+  public long sharedSynchronized() {
+    return synchronizedIncrement();
+  }
+
+  @Benchmark
+  @Group("sharedCounter")
+  @GroupThreads(4)
+  public long sharedCounter() {
+    return counter.increment();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+            new OptionsBuilder()
+                .include(TransformStatusCounterBenchmark.class.getSimpleName())
+                .build())
+        .run();
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transform;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class TransformStatusCounterTest {
+
+  @Test
+  public void testSingleThread() {
+    TransformStatusCounter counter = new TransformStatusCounter();
+    assertEquals(0L, counter.get());
+    assertEquals(1L, counter.increment());
+    assertEquals(2L, counter.increment());
+    assertEquals(102L, counter.add(100L));
+    assertEquals(101L, counter.decrement());
+    assertEquals(101L, counter.get());
+
+    counter.set(5L);
+    assertEquals(5L, counter.get());
+    assertEquals(6L, counter.increment());
+  }
+
+  /** Updates from threads other than the owner should never get lost. */
+  @Test
+  public void testMultipleWriters() throws Exception {
+    final TransformStatusCounter counter = new TransformStatusCounter();
+    final int nrThreads = 4;
+    final int nrIncrements = 100_000;
+
+    Thread[] threads = new Thread[nrThreads];
+    for (int i = 0; i < nrThreads; i++) {
+      threads[i] =
+          new Thread(
+              () -> {
+                for (int n = 0; n < nrIncrements; n++) {
+                  counter.increment();
+                }
+              });
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals((long) nrThreads * nrIncrements, counter.get());
+
+    // A reset releases the ownership, the counter can be claimed by another thread
+    //
+    counter.reset();
+    Thread writer = new Thread(() -> counter.add(10L));
+    writer.start();
+    writer.join();
+    assertEquals(11L, counter.increment());
+  }
+
+  /** Setting the counter from another thread doesn't lose the updates of the owner. */
+  @Test
+  public void testSetWhileOwnerUpdates() throws Exception {
+    final int nrIncrements = 10_000;
+    for (int attempt = 0; attempt < 200; attempt++) {
+      final TransformStatusCounter counter = new TransformStatusCounter();
+      Thread owner =
+          new Thread(
+              () -> {
+                for (int n = 0; n < nrIncrements; n++) {
+                  counter.increment();
+                }
+              });
+      owner.start();
+      while (counter.get() < nrIncrements / 2 && owner.isAlive()) {
+        Thread.onSpinWait();
+      }
+      counter.set(-1_000_000L);
+      owner.join();
+
+      // Only the increments after the new value are counted on top of it
+      //
+      long value = counter.get();
+      assertTrue("Lost the new value: " + value, value < 0L);
+      assertTrue("Lost increments: " + value, value >= -1_000_000L);
+    }
+  }
+}
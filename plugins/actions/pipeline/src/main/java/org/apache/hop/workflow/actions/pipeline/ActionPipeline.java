@@ -23,6 +23,7 @@ import java.util.Calendar;
 import java.util.List;
 import java.util.Map;
 import org.apache.commons.lang.StringUtils;
+import org.apache.hop.base.MetaFileCache;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.ICheckResult;
 import org.apache.hop.core.Result;
@@ -632,7 +633,8 @@ public class ActionPipeline extends ActionBase implements Cloneable, IAction {
 
       String realFilename = tmpSpace.resolve(getFilename());
 
-      pipelineMeta = new PipelineMeta(realFilename, metadataProvider, this);
+      pipelineMeta =
+          MetaFileCache.getInstance().loadPipelineMeta(realFilename, metadataProvider, this);
 
       if (pipelineMeta != null) {
         // Pass the metadata references
@@ -290,4 +290,15 @@ public class H2DatabaseMeta extends BaseDatabaseMeta implements IDatabase {
   public boolean isSupportsPreparedStatementMetadataRetrieval() {
     return false;
   }
+
+  @Override
+  public String getSqlCreateStagingTable(String stagingTable, String schemaTable, String columns) {
+    return "CREATE LOCAL TEMPORARY TABLE "
+        + stagingTable
+        + " AS SELECT "
+        + columns
+        + " FROM "
+        + schemaTable
+        + " WHERE 1 = 0";
+  }
 }
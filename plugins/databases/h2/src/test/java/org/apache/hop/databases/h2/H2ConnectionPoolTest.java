@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.databases.h2;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+import org.apache.hop.core.HopClientEnvironment;
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.database.DatabaseMeta;
+import org.apache.hop.core.database.DatabasePluginType;
+import org.apache.hop.core.database.pool.DatabaseConnectionPool;
+import org.apache.hop.core.database.pool.DatabaseConnectionPoolMap;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.LoggingObject;
+import org.apache.hop.core.variables.Variables;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/** Pooled connections of a database connection, against an embedded H2 database */
+class H2ConnectionPoolTest {
+  private static final String PASSWORD = "pool-secret";
+
+  @BeforeAll
+  static void setUpBeforeClass() throws HopException {
+    HopClientEnvironment.init();
+    DatabasePluginType.getInstance().registerClassPathPlugin(H2DatabaseMeta.class);
+  }
+
+  @AfterEach
+  void tearDown() {
+    DatabaseConnectionPoolMap.getInstance().closeAll();
+  }
+
+  @Test
+  void testConnectionIsReused() throws Exception {
+    DatabaseMeta databaseMeta = createDatabaseMeta("reuse", "sa");
+
+    Database database = connect(databaseMeta);
+    database.execStatement("CREATE TABLE pool_test (id INT)");
+    database.execStatement("INSERT INTO pool_test VALUES (1)");
+    database.disconnect();
+
+    database = connect(databaseMeta);
+    assertEquals(1L, database.getOneRow("SELECT COUNT(*) FROM pool_test").getInteger(0));
+    database.disconnect();
+
+    DatabaseConnectionPool pool = getPool("reuse");
+    assertEquals(1L, pool.getCreatedCount());
+    assertEquals(2L, pool.getBorrowCount());
+    assertEquals(1, pool.getIdleConnections());
+    assertEquals(0, pool.getActiveConnections());
+  }
+
+  @Test
+  void testStatementsAreClosedOnReturn() throws Exception {
+    DatabaseMeta databaseMeta = createDatabaseMeta("statements", "sa");
+
+    Database database = connect(databaseMeta);
+    Statement statement = database.getConnection().createStatement();
+    ResultSet resultSet = statement.executeQuery("SELECT 1");
+    database.disconnect();
+
+    assertTrue(statement.isClosed());
+    assertTrue(resultSet.isClosed());
+
+    // The physical connection is still open and handed out again
+    database = connect(databaseMeta);
+    assertFalse(database.getConnection().isClosed());
+    database.disconnect();
+    assertEquals(1L, getPool("statements").getCreatedCount());
+  }
+
+  @Test
+  void testConnectionIsResetOnReturn() throws Exception {
+    DatabaseMeta databaseMeta = createDatabaseMeta("reset", "sa");
+
+    Database database = connect(databaseMeta);
+    database.execStatement("CREATE TABLE reset_test (id INT)");
+    Connection connection = database.getConnection();
+    int isolation = connection.getTransactionIsolation();
+    connection.setAutoCommit(false);
+    connection.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("INSERT INTO reset_test VALUES (1)");
+    }
+    // Give the connection back without going through the commit of Database.disconnect()
+    connection.close();
+
+    database = connect(databaseMeta);
+    connection = database.getConnection();
+    assertTrue(connection.getAutoCommit());
+    assertEquals(isolation, connection.getTransactionIsolation());
+    assertEquals(0L, database.getOneRow("SELECT COUNT(*) FROM reset_test").getInteger(0));
+    database.disconnect();
+  }
+
+  @Test
+  void testPoolPerUser() throws Exception {
+    Database database = connect(createDatabaseMeta("users", "sa"));
+    database.execStatement("CREATE USER other PASSWORD '" + PASSWORD + "' ADMIN");
+    database.disconnect();
+
+    connect(createDatabaseMeta("users", "other")).disconnect();
+    connect(createDatabaseMeta("users", "sa")).disconnect();
+
+    List<DatabaseConnectionPool> pools =
+        DatabaseConnectionPoolMap.getInstance().getPools().stream()
+            .filter(pool -> "users".equals(pool.getName()))
+            .toList();
+    assertEquals(2, pools.size());
+  }
+
+  private static DatabaseMeta createDatabaseMeta(String name, String user) {
+    DatabaseMeta databaseMeta =
+        new DatabaseMeta(
+            name, "H2", "Native", null, "mem:" + name + ";DB_CLOSE_DELAY=-1", null, user, PASSWORD);
+    databaseMeta.setUsingConnectionPool(true);
+    return databaseMeta;
+  }
+
+  private static Database connect(DatabaseMeta databaseMeta) throws HopException {
+    Database database =
+        new Database(new LoggingObject("H2ConnectionPoolTest"), new Variables(), databaseMeta);
+    database.connect();
+    return database;
+  }
+
+  private static DatabaseConnectionPool getPool(String name) {
+    return DatabaseConnectionPoolMap.getInstance().getPools().stream()
+        .filter(pool -> name.equals(pool.getName()))
+        .findFirst()
+        .orElseThrow();
+  }
+}
@@ -18,6 +18,7 @@
 package org.apache.hop.databases.mssql;
 
 import java.sql.ResultSet;
+import java.util.List;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.database.BaseDatabaseMeta;
 import org.apache.hop.core.database.Database;
@@ -916,4 +917,28 @@ public class MsSqlServerDatabaseMeta extends BaseDatabaseMeta implements IDataba
   public void addDefaultOptions() {
     setSupportsBooleanDataType(true);
   }
+
+  /** Local temporary tables start with # */
+  @Override
+  public String getStagingTableName(String name) {
+    return "#" + name;
+  }
+
+  @Override
+  public String getSqlCreateStagingTable(String stagingTable, String schemaTable, String columns) {
+    return "SELECT " + columns + " INTO " + stagingTable + " FROM " + schemaTable + " WHERE 1 = 0";
+  }
+
+  /** SQL Server requires a MERGE statement to end with a semicolon */
+  @Override
+  public String getSqlMergeFromStagingTable(
+      String schemaTable,
+      String stagingTable,
+      List<String> keyColumns,
+      List<String> insertColumns,
+      List<String> updateColumns) {
+    return super.getSqlMergeFromStagingTable(
+            schemaTable, stagingTable, keyColumns, insertColumns, updateColumns)
+        + ";";
+  }
 }
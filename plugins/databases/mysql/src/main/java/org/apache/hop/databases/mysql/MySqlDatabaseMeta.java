@@ -787,4 +787,36 @@ public class MySqlDatabaseMeta extends BaseDatabaseMeta implements IDatabase {
     names.add("Mysql");
     return names;
   }
+
+  /**
+   * INSERT ... ON DUPLICATE KEY UPDATE, the key columns need a unique index. MySQL doesn't write
+   * the rows which don't change.
+   */
+  @Override
+  public String getSqlMergeFromStagingTable(
+      String schemaTable,
+      String stagingTable,
+      List<String> keyColumns,
+      List<String> insertColumns,
+      List<String> updateColumns) {
+    StringBuilder sql = new StringBuilder();
+    String columns = String.join(", ", insertColumns);
+    sql.append("INSERT INTO ").append(schemaTable).append(" (").append(columns);
+    sql.append(") SELECT ").append(getSqlPrefixedColumns(insertColumns, "s."));
+    sql.append(" FROM ").append(stagingTable).append(" s ON DUPLICATE KEY UPDATE ");
+    if (updateColumns.isEmpty()) {
+      // Leave the existing rows alone
+      String key = schemaTable + "." + keyColumns.get(0);
+      sql.append(key).append(" = ").append(key);
+    } else {
+      sql.append(getSqlUpdateAssignments(updateColumns, "s."));
+    }
+    return sql.toString();
+  }
+
+  /** TRUNCATE commits implicitly on MySQL, a failing batch couldn't be rolled back */
+  @Override
+  public String getSqlClearStagingTable(String stagingTable) {
+    return "DELETE FROM " + stagingTable;
+  }
 }
@@ -716,6 +716,12 @@ class MySqlDatabaseMetaTest {
                 .getLegacyColumnName(databaseMetaData, getResultSetMetaDataException(), 1));
   }
 
+  @Test
+  void testClearStagingTable() {
+    // TRUNCATE would commit the merge transaction
+    assertEquals("DELETE FROM STG", nativeMeta.getSqlClearStagingTable("STG"));
+  }
+
   @Test
   void testReleaseSavepoint() {
     assertFalse(nativeMeta.isReleaseSavepoint());
@@ -18,6 +18,7 @@
 package org.apache.hop.databases.oracle;
 
 import java.sql.ResultSet;
+import java.util.List;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.database.BaseDatabaseMeta;
 import org.apache.hop.core.database.Database;
@@ -779,4 +780,48 @@ public class OracleDatabaseMeta extends BaseDatabaseMeta implements IDatabase {
     setSupportsBooleanDataType(true);
     setSupportsTimestampDataType(true);
   }
+
+  /** Private temporary tables (Oracle 18c and later) need the ORA$PTT_ prefix */
+  @Override
+  public String getStagingTableName(String name) {
+    return "ORA$PTT_" + name;
+  }
+
+  @Override
+  public String getSqlCreateStagingTable(String stagingTable, String schemaTable, String columns) {
+    return "CREATE PRIVATE TEMPORARY TABLE "
+        + stagingTable
+        + " ON COMMIT PRESERVE DEFINITION AS SELECT "
+        + columns
+        + " FROM "
+        + schemaTable
+        + " WHERE 1 = 0";
+  }
+
+  /** Oracle has no condition on WHEN MATCHED, the update has a WHERE clause instead */
+  @Override
+  public String getSqlMergeFromStagingTable(
+      String schemaTable,
+      String stagingTable,
+      List<String> keyColumns,
+      List<String> insertColumns,
+      List<String> updateColumns) {
+    StringBuilder sql = new StringBuilder();
+    sql.append("MERGE INTO ").append(schemaTable).append(" t USING ").append(stagingTable);
+    sql.append(" s ON (").append(getSqlJoinCondition(keyColumns)).append(")");
+    if (!updateColumns.isEmpty()) {
+      sql.append(" WHEN MATCHED THEN UPDATE SET ");
+      sql.append(getSqlUpdateAssignments(updateColumns, "s."));
+      sql.append(" WHERE ").append(getSqlChangedCondition(updateColumns, "s."));
+    }
+    sql.append(" WHEN NOT MATCHED THEN INSERT (").append(String.join(", ", insertColumns));
+    sql.append(") VALUES (").append(getSqlPrefixedColumns(insertColumns, "s.")).append(")");
+    return sql.toString();
+  }
+
+  /** TRUNCATE is DDL on Oracle and commits, a failing batch couldn't be rolled back */
+  @Override
+  public String getSqlClearStagingTable(String stagingTable) {
+    return "DELETE FROM " + stagingTable;
+  }
 }
@@ -389,6 +389,8 @@ class OracleDatabaseMetaTest {
     assertEquals(
         "BEGIN EXECUTE IMMEDIATE 'DROP TABLE FOO'; EXCEPTION WHEN OTHERS THEN IF SQLCODE != -942 THEN RAISE; END IF; END;",
         nativeMeta.getDropTableIfExistsStatement("FOO"));
+    // TRUNCATE would commit the merge transaction
+    assertEquals("DELETE FROM STG", nativeMeta.getSqlClearStagingTable("STG"));
   }
 
   @Test
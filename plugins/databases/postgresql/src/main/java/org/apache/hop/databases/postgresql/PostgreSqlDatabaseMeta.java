@@ -17,6 +17,7 @@
 
 package org.apache.hop.databases.postgresql;
 
+import java.util.List;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.database.BaseDatabaseMeta;
 import org.apache.hop.core.database.DatabaseMeta;
@@ -1115,4 +1116,33 @@ public class PostgreSqlDatabaseMeta extends BaseDatabaseMeta implements IDatabas
     setSupportsBooleanDataType(true);
     setSupportsTimestampDataType(true);
   }
+
+  /** INSERT ... ON CONFLICT, the key columns need a unique index or constraint. */
+  @Override
+  public String getSqlMergeFromStagingTable(
+      String schemaTable,
+      String stagingTable,
+      List<String> keyColumns,
+      List<String> insertColumns,
+      List<String> updateColumns) {
+    StringBuilder sql = new StringBuilder();
+    String columns = String.join(", ", insertColumns);
+    sql.append("INSERT INTO ").append(schemaTable).append(" AS t (").append(columns);
+    sql.append(") SELECT ").append(columns).append(" FROM ").append(stagingTable);
+    sql.append(" ON CONFLICT (").append(String.join(", ", keyColumns)).append(")");
+    if (updateColumns.isEmpty()) {
+      sql.append(" DO NOTHING");
+    } else {
+      sql.append(" DO UPDATE SET ").append(getSqlUpdateAssignments(updateColumns, "EXCLUDED."));
+      sql.append(" WHERE ");
+      for (int i = 0; i < updateColumns.size(); i++) {
+        if (i > 0) {
+          sql.append(" OR ");
+        }
+        String column = updateColumns.get(i);
+        sql.append("t.").append(column).append(" IS DISTINCT FROM EXCLUDED.").append(column);
+      }
+    }
+    return sql.toString();
+  }
 }
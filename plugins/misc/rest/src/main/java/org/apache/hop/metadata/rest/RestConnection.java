@@ -61,7 +61,6 @@ import org.glassfish.jersey.client.authentication.HttpAuthenticationFeature;
 public class RestConnection extends HopMetadataBase implements IHopMetadata {
 
   private IVariables variables;
-  private ClientBuilder builder;
   private Client client;
   private transient ILogChannel log;
 
@@ -132,8 +131,21 @@ public class RestConnection extends HopMetadataBase implements IHopMetadata {
   }
 
   public Invocation.Builder getInvocationBuilder(String url) throws HopException {
+    client = createClient();
+    return getInvocationBuilder(client, url);
+  }
+
+  /**
+   * Builds a client with the SSL and basic authentication settings of this connection. The client
+   * can be kept to make many calls with {@link #getInvocationBuilder(Client, String)}, the caller
+   * closes it.
+   *
+   * @return a new client
+   * @throws HopException if the SSL configuration fails
+   */
+  public Client createClient() throws HopException {
 
-    builder = ClientBuilder.newBuilder();
+    ClientBuilder builder = ClientBuilder.newBuilder();
 
     // Configure SSL if needed (client cert, trust store, or ignore SSL)
     if (needsSslConfiguration()) {
@@ -165,10 +177,7 @@ public class RestConnection extends HopMetadataBase implements IHopMetadata {
       }
     }
 
-    client = builder.build();
-
-    WebTarget target = client.target(url);
-    Invocation.Builder invocationBuilder = target.request();
+    Client newClient = builder.build();
 
     // backwards compatibility with early version of this metadata type.
     if (StringUtils.isEmpty(authType)) {
@@ -180,19 +189,29 @@ public class RestConnection extends HopMetadataBase implements IHopMetadata {
       }
     }
 
-    if (authType.equals("No Auth")) {
-      // Nothing required
+    if (authType.equals("Basic")
+        && !StringUtils.isEmpty(username)
+        && !StringUtils.isEmpty(password)) {
+      newClient.register(
+          HttpAuthenticationFeature.basic(
+              resolve(username), Encr.decryptPasswordOptionallyEncrypted(resolve(password))));
     }
-    if (authType.equals("Basic")) {
-      if (!StringUtils.isEmpty(username) && !StringUtils.isEmpty(password)) {
-
-        client.register(
-            HttpAuthenticationFeature.basic(
-                resolve(username), Encr.decryptPasswordOptionallyEncrypted(resolve(password))));
-        target = client.target(url);
-        invocationBuilder = target.request();
-      }
-    } else if (authType.equals("API Key")) {
+    return newClient;
+  }
+
+  /**
+   * Prepares a call with a client built by {@link #createClient()}, with the authentication headers
+   * of this connection.
+   *
+   * @param client the client to call with
+   * @param url the url to call
+   * @return the builder of the call
+   */
+  public Invocation.Builder getInvocationBuilder(Client client, String url) {
+    WebTarget target = client.target(url);
+    Invocation.Builder invocationBuilder = target.request();
+
+    if ("API Key".equals(authType)) {
       if (!StringUtils.isEmpty(resolve(authorizationPrefix))) {
         invocationBuilder.header(
             resolve(authorizationHeaderName),
@@ -204,7 +223,7 @@ public class RestConnection extends HopMetadataBase implements IHopMetadata {
             resolve(authorizationHeaderName),
             Encr.decryptPasswordOptionallyEncrypted(resolve(authorizationHeaderValue)));
       }
-    } else if (authType.equals("Bearer")) {
+    } else if ("Bearer".equals(authType)) {
       if (!StringUtils.isEmpty(bearerToken)) {
         invocationBuilder.header(HttpHeaders.AUTHORIZATION, "Bearer " + resolve(bearerToken));
       }
@@ -18,13 +18,29 @@
 package org.apache.hop.metadata.rest;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import com.sun.net.httpserver.HttpServer;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.core.Response;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.apache.hop.core.HopClientEnvironment;
+import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.variables.Variables;
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
 class RestTest {
 
+  @BeforeAll
+  static void setUpBeforeClass() throws HopException {
+    HopClientEnvironment.init();
+  }
+
   @Test
   @Disabled
   void testRestConnection() {
@@ -36,4 +52,42 @@ class RestTest {
 
     assertDoesNotThrow(restConnection::testConnection);
   }
+
+  /** One client of the connection makes several calls, each with the headers of the connection */
+  @Test
+  void testClientReusedForCalls() throws Exception {
+    List<String> headers = new CopyOnWriteArrayList<>();
+    HttpServer server =
+        HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext(
+        "/",
+        exchange -> {
+          headers.add(exchange.getRequestHeaders().getFirst("X-Api-Key"));
+          exchange.sendResponseHeaders(204, -1);
+          exchange.close();
+        });
+    server.start();
+    try {
+      RestConnection restConnection = new RestConnection(Variables.getADefaultVariableSpace());
+      restConnection.setAuthorizationHeaderName("X-Api-Key");
+      restConnection.setAuthorizationHeaderValue("secret");
+      String url = "http://localhost:" + server.getAddress().getPort() + "/";
+
+      Client client = restConnection.createClient();
+      try {
+        for (int i = 0; i < 2; i++) {
+          try (Response response = restConnection.getInvocationBuilder(client, url).get()) {
+            assertEquals(204, response.getStatus());
+          }
+        }
+      } finally {
+        client.close();
+      }
+      // An early connection without an authentication type uses its API key
+      assertEquals("API Key", restConnection.getAuthType());
+      assertEquals(List.of("secret", "secret"), headers);
+    } finally {
+      server.stop(0);
+    }
+  }
 }
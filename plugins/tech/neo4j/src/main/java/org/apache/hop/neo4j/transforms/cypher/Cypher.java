@@ -342,10 +342,10 @@ public class Cypher extends BaseTransform<CypherMeta, CypherData> {
         try {
           if (meta.isReadOnly()) {
             nrProcessed = data.session.executeRead(transactionWork);
-            setLinesInput(getLinesInput() + data.cypherStatements.size());
+            incrementLinesInput(data.cypherStatements.size());
           } else {
             nrProcessed = data.session.executeWrite(transactionWork);
-            setLinesOutput(getLinesOutput() + data.cypherStatements.size());
+            incrementLinesOutput(data.cypherStatements.size());
           }
           // If all went as expected we can stop retrying...
           //
@@ -430,7 +430,7 @@ public class Cypher extends BaseTransform<CypherMeta, CypherData> {
       setOutputDone();
       throw new HopException("Unexpected error writing unwind list to Neo4j", e);
     }
-    setLinesOutput(getLinesOutput() + data.unwindList.size());
+    incrementLinesOutput(data.unwindList.size());
     data.unwindList.clear();
     data.outputCount = 0;
     return resultRows;
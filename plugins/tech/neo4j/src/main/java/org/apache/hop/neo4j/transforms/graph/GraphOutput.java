@@ -630,7 +630,7 @@ public class GraphOutput extends BaseNeoTransform<GraphOutputMeta, GraphOutputDa
         //
         break;
       } else {
-        setLinesOutput(getLinesOutput() + unwindList.size());
+        incrementLinesOutput(unwindList.size());
       }
     }
 
@@ -528,7 +528,7 @@ public class Neo4JOutput extends BaseNeoTransform<Neo4JOutputMeta, Neo4JOutputDa
             return null;
           });
 
-      setLinesOutput(getLinesOutput() + data.unwindList.size());
+      incrementLinesOutput(data.unwindList.size());
 
       // Clear the list
       //
@@ -0,0 +1,387 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.parquet.transforms.input;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.commons.lang.StringUtils;
+import org.apache.hop.core.Condition;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.parquet.filter2.predicate.FilterApi;
+import org.apache.parquet.filter2.predicate.FilterPredicate;
+import org.apache.parquet.filter2.predicate.Operators.BinaryColumn;
+import org.apache.parquet.filter2.predicate.Operators.BooleanColumn;
+import org.apache.parquet.filter2.predicate.Operators.DoubleColumn;
+import org.apache.parquet.filter2.predicate.Operators.IntColumn;
+import org.apache.parquet.filter2.predicate.Operators.LongColumn;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.IntLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.StringLogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Type;
+
+/**
+ * Translates a Hop {@link Condition} on the output fields of the Parquet File Input transform into
+ * a Parquet {@link FilterPredicate}. Parquet uses the predicate to skip row groups and pages based
+ * on their statistics and dictionaries and to drop non-matching records.
+ *
+ * <p>The predicate is never more strict than the condition: every row that satisfies the condition
+ * also satisfies the predicate. Parts of the condition which can't be translated (other functions,
+ * comparisons between fields, fields which don't come from the file, conversions which Parquet
+ * can't express) are simply left out. The transform evaluates the complete condition on the rows it
+ * reads anyway.
+ */
+public class ParquetFilterBuilder {
+
+  private final IRowMeta rowMeta;
+  private final int firstFieldIndex;
+  private final List<ParquetField> fields;
+  private final MessageType schema;
+
+  /**
+   * @param rowMeta The output row metadata of the transform
+   * @param firstFieldIndex The index of the first Parquet field in the output row
+   * @param fields The Parquet fields which are read
+   * @param schema The schema of the file to read
+   */
+  public ParquetFilterBuilder(
+      IRowMeta rowMeta, int firstFieldIndex, List<ParquetField> fields, MessageType schema) {
+    this.rowMeta = rowMeta;
+    this.firstFieldIndex = firstFieldIndex;
+    this.fields = fields;
+    this.schema = schema;
+  }
+
+  /**
+   * Build a predicate for the given condition.
+   *
+   * @param condition The condition to translate
+   * @return The predicate or null if no part of the condition can be pushed down to Parquet.
+   */
+  public FilterPredicate buildFilter(Condition condition) {
+    if (condition == null || condition.isEmpty()) {
+      return null;
+    }
+    return translate(condition).relaxed;
+  }
+
+  /**
+   * The translation of a condition: a predicate which is implied by the condition and, if possible,
+   * a predicate which matches exactly the same rows. A null relaxed predicate matches all rows, a
+   * null exact predicate means there is no exact translation.
+   */
+  private static final class Translation {
+    private static final Translation NONE = new Translation(null, null);
+
+    private final FilterPredicate relaxed;
+    private final FilterPredicate exact;
+
+    private Translation(FilterPredicate relaxed, FilterPredicate exact) {
+      this.relaxed = relaxed;
+      this.exact = exact;
+    }
+
+    private static Translation exact(FilterPredicate predicate) {
+      return predicate == null ? NONE : new Translation(predicate, predicate);
+    }
+
+    private Translation negate() {
+      return exact == null ? NONE : exact(FilterApi.not(exact));
+    }
+  }
+
+  private Translation translate(Condition condition) {
+    Translation translation;
+    if (condition.isAtomic()) {
+      translation = Translation.exact(translateAtomic(condition));
+      return condition.isNegated() ? translation.negate() : translation;
+    }
+
+    List<Condition> children = condition.getChildren();
+    translation = translate(children.get(0));
+    for (int i = 1; i < children.size(); i++) {
+      Condition child = children.get(i);
+      Translation right = translate(child);
+      translation =
+          switch (child.getOperator()) {
+            case AND -> and(translation, right);
+            case AND_NOT -> and(translation, right.negate());
+            case OR -> or(translation, right);
+            case OR_NOT -> or(translation, right.negate());
+            case XOR -> xor(translation, right);
+            default -> translation;
+          };
+    }
+    return condition.isNegated() ? translation.negate() : translation;
+  }
+
+  private static Translation and(Translation left, Translation right) {
+    FilterPredicate relaxed;
+    if (left.relaxed == null) {
+      relaxed = right.relaxed;
+    } else if (right.relaxed == null) {
+      relaxed = left.relaxed;
+    } else {
+      relaxed = FilterApi.and(left.relaxed, right.relaxed);
+    }
+    FilterPredicate exact = null;
+    if (left.exact != null && right.exact != null) {
+      exact = FilterApi.and(left.exact, right.exact);
+    }
+    return new Translation(relaxed, exact);
+  }
+
+  private static Translation or(Translation left, Translation right) {
+    FilterPredicate relaxed = null;
+    if (left.relaxed != null && right.relaxed != null) {
+      relaxed = FilterApi.or(left.relaxed, right.relaxed);
+    }
+    FilterPredicate exact = null;
+    if (left.exact != null && right.exact != null) {
+      exact = FilterApi.or(left.exact, right.exact);
+    }
+    return new Translation(relaxed, exact);
+  }
+
+  private static Translation xor(Translation left, Translation right) {
+    if (left.exact == null || right.exact == null) {
+      return Translation.NONE;
+    }
+    return Translation.exact(
+        FilterApi.or(
+            FilterApi.and(left.exact, FilterApi.not(right.exact)),
+            FilterApi.and(FilterApi.not(left.exact), right.exact)));
+  }
+
+  /**
+   * Translate a single comparison of a field with a constant.
+   *
+   * @return The exact predicate or null if it can't be translated.
+   */
+  private FilterPredicate translateAtomic(Condition condition) {
+    if (StringUtils.isEmpty(condition.getLeftValueName())
+        || StringUtils.isNotEmpty(condition.getRightValueName())) {
+      return null;
+    }
+
+    // The field needs to be one of the fields read from the file
+    //
+    int rowIndex = rowMeta.indexOfValue(condition.getLeftValueName());
+    if (rowIndex < firstFieldIndex || rowIndex - firstFieldIndex >= fields.size()) {
+      return null;
+    }
+    String column = fields.get(rowIndex - firstFieldIndex).getSourceField();
+    if (StringUtils.isEmpty(column) || column.contains(".") || !schema.containsField(column)) {
+      return null;
+    }
+    Type type = schema.getType(column);
+    if (!type.isPrimitive() || type.isRepetition(Type.Repetition.REPEATED)) {
+      return null;
+    }
+    PrimitiveType primitiveType = type.asPrimitiveType();
+    IValueMeta valueMeta = rowMeta.getValueMeta(rowIndex);
+
+    try {
+      Condition.Function function = condition.getFunction();
+      if (function == Condition.Function.IN_LIST) {
+        return translateInList(column, primitiveType, valueMeta, condition);
+      }
+
+      // Nulls are only translated for types where Hop and Parquet agree on what a null is.
+      // An empty string is a null value in Hop.
+      //
+      if (function == Condition.Function.NULL || function == Condition.Function.NOT_NULL) {
+        if (valueMeta.isString()) {
+          return null;
+        }
+        return translateComparison(
+            column,
+            primitiveType,
+            valueMeta,
+            function == Condition.Function.NULL
+                ? Condition.Function.EQUAL
+                : Condition.Function.NOT_EQUAL,
+            null);
+      }
+
+      if (condition.getRightValue() == null) {
+        return null;
+      }
+      IValueMeta constantMeta = condition.getRightValue().createValueMeta();
+      Object constant = condition.getRightValue().createValueData();
+      if (constantMeta.isNull(constant)) {
+        return null;
+      }
+
+      // Hop converts the constant to the data type of the field before comparing
+      //
+      Object value = valueMeta.convertData(constantMeta, constant);
+      if (value == null) {
+        return null;
+      }
+      return translateComparison(column, primitiveType, valueMeta, function, value);
+    } catch (Exception e) {
+      // Can't be translated: the condition will be evaluated on the rows
+      return null;
+    }
+  }
+
+  @SuppressWarnings("java:S3776")
+  private FilterPredicate translateComparison(
+      String column,
+      PrimitiveType primitiveType,
+      IValueMeta valueMeta,
+      Condition.Function function,
+      Object value) {
+    LogicalTypeAnnotation logicalType = primitiveType.getLogicalTypeAnnotation();
+    switch (primitiveType.getPrimitiveTypeName()) {
+      case INT64:
+        if (!valueMeta.isInteger() || !isSignedInteger(logicalType)) {
+          return null;
+        }
+        return compare(FilterApi.longColumn(column), function, (Long) value);
+      case INT32:
+        if (!valueMeta.isInteger() || !isSignedInteger(logicalType)) {
+          return null;
+        }
+        Integer intValue = null;
+        if (value != null) {
+          long longValue = (Long) value;
+          if (longValue < Integer.MIN_VALUE || longValue > Integer.MAX_VALUE) {
+            return null;
+          }
+          intValue = (int) longValue;
+        }
+        return compare(FilterApi.intColumn(column), function, intValue);
+      case DOUBLE:
+        if (!valueMeta.isNumber() || logicalType != null) {
+          return null;
+        }
+        return compare(FilterApi.doubleColumn(column), function, (Double) value);
+      case BOOLEAN:
+        if (!valueMeta.isBoolean()) {
+          return null;
+        }
+        return equality(FilterApi.booleanColumn(column), function, (Boolean) value);
+      case BINARY:
+        if (!valueMeta.isString() || !(logicalType instanceof StringLogicalTypeAnnotation)) {
+          return null;
+        }
+        // Parquet compares the UTF-8 bytes: only equality gives the same result as Hop
+        //
+        return equality(
+            FilterApi.binaryColumn(column),
+            function,
+            value == null ? null : Binary.fromString((String) value));
+      default:
+        return null;
+    }
+  }
+
+  private FilterPredicate translateInList(
+      String column, PrimitiveType primitiveType, IValueMeta valueMeta, Condition condition)
+      throws Exception {
+    // Hop compares the string representation of the field with the list of strings, we only
+    // push this down for string columns.
+    //
+    if (!valueMeta.isString()
+        || primitiveType.getPrimitiveTypeName() != PrimitiveType.PrimitiveTypeName.BINARY
+        || !(primitiveType.getLogicalTypeAnnotation() instanceof StringLogicalTypeAnnotation)
+        || condition.getRightValue() == null) {
+      return null;
+    }
+    IValueMeta listMeta = condition.getRightValue().createValueMeta();
+    String list = listMeta.getString(condition.getRightValue().createValueData());
+    if (list == null) {
+      return null;
+    }
+    Set<Binary> values = new HashSet<>();
+    for (String item : Const.splitString(list, ';', true)) {
+      if (StringUtils.isEmpty(item)) {
+        return null;
+      }
+      values.add(Binary.fromString(item.replace("\\", "")));
+    }
+    return FilterApi.in(FilterApi.binaryColumn(column), values);
+  }
+
+  private static boolean isSignedInteger(LogicalTypeAnnotation logicalType) {
+    return logicalType == null
+        || (logicalType instanceof IntLogicalTypeAnnotation intType && intType.isSigned());
+  }
+
+  private static FilterPredicate compare(LongColumn column, Condition.Function function, Long v) {
+    return switch (function) {
+      case EQUAL -> FilterApi.eq(column, v);
+      case NOT_EQUAL -> FilterApi.notEq(column, v);
+      case SMALLER -> v == null ? null : FilterApi.lt(column, v);
+      case SMALLER_EQUAL -> v == null ? null : FilterApi.ltEq(column, v);
+      case LARGER -> v == null ? null : FilterApi.gt(column, v);
+      case LARGER_EQUAL -> v == null ? null : FilterApi.gtEq(column, v);
+      default -> null;
+    };
+  }
+
+  private static FilterPredicate compare(IntColumn column, Condition.Function function, Integer v) {
+    return switch (function) {
+      case EQUAL -> FilterApi.eq(column, v);
+      case NOT_EQUAL -> FilterApi.notEq(column, v);
+      case SMALLER -> v == null ? null : FilterApi.lt(column, v);
+      case SMALLER_EQUAL -> v == null ? null : FilterApi.ltEq(column, v);
+      case LARGER -> v == null ? null : FilterApi.gt(column, v);
+      case LARGER_EQUAL -> v == null ? null : FilterApi.gtEq(column, v);
+      default -> null;
+    };
+  }
+
+  private static FilterPredicate compare(
+      DoubleColumn column, Condition.Function function, Double v) {
+    return switch (function) {
+      case EQUAL -> FilterApi.eq(column, v);
+      case NOT_EQUAL -> FilterApi.notEq(column, v);
+      case SMALLER -> v == null ? null : FilterApi.lt(column, v);
+      case SMALLER_EQUAL -> v == null ? null : FilterApi.ltEq(column, v);
+      case LARGER -> v == null ? null : FilterApi.gt(column, v);
+      case LARGER_EQUAL -> v == null ? null : FilterApi.gtEq(column, v);
+      default -> null;
+    };
+  }
+
+  private static FilterPredicate equality(
+      BooleanColumn column, Condition.Function function, Boolean v) {
+    return switch (function) {
+      case EQUAL -> FilterApi.eq(column, v);
+      case NOT_EQUAL -> FilterApi.notEq(column, v);
+      default -> null;
+    };
+  }
+
+  private static FilterPredicate equality(
+      BinaryColumn column, Condition.Function function, Binary v) {
+    return switch (function) {
+      case EQUAL -> FilterApi.eq(column, v);
+      case NOT_EQUAL -> FilterApi.notEq(column, v);
+      default -> null;
+    };
+  }
+}
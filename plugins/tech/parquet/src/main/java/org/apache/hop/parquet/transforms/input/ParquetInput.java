@@ -17,12 +17,11 @@
 
 package org.apache.hop.parquet.transforms.input;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.vfs2.FileObject;
+import org.apache.hop.core.Condition;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.IRowMeta;
@@ -33,6 +32,11 @@ import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.parquet.filter2.compat.FilterCompat;
+import org.apache.parquet.filter2.predicate.FilterPredicate;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
 
 public class ParquetInput extends BaseTransform<ParquetInputMeta, ParquetInputData> {
   public ParquetInput(
@@ -45,6 +49,37 @@ public class ParquetInput extends BaseTransform<ParquetInputMeta, ParquetInputDa
     super(transformMeta, meta, data, copyNr, pipelineMeta, pipeline);
   }
 
+  @Override
+  public boolean init() {
+    if (!super.init()) {
+      return false;
+    }
+
+    // Every copy compiles its own condition, a compiled condition is used by one thread
+    //
+    if (meta.getCondition() != null && !meta.getCondition().isEmpty()) {
+      data.condition = new Condition(meta.getCondition());
+      data.filtering = true;
+    }
+
+    data.nrCopies = getTransformMeta().getCopies(this);
+    data.splitting = meta.isSplitRowGroups() && data.nrCopies > 1;
+    if (data.splitting) {
+      // All the copies need to see all the file names to split the row groups between them
+      //
+      for (TransformMeta previous : getPipelineMeta().findPreviousTransforms(getTransformMeta())) {
+        if (previous.isDistributes() || previous.getCopies(this) > 1) {
+          logError(
+              "To split the row groups over the copies of this transform, transform '"
+                  + previous.getName()
+                  + "' needs to run in a single copy and copy its rows to all copies of this transform");
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
   @Override
   public boolean processRow() throws HopException {
     Object[] row = getRow();
@@ -98,26 +133,55 @@ public class ParquetInput extends BaseTransform<ParquetInputMeta, ParquetInputDa
         }
       }
 
-      long size = fileObject.getContent().getSize();
-      data.inputStream = HopVfs.getInputStream(fileObject);
-
-      // Reads the whole file into memory...
+      // Only the footer and the column chunks we need are read from the file
       //
-      ByteArrayOutputStream outputStream = new ByteArrayOutputStream((int) size);
-      IOUtils.copy(data.inputStream, outputStream);
-      ParquetStream inputFile = new ParquetStream(outputStream.toByteArray(), filename);
+      ParquetInputFile inputFile = new ParquetInputFile(fileObject, filename);
 
       ParquetReadSupport readSupport = new ParquetReadSupport(fields);
-      data.reader = new ParquetReaderBuilder<>(readSupport, inputFile).build();
+      ParquetReaderBuilder<RowMetaAndData> builder =
+          new ParquetReaderBuilder<>(readSupport, inputFile);
+
+      if (data.filtering || data.splitting) {
+        ParquetMetadata footer;
+        try (ParquetFileReader fileReader = ParquetFileReader.open(inputFile)) {
+          footer = fileReader.getFooter();
+        }
+        if (data.splitting && !selectRowGroups(builder, footer, inputFile.getLength())) {
+          // No row groups to read in this copy
+          return true;
+        }
+        if (data.filtering) {
+          FilterPredicate predicate =
+              new ParquetFilterBuilder(
+                      data.outputRowMeta,
+                      getInputRowMeta().size(),
+                      fields,
+                      footer.getFileMetaData().getSchema())
+                  .buildFilter(data.condition);
+          if (predicate != null) {
+            builder.withFilter(FilterCompat.get(predicate));
+          }
+        }
+      }
+
+      data.reader = builder.build();
+      data.readerClosed = false;
+
+      if (data.filtering && data.compiledCondition == null) {
+        data.compiledCondition = data.condition.compile(data.outputRowMeta);
+      }
 
       RowMetaAndData r = data.reader.read();
       while (r != null && !isStopped()) {
         // Add r to the input rows...
         //
         Object[] outputRow = RowDataUtil.addRowData(row, getInputRowMeta().size(), r.getData());
-        putRow(data.outputRowMeta, outputRow);
+        if (!data.filtering || data.compiledCondition.evaluate(outputRow)) {
+          putRow(data.outputRowMeta, outputRow);
+        }
         r = data.reader.read();
       }
+      closeFile();
     } catch (Exception e) {
       throw new HopException("Error read file " + filename, e);
     }
@@ -125,11 +189,31 @@ public class ParquetInput extends BaseTransform<ParquetInputMeta, ParquetInputDa
     return true;
   }
 
+  /**
+   * Select the row groups this copy of the transform reads. Every copy reads a contiguous block of
+   * row groups. Parquet reads a row group when the middle of it falls in the given byte range.
+   *
+   * @return false if this copy doesn't need to read any row groups
+   */
+  private boolean selectRowGroups(
+      ParquetReaderBuilder<RowMetaAndData> builder, ParquetMetadata footer, long length) {
+    List<BlockMetaData> blocks = footer.getBlocks();
+    int nrBlocks = blocks.size();
+    int first = (int) ((long) nrBlocks * getCopy() / data.nrCopies);
+    int last = (int) ((long) nrBlocks * (getCopy() + 1) / data.nrCopies);
+    if (first >= last) {
+      return false;
+    }
+    long start = blocks.get(first).getStartingPos();
+    long end = last < nrBlocks ? blocks.get(last).getStartingPos() : length;
+    builder.withFileRange(start, end);
+    return true;
+  }
+
   public void closeFile() {
-    if (!data.readerClosed && data.reader != null && data.inputStream != null) {
+    if (!data.readerClosed && data.reader != null) {
       try {
         data.reader.close();
-        data.inputStream.close();
       } catch (IOException e) {
         logError("Unable to properly close parquet reader!");
       }
@@ -17,7 +17,8 @@
 
 package org.apache.hop.parquet.transforms.input;
 
-import java.io.InputStream;
+import org.apache.hop.core.CompiledCondition;
+import org.apache.hop.core.Condition;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
@@ -30,8 +31,12 @@ public class ParquetInputData extends BaseTransformData implements ITransformDat
   public IRowMeta outputRowMeta;
   public int filenameFieldIndex;
   public ParquetReader<RowMetaAndData> reader;
-  public InputStream inputStream;
   public boolean readerClosed = false;
+  public Condition condition;
+  public CompiledCondition compiledCondition;
+  public boolean filtering;
+  public boolean splitting;
+  public int nrCopies;
 
   public ParquetInputData() {
     super();
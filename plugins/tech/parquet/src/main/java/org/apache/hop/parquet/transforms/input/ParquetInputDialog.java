@@ -17,9 +17,11 @@
 
 package org.apache.hop.parquet.transforms.input;
 
+import org.apache.hop.core.Condition;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.logging.LogChannel;
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.core.row.value.ValueMetaFactory;
 import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.i18n.BaseMessages;
@@ -27,6 +29,7 @@ import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.ui.core.PropsUi;
 import org.apache.hop.ui.core.dialog.BaseDialog;
 import org.apache.hop.ui.core.widget.ColumnInfo;
+import org.apache.hop.ui.core.widget.ConditionEditor;
 import org.apache.hop.ui.core.widget.TableView;
 import org.apache.hop.ui.core.widget.TextVar;
 import org.apache.hop.ui.pipeline.transform.BaseTransformDialog;
@@ -50,7 +53,11 @@ public class ParquetInputDialog extends BaseTransformDialog {
 
   private Combo wFilenameField;
   private TextVar wMetaFilename;
+  private Button wSplitRowGroups;
   private TableView wFields;
+  private ConditionEditor wCondition;
+
+  private Condition condition;
 
   private String returnValue;
 
@@ -61,6 +68,7 @@ public class ParquetInputDialog extends BaseTransformDialog {
       PipelineMeta pipelineMeta) {
     super(parent, variables, transformMeta, pipelineMeta);
     input = transformMeta;
+    condition = new Condition(transformMeta.getCondition());
   }
 
   @Override
@@ -147,6 +155,28 @@ public class ParquetInputDialog extends BaseTransformDialog {
     wMetaFilename.setLayoutData(fdMetaFilename);
     lastControl = wMetaFilename;
 
+    Label wlSplitRowGroups = new Label(shell, SWT.RIGHT);
+    wlSplitRowGroups.setText(
+        BaseMessages.getString(PKG, "ParquetInputDialog.SplitRowGroups.Label"));
+    wlSplitRowGroups.setToolTipText(
+        BaseMessages.getString(PKG, "ParquetInputDialog.SplitRowGroups.Tooltip"));
+    PropsUi.setLook(wlSplitRowGroups);
+    FormData fdlSplitRowGroups = new FormData();
+    fdlSplitRowGroups.left = new FormAttachment(0, 0);
+    fdlSplitRowGroups.right = new FormAttachment(middle, -margin);
+    fdlSplitRowGroups.top = new FormAttachment(lastControl, margin);
+    wlSplitRowGroups.setLayoutData(fdlSplitRowGroups);
+    wSplitRowGroups = new Button(shell, SWT.CHECK);
+    wSplitRowGroups.setToolTipText(
+        BaseMessages.getString(PKG, "ParquetInputDialog.SplitRowGroups.Tooltip"));
+    PropsUi.setLook(wSplitRowGroups);
+    FormData fdSplitRowGroups = new FormData();
+    fdSplitRowGroups.left = new FormAttachment(middle, 0);
+    fdSplitRowGroups.top = new FormAttachment(wlSplitRowGroups, 0, SWT.CENTER);
+    fdSplitRowGroups.right = new FormAttachment(100, 0);
+    wSplitRowGroups.setLayoutData(fdSplitRowGroups);
+    lastControl = wlSplitRowGroups;
+
     Label wlFields = new Label(shell, SWT.LEFT);
     wlFields.setText(BaseMessages.getString(PKG, "ParquetInputDialog.Fields.Label"));
     PropsUi.setLook(wlFields);
@@ -195,9 +225,33 @@ public class ParquetInputDialog extends BaseTransformDialog {
     fdFields.left = new FormAttachment(0, 0);
     fdFields.top = new FormAttachment(wlFields, margin);
     fdFields.right = new FormAttachment(100, 0);
-    fdFields.bottom = new FormAttachment(wOk, -2 * margin);
+    fdFields.bottom = new FormAttachment(60, 0);
     wFields.setLayoutData(fdFields);
 
+    Label wlCondition = new Label(shell, SWT.LEFT);
+    wlCondition.setText(BaseMessages.getString(PKG, "ParquetInputDialog.Condition.Label"));
+    wlCondition.setToolTipText(BaseMessages.getString(PKG, "ParquetInputDialog.Condition.Tooltip"));
+    PropsUi.setLook(wlCondition);
+    FormData fdlCondition = new FormData();
+    fdlCondition.left = new FormAttachment(0, 0);
+    fdlCondition.top = new FormAttachment(wFields, margin);
+    wlCondition.setLayoutData(fdlCondition);
+
+    IRowMeta conditionFields;
+    try {
+      conditionFields = pipelineMeta.getTransformFields(variables, transformName);
+    } catch (Exception e) {
+      LogChannel.UI.logError("Error getting output fields", e);
+      conditionFields = new RowMeta();
+    }
+    wCondition = new ConditionEditor(shell, SWT.BORDER, condition, conditionFields);
+    FormData fdCondition = new FormData();
+    fdCondition.left = new FormAttachment(0, 0);
+    fdCondition.top = new FormAttachment(wlCondition, margin);
+    fdCondition.right = new FormAttachment(100, 0);
+    fdCondition.bottom = new FormAttachment(wOk, -2 * margin);
+    wCondition.setLayoutData(fdCondition);
+
     getData();
 
     BaseDialog.defaultShellHandling(shell, c -> ok(), c -> cancel());
@@ -236,6 +290,7 @@ public class ParquetInputDialog extends BaseTransformDialog {
     wTransformName.setText(Const.NVL(transformName, ""));
     wFilenameField.setText(Const.NVL(input.getFilenameField(), ""));
     wMetaFilename.setText(Const.NVL(input.getMetadataFilename(), ""));
+    wSplitRowGroups.setSelection(input.isSplitRowGroups());
     for (int i = 0; i < input.getFields().size(); i++) {
       ParquetField field = input.getFields().get(i);
       TableItem item = wFields.table.getItem(i);
@@ -250,6 +305,13 @@ public class ParquetInputDialog extends BaseTransformDialog {
   }
 
   private void ok() {
+    // Editing a sub-condition: go back up first
+    //
+    if (wCondition.getLevel() > 0) {
+      wCondition.goUp();
+      return;
+    }
+
     returnValue = wTransformName.getText();
 
     getInfo(input);
@@ -260,6 +322,8 @@ public class ParquetInputDialog extends BaseTransformDialog {
   private void getInfo(ParquetInputMeta meta) {
     meta.setFilenameField(wFilenameField.getText());
     meta.setMetadataFilename(wMetaFilename.getText());
+    meta.setSplitRowGroups(wSplitRowGroups.getSelection());
+    meta.setCondition(condition);
     meta.getFields().clear();
     for (TableItem item : wFields.getNonEmptyItems()) {
       int index = 1;
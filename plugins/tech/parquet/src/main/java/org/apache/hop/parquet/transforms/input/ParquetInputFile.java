@@ -0,0 +1,310 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.parquet.transforms.input;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.apache.commons.vfs2.Capability;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.RandomAccessContent;
+import org.apache.commons.vfs2.util.RandomAccessMode;
+import org.apache.hop.core.vfs.HopVfs;
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.io.SeekableInputStream;
+
+/**
+ * A Parquet input file which reads straight from a VFS file object. Parquet first reads the footer
+ * at the end of the file and then jumps to the column chunks it needs, so only those bytes are
+ * read:
+ *
+ * <ul>
+ *   <li>Local files are read through a {@link FileChannel} with positional reads.
+ *   <li>For VFS providers supporting random access we use {@link RandomAccessContent}.
+ *   <li>For the other providers we read the content stream, skipping ahead to the requested
+ *       position and re-opening the stream when we need to go back.
+ * </ul>
+ */
+public class ParquetInputFile implements InputFile {
+  private final FileObject fileObject;
+  private final String filename;
+  private final long length;
+
+  public ParquetInputFile(FileObject fileObject, String filename) throws IOException {
+    this.fileObject = fileObject;
+    this.filename = filename;
+    this.length = fileObject.getContent().getSize();
+  }
+
+  @Override
+  public long getLength() {
+    return length;
+  }
+
+  @Override
+  public SeekableInputStream newStream() throws IOException {
+    Path path = getLocalPath();
+    if (path != null) {
+      return new PositionedSeekableInputStream(new ChannelSource(path), length);
+    }
+    if (fileObject.getFileSystem().hasCapability(Capability.RANDOM_ACCESS_READ)) {
+      return new PositionedSeekableInputStream(new RandomAccessSource(fileObject), length);
+    }
+    return new PositionedSeekableInputStream(new StreamSource(fileObject), length);
+  }
+
+  private Path getLocalPath() {
+    try {
+      if ("file".equals(fileObject.getName().getScheme())) {
+        return fileObject.getPath();
+      }
+    } catch (Exception e) {
+      // Not available as a local path, use VFS
+    }
+    return null;
+  }
+
+  @Override
+  public String toString() {
+    return "ParquetInputFile of file '" + filename + "'";
+  }
+
+  /** Reads bytes at a given position of the file. */
+  private interface IPositionedSource {
+    /**
+     * Read up to len bytes starting at the given position of the file.
+     *
+     * @return the number of bytes read, 0 or more
+     */
+    int read(long position, byte[] buffer, int offset, int len) throws IOException;
+
+    void close() throws IOException;
+  }
+
+  private static class ChannelSource implements IPositionedSource {
+    private final FileChannel channel;
+
+    ChannelSource(Path path) throws IOException {
+      this.channel = FileChannel.open(path, StandardOpenOption.READ);
+    }
+
+    @Override
+    public int read(long position, byte[] buffer, int offset, int len) throws IOException {
+      int read = channel.read(ByteBuffer.wrap(buffer, offset, len), position);
+      return Math.max(read, 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+      channel.close();
+    }
+  }
+
+  private static class RandomAccessSource implements IPositionedSource {
+    private final RandomAccessContent content;
+
+    RandomAccessSource(FileObject fileObject) throws IOException {
+      this.content = fileObject.getContent().getRandomAccessContent(RandomAccessMode.READ);
+    }
+
+    @Override
+    public int read(long position, byte[] buffer, int offset, int len) throws IOException {
+      if (content.getFilePointer() != position) {
+        content.seek(position);
+      }
+      content.readFully(buffer, offset, len);
+      return len;
+    }
+
+    @Override
+    public void close() throws IOException {
+      content.close();
+    }
+  }
+
+  private static class StreamSource implements IPositionedSource {
+    private final FileObject fileObject;
+    private InputStream inputStream;
+    private long streamPosition;
+
+    StreamSource(FileObject fileObject) {
+      this.fileObject = fileObject;
+    }
+
+    @Override
+    public int read(long position, byte[] buffer, int offset, int len) throws IOException {
+      if (inputStream == null || position < streamPosition) {
+        close();
+        inputStream = HopVfs.getInputStream(fileObject);
+        streamPosition = 0L;
+      }
+      while (streamPosition < position) {
+        long skipped = inputStream.skip(position - streamPosition);
+        if (skipped <= 0) {
+          if (inputStream.read() < 0) {
+            throw new EOFException("Unable to skip to position " + position);
+          }
+          skipped = 1;
+        }
+        streamPosition += skipped;
+      }
+      int read = inputStream.read(buffer, offset, len);
+      if (read > 0) {
+        streamPosition += read;
+      }
+      return Math.max(read, 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (inputStream != null) {
+        inputStream.close();
+        inputStream = null;
+      }
+    }
+  }
+
+  /** Keeps track of the position in the file and reads through the positioned source. */
+  private static class PositionedSeekableInputStream extends SeekableInputStream {
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final IPositionedSource source;
+    private final long length;
+    private long position;
+    private final byte[] singleByte = new byte[1];
+    private byte[] copyBuffer;
+
+    PositionedSeekableInputStream(IPositionedSource source, long length) {
+      this.source = source;
+      this.length = length;
+      this.position = 0L;
+    }
+
+    @Override
+    public long getPos() {
+      return position;
+    }
+
+    @Override
+    public void seek(long newPos) throws IOException {
+      if (newPos < 0 || newPos > length) {
+        throw new EOFException("Unable to seek to position " + newPos + " of " + length);
+      }
+      position = newPos;
+    }
+
+    @Override
+    public int read() throws IOException {
+      return read(singleByte, 0, 1) < 0 ? -1 : (singleByte[0] & 0xFF);
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int len) throws IOException {
+      if (len == 0) {
+        return 0;
+      }
+      long remaining = length - position;
+      if (remaining <= 0) {
+        return -1;
+      }
+      int read = source.read(position, buffer, offset, (int) Math.min(len, remaining));
+      if (read == 0) {
+        return -1;
+      }
+      position += read;
+      return read;
+    }
+
+    @Override
+    public long skip(long n) {
+      long skipped = Math.max(0L, Math.min(n, length - position));
+      position += skipped;
+      return skipped;
+    }
+
+    @Override
+    public int available() {
+      return (int) Math.min(Integer.MAX_VALUE, length - position);
+    }
+
+    @Override
+    public void readFully(byte[] bytes) throws IOException {
+      readFully(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void readFully(byte[] bytes, int start, int len) throws IOException {
+      int done = 0;
+      while (done < len) {
+        int read = read(bytes, start + done, len - done);
+        if (read < 0) {
+          throw new EOFException(
+              "Reached the end of the file with " + (len - done) + " bytes left to read");
+        }
+        done += read;
+      }
+    }
+
+    @Override
+    public int read(ByteBuffer buf) throws IOException {
+      if (!buf.hasRemaining()) {
+        return 0;
+      }
+      int read;
+      if (buf.hasArray()) {
+        read = read(buf.array(), buf.arrayOffset() + buf.position(), buf.remaining());
+        if (read > 0) {
+          buf.position(buf.position() + read);
+        }
+      } else {
+        byte[] buffer = getCopyBuffer();
+        read = read(buffer, 0, Math.min(buffer.length, buf.remaining()));
+        if (read > 0) {
+          buf.put(buffer, 0, read);
+        }
+      }
+      return read;
+    }
+
+    @Override
+    public void readFully(ByteBuffer buf) throws IOException {
+      while (buf.hasRemaining()) {
+        if (read(buf) < 0) {
+          throw new EOFException(
+              "Reached the end of the file with " + buf.remaining() + " bytes left to read");
+        }
+      }
+    }
+
+    private byte[] getCopyBuffer() {
+      if (copyBuffer == null) {
+        copyBuffer = new byte[COPY_BUFFER_SIZE];
+      }
+      return copyBuffer;
+    }
+
+    @Override
+    public void close() throws IOException {
+      source.close();
+    }
+  }
+}
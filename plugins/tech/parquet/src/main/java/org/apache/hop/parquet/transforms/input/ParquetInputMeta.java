@@ -17,16 +17,13 @@
 
 package org.apache.hop.parquet.transforms.input;
 
-import java.io.ByteArrayOutputStream;
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 import lombok.Getter;
 import lombok.Setter;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.vfs2.FileObject;
-import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.core.Condition;
 import org.apache.hop.core.annotations.Transform;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopTransformException;
@@ -41,7 +38,7 @@ import org.apache.hop.metadata.api.IHopMetadataProvider;
 import org.apache.hop.pipeline.transform.BaseTransformMeta;
 import org.apache.hop.pipeline.transform.TransformMeta;
 import org.apache.parquet.column.ColumnDescriptor;
-import org.apache.parquet.hadoop.ParquetReader;
+import org.apache.parquet.hadoop.ParquetFileReader;
 import org.apache.parquet.schema.LogicalTypeAnnotation;
 import org.apache.parquet.schema.LogicalTypeAnnotation.DateLogicalTypeAnnotation;
 import org.apache.parquet.schema.LogicalTypeAnnotation.DecimalLogicalTypeAnnotation;
@@ -73,8 +70,17 @@ public class ParquetInputMeta extends BaseTransformMeta<ParquetInput, ParquetInp
   @HopMetadataProperty(groupKey = "fields", key = "field")
   private List<ParquetField> fields;
 
+  /** Only rows matching this condition are passed on. It's pushed down to Parquet when possible. */
+  @HopMetadataProperty(key = "condition")
+  private Condition condition;
+
+  /** Have multiple copies of the transform read different row groups of the same files */
+  @HopMetadataProperty(key = "split_row_groups")
+  private boolean splitRowGroups;
+
   public ParquetInputMeta() {
     fields = new ArrayList<>();
+    condition = new Condition();
   }
 
   @Override
@@ -117,27 +123,13 @@ public class ParquetInputMeta extends BaseTransformMeta<ParquetInput, ParquetInp
     try {
       FileObject fileObject = HopVfs.getFileObject(variables.resolve(filename), variables);
 
-      long size = fileObject.getContent().getSize();
-      InputStream inputStream = HopVfs.getInputStream(fileObject);
-
-      // Reads the whole file into memory...
+      // The schema is in the footer: that's all we need to read
       //
-      ByteArrayOutputStream outputStream = new ByteArrayOutputStream((int) size);
-      IOUtils.copy(inputStream, outputStream);
-      ParquetStream inputFile = new ParquetStream(outputStream.toByteArray(), filename);
-      // Empty list of fields to retrieve: we still grab the schema
-      //
-      ParquetReadSupport readSupport = new ParquetReadSupport(new ArrayList<>());
-      ParquetReader<RowMetaAndData> reader =
-          new ParquetReaderBuilder<>(readSupport, inputFile).build();
-
-      // Read one empty row...
-      //
-      reader.read();
-
-      // Now we have the schema...
-      //
-      MessageType schema = readSupport.getMessageType();
+      ParquetInputFile inputFile = new ParquetInputFile(fileObject, filename);
+      MessageType schema;
+      try (ParquetFileReader fileReader = ParquetFileReader.open(inputFile)) {
+        schema = fileReader.getFooter().getFileMetaData().getSchema();
+      }
       IRowMeta rowMeta = new RowMeta();
       List<ColumnDescriptor> columns = schema.getColumns();
       for (ColumnDescriptor column : columns) {
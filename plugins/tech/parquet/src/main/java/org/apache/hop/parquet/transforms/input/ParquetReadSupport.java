@@ -17,9 +17,12 @@
 
 package org.apache.hop.parquet.transforms.input;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import lombok.Getter;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hop.core.RowMetaAndData;
@@ -27,6 +30,7 @@ import org.apache.parquet.hadoop.api.InitContext;
 import org.apache.parquet.hadoop.api.ReadSupport;
 import org.apache.parquet.io.api.RecordMaterializer;
 import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.Type;
 
 public class ParquetReadSupport extends ReadSupport<RowMetaAndData> {
 
@@ -41,7 +45,31 @@ public class ParquetReadSupport extends ReadSupport<RowMetaAndData> {
   @Override
   public ReadContext init(InitContext context) {
     this.messageType = context.getFileSchema();
-    return new ReadContext(messageType, new HashMap<>());
+    return new ReadContext(getRequestedSchema(messageType), new HashMap<>());
+  }
+
+  /**
+   * Only ask Parquet for the columns of the fields we read. The column chunks of the other columns
+   * are never read or decoded.
+   *
+   * @param fileSchema The schema of the file
+   * @return The schema of the fields to read
+   */
+  public MessageType getRequestedSchema(MessageType fileSchema) {
+    Set<String> sourceFields = new HashSet<>();
+    for (ParquetField field : fields) {
+      sourceFields.add(field.getSourceField());
+    }
+    List<Type> types = new ArrayList<>();
+    for (Type type : fileSchema.getFields()) {
+      if (sourceFields.contains(type.getName())) {
+        types.add(type);
+      }
+    }
+    if (types.isEmpty()) {
+      return fileSchema;
+    }
+    return new MessageType(fileSchema.getName(), types);
   }
 
   @Override
@@ -50,6 +78,6 @@ public class ParquetReadSupport extends ReadSupport<RowMetaAndData> {
       Map<String, String> keyValueMetaData,
       MessageType messageType,
       ReadContext readContext) {
-    return new ParquetRecordMaterializer(messageType, fields);
+    return new ParquetRecordMaterializer(readContext.getRequestedSchema(), fields);
   }
 }
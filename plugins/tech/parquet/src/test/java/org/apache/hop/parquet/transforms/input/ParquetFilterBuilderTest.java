@@ -0,0 +1,277 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.parquet.transforms.input;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+import java.util.Set;
+import org.apache.hop.core.Condition;
+import org.apache.hop.core.Condition.Function;
+import org.apache.hop.core.Condition.Operator;
+import org.apache.hop.core.HopClientEnvironment;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.ValueMetaAndData;
+import org.apache.hop.core.row.value.ValueMetaBoolean;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.parquet.filter2.predicate.FilterApi;
+import org.apache.parquet.filter2.predicate.FilterPredicate;
+import org.apache.parquet.filter2.predicate.Operators.BinaryColumn;
+import org.apache.parquet.filter2.predicate.Operators.BooleanColumn;
+import org.apache.parquet.filter2.predicate.Operators.DoubleColumn;
+import org.apache.parquet.filter2.predicate.Operators.IntColumn;
+import org.apache.parquet.filter2.predicate.Operators.LongColumn;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class ParquetFilterBuilderTest {
+  private static final LongColumn ID = FilterApi.longColumn("id");
+  private static final IntColumn SMALL = FilterApi.intColumn("small");
+  private static final DoubleColumn AMOUNT = FilterApi.doubleColumn("amount");
+  private static final BooleanColumn FLAG = FilterApi.booleanColumn("flag");
+  private static final BinaryColumn NAME = FilterApi.binaryColumn("name");
+
+  private final ParquetFilterBuilder builder = createBuilder();
+
+  @BeforeAll
+  static void setUpBeforeClass() throws HopException {
+    HopClientEnvironment.init();
+  }
+
+  @Test
+  void testLongComparisons() throws Exception {
+    assertEquals(FilterApi.eq(ID, 42L), build(condition("customerId", Function.EQUAL, 42L)));
+    assertEquals(FilterApi.notEq(ID, 42L), build(condition("customerId", Function.NOT_EQUAL, 42L)));
+    assertEquals(FilterApi.lt(ID, 42L), build(condition("customerId", Function.SMALLER, 42L)));
+    assertEquals(
+        FilterApi.ltEq(ID, 42L), build(condition("customerId", Function.SMALLER_EQUAL, 42L)));
+    assertEquals(FilterApi.gt(ID, 42L), build(condition("customerId", Function.LARGER, 42L)));
+    assertEquals(
+        FilterApi.gtEq(ID, 42L), build(condition("customerId", Function.LARGER_EQUAL, 42L)));
+
+    // The constant is converted to the data type of the field
+    //
+    assertEquals(FilterApi.eq(ID, 42L), build(condition("customerId", Function.EQUAL, "42")));
+  }
+
+  @Test
+  void testIntComparisons() throws Exception {
+    assertEquals(FilterApi.eq(SMALL, 7), build(condition("small", Function.EQUAL, 7L)));
+    assertEquals(FilterApi.notEq(SMALL, 7), build(condition("small", Function.NOT_EQUAL, 7L)));
+    assertEquals(FilterApi.lt(SMALL, 7), build(condition("small", Function.SMALLER, 7L)));
+    assertEquals(FilterApi.ltEq(SMALL, 7), build(condition("small", Function.SMALLER_EQUAL, 7L)));
+    assertEquals(FilterApi.gt(SMALL, 7), build(condition("small", Function.LARGER, 7L)));
+    assertEquals(FilterApi.gtEq(SMALL, 7), build(condition("small", Function.LARGER_EQUAL, 7L)));
+
+    // Out of the range of the column
+    //
+    assertNull(build(condition("small", Function.SMALLER, Long.MAX_VALUE)));
+  }
+
+  @Test
+  void testDoubleComparisons() throws Exception {
+    assertEquals(FilterApi.eq(AMOUNT, 1.5), build(condition("amount", Function.EQUAL, 1.5)));
+    assertEquals(FilterApi.notEq(AMOUNT, 1.5), build(condition("amount", Function.NOT_EQUAL, 1.5)));
+    assertEquals(FilterApi.lt(AMOUNT, 1.5), build(condition("amount", Function.SMALLER, 1.5)));
+    assertEquals(
+        FilterApi.ltEq(AMOUNT, 1.5), build(condition("amount", Function.SMALLER_EQUAL, 1.5)));
+    assertEquals(FilterApi.gt(AMOUNT, 1.5), build(condition("amount", Function.LARGER, 1.5)));
+    assertEquals(
+        FilterApi.gtEq(AMOUNT, 1.5), build(condition("amount", Function.LARGER_EQUAL, 1.5)));
+  }
+
+  @Test
+  void testBooleanComparisons() throws Exception {
+    assertEquals(FilterApi.eq(FLAG, true), build(condition("flag", Function.EQUAL, true)));
+    assertEquals(FilterApi.notEq(FLAG, true), build(condition("flag", Function.NOT_EQUAL, true)));
+    assertNull(build(condition("flag", Function.LARGER, false)));
+  }
+
+  @Test
+  void testStringComparisons() throws Exception {
+    assertEquals(
+        FilterApi.eq(NAME, Binary.fromString("abc")),
+        build(condition("name", Function.EQUAL, "abc")));
+    assertEquals(
+        FilterApi.notEq(NAME, Binary.fromString("abc")),
+        build(condition("name", Function.NOT_EQUAL, "abc")));
+
+    // Parquet orders the UTF-8 bytes, Hop compares strings
+    //
+    assertNull(build(condition("name", Function.SMALLER, "abc")));
+    assertNull(build(condition("name", Function.LARGER_EQUAL, "abc")));
+  }
+
+  @Test
+  void testInList() throws Exception {
+    assertEquals(
+        FilterApi.in(NAME, Set.of(Binary.fromString("a"), Binary.fromString("b;c"))),
+        build(condition("name", Function.IN_LIST, "a;b\\;c")));
+
+    // Only for string columns and without empty values
+    //
+    assertNull(build(condition("customerId", Function.IN_LIST, "1;2")));
+    assertNull(build(condition("name", Function.IN_LIST, "a;;b")));
+  }
+
+  @Test
+  void testNullChecks() throws Exception {
+    assertEquals(FilterApi.eq(ID, null), build(condition("customerId", Function.NULL, null)));
+    assertEquals(
+        FilterApi.notEq(ID, null), build(condition("customerId", Function.NOT_NULL, null)));
+
+    // An empty string is null in Hop but not in Parquet
+    //
+    assertNull(build(condition("name", Function.NULL, null)));
+    assertNull(build(condition("name", Function.NOT_NULL, null)));
+  }
+
+  @Test
+  void testConditionsWhichCantBePushedDown() throws Exception {
+    assertNull(builder.buildFilter(null));
+    assertNull(build(new Condition()));
+
+    // Functions without a Parquet equivalent
+    //
+    assertNull(build(condition("name", Function.CONTAINS, "b")));
+    assertNull(build(condition("name", Function.STARTS_WITH, "a")));
+    assertNull(build(condition("name", Function.LIKE, "a%")));
+    assertNull(build(condition("name", Function.REGEXP, "a.*")));
+
+    // Comparing two fields
+    //
+    assertNull(build(new Condition("customerId", Function.EQUAL, "small", null)));
+
+    // A field which doesn't come from the file
+    //
+    assertNull(build(condition("filename", Function.EQUAL, "a.parquet")));
+
+    // A null constant
+    //
+    assertNull(build(condition("customerId", Function.EQUAL, null)));
+
+    // Column types which Parquet compares differently from Hop
+    //
+    assertNull(build(condition("raw", Function.EQUAL, "abc")));
+    assertNull(build(condition("unsigned", Function.LARGER, 1L)));
+    assertNull(build(condition("list", Function.EQUAL, 1L)));
+    assertNull(build(condition("missing", Function.EQUAL, 1L)));
+  }
+
+  @Test
+  void testCompositeConditions() throws Exception {
+    Condition pushed = condition("customerId", Function.LARGER, 10L);
+    Condition notPushed = condition("name", Function.CONTAINS, "b");
+
+    // AND keeps the parts which can be pushed down
+    //
+    assertEquals(FilterApi.gt(ID, 10L), build(composite(pushed, Operator.AND, notPushed)));
+    assertEquals(
+        FilterApi.and(FilterApi.gt(ID, 10L), FilterApi.eq(FLAG, true)),
+        build(composite(pushed, Operator.AND, condition("flag", Function.EQUAL, true))));
+
+    // OR needs both sides
+    //
+    assertNull(build(composite(pushed, Operator.OR, notPushed)));
+    assertEquals(
+        FilterApi.or(FilterApi.gt(ID, 10L), FilterApi.eq(FLAG, true)),
+        build(composite(pushed, Operator.OR, condition("flag", Function.EQUAL, true))));
+
+    // A negation needs an exact translation
+    //
+    assertEquals(
+        FilterApi.and(FilterApi.gt(ID, 10L), FilterApi.not(FilterApi.eq(FLAG, true))),
+        build(composite(pushed, Operator.AND_NOT, condition("flag", Function.EQUAL, true))));
+    Condition negated = composite(pushed, Operator.AND, notPushed);
+    negated.setNegated(true);
+    assertNull(build(negated));
+    assertNull(build(composite(pushed, Operator.XOR, notPushed)));
+  }
+
+  private FilterPredicate build(Condition condition) {
+    return builder.buildFilter(condition);
+  }
+
+  private static Condition condition(String field, Function function, Object constant)
+      throws HopValueException {
+    return new Condition(
+        field,
+        function,
+        null,
+        constant == null ? null : new ValueMetaAndData("constant", constant));
+  }
+
+  private static Condition composite(Condition left, Operator operator, Condition right) {
+    Condition condition = new Condition();
+    condition.addCondition(new Condition(left));
+    Condition second = new Condition(right);
+    second.setOperator(operator);
+    condition.addCondition(second);
+    return condition;
+  }
+
+  private static ParquetFilterBuilder createBuilder() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("filename"));
+    rowMeta.addValueMeta(new ValueMetaInteger("customerId"));
+    rowMeta.addValueMeta(new ValueMetaInteger("small"));
+    rowMeta.addValueMeta(new ValueMetaNumber("amount"));
+    rowMeta.addValueMeta(new ValueMetaBoolean("flag"));
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+    rowMeta.addValueMeta(new ValueMetaString("raw"));
+    rowMeta.addValueMeta(new ValueMetaInteger("unsigned"));
+    rowMeta.addValueMeta(new ValueMetaInteger("list"));
+    rowMeta.addValueMeta(new ValueMetaInteger("missing"));
+
+    List<ParquetField> fields =
+        List.of(
+            new ParquetField("id", "customerId", "Integer", null, null, null),
+            new ParquetField("small", "small", "Integer", null, null, null),
+            new ParquetField("amount", "amount", "Number", null, null, null),
+            new ParquetField("flag", "flag", "Boolean", null, null, null),
+            new ParquetField("name", "name", "String", null, null, null),
+            new ParquetField("raw", "raw", "String", null, null, null),
+            new ParquetField("unsigned", "unsigned", "Integer", null, null, null),
+            new ParquetField("list", "list", "Integer", null, null, null),
+            new ParquetField("missing", "missing", "Integer", null, null, null));
+
+    return new ParquetFilterBuilder(
+        rowMeta,
+        1,
+        fields,
+        MessageTypeParser.parseMessageType(
+            "message test {\n"
+                + "  optional int64 id;\n"
+                + "  optional int32 small;\n"
+                + "  optional double amount;\n"
+                + "  optional boolean flag;\n"
+                + "  optional binary name (STRING);\n"
+                + "  optional binary raw;\n"
+                + "  optional int32 unsigned (INTEGER(32,false));\n"
+                + "  repeated int64 list;\n"
+                + "}"));
+  }
+}
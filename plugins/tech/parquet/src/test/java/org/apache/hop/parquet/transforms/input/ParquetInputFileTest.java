@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.parquet.transforms.input;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.hop.core.vfs.HopVfs;
+import org.apache.parquet.io.SeekableInputStream;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Reads the same content through the three sources of {@link ParquetInputFile}: a local file
+ * channel, VFS random access (ram://) and a VFS content stream (zip://, no random access).
+ */
+class ParquetInputFileTest {
+  private static final int LENGTH = 100_000;
+
+  @TempDir Path tempDir;
+
+  private final byte[] content = createContent();
+
+  @ParameterizedTest
+  @ValueSource(strings = {"file", "ram", "zip"})
+  void testSeekAndRead(String scheme) throws Exception {
+    ParquetInputFile inputFile = createInputFile(scheme);
+    assertEquals(LENGTH, inputFile.getLength());
+
+    try (SeekableInputStream stream = inputFile.newStream()) {
+      assertEquals(content[0] & 0xFF, stream.read());
+      assertEquals(1L, stream.getPos());
+
+      // Jump ahead, then back again like Parquet does after reading the footer
+      //
+      stream.seek(LENGTH - 8L);
+      byte[] footer = new byte[8];
+      stream.readFully(footer);
+      assertArrayEquals(Arrays.copyOfRange(content, LENGTH - 8, LENGTH), footer);
+      assertEquals(LENGTH, stream.getPos());
+
+      stream.seek(1000L);
+      byte[] chunk = new byte[5000];
+      stream.readFully(chunk, 0, chunk.length);
+      assertArrayEquals(Arrays.copyOfRange(content, 1000, 6000), chunk);
+
+      stream.seek(10L);
+      assertEquals(content[10] & 0xFF, stream.read());
+      assertEquals(11L, stream.getPos());
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"file", "ram", "zip"})
+  void testReadFullyByteBuffers(String scheme) throws Exception {
+    ParquetInputFile inputFile = createInputFile(scheme);
+
+    try (SeekableInputStream stream = inputFile.newStream()) {
+      stream.seek(500L);
+      ByteBuffer heap = ByteBuffer.allocate(70_000);
+      stream.readFully(heap);
+      assertArrayEquals(Arrays.copyOfRange(content, 500, 70_500), heap.array());
+
+      // Larger than the copy buffer used for direct buffers
+      //
+      stream.seek(0L);
+      ByteBuffer direct = ByteBuffer.allocateDirect(LENGTH);
+      stream.readFully(direct);
+      direct.flip();
+      byte[] read = new byte[LENGTH];
+      direct.get(read);
+      assertArrayEquals(content, read);
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"file", "ram", "zip"})
+  void testReadAtEndOfFile(String scheme) throws Exception {
+    ParquetInputFile inputFile = createInputFile(scheme);
+
+    try (SeekableInputStream stream = inputFile.newStream()) {
+      stream.seek(LENGTH);
+      assertEquals(-1, stream.read());
+      assertEquals(-1, stream.read(new byte[10], 0, 10));
+      assertEquals(-1, stream.read(ByteBuffer.allocate(10)));
+      assertEquals(0, stream.available());
+
+      stream.seek(LENGTH - 4L);
+      assertEquals(4, stream.read(new byte[10], 0, 10));
+      assertEquals(LENGTH, stream.getPos());
+
+      stream.seek(LENGTH - 4L);
+      assertThrows(EOFException.class, () -> stream.readFully(new byte[10]));
+      stream.seek(LENGTH - 4L);
+      assertThrows(EOFException.class, () -> stream.readFully(ByteBuffer.allocate(10)));
+      assertThrows(EOFException.class, () -> stream.seek(LENGTH + 1L));
+      assertThrows(EOFException.class, () -> stream.seek(-1L));
+    }
+  }
+
+  private ParquetInputFile createInputFile(String scheme) throws Exception {
+    String url;
+    switch (scheme) {
+      case "file":
+        File file = tempDir.resolve("data.bin").toFile();
+        Files.write(file.toPath(), content);
+        url = file.getAbsolutePath();
+        break;
+      case "ram":
+        url = "ram:///parquet-input-file-test.bin";
+        try (OutputStream outputStream = HopVfs.getOutputStream(url, false)) {
+          outputStream.write(content);
+        }
+        break;
+      default:
+        File zipFile = tempDir.resolve("data.zip").toFile();
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(zipFile.toPath()))) {
+          zip.putNextEntry(new ZipEntry("data.bin"));
+          zip.write(content);
+          zip.closeEntry();
+        }
+        url = "zip:" + zipFile.toURI() + "!/data.bin";
+        break;
+    }
+    FileObject fileObject = HopVfs.getFileObject(url);
+    return new ParquetInputFile(fileObject, url);
+  }
+
+  private static byte[] createContent() {
+    byte[] bytes = new byte[LENGTH];
+    for (int i = 0; i < LENGTH; i++) {
+      bytes[i] = (byte) (i * 31 + (i >> 8));
+    }
+    return bytes;
+  }
+}
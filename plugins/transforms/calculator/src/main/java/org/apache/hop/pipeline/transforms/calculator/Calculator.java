@@ -19,6 +19,7 @@ package org.apache.hop.pipeline.transforms.calculator;
 
 import java.util.ArrayList;
 import java.util.List;
+import org.apache.hop.core.Const;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopFileNotFoundException;
 import org.apache.hop.core.exception.HopTransformException;
@@ -60,8 +61,8 @@ public class Calculator extends BaseTransform<CalculatorMeta, CalculatorData> {
   @Override
   public boolean processRow() throws HopException {
 
-    Object[] r = getRow(); // get row, set busy!
-    if (r == null) { // no more input to be expected...
+    Object[][] rows = getRows(Const.ROWS_IN_BATCH); // get rows, set busy!
+    if (rows == null) { // no more input to be expected...
       setOutputDone();
       data.clearValuesMetaMapping();
       return false;
@@ -161,36 +162,53 @@ public class Calculator extends BaseTransform<CalculatorMeta, CalculatorData> {
       }
     }
 
-    if (isRowLevel()) {
-      logRowlevel(
-          BaseMessages.getString(PKG, "Calculator.Log.ReadRow")
-              + getLinesRead()
-              + " : "
-              + getInputRowMeta().getString(r));
-    }
-
-    try {
-      Object[] row = calcFields(getInputRowMeta(), r);
-      putRow(data.getOutputRowMeta(), row); // copy row to possible alternate rowset(s).
-
+    // The calculated rows replace the input rows at the start of the batch
+    //
+    int nrOutput = 0;
+    for (int i = 0; i < rows.length; i++) {
+      Object[] r = rows[i];
       if (isRowLevel()) {
-        logRowlevel("Wrote row #" + getLinesWritten() + " : " + getInputRowMeta().getString(r));
+        logRowlevel(
+            BaseMessages.getString(PKG, "Calculator.Log.ReadRow")
+                + getLinesRead()
+                + " : "
+                + getInputRowMeta().getString(r));
       }
-      if (checkFeedback(getLinesRead()) && isBasic()) {
-        logBasic(BaseMessages.getString(PKG, "Calculator.Log.Linenr", "" + getLinesRead()));
-      }
-    } catch (HopFileNotFoundException e) {
-      if (meta.isFailIfNoFile()) {
-        logError(BaseMessages.getString(PKG, "Calculator.Log.NoFile") + " : " + e.getFilepath());
-        setErrors(getErrors() + 1);
-        return false;
+
+      try {
+        rows[nrOutput++] = calcFields(getInputRowMeta(), r);
+
+        if (isRowLevel()) {
+          logRowlevel(
+              "Wrote row #"
+                  + (getLinesWritten() + nrOutput)
+                  + " : "
+                  + getInputRowMeta().getString(r));
+        }
+      } catch (HopFileNotFoundException e) {
+        nrOutput--;
+        if (meta.isFailIfNoFile()) {
+          logError(BaseMessages.getString(PKG, "Calculator.Log.NoFile") + " : " + e.getFilepath());
+          setErrors(getErrors() + 1);
+          putRows(data.getOutputRowMeta(), rows, nrOutput);
+          return false;
+        }
+      } catch (HopException e) {
+        nrOutput--;
+        putRows(data.getOutputRowMeta(), rows, nrOutput);
+        logError(
+            BaseMessages.getString(
+                PKG, "Calculator.ErrorInTransformRunning" + " : " + e.getMessage()));
+        throw new HopTransformException(
+            BaseMessages.getString(PKG, "Calculator.ErrorInTransformRunning"), e);
       }
-    } catch (HopException e) {
-      logError(
-          BaseMessages.getString(
-              PKG, "Calculator.ErrorInTransformRunning" + " : " + e.getMessage()));
-      throw new HopTransformException(
-          BaseMessages.getString(PKG, "Calculator.ErrorInTransformRunning"), e);
+    }
+
+    // copy the rows to possible alternate rowset(s).
+    putRows(data.getOutputRowMeta(), rows, nrOutput);
+
+    if (checkFeedback(getLinesRead(), rows.length) && isBasic()) {
+      logBasic(BaseMessages.getString(PKG, "Calculator.Log.Linenr", "" + getLinesRead()));
     }
     return true;
   }
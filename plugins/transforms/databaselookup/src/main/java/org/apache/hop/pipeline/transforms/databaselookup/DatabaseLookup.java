@@ -20,9 +20,16 @@ package org.apache.hop.pipeline.transforms.databaselookup;
 import com.google.common.annotations.VisibleForTesting;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hop.core.Const;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.exception.HopDatabaseException;
@@ -39,6 +46,8 @@ import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engine.EngineMetric;
+import org.apache.hop.pipeline.engine.IEngineMetric;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
 import org.apache.hop.pipeline.transforms.databaselookup.readallcache.ReadAllCache;
@@ -48,6 +57,41 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
 
   private static final Class<?> PKG = DatabaseLookupMeta.class;
 
+  public static final IEngineMetric METRIC_CACHE_HITS =
+      new EngineMetric(
+          "cacheHits", "Cache hits", "The number of lookups found in the cache", "110", true);
+  public static final IEngineMetric METRIC_CACHE_MISSES =
+      new EngineMetric(
+          "cacheMisses",
+          "Cache misses",
+          "The number of lookups not found in the cache",
+          "120",
+          true);
+  public static final IEngineMetric METRIC_CACHE_EVICTIONS =
+      new EngineMetric(
+          "cacheEvictions",
+          "Cache evictions",
+          "The number of rows removed from the cache to make room or because they expired",
+          "130",
+          true);
+  public static final IEngineMetric METRIC_SHARED_CACHE_HITS =
+      new EngineMetric(
+          "sharedCacheHits",
+          "Shared cache hits",
+          "The number of lookups found in the shared cache by all the transforms using it",
+          "140",
+          true);
+  public static final IEngineMetric METRIC_SHARED_CACHE_MISSES =
+      new EngineMetric(
+          "sharedCacheMisses",
+          "Shared cache misses",
+          "The number of lookups not found in the shared cache by all the transforms using it",
+          "150",
+          true);
+
+  /** The cache statistics at the time the transform was disposed of */
+  private Map<IEngineMetric, Long> disposedCacheMetrics;
+
   public DatabaseLookup(
       TransformMeta transformMeta,
       DatabaseLookupMeta meta,
@@ -59,16 +103,14 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
   }
 
   /**
-   * Performs the lookup based on the meta-data and the input row.
+   * Get the values of the keys of an input row, converted to the data types of the table.
    *
-   * @param row The row to use as lookup data and the row to add the returned lookup fields to
-   * @return the resulting row after the lookup values where added
-   * @throws HopException In case something goes wrong.
+   * @param inputRowMeta the metadata of the input row
+   * @param row the input row
+   * @return the values to look up
+   * @throws HopException In case a value can't be converted.
    */
-  @VisibleForTesting
-  synchronized Object[] lookupValues(IRowMeta inputRowMeta, Object[] row) throws HopException {
-    Object[] outputRow = RowDataUtil.resizeArray(row, data.outputRowMeta.size());
-
+  private Object[] getLookupRow(IRowMeta inputRowMeta, Object[] row) throws HopException {
     Object[] lookupRow = new Object[data.lookupMeta.size()];
     int lookupIndex = 0;
 
@@ -100,6 +142,21 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
         lookupIndex++;
       }
     }
+    return lookupRow;
+  }
+
+  /**
+   * Performs the lookup based on the meta-data and the input row.
+   *
+   * @param row The row to use as lookup data and the row to add the returned lookup fields to
+   * @return the resulting row after the lookup values where added
+   * @throws HopException In case something goes wrong.
+   */
+  @VisibleForTesting
+  synchronized Object[] lookupValues(IRowMeta inputRowMeta, Object[] row) throws HopException {
+    Object[] outputRow = RowDataUtil.resizeArray(row, data.outputRowMeta.size());
+
+    Object[] lookupRow = getLookupRow(inputRowMeta, row);
 
     Object[] add;
     boolean cacheNow = false;
@@ -110,6 +167,13 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
       add = data.cache.getRowFromCache(data.lookupMeta, lookupRow);
       if (add != null) {
         cacheHit = true;
+        data.cacheHits++;
+        // The cached row is trimmed below, don't change it for the other users of the cache
+        if (!data.trimIndexes.isEmpty()) {
+          add = add.clone();
+        }
+      } else {
+        data.cacheMisses++;
       }
     } else {
       add = null;
@@ -129,8 +193,23 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
                 + data.lookupMeta.getString(lookupRow));
       }
 
-      data.db.setValuesLookup(data.lookupMeta, lookupRow);
-      add = data.db.getLookup(meta.getLookup().isFailingOnMultipleResults());
+      RowMetaAndData batchKey =
+          data.batchResults == null ? null : new RowMetaAndData(data.batchKeyMeta, lookupRow);
+      if (batchKey != null && data.batchResults.containsKey(batchKey)) {
+        // The key was looked up with the other rows of the batch
+        //
+        if (data.batchMultipleResults.contains(batchKey)) {
+          throw new HopDatabaseException(
+              "Only 1 row was expected as a result of a lookup, and at least 2 were found!");
+        }
+        add = data.batchResults.get(batchKey);
+        if (add != null) {
+          add = add.clone();
+        }
+      } else {
+        data.db.setValuesLookup(data.lookupMeta, lookupRow);
+        add = data.db.getLookup(meta.getLookup().isFailingOnMultipleResults());
+      }
       cacheNow = true;
     }
 
@@ -311,6 +390,9 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
   public boolean processRow() throws HopException {
     Object[] r = getRow(); // Get row from input rowset & set row busy!
     if (r == null) { // no more input to be expected...
+      if (data.batchRows != null && !data.batchRows.isEmpty() && !flushBatch()) {
+        return false;
+      }
       setOutputDone();
       return false;
     }
@@ -403,7 +485,7 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
       }
 
       if (meta.isCached()) {
-        data.cache = DefaultCache.newCache(data, meta.getCacheSize());
+        data.cache = createCache();
       }
 
       determineFieldsTypesQueryingDb();
@@ -430,8 +512,40 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
       if (meta.isCached() && meta.isLoadingAllDataInCache()) {
         loadAllTableDataIntoTheCache();
       }
+
+      // Look up the keys of several rows at once?
+      //
+      if (meta.getBatchSize() > 1) {
+        if (isBatchPossible()) {
+          initBatch();
+        } else {
+          logBasic(BaseMessages.getString(PKG, "DatabaseLookup.Log.BatchNotUsed"));
+        }
+      }
     }
 
+    if (data.batchRows != null) {
+      if (data.batchRows.isEmpty()) {
+        data.batchStart = System.currentTimeMillis();
+      }
+      data.batchRows.add(r);
+      if (isBatchComplete()) {
+        return flushBatch();
+      }
+      return true;
+    }
+
+    return lookupRow(r);
+  }
+
+  /**
+   * Look up the values of an input row and pass it on
+   *
+   * @param r the input row
+   * @return false if the transform stops because of an error
+   * @throws HopException in case the row can't be passed on
+   */
+  private boolean lookupRow(Object[] r) throws HopException {
     if (isRowLevel()) {
       logRowlevel(
           BaseMessages.getString(PKG, "DatabaseLookup.Log.GotRowFromPreviousTransform")
@@ -472,6 +586,335 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
     return true;
   }
 
+  /**
+   * Create the cache of this copy or get the cache it shares with other copies. Only lookups with
+   * equal conditions share the cache, the rows of the other lookups can't be found on their key.
+   */
+  @VisibleForTesting
+  DatabaseLookupData.ICache createCache() throws HopException {
+    long timeToLive = meta.getCacheTimeToLive() * 1000L;
+    DatabaseLookupMeta.CacheScope scope = meta.getCacheScope();
+    if (scope != null && scope != DatabaseLookupMeta.CacheScope.TRANSFORM) {
+      if (data.allEquals && !meta.isLoadingAllDataInCache()) {
+        // A cache of the JVM outlives the pipeline, it can't grow without limit
+        //
+        if (scope == DatabaseLookupMeta.CacheScope.JVM && meta.getCacheSize() <= 0) {
+          logBasic(BaseMessages.getString(PKG, "DatabaseLookup.Log.JvmCacheNeedsSize"));
+          scope = DatabaseLookupMeta.CacheScope.PIPELINE;
+        }
+        if (scope == DatabaseLookupMeta.CacheScope.PIPELINE) {
+          return SharedCache.getPipelineCache(
+              getPipeline().getExtensionDataMap(),
+              getSharedCacheKey(),
+              meta.getCacheSize(),
+              timeToLive);
+        }
+        return SharedCache.getJvmCache(getSharedCacheKey(), meta.getCacheSize(), timeToLive);
+      }
+      logBasic(BaseMessages.getString(PKG, "DatabaseLookup.Log.SharedCacheNotUsed"));
+    }
+    return DefaultCache.newCache(data, meta.getCacheSize(), timeToLive);
+  }
+
+  /**
+   * The key of a shared cache: lookups on the same database and table with the same keys and return
+   * values find the same rows. Rows which are not found are cached with the default values, so the
+   * default values and the types they are converted to are part of the key as well. The user is
+   * part of the key too: other users can be allowed to see other rows of the same table.
+   *
+   * @return the key of the shared cache of this transform
+   * @throws HopException in case the URL of the database can't be determined
+   */
+  @VisibleForTesting
+  String getSharedCacheKey() throws HopException {
+    DatabaseMeta databaseMeta = getPipelineMeta().findDatabase(meta.getConnection(), variables);
+    Lookup lookup = meta.getLookup();
+
+    StringBuilder key = new StringBuilder();
+    key.append(databaseMeta.getName())
+        .append('|')
+        .append(databaseMeta.getURL(this))
+        .append('|')
+        .append(resolve(databaseMeta.getUsername()))
+        .append('|')
+        .append(resolve(meta.getSchemaName()))
+        .append('.')
+        .append(resolve(meta.getTableName()));
+    for (KeyField keyField : lookup.getKeyFields()) {
+      key.append('|').append(keyField.getTableField()).append(keyField.getCondition());
+    }
+    List<ReturnValue> returnValues = lookup.getReturnValues();
+    for (int i = 0; i < returnValues.size(); i++) {
+      ReturnValue returnValue = returnValues.get(i);
+      IValueMeta returnMeta = data.outputRowMeta.getValueMeta(getInputRowMeta().size() + i);
+      key.append('|')
+          .append(returnValue.getTableField())
+          .append(':')
+          .append(returnMeta.toStringMeta())
+          .append(':')
+          .append(returnMeta.getConversionMask())
+          .append(':')
+          .append(returnValue.getTrimType())
+          .append(':')
+          .append(returnValue.getDefaultValue());
+    }
+    key.append('|')
+        .append(lookup.getOrderByClause())
+        .append('|')
+        .append(lookup.isFailingOnMultipleResults());
+    return key.toString();
+  }
+
+  /**
+   * The keys of several rows can only be looked up with one query when all the conditions are equal
+   * conditions, on a field or IS NULL. Rows which are all in the cache are not looked up at all.
+   */
+  private boolean isBatchPossible() {
+    if (meta.isCached() && meta.isLoadingAllDataInCache()) {
+      return false;
+    }
+    boolean hasKey = false;
+    for (int i = 0; i < data.conditions.length; i++) {
+      if (data.keynrs2[i] >= 0) {
+        return false;
+      }
+      if (data.conditions[i] == DatabaseLookupMeta.CONDITION_EQ && data.keynrs[i] >= 0) {
+        hasKey = true;
+      } else if (data.conditions[i] != DatabaseLookupMeta.CONDITION_IS_NULL
+          || data.keynrs[i] >= 0) {
+        return false;
+      }
+    }
+    return hasKey;
+  }
+
+  /**
+   * Prepare the query which looks up the keys of a batch of rows. The query always has the
+   * parameters of a full batch so the database can reuse its plan, the last key is repeated in a
+   * smaller batch.
+   *
+   * <p>SELECT returns, keys FROM table WHERE key IN (?, ?, ...) AND null_key IS NULL ORDER BY ...
+   *
+   * <p>SELECT returns, keys FROM table WHERE ((key1 = ? AND key2 = ?) OR (key1 = ? AND key2 = ?)
+   * ...) AND null_key IS NULL ORDER BY ...
+   */
+  private void initBatch() throws HopException {
+    DatabaseMeta databaseMeta = data.db.getDatabaseMeta();
+    Lookup lookup = meta.getLookup();
+    int batchSize = meta.getBatchSize();
+
+    List<String> keyFields = new ArrayList<>();
+    List<String> nullFields = new ArrayList<>();
+    for (int i = 0; i < data.conditions.length; i++) {
+      String tableField = databaseMeta.quoteField(lookup.getKeyFields().get(i).getTableField());
+      if (data.conditions[i] == DatabaseLookupMeta.CONDITION_EQ) {
+        keyFields.add(tableField);
+      } else {
+        nullFields.add(tableField);
+      }
+    }
+
+    StringBuilder sql = new StringBuilder("SELECT ");
+    for (int i = 0; i < lookup.getReturnValues().size(); i++) {
+      ReturnValue returnValue = lookup.getReturnValues().get(i);
+      if (i > 0) {
+        sql.append(", ");
+      }
+      sql.append(databaseMeta.quoteField(returnValue.getTableField()));
+      if (!Utils.isEmpty(returnValue.getNewName())
+          && !returnValue.getTableField().equalsIgnoreCase(returnValue.getNewName())) {
+        sql.append(" AS ").append(databaseMeta.quoteField(returnValue.getNewName()));
+      }
+    }
+    for (String keyField : keyFields) {
+      sql.append(", ").append(keyField);
+    }
+    sql.append(" FROM ")
+        .append(
+            databaseMeta.getQuotedSchemaTableCombination(
+                this, meta.getSchemaName(), meta.getTableName()))
+        .append(" WHERE ");
+    if (keyFields.size() == 1) {
+      sql.append(keyFields.get(0)).append(" IN (");
+      for (int k = 0; k < batchSize; k++) {
+        sql.append(k > 0 ? ", ?" : "?");
+      }
+      sql.append(")");
+    } else {
+      sql.append("(");
+      for (int k = 0; k < batchSize; k++) {
+        sql.append(k > 0 ? " OR (" : "(");
+        for (int i = 0; i < keyFields.size(); i++) {
+          sql.append(i > 0 ? " AND " : "").append(keyFields.get(i)).append(" = ?");
+        }
+        sql.append(")");
+      }
+      sql.append(")");
+    }
+    for (String nullField : nullFields) {
+      sql.append(" AND ").append(nullField).append(" IS NULL");
+    }
+    if (StringUtils.isNotEmpty(lookup.getOrderByClause())) {
+      sql.append(" ORDER BY ").append(lookup.getOrderByClause());
+    }
+    data.batchSql = sql.toString();
+
+    if (isDetailed()) {
+      logDetailed(BaseMessages.getString(PKG, "DatabaseLookup.Log.BatchQuery", data.batchSql));
+    }
+
+    // The keys are compared in normal storage
+    //
+    data.batchKeyMeta = new RowMeta();
+    for (IValueMeta valueMeta : data.lookupMeta.getValueMetaList()) {
+      IValueMeta keyMeta = valueMeta.clone();
+      keyMeta.setStorageType(IValueMeta.STORAGE_TYPE_NORMAL);
+      data.batchKeyMeta.addValueMeta(keyMeta);
+    }
+    data.batchParamMeta = new RowMeta();
+    for (int k = 0; k < batchSize; k++) {
+      for (IValueMeta keyMeta : data.batchKeyMeta.getValueMetaList()) {
+        data.batchParamMeta.addValueMeta(keyMeta.clone());
+      }
+    }
+    data.batchRows = new ArrayList<>(batchSize);
+  }
+
+  /**
+   * A batch is looked up when it is full, when its first row waited long enough or when there are
+   * no more rows waiting in the input.
+   */
+  private boolean isBatchComplete() {
+    if (data.batchRows.size() >= meta.getBatchSize()) {
+      return true;
+    }
+    if (meta.getBatchMaxLatency() > 0
+        && System.currentTimeMillis() - data.batchStart >= meta.getBatchMaxLatency()) {
+      return true;
+    }
+    List<IRowSet> inputRowSets = getInputRowSets();
+    if (inputRowSets.isEmpty()) {
+      return false;
+    }
+    for (IRowSet rowSet : inputRowSets) {
+      if (rowSet.size() > 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Look up the keys of the rows in the batch with one query and pass the rows on in their original
+   * order.
+   *
+   * @return false if the transform stops because of an error
+   * @throws HopException in case a row can't be passed on
+   */
+  private boolean flushBatch() throws HopException {
+    try {
+      lookupBatch();
+    } catch (HopException e) {
+      if (getTransformMeta().isDoingErrorHandling()) {
+        for (Object[] row : data.batchRows) {
+          putError(getInputRowMeta(), row, 1, e.getMessage(), null, "DBLOOKUPD001");
+        }
+        data.batchRows.clear();
+        return true;
+      }
+      logError(
+          BaseMessages.getString(PKG, "DatabaseLookup.ERROR003.UnexpectedErrorDuringProcessing")
+              + e.getMessage());
+      setErrors(1);
+      stopAll();
+      setOutputDone(); // signal end to receiver(s)
+      data.batchRows.clear();
+      return false;
+    }
+
+    try {
+      for (Object[] row : data.batchRows) {
+        if (!lookupRow(row)) {
+          return false;
+        }
+      }
+      return true;
+    } finally {
+      data.batchRows.clear();
+      data.batchResults = null;
+      data.batchMultipleResults = null;
+    }
+  }
+
+  /** Query the keys of the batch which are not in the cache */
+  private void lookupBatch() throws HopException {
+    data.batchResults = new HashMap<>();
+    data.batchMultipleResults = new HashSet<>();
+
+    List<Object[]> keys = new ArrayList<>();
+    for (Object[] row : data.batchRows) {
+      Object[] lookupRow = getLookupRow(getInputRowMeta(), row);
+
+      // A null key is never equal, it's looked up on its own like before
+      //
+      boolean hasNull = false;
+      for (int i = 0; i < lookupRow.length; i++) {
+        hasNull |= data.batchKeyMeta.getValueMeta(i).isNull(lookupRow[i]);
+      }
+      if (hasNull) {
+        continue;
+      }
+      RowMetaAndData key = new RowMetaAndData(data.batchKeyMeta, lookupRow);
+      if (data.batchResults.containsKey(key)
+          || (meta.isCached() && data.cache.containsRow(data.lookupMeta, lookupRow))) {
+        continue;
+      }
+      data.batchResults.put(key, null);
+      keys.add(lookupRow);
+    }
+    if (keys.isEmpty()) {
+      return;
+    }
+
+    int nrKeys = data.batchKeyMeta.size();
+    Object[] params = new Object[data.batchParamMeta.size()];
+    for (int k = 0; k < meta.getBatchSize(); k++) {
+      Object[] key = keys.get(Math.min(k, keys.size() - 1));
+      System.arraycopy(key, 0, params, k * nrKeys, nrKeys);
+    }
+
+    List<Object[]> rows =
+        data.db.getRows(data.db.openQuery(data.batchSql, data.batchParamMeta, params), 0, null);
+    IRowMeta rowMeta = data.db.getReturnRowMeta();
+
+    // The first row of a key is the one a single lookup finds
+    //
+    int nrReturns = data.returnMeta.size();
+    for (Object[] row : rows) {
+      Object[] keyData = new Object[nrKeys];
+      for (int i = 0; i < nrKeys; i++) {
+        keyData[i] =
+            data.batchKeyMeta
+                .getValueMeta(i)
+                .convertData(rowMeta.getValueMeta(nrReturns + i), row[nrReturns + i]);
+      }
+      RowMetaAndData key = new RowMetaAndData(data.batchKeyMeta, keyData);
+      if (!data.batchResults.containsKey(key)) {
+        continue;
+      }
+      if (data.batchResults.get(key) == null) {
+        data.batchResults.put(key, Arrays.copyOf(row, nrReturns));
+      } else if (meta.getLookup().isFailingOnMultipleResults()) {
+        data.batchMultipleResults.add(key);
+      }
+    }
+
+    // The database can match keys which are not equal here, because of a collation, padding of
+    // CHAR columns or the scale of a number. Keys without a result are looked up on their own.
+    //
+    data.batchResults.values().removeIf(Objects::isNull);
+  }
+
   private void loadAllTableDataIntoTheCache() throws HopException {
     DatabaseMeta dbMeta = getPipelineMeta().findDatabase(meta.getConnection(), variables);
 
@@ -655,6 +1098,23 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
     return false;
   }
 
+  @Override
+  public Map<IEngineMetric, Long> getCustomMetrics() {
+    DatabaseLookupData.ICache cache = data.cache;
+    if (cache == null) {
+      return disposedCacheMetrics != null ? disposedCacheMetrics : super.getCustomMetrics();
+    }
+    Map<IEngineMetric, Long> metrics = new LinkedHashMap<>();
+    metrics.put(METRIC_CACHE_HITS, data.cacheHits);
+    metrics.put(METRIC_CACHE_MISSES, data.cacheMisses);
+    metrics.put(METRIC_CACHE_EVICTIONS, cache.getEvictions());
+    if (cache instanceof SharedCache sharedCache) {
+      metrics.put(METRIC_SHARED_CACHE_HITS, sharedCache.getHits());
+      metrics.put(METRIC_SHARED_CACHE_MISSES, sharedCache.getMisses());
+    }
+    return metrics;
+  }
+
   @Override
   public void dispose() {
 
@@ -662,6 +1122,30 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
       data.db.disconnect();
     }
 
+    if (data.cache != null) {
+      disposedCacheMetrics = getCustomMetrics();
+    }
+
+    if (data.cache != null && isBasic()) {
+      logBasic(
+          BaseMessages.getString(
+              PKG,
+              "DatabaseLookup.Log.CacheStatistics",
+              String.valueOf(data.cacheHits),
+              String.valueOf(data.cacheMisses),
+              String.valueOf(data.cache.getEvictions())));
+      if (data.cache instanceof SharedCache sharedCache) {
+        logBasic(
+            BaseMessages.getString(
+                PKG,
+                "DatabaseLookup.Log.CacheStatisticsShared",
+                String.valueOf(sharedCache.getHits()),
+                String.valueOf(sharedCache.getMisses()),
+                String.valueOf(sharedCache.getEvictions()),
+                String.valueOf(sharedCache.size())));
+      }
+    }
+
     // Recover memory immediately, allow in-memory data to be garbage collected
     //
     data.cache = null;
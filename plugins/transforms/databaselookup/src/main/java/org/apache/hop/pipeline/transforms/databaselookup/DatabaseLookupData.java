@@ -18,6 +18,9 @@
 package org.apache.hop.pipeline.transforms.databaselookup;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.IRowMeta;
@@ -44,6 +47,22 @@ public class DatabaseLookupData extends BaseTransformData implements ITransformD
   public int[] returnValueTypes;
   public String[] returnTrimTypes;
   public List<Integer> trimIndexes;
+  public volatile long cacheHits;
+  public volatile long cacheMisses;
+
+  /** The input rows waiting to be looked up in one query, null if every row is looked up */
+  public List<Object[]> batchRows;
+
+  public long batchStart;
+  public String batchSql;
+  public IRowMeta batchParamMeta;
+  public IRowMeta batchKeyMeta;
+
+  /** The rows found for the keys of the batch, null for a key which wasn't found */
+  public Map<RowMetaAndData, Object[]> batchResults;
+
+  /** The keys of the batch with more than one row in the table */
+  public Set<RowMetaAndData> batchMultipleResults;
 
   public DatabaseLookupData() {
     super();
@@ -74,5 +93,24 @@ public class DatabaseLookupData extends BaseTransformData implements ITransformD
      */
     void storeRowInCache(
         DatabaseLookupMeta meta, IRowMeta lookupMeta, Object[] lookupRow, Object[] add);
+
+    /**
+     * @return the number of rows which were removed to make room for other rows
+     */
+    default long getEvictions() {
+      return 0L;
+    }
+
+    /**
+     * Checks if a row can be found without counting it as a use of the row.
+     *
+     * @param lookupMeta meta object for dealing with {@code lookupRow}
+     * @param lookupRow tuple containing values for comparison
+     * @return true if {@link #getRowFromCache(IRowMeta, Object[])} would find a row
+     * @throws HopException
+     */
+    default boolean containsRow(IRowMeta lookupMeta, Object[] lookupRow) throws HopException {
+      return getRowFromCache(lookupMeta, lookupRow) != null;
+    }
   }
 }
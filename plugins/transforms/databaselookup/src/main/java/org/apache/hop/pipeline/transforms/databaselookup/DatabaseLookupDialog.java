@@ -47,6 +47,7 @@ import org.apache.hop.ui.core.widget.TextVar;
 import org.apache.hop.ui.pipeline.transform.BaseTransformDialog;
 import org.apache.hop.ui.pipeline.transform.ITableItemInsertListener;
 import org.eclipse.swt.SWT;
+import org.eclipse.swt.custom.CCombo;
 import org.eclipse.swt.custom.CTabFolder;
 import org.eclipse.swt.custom.CTabItem;
 import org.eclipse.swt.custom.ScrolledComposite;
@@ -79,6 +80,16 @@ public class DatabaseLookupDialog extends BaseTransformDialog {
   private Label wlCachesize;
   private Text wCachesize;
 
+  private Label wlCacheScope;
+  private CCombo wCacheScope;
+
+  private Label wlCacheTimeToLive;
+  private Text wCacheTimeToLive;
+
+  private Text wBatchSize;
+
+  private Text wBatchMaxLatency;
+
   private TableView wKey;
 
   private TextVar wSchema;
@@ -384,6 +395,81 @@ public class DatabaseLookupDialog extends BaseTransformDialog {
           }
         });
 
+    // ICache : share with other copies?
+    wlCacheScope = new Label(fieldGeneralComp, SWT.RIGHT);
+    wlCacheScope.setText(BaseMessages.getString(PKG, "DatabaseLookupDialog.CacheScope.Label"));
+    PropsUi.setLook(wlCacheScope);
+    FormData fdlCacheScope = new FormData();
+    fdlCacheScope.left = new FormAttachment(0, 0);
+    fdlCacheScope.right = new FormAttachment(middle, -margin);
+    fdlCacheScope.top = new FormAttachment(wCacheLoadAll, margin);
+    wlCacheScope.setLayoutData(fdlCacheScope);
+    wCacheScope = new CCombo(fieldGeneralComp, SWT.SINGLE | SWT.READ_ONLY | SWT.BORDER);
+    wCacheScope.setItems(DatabaseLookupMeta.CacheScope.getDescriptions());
+    PropsUi.setLook(wCacheScope);
+    wCacheScope.addModifyListener(lsMod);
+    FormData fdCacheScope = new FormData();
+    fdCacheScope.left = new FormAttachment(middle, 0);
+    fdCacheScope.right = new FormAttachment(100, 0);
+    fdCacheScope.top = new FormAttachment(wCacheLoadAll, margin);
+    wCacheScope.setLayoutData(fdCacheScope);
+
+    // ICache : time to live
+    wlCacheTimeToLive = new Label(fieldGeneralComp, SWT.RIGHT);
+    wlCacheTimeToLive.setText(
+        BaseMessages.getString(PKG, "DatabaseLookupDialog.CacheTimeToLive.Label"));
+    PropsUi.setLook(wlCacheTimeToLive);
+    FormData fdlCacheTimeToLive = new FormData();
+    fdlCacheTimeToLive.left = new FormAttachment(0, 0);
+    fdlCacheTimeToLive.right = new FormAttachment(middle, -margin);
+    fdlCacheTimeToLive.top = new FormAttachment(wCacheScope, margin);
+    wlCacheTimeToLive.setLayoutData(fdlCacheTimeToLive);
+    wCacheTimeToLive = new Text(fieldGeneralComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wCacheTimeToLive);
+    wCacheTimeToLive.addModifyListener(lsMod);
+    FormData fdCacheTimeToLive = new FormData();
+    fdCacheTimeToLive.left = new FormAttachment(middle, 0);
+    fdCacheTimeToLive.right = new FormAttachment(100, 0);
+    fdCacheTimeToLive.top = new FormAttachment(wCacheScope, margin);
+    wCacheTimeToLive.setLayoutData(fdCacheTimeToLive);
+
+    // Batch size line
+    Label wlBatchSize = new Label(fieldGeneralComp, SWT.RIGHT);
+    wlBatchSize.setText(BaseMessages.getString(PKG, "DatabaseLookupDialog.BatchSize.Label"));
+    PropsUi.setLook(wlBatchSize);
+    FormData fdlBatchSize = new FormData();
+    fdlBatchSize.left = new FormAttachment(0, 0);
+    fdlBatchSize.right = new FormAttachment(middle, -margin);
+    fdlBatchSize.top = new FormAttachment(wCacheTimeToLive, margin);
+    wlBatchSize.setLayoutData(fdlBatchSize);
+    wBatchSize = new Text(fieldGeneralComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wBatchSize);
+    wBatchSize.addModifyListener(lsMod);
+    FormData fdBatchSize = new FormData();
+    fdBatchSize.left = new FormAttachment(middle, 0);
+    fdBatchSize.right = new FormAttachment(100, 0);
+    fdBatchSize.top = new FormAttachment(wCacheTimeToLive, margin);
+    wBatchSize.setLayoutData(fdBatchSize);
+
+    // Batch latency line
+    Label wlBatchMaxLatency = new Label(fieldGeneralComp, SWT.RIGHT);
+    wlBatchMaxLatency.setText(
+        BaseMessages.getString(PKG, "DatabaseLookupDialog.BatchMaxLatency.Label"));
+    PropsUi.setLook(wlBatchMaxLatency);
+    FormData fdlBatchMaxLatency = new FormData();
+    fdlBatchMaxLatency.left = new FormAttachment(0, 0);
+    fdlBatchMaxLatency.right = new FormAttachment(middle, -margin);
+    fdlBatchMaxLatency.top = new FormAttachment(wBatchSize, margin);
+    wlBatchMaxLatency.setLayoutData(fdlBatchMaxLatency);
+    wBatchMaxLatency = new Text(fieldGeneralComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wBatchMaxLatency);
+    wBatchMaxLatency.addModifyListener(lsMod);
+    FormData fdBatchMaxLatency = new FormData();
+    fdBatchMaxLatency.left = new FormAttachment(middle, 0);
+    fdBatchMaxLatency.right = new FormAttachment(100, 0);
+    fdBatchMaxLatency.top = new FormAttachment(wBatchSize, margin);
+    wBatchMaxLatency.setLayoutData(fdBatchMaxLatency);
+
     FormData fdGeneralComp = new FormData();
     fdGeneralComp.left = new FormAttachment(0, 0);
     fdGeneralComp.top = new FormAttachment(0, 0);
@@ -743,6 +829,10 @@ public class DatabaseLookupDialog extends BaseTransformDialog {
     wlCachesize.setEnabled(wCache.getSelection() && !wCacheLoadAll.getSelection());
     wCacheLoadAll.setEnabled(wCache.getSelection());
     wlCacheLoadAll.setEnabled(wCache.getSelection());
+    wCacheScope.setEnabled(wCache.getSelection() && !wCacheLoadAll.getSelection());
+    wlCacheScope.setEnabled(wCache.getSelection() && !wCacheLoadAll.getSelection());
+    wCacheTimeToLive.setEnabled(wCache.getSelection() && !wCacheLoadAll.getSelection());
+    wlCacheTimeToLive.setEnabled(wCache.getSelection() && !wCacheLoadAll.getSelection());
     wFailMultiple.setEnabled(!wCache.getSelection());
     wlFailMultiple.setEnabled(!wCache.getSelection());
   }
@@ -754,6 +844,14 @@ public class DatabaseLookupDialog extends BaseTransformDialog {
     wCache.setSelection(input.isCached());
     wCachesize.setText("" + input.getCacheSize());
     wCacheLoadAll.setSelection(input.isLoadingAllDataInCache());
+    DatabaseLookupMeta.CacheScope cacheScope = input.getCacheScope();
+    if (cacheScope == null) {
+      cacheScope = DatabaseLookupMeta.CacheScope.TRANSFORM;
+    }
+    wCacheScope.setText(cacheScope.getDescription());
+    wCacheTimeToLive.setText("" + input.getCacheTimeToLive());
+    wBatchSize.setText("" + input.getBatchSize());
+    wBatchMaxLatency.setText("" + input.getBatchMaxLatency());
 
     Lookup lookup = input.getLookup();
 
@@ -817,6 +915,10 @@ public class DatabaseLookupDialog extends BaseTransformDialog {
     input.setCached(wCache.getSelection());
     input.setCacheSize(Const.toInt(wCachesize.getText(), 0));
     input.setLoadingAllDataInCache(wCacheLoadAll.getSelection());
+    input.setCacheScope(DatabaseLookupMeta.CacheScope.lookupDescription(wCacheScope.getText()));
+    input.setCacheTimeToLive(Const.toInt(wCacheTimeToLive.getText(), 0));
+    input.setBatchSize(Const.toInt(wBatchSize.getText(), 0));
+    input.setBatchMaxLatency(Const.toInt(wBatchMaxLatency.getText(), 0));
 
     for (TableItem item : wKey.getNonEmptyItems()) {
       KeyField keyField = new KeyField();
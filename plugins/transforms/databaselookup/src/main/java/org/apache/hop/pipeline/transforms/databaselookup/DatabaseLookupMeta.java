@@ -39,6 +39,7 @@ import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.metadata.api.HopMetadataProperty;
 import org.apache.hop.metadata.api.HopMetadataPropertyType;
+import org.apache.hop.metadata.api.IEnumHasCodeAndDescription;
 import org.apache.hop.metadata.api.IHopMetadataProvider;
 import org.apache.hop.pipeline.DatabaseImpact;
 import org.apache.hop.pipeline.PipelineMeta;
@@ -100,6 +101,31 @@ public class DatabaseLookupMeta extends BaseTransformMeta<DatabaseLookup, Databa
       injectionKeyDescription = "DatabaseLookupMeta.Injection.CacheLoadAll")
   private boolean loadingAllDataInCache;
 
+  /** Share the cache with the other copies of the transform, in the pipeline or the JVM */
+  @HopMetadataProperty(
+      key = "cache_scope",
+      storeWithCode = true,
+      injectionKeyDescription = "DatabaseLookupMeta.Injection.CacheScope")
+  private CacheScope cacheScope;
+
+  /** The number of seconds a cached row can be used, 0 for no limit */
+  @HopMetadataProperty(
+      key = "cache_time_to_live",
+      injectionKeyDescription = "DatabaseLookupMeta.Injection.CacheTimeToLive")
+  private int cacheTimeToLive;
+
+  /** Look up the keys of this many input rows with one query, 0 or 1 to look up every row */
+  @HopMetadataProperty(
+      key = "batch_size",
+      injectionKeyDescription = "DatabaseLookupMeta.Injection.BatchSize")
+  private int batchSize;
+
+  /** The maximum number of milliseconds an input row waits for the other rows of its batch */
+  @HopMetadataProperty(
+      key = "batch_max_latency",
+      injectionKeyDescription = "DatabaseLookupMeta.Injection.BatchMaxLatency")
+  private int batchMaxLatency;
+
   @HopMetadataProperty(key = "lookup")
   private Lookup lookup;
 
@@ -112,6 +138,10 @@ public class DatabaseLookupMeta extends BaseTransformMeta<DatabaseLookup, Databa
     this.cached = m.cached;
     this.cacheSize = m.cacheSize;
     this.loadingAllDataInCache = m.loadingAllDataInCache;
+    this.cacheScope = m.cacheScope;
+    this.cacheTimeToLive = m.cacheTimeToLive;
+    this.batchSize = m.batchSize;
+    this.batchMaxLatency = m.batchMaxLatency;
     this.lookup = new Lookup(m.lookup);
   }
 
@@ -469,4 +499,47 @@ public class DatabaseLookupMeta extends BaseTransformMeta<DatabaseLookup, Databa
   public static final List<String> getConditionStrings() {
     return Arrays.asList(conditionStrings);
   }
+
+  public enum CacheScope implements IEnumHasCodeAndDescription {
+    TRANSFORM(
+        "transform", BaseMessages.getString(PKG, "DatabaseLookupMeta.CacheScope.Transform.Label")),
+    PIPELINE(
+        "pipeline", BaseMessages.getString(PKG, "DatabaseLookupMeta.CacheScope.Pipeline.Label")),
+    JVM("jvm", BaseMessages.getString(PKG, "DatabaseLookupMeta.CacheScope.Jvm.Label"));
+    private final String code;
+    private final String description;
+
+    CacheScope(String code, String description) {
+      this.code = code;
+      this.description = description;
+    }
+
+    public static String[] getDescriptions() {
+      return IEnumHasCodeAndDescription.getDescriptions(CacheScope.class);
+    }
+
+    public static CacheScope lookupDescription(String description) {
+      return IEnumHasCodeAndDescription.lookupDescription(CacheScope.class, description, TRANSFORM);
+    }
+
+    /**
+     * Gets code
+     *
+     * @return value of code
+     */
+    @Override
+    public String getCode() {
+      return code;
+    }
+
+    /**
+     * Gets description
+     *
+     * @return value of description
+     */
+    @Override
+    public String getDescription() {
+      return description;
+    }
+  }
 }
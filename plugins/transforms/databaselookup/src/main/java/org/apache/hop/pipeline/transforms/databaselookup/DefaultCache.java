@@ -17,35 +17,54 @@
 
 package org.apache.hop.pipeline.transforms.databaselookup;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Date;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
-import java.util.List;
+import java.util.Map;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.TimedRow;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 
-/** Old code, copied from {@linkplain DatabaseLookup} */
+/**
+ * The cache of a single transform copy. The rows are kept in the order in which they are used, the
+ * row which was used the longest time ago is evicted first when the cache is full.
+ */
 public class DefaultCache implements DatabaseLookupData.ICache {
 
   public static DefaultCache newCache(DatabaseLookupData data, int cacheSize) {
+    return newCache(data, cacheSize, 0L);
+  }
+
+  /**
+   * @param data the data of the transform
+   * @param cacheSize the maximum number of rows, 0 or less for no limit
+   * @param timeToLive the number of milliseconds a row can be used, 0 or less for no limit
+   * @return a new cache
+   */
+  public static DefaultCache newCache(DatabaseLookupData data, int cacheSize, long timeToLive) {
+    int capacity;
     if (cacheSize > 0) {
-      cacheSize = (int) (cacheSize * 1.5);
+      capacity = (int) (cacheSize * 1.5);
     } else {
-      cacheSize = 16;
+      capacity = 16;
     }
-    return new DefaultCache(data, cacheSize);
+    return new DefaultCache(data, capacity, timeToLive);
   }
 
   private final DatabaseLookupData data;
   private final LinkedHashMap<RowMetaAndData, TimedRow> map;
+  private final long timeToLive;
+  private long evictions;
 
   DefaultCache(DatabaseLookupData data, int capacity) {
+    this(data, capacity, 0L);
+  }
+
+  DefaultCache(DatabaseLookupData data, int capacity, long timeToLive) {
     this.data = data;
-    map = new LinkedHashMap<>(capacity);
+    this.timeToLive = timeToLive;
+    map = new LinkedHashMap<>(capacity, 0.75f, true);
   }
 
   @Override
@@ -53,9 +72,13 @@ public class DefaultCache implements DatabaseLookupData.ICache {
     if (data.allEquals) {
       // only do the map lookup when all equals otherwise conditions >, <, <> will give wrong
       // results
-      TimedRow timedRow = map.get(new RowMetaAndData(data.lookupMeta, lookupRow));
+      RowMetaAndData key = new RowMetaAndData(data.lookupMeta, lookupRow);
+      TimedRow timedRow = map.get(key);
       if (timedRow != null) {
-        return timedRow.getRow();
+        if (!isExpired(timedRow)) {
+          return timedRow.getRow();
+        }
+        map.remove(key);
       }
     } else { // special handling of conditions <,>, <> etc.
       if (!data.hasDBCondition) { // e.g. LIKE not handled by this routine, yet
@@ -63,7 +86,10 @@ public class DefaultCache implements DatabaseLookupData.ICache {
         // Not all conditions are "=" so we are going to have to evaluate row by row
         // A sorted list or index might be a good solution here...
         //
-        for (RowMetaAndData key : map.keySet()) {
+        // Iterate over the entries, a get() would change the order of an access ordered map
+        //
+        for (Map.Entry<RowMetaAndData, TimedRow> entry : map.entrySet()) {
+          RowMetaAndData key = entry.getKey();
           // Now verify that the key is matching our conditions...
           //
           boolean match = true;
@@ -119,11 +145,8 @@ public class DefaultCache implements DatabaseLookupData.ICache {
             }
             lookupIndex++;
           }
-          if (match) {
-            TimedRow timedRow = map.get(key);
-            if (timedRow != null) {
-              return timedRow.getRow();
-            }
+          if (match && !isExpired(entry.getValue())) {
+            return entry.getValue().getRow();
           }
         }
       }
@@ -145,44 +168,28 @@ public class DefaultCache implements DatabaseLookupData.ICache {
     // */
     map.put(rowMetaAndData, new TimedRow(add));
 
-    // See if we have to limit the cache_size.
-    // Sample 10% of the rows in the cache.
-    // Remove everything below the second lowest date.
-    // That should on average remove more than 10% of the entries
-    // It's not exact science, but it will be faster than the old algorithm
-
+    // Evict the rows which were used the longest time ago.
+    //
     // 2009-02-01: If you had previously set a cache size and then turned on load all,
     // this
     // method would throw out entries if the previous cache size wasn't big enough.
-    if (!meta.isLoadingAllDataInCache()
-        && meta.getCacheSize() > 0
-        && map.size() > meta.getCacheSize()) {
-      List<RowMetaAndData> keys = new ArrayList<>(map.keySet());
-      List<Date> samples = new ArrayList<>();
-      int incr = keys.size() / 10;
-      if (incr == 0) {
-        incr = 1;
-      }
-      for (int k = 0; k < keys.size(); k += incr) {
-        RowMetaAndData key = keys.get(k);
-        TimedRow timedRow = map.get(key);
-        samples.add(timedRow.getLogDate());
+    if (!meta.isLoadingAllDataInCache() && meta.getCacheSize() > 0) {
+      Iterator<TimedRow> iterator = map.values().iterator();
+      while (map.size() > meta.getCacheSize() && iterator.hasNext()) {
+        iterator.next();
+        iterator.remove();
+        evictions++;
       }
+    }
+  }
 
-      Collections.sort(samples);
-
-      if (samples.size() > 1) {
-        Date smallest = samples.get(1);
-
-        // Everything below the smallest date goes away...
-        for (RowMetaAndData key : keys) {
-          TimedRow timedRow = map.get(key);
+  @Override
+  public long getEvictions() {
+    return evictions;
+  }
 
-          if (timedRow.getLogDate().compareTo(smallest) < 0) {
-            map.remove(key);
-          }
-        }
-      }
-    }
+  private boolean isExpired(TimedRow timedRow) {
+    return timeToLive > 0
+        && System.currentTimeMillis() - timedRow.getLogDate().getTime() > timeToLive;
   }
 }
@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.databaselookup;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.core.TimedRow;
+import org.apache.hop.core.row.IRowMeta;
+
+/**
+ * A cache which is shared by all the copies of the transforms which look up the same values in the
+ * same table, in a pipeline or in the whole JVM. The rows are spread over segments with a lock of
+ * their own so the copies hardly ever wait for each other. Every segment evicts the row which was
+ * used the longest time ago when it is full.
+ *
+ * <p>Only lookups on equal keys are cached, other conditions need to evaluate all the rows.
+ */
+public class SharedCache implements DatabaseLookupData.ICache {
+
+  /** The key of the shared caches of a pipeline in its extension data map */
+  static final String EXTENSION_DATA_KEY = "DatabaseLookup.SharedCaches";
+
+  private static final int MAX_SEGMENTS = 16;
+  private static final int MIN_SEGMENT_SIZE = 64;
+
+  private static final Map<String, SharedCache> jvmCaches = new ConcurrentHashMap<>();
+
+  private final Segment[] segments;
+  private final long timeToLive;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * @param cacheSize the maximum number of rows, 0 or less for no limit
+   * @param timeToLive the number of milliseconds a row can be used, 0 or less for no limit
+   */
+  public SharedCache(int cacheSize, long timeToLive) {
+    this.timeToLive = timeToLive;
+
+    // The eviction order is only exact within a segment, a small cache uses fewer segments
+    //
+    int nrSegments = MAX_SEGMENTS;
+    while (cacheSize > 0 && nrSegments > 1 && cacheSize / nrSegments < MIN_SEGMENT_SIZE) {
+      nrSegments /= 2;
+    }
+    int segmentSize = cacheSize > 0 ? cacheSize / nrSegments : Integer.MAX_VALUE;
+    segments = new Segment[nrSegments];
+    for (int i = 0; i < nrSegments; i++) {
+      segments[i] = new Segment(segmentSize);
+    }
+  }
+
+  /**
+   * Get the cache of a pipeline, create it if it doesn't exist yet
+   *
+   * @param extensionDataMap the extension data map of the pipeline
+   * @param key the key of the lookup, see {@link DatabaseLookup#getSharedCacheKey()}
+   * @param cacheSize the maximum number of rows of a new cache
+   * @param timeToLive the number of milliseconds a row of a new cache can be used
+   * @return the cache
+   */
+  @SuppressWarnings("unchecked")
+  public static SharedCache getPipelineCache(
+      Map<String, Object> extensionDataMap, String key, int cacheSize, long timeToLive) {
+    synchronized (extensionDataMap) {
+      Map<String, SharedCache> caches =
+          (Map<String, SharedCache>)
+              extensionDataMap.computeIfAbsent(EXTENSION_DATA_KEY, k -> new HashMap<>());
+      return caches.computeIfAbsent(key, k -> new SharedCache(cacheSize, timeToLive));
+    }
+  }
+
+  /**
+   * Get the cache of the JVM, create it if it doesn't exist yet. The cache is kept until the JVM
+   * stops so set a time to live when the table changes.
+   *
+   * @param key the key of the lookup, see {@link DatabaseLookup#getSharedCacheKey()}
+   * @param cacheSize the maximum number of rows of a new cache
+   * @param timeToLive the number of milliseconds a row of a new cache can be used
+   * @return the cache
+   */
+  public static SharedCache getJvmCache(String key, int cacheSize, long timeToLive) {
+    return jvmCaches.computeIfAbsent(key, k -> new SharedCache(cacheSize, timeToLive));
+  }
+
+  /** Remove all the caches of the JVM */
+  public static void clearJvmCaches() {
+    jvmCaches.clear();
+  }
+
+  @Override
+  public Object[] getRowFromCache(IRowMeta lookupMeta, Object[] lookupRow) {
+    RowMetaAndData key = new RowMetaAndData(lookupMeta, lookupRow);
+    Segment segment = segmentFor(key);
+    TimedRow timedRow;
+    synchronized (segment) {
+      timedRow = segment.map.get(key);
+      if (timedRow != null && isExpired(timedRow)) {
+        segment.map.remove(key);
+        timedRow = null;
+      }
+    }
+    if (timedRow == null) {
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    return timedRow.getRow();
+  }
+
+  @Override
+  public boolean containsRow(IRowMeta lookupMeta, Object[] lookupRow) {
+    RowMetaAndData key = new RowMetaAndData(lookupMeta, lookupRow);
+    Segment segment = segmentFor(key);
+    synchronized (segment) {
+      TimedRow timedRow = segment.map.get(key);
+      return timedRow != null && !isExpired(timedRow);
+    }
+  }
+
+  @Override
+  public void storeRowInCache(
+      DatabaseLookupMeta meta, IRowMeta lookupMeta, Object[] lookupRow, Object[] add) {
+    RowMetaAndData key = new RowMetaAndData(lookupMeta, lookupRow);
+    Segment segment = segmentFor(key);
+    synchronized (segment) {
+      segment.map.put(key, new TimedRow(add));
+      Iterator<TimedRow> iterator = segment.map.values().iterator();
+      while (segment.map.size() > segment.maxSize && iterator.hasNext()) {
+        iterator.next();
+        iterator.remove();
+        evictions.increment();
+      }
+    }
+  }
+
+  @Override
+  public long getEvictions() {
+    return evictions.sum();
+  }
+
+  /**
+   * @return the number of lookups which found a row, of all the copies using the cache
+   */
+  public long getHits() {
+    return hits.sum();
+  }
+
+  /**
+   * @return the number of lookups which didn't find a row, of all the copies using the cache
+   */
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  /**
+   * @return the number of rows in the cache
+   */
+  public int size() {
+    int size = 0;
+    for (Segment segment : segments) {
+      synchronized (segment) {
+        size += segment.map.size();
+      }
+    }
+    return size;
+  }
+
+  private Segment segmentFor(RowMetaAndData key) {
+    int h = key.hashCode() * 0x9E3779B9;
+    return segments[(h ^ (h >>> 16)) & (segments.length - 1)];
+  }
+
+  private boolean isExpired(TimedRow timedRow) {
+    return timeToLive > 0
+        && System.currentTimeMillis() - timedRow.getLogDate().getTime() > timeToLive;
+  }
+
+  /** The rows of a part of the keys, in the order in which they were used */
+  private static final class Segment {
+    private final int maxSize;
+    private final LinkedHashMap<RowMetaAndData, TimedRow> map =
+        new LinkedHashMap<>(16, 0.75f, true);
+
+    private Segment(int maxSize) {
+      this.maxSize = maxSize;
+    }
+  }
+}
@@ -0,0 +1,267 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.databaselookup;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.database.DatabaseMeta;
+import org.apache.hop.core.database.NoneDatabaseMeta;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironmentExtension;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class DatabaseLookupBatchTest {
+
+  @RegisterExtension
+  static RestoreHopEngineEnvironmentExtension env = new RestoreHopEngineEnvironmentExtension();
+
+  private static final Map<Long, String> TABLE = Map.of(1L, "one", 2L, "two", 3L, "three");
+
+  private TransformMockHelper<DatabaseLookupMeta, DatabaseLookupData> mockHelper;
+  private Database db;
+  private ResultSet resultSet;
+  private List<Object[]> queries;
+
+  @BeforeAll
+  static void setUpBeforeClass() throws HopException {
+    HopEnvironment.init();
+  }
+
+  @BeforeEach
+  void setUp() throws Exception {
+    mockHelper =
+        new TransformMockHelper<>(
+            "Database lookup", DatabaseLookupMeta.class, DatabaseLookupData.class);
+    when(mockHelper.logChannelFactory.create(any(), any(ILoggingObject.class)))
+        .thenReturn(mockHelper.iLogChannel);
+    when(mockHelper.pipeline.isRunning()).thenReturn(true);
+
+    DatabaseMeta databaseMeta = new DatabaseMeta();
+    databaseMeta.setIDatabase(new NoneDatabaseMeta());
+    when(mockHelper.pipelineMeta.findDatabase(nullable(String.class), any(IVariables.class)))
+        .thenReturn(databaseMeta);
+
+    IRowMeta tableFields = new RowMeta();
+    tableFields.addValueMeta(new ValueMetaInteger("id"));
+    tableFields.addValueMeta(new ValueMetaString("name"));
+
+    IRowMeta resultMeta = new RowMeta();
+    resultMeta.addValueMeta(new ValueMetaString("name"));
+    resultMeta.addValueMeta(new ValueMetaInteger("id"));
+
+    // The table only has the rows of TABLE
+    //
+    queries = new ArrayList<>();
+    db = mock(Database.class);
+    resultSet = mock(ResultSet.class);
+    when(db.getDatabaseMeta()).thenReturn(databaseMeta);
+    when(db.getTableFields(anyString())).thenReturn(tableFields);
+    when(db.getReturnRowMeta()).thenReturn(resultMeta);
+    doAnswer(
+            invocation -> {
+              queries.add(invocation.getArgument(2));
+              return resultSet;
+            })
+        .when(db)
+        .openQuery(anyString(), any(IRowMeta.class), any(Object[].class));
+    doAnswer(
+            invocation -> {
+              List<Object[]> rows = new ArrayList<>();
+              for (Object param : queries.get(queries.size() - 1)) {
+                if (TABLE.containsKey(param)
+                    && rows.stream().noneMatch(row -> param.equals(row[1]))) {
+                  rows.add(new Object[] {TABLE.get(param), param});
+                }
+              }
+              return rows;
+            })
+        .when(db)
+        .getRows(eq(resultSet), anyInt(), isNull());
+  }
+
+  @AfterEach
+  void tearDown() {
+    mockHelper.cleanUp();
+  }
+
+  /** The rows are passed on in their original order with the values of their key */
+  @ParameterizedTest
+  @ValueSource(booleans = {false, true})
+  void testLookupInBatches(boolean cached) throws Exception {
+    DatabaseLookupMeta meta = new DatabaseLookupMeta();
+    meta.setConnection("db");
+    meta.setCached(cached);
+    meta.setBatchSize(3);
+    meta.getLookup().setTableName("table");
+    meta.getLookup().getKeyFields().add(new KeyField("key", "", "=", "id"));
+    meta.getLookup().getReturnValues().add(new ReturnValue("name", "", "", "String", "none"));
+
+    IRowMeta inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta(new ValueMetaInteger("key"));
+    Long[] keys = {1L, 2L, 1L, 3L, null, 2L, 4L};
+
+    List<Object[]> output = lookup(meta, inputRowMeta, keys);
+
+    assertEquals(keys.length, output.size());
+    for (int i = 0; i < keys.length; i++) {
+      assertEquals(keys[i], output.get(i)[0], "Row " + i);
+      assertEquals(keys[i] == null ? null : TABLE.get(keys[i]), output.get(i)[1], "Row " + i);
+    }
+
+    // One query per batch, with the parameters of a full batch. A cached key is not looked up
+    // again, the null key is looked up on its own.
+    //
+    assertEquals(3, queries.size());
+    for (Object[] params : queries) {
+      assertEquals(3, params.length);
+    }
+    assertEquals(
+        cached ? 1L : 2L,
+        queries.stream().filter(params -> params[0].equals(2L) || params[1].equals(2L)).count());
+    // The null key and the key which isn't in the table are looked up on their own
+    //
+    verify(db, times(2)).getLookup(anyBoolean());
+  }
+
+  /** Keys the database matches but which are not equal in Java are looked up one by one */
+  @Test
+  void testUnmatchedKeysAreLookedUpOnTheirOwn() throws Exception {
+    IRowMeta tableFields = new RowMeta();
+    tableFields.addValueMeta(new ValueMetaString("code"));
+    tableFields.addValueMeta(new ValueMetaString("name"));
+    IRowMeta resultMeta = new RowMeta();
+    resultMeta.addValueMeta(new ValueMetaString("name"));
+    resultMeta.addValueMeta(new ValueMetaString("code"));
+    when(db.getTableFields(anyString())).thenReturn(tableFields);
+    when(db.getReturnRowMeta()).thenReturn(resultMeta);
+
+    // A CHAR(4) column returns its values padded with spaces
+    //
+    doAnswer(
+            invocation -> {
+              List<Object[]> rows = new ArrayList<>();
+              for (Object param : queries.get(queries.size() - 1)) {
+                if (rows.stream().noneMatch(row -> row[1].equals(param + " "))) {
+                  rows.add(new Object[] {"name of " + param, param + " "});
+                }
+              }
+              return rows;
+            })
+        .when(db)
+        .getRows(eq(resultSet), anyInt(), isNull());
+    List<Object[]> lookups = new ArrayList<>();
+    doAnswer(
+            invocation -> {
+              lookups.add(invocation.getArgument(1));
+              return null;
+            })
+        .when(db)
+        .setValuesLookup(any(IRowMeta.class), any(Object[].class));
+    when(db.getLookup(anyBoolean()))
+        .thenAnswer(invocation -> new Object[] {"name of " + lookups.get(lookups.size() - 1)[0]});
+
+    DatabaseLookupMeta meta = new DatabaseLookupMeta();
+    meta.setConnection("db");
+    meta.setBatchSize(3);
+    meta.getLookup().setTableName("table");
+    meta.getLookup().getKeyFields().add(new KeyField("key", "", "=", "code"));
+    meta.getLookup().getReturnValues().add(new ReturnValue("name", "", "", "String", "none"));
+
+    IRowMeta inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta(new ValueMetaString("key"));
+    String[] keys = {"abc", "de", "abc"};
+
+    List<Object[]> output = lookup(meta, inputRowMeta, keys);
+
+    assertEquals(keys.length, output.size());
+    for (int i = 0; i < keys.length; i++) {
+      assertEquals(keys[i], output.get(i)[0], "Row " + i);
+      assertEquals("name of " + keys[i], output.get(i)[1], "Row " + i);
+    }
+    assertEquals(1, queries.size());
+    assertEquals(3, lookups.size());
+  }
+
+  private List<Object[]> lookup(DatabaseLookupMeta meta, IRowMeta inputRowMeta, Object[] keys)
+      throws HopException {
+    List<Object[]> output = new ArrayList<>();
+    DatabaseLookupData data = new DatabaseLookupData();
+    DatabaseLookup lookup =
+        new DatabaseLookup(
+            mockHelper.transformMeta, meta, data, 0, mockHelper.pipelineMeta, mockHelper.pipeline) {
+          private int index;
+
+          @Override
+          public Object[] getRow() {
+            return index < keys.length ? new Object[] {keys[index++]} : null;
+          }
+
+          @Override
+          public IRowMeta getInputRowMeta() {
+            return inputRowMeta;
+          }
+
+          @Override
+          public void putRow(IRowMeta rowMeta, Object[] row) {
+            output.add(row);
+          }
+
+          @Override
+          Database getDatabase(DatabaseMeta meta) {
+            return db;
+          }
+        };
+    assertTrue(lookup.init());
+    while (lookup.processRow()) {
+      // Keep on looking up
+    }
+    return output;
+  }
+}
@@ -0,0 +1,300 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.databaselookup;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.database.DatabaseMeta;
+import org.apache.hop.core.database.NoneDatabaseMeta;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironmentExtension;
+import org.apache.hop.pipeline.engine.IEngineMetric;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+class SharedCacheTest {
+
+  @RegisterExtension
+  static RestoreHopEngineEnvironmentExtension env = new RestoreHopEngineEnvironmentExtension();
+
+  private TransformMockHelper<DatabaseLookupMeta, DatabaseLookupData> mockHelper;
+  private IRowMeta lookupMeta;
+  private DatabaseLookupMeta meta;
+
+  @BeforeAll
+  static void setUpBeforeClass() throws HopException {
+    HopEnvironment.init();
+  }
+
+  @BeforeEach
+  void setUp() {
+    mockHelper =
+        new TransformMockHelper<>(
+            "Database lookup", DatabaseLookupMeta.class, DatabaseLookupData.class);
+    when(mockHelper.logChannelFactory.create(any(), any(ILoggingObject.class)))
+        .thenReturn(mockHelper.iLogChannel);
+    DatabaseMeta databaseMeta = new DatabaseMeta();
+    databaseMeta.setName("db");
+    databaseMeta.setIDatabase(new NoneDatabaseMeta());
+    when(mockHelper.pipelineMeta.findDatabase(nullable(String.class), any(IVariables.class)))
+        .thenReturn(databaseMeta);
+
+    lookupMeta = new RowMeta();
+    lookupMeta.addValueMeta(new ValueMetaInteger("id"));
+    meta = new DatabaseLookupMeta();
+    meta.setCached(true);
+    meta.setCacheSize(2);
+  }
+
+  @AfterEach
+  void tearDown() {
+    mockHelper.cleanUp();
+    SharedCache.clearJvmCaches();
+  }
+
+  /** The row which was used the longest time ago is evicted, not the oldest one */
+  @Test
+  void testDefaultCacheEvictsLeastRecentlyUsed() throws Exception {
+    DatabaseLookupData data = new DatabaseLookupData();
+    data.allEquals = true;
+    data.lookupMeta = lookupMeta;
+    DefaultCache cache = DefaultCache.newCache(data, meta.getCacheSize());
+
+    store(cache, 1L);
+    store(cache, 2L);
+    lookup(cache, 1L);
+    store(cache, 3L);
+
+    assertArrayEquals(new Object[] {10L}, lookup(cache, 1L));
+    assertNull(lookup(cache, 2L));
+    assertArrayEquals(new Object[] {30L}, lookup(cache, 3L));
+    assertEquals(1L, cache.getEvictions());
+  }
+
+  @Test
+  void testSharedCacheEvictsLeastRecentlyUsed() {
+    SharedCache cache = new SharedCache(2, 0L);
+
+    store(cache, 1L);
+    store(cache, 2L);
+    lookup(cache, 1L);
+    store(cache, 3L);
+
+    assertEquals(2, cache.size());
+    assertArrayEquals(new Object[] {10L}, lookup(cache, 1L));
+    assertNull(lookup(cache, 2L));
+    assertArrayEquals(new Object[] {30L}, lookup(cache, 3L));
+    assertEquals(1L, cache.getEvictions());
+    assertEquals(3L, cache.getHits());
+    assertEquals(1L, cache.getMisses());
+  }
+
+  @Test
+  void testSharedCacheSize() {
+    SharedCache cache = new SharedCache(10000, 0L);
+    for (long id = 0; id < 100000; id++) {
+      store(cache, id);
+    }
+    // Every segment evicts on its own, the cache doesn't grow beyond its size
+    assertTrue(cache.size() <= 10000);
+    assertTrue(cache.size() > 9000);
+    assertEquals(100000L - cache.size(), cache.getEvictions());
+  }
+
+  @Test
+  void testTimeToLive() throws Exception {
+    SharedCache cache = new SharedCache(0, 50L);
+    store(cache, 1L);
+    assertArrayEquals(new Object[] {10L}, lookup(cache, 1L));
+
+    Thread.sleep(100L);
+    assertNull(lookup(cache, 1L));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void testPipelineCaches() {
+    Map<String, Object> extensionDataMap = new HashMap<>();
+    SharedCache cache = SharedCache.getPipelineCache(extensionDataMap, "table", 10, 0L);
+    assertSame(cache, SharedCache.getPipelineCache(extensionDataMap, "table", 10, 0L));
+    assertNotSame(cache, SharedCache.getPipelineCache(extensionDataMap, "other", 10, 0L));
+
+    // Another pipeline has caches of its own
+    assertNotSame(cache, SharedCache.getPipelineCache(new HashMap<>(), "table", 10, 0L));
+  }
+
+  @Test
+  void testJvmCaches() {
+    SharedCache cache = SharedCache.getJvmCache("table", 10, 0L);
+    assertSame(cache, SharedCache.getJvmCache("table", 10, 0L));
+    assertNotSame(cache, SharedCache.getJvmCache("other", 10, 0L));
+  }
+
+  /** Lookups which return other defaults for rows which are not found don't share a cache */
+  @Test
+  void testSharedCacheKey() throws Exception {
+    String key =
+        createLookup(createMeta("none", "String"), new DatabaseLookupData()).getSharedCacheKey();
+    assertEquals(
+        key,
+        createLookup(createMeta("none", "String"), new DatabaseLookupData()).getSharedCacheKey());
+    assertNotEquals(
+        key,
+        createLookup(createMeta("unknown", "String"), new DatabaseLookupData())
+            .getSharedCacheKey());
+    assertNotEquals(
+        key,
+        createLookup(createMeta("none", "Integer"), new DatabaseLookupData()).getSharedCacheKey());
+  }
+
+  /** Other users can be allowed to see other rows, they don't share a cache */
+  @Test
+  void testSharedCacheKeyOfUser() throws Exception {
+    DatabaseMeta databaseMeta = new DatabaseMeta();
+    databaseMeta.setName("db");
+    databaseMeta.setIDatabase(new NoneDatabaseMeta());
+    databaseMeta.setUsername("alice");
+    when(mockHelper.pipelineMeta.findDatabase(nullable(String.class), any(IVariables.class)))
+        .thenReturn(databaseMeta);
+    String key =
+        createLookup(createMeta("none", "String"), new DatabaseLookupData()).getSharedCacheKey();
+
+    databaseMeta.setUsername("bob");
+    assertNotEquals(
+        key,
+        createLookup(createMeta("none", "String"), new DatabaseLookupData()).getSharedCacheKey());
+  }
+
+  /** The statistics of the caches are published as metrics, also once the transform is done */
+  @Test
+  void testCacheMetrics() throws Exception {
+    SharedCache cache = SharedCache.getJvmCache("table", 1, 0L);
+    store(cache, 1L);
+    lookup(cache, 1L);
+    lookup(cache, 2L);
+    store(cache, 2L);
+
+    DatabaseLookupData data = new DatabaseLookupData();
+    DatabaseLookup lookup = createLookup(createMeta("none", "String"), data);
+    assertTrue(lookup.getCustomMetrics().isEmpty());
+
+    data.cache = cache;
+    data.cacheHits = 3;
+    data.cacheMisses = 4;
+    Map<IEngineMetric, Long> metrics = lookup.getCustomMetrics();
+    assertEquals(3L, metrics.get(DatabaseLookup.METRIC_CACHE_HITS));
+    assertEquals(4L, metrics.get(DatabaseLookup.METRIC_CACHE_MISSES));
+    assertEquals(1L, metrics.get(DatabaseLookup.METRIC_CACHE_EVICTIONS));
+    assertEquals(1L, metrics.get(DatabaseLookup.METRIC_SHARED_CACHE_HITS));
+    assertEquals(1L, metrics.get(DatabaseLookup.METRIC_SHARED_CACHE_MISSES));
+
+    lookup.dispose();
+    assertNull(data.cache);
+    assertEquals(metrics, lookup.getCustomMetrics());
+  }
+
+  /** A cache of the JVM needs a size, without one the cache is shared in the pipeline only */
+  @Test
+  void testUnboundedJvmCache() throws Exception {
+    Map<String, Object> extensionDataMap = new HashMap<>();
+    when(mockHelper.pipeline.getExtensionDataMap()).thenReturn(extensionDataMap);
+
+    DatabaseLookupMeta databaseLookupMeta = createMeta("none", "String");
+    databaseLookupMeta.setCacheScope(DatabaseLookupMeta.CacheScope.JVM);
+    databaseLookupMeta.setCacheSize(0);
+    DatabaseLookupData data = new DatabaseLookupData();
+    data.allEquals = true;
+    DatabaseLookup lookup = createLookup(databaseLookupMeta, data);
+
+    DatabaseLookupData.ICache cache = lookup.createCache();
+    assertSame(
+        cache, SharedCache.getPipelineCache(extensionDataMap, lookup.getSharedCacheKey(), 0, 0L));
+    assertNotSame(cache, SharedCache.getJvmCache(lookup.getSharedCacheKey(), 0, 0L));
+
+    databaseLookupMeta.setCacheSize(10);
+    assertSame(SharedCache.getJvmCache(lookup.getSharedCacheKey(), 10, 0L), lookup.createCache());
+  }
+
+  private static DatabaseLookupMeta createMeta(String defaultValue, String defaultType) {
+    DatabaseLookupMeta databaseLookupMeta = new DatabaseLookupMeta();
+    databaseLookupMeta.setConnection("db");
+    databaseLookupMeta.setCached(true);
+    databaseLookupMeta.getLookup().setTableName("table");
+    databaseLookupMeta.getLookup().getKeyFields().add(new KeyField("key", "", "=", "id"));
+    databaseLookupMeta
+        .getLookup()
+        .getReturnValues()
+        .add(new ReturnValue("name", "", defaultValue, defaultType, "none"));
+    return databaseLookupMeta;
+  }
+
+  private DatabaseLookup createLookup(
+      DatabaseLookupMeta databaseLookupMeta, DatabaseLookupData data) throws Exception {
+    IRowMeta inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta(new ValueMetaInteger("key"));
+    DatabaseLookup lookup =
+        new DatabaseLookup(
+            mockHelper.transformMeta,
+            databaseLookupMeta,
+            data,
+            0,
+            mockHelper.pipelineMeta,
+            mockHelper.pipeline) {
+          @Override
+          public IRowMeta getInputRowMeta() {
+            return inputRowMeta;
+          }
+        };
+    data.outputRowMeta = inputRowMeta.clone();
+    databaseLookupMeta.getFields(data.outputRowMeta, "lookup", null, null, lookup, null);
+    return lookup;
+  }
+
+  private void store(DatabaseLookupData.ICache cache, long id) {
+    cache.storeRowInCache(meta, lookupMeta, new Object[] {id}, new Object[] {id * 10});
+  }
+
+  private Object[] lookup(DatabaseLookupData.ICache cache, long id) {
+    try {
+      return cache.getRowFromCache(lookupMeta, new Object[] {id});
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
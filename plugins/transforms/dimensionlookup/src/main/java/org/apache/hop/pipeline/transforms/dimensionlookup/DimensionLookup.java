@@ -30,9 +30,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hop.core.Const;
+import org.apache.hop.core.IRowSet;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.exception.HopDatabaseException;
@@ -84,11 +86,11 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
   @Override
   public boolean processRow() throws HopException {
 
-    boolean sendToErrorRow = false;
-    String errorMessage = null;
-
     Object[] r = getRow(); // Get row from input rowset & set row busy!
     if (r == null) { // no more input to be expected...
+      if (data.batchRows != null && !data.batchRows.isEmpty() && !flushBatch()) {
+        return false;
+      }
 
       setOutputDone(); // signal end to receiver(s)
       return false;
@@ -198,6 +200,16 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
       }
 
       setDimLookup(data.outputRowMeta);
+
+      // Look up the natural keys of several rows at once?
+      //
+      if (meta.getBatchSize() > 1) {
+        if (!meta.isUpdate() && !meta.isPreloadingCache()) {
+          initBatch();
+        } else {
+          logBasic(BaseMessages.getString(PKG, "DimensionLookup.Log.BatchNotUsed"));
+        }
+      }
     }
 
     // convert row to normal storage...
@@ -207,6 +219,31 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
       r[lazyFieldIndex] = valueMeta.convertToNormalStorageType(r[lazyFieldIndex]);
     }
 
+    if (data.batchRows != null) {
+      if (data.batchRows.isEmpty()) {
+        data.batchStart = System.currentTimeMillis();
+      }
+      data.batchRows.add(r);
+      if (isBatchComplete()) {
+        return flushBatch();
+      }
+      return true;
+    }
+
+    return lookupRow(r);
+  }
+
+  /**
+   * Look up the dimension entry of an input row, or update the dimension, and pass the row on
+   *
+   * @param r the input row in normal storage
+   * @return false if the transform stops because of an error
+   * @throws HopException in case the row can't be passed on
+   */
+  private boolean lookupRow(Object[] r) throws HopException {
+    boolean sendToErrorRow = false;
+    String errorMessage = null;
+
     try {
       Object[] outputRow =
           lookupValues(data.inputRowMeta, r); // add new values to the row in rowset[0].
@@ -459,11 +496,24 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
       // Perform the lookup in the database...
       //
       if (returnRow == null) {
-        data.db.setValues(data.lookupRowMeta, lookupRow, data.prepStatementLookup);
-        returnRow = data.db.getLookup(data.prepStatementLookup);
-        data.returnRowMeta = data.db.getReturnRowMeta();
+        List<Object[]> versions =
+            data.batchResults == null
+                ? null
+                : data.batchResults.get(
+                    new RowMetaAndData(
+                        data.cacheKeyRowMeta, Arrays.copyOf(lookupRow, data.keynrs.length)));
+        if (versions != null) {
+          // The versions of the natural key were looked up with the other rows of the batch
+          //
+          returnRow = getBatchVersion(versions, valueDate);
+          data.returnRowMeta = data.batchReturnRowMeta;
+        } else {
+          data.db.setValues(data.lookupRowMeta, lookupRow, data.prepStatementLookup);
+          returnRow = data.db.getLookup(data.prepStatementLookup);
+          data.returnRowMeta = data.db.getReturnRowMeta();
 
-        incrementLinesInput();
+          incrementLinesInput();
+        }
 
         if (returnRow != null && meta.getCacheSize() >= 0) {
           addToCache(lookupRow, returnRow);
@@ -873,22 +923,7 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
      */
     StringBuilder sql = new StringBuilder();
 
-    sql.append("SELECT ")
-        .append(data.databaseMeta.quoteField(f.getReturns().getKeyField()))
-        .append(", ")
-        .append(data.databaseMeta.quoteField(f.getReturns().getVersionField()));
-
-    for (DLField field : f.getFields()) {
-      // Don't retrieve the fields without input
-      if (StringUtils.isNotEmpty(field.getLookup())
-          && isLookupOrUpdateTypeWithArgument(meta.isUpdate(), field)) {
-        sql.append(", ").append(data.databaseMeta.quoteField(field.getLookup()));
-
-        if (StringUtils.isNotEmpty(field.getName()) && !field.getLookup().equals(field.getName())) {
-          sql.append(" AS ").append(data.databaseMeta.quoteField(field.getName()));
-        }
-      }
-    }
+    appendLookupColumns(sql);
 
     if (meta.getCacheSize() >= 0) {
       sql.append(", ")
@@ -911,8 +946,7 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
     String dateFromField = data.databaseMeta.quoteField(f.getDate().getFrom());
     String dateToField = data.databaseMeta.quoteField(f.getDate().getTo());
 
-    if (meta.isUsingStartDateAlternative() && meta.getStartDateAlternative() == NULL
-        || meta.getStartDateAlternative() == COLUMN_VALUE) {
+    if (isNullStartDatePossible()) {
       // Null as a start date is possible...
       //
       sql.append(" AND ( ")
@@ -955,6 +989,279 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
     }
   }
 
+  /** SELECT <tk>, <version>, ... : the columns of the dimension entry to return */
+  private void appendLookupColumns(StringBuilder sql) throws HopException {
+    DLFields f = meta.getFields();
+
+    sql.append("SELECT ")
+        .append(data.databaseMeta.quoteField(f.getReturns().getKeyField()))
+        .append(", ")
+        .append(data.databaseMeta.quoteField(f.getReturns().getVersionField()));
+
+    for (DLField field : f.getFields()) {
+      // Don't retrieve the fields without input
+      if (StringUtils.isNotEmpty(field.getLookup())
+          && isLookupOrUpdateTypeWithArgument(meta.isUpdate(), field)) {
+        sql.append(", ").append(data.databaseMeta.quoteField(field.getLookup()));
+
+        if (StringUtils.isNotEmpty(field.getName()) && !field.getLookup().equals(field.getName())) {
+          sql.append(" AS ").append(data.databaseMeta.quoteField(field.getName()));
+        }
+      }
+    }
+  }
+
+  private boolean isNullStartDatePossible() {
+    return meta.isUsingStartDateAlternative() && meta.getStartDateAlternative() == NULL
+        || meta.getStartDateAlternative() == COLUMN_VALUE;
+  }
+
+  /**
+   * Prepare the query which looks up all the versions of the natural keys of a batch of rows. The
+   * version of a row is picked on its date afterwards. The query always has the parameters of a
+   * full batch so the database can reuse its plan, the last key is repeated in a smaller batch.
+   *
+   * <p>SELECT <tk>, <version>, ... , <datefrom>, <dateto>, key1 FROM <table> WHERE key1 IN (?, ?,
+   * ...)
+   *
+   * <p>SELECT <tk>, <version>, ... , <datefrom>, <dateto>, key1, key2 FROM <table> WHERE ((key1 = ?
+   * AND key2 = ?) OR (key1 = ? AND key2 = ?) ...)
+   */
+  private void initBatch() throws HopException {
+    DLFields f = meta.getFields();
+    int batchSize = meta.getBatchSize();
+
+    List<String> keyFields = new ArrayList<>();
+    for (DLKey key : f.getKeys()) {
+      keyFields.add(data.databaseMeta.quoteField(key.getLookup()));
+    }
+
+    StringBuilder sql = new StringBuilder();
+    appendLookupColumns(sql);
+    sql.append(", ")
+        .append(data.databaseMeta.quoteField(f.getDate().getFrom()))
+        .append(", ")
+        .append(data.databaseMeta.quoteField(f.getDate().getTo()));
+    for (String keyField : keyFields) {
+      sql.append(", ").append(keyField);
+    }
+    sql.append(" FROM ").append(data.schemaTable).append(CONST_WHERE);
+    if (keyFields.size() == 1) {
+      sql.append(keyFields.get(0)).append(" IN (");
+      for (int k = 0; k < batchSize; k++) {
+        sql.append(k > 0 ? ", ?" : "?");
+      }
+      sql.append(")");
+    } else {
+      sql.append("(");
+      for (int k = 0; k < batchSize; k++) {
+        sql.append(k > 0 ? " OR (" : "(");
+        for (int i = 0; i < keyFields.size(); i++) {
+          sql.append(i > 0 ? " AND " : "").append(keyFields.get(i)).append(" = ?");
+        }
+        sql.append(")");
+      }
+      sql.append(")");
+    }
+    data.batchSql = sql.toString();
+
+    if (isDetailed()) {
+      logDetailed(BaseMessages.getString(PKG, "DimensionLookup.Log.BatchQuery", data.batchSql));
+    }
+
+    data.batchParamMeta = new RowMeta();
+    for (int k = 0; k < batchSize; k++) {
+      for (IValueMeta keyMeta : data.cacheKeyRowMeta.getValueMetaList()) {
+        data.batchParamMeta.addValueMeta(keyMeta.clone());
+      }
+    }
+    data.batchRows = new ArrayList<>(batchSize);
+  }
+
+  /**
+   * A batch is looked up when it is full, when its first row waited long enough or when there are
+   * no more rows waiting in the input.
+   */
+  private boolean isBatchComplete() {
+    if (data.batchRows.size() >= meta.getBatchSize()) {
+      return true;
+    }
+    if (meta.getBatchMaxLatency() > 0
+        && System.currentTimeMillis() - data.batchStart >= meta.getBatchMaxLatency()) {
+      return true;
+    }
+    List<IRowSet> inputRowSets = getInputRowSets();
+    if (inputRowSets.isEmpty()) {
+      return false;
+    }
+    for (IRowSet rowSet : inputRowSets) {
+      if (rowSet.size() > 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Look up the natural keys of the rows in the batch with one query and pass the rows on in their
+   * original order.
+   *
+   * @return false if the transform stops because of an error
+   * @throws HopException in case a row can't be passed on
+   */
+  private boolean flushBatch() throws HopException {
+    try {
+      lookupBatch();
+    } catch (HopException e) {
+      if (getTransformMeta().isDoingErrorHandling()) {
+        for (Object[] row : data.batchRows) {
+          putError(getInputRowMeta(), row, 1, e.toString(), null, "ISU001");
+        }
+        data.batchRows.clear();
+        return true;
+      }
+      logError(
+          BaseMessages.getString(
+              PKG, "DimensionLookup.Log.TransformCanNotContinueForErrors", e.getMessage()));
+      logError(Const.getStackTracker(e));
+      setErrors(1);
+      stopAll();
+      setOutputDone(); // signal end to receiver(s)
+      data.batchRows.clear();
+      return false;
+    }
+
+    try {
+      for (Object[] row : data.batchRows) {
+        if (!lookupRow(row)) {
+          return false;
+        }
+      }
+      return true;
+    } finally {
+      data.batchRows.clear();
+      data.batchResults = null;
+    }
+  }
+
+  /** Query the versions of the natural keys of the batch which are not in the cache */
+  private void lookupBatch() throws HopException {
+    data.batchResults = new HashMap<>();
+    int nrKeys = data.keynrs.length;
+
+    List<Object[]> keys = new ArrayList<>();
+    for (Object[] row : data.batchRows) {
+      Object[] keyData = new Object[nrKeys];
+      boolean hasNull = false;
+      for (int i = 0; i < nrKeys; i++) {
+        keyData[i] = row[data.keynrs[i]];
+        hasNull |= data.cacheKeyRowMeta.getValueMeta(i).isNull(keyData[i]);
+      }
+
+      // A null key is never equal, it's looked up on its own like before
+      //
+      RowMetaAndData key = new RowMetaAndData(data.cacheKeyRowMeta, keyData);
+      if (hasNull || data.batchResults.containsKey(key) || isInCache(row, keyData)) {
+        continue;
+      }
+      data.batchResults.put(key, new ArrayList<>());
+      keys.add(keyData);
+    }
+    if (keys.isEmpty()) {
+      return;
+    }
+
+    Object[] params = new Object[data.batchParamMeta.size()];
+    for (int k = 0; k < meta.getBatchSize(); k++) {
+      Object[] key = keys.get(Math.min(k, keys.size() - 1));
+      System.arraycopy(key, 0, params, k * nrKeys, nrKeys);
+    }
+
+    List<Object[]> rows =
+        data.db.getRows(data.db.openQuery(data.batchSql, data.batchParamMeta, params), 0, null);
+    IRowMeta rowMeta = data.db.getReturnRowMeta();
+
+    // The versions keep the columns of a single lookup, the dates only when they are cached
+    //
+    int dateFromIndex = rowMeta.size() - nrKeys - 2;
+    int nrReturns = meta.getCacheSize() >= 0 ? dateFromIndex + 2 : dateFromIndex;
+    data.batchReturnRowMeta = new RowMeta();
+    for (int i = 0; i < nrReturns; i++) {
+      data.batchReturnRowMeta.addValueMeta(rowMeta.getValueMeta(i));
+    }
+
+    for (Object[] row : rows) {
+      incrementLinesInput();
+
+      Object[] keyData = new Object[nrKeys];
+      for (int i = 0; i < nrKeys; i++) {
+        keyData[i] =
+            data.cacheKeyRowMeta
+                .getValueMeta(i)
+                .convertData(
+                    rowMeta.getValueMeta(dateFromIndex + 2 + i), row[dateFromIndex + 2 + i]);
+      }
+      List<Object[]> versions =
+          data.batchResults.get(new RowMetaAndData(data.cacheKeyRowMeta, keyData));
+      if (versions != null) {
+        Object[] version = Arrays.copyOf(row, nrReturns);
+        versions.add(
+            new Object[] {
+              version, rowMeta.getDate(row, dateFromIndex), rowMeta.getDate(row, dateFromIndex + 1)
+            });
+      }
+    }
+
+    // The database can match keys which are not equal here, because of a collation, padding of
+    // CHAR columns or the scale of a number. Keys without a version are looked up on their own.
+    //
+    data.batchResults.values().removeIf(List::isEmpty);
+  }
+
+  /** Rows with a version in the cache are not looked up in the database */
+  private boolean isInCache(Object[] row, Object[] keyData) throws HopValueException {
+    if (meta.getCacheSize() < 0) {
+      return false;
+    }
+    Date valueDate;
+    try {
+      valueDate = determineDimensionUpdatedDate(row);
+    } catch (HopException e) {
+      // The row fails on its own when it is looked up
+      return true;
+    }
+    Object[] lookupRow = Arrays.copyOf(keyData, keyData.length + 2);
+    lookupRow[keyData.length] = valueDate;
+    lookupRow[keyData.length + 1] = valueDate;
+    return getFromCache(lookupRow, valueDate) != null;
+  }
+
+  /**
+   * Pick the version of a natural key which is valid on a date, with the date range conditions of
+   * the single lookup.
+   *
+   * @param versions the versions of the key: the return row, the start and the end of the range
+   * @param valueDate the date of the row
+   * @return the return row of the version or null if no version is valid on the date
+   */
+  private Object[] getBatchVersion(List<Object[]> versions, Date valueDate) {
+    if (valueDate == null) {
+      return null;
+    }
+    boolean nullStartDatePossible = isNullStartDatePossible();
+    for (Object[] version : versions) {
+      Date dateFrom = (Date) version[1];
+      Date dateTo = (Date) version[2];
+      if (dateTo == null || !valueDate.before(dateTo)) {
+        continue;
+      }
+      if (dateFrom == null ? nullStartDatePossible : !valueDate.before(dateFrom)) {
+        return (Object[]) version[0];
+      }
+    }
+    return null;
+  }
+
   protected boolean isAutoIncrement() {
     return meta.getFields().getReturns().getCreationMethod()
         == TechnicalKeyCreationMethod.AUTO_INCREMENT;
@@ -20,6 +20,8 @@ package org.apache.hop.pipeline.transforms.dimensionlookup;
 import java.sql.PreparedStatement;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.hash.ByteArrayHashMap;
@@ -88,6 +90,21 @@ public class DimensionLookupData extends BaseTransformData implements ITransform
   /** The input row metadata, but converted to normal storage type */
   public IRowMeta inputRowMeta;
 
+  /** The rows which wait to be looked up in a batch */
+  public List<Object[]> batchRows;
+
+  /** The time the first row of the batch arrived */
+  public long batchStart;
+
+  public String batchSql;
+  public IRowMeta batchParamMeta;
+
+  /** The versions of the natural keys of the batch, an empty list for a key without versions */
+  public Map<RowMetaAndData, List<Object[]>> batchResults;
+
+  /** The layout of the versions, the same as the one of a single lookup */
+  public IRowMeta batchReturnRowMeta;
+
   public DimensionLookupData() {
     super();
 
@@ -101,6 +101,12 @@ public class DimensionLookupDialog extends BaseTransformDialog {
   private Label wlCacheSize;
   private Text wCacheSize;
 
+  private Label wlBatchSize;
+  private Text wBatchSize;
+
+  private Label wlBatchMaxLatency;
+  private Text wBatchMaxLatency;
+
   private Combo wTk;
 
   private Label wlTkRename;
@@ -375,6 +381,41 @@ public class DimensionLookupDialog extends BaseTransformDialog {
     fdCacheSize.right = new FormAttachment(100, 0);
     wCacheSize.setLayoutData(fdCacheSize);
 
+    // Batch size ...
+    wlBatchSize = new Label(mainComposite, SWT.RIGHT);
+    wlBatchSize.setText(BaseMessages.getString(PKG, "DimensionLookupDialog.BatchSize.Label"));
+    PropsUi.setLook(wlBatchSize);
+    FormData fdlBatchSize = new FormData();
+    fdlBatchSize.left = new FormAttachment(0, 0);
+    fdlBatchSize.right = new FormAttachment(middle, -margin);
+    fdlBatchSize.top = new FormAttachment(wCacheSize, margin);
+    wlBatchSize.setLayoutData(fdlBatchSize);
+    wBatchSize = new Text(mainComposite, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wBatchSize);
+    FormData fdBatchSize = new FormData();
+    fdBatchSize.left = new FormAttachment(middle, 0);
+    fdBatchSize.top = new FormAttachment(wCacheSize, margin);
+    fdBatchSize.right = new FormAttachment(100, 0);
+    wBatchSize.setLayoutData(fdBatchSize);
+
+    // Batch maximum latency ...
+    wlBatchMaxLatency = new Label(mainComposite, SWT.RIGHT);
+    wlBatchMaxLatency.setText(
+        BaseMessages.getString(PKG, "DimensionLookupDialog.BatchMaxLatency.Label"));
+    PropsUi.setLook(wlBatchMaxLatency);
+    FormData fdlBatchMaxLatency = new FormData();
+    fdlBatchMaxLatency.left = new FormAttachment(0, 0);
+    fdlBatchMaxLatency.right = new FormAttachment(middle, -margin);
+    fdlBatchMaxLatency.top = new FormAttachment(wBatchSize, margin);
+    wlBatchMaxLatency.setLayoutData(fdlBatchMaxLatency);
+    wBatchMaxLatency = new Text(mainComposite, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wBatchMaxLatency);
+    FormData fdBatchMaxLatency = new FormData();
+    fdBatchMaxLatency.left = new FormAttachment(middle, 0);
+    fdBatchMaxLatency.top = new FormAttachment(wBatchSize, margin);
+    fdBatchMaxLatency.right = new FormAttachment(100, 0);
+    wBatchMaxLatency.setLayoutData(fdBatchMaxLatency);
+
     // THE BOTTOM BUTTONS
     wOk = new Button(mainComposite, SWT.PUSH);
     wOk.setText(BaseMessages.getString(PKG, "System.Button.OK"));
@@ -401,7 +442,7 @@ public class DimensionLookupDialog extends BaseTransformDialog {
     FormData fdTabFolder = new FormData();
     fdTabFolder.left = new FormAttachment(0, 0);
     fdTabFolder.right = new FormAttachment(100, 0);
-    fdTabFolder.top = new FormAttachment(wCacheSize, margin);
+    fdTabFolder.top = new FormAttachment(wBatchMaxLatency, margin);
     fdTabFolder.bottom = new FormAttachment(wOk, -margin);
     wTabFolder.setLayoutData(fdTabFolder);
 
@@ -1064,6 +1105,14 @@ public class DimensionLookupDialog extends BaseTransformDialog {
     wlCacheSize.setEnabled(wUseCache.getSelection() && !wPreloadCache.getSelection());
     wCacheSize.setEnabled(wUseCache.getSelection() && !wPreloadCache.getSelection());
 
+    // Batches are only used to look up without pre-loading the cache
+    //
+    boolean batch = !update && !wPreloadCache.getSelection();
+    wlBatchSize.setEnabled(batch);
+    wBatchSize.setEnabled(batch);
+    wlBatchMaxLatency.setEnabled(batch);
+    wBatchMaxLatency.setEnabled(batch);
+
     // The unknown record
     //
     wDisableUnknownUpdate.setEnabled(update);
@@ -1170,6 +1219,8 @@ public class DimensionLookupDialog extends BaseTransformDialog {
     wUseCache.setSelection(input.getCacheSize() >= 0);
     wPreloadCache.setSelection(input.isPreloadingCache());
     wCacheSize.setText("" + input.getCacheSize());
+    wBatchSize.setText("" + input.getBatchSize());
+    wBatchMaxLatency.setText("" + input.getBatchMaxLatency());
 
     wMinYear.setText("" + input.getMinYear());
     wMaxYear.setText("" + input.getMaxYear());
@@ -1293,6 +1344,8 @@ public class DimensionLookupDialog extends BaseTransformDialog {
     if (wPreloadCache.getSelection()) {
       in.setCacheSize(0);
     }
+    in.setBatchSize(Const.toInt(wBatchSize.getText(), 0));
+    in.setBatchMaxLatency(Const.toInt(wBatchMaxLatency.getText(), 0));
 
     in.setMinYear(Const.toInt(wMinYear.getText(), Const.MIN_YEAR));
     in.setMaxYear(Const.toInt(wMaxYear.getText(), Const.MAX_YEAR));
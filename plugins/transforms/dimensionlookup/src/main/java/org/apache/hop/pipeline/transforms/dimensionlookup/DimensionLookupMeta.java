@@ -179,6 +179,24 @@ public class DimensionLookupMeta extends BaseTransformMeta<DimensionLookup, Dime
   @Setter
   private boolean unknownRowCheckDisabled;
 
+  /** The number of rows to look up with a single query, 0 or 1 to look up every row on its own */
+  @HopMetadataProperty(
+      key = "batch_size",
+      injectionKey = "BATCH_SIZE",
+      injectionKeyDescription = "DimensionLookup.Injection.BATCH_SIZE")
+  @Getter
+  @Setter
+  private int batchSize;
+
+  /** The number of milliseconds a row waits for its batch to fill up, 0 to wait for a full batch */
+  @HopMetadataProperty(
+      key = "batch_max_latency",
+      injectionKey = "BATCH_MAX_LATENCY",
+      injectionKeyDescription = "DimensionLookup.Injection.BATCH_MAX_LATENCY")
+  @Getter
+  @Setter
+  private int batchMaxLatency;
+
   public DimensionLookupMeta() {
     super();
     this.fields = new DLFields();
@@ -212,6 +230,8 @@ public class DimensionLookupMeta extends BaseTransformMeta<DimensionLookup, Dime
     this.startDateFieldName = m.startDateFieldName;
     this.preloadingCache = m.preloadingCache;
     this.unknownRowCheckDisabled = m.unknownRowCheckDisabled;
+    this.batchSize = m.batchSize;
+    this.batchMaxLatency = m.batchMaxLatency;
   }
 
   @Override
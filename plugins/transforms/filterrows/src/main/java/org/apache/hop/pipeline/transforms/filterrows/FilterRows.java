@@ -45,9 +45,9 @@ public class FilterRows extends BaseTransform<FilterRowsMeta, FilterRowsData> {
     super(transformMeta, meta, data, copyNr, pipelineMeta, pipeline);
   }
 
-  private synchronized boolean keepRow(IRowMeta rowMeta, Object[] row) throws HopException {
+  private boolean keepRow(IRowMeta rowMeta, Object[] row) throws HopException {
     try {
-      return meta.getCondition().evaluate(rowMeta, row);
+      return data.condition.evaluate(row);
     } catch (Exception e) {
       String message =
           BaseMessages.getString(
@@ -63,8 +63,8 @@ public class FilterRows extends BaseTransform<FilterRowsMeta, FilterRowsData> {
 
   @Override
   public boolean processRow() throws HopException {
-    Object[] r = getRow(); // Get next usable row from input rowset(s)!
-    if (r == null) {
+    Object[][] rows = getRows(Const.ROWS_IN_BATCH); // Get next usable rows from input rowset(s)!
+    if (rows == null) {
       setOutputDone();
       return false;
     }
@@ -78,6 +78,10 @@ public class FilterRows extends BaseTransform<FilterRowsMeta, FilterRowsData> {
       // if filter refers to non-existing fields, throw exception
       checkNonExistingFields();
 
+      // Every copy evaluates its own compiled condition
+      //
+      data.condition = meta.getCondition().compile(getInputRowMeta());
+
       // Cache the position of the IRowSet for the output.
       //
       if (data.chosesTargetTransforms) {
@@ -118,38 +122,44 @@ public class FilterRows extends BaseTransform<FilterRowsMeta, FilterRowsData> {
       }
     }
 
-    boolean keep = keepRow(getInputRowMeta(), r); // Keep this row?
-    if (!data.chosesTargetTransforms) {
-      if (keep) {
-        putRow(data.outputRowMeta, r); // copy row to output rowset(s)
-      }
-    } else {
-      if (keep) {
-        if (data.trueRowSet != null) {
-          if (isRowLevel()) {
-            logRowlevel(
-                "Sending row to true  :"
-                    + data.trueTransformName
-                    + " : "
-                    + getInputRowMeta().getString(r));
-          }
-          putRowTo(data.outputRowMeta, r, data.trueRowSet);
+    int nrKept = 0;
+    for (Object[] r : rows) {
+      boolean keep = keepRow(getInputRowMeta(), r); // Keep this row?
+      if (!data.chosesTargetTransforms) {
+        if (keep) {
+          rows[nrKept++] = r; // collect the rows to keep at the start of the batch
         }
       } else {
-        if (data.falseRowSet != null) {
-          if (isRowLevel()) {
-            logRowlevel(
-                "Sending row to false :"
-                    + data.falseTransformName
-                    + " : "
-                    + getInputRowMeta().getString(r));
+        if (keep) {
+          if (data.trueRowSet != null) {
+            if (isRowLevel()) {
+              logRowlevel(
+                  "Sending row to true  :"
+                      + data.trueTransformName
+                      + " : "
+                      + getInputRowMeta().getString(r));
+            }
+            putRowTo(data.outputRowMeta, r, data.trueRowSet);
+          }
+        } else {
+          if (data.falseRowSet != null) {
+            if (isRowLevel()) {
+              logRowlevel(
+                  "Sending row to false :"
+                      + data.falseTransformName
+                      + " : "
+                      + getInputRowMeta().getString(r));
+            }
+            putRowTo(data.outputRowMeta, r, data.falseRowSet);
           }
-          putRowTo(data.outputRowMeta, r, data.falseRowSet);
         }
       }
     }
+    if (!data.chosesTargetTransforms) {
+      putRows(data.outputRowMeta, rows, nrKept); // copy rows to output rowset(s)
+    }
 
-    if (checkFeedback(getLinesRead()) && isBasic()) {
+    if (checkFeedback(getLinesRead(), rows.length) && isBasic()) {
       logBasic(BaseMessages.getString(PKG, "FilterRows.Log.LineNumber") + getLinesRead());
     }
 
@@ -160,10 +170,6 @@ public class FilterRows extends BaseTransform<FilterRowsMeta, FilterRowsData> {
   public boolean init() {
 
     if (super.init()) {
-      // could it be a better idea to have a clone on the condition in data and do this on the first
-      // row?
-      meta.getCondition().clearFieldPositions();
-
       List<IStream> targetStreams = meta.getTransformIOMeta().getTargetStreams();
       data.trueTransformName = targetStreams.get(0).getTransformName();
       data.falseTransformName = targetStreams.get(1).getTransformName();
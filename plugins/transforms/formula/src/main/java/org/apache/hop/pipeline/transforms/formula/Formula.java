@@ -27,6 +27,7 @@ import java.util.List;
 import java.util.stream.IntStream;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopTransformException;
+import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.row.value.ValueMetaFactory;
@@ -35,6 +36,9 @@ import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.formula.util.CompiledFormula;
+import org.apache.hop.pipeline.transforms.formula.util.FormulaCompiler;
+import org.apache.hop.pipeline.transforms.formula.util.FormulaCompiler.UnsupportedFormulaException;
 import org.apache.hop.pipeline.transforms.formula.util.FormulaParser;
 import org.apache.poi.ss.usermodel.CellType;
 import org.apache.poi.ss.usermodel.CellValue;
@@ -130,6 +134,23 @@ public class Formula extends BaseTransform<FormulaMeta, FormulaData> {
               .map(FormulaMetaFunction::getFormula)
               .map(f -> getFormulaFieldList(resolve(f)))
               .toArray(List[]::new);
+
+      // Compile the formulas once, the ones we can't compile are evaluated with a POI workbook
+      //
+      data.compiledFormulas = new CompiledFormula[meta.getFormulas().size()];
+      for (int i = 0; i < meta.getFormulas().size(); i++) {
+        FormulaMetaFunction formula = meta.getFormulas().get(i);
+        String expression =
+            FormulaParser.replaceFields(
+                resolve(formula.getFormula()), formulaFieldLists[i], replaceMap);
+        try {
+          data.compiledFormulas[i] =
+              FormulaCompiler.compile(expression, data.outputRowMeta, formula.isSetNa());
+        } catch (UnsupportedFormulaException e) {
+          logDetailed(
+              "Formula '" + expression + "' is evaluated with Apache POI: " + e.getMessage());
+        }
+      }
     }
 
     int tempIndex = getInputRowMeta().size();
@@ -142,17 +163,20 @@ public class Formula extends BaseTransform<FormulaMeta, FormulaData> {
     for (int i = 0; i < meta.getFormulas().size(); i++) {
       Object outputValue = null;
       FormulaMetaFunction formula = meta.getFormulas().get(i);
-      FormulaParser parser =
-          new FormulaParser(
-              formula,
-              data.outputRowMeta,
-              outputRowData,
-              poi[i],
-              variables,
-              replaceMap,
-              formulaFieldLists[i]);
       try {
-        CellValue cellValue = parser.getFormulaValue();
+        CellValue cellValue = evaluateCompiled(i, outputRowData);
+        if (cellValue == null) {
+          FormulaParser parser =
+              new FormulaParser(
+                  formula,
+                  data.outputRowMeta,
+                  outputRowData,
+                  poi[i],
+                  variables,
+                  replaceMap,
+                  formulaFieldLists[i]);
+          cellValue = parser.getFormulaValue();
+        }
         CellType cellType = cellValue.getCellType();
 
         int outputValueType = formula.getValueType();
@@ -227,6 +251,30 @@ public class Formula extends BaseTransform<FormulaMeta, FormulaData> {
     return true;
   }
 
+  /**
+   * Evaluate a compiled formula. If POI can't evaluate a function of the formula outside a workbook
+   * we stop using the compiled formula.
+   *
+   * @return the result of the formula or null if the formula needs to be evaluated in a workbook
+   */
+  private CellValue evaluateCompiled(int index, Object[] outputRowData) throws HopValueException {
+    CompiledFormula compiledFormula = data.compiledFormulas[index];
+    if (compiledFormula == null) {
+      return null;
+    }
+    try {
+      return compiledFormula.evaluate(outputRowData);
+    } catch (RuntimeException e) {
+      logDetailed(
+          "Formula '"
+              + meta.getFormulas().get(index).getFormula()
+              + "' is evaluated with Apache POI from now on: "
+              + e.getMessage());
+      data.compiledFormulas[index] = null;
+      return null;
+    }
+  }
+
   /**
    * This is the base transform that forms that basis for all transforms. You can derive from this
    * class to implement your own transforms.
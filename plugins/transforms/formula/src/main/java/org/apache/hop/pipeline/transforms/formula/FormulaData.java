@@ -20,6 +20,7 @@ package org.apache.hop.pipeline.transforms.formula;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
+import org.apache.hop.pipeline.transforms.formula.util.CompiledFormula;
 
 @SuppressWarnings("java:S1104")
 public class FormulaData extends BaseTransformData implements ITransformData {
@@ -38,6 +39,9 @@ public class FormulaData extends BaseTransformData implements ITransformData {
   public int[] returnType;
   public int[] replaceIndex;
 
+  /** The compiled formulas, null for the formulas evaluated with a POI workbook */
+  public CompiledFormula[] compiledFormulas;
+
   public FormulaData() {
     super();
   }
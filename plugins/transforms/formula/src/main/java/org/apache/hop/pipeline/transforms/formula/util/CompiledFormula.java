@@ -0,0 +1,376 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.formula.util;
+
+import java.util.Date;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.poi.ss.formula.TwoDEval;
+import org.apache.poi.ss.formula.WorkbookEvaluator;
+import org.apache.poi.ss.formula.eval.AreaEval;
+import org.apache.poi.ss.formula.eval.AreaEvalBase;
+import org.apache.poi.ss.formula.eval.BlankEval;
+import org.apache.poi.ss.formula.eval.BoolEval;
+import org.apache.poi.ss.formula.eval.ErrorEval;
+import org.apache.poi.ss.formula.eval.EvaluationException;
+import org.apache.poi.ss.formula.eval.MissingArgEval;
+import org.apache.poi.ss.formula.eval.NumberEval;
+import org.apache.poi.ss.formula.eval.NumericValueEval;
+import org.apache.poi.ss.formula.eval.RefEvalBase;
+import org.apache.poi.ss.formula.eval.StringEval;
+import org.apache.poi.ss.formula.eval.ValueEval;
+import org.apache.poi.ss.formula.functions.Function;
+import org.apache.poi.ss.formula.functions.IfFunc;
+import org.apache.poi.ss.formula.ptg.AreaI;
+import org.apache.poi.ss.usermodel.CellValue;
+import org.apache.poi.ss.usermodel.DateUtil;
+
+/**
+ * A formula which was parsed once by the {@link FormulaCompiler} into a tree of nodes. The tree is
+ * evaluated directly against the fields of a row: there is no workbook, no cell to fill and no
+ * formula to parse for every row. Operators and functions are evaluated by the function library of
+ * Apache POI so the results are the same as the ones of the {@link FormulaParser}.
+ *
+ * <p>The fields are seen by the formula as if they were cells on the first row of a sheet, in the
+ * order in which they appear in the formula, followed by the cell of the formula itself. This is
+ * the layout used by the {@link FormulaParser}, functions like COLUMN() give the same answer.
+ * Functions which look at the cells around a field (OFFSET, SUMIF, INDEX, the lookups...) see the
+ * other fields of the row on the first row of the sheet, the formula itself and blank cells
+ * elsewhere.
+ */
+public class CompiledFormula {
+  private final Node root;
+  private final int column;
+
+  CompiledFormula(Node root, int column) {
+    this.root = root;
+    this.column = column;
+  }
+
+  /**
+   * Evaluate the formula for a row.
+   *
+   * @param row the row with the field values
+   * @return the result of the formula, the same way the POI formula evaluator returns it
+   * @throws HopValueException in case a field value can't be converted
+   * @throws RuntimeException in case POI can't evaluate a function outside a workbook
+   */
+  public CellValue evaluate(Object[] row) throws HopValueException {
+    ValueEval value;
+    try {
+      value = WorkbookEvaluator.dereferenceResult(root.evaluate(row), 0, column);
+    } catch (FieldValueException e) {
+      throw e.getCause();
+    }
+    if (value instanceof BoolEval boolEval) {
+      return CellValue.valueOf(boolEval.getBooleanValue());
+    }
+    if (value instanceof NumericValueEval numericValueEval) {
+      return new CellValue(numericValueEval.getNumberValue());
+    }
+    if (value instanceof StringEval stringEval) {
+      return new CellValue(stringEval.getStringValue());
+    }
+    if (value instanceof ErrorEval errorEval) {
+      return CellValue.getError(errorEval.getErrorCode());
+    }
+    throw new IllegalStateException("Unexpected formula result " + value.getClass().getName());
+  }
+
+  /** A node in the tree of a compiled formula */
+  interface Node {
+    ValueEval evaluate(Object[] row) throws HopValueException;
+  }
+
+  /** A literal: a number, a string, a boolean, an error or a missing function argument */
+  static final class ConstantNode implements Node {
+    private final ValueEval value;
+
+    ConstantNode(ValueEval value) {
+      this.value = value;
+    }
+
+    ValueEval getValue() {
+      return value;
+    }
+
+    @Override
+    public ValueEval evaluate(Object[] row) {
+      return value;
+    }
+  }
+
+  /**
+   * A field of the row. The value is converted the way the {@link FormulaParser} stores it in a
+   * cell and handed over as a reference to that cell.
+   */
+  static final class FieldNode implements Node {
+    private final int index;
+    private final IValueMeta valueMeta;
+    private final int column;
+    private final boolean setNa;
+    private final FieldNode[] cells;
+
+    /**
+     * @param cells the fields by column on the first row of the sheet, shared by all the fields of
+     *     the formula
+     */
+    FieldNode(int index, IValueMeta valueMeta, int column, boolean setNa, FieldNode[] cells) {
+      this.index = index;
+      this.valueMeta = valueMeta;
+      this.column = column;
+      this.setNa = setNa;
+      this.cells = cells;
+    }
+
+    @Override
+    public ValueEval evaluate(Object[] row) throws HopValueException {
+      return new FieldRefEval(column, getValue(row[index]), cells, row);
+    }
+
+    private ValueEval getValue(Object object) throws HopValueException {
+      if (object == null) {
+        return setNa ? ErrorEval.NA : BlankEval.instance;
+      }
+      switch (valueMeta.getType()) {
+        case IValueMeta.TYPE_BOOLEAN:
+          return BoolEval.valueOf(valueMeta.getBoolean(object));
+        case IValueMeta.TYPE_DATE, IValueMeta.TYPE_TIMESTAMP:
+          Date date = valueMeta.getDate(object);
+          return date == null ? BlankEval.instance : getNumber(DateUtil.getExcelDate(date, false));
+        case IValueMeta.TYPE_INTEGER:
+          return new NumberEval(valueMeta.getInteger(object));
+        case IValueMeta.TYPE_NUMBER:
+          return getNumber(valueMeta.getNumber(object));
+        default:
+          // Strings, big numbers and all the other types are passed as a string
+          String string = valueMeta.getString(object);
+          return string == null ? BlankEval.instance : new StringEval(string);
+      }
+    }
+
+    private static ValueEval getNumber(double number) {
+      // This is what a cell does with these values
+      if (Double.isInfinite(number)) {
+        return ErrorEval.DIV_ZERO;
+      }
+      if (Double.isNaN(number)) {
+        return ErrorEval.NUM_ERROR;
+      }
+      return new NumberEval(number);
+    }
+  }
+
+  /** An operator or a function of the POI function library, the arguments are evaluated first */
+  static final class FunctionNode implements Node {
+    private final Function function;
+    private final Node[] arguments;
+    private final int column;
+
+    FunctionNode(Function function, Node[] arguments, int column) {
+      this.function = function;
+      this.arguments = arguments;
+      this.column = column;
+    }
+
+    @Override
+    public ValueEval evaluate(Object[] row) throws HopValueException {
+      ValueEval[] values = new ValueEval[arguments.length];
+      for (int i = 0; i < arguments.length; i++) {
+        values[i] = arguments[i].evaluate(row);
+      }
+      return function.evaluate(values, 0, column);
+    }
+  }
+
+  /** IF() only evaluates the branch it returns */
+  static final class IfNode implements Node {
+    private final Node condition;
+    private final Node whenTrue;
+    private final Node whenFalse;
+    private final int column;
+
+    IfNode(Node condition, Node whenTrue, Node whenFalse, int column) {
+      this.condition = condition;
+      this.whenTrue = whenTrue;
+      this.whenFalse = whenFalse;
+      this.column = column;
+    }
+
+    @Override
+    public ValueEval evaluate(Object[] row) throws HopValueException {
+      boolean result;
+      try {
+        result = IfFunc.evaluateFirstArg(condition.evaluate(row), 0, column);
+      } catch (EvaluationException e) {
+        return e.getErrorEval();
+      }
+      if (result) {
+        return blankIfMissing(whenTrue.evaluate(row));
+      }
+      if (whenFalse == null) {
+        return BoolEval.FALSE;
+      }
+      return blankIfMissing(whenFalse.evaluate(row));
+    }
+
+    private static ValueEval blankIfMissing(ValueEval value) {
+      return value == MissingArgEval.instance ? BlankEval.instance : value;
+    }
+  }
+
+  /** IFERROR() only evaluates its second argument if the first one is an error */
+  static final class IfErrorNode implements Node {
+    private final Node value;
+    private final Node valueIfError;
+    private final int column;
+
+    IfErrorNode(Node value, Node valueIfError, int column) {
+      this.value = value;
+      this.valueIfError = valueIfError;
+      this.column = column;
+    }
+
+    @Override
+    public ValueEval evaluate(Object[] row) throws HopValueException {
+      ValueEval result = WorkbookEvaluator.dereferenceResult(value.evaluate(row), 0, column);
+      if (result instanceof ErrorEval) {
+        return valueIfError.evaluate(row);
+      }
+      return result;
+    }
+  }
+
+  /** A reference to the cell of a field on the first row of the sheet */
+  static final class FieldRefEval extends RefEvalBase {
+    private final ValueEval value;
+    private final FieldNode[] cells;
+    private final Object[] row;
+
+    FieldRefEval(int column, ValueEval value, FieldNode[] cells, Object[] row) {
+      super(0, 0, 0, column);
+      this.value = value;
+      this.cells = cells;
+      this.row = row;
+    }
+
+    @Override
+    public ValueEval getInnerValueEval(int sheetIndex) {
+      return value;
+    }
+
+    @Override
+    public AreaEval offset(
+        int relFirstRowIx, int relLastRowIx, int relFirstColIx, int relLastColIx) {
+      return new FieldAreaEval(
+          new AreaI.OffsetArea(
+              getRow(), getColumn(), relFirstRowIx, relLastRowIx, relFirstColIx, relLastColIx),
+          cells,
+          row);
+    }
+  }
+
+  /** An area of the sheet around the fields, the values of the fields are converted on access */
+  static final class FieldAreaEval extends AreaEvalBase {
+    private final FieldNode[] cells;
+    private final Object[] row;
+
+    FieldAreaEval(AreaI area, FieldNode[] cells, Object[] row) {
+      super(area);
+      this.cells = cells;
+      this.row = row;
+    }
+
+    @Override
+    public ValueEval getRelativeValue(int relativeRowIndex, int relativeColumnIndex) {
+      return getRelativeValue(0, relativeRowIndex, relativeColumnIndex);
+    }
+
+    @Override
+    public ValueEval getRelativeValue(
+        int sheetIndex, int relativeRowIndex, int relativeColumnIndex) {
+      int rowIndex = getFirstRow() + relativeRowIndex;
+      int columnIndex = getFirstColumn() + relativeColumnIndex;
+      if (rowIndex != 0 || columnIndex > cells.length) {
+        return BlankEval.instance;
+      }
+      if (columnIndex == cells.length) {
+        // The cell of the formula itself
+        return ErrorEval.CIRCULAR_REF_ERROR;
+      }
+      FieldNode field = cells[columnIndex];
+      try {
+        return field.getValue(row[field.index]);
+      } catch (HopValueException e) {
+        throw new FieldValueException(e);
+      }
+    }
+
+    @Override
+    public AreaEval offset(
+        int relFirstRowIx, int relLastRowIx, int relFirstColIx, int relLastColIx) {
+      return new FieldAreaEval(
+          new AreaI.OffsetArea(
+              getFirstRow(),
+              getFirstColumn(),
+              relFirstRowIx,
+              relLastRowIx,
+              relFirstColIx,
+              relLastColIx),
+          cells,
+          row);
+    }
+
+    @Override
+    public TwoDEval getRow(int rowIndex) {
+      if (rowIndex >= getHeight()) {
+        throw new IllegalArgumentException(
+            "Invalid rowIndex " + rowIndex + ".  Allowable range is (0.." + getHeight() + ").");
+      }
+      return offset(rowIndex, rowIndex, 0, getWidth() - 1);
+    }
+
+    @Override
+    public TwoDEval getColumn(int columnIndex) {
+      if (columnIndex >= getWidth()) {
+        throw new IllegalArgumentException(
+            "Invalid columnIndex "
+                + columnIndex
+                + ".  Allowable range is (0.."
+                + getWidth()
+                + ").");
+      }
+      return offset(0, getHeight() - 1, columnIndex, columnIndex);
+    }
+  }
+
+  /**
+   * A field value which can't be converted, thrown through the POI functions which can't throw a
+   * checked exception.
+   */
+  static final class FieldValueException extends RuntimeException {
+    FieldValueException(HopValueException cause) {
+      super(cause);
+    }
+
+    @Override
+    public synchronized HopValueException getCause() {
+      return (HopValueException) super.getCause();
+    }
+  }
+}
@@ -0,0 +1,446 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.formula.util;
+
+import static org.apache.hop.pipeline.transforms.formula.util.FormulaFieldsExtractor.getFormulaFieldList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.pipeline.transforms.formula.util.CompiledFormula.ConstantNode;
+import org.apache.hop.pipeline.transforms.formula.util.CompiledFormula.FieldNode;
+import org.apache.hop.pipeline.transforms.formula.util.CompiledFormula.FunctionNode;
+import org.apache.hop.pipeline.transforms.formula.util.CompiledFormula.IfErrorNode;
+import org.apache.hop.pipeline.transforms.formula.util.CompiledFormula.IfNode;
+import org.apache.hop.pipeline.transforms.formula.util.CompiledFormula.Node;
+import org.apache.poi.ss.formula.eval.BoolEval;
+import org.apache.poi.ss.formula.eval.ConcatEval;
+import org.apache.poi.ss.formula.eval.ErrorEval;
+import org.apache.poi.ss.formula.eval.FunctionEval;
+import org.apache.poi.ss.formula.eval.MissingArgEval;
+import org.apache.poi.ss.formula.eval.NumberEval;
+import org.apache.poi.ss.formula.eval.PercentEval;
+import org.apache.poi.ss.formula.eval.RelationalOperationEval;
+import org.apache.poi.ss.formula.eval.StringEval;
+import org.apache.poi.ss.formula.eval.TwoOperandNumericOperation;
+import org.apache.poi.ss.formula.eval.UnaryMinusEval;
+import org.apache.poi.ss.formula.eval.UnaryPlusEval;
+import org.apache.poi.ss.formula.function.FunctionMetadata;
+import org.apache.poi.ss.formula.function.FunctionMetadataRegistry;
+import org.apache.poi.ss.formula.functions.Function;
+import org.apache.poi.ss.usermodel.FormulaError;
+
+/**
+ * Parses a formula once into a {@link CompiledFormula}. The grammar and the operator precedence are
+ * the ones of the POI formula parser: comparisons, concatenation (&amp;), addition and subtraction,
+ * multiplication and division, power (^), percent (%) and finally the unary plus and minus which
+ * apply to a power.
+ *
+ * <p>Formulas the compiler doesn't support are rejected with an {@link UnsupportedFormulaException}
+ * so that they can be evaluated with a POI workbook instead: cell and range references, names,
+ * array constants, functions outside the POI function library (except IFERROR) and functions which
+ * need a workbook like INDIRECT.
+ */
+public final class FormulaCompiler {
+  private final String formula;
+  private final IRowMeta rowMeta;
+  private final List<String> fieldList;
+  private final int column;
+  private final FieldNode[] cells;
+  private int pos;
+
+  private FormulaCompiler(String formula, IRowMeta rowMeta, boolean setNa) {
+    this.formula = formula;
+    this.rowMeta = rowMeta;
+    this.fieldList = getFormulaFieldList(formula);
+    this.column = fieldList.size();
+
+    // Every field is a cell on the first row of the sheet, even if it's referenced more than once
+    //
+    this.cells = new FieldNode[column];
+    for (int i = 0; i < column; i++) {
+      int index = rowMeta.indexOfValue(fieldList.get(i));
+      if (index >= 0) {
+        cells[i] = new FieldNode(index, rowMeta.getValueMeta(index), i, setNa, cells);
+      }
+    }
+  }
+
+  /**
+   * Compile a formula.
+   *
+   * @param formula the formula with the variables resolved and the replaced fields renamed
+   * @param rowMeta the layout of the rows the formula is evaluated on
+   * @param setNa true if null values of fields are passed as #N/A, false for a blank
+   * @return the compiled formula
+   * @throws UnsupportedFormulaException if the formula can't be compiled
+   */
+  public static CompiledFormula compile(String formula, IRowMeta rowMeta, boolean setNa)
+      throws UnsupportedFormulaException {
+    FormulaCompiler compiler = new FormulaCompiler(formula, rowMeta, setNa);
+    try {
+      Node root = compiler.parseComparison();
+      compiler.skipWhite();
+      if (compiler.pos < formula.length()) {
+        throw compiler.unsupported("unexpected character '" + compiler.peek() + "'");
+      }
+      return new CompiledFormula(root, compiler.column);
+    } catch (RuntimeException e) {
+      throw new UnsupportedFormulaException(
+          "Unable to compile formula '" + formula + "' : " + e.getMessage(), e);
+    }
+  }
+
+  private Node parseComparison() throws UnsupportedFormulaException {
+    Node node = parseConcat();
+    while (true) {
+      skipWhite();
+      Function operator;
+      switch (peek()) {
+        case '=':
+          pos++;
+          operator = RelationalOperationEval.EqualEval;
+          break;
+        case '<':
+          pos++;
+          if (peek() == '=') {
+            pos++;
+            operator = RelationalOperationEval.LessEqualEval;
+          } else if (peek() == '>') {
+            pos++;
+            operator = RelationalOperationEval.NotEqualEval;
+          } else {
+            operator = RelationalOperationEval.LessThanEval;
+          }
+          break;
+        case '>':
+          pos++;
+          if (peek() == '=') {
+            pos++;
+            operator = RelationalOperationEval.GreaterEqualEval;
+          } else {
+            operator = RelationalOperationEval.GreaterThanEval;
+          }
+          break;
+        default:
+          return node;
+      }
+      node = operation(operator, node, parseConcat());
+    }
+  }
+
+  private Node parseConcat() throws UnsupportedFormulaException {
+    Node node = parseAdditive();
+    while (true) {
+      skipWhite();
+      if (peek() != '&') {
+        return node;
+      }
+      pos++;
+      node = operation(ConcatEval.instance, node, parseAdditive());
+    }
+  }
+
+  private Node parseAdditive() throws UnsupportedFormulaException {
+    Node node = parseTerm();
+    while (true) {
+      skipWhite();
+      char c = peek();
+      if (c == '+') {
+        pos++;
+        node = operation(TwoOperandNumericOperation.AddEval, node, parseTerm());
+      } else if (c == '-') {
+        pos++;
+        node = operation(TwoOperandNumericOperation.SubtractEval, node, parseTerm());
+      } else {
+        return node;
+      }
+    }
+  }
+
+  private Node parseTerm() throws UnsupportedFormulaException {
+    Node node = parsePower();
+    while (true) {
+      skipWhite();
+      char c = peek();
+      if (c == '*') {
+        pos++;
+        node = operation(TwoOperandNumericOperation.MultiplyEval, node, parsePower());
+      } else if (c == '/') {
+        pos++;
+        node = operation(TwoOperandNumericOperation.DivideEval, node, parsePower());
+      } else {
+        return node;
+      }
+    }
+  }
+
+  private Node parsePower() throws UnsupportedFormulaException {
+    Node node = parsePercent();
+    while (true) {
+      skipWhite();
+      if (peek() != '^') {
+        return node;
+      }
+      pos++;
+      node = operation(TwoOperandNumericOperation.PowerEval, node, parsePercent());
+    }
+  }
+
+  private Node parsePercent() throws UnsupportedFormulaException {
+    Node node = parseSimpleFactor();
+    while (true) {
+      skipWhite();
+      if (peek() != '%') {
+        return node;
+      }
+      pos++;
+      node = operation(PercentEval.instance, node);
+    }
+  }
+
+  private Node parseSimpleFactor() throws UnsupportedFormulaException {
+    skipWhite();
+    char c = peek();
+    switch (c) {
+      case '#':
+        return parseErrorLiteral();
+      case '-':
+        pos++;
+        return parseUnary(false);
+      case '+':
+        pos++;
+        return parseUnary(true);
+      case '(':
+        pos++;
+        Node node = parseComparison();
+        skipWhite();
+        expect(')');
+        return node;
+      case '"':
+        return parseStringLiteral();
+      case '[':
+        return parseField();
+      default:
+        break;
+    }
+    if (Character.isDigit(c) || c == '.') {
+      return parseNumber();
+    }
+    if (Character.isLetter(c) || c == '_' || c == '\\') {
+      return parseName();
+    }
+    throw unsupported(
+        pos < formula.length() ? "unexpected character '" + c + "'" : "unexpected end");
+  }
+
+  /** A plus or minus sign directly in front of a number is part of that number */
+  private Node parseUnary(boolean plus) throws UnsupportedFormulaException {
+    skipWhite();
+    boolean numberFollows = Character.isDigit(peek()) || peek() == '.';
+    Node node = parsePower();
+    if (numberFollows
+        && node instanceof ConstantNode constantNode
+        && constantNode.getValue() instanceof NumberEval numberEval) {
+      return plus ? node : new ConstantNode(new NumberEval(-numberEval.getNumberValue()));
+    }
+    return operation(plus ? UnaryPlusEval.instance : UnaryMinusEval.instance, node);
+  }
+
+  private Node parseErrorLiteral() throws UnsupportedFormulaException {
+    for (FormulaError error : FormulaError.values()) {
+      String text = error.getString();
+      if (text.startsWith("#") && formula.regionMatches(true, pos, text, 0, text.length())) {
+        pos += text.length();
+        return new ConstantNode(ErrorEval.valueOf(error.getCode()));
+      }
+    }
+    throw unsupported("unknown error literal");
+  }
+
+  private Node parseStringLiteral() throws UnsupportedFormulaException {
+    pos++;
+    StringBuilder value = new StringBuilder();
+    while (true) {
+      int end = formula.indexOf('"', pos);
+      if (end < 0) {
+        throw unsupported("unterminated string");
+      }
+      value.append(formula, pos, end);
+      pos = end + 1;
+      if (peek() != '"') {
+        break;
+      }
+      // Two double quotes are a double quote in the string
+      value.append('"');
+      pos++;
+    }
+    // The fields are replaced everywhere in the formula text by the POI formula parser, even in
+    // strings. Leave such strings to that parser.
+    //
+    if (value.indexOf("[") >= 0) {
+      throw unsupported("square brackets in a string");
+    }
+    return new ConstantNode(new StringEval(value.toString()));
+  }
+
+  private Node parseField() throws UnsupportedFormulaException {
+    int end = formula.indexOf(']', pos);
+    if (end < 0) {
+      throw unsupported("unterminated field reference");
+    }
+    String name = formula.substring(pos + 1, end);
+    pos = end + 1;
+    if (rowMeta.indexOfValue(name) < 0) {
+      throw unsupported("unknown field [" + name + "]");
+    }
+    return cells[fieldList.indexOf(name)];
+  }
+
+  private Node parseNumber() {
+    int start = pos;
+    while (Character.isDigit(peek()) || peek() == '.') {
+      pos++;
+    }
+    if (peek() == 'E' || peek() == 'e') {
+      pos++;
+      if (peek() == '+' || peek() == '-') {
+        pos++;
+      }
+      while (Character.isDigit(peek())) {
+        pos++;
+      }
+    }
+    return new ConstantNode(new NumberEval(Double.parseDouble(formula.substring(start, pos))));
+  }
+
+  private Node parseName() throws UnsupportedFormulaException {
+    int start = pos;
+    while (Character.isLetterOrDigit(peek()) || peek() == '_' || peek() == '.') {
+      pos++;
+    }
+    String name = formula.substring(start, pos).toUpperCase(Locale.ROOT);
+    if (peek() != '(') {
+      if ("TRUE".equals(name)) {
+        return new ConstantNode(BoolEval.TRUE);
+      }
+      if ("FALSE".equals(name)) {
+        return new ConstantNode(BoolEval.FALSE);
+      }
+      throw unsupported("cell references and names are not supported: " + name);
+    }
+    pos++;
+    return function(name, parseArguments());
+  }
+
+  private List<Node> parseArguments() throws UnsupportedFormulaException {
+    List<Node> arguments = new ArrayList<>();
+    skipWhite();
+    if (peek() == ')') {
+      pos++;
+      return arguments;
+    }
+    while (true) {
+      skipWhite();
+      char c = peek();
+      if (c == ',' || c == ')') {
+        arguments.add(new ConstantNode(MissingArgEval.instance));
+      } else {
+        arguments.add(parseComparison());
+        skipWhite();
+      }
+      if (peek() == ')') {
+        pos++;
+        return arguments;
+      }
+      expect(',');
+    }
+  }
+
+  private Node function(String name, List<Node> arguments) throws UnsupportedFormulaException {
+    int count = arguments.size();
+    if (FunctionMetadataRegistry.FUNCTION_NAME_IF.equals(name)) {
+      if (count < 2 || count > 3) {
+        throw unsupported("IF() needs 2 or 3 arguments");
+      }
+      return new IfNode(
+          arguments.get(0), arguments.get(1), count == 3 ? arguments.get(2) : null, column);
+    }
+    if ("IFERROR".equals(name)) {
+      if (count != 2) {
+        throw unsupported("IFERROR() needs 2 arguments");
+      }
+      return new IfErrorNode(arguments.get(0), arguments.get(1), column);
+    }
+    FunctionMetadata metadata = FunctionMetadataRegistry.getFunctionByName(name);
+    if (metadata == null) {
+      throw unsupported("unknown function " + name);
+    }
+    int index = metadata.getIndex();
+    if (index == FunctionMetadataRegistry.FUNCTION_INDEX_INDIRECT
+        || index == FunctionMetadataRegistry.FUNCTION_INDEX_EXTERNAL) {
+      throw unsupported("function " + name + " needs a workbook");
+    }
+    if (count < metadata.getMinParams() || count > metadata.getMaxParams()) {
+      throw unsupported("wrong number of arguments for function " + name);
+    }
+    Function function = FunctionEval.getBasicFunction(index);
+    if (function == null) {
+      throw unsupported("function " + name + " is not available");
+    }
+    return new FunctionNode(function, arguments.toArray(new Node[0]), column);
+  }
+
+  private Node operation(Function operator, Node... operands) {
+    return new FunctionNode(operator, operands, column);
+  }
+
+  private void expect(char c) throws UnsupportedFormulaException {
+    if (peek() != c) {
+      throw unsupported("expected '" + c + "'");
+    }
+    pos++;
+  }
+
+  private char peek() {
+    return pos < formula.length() ? formula.charAt(pos) : 0;
+  }
+
+  private void skipWhite() {
+    while (pos < formula.length() && " \t\r\n".indexOf(formula.charAt(pos)) >= 0) {
+      pos++;
+    }
+  }
+
+  private UnsupportedFormulaException unsupported(String reason) {
+    return new UnsupportedFormulaException(
+        "Unable to compile formula '" + formula + "' at position " + pos + " : " + reason);
+  }
+
+  /** Thrown when a formula can't be compiled and needs to be evaluated with a POI workbook */
+  public static class UnsupportedFormulaException extends Exception {
+    public UnsupportedFormulaException(String message) {
+      super(message);
+    }
+
+    public UnsupportedFormulaException(String message, Throwable cause) {
+      super(message, cause);
+    }
+  }
+}
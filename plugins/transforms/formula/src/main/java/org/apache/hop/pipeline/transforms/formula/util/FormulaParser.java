@@ -21,7 +21,7 @@ import static org.apache.hop.pipeline.transforms.formula.util.FormulaFieldsExtra
 
 import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
@@ -55,26 +55,35 @@ public class FormulaParser {
     this.rowMeta = rowMeta;
     this.dataRow = dataRow;
     this.replaceMap = replaceMap;
-    formula = variables.resolve(formulaMetaFunction.getFormula());
+    String resolvedFormula = variables.resolve(formulaMetaFunction.getFormula());
+    formula = replaceFields(resolvedFormula, formulaFieldList, replaceMap);
 
     this.formulaFieldList = formulaFieldList;
+    if (!formula.equals(resolvedFormula)) {
+      this.formulaFieldList = getFormulaFieldList(variables.resolve(formula));
+    }
+    this.evaluator = poi.evaluator(formulaFieldList.size() + 1);
+    this.evaluator.evaluator().clearAllCachedResultValues();
+  }
 
-    boolean getNewList = false;
+  /**
+   * Refer to the fields replaced by a formula instead of to the formula fields themselves.
+   *
+   * @param formula the formula
+   * @param formulaFieldList the fields used in the formula
+   * @param replaceMap the formula field names with the names of the fields they replace
+   * @return the formula referring to the fields which were replaced
+   */
+  public static String replaceFields(
+      String formula, List<String> formulaFieldList, Map<String, String> replaceMap) {
     for (String formulaField : formulaFieldList) {
       // check if we are working with a field that was replaced earlier.
-      Set<String> replaceKeys = replaceMap.keySet();
-      if (replaceKeys.contains(formulaField)) {
-        String realFieldName = replaceMap.get(formulaField);
+      String realFieldName = replaceMap.get(formulaField);
+      if (realFieldName != null) {
         formula = formula.replace("[" + formulaField + "]", "[" + realFieldName + "]");
-        getNewList = true;
       }
     }
-
-    if (getNewList) {
-      this.formulaFieldList = getFormulaFieldList(variables.resolve(formula));
-    }
-    this.evaluator = poi.evaluator(formulaFieldList.size() + 1);
-    this.evaluator.evaluator().clearAllCachedResultValues();
+    return formula;
   }
 
   public CellValue getFormulaValue() throws HopValueException {
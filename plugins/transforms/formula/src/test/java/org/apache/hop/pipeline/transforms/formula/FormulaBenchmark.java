@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.formula;
+
+import static org.apache.hop.pipeline.transforms.formula.util.FormulaFieldsExtractor.getFormulaFieldList;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.core.variables.Variables;
+import org.apache.hop.pipeline.transforms.formula.util.CompiledFormula;
+import org.apache.hop.pipeline.transforms.formula.util.FormulaCompiler;
+import org.apache.hop.pipeline.transforms.formula.util.FormulaParser;
+import org.apache.poi.ss.usermodel.CellValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures how many rows per millisecond a formula is evaluated on, either compiled or with a POI
+ * workbook the way the transform falls back to. Run it with the main method or with the JMH runner
+ * from the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FormulaBenchmark {
+  private static final int NR_ROWS = 10_000;
+
+  @Param({"arithmetic", "string", "date"})
+  public String formulaType;
+
+  @Param({"compiled", "poi"})
+  public String engine;
+
+  private final IVariables variables = new Variables();
+  private IRowMeta rowMeta;
+  private Object[][] rows;
+  private FormulaMetaFunction function;
+  private List<String> formulaFieldList;
+  private CompiledFormula compiledFormula;
+  private FormulaPoi poi;
+
+  @Setup
+  public void setup() throws Exception {
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("quantity"));
+    rowMeta.addValueMeta(new ValueMetaNumber("price"));
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+    rowMeta.addValueMeta(new ValueMetaDate("orderDate"));
+
+    rows = new Object[NR_ROWS][];
+    for (int i = 0; i < NR_ROWS; i++) {
+      rows[i] =
+          new Object[] {
+            (long) i, i * 0.25, "customer-" + i, new Date(1_600_000_000_000L + i * 3_600_000L)
+          };
+    }
+
+    String formula =
+        switch (formulaType) {
+          case "string" -> "IF(LEN([name])>12,UPPER(LEFT([name],8)),[name]&\"-\"&[quantity])";
+          case "date" -> "YEAR([orderDate])*100+MONTH([orderDate])+[orderDate]-INT([orderDate])";
+          default -> "ROUND([quantity]*[price]*(1+21%)-[quantity]/2,2)";
+        };
+    function =
+        new FormulaMetaFunction("result", formula, IValueMeta.TYPE_NUMBER, -1, -1, "", false);
+    formulaFieldList = getFormulaFieldList(formula);
+    compiledFormula = FormulaCompiler.compile(formula, rowMeta, false);
+    poi = new FormulaPoi(s -> {});
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    poi.destroy();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NR_ROWS)
+  public void evaluate(Blackhole blackhole) throws HopException {
+    for (Object[] row : rows) {
+      CellValue cellValue;
+      if ("compiled".equals(engine)) {
+        cellValue = compiledFormula.evaluate(row);
+      } else {
+        cellValue =
+            new FormulaParser(
+                    function, rowMeta, row, poi, variables, new HashMap<>(), formulaFieldList)
+                .getFormulaValue();
+      }
+      blackhole.consume(cellValue);
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(FormulaBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.formula.util;
+
+import static org.apache.hop.pipeline.transforms.formula.util.FormulaFieldsExtractor.getFormulaFieldList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaBoolean;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.variables.Variables;
+import org.apache.hop.pipeline.transforms.formula.FormulaMetaFunction;
+import org.apache.hop.pipeline.transforms.formula.FormulaPoi;
+import org.apache.hop.pipeline.transforms.formula.util.FormulaCompiler.UnsupportedFormulaException;
+import org.apache.poi.ss.usermodel.CellValue;
+import org.junit.jupiter.api.Test;
+
+/** The compiled formulas need to give the same results as the formulas evaluated by POI */
+class FormulaCompilerTest {
+
+  private static final List<String> FORMULAS =
+      List.of(
+          "[I]+[N]",
+          "[I]-[N]*2",
+          "[N]/[I]",
+          "[I]/0",
+          "-[I]^2",
+          "-2^2",
+          "2^-1",
+          "2^3^2",
+          "50%",
+          "-[N]%",
+          " ( 1 + 2 ) * 3 ",
+          "1.5E2+.5-+3",
+          "[I]&[S]",
+          "[S]&\"-\"&[N]",
+          "\"He said \"\"hi\"\"\"",
+          "[I]=[N]",
+          "[S]<>\"abc\"",
+          "[I]>=1",
+          "[S]<\"b\"",
+          "[S]=\"\"",
+          "[D]+1",
+          "YEAR([D])",
+          "TEXT([D],\"yyyy-mm-dd\")",
+          "IF([B],[I],[N])",
+          "IF([I]>0,\"positive\")",
+          "IF([I]>0,,1)",
+          "IF(ISBLANK([S]),\"none\",UPPER([S]))",
+          "IF(1/0,1,2)",
+          "IFERROR([N]/[I],-1)",
+          "IFERROR([S]*1,[S])",
+          "LEN([S])",
+          "MID([S],2,3)",
+          "ROUND([N],2)",
+          "SUM([I],[N],1)",
+          "MAX([I],[N])",
+          "AND([B],[I]>0)",
+          "NOT([B])",
+          "CONCATENATE([S],[I])",
+          "ABS([BN])",
+          "[BN]*2",
+          "TEXT(ABS([BN]),\"#.##\")",
+          "COLUMN([N])",
+          "COLUMN()",
+          "ROW()",
+          "TRUE",
+          "FALSE()",
+          "#N/A",
+          "ISNA([I])",
+          "ISERROR([S]+1)",
+          "SQRT(-1)",
+          "CHOOSE(2,\"a\",[S],\"c\")",
+          "DATE(2020,1,[I])",
+          "TRIM(\"  x  \")",
+          "VALUE(\"12\")+[I]",
+          "OFFSET([I],0,1)&[S]",
+          "OFFSET([S],0,1)",
+          "OFFSET([I],1,0)",
+          "SUM(OFFSET([I],0,0,1,2))+[N]",
+          "SUMIF([I],\">0\")",
+          "COUNTIF([S],\"h*\")",
+          "INDEX([N],1,1)",
+          "MATCH([S],[S],0)",
+          "VLOOKUP([I],[I],1,FALSE)",
+          "RANK([I],[I])",
+          "[I]");
+
+  private static final Object[][] ROWS = {
+    {5L, 2.5, "hop", new Date(1_700_000_000_000L), true, new BigDecimal("-12.345")},
+    {0L, -1.25, "", new Date(0L), false, BigDecimal.ZERO},
+    {-3L, 1e300, "Apache Hop", new Date(-86_400_000L * 365), true, new BigDecimal("1E+20")},
+    {null, null, null, null, null, null},
+  };
+
+  private static IRowMeta getRowMeta() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("I"));
+    rowMeta.addValueMeta(new ValueMetaNumber("N"));
+    rowMeta.addValueMeta(new ValueMetaString("S"));
+    rowMeta.addValueMeta(new ValueMetaDate("D"));
+    rowMeta.addValueMeta(new ValueMetaBoolean("B"));
+    rowMeta.addValueMeta(new ValueMetaBigNumber("BN"));
+    return rowMeta;
+  }
+
+  @Test
+  void compiledFormulasEvaluateLikePoi() throws Exception {
+    IRowMeta rowMeta = getRowMeta();
+    for (boolean setNa : new boolean[] {false, true}) {
+      for (String formula : FORMULAS) {
+        CompiledFormula compiledFormula = FormulaCompiler.compile(formula, rowMeta, setNa);
+        FormulaMetaFunction function =
+            new FormulaMetaFunction("result", formula, IValueMeta.TYPE_STRING, -1, -1, "", setNa);
+        // One POI workbook per formula like in the transform: the parsed formula is cached
+        FormulaPoi poi = new FormulaPoi(s -> {});
+        try {
+          for (Object[] row : ROWS) {
+            CellValue expected =
+                new FormulaParser(
+                        function,
+                        rowMeta,
+                        row,
+                        poi,
+                        new Variables(),
+                        new HashMap<>(),
+                        getFormulaFieldList(formula))
+                    .getFormulaValue();
+            CellValue actual = compiledFormula.evaluate(row);
+            assertEquals(
+                expected.formatAsString(),
+                actual.formatAsString(),
+                "Formula " + formula + " (setNa=" + setNa + ") on row " + Arrays.toString(row));
+          }
+        } finally {
+          poi.destroy();
+        }
+      }
+    }
+  }
+
+  @Test
+  void unsupportedFormulas() {
+    IRowMeta rowMeta = getRowMeta();
+    for (String formula :
+        List.of(
+            "A1+1",
+            "SUM(A1:B2)",
+            "INDIRECT(\"A1\")",
+            "UNKNOWN_FUNCTION(1)",
+            "\"[I]\"&[I]",
+            "[UNKNOWN]+1",
+            "{1,2}",
+            "1+",
+            "(1+2",
+            "ABS()")) {
+      assertThrows(
+          UnsupportedFormulaException.class,
+          () -> FormulaCompiler.compile(formula, rowMeta, false),
+          formula);
+    }
+  }
+
+  @Test
+  void replacedFields() {
+    HashMap<String, String> replaceMap = new HashMap<>();
+    replaceMap.put("RESULT", "N");
+    String formula = "[RESULT]*2+[I]";
+
+    assertEquals(
+        "[N]*2+[I]",
+        FormulaParser.replaceFields(formula, getFormulaFieldList(formula), replaceMap));
+  }
+}
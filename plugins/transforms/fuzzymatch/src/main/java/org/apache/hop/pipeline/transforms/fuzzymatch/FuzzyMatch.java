@@ -20,14 +20,12 @@ package org.apache.hop.pipeline.transforms.fuzzymatch;
 import static org.apache.hop.pipeline.transforms.fuzzymatch.FuzzyMatchMeta.Algorithm;
 import static org.apache.hop.pipeline.transforms.fuzzymatch.FuzzyMatchMeta.FMLookupValue;
 
-import com.wcohen.ss.Jaro;
-import com.wcohen.ss.JaroWinkler;
-import com.wcohen.ss.NeedlemanWunsch;
-import java.util.Iterator;
-import org.apache.commons.codec.language.DoubleMetaphone;
-import org.apache.commons.codec.language.Metaphone;
-import org.apache.commons.codec.language.RefinedSoundex;
-import org.apache.commons.codec.language.Soundex;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.IRowSet;
@@ -38,12 +36,12 @@ import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.row.RowMeta;
-import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.fuzzymatch.FuzzyMatchIndex.Match;
 
 /**
  * Performs a fuzzy match for each main stream field row An approximative match is done in a lookup
@@ -52,6 +50,9 @@ import org.apache.hop.pipeline.transform.TransformMeta;
 public class FuzzyMatch extends BaseTransform<FuzzyMatchMeta, FuzzyMatchData> {
   private static final Class<?> PKG = FuzzyMatchMeta.class;
 
+  /** The shared indexes of the transforms running in several copies */
+  private static final Map<String, SharedIndex> sharedIndexes = new HashMap<>();
+
   public FuzzyMatch(
       TransformMeta transformMeta,
       FuzzyMatchMeta meta,
@@ -246,65 +247,18 @@ public class FuzzyMatch extends BaseTransform<FuzzyMatchMeta, FuzzyMatchData> {
     // Reserve room
     Object[] rowData = RowDataUtil.allocateRowData(data.outputRowMeta.size());
 
-    Iterator<Object[]> it = data.look.iterator();
-
-    long distance = -1;
-
     String lookupValueString = getInputRowMeta().getString(row, data.indexOfMainField);
 
-    while (it.hasNext()) {
-      // Get cached row data
-      Object[] cachedData = it.next();
-      // Key value is the first value
-      String cacheValue = (String) cachedData[0];
-
-      int cDistance;
-      String useCacheValue = cacheValue;
-      String useLookupvalue = lookupValueString;
-      if (!meta.isCaseSensitive()) {
-        useCacheValue = cacheValue.toLowerCase();
-        useLookupvalue = lookupValueString.toLowerCase();
-      }
-
-      cDistance =
-          switch (meta.getAlgorithm()) {
-            case DAMERAU_LEVENSHTEIN ->
-                Utils.getDamerauLevenshteinDistance(useCacheValue, useLookupvalue);
-            case NEEDLEMAN_WUNSH ->
-                Math.abs((int) new NeedlemanWunsch().score(useCacheValue, useLookupvalue));
-            default -> StringUtils.getLevenshteinDistance(useCacheValue, useLookupvalue);
-          };
-
-      if (data.minimalDistance <= cDistance && cDistance <= data.maximalDistance) {
-        if (meta.isCloserValue()) {
-          if (cDistance < distance || distance == -1) {
-            // Get closer value
-            // minimal distance
-            distance = cDistance;
-            int index = 0;
-            rowData[index++] = cacheValue;
-            // Add metric value?
-            if (data.addValueFieldName) {
-              rowData[index++] = distance;
-            }
-            // Add additional return values?
-            if (data.addAdditionalFields) {
-              for (int i = 0; i < meta.getLookupValues().size(); i++) {
-                int nr = i + 1;
-                int nf = i + index;
-                rowData[nf] = cachedData[nr];
-              }
-            }
-          }
-        } else {
-          // get all values separated by values separator
-          if (rowData[0] == null) {
-            rowData[0] = cacheValue;
-          } else {
-            rowData[0] = rowData[0] + data.valueSeparator + cacheValue;
-          }
-        }
+    List<Match> matches =
+        data.searcher.findByDistance(
+            lookupValueString, data.minimalDistance, data.maximalDistance, meta.isCloserValue());
+    if (meta.isCloserValue()) {
+      if (!matches.isEmpty()) {
+        Match match = matches.get(0);
+        addMatch(rowData, match.getIndex(), (long) match.getMetric());
       }
+    } else {
+      addMatches(rowData, matches);
     }
 
     return rowData;
@@ -314,127 +268,116 @@ public class FuzzyMatch extends BaseTransform<FuzzyMatchMeta, FuzzyMatchData> {
     // Reserve room
     Object[] rowData = RowDataUtil.allocateRowData(data.outputRowMeta.size());
 
-    Iterator<Object[]> it = data.look.iterator();
-
     Object o = row[data.indexOfMainField];
     String lookupvalue = (String) o;
 
-    String lookupValueMF = getEncodedMF(lookupvalue, meta.getAlgorithm());
-
-    while (it.hasNext()) {
-      // Get cached row data
-      Object[] cachedData = it.next();
-      // Key value is the first value
-      String cacheValue = (String) cachedData[0];
-
-      String cacheValueMF = getEncodedMF(cacheValue, meta.getAlgorithm());
-
-      if (lookupValueMF.equals(cacheValueMF)) {
-
-        // Add match value
-        int index = 0;
-        rowData[index++] = cacheValue;
-
-        // Add metric value?
-        if (data.addValueFieldName) {
-          rowData[index++] = cacheValueMF;
-        }
-        // Add additional return values?
-        if (data.addAdditionalFields) {
-          for (int i = 0; i < meta.getLookupValues().size(); i++) {
-            int nf = i + index;
-            int nr = i + 1;
-            rowData[nf] = cachedData[nr];
-          }
-        }
-      }
+    Match match = data.searcher.findByPhoneticCode(lookupvalue);
+    if (match != null) {
+      String cacheValueMF =
+          FuzzyMatchIndex.getPhoneticCode(
+              data.index.getValue(match.getIndex()), meta.getAlgorithm());
+      addMatch(rowData, match.getIndex(), cacheValueMF);
     }
 
     return rowData;
   }
 
-  private String getEncodedMF(String value, Algorithm algorithmType) {
-    String encodedValueMF = "";
-    switch (algorithmType) {
-      case METAPHONE:
-        encodedValueMF = (new Metaphone()).metaphone(value);
-        break;
-      case DOUBLE_METAPHONE:
-        encodedValueMF = ((new DoubleMetaphone()).doubleMetaphone(value));
-        break;
-      case SOUNDEX:
-        encodedValueMF = (new Soundex()).encode(value);
-        break;
-      case REFINED_SOUNDEX:
-        encodedValueMF = (new RefinedSoundex()).encode(value);
-        break;
-      default:
-        break;
-    }
-    return encodedValueMF;
-  }
-
   private Object[] doSimilarity(Object[] row) {
     // Reserve room
     Object[] rowData = RowDataUtil.allocateRowData(data.outputRowMeta.size());
-    // prepare to read from cache ...
-    Iterator<Object[]> it = data.look.iterator();
-    double similarity = 0;
 
     // get current value from main stream
     Object o = row[data.indexOfMainField];
 
     String lookupValueString = o == null ? "" : (String) o;
 
-    while (it.hasNext()) {
-      // Get cached row data
-      Object[] cachedData = it.next();
-      // Key value is the first value
-      String cacheValue = (String) cachedData[0];
-
-      double cSimilarity =
-          switch (meta.getAlgorithm()) {
-            case JARO -> new Jaro().score(cacheValue, lookupValueString);
-            case JARO_WINKLER -> new JaroWinkler().score(cacheValue, lookupValueString);
-            default ->
-                // Letters pair similarity
-                LetterPairSimilarity.getSimiliarity(cacheValue, lookupValueString);
-          };
-
-      if (data.minimalSimilarity <= cSimilarity && cSimilarity <= data.maximalSimilarity) {
-        if (meta.isCloserValue()) {
-          if (cSimilarity > similarity
-              || (cSimilarity == 0 && cacheValue.equals(lookupValueString))) {
-            similarity = cSimilarity;
-            // Update match value
-            int index = 0;
-            rowData[index++] = cacheValue;
-            // Add metric value?
-            if (data.addValueFieldName) {
-              rowData[index++] = similarity;
-            }
+    List<Match> matches =
+        data.searcher.findBySimilarity(
+            lookupValueString,
+            data.minimalSimilarity,
+            data.maximalSimilarity,
+            meta.isCloserValue());
+    if (meta.isCloserValue()) {
+      if (!matches.isEmpty()) {
+        Match match = matches.get(0);
+        addMatch(rowData, match.getIndex(), match.getMetric());
+      }
+    } else {
+      addMatches(rowData, matches);
+    }
 
-            // Add additional return values?
-            if (data.addAdditionalFields) {
-              for (int i = 0; i < meta.getLookupValues().size(); i++) {
-                int nf = i + index;
-                int nr = i + 1;
-                rowData[nf] = cachedData[nr];
-              }
-            }
-          }
-        } else {
-          // get all values separated by values separator
-          if (rowData[0] == null) {
-            rowData[0] = cacheValue;
-          } else {
-            rowData[0] = rowData[0] + data.valueSeparator + cacheValue;
+    return rowData;
+  }
+
+  /** Add the closest value, the metric and the additional fields */
+  private void addMatch(Object[] rowData, int matchIndex, Object metric) {
+    Object[] cachedData = data.index.getRow(matchIndex);
+    int index = 0;
+    rowData[index++] = cachedData[0];
+    // Add metric value?
+    if (data.addValueFieldName) {
+      rowData[index++] = metric;
+    }
+    // Add additional return values?
+    if (data.addAdditionalFields) {
+      for (int i = 0; i < meta.getLookupValues().size(); i++) {
+        int nf = i + index;
+        int nr = i + 1;
+        rowData[nf] = cachedData[nr];
+      }
+    }
+  }
+
+  /** Add all the values separated by the values separator */
+  private void addMatches(Object[] rowData, List<Match> matches) {
+    for (Match match : matches) {
+      String cacheValue = data.index.getValue(match.getIndex());
+      if (rowData[0] == null) {
+        rowData[0] = cacheValue;
+      } else {
+        rowData[0] = rowData[0] + data.valueSeparator + cacheValue;
+      }
+    }
+  }
+
+  /**
+   * Index the lookup values. Copies running in parallel share one index: the rows of the lookup
+   * stream are distributed over the copies or every copy receives all of them.
+   *
+   * @return false if the transform was stopped while waiting for the other copies
+   */
+  private boolean buildIndex() throws HopException {
+    SharedIndex shared = data.sharedIndex;
+    if (shared == null) {
+      data.index = new FuzzyMatchIndex(meta.getAlgorithm(), meta.isCaseSensitive(), data.look);
+    } else {
+      synchronized (shared) {
+        if (data.infoStream.getTransformMeta().isDistributes() || getCopy() == 0) {
+          shared.rows.addAll(data.look);
+        }
+      }
+      data.look.clear();
+      shared.readers.countDown();
+      try {
+        while (!shared.readers.await(100, TimeUnit.MILLISECONDS)) {
+          if (isStopped()) {
+            return false;
           }
         }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new HopException(e);
+      }
+      synchronized (shared) {
+        if (shared.index == null) {
+          shared.index =
+              new FuzzyMatchIndex(meta.getAlgorithm(), meta.isCaseSensitive(), shared.rows);
+        }
+        data.index = shared.index;
       }
     }
-
-    return rowData;
+    data.searcher = data.index.newSearcher();
+    return true;
   }
 
   @Override
@@ -449,9 +392,13 @@ public class FuzzyMatch extends BaseTransform<FuzzyMatchMeta, FuzzyMatchData> {
         stopAll();
         return false;
       }
+      if (!buildIndex()) {
+        setOutputDone();
+        return false;
+      }
       if (isDetailed()) {
         logDetailed(
-            BaseMessages.getString(PKG, "FuzzyMatch.Log.ReadValuesInMemory", data.look.size()));
+            BaseMessages.getString(PKG, "FuzzyMatch.Log.ReadValuesInMemory", data.index.size()));
       }
     }
 
@@ -591,12 +538,49 @@ public class FuzzyMatch extends BaseTransform<FuzzyMatchMeta, FuzzyMatchData> {
 
     data.readLookupValues = true;
 
+    // Copies running in parallel search the same index
+    //
+    int copies = getTransformMeta().getCopies(this);
+    if (copies > 1 && !getTransformMeta().isPartitioned()) {
+      synchronized (sharedIndexes) {
+        data.sharedIndex =
+            sharedIndexes.computeIfAbsent(getSharedIndexKey(), key -> new SharedIndex(copies));
+        data.sharedIndex.users++;
+      }
+    }
+
     return true;
   }
 
+  private String getSharedIndexKey() {
+    return getPipeline().getLogChannelId() + "/" + getTransformName();
+  }
+
   @Override
   public void dispose() {
     data.look.clear();
+    data.index = null;
+    data.searcher = null;
+    if (data.sharedIndex != null) {
+      synchronized (sharedIndexes) {
+        if (--data.sharedIndex.users <= 0) {
+          sharedIndexes.remove(getSharedIndexKey());
+        }
+      }
+      data.sharedIndex = null;
+    }
     super.dispose();
   }
+
+  /** The lookup rows of the copies of a transform, indexed once for all of them */
+  static final class SharedIndex {
+    private final CountDownLatch readers;
+    private final List<Object[]> rows = new ArrayList<>();
+    private FuzzyMatchIndex index;
+    private int users;
+
+    SharedIndex(int copies) {
+      this.readers = new CountDownLatch(copies);
+    }
+  }
 }
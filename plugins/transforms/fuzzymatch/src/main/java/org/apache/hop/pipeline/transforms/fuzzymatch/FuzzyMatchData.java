@@ -17,7 +17,8 @@
 
 package org.apache.hop.pipeline.transforms.fuzzymatch;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.List;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
@@ -28,8 +29,16 @@ public class FuzzyMatchData extends BaseTransformData implements ITransformData
   public IRowMeta previousRowMeta;
   public IRowMeta outputRowMeta;
 
-  /** used to store values in used to look up things */
-  public HashSet<Object[]> look;
+  /** used to store values in used to look up things, in the order in which they were read */
+  public List<Object[]> look;
+
+  /** The index of the lookup values */
+  public FuzzyMatchIndex index;
+
+  public FuzzyMatchIndex.Searcher searcher;
+
+  /** The index shared with the other copies of the transform, null if there is one copy */
+  public FuzzyMatch.SharedIndex sharedIndex;
 
   public boolean readLookupValues;
 
@@ -61,7 +70,7 @@ public class FuzzyMatchData extends BaseTransformData implements ITransformData
 
   public FuzzyMatchData() {
     super();
-    this.look = new HashSet<>();
+    this.look = new ArrayList<>();
     this.indexOfMainField = -1;
     this.addValueFieldName = false;
     this.valueSeparator = "";
@@ -0,0 +1,588 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.fuzzymatch;
+
+import static org.apache.hop.pipeline.transforms.fuzzymatch.FuzzyMatchMeta.Algorithm;
+
+import com.wcohen.ss.Jaro;
+import com.wcohen.ss.JaroWinkler;
+import com.wcohen.ss.NeedlemanWunsch;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.codec.language.DoubleMetaphone;
+import org.apache.commons.codec.language.Metaphone;
+import org.apache.commons.codec.language.RefinedSoundex;
+import org.apache.commons.codec.language.Soundex;
+import org.apache.commons.lang.StringUtils;
+import org.apache.hop.core.util.Utils;
+
+/**
+ * The rows of the lookup stream indexed on their lookup value, so that an input row doesn't need to
+ * be compared with every lookup value.
+ *
+ * <ul>
+ *   <li>Levenshtein and Damerau-Levenshtein distances are metrics: the values are kept in a
+ *       BK-tree. Only the branches which can hold a value within the maximal distance are visited.
+ *   <li>Jaro, Jaro-Winkler and letter pair similarities can't be higher than what the number of
+ *       characters or letter pairs two values have in common allows. An inverted index on those
+ *       q-grams gives this upper bound for all the values at once and only the values which can
+ *       reach the minimal similarity, or beat the best similarity found so far, are compared.
+ *   <li>Phonetic algorithms match values with the same code: the values are kept by code.
+ *   <li>Needleman-Wunsch isn't a metric, all the values are compared.
+ * </ul>
+ *
+ * The index is read-only once it is built. A {@link Searcher} holds the working memory of the
+ * searches, every thread searching the index needs its own searcher.
+ *
+ * <p>The matches are the same as the ones of a comparison with all the lookup values in the order
+ * in which they were added. When several values are equally close, the first one added wins.
+ */
+public class FuzzyMatchIndex {
+  /** Rounding margin when comparing an upper bound with a similarity */
+  private static final double EPSILON = 1e-9;
+
+  private final Algorithm algorithm;
+  private final boolean caseSensitive;
+  private final List<Object[]> rows;
+
+  /** The lookup values, the first value of the rows */
+  private final String[] values;
+
+  /** The lookup values as they are compared: lower case for case insensitive distances */
+  private final String[] keys;
+
+  private BkNode bkTree;
+
+  /** q-gram to the pairs of (value index, number of occurrences) of the values which contain it */
+  private Map<String, int[]> postings;
+
+  /** The number of q-grams of every value */
+  private int[] gramCounts;
+
+  /** Phonetic code to the indexes of the values with that code */
+  private Map<String, int[]> codes;
+
+  /**
+   * Build the index.
+   *
+   * @param algorithm the algorithm to index for
+   * @param caseSensitive true if the distances are case sensitive
+   * @param rows the cached lookup rows, the first value is the lookup value
+   */
+  public FuzzyMatchIndex(Algorithm algorithm, boolean caseSensitive, List<Object[]> rows) {
+    this.algorithm = algorithm;
+    this.caseSensitive = caseSensitive;
+    this.rows = rows;
+    this.values = new String[rows.size()];
+    this.keys = new String[rows.size()];
+    for (int i = 0; i < rows.size(); i++) {
+      values[i] = (String) rows.get(i)[0];
+      keys[i] = isDistance() && !caseSensitive ? values[i].toLowerCase() : values[i];
+    }
+
+    switch (algorithm) {
+      case LEVENSHTEIN, DAMERAU_LEVENSHTEIN:
+        buildBkTree();
+        break;
+      case JARO, JARO_WINKLER, PAIR_SIMILARITY:
+        buildPostings();
+        break;
+      case DOUBLE_METAPHONE, METAPHONE, SOUNDEX, REFINED_SOUNDEX:
+        buildCodes();
+        break;
+      default:
+        // Needleman-Wunsch: compare with all the values
+        break;
+    }
+  }
+
+  private boolean isDistance() {
+    return algorithm == Algorithm.LEVENSHTEIN
+        || algorithm == Algorithm.DAMERAU_LEVENSHTEIN
+        || algorithm == Algorithm.NEEDLEMAN_WUNSH;
+  }
+
+  /**
+   * @return the number of indexed rows
+   */
+  public int size() {
+    return rows.size();
+  }
+
+  /**
+   * @param index the index of a match
+   * @return the cached lookup row
+   */
+  public Object[] getRow(int index) {
+    return rows.get(index);
+  }
+
+  /**
+   * @param index the index of a match
+   * @return the lookup value
+   */
+  public String getValue(int index) {
+    return values[index];
+  }
+
+  /**
+   * @return a new searcher, to be used by one thread at a time
+   */
+  public Searcher newSearcher() {
+    return new Searcher();
+  }
+
+  private int distance(String one, String two) {
+    return switch (algorithm) {
+      case DAMERAU_LEVENSHTEIN -> Utils.getDamerauLevenshteinDistance(one, two);
+      case NEEDLEMAN_WUNSH -> Math.abs((int) new NeedlemanWunsch().score(one, two));
+      default -> StringUtils.getLevenshteinDistance(one, two);
+    };
+  }
+
+  static String getPhoneticCode(String value, Algorithm algorithm) {
+    return switch (algorithm) {
+      case METAPHONE -> new Metaphone().metaphone(value);
+      case DOUBLE_METAPHONE -> new DoubleMetaphone().doubleMetaphone(value);
+      case SOUNDEX -> new Soundex().encode(value);
+      case REFINED_SOUNDEX -> new RefinedSoundex().encode(value);
+      default -> "";
+    };
+  }
+
+  private void buildBkTree() {
+    for (int i = 0; i < keys.length; i++) {
+      if (bkTree == null) {
+        bkTree = new BkNode(keys[i], i);
+        continue;
+      }
+      BkNode node = bkTree;
+      while (true) {
+        int distance = distance(keys[i], node.key);
+        if (distance == 0 && keys[i].equals(node.key)) {
+          node.add(i);
+          break;
+        }
+        BkNode child = node.getChild(distance);
+        if (child == null) {
+          node.setChild(distance, new BkNode(keys[i], i));
+          break;
+        }
+        node = child;
+      }
+    }
+  }
+
+  private void buildPostings() {
+    gramCounts = new int[keys.length];
+    Map<String, IntList> lists = new HashMap<>();
+    for (int i = 0; i < keys.length; i++) {
+      Map<String, Integer> grams = getGrams(keys[i]);
+      int count = 0;
+      for (Map.Entry<String, Integer> gram : grams.entrySet()) {
+        IntList list = lists.computeIfAbsent(gram.getKey(), k -> new IntList());
+        list.add(i);
+        list.add(gram.getValue());
+        count += gram.getValue();
+      }
+      gramCounts[i] =
+          algorithm == Algorithm.PAIR_SIMILARITY ? count : getJaroString(keys[i]).length();
+    }
+    postings = new HashMap<>();
+    for (Map.Entry<String, IntList> entry : lists.entrySet()) {
+      postings.put(entry.getKey(), entry.getValue().toArray());
+    }
+  }
+
+  private void buildCodes() {
+    Map<String, IntList> lists = new HashMap<>();
+    for (int i = 0; i < values.length; i++) {
+      String code = getPhoneticCode(values[i], algorithm);
+      if (code != null) {
+        lists.computeIfAbsent(code, k -> new IntList()).add(i);
+      }
+    }
+    codes = new HashMap<>();
+    for (Map.Entry<String, IntList> entry : lists.entrySet()) {
+      codes.put(entry.getKey(), entry.getValue().toArray());
+    }
+  }
+
+  /** Jaro and Jaro-Winkler compare values in lower case */
+  private static String getJaroString(String value) {
+    return value.toLowerCase();
+  }
+
+  /**
+   * The q-grams of a value with their number of occurrences: the letter pairs of the words in upper
+   * case for the letter pair similarity, the characters in lower case for Jaro.
+   */
+  private Map<String, Integer> getGrams(String value) {
+    Map<String, Integer> grams = new HashMap<>();
+    if (algorithm == Algorithm.PAIR_SIMILARITY) {
+      for (String pair : LetterPairSimilarity.wordLetterPairs(value.toUpperCase())) {
+        grams.merge(pair, 1, Integer::sum);
+      }
+    } else {
+      String string = getJaroString(value);
+      for (int i = 0; i < string.length(); i++) {
+        grams.merge(String.valueOf(string.charAt(i)), 1, Integer::sum);
+      }
+    }
+    return grams;
+  }
+
+  /** The highest similarity two values can have given the number of q-grams they have in common. */
+  private double getUpperBound(int common, int count, int otherCount) {
+    if (algorithm == Algorithm.PAIR_SIMILARITY) {
+      return (2.0 * common) / (count + otherCount) + EPSILON;
+    }
+    // Jaro: at most all the common characters match and none are transposed
+    double jaro = (((double) common) / count + ((double) common) / otherCount + 1.0) / 3.0;
+    if (algorithm == Algorithm.JARO_WINKLER) {
+      // Up to 4 characters of common prefix, each adding 10% of what remains
+      jaro += 0.4 * (1.0 - jaro);
+    }
+    return jaro + EPSILON;
+  }
+
+  /** A match of a lookup value */
+  public static final class Match {
+    private final int index;
+    private final double metric;
+
+    Match(int index, double metric) {
+      this.index = index;
+      this.metric = metric;
+    }
+
+    /**
+     * @return the index of the matching row in the index
+     */
+    public int getIndex() {
+      return index;
+    }
+
+    /**
+     * @return the distance or similarity
+     */
+    public double getMetric() {
+      return metric;
+    }
+  }
+
+  /** Searches the index, with working memory for one thread */
+  public final class Searcher {
+    private final Jaro jaro = new Jaro();
+    private final JaroWinkler jaroWinkler = new JaroWinkler();
+
+    /** The number of q-grams in common per value and the values with at least one */
+    private int[] common;
+
+    private IntList touched;
+
+    private Searcher() {
+      if (postings != null) {
+        common = new int[values.length];
+        touched = new IntList();
+      }
+    }
+
+    /**
+     * Find the lookup values at a distance between the minimal and the maximal distance.
+     *
+     * @param value the value to look up
+     * @param minimal the minimal distance
+     * @param maximal the maximal distance
+     * @param closest true to only return the closest value, the first one added if several are
+     *     equally close
+     * @return the matches in the order in which the values were added
+     */
+    public List<Match> findByDistance(String value, int minimal, int maximal, boolean closest) {
+      String key = caseSensitive ? value : value.toLowerCase();
+      List<Match> matches = new ArrayList<>();
+      if (bkTree == null) {
+        for (int i = 0; i < keys.length; i++) {
+          int distance = distance(keys[i], key);
+          if (minimal <= distance && distance <= maximal) {
+            matches.add(new Match(i, distance));
+          }
+        }
+      } else {
+        searchBkTree(key, minimal, maximal, closest, matches);
+        matches.sort((one, two) -> Integer.compare(one.index, two.index));
+      }
+      if (closest && matches.size() > 1) {
+        Match best = matches.get(0);
+        for (Match match : matches) {
+          if (match.metric < best.metric) {
+            best = match;
+          }
+        }
+        return List.of(best);
+      }
+      return matches;
+    }
+
+    private void searchBkTree(
+        String key, int minimal, int maximal, boolean closest, List<Match> matches) {
+      int radius = maximal;
+      Deque<BkNode> stack = new ArrayDeque<>();
+      stack.push(bkTree);
+      while (!stack.isEmpty()) {
+        BkNode node = stack.pop();
+        int distance = distance(node.key, key);
+        if (minimal <= distance && distance <= radius) {
+          if (closest && distance < radius) {
+            // Only values at least as close as this one can still be the closest
+            radius = distance;
+            matches.removeIf(match -> match.metric > distance);
+          }
+          for (int i = 0; i < node.size; i++) {
+            matches.add(new Match(node.indexes[i], distance));
+          }
+        }
+        if (node.children != null) {
+          int from = Math.max(1, distance - radius);
+          int to = Math.min(node.children.length - 1, distance + radius);
+          for (int d = from; d <= to; d++) {
+            if (node.children[d] != null) {
+              stack.push(node.children[d]);
+            }
+          }
+        }
+      }
+    }
+
+    /**
+     * Find the lookup values with a similarity between the minimal and the maximal similarity.
+     *
+     * @param value the value to look up
+     * @param minimal the minimal similarity
+     * @param maximal the maximal similarity
+     * @param closest true to only return the most similar value, the first one added if several are
+     *     equally similar
+     * @return the matches in the order in which the values were added
+     */
+    public List<Match> findBySimilarity(
+        String value, double minimal, double maximal, boolean closest) {
+      Map<String, Integer> grams = getGrams(value);
+      if (grams.isEmpty() || (!closest && minimal <= 0)) {
+        // Values without anything in common can match, compare with all of them
+        return scanBySimilarity(value, minimal, maximal, closest);
+      }
+
+      int count =
+          algorithm == Algorithm.PAIR_SIMILARITY
+              ? grams.values().stream().mapToInt(Integer::intValue).sum()
+              : getJaroString(value).length();
+
+      // Count the q-grams every value has in common with the value to look up
+      //
+      touched.clear();
+      for (Map.Entry<String, Integer> gram : grams.entrySet()) {
+        int[] posting = postings.get(gram.getKey());
+        if (posting == null) {
+          continue;
+        }
+        int occurrences = gram.getValue();
+        for (int p = 0; p < posting.length; p += 2) {
+          int index = posting[p];
+          if (common[index] == 0) {
+            touched.add(index);
+          }
+          common[index] += Math.min(occurrences, posting[p + 1]);
+        }
+      }
+
+      // Values without any q-gram in common have a similarity of 0 which never matches here
+      //
+      int size = touched.size();
+      int[] candidates = new int[size];
+      double[] upperBounds = new double[size];
+      int nrCandidates = 0;
+      for (int t = 0; t < size; t++) {
+        int index = touched.get(t);
+        double upperBound = getUpperBound(common[index], count, gramCounts[index]);
+        common[index] = 0;
+        if (upperBound >= minimal) {
+          upperBounds[nrCandidates] = upperBound;
+          candidates[nrCandidates++] = index;
+        }
+      }
+
+      List<Match> matches = new ArrayList<>();
+      if (!closest) {
+        int[] indexes = Arrays.copyOf(candidates, nrCandidates);
+        Arrays.sort(indexes);
+        for (int index : indexes) {
+          double similarity = similarity(index, value);
+          if (minimal <= similarity && similarity <= maximal) {
+            matches.add(new Match(index, similarity));
+          }
+        }
+        return matches;
+      }
+
+      // Compare the values with the highest upper bound first and stop when no other value can
+      // be more similar than the best one so far. The upper bound is rounded up to a float to
+      // sort it together with the index.
+      //
+      long[] order = new long[nrCandidates];
+      for (int c = 0; c < nrCandidates; c++) {
+        float upperBound = Math.nextUp((float) upperBounds[c]);
+        order[c] = ((long) Float.floatToIntBits(upperBound) << 32) | candidates[c];
+      }
+      Arrays.sort(order);
+      int bestIndex = -1;
+      double bestSimilarity = 0;
+      for (int c = nrCandidates - 1; c >= 0; c--) {
+        if (Float.intBitsToFloat((int) (order[c] >>> 32)) < bestSimilarity) {
+          break;
+        }
+        int index = (int) order[c];
+        double similarity = similarity(index, value);
+        if (minimal <= similarity
+            && similarity <= maximal
+            && (similarity > bestSimilarity
+                || (similarity == bestSimilarity && bestIndex >= 0 && index < bestIndex))) {
+          bestSimilarity = similarity;
+          bestIndex = index;
+        }
+      }
+      if (bestIndex >= 0) {
+        matches.add(new Match(bestIndex, bestSimilarity));
+      }
+      return matches;
+    }
+
+    private List<Match> scanBySimilarity(
+        String value, double minimal, double maximal, boolean closest) {
+      List<Match> matches = new ArrayList<>();
+      Match best = null;
+      double bestSimilarity = 0;
+      for (int i = 0; i < values.length; i++) {
+        double similarity = similarity(i, value);
+        if (minimal <= similarity && similarity <= maximal) {
+          if (!closest) {
+            matches.add(new Match(i, similarity));
+          } else if (similarity > bestSimilarity || (similarity == 0 && values[i].equals(value))) {
+            bestSimilarity = similarity;
+            best = new Match(i, similarity);
+          }
+        }
+      }
+      if (best != null) {
+        matches.add(best);
+      }
+      return matches;
+    }
+
+    private double similarity(int index, String value) {
+      return switch (algorithm) {
+        case JARO -> jaro.score(values[index], value);
+        case JARO_WINKLER -> jaroWinkler.score(values[index], value);
+        default -> LetterPairSimilarity.getSimiliarity(values[index], value);
+      };
+    }
+
+    /**
+     * Find the lookup value with the same phonetic code.
+     *
+     * @param value the value to look up
+     * @return the last value added with the same code or null if there is none
+     */
+    public Match findByPhoneticCode(String value) {
+      String code = getPhoneticCode(value, algorithm);
+      int[] indexes = code == null ? null : codes.get(code);
+      if (indexes == null) {
+        return null;
+      }
+      return new Match(indexes[indexes.length - 1], 0);
+    }
+  }
+
+  /** A node of the BK-tree with the values at the same distance from the parent node */
+  private static final class BkNode {
+    private final String key;
+    private int[] indexes;
+    private int size;
+    private BkNode[] children;
+
+    private BkNode(String key, int index) {
+      this.key = key;
+      this.indexes = new int[] {index};
+      this.size = 1;
+    }
+
+    /** A value equal to the key of the node */
+    private void add(int index) {
+      if (size == indexes.length) {
+        indexes = Arrays.copyOf(indexes, size * 2);
+      }
+      indexes[size++] = index;
+    }
+
+    private BkNode getChild(int distance) {
+      return children == null || distance >= children.length ? null : children[distance];
+    }
+
+    private void setChild(int distance, BkNode child) {
+      if (children == null) {
+        children = new BkNode[distance + 1];
+      } else if (distance >= children.length) {
+        children = Arrays.copyOf(children, distance + 1);
+      }
+      children[distance] = child;
+    }
+  }
+
+  /** A growing list of ints */
+  private static final class IntList {
+    private int[] elements = new int[4];
+    private int size;
+
+    private void add(int element) {
+      if (size == elements.length) {
+        elements = Arrays.copyOf(elements, size * 2);
+      }
+      elements[size++] = element;
+    }
+
+    private int get(int index) {
+      return elements[index];
+    }
+
+    private int size() {
+      return size;
+    }
+
+    private void clear() {
+      size = 0;
+    }
+
+    private int[] toArray() {
+      return Arrays.copyOf(elements, size);
+    }
+  }
+}
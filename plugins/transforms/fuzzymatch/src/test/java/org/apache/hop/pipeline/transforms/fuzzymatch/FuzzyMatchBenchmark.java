@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.fuzzymatch;
+
+import com.wcohen.ss.JaroWinkler;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang.StringUtils;
+import org.apache.hop.pipeline.transforms.fuzzymatch.FuzzyMatchMeta.Algorithm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures how many input rows per millisecond find their closest match in synthetic lookup names,
+ * with the index or by comparing with every lookup value the way the transform used to. Run it with
+ * the main method or with the JMH runner from the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FuzzyMatchBenchmark {
+  private static final int NR_LOOKUPS = 100;
+
+  @Param({"LEVENSHTEIN", "JARO_WINKLER", "PAIR_SIMILARITY"})
+  public Algorithm algorithm;
+
+  @Param({"index", "scan"})
+  public String engine;
+
+  @Param({"20000"})
+  public int nrNames;
+
+  private List<String> names;
+  private List<String> lookups;
+  private FuzzyMatchIndex.Searcher searcher;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(42);
+    names = FuzzyMatchIndexTest.generateNames(random, nrNames);
+    lookups = FuzzyMatchIndexTest.generateNames(random, NR_LOOKUPS);
+    List<Object[]> rows = new ArrayList<>();
+    for (String name : names) {
+      rows.add(new Object[] {name});
+    }
+    searcher = new FuzzyMatchIndex(algorithm, false, rows).newSearcher();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NR_LOOKUPS)
+  public void closestMatch(Blackhole blackhole) {
+    for (String lookup : lookups) {
+      if ("scan".equals(engine)) {
+        blackhole.consume(scan(lookup));
+      } else if (algorithm == Algorithm.LEVENSHTEIN) {
+        blackhole.consume(searcher.findByDistance(lookup, 0, 3, true));
+      } else {
+        blackhole.consume(searcher.findBySimilarity(lookup, 0.8, 1.0, true));
+      }
+    }
+  }
+
+  private String scan(String lookup) {
+    String closest = null;
+    if (algorithm == Algorithm.LEVENSHTEIN) {
+      int distance = -1;
+      String lowerLookup = lookup.toLowerCase();
+      for (String name : names) {
+        int cDistance = StringUtils.getLevenshteinDistance(name.toLowerCase(), lowerLookup);
+        if (cDistance <= 3 && (cDistance < distance || distance == -1)) {
+          distance = cDistance;
+          closest = name;
+        }
+      }
+    } else {
+      double similarity = 0;
+      for (String name : names) {
+        double cSimilarity =
+            algorithm == Algorithm.JARO_WINKLER
+                ? new JaroWinkler().score(name, lookup)
+                : LetterPairSimilarity.getSimiliarity(name, lookup);
+        if (cSimilarity >= 0.8 && cSimilarity > similarity) {
+          similarity = cSimilarity;
+          closest = name;
+        }
+      }
+    }
+    return closest;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(FuzzyMatchBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
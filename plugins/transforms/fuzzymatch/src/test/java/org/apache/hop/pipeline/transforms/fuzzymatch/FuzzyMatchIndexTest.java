@@ -0,0 +1,246 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.fuzzymatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.wcohen.ss.Jaro;
+import com.wcohen.ss.JaroWinkler;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.apache.commons.lang.StringUtils;
+import org.apache.hop.core.util.Utils;
+import org.apache.hop.pipeline.transforms.fuzzymatch.FuzzyMatchIndex.Match;
+import org.apache.hop.pipeline.transforms.fuzzymatch.FuzzyMatchMeta.Algorithm;
+import org.junit.jupiter.api.Test;
+
+/** The index needs to find the same matches as a comparison with all the lookup values */
+class FuzzyMatchIndexTest {
+
+  private static final String[] FIRST_NAMES = {
+    "John", "Jon", "Johan", "Anna", "Ann", "Hanna", "Marie", "Maria", "Mario", "Pieter", "Peter",
+    "Piet", "Catrine", "Catriny", "Katrien", "Bart", "Matt", "Sophie", "Sofie", "Lucas"
+  };
+
+  private static final String[] LAST_NAMES = {
+    "Smith",
+    "Smyth",
+    "Janssens",
+    "Jansen",
+    "Peeters",
+    "Peters",
+    "Maes",
+    "Mertens",
+    "Martens",
+    "Willems",
+    "Claes",
+    "Claess",
+    "De Smet",
+    "Desmet",
+    "Van den Berg",
+    "Vandenberg"
+  };
+
+  /** Synthetic names, with typos, duplicates and a few odd values */
+  static List<String> generateNames(Random random, int count) {
+    List<String> names = new ArrayList<>();
+    names.add("");
+    names.add("J");
+    names.add("JOHN SMITH");
+    for (int i = names.size(); i < count; i++) {
+      String name =
+          FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]
+              + " "
+              + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+      StringBuilder builder = new StringBuilder(name);
+      int typos = random.nextInt(3);
+      for (int t = 0; t < typos; t++) {
+        int position = random.nextInt(builder.length());
+        switch (random.nextInt(3)) {
+          case 0 -> builder.deleteCharAt(position);
+          case 1 -> builder.insert(position, (char) ('a' + random.nextInt(26)));
+          default -> builder.setCharAt(position, (char) ('a' + random.nextInt(26)));
+        }
+      }
+      names.add(builder.toString());
+    }
+    return names;
+  }
+
+  private static List<Object[]> toRows(List<String> names) {
+    List<Object[]> rows = new ArrayList<>();
+    for (int i = 0; i < names.size(); i++) {
+      rows.add(new Object[] {names.get(i), (long) i});
+    }
+    return rows;
+  }
+
+  @Test
+  void distancesMatchFullScan() {
+    Random random = new Random(1234);
+    List<String> names = generateNames(random, 250);
+    List<String> lookups = generateNames(random, 40);
+
+    for (Algorithm algorithm :
+        new Algorithm[] {
+          Algorithm.LEVENSHTEIN, Algorithm.DAMERAU_LEVENSHTEIN, Algorithm.NEEDLEMAN_WUNSH
+        }) {
+      for (boolean caseSensitive : new boolean[] {true, false}) {
+        FuzzyMatchIndex index = new FuzzyMatchIndex(algorithm, caseSensitive, toRows(names));
+        FuzzyMatchIndex.Searcher searcher = index.newSearcher();
+        for (int[] range : new int[][] {{0, 0}, {0, 2}, {1, 3}, {0, 5}, {2, 100}}) {
+          for (boolean closest : new boolean[] {true, false}) {
+            for (String lookup : lookups) {
+              String expected =
+                  scanDistance(
+                      names, lookup, algorithm, caseSensitive, range[0], range[1], closest);
+              String actual =
+                  toString(index, searcher.findByDistance(lookup, range[0], range[1], closest));
+              assertEquals(
+                  expected,
+                  actual,
+                  algorithm + " " + lookup + " " + range[0] + "-" + range[1] + " " + closest);
+            }
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  void similaritiesMatchFullScan() {
+    Random random = new Random(5678);
+    List<String> names = generateNames(random, 250);
+    List<String> lookups = generateNames(random, 40);
+
+    for (Algorithm algorithm :
+        new Algorithm[] {Algorithm.JARO, Algorithm.JARO_WINKLER, Algorithm.PAIR_SIMILARITY}) {
+      FuzzyMatchIndex index = new FuzzyMatchIndex(algorithm, false, toRows(names));
+      FuzzyMatchIndex.Searcher searcher = index.newSearcher();
+      for (double[] range : new double[][] {{0, 1}, {0.5, 1}, {0.8, 0.95}, {0.9, 1}, {0, 0.6}}) {
+        for (boolean closest : new boolean[] {true, false}) {
+          for (String lookup : lookups) {
+            String expected = scanSimilarity(names, lookup, algorithm, range[0], range[1], closest);
+            String actual =
+                toString(index, searcher.findBySimilarity(lookup, range[0], range[1], closest));
+            assertEquals(
+                expected,
+                actual,
+                algorithm + " " + lookup + " " + range[0] + "-" + range[1] + " " + closest);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  void phoneticCodes() {
+    List<String> names = List.of("Catrine", "John", "Catriny", "Jon");
+    FuzzyMatchIndex index = new FuzzyMatchIndex(Algorithm.SOUNDEX, false, toRows(names));
+    FuzzyMatchIndex.Searcher searcher = index.newSearcher();
+
+    // The last value with the same code wins
+    assertEquals("Catriny", index.getValue(searcher.findByPhoneticCode("Catrin").getIndex()));
+    assertEquals("Jon", index.getValue(searcher.findByPhoneticCode("Johnny").getIndex()));
+    assertNull(searcher.findByPhoneticCode("Xavier"));
+  }
+
+  private static String toString(FuzzyMatchIndex index, List<Match> matches) {
+    StringBuilder builder = new StringBuilder();
+    for (Match match : matches) {
+      builder.append(index.getValue(match.getIndex())).append('=').append(match.getMetric());
+      builder.append('|');
+    }
+    return builder.toString();
+  }
+
+  /** The comparison with all the lookup values, in the order in which they were added */
+  private static String scanDistance(
+      List<String> names,
+      String lookup,
+      Algorithm algorithm,
+      boolean caseSensitive,
+      int minimal,
+      int maximal,
+      boolean closest) {
+    StringBuilder builder = new StringBuilder();
+    long best = -1;
+    String bestName = null;
+    for (String name : names) {
+      String one = caseSensitive ? name : name.toLowerCase();
+      String two = caseSensitive ? lookup : lookup.toLowerCase();
+      int distance =
+          switch (algorithm) {
+            case DAMERAU_LEVENSHTEIN -> Utils.getDamerauLevenshteinDistance(one, two);
+            case NEEDLEMAN_WUNSH ->
+                Math.abs((int) new com.wcohen.ss.NeedlemanWunsch().score(one, two));
+            default -> StringUtils.getLevenshteinDistance(one, two);
+          };
+      if (minimal <= distance && distance <= maximal) {
+        if (closest) {
+          if (distance < best || best == -1) {
+            best = distance;
+            bestName = name;
+          }
+        } else {
+          builder.append(name).append('=').append((double) distance).append('|');
+        }
+      }
+    }
+    if (bestName != null) {
+      builder.append(bestName).append('=').append((double) best).append('|');
+    }
+    return builder.toString();
+  }
+
+  private static String scanSimilarity(
+      List<String> names,
+      String lookup,
+      Algorithm algorithm,
+      double minimal,
+      double maximal,
+      boolean closest) {
+    StringBuilder builder = new StringBuilder();
+    double best = 0;
+    String bestName = null;
+    for (String name : names) {
+      double similarity =
+          switch (algorithm) {
+            case JARO -> new Jaro().score(name, lookup);
+            case JARO_WINKLER -> new JaroWinkler().score(name, lookup);
+            default -> LetterPairSimilarity.getSimiliarity(name, lookup);
+          };
+      if (minimal <= similarity && similarity <= maximal) {
+        if (closest) {
+          if (similarity > best || (similarity == 0 && name.equals(lookup))) {
+            best = similarity;
+            bestName = name;
+          }
+        } else {
+          builder.append(name).append('=').append(similarity).append('|');
+        }
+      }
+    }
+    if (bestName != null) {
+      builder.append(bestName).append('=').append(best).append('|');
+    }
+    return builder.toString();
+  }
+}
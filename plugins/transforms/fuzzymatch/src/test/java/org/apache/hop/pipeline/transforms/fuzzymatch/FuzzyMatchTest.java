@@ -27,7 +27,6 @@ import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
 import java.util.List;
 import org.apache.hop.core.IRowSet;
 import org.apache.hop.core.exception.HopTransformException;
@@ -132,8 +131,9 @@ class FuzzyMatchTest {
     fuzzyMatch.addRowSetToInputRowSets(mockHelper.getMockInputRowSet(lookupRows));
 
     when(mockHelper.iTransformMeta.getAlgorithm()).thenReturn(FuzzyMatchMeta.Algorithm.SOUNDEX);
-    mockHelper.iTransformData.look = mock(HashSet.class);
-    when(mockHelper.iTransformData.look.iterator()).thenReturn(lookupRows.iterator());
+    mockHelper.iTransformData.index =
+        new FuzzyMatchIndex(FuzzyMatchMeta.Algorithm.SOUNDEX, false, lookupRows);
+    mockHelper.iTransformData.searcher = mockHelper.iTransformData.index.newSearcher();
 
     fuzzyMatch.processRow();
     assertEquals(fuzzyMatch.resultRow[0], row3[0]);
@@ -18,6 +18,7 @@
 package org.apache.hop.pipeline.transforms.http;
 
 import com.google.common.annotations.VisibleForTesting;
+import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.UnknownHostException;
@@ -31,6 +32,7 @@ import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.core.util.HttpClientManager;
+import org.apache.hop.core.util.OrderedCallQueue;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
@@ -71,30 +73,35 @@ public class Http extends BaseTransform<HttpMeta, HttpData> {
     super(transformMeta, meta, data, copyNr, pipelineMeta, pipeline);
   }
 
-  private Object[] execHttp(IRowMeta rowMeta, Object[] row) throws HopException {
-    if (first) {
-      first = false;
-      data.argnrs = new int[meta.getArgumentField().length];
-
-      for (int i = 0; i < meta.getArgumentField().length; i++) {
-        data.argnrs[i] = rowMeta.indexOfValue(meta.getArgumentField()[i]);
-        if (data.argnrs[i] < 0) {
-          logError(
-              BaseMessages.getString(PKG, "HTTP.Log.ErrorFindingField")
-                  + meta.getArgumentField()[i]
-                  + "]");
-          throw new HopTransformException(
-              BaseMessages.getString(
-                  PKG, "HTTP.Exception.CouldnotFindField", meta.getArgumentField()[i]));
-        }
+  private void lookupArgumentFields(IRowMeta rowMeta) throws HopException {
+    data.argnrs = new int[meta.getArgumentField().length];
+
+    for (int i = 0; i < meta.getArgumentField().length; i++) {
+      data.argnrs[i] = rowMeta.indexOfValue(meta.getArgumentField()[i]);
+      if (data.argnrs[i] < 0) {
+        logError(
+            BaseMessages.getString(PKG, "HTTP.Log.ErrorFindingField")
+                + meta.getArgumentField()[i]
+                + "]");
+        throw new HopTransformException(
+            BaseMessages.getString(
+                PKG, "HTTP.Exception.CouldnotFindField", meta.getArgumentField()[i]));
       }
     }
+  }
 
-    return callHttpService(rowMeta, row);
+  /**
+   * The client is built once per transform copy so that the connections to the server are kept
+   * alive and reused for the next rows.
+   */
+  private synchronized CloseableHttpClient getHttpClient() {
+    if (data.httpClient == null) {
+      data.httpClient = createHttpClient();
+    }
+    return data.httpClient;
   }
 
-  @VisibleForTesting
-  Object[] callHttpService(IRowMeta rowMeta, Object[] rowData) throws HopException {
+  private CloseableHttpClient createHttpClient() {
     HttpClientManager.HttpClientBuilderFacade clientBuilder =
         HttpClientManager.getInstance().createBuilder();
 
@@ -114,7 +121,12 @@ public class Http extends BaseTransform<HttpMeta, HttpData> {
       clientBuilder.ignoreSsl(true);
     }
 
-    CloseableHttpClient httpClient = clientBuilder.build();
+    return clientBuilder.build();
+  }
+
+  @VisibleForTesting
+  Object[] callHttpService(IRowMeta rowMeta, Object[] rowData) throws HopException {
+    CloseableHttpClient httpClient = getHttpClient();
 
     // Prepare Http get
     URI uri = null;
@@ -299,6 +311,9 @@ public class Http extends BaseTransform<HttpMeta, HttpData> {
 
     boolean firstWithoutPreviousTransforms = first && data.withoutPreviousTransforms;
     if (r == null && !firstWithoutPreviousTransforms) {
+      if (data.requests != null && !takeRequests(true)) {
+        return false;
+      }
       setOutputDone();
       return false;
     }
@@ -358,35 +373,65 @@ public class Http extends BaseTransform<HttpMeta, HttpData> {
                 resolve(meta.getHeaderParameter()[i]),
                 data.outputRowMeta.getString(r, data.headerParametersNrs[i]));
       }
+
+      lookupArgumentFields(data.inputRowMeta);
+      getHttpClient();
+      if (data.concurrentRequests > 1) {
+        data.requests =
+            new OrderedCallQueue<>(getTransformName() + "." + getCopy(), data.concurrentRequests);
+      }
+      first = false;
     } // end if first
 
-    try {
-      Object[] outputRowData = execHttp(data.inputRowMeta, r); // add new values to the row
-      putRow(data.outputRowMeta, outputRowData); // copy row to output rowset(s)
+    if (data.requests != null) {
+      // Send the request in the background, the rows are passed on in the order of the input
+      //
+      final Object[] row = r;
+      data.requests.submit(row, () -> callHttpService(data.inputRowMeta, row));
+      return takeRequests(false);
+    }
 
-      if (checkFeedback(getLinesRead()) && isDetailed()) {
-        logDetailed(BaseMessages.getString(PKG, "HTTP.LineNumber") + getLinesRead());
-      }
+    try {
+      Object[] outputRowData = callHttpService(data.inputRowMeta, r); // add new values to the row
+      putOutputRow(outputRowData);
     } catch (HopException e) {
-      boolean sendToErrorRow = false;
-      String errorMessage = null;
+      return handleRowError(r, e);
+    }
 
-      if (getTransformMeta().isDoingErrorHandling()) {
-        sendToErrorRow = true;
-        errorMessage = e.toString();
-      } else {
-        logError(BaseMessages.getString(PKG, "HTTP.ErrorInTransformRunning") + e.getMessage());
-        setErrors(1);
-        stopAll();
-        setOutputDone(); // signal end to receiver(s)
-        return false;
-      }
-      if (sendToErrorRow) {
-        // Simply add this row to the error row
-        putError(data.inputRowMeta, r, 1, errorMessage, null, "HTTP001");
-      }
+    return true;
+  }
+
+  /**
+   * Passes on the rows of the oldest requests in flight: all of them or only until there is room
+   * for a new request.
+   *
+   * @return false if the transform stopped because of an error
+   */
+  private boolean takeRequests(boolean all) throws HopException {
+    return data.requests.take(all, this::putOutputRow, this::handleRowError);
+  }
+
+  private void putOutputRow(Object[] outputRowData) throws HopException {
+    putRow(data.outputRowMeta, outputRowData); // copy row to output rowset(s)
+
+    if (checkFeedback(getLinesRead()) && isDetailed()) {
+      logDetailed(BaseMessages.getString(PKG, "HTTP.LineNumber") + getLinesRead());
     }
+  }
 
+  /**
+   * @return false if the transform stopped because the error is not handled
+   */
+  private boolean handleRowError(Object[] r, HopException e) throws HopException {
+    if (!getTransformMeta().isDoingErrorHandling()) {
+      logError(BaseMessages.getString(PKG, "HTTP.ErrorInTransformRunning") + e.getMessage());
+      setErrors(1);
+      stopAll();
+      setOutputDone(); // signal end to receiver(s)
+      return false;
+    }
+    // Simply add this row to the error row
+    putError(data.inputRowMeta, r, 1, e.toString(), null, "HTTP001");
     return true;
   }
 
@@ -402,6 +447,11 @@ public class Http extends BaseTransform<HttpMeta, HttpData> {
 
       data.realSocketTimeout = Const.toInt(resolve(meta.getSocketTimeout()), -1);
       data.realConnectionTimeout = Const.toInt(resolve(meta.getConnectionTimeout()), -1);
+      data.concurrentRequests =
+          Math.max(
+              1,
+              Const.toInt(
+                  resolve(meta.getConcurrentRequests()), HttpMeta.DEFAULT_CONCURRENT_REQUESTS));
 
       data.withoutPreviousTransforms =
           getPipelineMeta().getPrevTransforms(getTransformMeta()).length == 0;
@@ -410,4 +460,21 @@ public class Http extends BaseTransform<HttpMeta, HttpData> {
     }
     return false;
   }
+
+  @Override
+  public void dispose() {
+    if (data.requests != null) {
+      data.requests.close();
+      data.requests = null;
+    }
+    if (data.httpClient != null) {
+      try {
+        data.httpClient.close();
+      } catch (IOException e) {
+        logError(BaseMessages.getString(PKG, "HTTP.Log.UnableToCloseClient"), e);
+      }
+      data.httpClient = null;
+    }
+    super.dispose();
+  }
 }
@@ -18,9 +18,11 @@
 package org.apache.hop.pipeline.transforms.http;
 
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.util.OrderedCallQueue;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 import org.apache.http.NameValuePair;
+import org.apache.http.impl.client.CloseableHttpClient;
 
 @SuppressWarnings("java:S1104")
 public class HttpData extends BaseTransformData implements ITransformData {
@@ -40,6 +42,13 @@ public class HttpData extends BaseTransformData implements ITransformData {
   public int realSocketTimeout;
   public int realConnectionTimeout;
   public boolean withoutPreviousTransforms;
+  public int concurrentRequests;
+
+  /** The client of this transform copy, its connections are kept alive between rows */
+  public CloseableHttpClient httpClient;
+
+  /** The requests in flight when more than one request is sent at the same time */
+  public OrderedCallQueue<Object[], Object[]> requests;
 
   /** Default constructor. */
   public HttpData() {
@@ -49,5 +58,6 @@ public class HttpData extends BaseTransformData implements ITransformData {
     realProxyPort = 8080;
     realHttpLogin = null;
     realHttpPassword = null;
+    concurrentRequests = 1;
   }
 }
@@ -62,6 +62,9 @@ public class HttpMeta extends BaseTransformMeta<Http, HttpData> {
 
   // the time to wait till a connection is closed (milliseconds)? -1 is no not close.
   public static final int DEFAULT_CLOSE_CONNECTIONS_TIME = -1;
+
+  // the number of requests which are sent at the same time
+  public static final int DEFAULT_CONCURRENT_REQUESTS = 1;
   public static final String CONST_HEADER = "header";
   public static final String CONST_RESULT = "result";
   public static final String CONST_SPACES_LONG = "        ";
@@ -72,6 +75,9 @@ public class HttpMeta extends BaseTransformMeta<Http, HttpData> {
   private String connectionTimeout;
   private String closeIdleConnectionsTime;
 
+  /** The number of requests in flight at the same time, the output keeps the order of the input */
+  private String concurrentRequests;
+
   /** URL / service to be called */
   private String url;
 
@@ -146,6 +152,7 @@ public class HttpMeta extends BaseTransformMeta<Http, HttpData> {
     socketTimeout = String.valueOf(DEFAULT_SOCKET_TIMEOUT);
     connectionTimeout = String.valueOf(DEFAULT_CONNECTION_TIMEOUT);
     closeIdleConnectionsTime = String.valueOf(DEFAULT_CLOSE_CONNECTIONS_TIME);
+    concurrentRequests = String.valueOf(DEFAULT_CONCURRENT_REQUESTS);
     int i;
     int nrargs;
     int nrquery;
@@ -223,6 +230,7 @@ public class HttpMeta extends BaseTransformMeta<Http, HttpData> {
     retval.append("    " + XmlHandler.addTagValue("connectionTimeout", connectionTimeout));
     retval.append(
         "    " + XmlHandler.addTagValue("closeIdleConnectionsTime", closeIdleConnectionsTime));
+    retval.append("    " + XmlHandler.addTagValue("concurrentRequests", concurrentRequests));
 
     retval.append("    <lookup>").append(Const.CR);
 
@@ -277,6 +285,7 @@ public class HttpMeta extends BaseTransformMeta<Http, HttpData> {
       socketTimeout = XmlHandler.getTagValue(transformNode, "socketTimeout");
       connectionTimeout = XmlHandler.getTagValue(transformNode, "connectionTimeout");
       closeIdleConnectionsTime = XmlHandler.getTagValue(transformNode, "closeIdleConnectionsTime");
+      concurrentRequests = XmlHandler.getTagValue(transformNode, "concurrentRequests");
 
       Node lookup = XmlHandler.getSubNode(transformNode, "lookup");
       nrargs = XmlHandler.countNodes(lookup, "arg");
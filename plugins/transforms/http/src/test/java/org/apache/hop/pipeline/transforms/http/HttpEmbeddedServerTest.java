@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.RestoreHopEnvironmentExtension;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+/** Calls a local HTTP server with one request at a time and with several requests in flight */
+@ExtendWith(RestoreHopEnvironmentExtension.class)
+class HttpEmbeddedServerTest {
+
+  private static final int NR_ROWS = 20;
+
+  private TransformMockHelper<HttpMeta, HttpData> transformMockHelper;
+  private HttpServer server;
+  private ExecutorService serverExecutor;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger maxInFlight = new AtomicInteger();
+  private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+  @BeforeEach
+  void setUp() throws Exception {
+    transformMockHelper = new TransformMockHelper<>("HTTP Test", HttpMeta.class, HttpData.class);
+    when(transformMockHelper.logChannelFactory.create(any(), any(ILoggingObject.class)))
+        .thenReturn(transformMockHelper.iLogChannel);
+    when(transformMockHelper.pipeline.isRunning()).thenReturn(true);
+    when(transformMockHelper.pipelineMeta.getPrevTransforms(any()))
+        .thenReturn(new TransformMeta[1]);
+
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext("/echo", this::echo);
+    serverExecutor = Executors.newFixedThreadPool(8);
+    server.setExecutor(serverExecutor);
+    server.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.stop(0);
+    serverExecutor.shutdownNow();
+    transformMockHelper.cleanUp();
+  }
+
+  /** Answers with the id parameter, the lower ids take the longest */
+  private void echo(HttpExchange exchange) throws IOException {
+    int current = inFlight.incrementAndGet();
+    maxInFlight.accumulateAndGet(current, Math::max);
+    clientPorts.add(exchange.getRemoteAddress().getPort());
+    try {
+      String id = exchange.getRequestURI().getQuery().substring("id=".length());
+      Thread.sleep((NR_ROWS - Long.parseLong(id)) % 5 * 10L);
+      byte[] body = ("response " + id).getBytes(StandardCharsets.UTF_8);
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      inFlight.decrementAndGet();
+      exchange.close();
+    }
+  }
+
+  private List<Object[]> runTransform(String concurrentRequests) throws Exception {
+    HttpMeta meta = new HttpMeta();
+    meta.setDefault();
+    meta.setUrl("http://localhost:" + server.getAddress().getPort() + "/echo");
+    meta.setFieldName("response");
+    meta.setConcurrentRequests(concurrentRequests);
+    meta.allocate(1, 0);
+    meta.getArgumentField()[0] = "id";
+    meta.getArgumentParameter()[0] = "id";
+
+    Http http =
+        spy(
+            new Http(
+                transformMockHelper.transformMeta,
+                meta,
+                new HttpData(),
+                0,
+                transformMockHelper.pipelineMeta,
+                transformMockHelper.pipeline));
+
+    IRowMeta inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta(new ValueMetaString("id"));
+    doReturn(inputRowMeta).when(http).getInputRowMeta();
+    AtomicInteger rowNr = new AtomicInteger();
+    doAnswer(
+            invocation -> {
+              int nr = rowNr.getAndIncrement();
+              return nr < NR_ROWS ? new Object[] {String.valueOf(nr)} : null;
+            })
+        .when(http)
+        .getRow();
+    List<Object[]> output = new ArrayList<>();
+    doAnswer(
+            invocation -> {
+              output.add(invocation.getArgument(1));
+              return null;
+            })
+        .when(http)
+        .putRow(any(IRowMeta.class), any(Object[].class));
+
+    assertTrue(http.init());
+    while (http.processRow()) {
+      // Keep going until all rows are processed
+    }
+    http.dispose();
+    return output;
+  }
+
+  private void assertOutput(List<Object[]> output) {
+    assertEquals(NR_ROWS, output.size());
+    for (int i = 0; i < NR_ROWS; i++) {
+      assertEquals(String.valueOf(i), output.get(i)[0]);
+      assertEquals("response " + i, output.get(i)[1]);
+    }
+  }
+
+  @Test
+  void testOneRequestAtATime() throws Exception {
+    assertOutput(runTransform("1"));
+    assertEquals(1, maxInFlight.get());
+    // The connection is kept alive between the rows
+    assertEquals(1, clientPorts.size());
+  }
+
+  @Test
+  void testConcurrentRequests() throws Exception {
+    assertOutput(runTransform("4"));
+    assertTrue(maxInFlight.get() > 1, "Requests should be in flight at the same time");
+    assertTrue(maxInFlight.get() <= 4, "No more than 4 requests should be in flight");
+    assertFalse(clientPorts.size() > 4, "Connections should be reused");
+  }
+}
@@ -56,6 +56,7 @@ class HttpMetaLoadSaveTest {
             "socketTimeout",
             "connectionTimeout",
             "closeIdleConnectionsTime",
+            "concurrentRequests",
             "argumentField",
             "argumentParameter",
             "headerField",
@@ -20,6 +20,7 @@ package org.apache.hop.pipeline.transforms.httppost;
 import static org.apache.hop.pipeline.transforms.httppost.HttpPostMeta.DEFAULT_ENCODING;
 
 import com.google.common.annotations.VisibleForTesting;
+import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 import java.net.HttpURLConnection;
@@ -35,6 +36,7 @@ import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopTransformException;
 import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.util.HttpClientManager;
+import org.apache.hop.core.util.OrderedCallQueue;
 import org.apache.hop.core.util.StringUtil;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.core.vfs.HopVfs;
@@ -84,7 +86,17 @@ public class HttpPost extends BaseTransform<HttpPostMeta, HttpPostData> {
     super(transformMeta, meta, data, copyNr, pipelineMeta, pipeline);
   }
 
-  private Object[] callHttpPOST(Object[] rowData) throws HopException {
+  /**
+   * @return the client of this transform copy, built on first use and closed in {@link #dispose()}
+   */
+  private synchronized CloseableHttpClient getHttpClient() {
+    if (data.httpClient == null) {
+      data.httpClient = createHttpClient();
+    }
+    return data.httpClient;
+  }
+
+  private CloseableHttpClient createHttpClient() {
     HttpClientManager.HttpClientBuilderFacade clientBuilder =
         HttpClientManager.getInstance().createBuilder();
 
@@ -104,18 +116,27 @@ public class HttpPost extends BaseTransform<HttpPostMeta, HttpPostData> {
       clientBuilder.ignoreSsl(true);
     }
 
-    CloseableHttpClient httpClient = clientBuilder.build();
+    return clientBuilder.build();
+  }
+
+  /**
+   * Posts a row. Several rows can be posted at the same time, so nothing of the row is kept in the
+   * data of the transform.
+   */
+  private Object[] callHttpPOST(Object[] rowData) throws HopException {
+    CloseableHttpClient httpClient = getHttpClient();
 
     // get dynamic url ?
+    String url = data.realUrl;
     if (meta.isUrlInField()) {
-      data.realUrl = data.inputRowMeta.getString(rowData, data.indexOfUrlField);
+      url = data.inputRowMeta.getString(rowData, data.indexOfUrlField);
     }
     // Prepare HTTP POST
     try {
       if (isDetailed()) {
-        logDetailed(BaseMessages.getString(PKG, "HTTPPOST.Log.ConnectingToURL", data.realUrl));
+        logDetailed(BaseMessages.getString(PKG, "HTTPPOST.Log.ConnectingToURL", url));
       }
-      URIBuilder uriBuilder = new URIBuilder(data.realUrl);
+      URIBuilder uriBuilder = new URIBuilder(url);
       URI uri = uriBuilder.build();
       org.apache.http.client.methods.HttpPost post =
           new org.apache.http.client.methods.HttpPost(uri);
@@ -166,36 +187,38 @@ public class HttpPost extends BaseTransform<HttpPostMeta, HttpPostData> {
       // BODY PARAMETERS
       if (data.useBodyParameters) {
         // set body parameters that we want to send
+        NameValuePair[] bodyParameters = new NameValuePair[data.body_parameters_nrs.length];
         for (int i = 0; i < data.body_parameters_nrs.length; i++) {
           String bodyParameterName = data.bodyParameters[i].getName();
           String bodyParameterValue =
               data.inputRowMeta.getString(rowData, data.body_parameters_nrs[i]);
-          data.bodyParameters[i] = new BasicNameValuePair(bodyParameterName, bodyParameterValue);
+          bodyParameters[i] = new BasicNameValuePair(bodyParameterName, bodyParameterValue);
           if (isDebug()) {
             logDebug(
                 BaseMessages.getString(
                     PKG, "HTTPPOST.Log.BodyValue", bodyParameterName, bodyParameterValue));
           }
         }
-        bodyParams = getRequestBodyParamsAsStr(data.bodyParameters, data.realEncoding);
+        bodyParams = getRequestBodyParamsAsStr(bodyParameters, data.realEncoding);
         post.setEntity(
             (new StringEntity(bodyParams, ContentType.TEXT_XML.withCharset("US-ASCII"))));
       }
 
       // QUERY PARAMETERS
       if (data.useQueryParameters) {
+        NameValuePair[] queryParameters = new NameValuePair[data.query_parameters_nrs.length];
         for (int i = 0; i < data.query_parameters_nrs.length; i++) {
           String queryParameterName = data.queryParameters[i].getName();
           String queryParameterValue =
               data.inputRowMeta.getString(rowData, data.query_parameters_nrs[i]);
-          data.queryParameters[i] = new BasicNameValuePair(queryParameterName, queryParameterValue);
+          queryParameters[i] = new BasicNameValuePair(queryParameterName, queryParameterValue);
           if (isDebug()) {
             logDebug(
                 BaseMessages.getString(
                     PKG, "HTTPPOST.Log.QueryValue", queryParameterName, queryParameterValue));
           }
         }
-        post.setEntity(new UrlEncodedFormEntity(Arrays.asList(data.queryParameters)));
+        post.setEntity(new UrlEncodedFormEntity(Arrays.asList(queryParameters)));
       }
 
       // Set request entity?
@@ -268,8 +291,7 @@ public class HttpPost extends BaseTransform<HttpPostMeta, HttpPostData> {
         long responseTime = System.currentTimeMillis() - startTime;
 
         if (isDetailed()) {
-          logDetailed(
-              BaseMessages.getString(PKG, "HTTPPOST.Log.ResponseTime", responseTime, data.realUrl));
+          logDetailed(BaseMessages.getString(PKG, "HTTPPOST.Log.ResponseTime", responseTime, url));
         }
 
         // Display status code
@@ -283,10 +305,10 @@ public class HttpPost extends BaseTransform<HttpPostMeta, HttpPostData> {
         switch (statusCode) {
           case HttpURLConnection.HTTP_UNAUTHORIZED:
             throw new HopTransformException(
-                BaseMessages.getString(PKG, "HTTPPOST.Exception.Authentication", data.realUrl));
+                BaseMessages.getString(PKG, "HTTPPOST.Exception.Authentication", url));
           case -1:
             throw new HopTransformException(
-                BaseMessages.getString(PKG, "HTTPPOST.Exception.IllegalStatusCode", data.realUrl));
+                BaseMessages.getString(PKG, "HTTPPOST.Exception.IllegalStatusCode", url));
           case HttpURLConnection.HTTP_NO_CONTENT:
             body = "";
             break;
@@ -351,8 +373,7 @@ public class HttpPost extends BaseTransform<HttpPostMeta, HttpPostData> {
       throw new HopException(
           BaseMessages.getString(PKG, "HTTPPOST.Error.UnknownHostException", uhe.getMessage()));
     } catch (Exception e) {
-      throw new HopException(
-          BaseMessages.getString(PKG, "HTTPPOST.Error.CanNotReadURL", data.realUrl), e);
+      throw new HopException(BaseMessages.getString(PKG, "HTTPPOST.Error.CanNotReadURL", url), e);
     }
   }
 
@@ -378,6 +399,9 @@ public class HttpPost extends BaseTransform<HttpPostMeta, HttpPostData> {
 
     Object[] r = getRow(); // Get row from input rowset & set row busy!
     if (r == null) { // no more input to be expected...
+      if (data.requests != null && !takeRequests(true)) {
+        return false;
+      }
       setOutputDone();
       return false;
     }
@@ -507,37 +531,64 @@ public class HttpPost extends BaseTransform<HttpPostMeta, HttpPostData> {
         }
       }
       data.realEncoding = resolve(meta.getEncoding());
+
+      getHttpClient();
+      if (data.concurrentRequests > 1) {
+        data.requests =
+            new OrderedCallQueue<>(getTransformName() + "." + getCopy(), data.concurrentRequests);
+      }
     } // end if first
 
+    if (data.requests != null) {
+      // Post the row in the background, the rows are passed on in the order of the input
+      //
+      final Object[] row = r;
+      data.requests.submit(row, () -> callHttpPOST(row));
+      return takeRequests(false);
+    }
+
     try {
       Object[] outputRowData = callHttpPOST(r);
-      putRow(data.outputRowMeta, outputRowData); // copy row to output rowset(s)
-
-      if (checkFeedback(getLinesRead()) && isDetailed()) {
-        logDetailed(BaseMessages.getString(PKG, "HTTPPOST.LineNumber") + getLinesRead());
-      }
+      putOutputRow(outputRowData);
     } catch (HopException e) {
-      boolean sendToErrorRow = false;
-      String errorMessage = null;
+      return handleRowError(r, e);
+    }
 
-      if (getTransformMeta().isDoingErrorHandling()) {
-        sendToErrorRow = true;
-        errorMessage = e.toString();
-      } else {
-        logError(BaseMessages.getString(PKG, "HTTPPOST.ErrorInTransformRunning") + e.getMessage());
-        setErrors(1);
-        logError(Const.getStackTracker(e));
-        stopAll();
-        setOutputDone(); // signal end to receiver(s)
-        return false;
-      }
+    return true;
+  }
 
-      if (sendToErrorRow) {
-        // Simply add this row to the error row
-        putError(getInputRowMeta(), r, 1, errorMessage, null, "HTTPPOST001");
-      }
+  /**
+   * Passes on the rows of the oldest requests in flight: all of them or only until there is room
+   * for a new request.
+   *
+   * @return false if the transform stopped because of an error
+   */
+  private boolean takeRequests(boolean all) throws HopException {
+    return data.requests.take(all, this::putOutputRow, this::handleRowError);
+  }
+
+  private void putOutputRow(Object[] outputRowData) throws HopException {
+    putRow(data.outputRowMeta, outputRowData); // copy row to output rowset(s)
+
+    if (checkFeedback(getLinesRead()) && isDetailed()) {
+      logDetailed(BaseMessages.getString(PKG, "HTTPPOST.LineNumber") + getLinesRead());
     }
+  }
 
+  /**
+   * @return false if the transform stopped because the error is not handled
+   */
+  private boolean handleRowError(Object[] r, HopException e) throws HopException {
+    if (!getTransformMeta().isDoingErrorHandling()) {
+      logError(BaseMessages.getString(PKG, "HTTPPOST.ErrorInTransformRunning") + e.getMessage());
+      setErrors(1);
+      logError(Const.getStackTracker(e));
+      stopAll();
+      setOutputDone(); // signal end to receiver(s)
+      return false;
+    }
+    // Simply add this row to the error row
+    putError(getInputRowMeta(), r, 1, e.toString(), null, "HTTPPOST001");
     return true;
   }
 
@@ -583,9 +634,31 @@ public class HttpPost extends BaseTransform<HttpPostMeta, HttpPostData> {
       data.realConnectionTimeout = Const.toInt(resolve(meta.getSocketTimeout()), -1);
       data.realcloseIdleConnectionsTime =
           Const.toInt(resolve(meta.getCloseIdleConnectionsTime()), -1);
+      data.concurrentRequests =
+          Math.max(
+              1,
+              Const.toInt(
+                  resolve(meta.getConcurrentRequests()), HttpPostMeta.DEFAULT_CONCURRENT_REQUESTS));
 
       return true;
     }
     return false;
   }
+
+  @Override
+  public void dispose() {
+    if (data.requests != null) {
+      data.requests.close();
+      data.requests = null;
+    }
+    if (data.httpClient != null) {
+      try {
+        data.httpClient.close();
+      } catch (IOException e) {
+        logError(BaseMessages.getString(PKG, "HTTPPOST.Log.UnableToCloseClient"), e);
+      }
+      data.httpClient = null;
+    }
+    super.dispose();
+  }
 }
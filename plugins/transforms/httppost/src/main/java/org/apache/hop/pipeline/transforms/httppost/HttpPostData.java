@@ -18,9 +18,11 @@
 package org.apache.hop.pipeline.transforms.httppost;
 
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.util.OrderedCallQueue;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 import org.apache.http.NameValuePair;
+import org.apache.http.impl.client.CloseableHttpClient;
 
 @SuppressWarnings("java:S1104")
 public class HttpPostData extends BaseTransformData implements ITransformData {
@@ -49,6 +51,13 @@ public class HttpPostData extends BaseTransformData implements ITransformData {
   public int realSocketTimeout;
   public int realConnectionTimeout;
   public int realcloseIdleConnectionsTime;
+  public int concurrentRequests;
+
+  /** The client of this transform copy, its connections are kept alive between rows */
+  public CloseableHttpClient httpClient;
+
+  /** The requests in flight when more than one request is sent at the same time */
+  public OrderedCallQueue<Object[], Object[]> requests;
 
   public HttpPostData() {
     super();
@@ -63,5 +72,6 @@ public class HttpPostData extends BaseTransformData implements ITransformData {
     realProxyPort = 8080;
     realHttpLogin = null;
     realHttpPassword = null;
+    concurrentRequests = 1;
   }
 }
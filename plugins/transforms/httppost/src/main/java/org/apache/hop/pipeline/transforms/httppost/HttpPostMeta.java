@@ -56,6 +56,9 @@ public class HttpPostMeta extends BaseTransformMeta<HttpPost, HttpPostData> {
   // the time to wait till a connection is closed (milliseconds)? -1 is no not close.
   public static final int DEFAULT_CLOSE_CONNECTIONS_TIME = -1;
 
+  // the number of requests which are sent at the same time
+  public static final int DEFAULT_CONCURRENT_REQUESTS = 1;
+
   public static final String DEFAULT_ENCODING = "UTF-8";
 
   @HopMetadataProperty(injectionKeyDescription = "HTTPPOST.Injection.socketTimeout")
@@ -67,6 +70,10 @@ public class HttpPostMeta extends BaseTransformMeta<HttpPost, HttpPostData> {
   @HopMetadataProperty(injectionKeyDescription = "HTTPPOST.Injection.closeIdleConnectionsTime")
   private String closeIdleConnectionsTime;
 
+  /** The number of requests in flight at the same time, the output keeps the order of the input */
+  @HopMetadataProperty(injectionKeyDescription = "HTTPPOST.Injection.concurrentRequests")
+  private String concurrentRequests;
+
   /** URL / service to be called */
   @HopMetadataProperty(injectionKeyDescription = "HTTPPOST.Injection.url")
   private String url;
@@ -154,6 +161,20 @@ public class HttpPostMeta extends BaseTransformMeta<HttpPost, HttpPostData> {
     this.closeIdleConnectionsTime = closeIdleConnectionsTime;
   }
 
+  /**
+   * @return Returns the number of concurrent requests.
+   */
+  public String getConcurrentRequests() {
+    return concurrentRequests;
+  }
+
+  /**
+   * @param concurrentRequests The number of concurrent requests to set.
+   */
+  public void setConcurrentRequests(String concurrentRequests) {
+    this.concurrentRequests = concurrentRequests;
+  }
+
   /**
    * @return Returns the socketTimeout.
    */
@@ -273,6 +294,7 @@ public class HttpPostMeta extends BaseTransformMeta<HttpPost, HttpPostData> {
     socketTimeout = String.valueOf(DEFAULT_SOCKET_TIMEOUT);
     connectionTimeout = String.valueOf(DEFAULT_CONNECTION_TIMEOUT);
     closeIdleConnectionsTime = String.valueOf(DEFAULT_CLOSE_CONNECTIONS_TIME);
+    concurrentRequests = String.valueOf(DEFAULT_CONCURRENT_REQUESTS);
   }
 
   @Override
@@ -20,8 +20,10 @@ package org.apache.hop.pipeline.transforms.insertupdate;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.hop.core.Const;
+import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.exception.HopDatabaseException;
@@ -188,6 +190,9 @@ public class InsertUpdate extends BaseTransform<InsertUpdateMeta, InsertUpdateDa
     if (r == null) {
       // no more input to be expected...
 
+      if (meta.isSetBased() && !first) {
+        mergeBatch();
+      }
       setOutputDone();
       return false;
     }
@@ -281,7 +286,9 @@ public class InsertUpdate extends BaseTransform<InsertUpdateMeta, InsertUpdateDa
         }
       }
 
-      setLookup(getInputRowMeta());
+      if (!meta.isSetBased()) {
+        setLookup(getInputRowMeta());
+      }
 
       data.insertRowMeta = new RowMeta();
 
@@ -303,23 +310,43 @@ public class InsertUpdate extends BaseTransform<InsertUpdateMeta, InsertUpdateDa
               "The same column can't be inserted into the target row twice: " + insValue.getName());
         }
       }
-      data.db.prepareInsert(
-          data.insertRowMeta, resolve(meta.getSchemaName()), resolve(meta.getTableName()));
+      if (meta.isSetBased()) {
+        prepareMerge(getInputRowMeta());
+      } else {
+        data.db.prepareInsert(
+            data.insertRowMeta, resolve(meta.getSchemaName()), resolve(meta.getTableName()));
 
-      if (!meta.isUpdateBypassed()) {
-        List<String> updateColumns = new ArrayList<>();
-        for (int i = 0; i < meta.getInsertUpdateLookupField().getValueFields().size(); i++) {
-          InsertUpdateValue valueField = meta.getInsertUpdateLookupField().getValueFields().get(i);
-          if (valueField.isUpdate()) {
-            updateColumns.add(valueField.getUpdateLookup());
+        if (!meta.isUpdateBypassed()) {
+          List<String> updateColumns = new ArrayList<>();
+          for (int i = 0; i < meta.getInsertUpdateLookupField().getValueFields().size(); i++) {
+            InsertUpdateValue valueField =
+                meta.getInsertUpdateLookupField().getValueFields().get(i);
+            if (valueField.isUpdate()) {
+              updateColumns.add(valueField.getUpdateLookup());
+            }
           }
+          prepareUpdate(getInputRowMeta());
         }
-        prepareUpdate(getInputRowMeta());
+      }
+    }
+
+    // A key can only be merged once per statement, merge the staged rows first when it comes back.
+    // This happens outside of the error handling, a failing merge is not the error of this row.
+    //
+    RowMetaAndData stagingKey = null;
+    if (meta.isSetBased()) {
+      stagingKey = new RowMetaAndData(data.keyRowMeta, getKeyValues(r));
+      if (data.stagedKeys.size() >= data.mergeBatchSize || data.stagedKeys.contains(stagingKey)) {
+        mergeBatch();
       }
     }
 
     try {
-      lookupValues(getInputRowMeta(), r); // add new values to the row in rowset[0].
+      if (meta.isSetBased()) {
+        stageValues(r, stagingKey);
+      } else {
+        lookupValues(getInputRowMeta(), r); // add new values to the row in rowset[0].
+      }
       putRow(
           data.outputRowMeta,
           r); // Nothing changed to the input, return the same row, pass a "cloned" metadata
@@ -513,6 +540,175 @@ public class InsertUpdate extends BaseTransform<InsertUpdateMeta, InsertUpdateDa
     }
   }
 
+  private Object[] getKeyValues(Object[] row) {
+    Object[] keyValues = new Object[data.keynrs.length];
+    for (int i = 0; i < data.keynrs.length; i++) {
+      keyValues[i] = row[data.keynrs[i]];
+    }
+    return keyValues;
+  }
+
+  /**
+   * Insert a row into the staging table, it is merged into the table with the rest of its batch.
+   *
+   * @param row the input row
+   * @param stagingKey the key of the row
+   * @throws HopException in case the row can't be staged
+   */
+  protected void stageValues(Object[] row, RowMetaAndData stagingKey) throws HopException {
+    Object[] stagingRow = new Object[data.stagingnrs.length];
+    for (int i = 0; i < data.stagingnrs.length; i++) {
+      stagingRow[i] = row[data.stagingnrs[i]];
+    }
+    if (isRowLevel()) {
+      logRowlevel(
+          BaseMessages.getString(PKG, "InsertUpdate.Log.StageRow")
+              + data.stagingRowMeta.getString(stagingRow));
+    }
+
+    data.db.setValues(data.stagingRowMeta, stagingRow, data.prepStatementStaging);
+    data.db.insertRow(data.prepStatementStaging, data.batchStaging, false);
+    data.stagedKeys.add(stagingKey);
+  }
+
+  /**
+   * Merge the staged rows into the table with one statement, empty the staging table and commit.
+   *
+   * @throws HopException in case the rows can't be merged
+   */
+  protected void mergeBatch() throws HopException {
+    if (data.stagedKeys.isEmpty()) {
+      return;
+    }
+    try {
+      if (data.batchStaging) {
+        data.prepStatementStaging.executeBatch();
+        data.prepStatementStaging.clearBatch();
+      }
+      int merged = data.prepStatementMerge.executeUpdate();
+      data.prepStatementClearStaging.executeUpdate();
+      if (!data.db.isAutoCommit()) {
+        data.db.commit();
+      }
+
+      if (isDetailed()) {
+        logDetailed(
+            BaseMessages.getString(
+                PKG, "InsertUpdate.Log.MergedRows", data.stagedKeys.size(), merged));
+      }
+      // The database only reports the rows which were inserted or updated together
+      incrementLinesOutput(Math.max(merged, 0));
+    } catch (SQLException e) {
+      throw new HopDatabaseException(
+          BaseMessages.getString(PKG, "InsertUpdate.Exception.UnableToMerge", data.schemaTable), e);
+    }
+    data.stagedKeys.clear();
+  }
+
+  /**
+   * Create the staging table and prepare the statements of the set based mode. The rows are
+   * inserted into a temporary table in batches and every batch is merged into the table with a
+   * single statement of the database, instead of a lookup and an insert or update per row.
+   *
+   * @param rowMeta the layout of the input rows
+   * @throws HopException in case the keys can't be merged or the staging table can't be created
+   */
+  public void prepareMerge(IRowMeta rowMeta) throws HopException {
+    DatabaseMeta databaseMeta = data.db.getDatabaseMeta();
+    List<InsertUpdateKeyField> keyFields = meta.getInsertUpdateLookupField().getLookupKeys();
+
+    // The staging table has the columns to insert and the keys to match the rows on
+    //
+    data.stagingRowMeta = data.insertRowMeta.clone();
+    List<Integer> stagingnrs = new ArrayList<>();
+    for (int valuenr : data.valuenrs) {
+      stagingnrs.add(valuenr);
+    }
+    data.keyRowMeta = new RowMeta();
+    List<String> keyColumns = new ArrayList<>();
+    for (int i = 0; i < keyFields.size(); i++) {
+      InsertUpdateKeyField keyField = keyFields.get(i);
+      if (!"=".equals(keyField.getKeyCondition())) {
+        throw new HopTransformException(
+            BaseMessages.getString(
+                PKG,
+                "InsertUpdate.Exception.SetBasedKeyCondition",
+                keyField.getKeyLookup(),
+                keyField.getKeyCondition()));
+      }
+      IValueMeta keyValue = rowMeta.getValueMeta(data.keynrs[i]).clone();
+      data.keyRowMeta.addValueMeta(keyValue);
+      keyColumns.add(databaseMeta.quoteField(keyField.getKeyLookup()));
+
+      if (data.stagingRowMeta.indexOfValue(keyField.getKeyLookup()) < 0) {
+        IValueMeta stagingValue = keyValue.clone();
+        stagingValue.setName(keyField.getKeyLookup());
+        data.stagingRowMeta.addValueMeta(stagingValue);
+        stagingnrs.add(data.keynrs[i]);
+      }
+    }
+    data.stagingnrs = ArrayUtils.toPrimitive(stagingnrs.toArray(new Integer[0]));
+
+    // Don't update the keys, nor the fields which are not updated
+    //
+    List<String> updateColumns = new ArrayList<>();
+    if (!meta.isUpdateBypassed()) {
+      for (InsertUpdateValue valueField : meta.getInsertUpdateLookupField().getValueFields()) {
+        if (valueField.isUpdate()
+            && keyFields.stream()
+                .noneMatch(k -> k.getKeyLookup().equalsIgnoreCase(valueField.getUpdateLookup()))) {
+          updateColumns.add(databaseMeta.quoteField(valueField.getUpdateLookup()));
+        }
+      }
+    }
+    List<String> insertColumns = new ArrayList<>();
+    for (String name : data.insertRowMeta.getFieldNames()) {
+      insertColumns.add(databaseMeta.quoteField(name));
+    }
+    List<String> stagingColumns = new ArrayList<>();
+    for (String name : data.stagingRowMeta.getFieldNames()) {
+      stagingColumns.add(databaseMeta.quoteField(name));
+    }
+    String columns = String.join(", ", stagingColumns);
+
+    // Every copy of the transform has a staging table of its own, also when copies of several
+    // runs share a connection
+    //
+    data.stagingTable =
+        databaseMeta.getStagingTableName(
+            "hop_merge_" + UUID.randomUUID().toString().replace("-", ""));
+    String createStaging =
+        databaseMeta.getSqlCreateStagingTable(data.stagingTable, data.schemaTable, columns);
+    String merge =
+        databaseMeta.getSqlMergeFromStagingTable(
+            data.schemaTable, data.stagingTable, keyColumns, insertColumns, updateColumns);
+    if (createStaging == null || merge == null) {
+      throw new HopTransformException(
+          BaseMessages.getString(
+              PKG, "InsertUpdate.Exception.SetBasedNotSupported", databaseMeta.getPluginName()));
+    }
+    data.db.execStatement(createStaging);
+
+    StringBuilder insert = new StringBuilder();
+    insert.append("INSERT INTO ").append(data.stagingTable).append(" (").append(columns);
+    insert.append(") VALUES (");
+    for (int i = 0; i < stagingColumns.size(); i++) {
+      insert.append(i == 0 ? "?" : ", ?");
+    }
+    insert.append(")");
+    data.prepStatementStaging = data.db.prepareSql(insert.toString());
+
+    if (isDetailed()) {
+      logDetailed("Setting merge preparedStatement to [" + merge + "]");
+    }
+    data.prepStatementMerge = data.db.prepareSql(merge);
+    data.prepStatementClearStaging =
+        data.db.prepareSql(databaseMeta.getSqlClearStagingTable(data.stagingTable));
+
+    data.batchStaging = !data.db.isAutoCommit() && data.db.getUseBatchInsert(true);
+    data.mergeBatchSize = meta.getMergeBatchSizeVar(this);
+  }
+
   @Override
   public boolean init() {
 
@@ -542,6 +738,9 @@ public class InsertUpdate extends BaseTransform<InsertUpdateMeta, InsertUpdateDa
 
   @Override
   public void batchComplete() throws HopException {
+    if (meta.isSetBased()) {
+      mergeBatch();
+    }
     commitBatch(false);
   }
 
@@ -551,6 +750,26 @@ public class InsertUpdate extends BaseTransform<InsertUpdateMeta, InsertUpdateDa
     super.dispose();
   }
 
+  /**
+   * Drops the staging table. A pooled connection isn't closed when it's returned to the pool, so
+   * the temporary table would stay around for as long as the connection lives.
+   */
+  private void dropStagingTable() {
+    if (data.stagingTable == null) {
+      return;
+    }
+    try {
+      data.db.execStatement(
+          data.db.getDatabaseMeta().getDropTableIfExistsStatement(data.stagingTable));
+    } catch (Exception e) {
+      // The table goes away with the connection anyway
+      if (isDetailed()) {
+        logDetailed("Unable to drop staging table " + data.stagingTable + " : " + e.getMessage());
+      }
+    }
+    data.stagingTable = null;
+  }
+
   private void commitBatch(boolean dispose) {
     if (data.db != null) {
       try {
@@ -564,6 +783,10 @@ public class InsertUpdate extends BaseTransform<InsertUpdateMeta, InsertUpdateDa
         if (dispose) {
           data.db.closeUpdate();
           data.db.closeInsert();
+          data.db.closePreparedStatement(data.prepStatementStaging);
+          data.db.closePreparedStatement(data.prepStatementMerge);
+          data.db.closePreparedStatement(data.prepStatementClearStaging);
+          dropStagingTable();
         }
       } catch (HopDatabaseException e) {
         logError(
@@ -18,6 +18,9 @@
 package org.apache.hop.pipeline.transforms.insertupdate;
 
 import java.sql.PreparedStatement;
+import java.util.HashSet;
+import java.util.Set;
+import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
@@ -44,6 +47,22 @@ public class InsertUpdateData extends BaseTransformData implements ITransformDat
   public IRowMeta lookupReturnRowMeta;
   public IRowMeta insertRowMeta;
 
+  /** The temporary table the rows are staged in before they are merged, in the set based mode */
+  public String stagingTable;
+
+  public IRowMeta stagingRowMeta;
+  public int[] stagingnrs; // Stream value nrs of the staging columns
+  public IRowMeta keyRowMeta;
+  public boolean batchStaging;
+  public int mergeBatchSize;
+
+  public PreparedStatement prepStatementStaging;
+  public PreparedStatement prepStatementMerge;
+  public PreparedStatement prepStatementClearStaging;
+
+  /** The keys of the rows in the staging table, a key can only be merged once per statement */
+  public Set<RowMetaAndData> stagedKeys = new HashSet<>();
+
   /** Default constructor. */
   public InsertUpdateData() {
     super();
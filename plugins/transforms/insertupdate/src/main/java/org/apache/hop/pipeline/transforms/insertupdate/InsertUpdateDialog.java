@@ -83,6 +83,10 @@ public class InsertUpdateDialog extends BaseTransformDialog {
 
   private Button wUpdateBypassed;
 
+  private Button wSetBased;
+
+  private TextVar wMergeBatchSize;
+
   private final InsertUpdateMeta input;
 
   /** List of ColumnInfo that should have the field names of the selected database table */
@@ -249,12 +253,58 @@ public class InsertUpdateDialog extends BaseTransformDialog {
     wUpdateBypassed.setLayoutData(fdUpdateBypassed);
     wUpdateBypassed.addSelectionListener(new ComponentSelectionListener(input));
 
+    // SetBased line
+    Label wlSetBased = new Label(shell, SWT.RIGHT);
+    wlSetBased.setText(BaseMessages.getString(PKG, "InsertUpdateDialog.SetBased.Label"));
+    wlSetBased.setToolTipText(BaseMessages.getString(PKG, "InsertUpdateDialog.SetBased.Tooltip"));
+    PropsUi.setLook(wlSetBased);
+    FormData fdlSetBased = new FormData();
+    fdlSetBased.left = new FormAttachment(0, 0);
+    fdlSetBased.top = new FormAttachment(wUpdateBypassed, margin);
+    fdlSetBased.right = new FormAttachment(middle, -margin);
+    wlSetBased.setLayoutData(fdlSetBased);
+    wSetBased = new Button(shell, SWT.CHECK);
+    wSetBased.setToolTipText(BaseMessages.getString(PKG, "InsertUpdateDialog.SetBased.Tooltip"));
+    PropsUi.setLook(wSetBased);
+    FormData fdSetBased = new FormData();
+    fdSetBased.left = new FormAttachment(middle, 0);
+    fdSetBased.top = new FormAttachment(wlSetBased, 0, SWT.CENTER);
+    fdSetBased.right = new FormAttachment(100, 0);
+    wSetBased.setLayoutData(fdSetBased);
+    wSetBased.addSelectionListener(
+        new SelectionAdapter() {
+          @Override
+          public void widgetSelected(SelectionEvent e) {
+            input.setChanged();
+            wMergeBatchSize.setEnabled(wSetBased.getSelection());
+          }
+        });
+
+    // MergeBatchSize line
+    Label wlMergeBatchSize = new Label(shell, SWT.RIGHT);
+    wlMergeBatchSize.setText(
+        BaseMessages.getString(PKG, "InsertUpdateDialog.MergeBatchSize.Label"));
+    PropsUi.setLook(wlMergeBatchSize);
+    FormData fdlMergeBatchSize = new FormData();
+    fdlMergeBatchSize.left = new FormAttachment(0, 0);
+    fdlMergeBatchSize.top = new FormAttachment(wSetBased, margin);
+    fdlMergeBatchSize.right = new FormAttachment(middle, -margin);
+    wlMergeBatchSize.setLayoutData(fdlMergeBatchSize);
+    wMergeBatchSize = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wMergeBatchSize);
+    wMergeBatchSize.addModifyListener(lsMod);
+    FormData fdMergeBatchSize = new FormData();
+    fdMergeBatchSize.left = new FormAttachment(middle, 0);
+    fdMergeBatchSize.top = new FormAttachment(wSetBased, margin);
+    fdMergeBatchSize.right = new FormAttachment(100, 0);
+    wMergeBatchSize.setLayoutData(fdMergeBatchSize);
+
     Label wlKey = new Label(shell, SWT.NONE);
     wlKey.setText(BaseMessages.getString(PKG, "InsertUpdateDialog.Keys.Label"));
     PropsUi.setLook(wlKey);
     FormData fdlKey = new FormData();
     fdlKey.left = new FormAttachment(0, 0);
-    fdlKey.top = new FormAttachment(wUpdateBypassed, margin);
+    fdlKey.top = new FormAttachment(wMergeBatchSize, margin);
     wlKey.setLayoutData(fdlKey);
 
     int nrKeyCols = 4;
@@ -610,6 +660,9 @@ public class InsertUpdateDialog extends BaseTransformDialog {
 
     wCommit.setText(input.getCommitSize());
     wUpdateBypassed.setSelection(input.isUpdateBypassed());
+    wSetBased.setSelection(input.isSetBased());
+    wMergeBatchSize.setText(Const.NVL(input.getMergeBatchSize(), ""));
+    wMergeBatchSize.setEnabled(input.isSetBased());
 
     if (input.getInsertUpdateLookupField().getLookupKeys() != null) {
       for (int i = 0; i < input.getInsertUpdateLookupField().getLookupKeys().size(); i++) {
@@ -677,6 +730,8 @@ public class InsertUpdateDialog extends BaseTransformDialog {
 
     inf.setCommitSize(wCommit.getText());
     inf.setUpdateBypassed(wUpdateBypassed.getSelection());
+    inf.setSetBased(wSetBased.getSelection());
+    inf.setMergeBatchSize(wMergeBatchSize.getText());
 
     if (log.isDebug()) {
       logDebug(BaseMessages.getString(PKG, "InsertUpdateDialog.Log.FoundKeys", nrkeys + ""));
@@ -55,6 +55,8 @@ import org.apache.hop.pipeline.transform.utils.RowMetaUtils;
 public class InsertUpdateMeta extends BaseTransformMeta<InsertUpdate, InsertUpdateData> {
   private static final Class<?> PKG = InsertUpdateMeta.class;
 
+  public static final int DEFAULT_MERGE_BATCH_SIZE = 10000;
+
   /** Lookup key fields * */
   @HopMetadataProperty(key = "lookup")
   private InsertUpdateLookupField insertUpdateLookupField;
@@ -78,6 +80,20 @@ public class InsertUpdateMeta extends BaseTransformMeta<InsertUpdate, InsertUpda
       injectionKey = "DO_NOT")
   private boolean updateBypassed;
 
+  /** Merge the rows in batches through a staging table instead of looking up every row */
+  @HopMetadataProperty(
+      key = "set_based",
+      injectionKeyDescription = "InsertUpdateMeta.Injection.SET_BASED",
+      injectionKey = "SET_BASED")
+  private boolean setBased;
+
+  /** The number of rows to merge at a time in the set based mode */
+  @HopMetadataProperty(
+      key = "merge_batch_size",
+      injectionKeyDescription = "InsertUpdateMeta.Injection.MERGE_BATCH_SIZE",
+      injectionKey = "MERGE_BATCH_SIZE")
+  private String mergeBatchSize;
+
   /** database connection */
   @HopMetadataProperty(
       key = "connection",
@@ -148,9 +164,47 @@ public class InsertUpdateMeta extends BaseTransformMeta<InsertUpdate, InsertUpda
     return insertUpdateLookupField.getSchemaName();
   }
 
+  /**
+   * @return Returns the mergeBatchSize.
+   */
+  public String getMergeBatchSize() {
+    return mergeBatchSize;
+  }
+
+  /**
+   * @param vs the variables to resolve the batch size with
+   * @return the number of rows to merge at a time
+   */
+  public int getMergeBatchSizeVar(IVariables vs) {
+    int size = Const.toInt(vs.resolve(mergeBatchSize), DEFAULT_MERGE_BATCH_SIZE);
+    return size > 0 ? size : DEFAULT_MERGE_BATCH_SIZE;
+  }
+
+  /**
+   * @param mergeBatchSize The mergeBatchSize to set.
+   */
+  public void setMergeBatchSize(String mergeBatchSize) {
+    this.mergeBatchSize = mergeBatchSize;
+  }
+
+  /**
+   * @return true if the rows are merged in batches through a staging table
+   */
+  public boolean isSetBased() {
+    return setBased;
+  }
+
+  /**
+   * @param setBased true to merge the rows in batches through a staging table
+   */
+  public void setSetBased(boolean setBased) {
+    this.setBased = setBased;
+  }
+
   @Override
   public void setDefault() {
     commitSize = "100";
+    mergeBatchSize = Integer.toString(DEFAULT_MERGE_BATCH_SIZE);
   }
 
   @Override
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.insertupdate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.database.DatabaseMeta;
+import org.apache.hop.core.database.DatabasePluginType;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.logging.LogLevel;
+import org.apache.hop.core.logging.LoggingObject;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.core.variables.Variables;
+import org.apache.hop.databases.h2.H2DatabaseMeta;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Runs {@link InsertUpdate} against an embedded H2 database */
+class InsertUpdateH2Test {
+  private TransformMockHelper<InsertUpdateMeta, InsertUpdateData> smh;
+  private DatabaseMeta databaseMeta;
+  private InsertUpdateMeta meta;
+
+  @BeforeAll
+  static void setUpBeforeClass() throws HopException {
+    HopEnvironment.init();
+    DatabasePluginType.getInstance().registerClassPathPlugin(H2DatabaseMeta.class);
+  }
+
+  @BeforeEach
+  void setUp() throws HopException {
+    smh = new TransformMockHelper<>("insertUpdate", InsertUpdateMeta.class, InsertUpdateData.class);
+    when(smh.logChannelFactory.create(any(), any(ILoggingObject.class)))
+        .thenReturn(smh.iLogChannel);
+    when(smh.iLogChannel.getLogLevel()).thenReturn(LogLevel.BASIC);
+    when(smh.pipeline.isRunning()).thenReturn(true);
+
+    databaseMeta =
+        new DatabaseMeta(
+            "insertupdate",
+            "H2",
+            "Native",
+            null,
+            "mem:insertupdate;DB_CLOSE_DELAY=-1",
+            null,
+            "sa",
+            null);
+    when(smh.pipelineMeta.findDatabase(nullable(String.class), any(IVariables.class)))
+        .thenReturn(databaseMeta);
+
+    Database database = connect();
+    database.execStatement("DROP TABLE IF EXISTS TARGET");
+    database.execStatement(
+        "CREATE TABLE TARGET (ID BIGINT PRIMARY KEY, LABEL VARCHAR(20), CREATED VARCHAR(20))");
+    database.execStatement("INSERT INTO TARGET VALUES (1, 'one', 'initial')");
+    database.execStatement("INSERT INTO TARGET VALUES (2, 'two', 'initial')");
+    database.disconnect();
+
+    meta = new InsertUpdateMeta();
+    meta.setDefault();
+    meta.setConnection("insertupdate");
+    meta.setSetBased(true);
+    meta.setMergeBatchSize("2");
+    meta.getInsertUpdateLookupField().setTableName("TARGET");
+    meta.getInsertUpdateLookupField()
+        .getLookupKeys()
+        .add(new InsertUpdateKeyField("id", "ID", "="));
+    meta.getInsertUpdateLookupField().getValueFields().add(new InsertUpdateValue("ID", "id"));
+    meta.getInsertUpdateLookupField().getValueFields().add(new InsertUpdateValue("LABEL", "label"));
+    meta.getInsertUpdateLookupField()
+        .getValueFields()
+        .add(new InsertUpdateValue("CREATED", "created", false));
+  }
+
+  @AfterEach
+  void cleanUp() {
+    smh.cleanUp();
+  }
+
+  private Database connect() throws HopException {
+    Database database =
+        new Database(new LoggingObject("InsertUpdateH2Test"), new Variables(), databaseMeta);
+    database.connect();
+    return database;
+  }
+
+  private void process(Object[]... rows) throws HopException {
+    RowMeta inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta(new ValueMetaInteger("id"));
+    inputRowMeta.addValueMeta(new ValueMetaString("label"));
+    inputRowMeta.addValueMeta(new ValueMetaString("created"));
+
+    InsertUpdate transform =
+        new InsertUpdate(
+            smh.transformMeta, meta, new InsertUpdateData(), 0, smh.pipelineMeta, smh.pipeline);
+    transform.setInputRowMeta(inputRowMeta);
+    transform.addRowSetToInputRowSets(smh.getMockInputRowSet(rows));
+    assertTrue(transform.init());
+    try {
+      while (transform.processRow()) {
+        // Process all the rows
+      }
+    } finally {
+      transform.dispose();
+    }
+    assertEquals(0, transform.getErrors());
+  }
+
+  private List<String> getRows() throws HopException {
+    Database database = connect();
+    try {
+      List<String> rows = new ArrayList<>();
+      for (Object[] row : database.getRows("SELECT * FROM TARGET ORDER BY ID", 0)) {
+        rows.add(row[0] + "," + row[1] + "," + row[2]);
+      }
+      return rows;
+    } finally {
+      database.disconnect();
+    }
+  }
+
+  @Test
+  void testSetBasedInsertUpdate() throws Exception {
+    process(
+        new Object[] {2L, "TWO", "new"},
+        new Object[] {3L, "three", "new"},
+        new Object[] {3L, "THREE", "new"},
+        new Object[] {4L, "four", "new"},
+        new Object[] {1L, "one", "new"});
+
+    assertEquals(List.of("1,one,initial", "2,TWO,initial", "3,THREE,new", "4,four,new"), getRows());
+  }
+
+  @Test
+  void testSetBasedUpdateBypassed() throws Exception {
+    meta.setUpdateBypassed(true);
+
+    process(new Object[] {2L, "TWO", "new"}, new Object[] {3L, "three", "new"});
+
+    assertEquals(List.of("1,one,initial", "2,two,initial", "3,three,new"), getRows());
+  }
+
+  @Test
+  void testSetBasedMatchesRowByRow() throws Exception {
+    Object[][] rows = {
+      new Object[] {2L, "TWO", "new"}, new Object[] {5L, "five", "new"},
+    };
+    process(rows);
+    List<String> setBased = getRows();
+
+    cleanUp();
+    setUp();
+    meta.setSetBased(false);
+    process(rows);
+
+    assertEquals(setBased, getRows());
+  }
+}
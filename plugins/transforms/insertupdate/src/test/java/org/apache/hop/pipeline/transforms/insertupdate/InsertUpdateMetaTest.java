@@ -132,10 +132,22 @@ class InsertUpdateMetaTest {
     }
   }
 
+  @Test
+  void testMergeBatchSize() {
+    umi.setMergeBatchSize("${max.sz}");
+    assertEquals(10, umi.getMergeBatchSizeVar(upd));
+    umi.setMergeBatchSize("0");
+    assertEquals(InsertUpdateMeta.DEFAULT_MERGE_BATCH_SIZE, umi.getMergeBatchSizeVar(upd));
+    umi.setMergeBatchSize(null);
+    assertEquals(InsertUpdateMeta.DEFAULT_MERGE_BATCH_SIZE, umi.getMergeBatchSizeVar(upd));
+  }
+
   @BeforeEach
   void setUpLoadSave() throws Exception {
 
-    List<String> attributes = Arrays.asList("connection", "lookup", "commit", "update_bypassed");
+    List<String> attributes =
+        Arrays.asList(
+            "connection", "lookup", "commit", "update_bypassed", "set_based", "merge_batch_size");
 
     Map<String, String> getterMap =
         new HashMap<>() {
@@ -144,6 +156,8 @@ class InsertUpdateMetaTest {
             put("lookup", "getInsertUpdateLookupField");
             put("commit", "getCommitSize");
             put("update_bypassed", "isUpdateBypassed");
+            put("set_based", "isSetBased");
+            put("merge_batch_size", "getMergeBatchSize");
           }
         };
     Map<String, String> setterMap =
@@ -153,6 +167,8 @@ class InsertUpdateMetaTest {
             put("lookup", "setInsertUpdateLookupField");
             put("commit", "setCommitSize");
             put("update_bypassed", "setUpdateBypassed");
+            put("set_based", "setSetBased");
+            put("merge_batch_size", "setMergeBatchSize");
           }
         };
 
@@ -0,0 +1,251 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.insertupdate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.database.DatabaseMeta;
+import org.apache.hop.core.database.IDatabase;
+import org.apache.hop.core.database.NoneDatabaseMeta;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopTransformException;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Tests the set based mode of {@link InsertUpdate} */
+class InsertUpdateSetBasedTest {
+  private TransformMockHelper<InsertUpdateMeta, InsertUpdateData> smh;
+  private InsertUpdateMeta meta;
+  private InsertUpdateData data;
+  private Database db;
+  private List<String> statements;
+  private PreparedStatement staging;
+  private PreparedStatement merge;
+  private PreparedStatement clearStaging;
+
+  @BeforeAll
+  static void setUpBeforeClass() throws HopException {
+    HopEnvironment.init();
+  }
+
+  @BeforeEach
+  void setUp() throws Exception {
+    smh = new TransformMockHelper<>("insertUpdate", InsertUpdateMeta.class, InsertUpdateData.class);
+    when(smh.logChannelFactory.create(any(), any(ILoggingObject.class)))
+        .thenReturn(smh.iLogChannel);
+    when(smh.pipeline.isRunning()).thenReturn(true);
+
+    meta = new InsertUpdateMeta();
+    meta.setDefault();
+    meta.setSetBased(true);
+    meta.setMergeBatchSize("2");
+    meta.getInsertUpdateLookupField().setTableName("target");
+    meta.getInsertUpdateLookupField()
+        .getLookupKeys()
+        .add(new InsertUpdateKeyField("id", "id", "="));
+    meta.getInsertUpdateLookupField().getValueFields().add(new InsertUpdateValue("id", "id"));
+    meta.getInsertUpdateLookupField().getValueFields().add(new InsertUpdateValue("name", "name"));
+
+    data = new InsertUpdateData();
+    statements = new ArrayList<>();
+    staging = mock(PreparedStatement.class);
+    merge = mock(PreparedStatement.class);
+    clearStaging = mock(PreparedStatement.class);
+    db = mock(Database.class);
+    when(db.execStatement(anyString()))
+        .thenAnswer(
+            invocation -> {
+              statements.add(invocation.getArgument(0));
+              return null;
+            });
+    when(db.prepareSql(anyString()))
+        .thenAnswer(
+            invocation -> {
+              String sql = invocation.getArgument(0);
+              statements.add(sql);
+              if (sql.startsWith("INSERT")) {
+                return staging;
+              }
+              return sql.startsWith("MERGE") ? merge : clearStaging;
+            });
+    when(merge.executeUpdate()).thenReturn(1);
+    data.db = db;
+    setDatabase(new NoneDatabaseMeta());
+  }
+
+  @AfterEach
+  void cleanUp() {
+    smh.cleanUp();
+  }
+
+  private void setDatabase(IDatabase iDatabase) {
+    DatabaseMeta databaseMeta = new DatabaseMeta();
+    databaseMeta.setName("target");
+    databaseMeta.setIDatabase(iDatabase);
+    when(db.getDatabaseMeta()).thenReturn(databaseMeta);
+    when(smh.pipelineMeta.findDatabase(nullable(String.class), any(IVariables.class)))
+        .thenReturn(databaseMeta);
+  }
+
+  private InsertUpdate process(Object[]... rows) throws HopException {
+    RowMeta inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta(new ValueMetaInteger("id"));
+    inputRowMeta.addValueMeta(new ValueMetaString("name"));
+
+    InsertUpdate transform =
+        new InsertUpdate(smh.transformMeta, meta, data, 0, smh.pipelineMeta, smh.pipeline);
+    transform.setInputRowMeta(inputRowMeta);
+    transform.addRowSetToInputRowSets(smh.getMockInputRowSet(rows));
+    while (transform.processRow()) {
+      // Process all the rows
+    }
+    return transform;
+  }
+
+  private String getStatement(String prefix) {
+    return statements.stream().filter(s -> s.startsWith(prefix)).findFirst().orElse(null);
+  }
+
+  @Test
+  void testMergeInBatches() throws Exception {
+    InsertUpdate transform =
+        process(new Object[] {1L, "a"}, new Object[] {2L, "b"}, new Object[] {3L, "c"});
+
+    assertTrue(getStatement("CREATE TEMPORARY TABLE").contains(" FROM target WHERE 1 = 0"));
+    assertTrue(getStatement("MERGE INTO target t USING ").contains(" s ON (t.id = s.id)"));
+    assertTrue(getStatement("MERGE").contains("WHEN MATCHED"));
+    // The key is only matched on, not updated
+    assertFalse(getStatement("MERGE").contains("SET id"));
+
+    verify(db, times(3)).insertRow(staging, false, false);
+    verify(merge, times(2)).executeUpdate();
+    verify(clearStaging, times(2)).executeUpdate();
+    verify(db, times(2)).commit();
+    assertEquals(2, transform.getLinesOutput());
+    assertTrue(data.stagedKeys.isEmpty());
+  }
+
+  @Test
+  void testMergeBeforeStagingADuplicateKey() throws Exception {
+    meta.setMergeBatchSize("100");
+
+    process(new Object[] {1L, "a"}, new Object[] {2L, "b"}, new Object[] {1L, "c"});
+
+    // The second row of key 1 goes into the next batch
+    verify(db, times(3)).insertRow(staging, false, false);
+    verify(merge, times(2)).executeUpdate();
+  }
+
+  @Test
+  void testMergeInOneBatchWithDistinctKeys() throws Exception {
+    meta.setMergeBatchSize("100");
+
+    process(new Object[] {1L, "a"}, new Object[] {2L, "b"}, new Object[] {3L, "c"});
+
+    verify(merge, times(1)).executeUpdate();
+  }
+
+  @Test
+  void testUpdateBypassed() throws Exception {
+    meta.setUpdateBypassed(true);
+
+    process(new Object[] {1L, "a"});
+
+    String mergeSql = getStatement("MERGE");
+    assertFalse(mergeSql.contains("WHEN MATCHED"));
+    assertTrue(mergeSql.contains("WHEN NOT MATCHED THEN INSERT (id, name)"));
+  }
+
+  @Test
+  void testBatchedStaging() throws Exception {
+    when(db.getUseBatchInsert(anyBoolean())).thenReturn(true);
+
+    process(new Object[] {1L, "a"}, new Object[] {2L, "b"});
+
+    verify(db, times(2)).insertRow(staging, true, false);
+    verify(staging, times(1)).executeBatch();
+  }
+
+  @Test
+  void testUnsupportedDatabase() throws Exception {
+    setDatabase(
+        new NoneDatabaseMeta() {
+          @Override
+          public String getSqlMergeFromStagingTable(
+              String schemaTable,
+              String stagingTable,
+              List<String> keyColumns,
+              List<String> insertColumns,
+              List<String> updateColumns) {
+            return null;
+          }
+        });
+
+    assertThrows(HopTransformException.class, () -> process(new Object[] {1L, "a"}));
+    verify(db, never()).execStatement(anyString());
+  }
+
+  @Test
+  void testStagingTableDroppedOnDispose() throws Exception {
+    InsertUpdate transform = process(new Object[] {1L, "a"});
+    String stagingTable = data.stagingTable;
+
+    transform.dispose();
+
+    verify(db).execStatement("DROP TABLE IF EXISTS " + stagingTable);
+    verify(db).disconnect();
+  }
+
+  @Test
+  void testUniqueStagingTable() throws Exception {
+    process(new Object[] {1L, "a"});
+    String first = data.stagingTable;
+
+    data = new InsertUpdateData();
+    data.db = db;
+    process(new Object[] {1L, "a"});
+
+    assertNotEquals(first, data.stagingTable);
+  }
+}
@@ -47,6 +47,7 @@ import org.apache.hop.pipeline.transforms.jsoninput.exception.JsonInputException
 import org.apache.hop.pipeline.transforms.jsoninput.reader.FastJsonReader;
 import org.apache.hop.pipeline.transforms.jsoninput.reader.InputsReader;
 import org.apache.hop.pipeline.transforms.jsoninput.reader.RowOutputConverter;
+import org.apache.hop.pipeline.transforms.jsoninput.reader.StreamingJsonReader;
 
 /**
  * Read Json files, parse them and convert them to rows and writes these to one or more output
@@ -282,8 +283,11 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
   }
 
   private void parseNextInputToRowSet(InputStream input) throws HopException {
+    boolean streaming = false;
     try {
       data.readerRowSet = data.reader.parseStringValue(input);
+      // A streaming rowset keeps on reading the input and closes it when it's done
+      streaming = data.readerRowSet instanceof StreamingJsonReader.StreamingRowSet;
     } catch (HopException ke) {
       logInputError(ke);
       throw new JsonInputException(ke);
@@ -291,8 +295,22 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
       logInputError(e);
       throw new JsonInputException(e);
     } finally {
-      closeQuietly(input);
+      if (!streaming) {
+        closeQuietly(input);
+      }
+    }
+  }
+
+  private Object[] getNextReaderRow() throws HopException {
+    if (data.readerRowSet instanceof StreamingJsonReader.StreamingRowSet streamingRowSet) {
+      try {
+        return streamingRowSet.nextRow();
+      } catch (HopException e) {
+        logInputError(e);
+        throw new JsonInputException(e);
+      }
     }
+    return data.readerRowSet.getRow();
   }
 
   private void parseNextJsonToRowSet(JsonNode node) throws HopException {
@@ -386,19 +404,27 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
         }
       }
     } else {
-      while ((rawReaderRow = data.readerRowSet.getRow()) == null) {
+      while ((rawReaderRow = getNextReaderRow()) == null) {
         if (data.inputs.hasNext() && data.readerRowSet.isDone()) {
-          try (InputStream nextIn = data.inputs.next()) {
-
-            if (nextIn != null) {
-              parseNextInputToRowSet(nextIn);
-            } else {
-              parseNextInputToRowSet(new ByteArrayInputStream(EMPTY_JSON));
+          if (data.reader instanceof StreamingJsonReader streamingReader
+              && streamingReader.isStreaming()) {
+            // The rowset keeps on reading the input and closes it when it's done
+            InputStream nextIn = data.inputs.next();
+            parseNextInputToRowSet(nextIn != null ? nextIn : new ByteArrayInputStream(EMPTY_JSON));
+          } else {
+            try (InputStream nextIn = data.inputs.next()) {
+
+              if (nextIn != null) {
+                parseNextInputToRowSet(nextIn);
+              } else {
+                parseNextInputToRowSet(new ByteArrayInputStream(EMPTY_JSON));
+              }
+
+            } catch (IOException e) {
+              logError(
+                  BaseMessages.getString(PKG, "JsonInput.Log.UnexpectedError", e.toString()), e);
+              incrementErrors();
             }
-
-          } catch (IOException e) {
-            logError(BaseMessages.getString(PKG, "JsonInput.Log.UnexpectedError", e.toString()), e);
-            incrementErrors();
           }
         } else {
           if (isDetailed()) {
@@ -513,7 +539,13 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
       inputFields[i] = field;
     }
     // Instead of putting in the meta.inputFields, we put in our json path resolved input fields
-    data.reader = new FastJsonReader(inputFields, meta.isDefaultPathLeafToNull(), getLogChannel());
+    if (meta.isStreaming()) {
+      data.reader =
+          new StreamingJsonReader(inputFields, meta.isDefaultPathLeafToNull(), getLogChannel());
+    } else {
+      data.reader =
+          new FastJsonReader(inputFields, meta.isDefaultPathLeafToNull(), getLogChannel());
+    }
     data.reader.setIgnoreMissingPath(meta.isIgnoreMissingPath());
   }
 
@@ -522,6 +554,10 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
     if (data.file != null) {
       closeQuietly(data.file);
     }
+    if (data.readerRowSet instanceof StreamingJsonReader.StreamingRowSet streamingRowSet) {
+      // The input isn't closed yet if the rowset isn't read until the end
+      streamingRowSet.close();
+    }
     data.inputs = null;
     data.reader = null;
     data.readerRowSet = null;
@@ -0,0 +1,461 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.jsoninput.reader;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.SingleRowRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.i18n.BaseMessages;
+import org.apache.hop.pipeline.transforms.jsoninput.JsonInputField;
+import org.apache.hop.pipeline.transforms.jsoninput.JsonInputMeta;
+import org.apache.hop.pipeline.transforms.jsoninput.exception.JsonInputException;
+
+/**
+ * Reads the elements of the array in the loop path of the fields, like <code>$.items[*]</code> or
+ * <code>$[*]</code>, one by one with a streaming parser. Only the element which is being read is
+ * kept in memory, whatever the size of the source. The rest of the path of every field is evaluated
+ * against that element.<br>
+ * <br>
+ * This only works if all the paths go through the same array and only consist of property names and
+ * indexes. Other paths, and the incoming JSON nodes, are handed to a {@link FastJsonReader} which
+ * reads the source as a whole.
+ */
+public class StreamingJsonReader implements IJsonReader {
+  private static final Class<?> PKG = JsonInputMeta.class;
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  /** Marks the array step of a path */
+  private static final Object ALL_ELEMENTS = new Object();
+
+  private final FastJsonReader fastJsonReader;
+  private final boolean defaultPathLeafToNull;
+  private final ILogChannel log;
+
+  private boolean ignoreMissingPath;
+  private JsonInputField[] fields;
+
+  /** The names of the properties leading to the array or null if the paths can't be streamed */
+  private List<String> arrayPath;
+
+  /** The steps to the value of every field, starting from an element of the array */
+  private Object[][] elementPaths;
+
+  public StreamingJsonReader(
+      JsonInputField[] fields, boolean defaultPathLeafToNull, ILogChannel log) throws HopException {
+    this.fastJsonReader = new FastJsonReader(fields, defaultPathLeafToNull, log);
+    this.defaultPathLeafToNull = defaultPathLeafToNull;
+    this.log = log;
+    setFields(fields);
+  }
+
+  @Override
+  public void setFields(JsonInputField[] fields) throws HopException {
+    fastJsonReader.setFields(fields);
+    this.fields = fields;
+    this.arrayPath = null;
+    this.elementPaths = null;
+
+    if (fields.length == 0) {
+      return;
+    }
+    if (!defaultPathLeafToNull) {
+      // Without it, missing values are left out which shifts the values of the next elements
+      //
+      log.logBasic(
+          BaseMessages.getString(PKG, "JsonReader.Log.NotStreaming.DefaultPathLeafToNull"));
+      return;
+    }
+    List<String> commonArrayPath = null;
+    Object[][] paths = new Object[fields.length][];
+    for (int i = 0; i < fields.length; i++) {
+      List<Object> steps = parsePath(fields[i].getPath());
+      int arrayIndex = steps == null ? -1 : steps.indexOf(ALL_ELEMENTS);
+      List<String> fieldArrayPath = arrayIndex < 0 ? null : getArrayPath(steps, arrayIndex);
+      List<Object> elementSteps =
+          fieldArrayPath == null ? null : steps.subList(arrayIndex + 1, steps.size());
+      if (elementSteps == null
+          || elementSteps.contains(ALL_ELEMENTS)
+          || (commonArrayPath != null && !commonArrayPath.equals(fieldArrayPath))) {
+        log.logBasic(
+            BaseMessages.getString(PKG, "JsonReader.Log.NotStreaming", fields[i].getPath()));
+        return;
+      }
+      commonArrayPath = fieldArrayPath;
+      paths[i] = elementSteps.toArray();
+    }
+    this.arrayPath = commonArrayPath;
+    this.elementPaths = paths;
+  }
+
+  /**
+   * @return true if the elements of the array are read one by one, false if the source is read as a
+   *     whole
+   */
+  public boolean isStreaming() {
+    return arrayPath != null;
+  }
+
+  @Override
+  public boolean isIgnoreMissingPath() {
+    return ignoreMissingPath;
+  }
+
+  @Override
+  public void setIgnoreMissingPath(boolean value) {
+    this.ignoreMissingPath = value;
+    fastJsonReader.setIgnoreMissingPath(value);
+  }
+
+  /**
+   * Positions a parser on the array in the source and returns the rows of its elements. When
+   * streaming, the rowset reads the source while the rows are fetched and closes it once it's done,
+   * so the caller shouldn't close it before that.
+   */
+  @Override
+  public IRowSet parseStringValue(InputStream in) throws HopException {
+    if (!isStreaming()) {
+      return fastJsonReader.parseStringValue(in);
+    }
+    JsonParser parser = null;
+    try {
+      parser = MAPPER.getFactory().createParser(in);
+      JsonToken container = moveToArray(parser);
+      return new StreamingRowSet(parser, container);
+    } catch (IOException e) {
+      closeQuietly(parser);
+      throw new JsonInputException(e);
+    }
+  }
+
+  @Override
+  public IRowSet parseJsonNodeValue(JsonNode node) throws HopException {
+    return fastJsonReader.parseJsonNodeValue(node);
+  }
+
+  /**
+   * Moves the parser to the start of the array, skipping everything before it.
+   *
+   * @return the start token of the array or of the object of which the values are read, null if
+   *     there's nothing to read at the path
+   */
+  private JsonToken moveToArray(JsonParser parser) throws IOException {
+    JsonToken token = parser.nextToken();
+    for (String name : arrayPath) {
+      if (token != JsonToken.START_OBJECT) {
+        return null;
+      }
+      boolean found = false;
+      while (!found && parser.nextToken() == JsonToken.FIELD_NAME) {
+        found = name.equals(parser.currentName());
+        parser.nextToken();
+        if (!found) {
+          parser.skipChildren();
+        }
+      }
+      if (!found) {
+        return null;
+      }
+      token = parser.currentToken();
+    }
+    return token == JsonToken.START_ARRAY || token == JsonToken.START_OBJECT ? token : null;
+  }
+
+  /**
+   * Splits a JSON path in property names (String), indexes (Integer) and {@link #ALL_ELEMENTS}.
+   *
+   * @return the steps of the path or null if the path uses anything else, like filters, slices or
+   *     deep scans
+   */
+  static List<Object> parsePath(String path) {
+    if (path == null) {
+      return null;
+    }
+    String expression = path.trim();
+    if (!expression.startsWith("$")) {
+      expression = "$." + expression;
+    }
+    List<Object> steps = new ArrayList<>();
+    int pos = 1;
+    while (pos < expression.length()) {
+      char c = expression.charAt(pos);
+      if (c == '.') {
+        int end = pos + 1;
+        while (end < expression.length()
+            && expression.charAt(end) != '.'
+            && expression.charAt(end) != '[') {
+          end++;
+        }
+        String name = expression.substring(pos + 1, end);
+        if ("*".equals(name)) {
+          steps.add(ALL_ELEMENTS);
+        } else if (name.isEmpty() || !isPlainName(name)) {
+          return null;
+        } else {
+          steps.add(name);
+        }
+        pos = end;
+      } else if (c == '[') {
+        int end = expression.indexOf(']', pos);
+        if (end < 0) {
+          return null;
+        }
+        String content = expression.substring(pos + 1, end).trim();
+        if ("*".equals(content)) {
+          steps.add(ALL_ELEMENTS);
+        } else if (content.length() >= 2
+            && (content.charAt(0) == '\'' || content.charAt(0) == '"')
+            && content.charAt(content.length() - 1) == content.charAt(0)) {
+          String name = content.substring(1, content.length() - 1);
+          if (name.indexOf(content.charAt(0)) >= 0 || name.indexOf('\\') >= 0) {
+            return null;
+          }
+          steps.add(name);
+        } else {
+          try {
+            steps.add(Integer.valueOf(content));
+          } catch (NumberFormatException e) {
+            return null;
+          }
+        }
+        pos = end + 1;
+      } else {
+        return null;
+      }
+    }
+    return steps;
+  }
+
+  private static boolean isPlainName(String name) {
+    for (char c : name.toCharArray()) {
+      if ("*()?@,:'\" ".indexOf(c) >= 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return the property names leading to the array or null if there's anything else before it
+   */
+  private static List<String> getArrayPath(List<Object> steps, int arrayIndex) {
+    List<String> names = new ArrayList<>();
+    for (Object step : steps.subList(0, arrayIndex)) {
+      if (!(step instanceof String name)) {
+        return null;
+      }
+      names.add(name);
+    }
+    return names;
+  }
+
+  private static Object getValue(JsonNode element, Object[] steps) {
+    JsonNode node = element;
+    for (Object step : steps) {
+      if (node == null) {
+        return null;
+      }
+      if (step instanceof String name) {
+        node = node.isObject() ? node.get(name) : null;
+      } else if (node.isArray()) {
+        int index = (Integer) step;
+        node = node.get(index < 0 ? node.size() + index : index);
+      } else {
+        node = null;
+      }
+    }
+    if (node == null || node.isNull() || node.isMissingNode()) {
+      return null;
+    }
+    if (node.isTextual()) {
+      return node.textValue();
+    }
+    if (node.isNumber()) {
+      return node.numberValue();
+    }
+    if (node.isBoolean()) {
+      return node.booleanValue();
+    }
+    // Objects and arrays are passed as they are, they're converted to JSON text when needed
+    //
+    return node;
+  }
+
+  private static void closeQuietly(JsonParser parser) {
+    if (parser != null) {
+      try {
+        parser.close();
+      } catch (IOException e) {
+        // Ignore
+      }
+    }
+  }
+
+  /**
+   * The rows of the elements of the array, read from the source when they're fetched. The rows
+   * without any value are skipped if there's more than one element and nulls aren't included, like
+   * when the source is read as a whole.
+   */
+  public class StreamingRowSet extends SingleRowRowSet {
+    private final boolean includeNulls =
+        "Y"
+            .equalsIgnoreCase(
+                System.getProperty(
+                    Const.HOP_JSON_INPUT_INCLUDE_NULLS, Const.JSON_INPUT_INCLUDE_NULLS));
+
+    private JsonParser parser;
+    private final JsonToken container;
+    private final boolean[] found;
+    private boolean started;
+    private boolean empty;
+    private Object[] next;
+    private long nrElements;
+
+    private StreamingRowSet(JsonParser parser, JsonToken container) {
+      super();
+      this.parser = parser;
+      this.container = container;
+      this.found = new boolean[fields.length];
+    }
+
+    /**
+     * Reads the next element of the array.
+     *
+     * @return the row of the element or null if all elements are read
+     * @throws HopException in case the source can't be parsed or in case a path isn't found in any
+     *     of the elements and missing paths aren't ignored
+     */
+    public Object[] nextRow() throws HopException {
+      if (!started) {
+        started = true;
+        next = readElement();
+        if (next == null) {
+          // Nothing to read at the path, return a single empty row
+          //
+          if (!ignoreMissingPath) {
+            throw new JsonInputException(
+                BaseMessages.getString(
+                    PKG, "JsonReader.Error.CanNotFindPath", fields[0].getPath()));
+          }
+          empty = true;
+          next = new Object[fields.length];
+        }
+      }
+      while (next != null) {
+        Object[] row = next;
+        // Read one element ahead, to know if there is more than one
+        next = null;
+        if (!empty) {
+          next = readElement();
+        }
+        boolean cullNulls = !includeNulls && nrElements > 1;
+        if (!cullNulls || !FastJsonReader.isAllNull(Arrays.asList(row))) {
+          return row;
+        }
+      }
+      return null;
+    }
+
+    /** Use {@link #nextRow()} to get the exceptions */
+    @Override
+    public Object[] getRow() {
+      try {
+        return nextRow();
+      } catch (HopException e) {
+        throw new IllegalStateException(e.getMessage(), e);
+      }
+    }
+
+    private Object[] readElement() throws HopException {
+      if (parser == null) {
+        return null;
+      }
+      try {
+        JsonToken token = container == null ? null : parser.nextToken();
+        if (token == JsonToken.FIELD_NAME) {
+          token = parser.nextToken();
+        }
+        if (token == null || token == JsonToken.END_ARRAY || token == JsonToken.END_OBJECT) {
+          close();
+          checkMissingPaths();
+          return null;
+        }
+        JsonNode element = MAPPER.readTree(parser);
+        Object[] row = new Object[elementPaths.length];
+        for (int i = 0; i < elementPaths.length; i++) {
+          row[i] = getValue(element, elementPaths[i]);
+          found[i] |= row[i] != null;
+        }
+        nrElements++;
+        return row;
+      } catch (IOException e) {
+        close();
+        throw new JsonInputException(e);
+      }
+    }
+
+    private void checkMissingPaths() throws JsonInputException {
+      if (log.isDetailed()) {
+        log.logDetailed(BaseMessages.getString(PKG, "JsonInput.Log.NrRecords", nrElements));
+      }
+      if (ignoreMissingPath || nrElements == 0) {
+        return;
+      }
+      for (int i = 0; i < fields.length; i++) {
+        if (!found[i]) {
+          throw new JsonInputException(
+              BaseMessages.getString(PKG, "JsonReader.Error.CanNotFindPath", fields[i].getPath()));
+        }
+      }
+    }
+
+    /** Closes the parser and the source, also when not all the elements are read */
+    public void close() {
+      closeQuietly(parser);
+      parser = null;
+    }
+
+    @Override
+    public int size() {
+      return next == null ? 0 : 1;
+    }
+
+    @Override
+    public boolean isDone() {
+      return started && next == null;
+    }
+
+    @Override
+    public void clear() {
+      close();
+      next = null;
+      started = true;
+    }
+  }
+}
@@ -51,6 +51,7 @@ class JsonInputMetaLoadSaveTest implements IInitializer<ITransformMeta> {
             "doNotFailIfNoFile",
             "ignoreMissingPath",
             "defaultPathLeafToNull",
+            "streaming",
             "rowNumberField",
             "FileName",
             "FileMask",
@@ -966,6 +966,52 @@ class JsonInputTest {
     }
   }
 
+  /** Streams the array of every file, the rows are the same as when the files are read whole */
+  @Test
+  void testFileListStreaming() throws Exception {
+    ByteArrayOutputStream err = new ByteArrayOutputStream();
+    helper.redirectLog(err, LogLevel.ERROR);
+
+    final String input1 = getBasicTestJson();
+    final String input2 = "{ \"store\": { \"book\": [ { \"price\": 9.99 } ] } }";
+    try (FileObject fileObj1 = HopVfs.getFileObject(BASE_RAM_DIR + "test1.json");
+        FileObject fileObj2 = HopVfs.getFileObject(BASE_RAM_DIR + "test2.json")) {
+      try (OutputStream out = fileObj1.getContent().getOutputStream()) {
+        out.write(input1.getBytes());
+      }
+      try (OutputStream out = fileObj2.getContent().getOutputStream()) {
+        out.write(input2.getBytes());
+      }
+      JsonInputField price = new JsonInputField();
+      price.setName("price");
+      price.setType(IValueMeta.TYPE_NUMBER);
+      price.setPath("$.store.book[*].price");
+      List<FileObject> fileList = Arrays.asList(fileObj1, fileObj2);
+      JsonInputMeta meta = createFileListMeta(fileList);
+      meta.setInputFields(new JsonInputField[] {price});
+      meta.setStreaming(true);
+
+      meta.setIncludeRowNumber(true);
+      meta.setRowNumberField("rownbr");
+
+      JsonInput jsonInput = createJsonInput(meta);
+      RowComparatorListener rowComparator =
+          new RowComparatorListener(
+              new Object[] {8.95d, 1L},
+              new Object[] {12.99d, 2L},
+              new Object[] {8.99d, 3L},
+              new Object[] {22.99d, 4L},
+              new Object[] {9.99d, 5L});
+      jsonInput.addRowListener(rowComparator);
+
+      processRows(jsonInput, 5);
+      disposeJsonInput(jsonInput);
+      assertEquals(0, jsonInput.getErrors(), err.toString());
+    } finally {
+      deleteFiles();
+    }
+  }
+
   @Test
   void testNoFilesInListError() throws Exception {
     ByteArrayOutputStream err = new ByteArrayOutputStream();
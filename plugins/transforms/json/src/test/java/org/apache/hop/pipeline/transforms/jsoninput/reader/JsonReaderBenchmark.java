@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.jsoninput.reader;
+
+import static org.mockito.Mockito.mock;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.pipeline.transforms.jsoninput.JsonInputField;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares reading all the elements of a JSON array with the in-memory reader and with the
+ * streaming reader. Every element has a number, a string, an array and an object, three of them are
+ * read as fields. The source is kept in memory, so the file system is left out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JsonReaderBenchmark {
+
+  private static final String[] PATHS = {
+    "$.items[*].id", "$.items[*].name", "$.items[*].address.city"
+  };
+
+  @Param({"10000", "100000"})
+  public int nrElements;
+
+  private final ILogChannel log = mock(ILogChannel.class);
+  private byte[] source;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    StringBuilder json = new StringBuilder("{\"count\":").append(nrElements).append(",\"items\":[");
+    for (int i = 0; i < nrElements; i++) {
+      if (i > 0) {
+        json.append(',');
+      }
+      json.append("{\"id\":")
+          .append(i)
+          .append(",\"name\":\"name ")
+          .append(i)
+          .append("\",\"tags\":[\"a\",\"b\",\"c\"],\"address\":{\"street\":\"street ")
+          .append(i)
+          .append("\",\"city\":\"city ")
+          .append(i % 100)
+          .append("\"}}");
+    }
+    json.append("]}");
+    source = json.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static JsonInputField[] fields() {
+    JsonInputField[] fields = new JsonInputField[PATHS.length];
+    for (int i = 0; i < PATHS.length; i++) {
+      fields[i] = new JsonInputField("field" + i);
+      fields[i].setPath(PATHS[i]);
+    }
+    return fields;
+  }
+
+  private static long readAll(IRowSet rowSet) {
+    long count = 0;
+    while (rowSet.getRow() != null) {
+      count++;
+    }
+    return count;
+  }
+
+  @Benchmark
+  public long inMemory() throws HopException {
+    FastJsonReader reader = new FastJsonReader(fields(), true, log);
+    reader.setIgnoreMissingPath(true);
+    return readAll(reader.parseStringValue(new ByteArrayInputStream(source)));
+  }
+
+  @Benchmark
+  public long streaming() throws HopException {
+    StreamingJsonReader reader = new StreamingJsonReader(fields(), true, log);
+    reader.setIgnoreMissingPath(true);
+    return readAll(reader.parseStringValue(new ByteArrayInputStream(source)));
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(JsonReaderBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.jsoninput.reader;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.pipeline.transforms.jsoninput.JsonInputField;
+import org.apache.hop.pipeline.transforms.jsoninput.exception.JsonInputException;
+import org.junit.jupiter.api.Test;
+
+class StreamingJsonReaderTest {
+  private final ILogChannel logMock = mock(ILogChannel.class);
+
+  @Test
+  void testReadElementsOfArray() throws HopException {
+    StreamingJsonReader reader =
+        createReader(true, "$.items[*].id", "$.items[*]['name']", "items[*].tags[-1]");
+    assertTrue(reader.isStreaming());
+
+    StreamingJsonReader.StreamingRowSet rowSet =
+        parse(
+            reader,
+            "{\"before\":{\"items\":[0]},\"items\":["
+                + "{\"id\":1,\"name\":\"a\",\"tags\":[\"x\",\"y\"]},"
+                + "{\"id\":2,\"name\":\"b\",\"tags\":[\"z\"]}"
+                + "],\"after\":true}");
+
+    assertFalse(rowSet.isDone());
+    assertArrayEquals(new Object[] {1, "a", "y"}, rowSet.nextRow());
+    assertArrayEquals(new Object[] {2, "b", "z"}, rowSet.nextRow());
+    assertNull(rowSet.nextRow());
+    assertTrue(rowSet.isDone());
+  }
+
+  @Test
+  void testReadValuesOfRootArray() throws HopException {
+    StreamingJsonReader reader = createReader(true, "$[*].a", "$[*].b", "$[*]");
+
+    StreamingJsonReader.StreamingRowSet rowSet =
+        parse(reader, "[{\"a\":1.5,\"b\":{\"c\":[1,2]}},{\"a\":\"text\",\"b\":null},false]");
+
+    Object[] row = rowSet.nextRow();
+    assertEquals(1.5, row[0]);
+    assertInstanceOf(JsonNode.class, row[1]);
+    assertEquals("{\"c\":[1,2]}", row[1].toString());
+    assertEquals("{\"a\":1.5,\"b\":{\"c\":[1,2]}}", row[2].toString());
+    assertArrayEquals(new Object[] {"text", null}, Arrays.copyOf(rowSet.nextRow(), 2));
+    assertArrayEquals(new Object[] {null, null, false}, rowSet.nextRow());
+    assertNull(rowSet.nextRow());
+  }
+
+  @Test
+  void testReadValuesOfObject() throws HopException {
+    StreamingJsonReader reader = createReader(true, "$.data.*.id");
+
+    StreamingJsonReader.StreamingRowSet rowSet =
+        parse(reader, "{\"data\":{\"first\":{\"id\":1},\"second\":{\"id\":2}}}");
+
+    assertArrayEquals(new Object[] {1}, rowSet.nextRow());
+    assertArrayEquals(new Object[] {2}, rowSet.nextRow());
+    assertNull(rowSet.nextRow());
+  }
+
+  @Test
+  void testMissingArray() throws HopException {
+    StreamingJsonReader reader = createReader(true, "$.items[*].id");
+    IRowSet rowSet = parse(reader, "{\"other\":[{\"id\":1}]}");
+    assertArrayEquals(new Object[] {null}, rowSet.getRow());
+    assertNull(rowSet.getRow());
+    assertTrue(rowSet.isDone());
+
+    reader = createReader(false, "$.items[*].id");
+    StreamingJsonReader.StreamingRowSet failingRowSet = parse(reader, "{\"items\":[]}");
+    assertThrows(JsonInputException.class, failingRowSet::nextRow);
+  }
+
+  /** An empty array and a missing array give the same error or row as the in-memory reader */
+  @Test
+  void testEmptyOrMissingArrayLikeFastJsonReader() throws HopException {
+    for (String json : List.of("{\"items\":[]}", "{\"other\":1}")) {
+      FastJsonReader fastReader =
+          new FastJsonReader(fields("$.items[*].id", "$.items[*].name"), true, logMock);
+      StreamingJsonReader reader = createReader(false, "$.items[*].id", "$.items[*].name");
+
+      JsonInputException fastException =
+          assertThrows(JsonInputException.class, () -> fastReader.parseStringValue(toStream(json)));
+      StreamingJsonReader.StreamingRowSet rowSet = parse(reader, json);
+      JsonInputException exception = assertThrows(JsonInputException.class, rowSet::nextRow);
+      assertEquals(fastException.getMessage(), exception.getMessage(), json);
+
+      fastReader.setIgnoreMissingPath(true);
+      reader.setIgnoreMissingPath(true);
+      IRowSet fastRowSet = fastReader.parseStringValue(toStream(json));
+      rowSet = parse(reader, json);
+      assertArrayEquals(fastRowSet.getRow(), rowSet.nextRow(), json);
+      assertNull(fastRowSet.getRow());
+      assertNull(rowSet.nextRow());
+    }
+  }
+
+  @Test
+  void testMissingPathInAllElements() throws HopException {
+    StreamingJsonReader reader = createReader(false, "$.items[*].id", "$.items[*].name");
+
+    StreamingJsonReader.StreamingRowSet rowSet =
+        parse(reader, "{\"items\":[{\"id\":1},{\"id\":2},{\"id\":3}]}");
+
+    // The path is only known to be missing at the end of the array
+    //
+    assertArrayEquals(new Object[] {1, null}, rowSet.nextRow());
+    assertArrayEquals(new Object[] {2, null}, rowSet.nextRow());
+    assertThrows(JsonInputException.class, rowSet::nextRow);
+  }
+
+  @Test
+  void testInvalidJson() throws HopException {
+    StreamingJsonReader reader = createReader(true, "$.items[*].id");
+
+    StreamingJsonReader.StreamingRowSet rowSet =
+        parse(reader, "{\"items\":[{\"id\":1},{\"id\":2},{\"id\":");
+
+    assertArrayEquals(new Object[] {1}, rowSet.nextRow());
+    assertThrows(JsonInputException.class, rowSet::nextRow);
+    assertTrue(rowSet.isDone());
+  }
+
+  @Test
+  void testPathsWhichCantBeStreamed() throws HopException {
+    assertFalse(createReader(true, "$..book[*].isbn").isStreaming());
+    assertFalse(createReader(true, "$.book[?(@.isbn)].isbn").isStreaming());
+    assertFalse(createReader(true, "$.book[0:2].isbn").isStreaming());
+    assertFalse(createReader(true, "$.book.length()").isStreaming());
+    assertFalse(createReader(true, "$.book.isbn").isStreaming());
+    assertFalse(createReader(true, "$.books[*].authors[*].name").isStreaming());
+    assertFalse(createReader(true, "$.books[0].authors[*].name").isStreaming());
+    assertFalse(createReader(true, "$.books[*].isbn", "$.authors[*].name").isStreaming());
+
+    StreamingJsonReader reader = new StreamingJsonReader(fields("$.books[*].isbn"), false, logMock);
+    assertFalse(reader.isStreaming());
+  }
+
+  @Test
+  void testParsePath() {
+    assertEquals(
+        List.of("store", "book", 2, "title"),
+        StreamingJsonReader.parsePath("$.store['book'][2].title"));
+    assertEquals(List.of("a b", -1), StreamingJsonReader.parsePath("$[\"a b\"][-1]"));
+    assertEquals(List.of("book"), StreamingJsonReader.parsePath("book"));
+    assertEquals(List.of(), StreamingJsonReader.parsePath("$"));
+    assertNull(StreamingJsonReader.parsePath("$['a','b']"));
+    assertNull(StreamingJsonReader.parsePath("$.a[1,2]"));
+    assertNull(StreamingJsonReader.parsePath("$.a[*"));
+  }
+
+  private StreamingJsonReader createReader(boolean ignoreMissingPath, String... paths)
+      throws HopException {
+    StreamingJsonReader reader = new StreamingJsonReader(fields(paths), true, logMock);
+    reader.setIgnoreMissingPath(ignoreMissingPath);
+    return reader;
+  }
+
+  private static JsonInputField[] fields(String... paths) {
+    JsonInputField[] fields = new JsonInputField[paths.length];
+    for (int i = 0; i < paths.length; i++) {
+      fields[i] = new JsonInputField("field" + i);
+      fields[i].setPath(paths[i]);
+    }
+    return fields;
+  }
+
+  private static InputStream toStream(String json) {
+    return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static StreamingJsonReader.StreamingRowSet parse(StreamingJsonReader reader, String json)
+      throws HopException {
+    return (StreamingJsonReader.StreamingRowSet) reader.parseStringValue(toStream(json));
+  }
+}
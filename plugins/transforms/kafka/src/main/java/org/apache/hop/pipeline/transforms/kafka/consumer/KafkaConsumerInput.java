@@ -19,10 +19,12 @@ package org.apache.hop.pipeline.transforms.kafka.consumer;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 import java.util.Set;
 import java.util.stream.Collectors;
 import org.apache.commons.lang.StringUtils;
+import org.apache.hop.base.MetaFileCache;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.Result;
 import org.apache.hop.core.exception.HopException;
@@ -32,6 +34,7 @@ import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.RowProducer;
 import org.apache.hop.pipeline.SingleThreadedPipelineExecutor;
 import org.apache.hop.pipeline.TransformWithMappingMeta;
 import org.apache.hop.pipeline.config.PipelineRunConfiguration;
@@ -56,6 +59,12 @@ public class KafkaConsumerInput
 
   private static final Class<?> PKG = KafkaConsumerInputMeta.class;
 
+  /**
+   * The maximum time to poll for records when the pipelines run in parallel. The dispatcher needs
+   * to resume paused partitions and commit offsets while no records arrive.
+   */
+  private static final long MAX_PARALLEL_POLL_MILLIS = 1000L;
+
   public KafkaConsumerInput(
       TransformMeta transformMeta,
       KafkaConsumerInputMeta meta,
@@ -84,21 +93,35 @@ public class KafkaConsumerInput
     data.incomingRowsBuffer = new ArrayList<>();
     data.batchDuration = Const.toInt(resolve(meta.getBatchDuration()), 0);
     data.batchSize = Const.toInt(resolve(meta.getBatchSize()), 0);
+    data.parallelism = getParallelism(this, meta);
 
     data.consumer = buildKafkaConsumer(this, meta);
 
-    // Subscribe to the topics...
-    //
     Set<String> topics = meta.getTopics().stream().map(this::resolve).collect(Collectors.toSet());
-    data.consumer.subscribe(topics);
+    if (data.parallelism > 1) {
+      // Start a sub-pipeline for every worker and subscribe to the topics...
+      //
+      try {
+        initParallelSubPipelines();
+      } catch (Exception e) {
+        logError("Error initializing the parallel sub-pipelines", e);
+        return false;
+      }
+      data.consumer.subscribe(topics, data.dispatcher);
+      data.dispatcher.start();
+    } else {
+      // Subscribe to the topics...
+      //
+      data.consumer.subscribe(topics);
 
-    // Load and start the single threader transformation
-    //
-    try {
-      initSubPipeline();
-    } catch (Exception e) {
-      logError("Error initializing sub-transformation", e);
-      return false;
+      // Load and start the single threader transformation
+      //
+      try {
+        initSubPipeline();
+      } catch (Exception e) {
+        logError("Error initializing sub-transformation", e);
+        return false;
+      }
     }
 
     // Set Kafka consumer is closing flag to false
@@ -107,10 +130,44 @@ public class KafkaConsumerInput
   }
 
   private void initSubPipeline() throws HopException {
+    SubPipeline subPipeline =
+        startSubPipeline(getTransformName(), errorHandlingConditionIsSatisfied());
+    data.rowProducer = subPipeline.rowProducer();
+    data.executor = subPipeline.executor();
+  }
+
+  /**
+   * Starts a copy of the sub-pipeline for every worker. The records of a partition are always
+   * handled by the same worker, so they're processed in order.
+   */
+  private void initParallelSubPipelines() throws HopException {
+    data.workerExecutors = new ArrayList<>();
+    List<KafkaPartitionDispatcher.IRecordsProcessor> processors = new ArrayList<>();
+    for (int i = 1; i <= data.parallelism; i++) {
+      SubPipeline subPipeline = startSubPipeline(getTransformName() + " worker " + i, false);
+      data.workerExecutors.add(subPipeline.executor());
+      processors.add(records -> processRecords(subPipeline, records));
+    }
+    // Pause a partition when a batch is being processed and another one is waiting
+    //
+    int maxInFlightPerPartition = 2 * (data.batchSize > 0 ? data.batchSize : 1000);
+    data.dispatcher =
+        new KafkaPartitionDispatcher(
+            getTransformName(),
+            data.consumer,
+            processors,
+            maxInFlightPerPartition,
+            getLogChannel());
+  }
+
+  private SubPipeline startSubPipeline(String subPipelineName, boolean withErrorHandling)
+      throws HopException {
     try {
+      RowProducer rowProducer = null;
 
       String realFilename = resolve(meta.getFilename());
-      PipelineMeta subTransMeta = new PipelineMeta(realFilename, metadataProvider, this);
+      PipelineMeta subTransMeta =
+          MetaFileCache.getInstance().loadPipelineMeta(realFilename, metadataProvider, this);
       subTransMeta.setMetadataProvider(metadataProvider);
       subTransMeta.setFilename(realFilename);
       subTransMeta.setPipelineType(PipelineMeta.PipelineType.SingleThreaded);
@@ -143,7 +200,7 @@ public class KafkaConsumerInput
       for (TransformMeta transformMeta : subTransMeta.getTransforms()) {
         ITransformMeta iTransform = transformMeta.getTransform();
         if (iTransform instanceof InjectorMeta) {
-          if (data.rowProducer != null) {
+          if (rowProducer != null) {
             throw new HopException(
                 "You can only have one copy of the injector transform '"
                     + transformMeta.getName()
@@ -151,11 +208,11 @@ public class KafkaConsumerInput
           }
           // Attach an injector to this transform
           //
-          data.rowProducer = kafkaPipeline.addRowProducer(transformMeta.getName(), 0);
+          rowProducer = kafkaPipeline.addRowProducer(transformMeta.getName(), 0);
         }
       }
 
-      if (data.rowProducer == null) {
+      if (rowProducer == null) {
         throw new HopException(
             "Unable to find an Injector transform in the Kafka pipeline. Such a transform is needed to accept data from this Kafka Consumer transform.");
       }
@@ -174,39 +231,88 @@ public class KafkaConsumerInput
               @Override
               public void rowWrittenEvent(IRowMeta rowMeta, Object[] row)
                   throws HopTransformException {
-                // Write this row to the next transform(s)
+                // Write this row to the next transform(s). The parallel sub-pipelines write
+                // from the threads of their workers.
                 //
-                KafkaConsumerInput.this.putRow(rowMeta, row);
+                synchronized (data) {
+                  KafkaConsumerInput.this.putRow(rowMeta, row);
+                }
               }
             });
       }
       kafkaPipeline.setLogChannel(getLogChannel());
       kafkaPipeline.startThreads();
 
-      if (errorHandlingConditionIsSatisfied()) {
-        data.executor = new SingleThreadedPipelineExecutor(kafkaPipeline, true);
+      SingleThreadedPipelineExecutor executor;
+      if (withErrorHandling) {
+        executor = new SingleThreadedPipelineExecutor(kafkaPipeline, true);
       } else {
         // If the conditions for error handling are not met init SingleThreadedExecutor normally
-        data.executor = new SingleThreadedPipelineExecutor(kafkaPipeline);
+        executor = new SingleThreadedPipelineExecutor(kafkaPipeline);
       }
-      data.executor.setClearingMetricsPerIteration(
+      executor.setClearingMetricsPerIteration(
           StringUtils.isEmpty(meta.getExecutionInformationLocation()));
 
       // Initialize the sub-pipeline
       //
-      boolean ok = data.executor.init();
+      boolean ok = executor.init();
       if (!ok) {
         throw new HopException("Initialization of sub-pipeline failed");
       }
 
-      getPipeline().addActiveSubPipeline(getTransformName(), kafkaPipeline);
+      getPipeline().addActiveSubPipeline(subPipelineName, kafkaPipeline);
+      return new SubPipeline(rowProducer, executor);
     } catch (Exception e) {
       throw new HopException("Unable to load and initialize sub pipeline", e);
     }
   }
 
+  /** Passes a batch of records of a partition to a parallel sub-pipeline and processes them */
+  private void processRecords(SubPipeline subPipeline, List<ConsumerRecord<Object, Object>> records)
+      throws HopException {
+    for (ConsumerRecord<Object, Object> record : records) {
+      subPipeline.rowProducer().putRow(data.outputRowMeta, processMessageAsRow(record));
+    }
+    SingleThreadedPipelineExecutor executor = subPipeline.executor();
+    executor.oneIteration();
+    if (executor.isStopped() || executor.getErrors() > 0) {
+      throw new HopException(
+          "The Kafka pipeline stopped with " + executor.getErrors() + " error(s)");
+    }
+    if (StringUtils.isNotEmpty(meta.getSubTransform()) && isStopped()) {
+      // A stopped transform doesn't pass its rows on: the records are polled again
+      //
+      throw new HopException("The Kafka consumer stopped before the result rows were written");
+    }
+    executor.buildExecutionSummary();
+  }
+
+  /**
+   * Stops the parallel sub-pipelines and waits for their workers, before the output of this
+   * transform is done. A batch which is interrupted isn't marked as processed, so its offsets
+   * aren't committed. Stopping the pipeline doesn't stop these sub-pipelines, that's why it's done
+   * here.
+   */
+  private void stopParallelWorkers() {
+    for (SingleThreadedPipelineExecutor executor : data.workerExecutors) {
+      executor.getPipeline().stopAll();
+    }
+    data.dispatcher.close();
+  }
+
   @Override
   public void dispose() {
+    if (data.dispatcher != null) {
+      // Commit what the workers processed, if that's not done yet
+      //
+      stopParallelWorkers();
+    }
+    if (data.workerExecutors != null) {
+      for (SingleThreadedPipelineExecutor executor : data.workerExecutors) {
+        executor.getPipeline().stopAll();
+        executor.dispose();
+      }
+    }
     if (data.consumer != null) {
       data.consumer.unsubscribe();
       data.consumer.close();
@@ -237,7 +343,12 @@ public class KafkaConsumerInput
     config.put(
         ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG,
         variables.resolve(meta.getDirectBootstrapServers()));
-    config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, meta.isAutoCommit());
+    // The parallel sub-pipelines process the records after the next poll, so their offsets are
+    // committed once they're processed
+    //
+    config.put(
+        ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG,
+        meta.isAutoCommit() && getParallelism(variables, meta) <= 1);
 
     // Timeout : max batch wait
     //
@@ -266,6 +377,14 @@ public class KafkaConsumerInput
     return new KafkaConsumer(config);
   }
 
+  /**
+   * @return the number of sub-pipelines which process the records of different partitions in
+   *     parallel
+   */
+  public static int getParallelism(IVariables variables, KafkaConsumerInputMeta meta) {
+    return Math.max(1, Const.toInt(variables.resolve(meta.getParallelism()), 1));
+  }
+
   @Override
   public void stopRunning() throws HopException {
     data.isKafkaConsumerClosing = true;
@@ -275,6 +394,9 @@ public class KafkaConsumerInput
 
   @Override
   public boolean processRow() throws HopException {
+    if (data.dispatcher != null) {
+      return processRecordsInParallel();
+    }
 
     // Poll records...
     // If we get any, process them...
@@ -375,6 +497,43 @@ public class KafkaConsumerInput
     return true;
   }
 
+  /**
+   * Polls the records and hands them to the parallel sub-pipelines. The offsets of a partition are
+   * committed up to the first record which isn't processed yet.
+   */
+  private boolean processRecordsInParallel() {
+    try {
+      Duration duration =
+          Duration.ofMillis(
+              data.batchDuration > 0
+                  ? Math.min(data.batchDuration, MAX_PARALLEL_POLL_MILLIS)
+                  : MAX_PARALLEL_POLL_MILLIS);
+      ConsumerRecords<Object, Object> records = data.consumer.poll(duration);
+
+      if (!data.isKafkaConsumerClosing) {
+        data.dispatcher.dispatch(records);
+        incrementLinesInput(records.count());
+        data.dispatcher.checkErrors();
+        data.dispatcher.commit();
+      }
+    } catch (WakeupException e) {
+      // The pipeline is stopped: no more rows are written once the output is done
+      //
+      stopParallelWorkers();
+      setOutputDone();
+      stopAll();
+      return false;
+    } catch (HopException e) {
+      logError("Error processing the Kafka records in parallel", e);
+      setErrors(1);
+      stopParallelWorkers();
+      setOutputDone();
+      stopAll();
+      return false;
+    }
+    return true;
+  }
+
   private boolean errorHandlingConditionIsSatisfied() {
     // Added a check to be sure that lines collecting for error handling is limited
     // to the case of batchSize = 1.
@@ -395,4 +554,6 @@ public class KafkaConsumerInput
 
     return rowData;
   }
+
+  private record SubPipeline(RowProducer rowProducer, SingleThreadedPipelineExecutor executor) {}
 }
@@ -35,6 +35,9 @@ public class KafkaConsumerInputData extends BaseTransformData implements ITransf
   public SingleThreadedPipelineExecutor executor;
   public boolean isKafkaConsumerClosing;
   public List<Object[]> incomingRowsBuffer;
+  public int parallelism;
+  public KafkaPartitionDispatcher dispatcher;
+  public List<SingleThreadedPipelineExecutor> workerExecutors;
 
   /** */
   public KafkaConsumerInputData() {
@@ -104,6 +104,8 @@ public class KafkaConsumerInputDialog extends BaseTransformDialog {
   protected ModifyListener lsMod;
   protected Label wlBatchSize;
   protected TextVar wBatchSize;
+  protected Label wlParallelism;
+  protected TextVar wParallelism;
   protected Label wlBatchDuration;
   protected TextVar wBatchDuration;
 
@@ -344,6 +346,7 @@ public class KafkaConsumerInputDialog extends BaseTransformDialog {
     m.setExecutionDataProfile(wProfile.getText());
     m.setBatchSize(wBatchSize.getText());
     m.setBatchDuration(wBatchDuration.getText());
+    m.setParallelism(wParallelism.getText());
     m.setSubTransform(wSubTransform.getText());
     setTopicsFromTable();
 
@@ -374,7 +377,7 @@ public class KafkaConsumerInputDialog extends BaseTransformDialog {
     wOffsetGroup.setLayout(flOffsetGroup);
 
     FormData fdOffsetGroup = new FormData();
-    fdOffsetGroup.top = new FormAttachment(wBatchSize, 15);
+    fdOffsetGroup.top = new FormAttachment(wParallelism, 15);
     fdOffsetGroup.left = new FormAttachment(0, 0);
     fdOffsetGroup.right = new FormAttachment(100, 0);
     wOffsetGroup.setLayoutData(fdOffsetGroup);
@@ -661,6 +664,24 @@ public class KafkaConsumerInputDialog extends BaseTransformDialog {
     fdBatchSize.top = new FormAttachment(wlBatchSize, 0, SWT.CENTER);
     wBatchSize.setLayoutData(fdBatchSize);
 
+    wlParallelism = new Label(wBatchComp, SWT.RIGHT);
+    PropsUi.setLook(wlParallelism);
+    wlParallelism.setText(BaseMessages.getString(PKG, "KafkaConsumerInputDialog.Parallelism"));
+    FormData fdlParallelism = new FormData();
+    fdlParallelism.left = new FormAttachment(0, 0);
+    fdlParallelism.top = new FormAttachment(wBatchSize, margin);
+    fdlParallelism.right = new FormAttachment(middle, -margin);
+    wlParallelism.setLayoutData(fdlParallelism);
+
+    wParallelism = new TextVar(variables, wBatchComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wParallelism);
+    wParallelism.addModifyListener(lsMod);
+    FormData fdParallelism = new FormData();
+    fdParallelism.left = new FormAttachment(wlParallelism, margin);
+    fdParallelism.right = new FormAttachment(100, 0);
+    fdParallelism.top = new FormAttachment(wlParallelism, 0, SWT.CENTER);
+    wParallelism.setLayoutData(fdParallelism);
+
     wBatchComp.layout();
     wBatchTab.setControl(wBatchComp);
   }
@@ -867,6 +888,7 @@ public class KafkaConsumerInputDialog extends BaseTransformDialog {
     wSubTransform.setText(Const.NVL(meta.getSubTransform(), ""));
     wConsumerGroup.setText(Const.NVL(meta.getConsumerGroup(), ""));
     wBatchSize.setText(Const.NVL(meta.getBatchSize(), ""));
+    wParallelism.setText(Const.NVL(meta.getParallelism(), ""));
     wBatchDuration.setText(Const.NVL(meta.getBatchDuration(), ""));
 
     wbAutoCommit.setSelection(meta.isAutoCommit());
@@ -87,6 +87,7 @@ public class KafkaConsumerInputMeta
   public static final String EXECUTION_DATA_PROFILE = "executionDataProfile";
   public static final String BATCH_SIZE = "batchSize";
   public static final String BATCH_DURATION = "batchDuration";
+  public static final String PARALLELISM = "parallelism";
   public static final String DIRECT_BOOTSTRAP_SERVERS = "directBootstrapServers";
   public static final String ADVANCED_CONFIG = "advancedConfig";
   public static final String CONFIG_OPTION = "option";
@@ -119,6 +120,13 @@ public class KafkaConsumerInputMeta
   @Injection(name = SUB_TRANSFORM)
   protected String subTransform = "";
 
+  /**
+   * The number of copies of the Kafka pipeline which process the records of different partitions at
+   * the same time
+   */
+  @Injection(name = "PARALLELISM")
+  protected String parallelism = "1";
+
   @Injection(name = "DIRECT_BOOTSTRAP_SERVERS")
   private String directBootstrapServers;
 
@@ -234,6 +242,7 @@ public class KafkaConsumerInputMeta
     }
     setBatchSize(XmlHandler.getTagValue(transformNode, BATCH_SIZE));
     setBatchDuration(XmlHandler.getTagValue(transformNode, BATCH_DURATION));
+    setParallelism(Const.NVL(XmlHandler.getTagValue(transformNode, PARALLELISM), "1"));
     setDirectBootstrapServers(XmlHandler.getTagValue(transformNode, DIRECT_BOOTSTRAP_SERVERS));
 
     String autoCommitValue = XmlHandler.getTagValue(transformNode, AUTO_COMMIT);
@@ -284,6 +293,7 @@ public class KafkaConsumerInputMeta
   public void setDefault() {
     batchSize = "1000";
     batchDuration = "1000";
+    parallelism = "1";
   }
 
   public RowMeta getRowMeta(String origin, IVariables variables) throws HopTransformException {
@@ -331,6 +341,7 @@ public class KafkaConsumerInputMeta
     xml.append("    ").append(XmlHandler.addTagValue(SUB_TRANSFORM, getSubTransform()));
     xml.append("    ").append(XmlHandler.addTagValue(BATCH_SIZE, batchSize));
     xml.append("    ").append(XmlHandler.addTagValue(BATCH_DURATION, batchDuration));
+    xml.append("    ").append(XmlHandler.addTagValue(PARALLELISM, parallelism));
     xml.append("    ")
         .append(XmlHandler.addTagValue(DIRECT_BOOTSTRAP_SERVERS, directBootstrapServers));
     xml.append("    ").append(XmlHandler.addTagValue(AUTO_COMMIT, autoCommit));
@@ -533,6 +544,25 @@ public class KafkaConsumerInputMeta
               BaseMessages.getString(PKG, "KafkaConsumerInputMeta.CheckResult.NoBatchDefined"),
               transformMeta));
     }
+
+    try {
+      if (Long.parseLong(variables.resolve(getParallelism())) > 1
+          && transformMeta.isDoingErrorHandling()) {
+        remarks.add(
+            new CheckResult(
+                ICheckResult.TYPE_RESULT_WARNING,
+                BaseMessages.getString(
+                    PKG, "KafkaConsumerInputMeta.CheckResult.NoErrorHandlingInParallel"),
+                transformMeta));
+      }
+    } catch (NumberFormatException e) {
+      remarks.add(
+          new CheckResult(
+              ICheckResult.TYPE_RESULT_ERROR,
+              BaseMessages.getString(
+                  PKG, "KafkaConsumerInputMeta.CheckResult.NaN", "Number of parallel pipelines"),
+              transformMeta));
+    }
   }
 
   @Override
@@ -0,0 +1,293 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.kafka.consumer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+
+/**
+ * Hands the records polled by a Kafka consumer to a number of workers, each running on a thread of
+ * its own. All the records of a partition go to the same worker, which processes them in the order
+ * in which they were polled. The dispatcher commits the offsets of a partition up to the first
+ * record which isn't processed yet, and pauses the partitions with too many records in flight until
+ * the workers catch up.<br>
+ * <br>
+ * Apart from the workers, which never touch the consumer, everything runs on the thread which polls
+ * the consumer. That includes the rebalance callbacks, which is why this class is the rebalance
+ * listener to subscribe with.
+ */
+public class KafkaPartitionDispatcher implements ConsumerRebalanceListener {
+
+  /** Processes a batch of records of a single partition */
+  @FunctionalInterface
+  public interface IRecordsProcessor {
+    void process(List<ConsumerRecord<Object, Object>> records) throws HopException;
+  }
+
+  private final Consumer<Object, Object> consumer;
+  private final ILogChannel log;
+  private final int maxInFlightPerPartition;
+  private final PartitionOffsetTracker tracker;
+  private final List<Worker> workers;
+  private boolean closed;
+
+  /**
+   * @param name the name of the threads of the workers
+   * @param consumer the consumer which polls the records
+   * @param processors a processor for every worker
+   * @param maxInFlightPerPartition the number of records of a partition in flight at which the
+   *     partition is paused. It's resumed when half of them are processed.
+   * @param log the log channel to report on
+   */
+  public KafkaPartitionDispatcher(
+      String name,
+      Consumer<Object, Object> consumer,
+      List<IRecordsProcessor> processors,
+      int maxInFlightPerPartition,
+      ILogChannel log) {
+    this.consumer = consumer;
+    this.log = log;
+    this.maxInFlightPerPartition = Math.max(1, maxInFlightPerPartition);
+    this.tracker = new PartitionOffsetTracker();
+    this.workers = new ArrayList<>();
+    for (int i = 0; i < processors.size(); i++) {
+      workers.add(new Worker(name + " worker " + (i + 1), processors.get(i), tracker));
+    }
+  }
+
+  /** Starts the threads of the workers */
+  public void start() {
+    workers.forEach(Worker::start);
+  }
+
+  /** Hands the records to the workers and pauses the partitions which are too far behind */
+  public void dispatch(ConsumerRecords<Object, Object> records) {
+    for (TopicPartition topicPartition : records.partitions()) {
+      List<ConsumerRecord<Object, Object>> partitionRecords = records.records(topicPartition);
+      tracker.dispatched(topicPartition, partitionRecords);
+      getWorker(topicPartition).submit(topicPartition, partitionRecords);
+    }
+    applyBackpressure();
+  }
+
+  /**
+   * Pauses the partitions with the maximum number of records in flight and resumes the paused
+   * partitions once half of those are processed. The consumer keeps on polling while partitions are
+   * paused, so it stays in the consumer group.
+   */
+  public void applyBackpressure() {
+    Set<TopicPartition> paused = consumer.paused();
+    List<TopicPartition> toPause = new ArrayList<>();
+    List<TopicPartition> toResume = new ArrayList<>();
+    for (TopicPartition topicPartition : consumer.assignment()) {
+      int inFlight = tracker.getInFlight(topicPartition);
+      if (paused.contains(topicPartition)) {
+        if (inFlight <= maxInFlightPerPartition / 2) {
+          toResume.add(topicPartition);
+        }
+      } else if (inFlight >= maxInFlightPerPartition) {
+        toPause.add(topicPartition);
+      }
+    }
+    if (!toPause.isEmpty()) {
+      if (log.isDetailed()) {
+        log.logDetailed("Pausing partitions " + toPause + " until the workers catch up");
+      }
+      consumer.pause(toPause);
+    }
+    if (!toResume.isEmpty()) {
+      if (log.isDetailed()) {
+        log.logDetailed("Resuming partitions " + toResume);
+      }
+      consumer.resume(toResume);
+    }
+  }
+
+  /** Commits the offsets of the records which are processed since the last commit */
+  public void commit() {
+    Map<TopicPartition, OffsetAndMetadata> offsets = tracker.getCommittableOffsets();
+    if (!offsets.isEmpty()) {
+      consumer.commitAsync(
+          offsets,
+          (committedOffsets, exception) -> {
+            if (exception != null) {
+              log.logError("Unable to commit offsets " + committedOffsets, exception);
+            }
+          });
+    }
+  }
+
+  /**
+   * @throws HopException the exception of the first worker which failed to process its records
+   */
+  public void checkErrors() throws HopException {
+    for (Worker worker : workers) {
+      if (worker.error != null) {
+        throw new HopException(
+            "Error processing the Kafka records in " + worker.thread.getName(), worker.error);
+      }
+    }
+  }
+
+  /**
+   * @return the number of records which are dispatched and not processed yet
+   */
+  public int getInFlight() {
+    return tracker.getInFlight();
+  }
+
+  /**
+   * Stops the workers once they finished the batch they're processing. The batches which are still
+   * waiting are dropped: their offsets aren't committed, so they're polled again by the next
+   * consumer of their partitions. Neither are the offsets of a batch which fails, for example
+   * because it was interrupted. The offsets of everything which was processed are committed. Only
+   * the first call has any effect.
+   */
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    workers.forEach(Worker::stop);
+    for (Worker worker : workers) {
+      try {
+        worker.thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    commitProcessed(consumer.assignment());
+  }
+
+  /**
+   * Drops the batches of the revoked partitions which are still waiting, commits what was processed
+   * of these partitions and stops tracking them. The dropped batches and the ones which are still
+   * being processed are polled again by the new consumer of the partitions.
+   */
+  @Override
+  public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+    Set<TopicPartition> revoked = new HashSet<>(partitions);
+    workers.forEach(worker -> worker.drop(revoked));
+    commitProcessed(partitions);
+    tracker.remove(partitions);
+  }
+
+  @Override
+  public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+    // Nothing to do: the records of the new partitions are tracked when they're dispatched
+  }
+
+  private void commitProcessed(Collection<TopicPartition> partitions) {
+    Map<TopicPartition, OffsetAndMetadata> offsets = tracker.getProcessedOffsets(partitions);
+    if (offsets.isEmpty()) {
+      return;
+    }
+    try {
+      try {
+        consumer.commitSync(offsets);
+      } catch (WakeupException e) {
+        // Stopping the transform wakes up the consumer, which only interrupts a single call
+        //
+        consumer.commitSync(offsets);
+      }
+    } catch (Exception e) {
+      log.logError("Unable to commit offsets " + offsets, e);
+    }
+  }
+
+  private Worker getWorker(TopicPartition topicPartition) {
+    return workers.get(Math.floorMod(topicPartition.hashCode(), workers.size()));
+  }
+
+  /** Processes the batches of records handed to it, one by one, on a thread of its own */
+  private static final class Worker implements Runnable {
+    private static final Batch STOP = new Batch(null, List.of());
+
+    private final IRecordsProcessor processor;
+    private final PartitionOffsetTracker tracker;
+    private final BlockingQueue<Batch> batches;
+    private final Thread thread;
+    private volatile boolean stopped;
+    private volatile Exception error;
+
+    private Worker(String name, IRecordsProcessor processor, PartitionOffsetTracker tracker) {
+      this.processor = processor;
+      this.tracker = tracker;
+      this.batches = new LinkedBlockingQueue<>();
+      this.thread = new Thread(this, name);
+      this.thread.setDaemon(true);
+    }
+
+    private void start() {
+      thread.start();
+    }
+
+    private void submit(
+        TopicPartition topicPartition, List<ConsumerRecord<Object, Object>> records) {
+      batches.add(new Batch(topicPartition, records));
+    }
+
+    private void drop(Set<TopicPartition> topicPartitions) {
+      batches.removeIf(batch -> topicPartitions.contains(batch.topicPartition()));
+    }
+
+    private void stop() {
+      stopped = true;
+      batches.clear();
+      batches.add(STOP);
+    }
+
+    @Override
+    public void run() {
+      try {
+        while (!stopped) {
+          Batch batch = batches.take();
+          if (batch == STOP || stopped) {
+            break;
+          }
+          processor.process(batch.records());
+          tracker.processed(batch.topicPartition(), batch.records());
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (Exception e) {
+        // The records of this batch and the ones after it stay in flight and aren't committed
+        //
+        error = e;
+      }
+    }
+  }
+
+  private record Batch(
+      TopicPartition topicPartition, List<ConsumerRecord<Object, Object>> records) {}
+}
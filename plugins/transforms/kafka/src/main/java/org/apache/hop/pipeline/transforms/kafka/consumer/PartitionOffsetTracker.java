@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.kafka.consumer;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * Keeps track of the batches of records which are handed to the workers of the Kafka consumer, per
+ * partition. The offset to commit for a partition is the one of the first record which isn't
+ * processed yet: everything before it is processed, even if the batches finish out of order. The
+ * workers report the processed batches from their own threads.
+ */
+public class PartitionOffsetTracker {
+
+  private final Map<TopicPartition, Partition> partitions = new HashMap<>();
+
+  /** Registers a batch of records of a partition, in the order in which they were polled */
+  public synchronized void dispatched(
+      TopicPartition topicPartition, List<? extends ConsumerRecord<?, ?>> records) {
+    if (records.isEmpty()) {
+      return;
+    }
+    Partition partition = partitions.computeIfAbsent(topicPartition, tp -> new Partition());
+    long firstOffset = records.get(0).offset();
+    long lastOffset = records.get(records.size() - 1).offset();
+    partition.inFlight.put(firstOffset, new Batch(lastOffset, records));
+    partition.nrInFlight += records.size();
+  }
+
+  /**
+   * Registers a batch of records as processed. Batches of partitions which were removed in the
+   * meantime are ignored, also when the partition is tracked again and its records are polled
+   * again.
+   */
+  public synchronized void processed(
+      TopicPartition topicPartition, List<? extends ConsumerRecord<?, ?>> records) {
+    Partition partition = partitions.get(topicPartition);
+    if (partition == null || records.isEmpty()) {
+      return;
+    }
+    long firstOffset = records.get(0).offset();
+    Batch batch = partition.inFlight.get(firstOffset);
+    if (batch != null && batch.records() == records) {
+      partition.inFlight.remove(firstOffset);
+      partition.nrInFlight -= records.size();
+      partition.highestProcessed = Math.max(partition.highestProcessed, batch.lastOffset());
+    }
+  }
+
+  /**
+   * @return the number of records of the partition which are dispatched and not processed yet
+   */
+  public synchronized int getInFlight(TopicPartition topicPartition) {
+    Partition partition = partitions.get(topicPartition);
+    return partition == null ? 0 : partition.nrInFlight;
+  }
+
+  /**
+   * @return the number of records of all partitions which are dispatched and not processed yet
+   */
+  public synchronized int getInFlight() {
+    int nrInFlight = 0;
+    for (Partition partition : partitions.values()) {
+      nrInFlight += partition.nrInFlight;
+    }
+    return nrInFlight;
+  }
+
+  /**
+   * @return the offsets to commit for the partitions which processed records since the last call
+   */
+  public synchronized Map<TopicPartition, OffsetAndMetadata> getCommittableOffsets() {
+    Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+    for (Map.Entry<TopicPartition, Partition> entry : partitions.entrySet()) {
+      Partition partition = entry.getValue();
+      long offset = partition.getCommitOffset();
+      if (offset > partition.committed) {
+        partition.committed = offset;
+        offsets.put(entry.getKey(), new OffsetAndMetadata(offset));
+      }
+    }
+    return offsets;
+  }
+
+  /**
+   * @return the offsets to commit for the given partitions, whether they were returned before or
+   *     not
+   */
+  public synchronized Map<TopicPartition, OffsetAndMetadata> getProcessedOffsets(
+      Collection<TopicPartition> topicPartitions) {
+    Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+    for (TopicPartition topicPartition : topicPartitions) {
+      Partition partition = partitions.get(topicPartition);
+      if (partition != null && partition.getCommitOffset() >= 0) {
+        partition.committed = partition.getCommitOffset();
+        offsets.put(topicPartition, new OffsetAndMetadata(partition.committed));
+      }
+    }
+    return offsets;
+  }
+
+  /** Stops tracking the given partitions, for example when they're assigned to another consumer */
+  public synchronized void remove(Collection<TopicPartition> topicPartitions) {
+    topicPartitions.forEach(partitions::remove);
+  }
+
+  /** A batch is recognized by its records, batches polled again have the same offsets */
+  private record Batch(long lastOffset, List<? extends ConsumerRecord<?, ?>> records) {}
+
+  private static final class Partition {
+    /** The batches in flight, by the offset of their first record */
+    private final TreeMap<Long, Batch> inFlight = new TreeMap<>();
+
+    private int nrInFlight;
+    private long highestProcessed = -1L;
+    private long committed = -1L;
+
+    /**
+     * @return the offset of the first record which isn't processed or -1 if nothing was processed
+     */
+    private long getCommitOffset() {
+      if (highestProcessed < 0) {
+        return -1L;
+      }
+      if (inFlight.isEmpty()) {
+        return highestProcessed + 1;
+      }
+      return Math.min(inFlight.firstKey(), highestProcessed + 1);
+    }
+  }
+}
@@ -0,0 +1,334 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.kafka.consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class KafkaPartitionDispatcherTest {
+  private static final String TOPIC = "topic";
+
+  private final TopicPartition partition0 = new TopicPartition(TOPIC, 0);
+  private final TopicPartition partition1 = new TopicPartition(TOPIC, 1);
+
+  private MockConsumer<Object, Object> consumer;
+  private ILogChannel log;
+  private KafkaPartitionDispatcher dispatcher;
+
+  @BeforeEach
+  void setUp() {
+    consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+    consumer.assign(List.of(partition0, partition1));
+    consumer.updateBeginningOffsets(Map.of(partition0, 0L, partition1, 0L));
+    log = mock(ILogChannel.class);
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (dispatcher != null) {
+      dispatcher.close();
+    }
+  }
+
+  @Test
+  void testRecordsOfPartitionProcessedInOrder() throws Exception {
+    Map<Integer, List<Long>> processed = new ConcurrentHashMap<>();
+    KafkaPartitionDispatcher.IRecordsProcessor processor =
+        records -> {
+          for (ConsumerRecord<Object, Object> consumerRecord : records) {
+            processed
+                .computeIfAbsent(
+                    consumerRecord.partition(),
+                    p -> Collections.synchronizedList(new ArrayList<>()))
+                .add(consumerRecord.offset());
+          }
+        };
+    dispatcher = startDispatcher(List.of(processor, processor), 1000);
+
+    addRecords(partition0, 0, 5);
+    addRecords(partition1, 0, 3);
+    dispatcher.dispatch(consumer.poll(Duration.ZERO));
+    addRecords(partition0, 5, 5);
+    dispatcher.dispatch(consumer.poll(Duration.ZERO));
+    awaitProcessed();
+    dispatcher.commit();
+
+    assertEquals(List.of(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L), processed.get(0));
+    assertEquals(List.of(0L, 1L, 2L), processed.get(1));
+    assertEquals(10L, getCommitted(partition0));
+    assertEquals(3L, getCommitted(partition1));
+  }
+
+  @Test
+  void testFailedRecordsNotCommitted() throws Exception {
+    dispatcher =
+        startDispatcher(
+            List.of(
+                records -> {
+                  if (records.get(0).offset() >= 5) {
+                    throw new HopException("Processing failed");
+                  }
+                }),
+            1000);
+
+    addRecords(partition0, 0, 5);
+    dispatcher.dispatch(consumer.poll(Duration.ZERO));
+    awaitProcessed();
+    dispatcher.commit();
+    assertEquals(5L, getCommitted(partition0));
+
+    addRecords(partition0, 5, 5);
+    dispatcher.dispatch(consumer.poll(Duration.ZERO));
+    assertNotNull(awaitError());
+    dispatcher.commit();
+
+    assertEquals(5L, getCommitted(partition0));
+    assertEquals(5, dispatcher.getInFlight());
+  }
+
+  @Test
+  void testPartitionPausedUntilWorkersCatchUp() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    dispatcher =
+        startDispatcher(
+            List.of(
+                records -> {
+                  try {
+                    release.await(10, TimeUnit.SECONDS);
+                  } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                  }
+                }),
+            4);
+
+    addRecords(partition0, 0, 5);
+    addRecords(partition1, 0, 2);
+    dispatcher.dispatch(consumer.poll(Duration.ZERO));
+
+    assertEquals(Set.of(partition0), consumer.paused());
+
+    release.countDown();
+    awaitProcessed();
+    dispatcher.applyBackpressure();
+
+    assertTrue(consumer.paused().isEmpty());
+  }
+
+  @Test
+  void testRevokedPartitionsCommitted() throws Exception {
+    dispatcher = startDispatcher(List.of(records -> {}), 1000);
+
+    addRecords(partition0, 0, 5);
+    dispatcher.dispatch(consumer.poll(Duration.ZERO));
+    awaitProcessed();
+    dispatcher.onPartitionsRevoked(List.of(partition0));
+
+    assertEquals(5L, getCommitted(partition0));
+    assertNull(getCommitted(partition1));
+  }
+
+  @Test
+  void testQueuedBatchesOfRevokedPartitionsDropped() throws Exception {
+    Map<Integer, List<Long>> processed = new ConcurrentHashMap<>();
+    CountDownLatch started = new CountDownLatch(1);
+    Semaphore permits = new Semaphore(0);
+    dispatcher =
+        startDispatcher(
+            List.of(
+                records -> {
+                  ConsumerRecord<Object, Object> first = records.get(0);
+                  if (first.partition() == 0) {
+                    started.countDown();
+                    try {
+                      permits.tryAcquire(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                      Thread.currentThread().interrupt();
+                    }
+                  }
+                  for (ConsumerRecord<Object, Object> consumerRecord : records) {
+                    processed
+                        .computeIfAbsent(
+                            consumerRecord.partition(),
+                            p -> Collections.synchronizedList(new ArrayList<>()))
+                        .add(consumerRecord.offset());
+                  }
+                }),
+            1000);
+    consumer.unsubscribe();
+    consumer.subscribe(List.of(TOPIC), dispatcher);
+    consumer.rebalance(List.of(partition0, partition1));
+
+    // The worker is busy with the first batch of partition 0 while the next ones are queued
+    //
+    addRecords(partition0, 0, 5);
+    dispatcher.dispatch(consumer.poll(Duration.ZERO));
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+    addRecords(partition0, 5, 5);
+    addRecords(partition1, 0, 3);
+    dispatcher.dispatch(consumer.poll(Duration.ZERO));
+
+    // Partition 0 moves to another consumer and comes back before the worker is done
+    //
+    consumer.rebalance(List.of(partition1));
+    consumer.rebalance(List.of(partition0, partition1));
+    assertNull(getCommitted(partition0));
+    addRecords(partition0, 0, 5);
+    dispatcher.dispatch(consumer.poll(Duration.ZERO));
+
+    // The batch of the previous assignment doesn't complete the batch which was polled again
+    //
+    permits.release();
+    long deadline = System.currentTimeMillis() + 10000;
+    while (dispatcher.getInFlight() > 5 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(5, dispatcher.getInFlight());
+    dispatcher.commit();
+    assertNull(getCommitted(partition0));
+
+    permits.release();
+    awaitProcessed();
+    dispatcher.commit();
+
+    // The queued batch of offsets 5 to 9 was dropped, only the batch being processed is repeated
+    //
+    assertEquals(List.of(0L, 1L, 2L, 3L, 4L, 0L, 1L, 2L, 3L, 4L), processed.get(0));
+    assertEquals(List.of(0L, 1L, 2L), processed.get(1));
+    assertEquals(5L, getCommitted(partition0));
+  }
+
+  @Test
+  void testCloseCommitsProcessedBatchesOnly() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    List<Long> processed = Collections.synchronizedList(new ArrayList<>());
+    dispatcher =
+        startDispatcher(
+            List.of(
+                records -> {
+                  long firstOffset = records.get(0).offset();
+                  if (firstOffset == 5) {
+                    // Interrupted while closing, like a stopped sub-pipeline
+                    //
+                    started.countDown();
+                    try {
+                      release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                      Thread.currentThread().interrupt();
+                    }
+                    throw new HopException("Stopped");
+                  }
+                  processed.add(firstOffset);
+                }),
+            1000);
+
+    addRecords(partition0, 0, 5);
+    dispatcher.dispatch(consumer.poll(Duration.ZERO));
+    awaitProcessed();
+    addRecords(partition0, 5, 5);
+    dispatcher.dispatch(consumer.poll(Duration.ZERO));
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+    addRecords(partition0, 10, 5);
+    dispatcher.dispatch(consumer.poll(Duration.ZERO));
+
+    Thread closing = new Thread(dispatcher::close);
+    closing.start();
+    release.countDown();
+    closing.join(10000);
+    assertFalse(closing.isAlive());
+
+    // The failed batch and the dropped batch after it are polled again
+    //
+    assertEquals(List.of(0L), processed);
+    assertEquals(5L, getCommitted(partition0));
+
+    // Closing again doesn't commit anything else
+    //
+    consumer.commitSync(Map.of(partition0, new OffsetAndMetadata(0L)));
+    dispatcher.close();
+    assertEquals(0L, getCommitted(partition0));
+  }
+
+  private KafkaPartitionDispatcher startDispatcher(
+      List<KafkaPartitionDispatcher.IRecordsProcessor> processors, int maxInFlightPerPartition) {
+    KafkaPartitionDispatcher newDispatcher =
+        new KafkaPartitionDispatcher("test", consumer, processors, maxInFlightPerPartition, log);
+    newDispatcher.start();
+    return newDispatcher;
+  }
+
+  private void addRecords(TopicPartition topicPartition, long firstOffset, int nrRecords) {
+    for (long offset = firstOffset; offset < firstOffset + nrRecords; offset++) {
+      consumer.addRecord(
+          new ConsumerRecord<>(
+              topicPartition.topic(), topicPartition.partition(), offset, "key", "value"));
+    }
+  }
+
+  private Long getCommitted(TopicPartition topicPartition) {
+    OffsetAndMetadata offsetAndMetadata =
+        consumer.committed(Set.of(topicPartition)).get(topicPartition);
+    return offsetAndMetadata == null ? null : offsetAndMetadata.offset();
+  }
+
+  private void awaitProcessed() throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 10000;
+    while (dispatcher.getInFlight() > 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(0, dispatcher.getInFlight());
+  }
+
+  private HopException awaitError() throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 10000;
+    while (System.currentTimeMillis() < deadline) {
+      try {
+        dispatcher.checkErrors();
+      } catch (HopException e) {
+        return e;
+      }
+      Thread.sleep(10);
+    }
+    return null;
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.kafka.consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+class PartitionOffsetTrackerTest {
+  private final TopicPartition partition0 = new TopicPartition("topic", 0);
+  private final TopicPartition partition1 = new TopicPartition("topic", 1);
+  private final PartitionOffsetTracker tracker = new PartitionOffsetTracker();
+
+  @Test
+  void testNothingProcessed() {
+    tracker.dispatched(partition0, records(partition0, 0, 5));
+
+    assertEquals(5, tracker.getInFlight(partition0));
+    assertEquals(0, tracker.getInFlight(partition1));
+    assertTrue(tracker.getCommittableOffsets().isEmpty());
+    assertTrue(tracker.getProcessedOffsets(List.of(partition0)).isEmpty());
+  }
+
+  @Test
+  void testCommitUpToFirstBatchInFlight() {
+    List<ConsumerRecord<Object, Object>> first = records(partition0, 0, 5);
+    List<ConsumerRecord<Object, Object>> second = records(partition0, 5, 5);
+    List<ConsumerRecord<Object, Object>> third = records(partition0, 10, 5);
+    tracker.dispatched(partition0, first);
+    tracker.dispatched(partition0, second);
+    tracker.dispatched(partition0, third);
+
+    // Finishing out of order doesn't commit the batch which is still in flight
+    //
+    tracker.processed(partition0, first);
+    tracker.processed(partition0, third);
+    assertEquals(5, tracker.getInFlight());
+    assertEquals(Map.of(partition0, new OffsetAndMetadata(5L)), tracker.getCommittableOffsets());
+
+    // Offsets are only returned once
+    //
+    assertTrue(tracker.getCommittableOffsets().isEmpty());
+
+    tracker.processed(partition0, second);
+    assertEquals(0, tracker.getInFlight());
+    assertEquals(Map.of(partition0, new OffsetAndMetadata(15L)), tracker.getCommittableOffsets());
+  }
+
+  @Test
+  void testProcessedOffsetsOfPartitions() {
+    List<ConsumerRecord<Object, Object>> records0 = records(partition0, 0, 5);
+    List<ConsumerRecord<Object, Object>> records1 = records(partition1, 0, 3);
+    tracker.dispatched(partition0, records0);
+    tracker.dispatched(partition1, records1);
+    tracker.processed(partition0, records0);
+    tracker.processed(partition1, records1);
+    tracker.getCommittableOffsets();
+
+    // Also returned when they were committed before
+    //
+    assertEquals(
+        Map.of(partition0, new OffsetAndMetadata(5L)),
+        tracker.getProcessedOffsets(List.of(partition0)));
+  }
+
+  @Test
+  void testRemovedPartitionPolledAgain() {
+    List<ConsumerRecord<Object, Object>> previous = records(partition0, 0, 5);
+    tracker.dispatched(partition0, previous);
+    tracker.remove(List.of(partition0));
+    assertEquals(0, tracker.getInFlight(partition0));
+
+    // The batch of the previous assignment doesn't complete the batch which is polled again
+    //
+    List<ConsumerRecord<Object, Object>> again = records(partition0, 0, 5);
+    tracker.dispatched(partition0, again);
+    tracker.processed(partition0, previous);
+    assertEquals(5, tracker.getInFlight(partition0));
+    assertTrue(tracker.getCommittableOffsets().isEmpty());
+
+    tracker.processed(partition0, again);
+    assertEquals(Map.of(partition0, new OffsetAndMetadata(5L)), tracker.getCommittableOffsets());
+  }
+
+  private static List<ConsumerRecord<Object, Object>> records(
+      TopicPartition topicPartition, long firstOffset, int nrRecords) {
+    List<ConsumerRecord<Object, Object>> records = new ArrayList<>();
+    for (long offset = firstOffset; offset < firstOffset + nrRecords; offset++) {
+      records.add(
+          new ConsumerRecord<>(
+              topicPartition.topic(), topicPartition.partition(), offset, "key", "value"));
+    }
+    return records;
+  }
+}
@@ -20,6 +20,7 @@ package org.apache.hop.pipeline.transforms.mapping;
 import java.util.ArrayList;
 import java.util.List;
 import org.apache.commons.lang.StringUtils;
+import org.apache.hop.base.MetaFileCache;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.i18n.BaseMessages;
@@ -130,7 +131,8 @@ public class SimpleMapping extends BaseTransform<SimpleMappingMeta, SimpleMappin
     // advance
     if (simpleMappingData.mappingPipelineMeta == null) {
       simpleMappingData.mappingPipelineMeta =
-          new PipelineMeta(variables.resolve(meta.getFilename()), metadataProvider, variables);
+          MetaFileCache.getInstance()
+              .loadPipelineMeta(variables.resolve(meta.getFilename()), metadataProvider, variables);
       simpleMappingData.mappingPipelineMeta.clearChanged();
     }
 
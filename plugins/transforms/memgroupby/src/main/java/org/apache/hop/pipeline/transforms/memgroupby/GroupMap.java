@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.memgroupby;
+
+import java.util.Arrays;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+
+/**
+ * The aggregates of the groups, looked up on the values of the group fields in the input rows
+ * themselves. Hashing and comparing work on the raw field values so no key object is created for
+ * every row. A value in binary string storage hashes like its normal storage value. The groups are
+ * kept in the order in which they are added.
+ */
+public class GroupMap {
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private final IRowMeta groupMeta;
+
+  /** The positions of the group fields in the group data of a group */
+  private final int[] groupFieldnrs;
+
+  private Object[][] groups;
+  private Aggregate[] aggregates;
+  private int[] hashes;
+  private int size;
+
+  /** Open addressing table with the index of the group plus one, 0 for an empty slot */
+  private int[] table;
+
+  public GroupMap(IRowMeta groupMeta) {
+    this.groupMeta = groupMeta;
+    this.groupFieldnrs = new int[groupMeta.size()];
+    for (int i = 0; i < groupFieldnrs.length; i++) {
+      groupFieldnrs[i] = i;
+    }
+    this.groups = new Object[INITIAL_CAPACITY][];
+    this.aggregates = new Aggregate[INITIAL_CAPACITY];
+    this.hashes = new int[INITIAL_CAPACITY];
+    this.table = new int[INITIAL_CAPACITY * 2];
+  }
+
+  /**
+   * Calculate the hash code of the group of a row, the same as {@link IRowMeta#hashCode(Object[])}
+   * of the group values in normal storage.
+   *
+   * @param row the row
+   * @param fieldnrs the positions of the group fields in the row
+   * @return the hash code of the group
+   * @throws HopValueException in case a binary string value can't be converted
+   */
+  public int hashCode(Object[] row, int[] fieldnrs) throws HopValueException {
+    int hash = 1;
+    for (int i = 0; i < fieldnrs.length; i++) {
+      Object value = groupMeta.getValueMeta(i).convertToNormalStorageType(row[fieldnrs[i]]);
+      int valueHash;
+      if (value == null) {
+        valueHash = 0;
+      } else if (value instanceof byte[] bytes) {
+        valueHash = Arrays.hashCode(bytes);
+      } else {
+        valueHash = value.hashCode();
+      }
+      hash = 31 * hash + valueHash;
+    }
+    return hash;
+  }
+
+  /**
+   * Look up the aggregate of the group of a row
+   *
+   * @param row the row
+   * @param fieldnrs the positions of the group fields in the row
+   * @param hash the hash code of the group, see {@link #hashCode(Object[], int[])}
+   * @return the aggregate or null if the group isn't in the map
+   * @throws HopValueException in case the values can't be compared
+   */
+  public Aggregate get(Object[] row, int[] fieldnrs, int hash) throws HopValueException {
+    int mask = table.length - 1;
+    for (int slot = slot(hash, mask); table[slot] != 0; slot = (slot + 1) & mask) {
+      int index = table[slot] - 1;
+      if (hashes[index] == hash && sameGroup(groups[index], row, fieldnrs)) {
+        return aggregates[index];
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Look up the aggregate of a group
+   *
+   * @param groupData the values of the group fields
+   * @return the aggregate or null if the group isn't in the map
+   * @throws HopValueException in case the values can't be compared
+   */
+  public Aggregate get(Object[] groupData) throws HopValueException {
+    return get(groupData, groupFieldnrs, hashCode(groupData, groupFieldnrs));
+  }
+
+  /**
+   * Add a group which isn't in the map yet
+   *
+   * @param groupData the values of the group fields
+   * @param hash the hash code of the group, see {@link #hashCode(Object[], int[])}
+   * @param aggregate the aggregate of the group
+   */
+  public void put(Object[] groupData, int hash, Aggregate aggregate) {
+    if (size == groups.length) {
+      groups = Arrays.copyOf(groups, size * 2);
+      aggregates = Arrays.copyOf(aggregates, size * 2);
+      hashes = Arrays.copyOf(hashes, size * 2);
+      rehash(size * 4);
+    }
+    groups[size] = groupData;
+    aggregates[size] = aggregate;
+    hashes[size] = hash;
+    size++;
+    insert(size - 1);
+  }
+
+  /**
+   * Add a group which isn't in the map yet
+   *
+   * @param groupData the values of the group fields
+   * @param aggregate the aggregate of the group
+   * @throws HopValueException in case a binary string value can't be converted
+   */
+  public void put(Object[] groupData, Aggregate aggregate) throws HopValueException {
+    put(groupData, hashCode(groupData, groupFieldnrs), aggregate);
+  }
+
+  /**
+   * @return the number of groups
+   */
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * @param index the index of the group, in the order in which the groups were added
+   * @return the values of the group fields
+   */
+  public Object[] getGroupData(int index) {
+    return groups[index];
+  }
+
+  /**
+   * @param index the index of the group, in the order in which the groups were added
+   * @return the aggregate of the group
+   */
+  public Aggregate getAggregate(int index) {
+    return aggregates[index];
+  }
+
+  /** Remove all groups */
+  public void clear() {
+    Arrays.fill(groups, 0, size, null);
+    Arrays.fill(aggregates, 0, size, null);
+    Arrays.fill(table, 0);
+    size = 0;
+  }
+
+  private boolean sameGroup(Object[] groupData, Object[] row, int[] fieldnrs)
+      throws HopValueException {
+    for (int i = 0; i < fieldnrs.length; i++) {
+      if (groupMeta.getValueMeta(i).compare(row[fieldnrs[i]], groupData[i]) != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void rehash(int capacity) {
+    table = new int[capacity];
+    for (int index = 0; index < size; index++) {
+      insert(index);
+    }
+  }
+
+  private void insert(int index) {
+    int mask = table.length - 1;
+    int slot = slot(hashes[index], mask);
+    while (table[slot] != 0) {
+      slot = (slot + 1) & mask;
+    }
+    table[slot] = index + 1;
+  }
+
+  /** Spread the bits of the hash code, group values often have hash codes close to each other */
+  private static int slot(int hash, int mask) {
+    int h = hash * 0x9E3779B9;
+    return (h ^ (h >>> 16)) & mask;
+  }
+}
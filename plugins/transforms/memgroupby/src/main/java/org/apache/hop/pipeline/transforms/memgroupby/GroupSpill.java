@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.memgroupby;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.core.vfs.HopVfs;
+import org.apache.hop.i18n.BaseMessages;
+import org.apache.hop.pipeline.transform.BaseTransform;
+
+/**
+ * The input rows of the groups which don't fit in memory. The rows are spread over temporary files,
+ * the partitions, on the hash code of their group. All the rows of a group end up in the same
+ * partition in the order in which they were read, so a partition can be aggregated on its own later
+ * with the same results. A partition is split again with different bits of the hash code when it
+ * doesn't fit in memory either, one level deeper.
+ */
+class GroupSpill implements AutoCloseable {
+  private static final Class<?> PKG = MemoryGroupByMeta.class;
+
+  static final int NR_PARTITIONS = 16;
+  private static final int BUFFER_SIZE = 50000;
+
+  /**
+   * A temporary file with spilled rows
+   *
+   * @param file the temporary file
+   * @param nrRows the number of rows in the file
+   * @param level the level at which the rows are aggregated
+   */
+  record Partition(FileObject file, long nrRows, int level) {}
+
+  private final IRowMeta rowMeta;
+  private final int level;
+  private final String directory;
+  private final IVariables variables;
+
+  private final FileObject[] files = new FileObject[NR_PARTITIONS];
+  private final DataOutputStream[] outputs = new DataOutputStream[NR_PARTITIONS];
+  private final long[] nrRows = new long[NR_PARTITIONS];
+
+  /**
+   * @param rowMeta the layout of the spilled rows
+   * @param level the level of the groups in memory, 0 for the input of the transform
+   * @param directory the directory of the temporary files
+   * @param variables to resolve the directory with
+   */
+  GroupSpill(IRowMeta rowMeta, int level, String directory, IVariables variables) {
+    this.rowMeta = rowMeta;
+    this.level = level;
+    this.directory = directory;
+    this.variables = variables;
+  }
+
+  /**
+   * Write a row to the partition of its group
+   *
+   * @param row the row
+   * @param hash the hash code of the group of the row
+   * @throws HopException in case the row can't be written
+   */
+  void write(Object[] row, int hash) throws HopException {
+    int p = partition(hash, level);
+    try {
+      if (outputs[p] == null) {
+        files[p] = HopVfs.createTempFile("memgroupby", ".tmp", directory, variables);
+        outputs[p] =
+            new DataOutputStream(
+                new BufferedOutputStream(HopVfs.getOutputStream(files[p], false), BUFFER_SIZE));
+      }
+      rowMeta.writeData(outputs[p], row);
+      nrRows[p]++;
+    } catch (Exception e) {
+      throw new HopException(
+          BaseMessages.getString(PKG, "MemoryGroupBy.Error.WritingSpillFile", files[p]), e);
+    }
+  }
+
+  /**
+   * Close the partitions for writing
+   *
+   * @return the partitions with rows, to aggregate one level deeper
+   * @throws HopException in case a partition can't be closed
+   */
+  List<Partition> finish() throws HopException {
+    List<Partition> partitions = new ArrayList<>();
+    for (int p = 0; p < NR_PARTITIONS; p++) {
+      if (outputs[p] != null) {
+        try {
+          outputs[p].close();
+        } catch (IOException e) {
+          throw new HopException(
+              BaseMessages.getString(PKG, "MemoryGroupBy.Error.WritingSpillFile", files[p]), e);
+        }
+        outputs[p] = null;
+        partitions.add(new Partition(files[p], nrRows[p], level + 1));
+        files[p] = null;
+      }
+    }
+    return partitions;
+  }
+
+  /** Close and delete the partitions which are not finished */
+  @Override
+  public void close() {
+    for (int p = 0; p < NR_PARTITIONS; p++) {
+      BaseTransform.closeQuietly(outputs[p]);
+      outputs[p] = null;
+      if (files[p] != null) {
+        delete(files[p]);
+        files[p] = null;
+      }
+    }
+  }
+
+  /**
+   * Open a partition for reading
+   *
+   * @param partition the partition
+   * @return the stream to read the rows from with {@link IRowMeta#readData(DataInputStream)}
+   * @throws HopException in case the file can't be opened
+   */
+  static DataInputStream openInput(Partition partition) throws HopException {
+    try {
+      return new DataInputStream(
+          new BufferedInputStream(HopVfs.getInputStream(partition.file()), BUFFER_SIZE));
+    } catch (Exception e) {
+      throw new HopException(
+          BaseMessages.getString(PKG, "MemoryGroupBy.Error.ReadingSpillFile", partition.file()), e);
+    }
+  }
+
+  /**
+   * Delete a temporary file, ignoring errors
+   *
+   * @param file the file to delete
+   */
+  static void delete(FileObject file) {
+    try {
+      file.delete();
+    } catch (IOException e) {
+      // Ignore, this is a cleanup
+    }
+  }
+
+  /**
+   * Every level uses different bits of the hash code so the groups of a partition are spread again
+   * over the partitions one level deeper.
+   */
+  static int partition(int hash, int level) {
+    int h = hash ^ (0x9E3779B9 * (level + 1));
+    h ^= h >>> 16;
+    h *= 0x85EBCA6B;
+    h ^= h >>> 13;
+    h *= 0xC2B2AE35;
+    h ^= h >>> 16;
+    return (h >>> 28) & (NR_PARTITIONS - 1);
+  }
+}
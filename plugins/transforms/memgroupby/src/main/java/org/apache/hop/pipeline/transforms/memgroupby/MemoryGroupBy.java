@@ -22,8 +22,9 @@ import static org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByMeta.Gr
 import static org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByMeta.GroupType.CountDistinct;
 import static org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByMeta.GroupType.Percentile;
 
+import java.io.DataInputStream;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Set;
 import java.util.SortedSet;
@@ -43,12 +44,12 @@ import org.apache.hop.core.row.value.ValueMetaInteger;
 import org.apache.hop.core.row.value.ValueMetaNumber;
 import org.apache.hop.core.row.value.ValueMetaString;
 import org.apache.hop.core.util.Utils;
+import org.apache.hop.core.vfs.HopVfs;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
-import org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByData.HashEntry;
 
 /** Groups information based on aggregation rules. (sum, count, ...) */
 public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupByData> {
@@ -148,6 +149,7 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
       // Initialize the group metadata
       //
       initGroupMeta(data.inputRowMeta);
+      data.map = new GroupMap(data.groupMeta);
     }
 
     if (first) {
@@ -188,27 +190,23 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
   private void handleLastOfGroup() throws HopException {
     // Dump the content of the map...
     //
-    for (HashEntry entry : data.map.keySet()) {
-      Aggregate aggregate = data.map.get(entry);
-      Object[] aggregateResult = getAggregateResult(aggregate);
+    long nrGroups = outputGroups();
 
-      Object[] outputRowData = RowDataUtil.allocateRowData(data.outputRowMeta.size());
-      int index = 0;
-      for (int i = 0; i < data.groupMeta.size(); i++) {
-        outputRowData[index++] =
-            data.groupMeta.getValueMeta(i).convertToNormalStorageType(entry.getGroupData()[i]);
-      }
-      for (int i = 0; i < data.aggMeta.size(); i++) {
-        outputRowData[index++] =
-            data.aggMeta.getValueMeta(i).convertToNormalStorageType(aggregateResult[i]);
-      }
-      putRow(data.outputRowMeta, outputRowData);
+    // Aggregate the spilled rows of the groups which didn't fit in memory, one partition at a time.
+    // The rows of a partition which doesn't fit in memory either are spilled again.
+    //
+    finishSpill();
+    while (!data.partitions.isEmpty() && !isStopped()) {
+      aggregatePartition(data.partitions.removeFirst());
+      nrGroups += outputGroups();
+      finishSpill();
     }
+    data.level = 0;
 
     // What if we always need to give back one row?
     // This means we give back 0 for count all, count distinct, null for everything else
     //
-    if (data.map.isEmpty() && meta.isAlwaysGivingBackOneRow()) {
+    if (nrGroups == 0 && meta.isAlwaysGivingBackOneRow()) {
       Object[] outputRowData = RowDataUtil.allocateRowData(data.outputRowMeta.size());
       int index = 0;
       for (int i = 0; i < data.groupMeta.size(); i++) {
@@ -228,6 +226,79 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
     }
   }
 
+  /**
+   * Write the groups in the map to the output and empty the map
+   *
+   * @return the number of groups written
+   */
+  private long outputGroups() throws HopException {
+    int nrGroups = data.map.size();
+    for (int g = 0; g < nrGroups; g++) {
+      Object[] groupData = data.map.getGroupData(g);
+      Object[] aggregateResult = getAggregateResult(data.map.getAggregate(g));
+
+      Object[] outputRowData = RowDataUtil.allocateRowData(data.outputRowMeta.size());
+      int index = 0;
+      for (int i = 0; i < data.groupMeta.size(); i++) {
+        outputRowData[index++] =
+            data.groupMeta.getValueMeta(i).convertToNormalStorageType(groupData[i]);
+      }
+      for (int i = 0; i < data.aggMeta.size(); i++) {
+        outputRowData[index++] =
+            data.aggMeta.getValueMeta(i).convertToNormalStorageType(aggregateResult[i]);
+      }
+      putRow(data.outputRowMeta, outputRowData);
+    }
+    data.map.clear();
+    return nrGroups;
+  }
+
+  private void finishSpill() throws HopException {
+    if (data.spill != null) {
+      data.partitions.addAll(data.spill.finish());
+      data.spill.close();
+      data.spill = null;
+    }
+  }
+
+  private void aggregatePartition(GroupSpill.Partition partition) throws HopException {
+    if (isDetailed()) {
+      logDetailed(
+          BaseMessages.getString(
+              PKG,
+              "MemoryGroupBy.Log.AggregatingSpillFile",
+              partition.nrRows(),
+              partition.level()));
+    }
+    data.level = partition.level();
+    try (DataInputStream inputStream = GroupSpill.openInput(partition)) {
+      for (long i = 0; i < partition.nrRows() && !isStopped(); i++) {
+        addToAggregate(data.inputRowMeta.readData(inputStream));
+      }
+    } catch (IOException e) {
+      throw new HopException(
+          BaseMessages.getString(PKG, "MemoryGroupBy.Error.ReadingSpillFile", partition.file()), e);
+    } finally {
+      GroupSpill.delete(partition.file());
+    }
+  }
+
+  /**
+   * New groups no longer go in the map when it holds the maximum number of groups or when free
+   * memory gets low. The free memory is checked every 1000 groups, so the map always takes at least
+   * that many groups.
+   */
+  private boolean isMapFull() {
+    int size = data.map.size();
+    if (data.maxGroups > 0 && size >= data.maxGroups) {
+      return true;
+    }
+    return data.freeMemoryPctLimit > 0
+        && size > 0
+        && size % 1000 == 0
+        && Const.getPercentageFreeMemory() < data.freeMemoryPctLimit;
+  }
+
   /**
    * Used for junits in MemoryGroupByAggregationNullsTest
    *
@@ -236,14 +307,29 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
    */
   void addToAggregate(Object[] r) throws HopException {
 
-    Object[] groupData = new Object[data.groupMeta.size()];
-    for (int i = 0; i < data.groupnrs.length; i++) {
-      groupData[i] = r[data.groupnrs[i]];
-    }
-    HashEntry entry = data.getHashEntry(groupData);
-
-    Aggregate aggregate = data.map.get(entry);
+    int hash = data.map.hashCode(r, data.groupnrs);
+    Aggregate aggregate = data.map.get(r, data.groupnrs, hash);
     if (aggregate == null) {
+      // Rows of new groups go to disk once the map is full
+      //
+      if (data.spill == null && isMapFull()) {
+        if (isDetailed()) {
+          logDetailed(
+              BaseMessages.getString(
+                  PKG, "MemoryGroupBy.Log.SpillingGroups", data.map.size(), data.level));
+        }
+        data.spill = new GroupSpill(data.inputRowMeta, data.level, data.spillDirectory, this);
+      }
+      if (data.spill != null) {
+        data.spill.write(r, hash);
+        return;
+      }
+
+      Object[] groupData = new Object[data.groupMeta.size()];
+      for (int i = 0; i < data.groupnrs.length; i++) {
+        groupData[i] = r[data.groupnrs[i]];
+      }
+
       // Create a new value...
       //
       aggregate = new Aggregate();
@@ -251,7 +337,7 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
 
       // Store it in the map!
       //
-      data.map.put(entry, aggregate);
+      data.map.put(groupData, hash, aggregate);
     }
 
     for (int i = 0; i < data.subjectnrs.length; i++) {
@@ -554,7 +640,12 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
   public boolean init() {
 
     if (super.init()) {
-      data.map = new HashMap<>(5000);
+      data.maxGroups = Const.toInt(resolve(meta.getMaxGroups()), 0);
+      data.freeMemoryPctLimit = Const.toInt(resolve(meta.getFreeMemoryLimit()), 0);
+      data.spillDirectory =
+          Utils.isEmpty(meta.getSpillDirectory())
+              ? HopVfs.TEMP_DIR
+              : resolve(meta.getSpillDirectory());
       return true;
     }
     return false;
@@ -570,11 +661,13 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
   public void batchComplete() throws HopException {
     // Empty the hash table
     //
-    handleLastOfGroup();
+    if (data.map != null) {
+      handleLastOfGroup();
 
-    // Clear the complete cache...
-    //
-    data.map.clear();
+      // Clear the complete cache...
+      //
+      data.map.clear();
+    }
 
     data.newBatch = true;
   }
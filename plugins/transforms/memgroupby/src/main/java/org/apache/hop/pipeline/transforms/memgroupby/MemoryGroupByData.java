@@ -17,8 +17,8 @@
 
 package org.apache.hop.pipeline.transforms.memgroupby;
 
-import java.util.HashMap;
-import org.apache.hop.core.exception.HopValueException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
@@ -26,46 +26,7 @@ import org.apache.hop.pipeline.transform.ITransformData;
 
 @SuppressWarnings("java:S1104")
 public class MemoryGroupByData extends BaseTransformData implements ITransformData {
-  public class HashEntry {
-    private Object[] groupData;
-
-    public HashEntry(Object[] groupData) {
-      this.groupData = groupData;
-    }
-
-    public Object[] getGroupData() {
-      return groupData;
-    }
-
-    public boolean equals(Object obj) {
-      HashEntry entry = (HashEntry) obj;
-
-      try {
-        return groupMeta.compare(groupData, entry.groupData) == 0;
-      } catch (HopValueException e) {
-        throw new RuntimeException(e);
-      }
-    }
-
-    public int hashCode() {
-      try {
-        return groupMeta.hashCode(getHashValue());
-      } catch (HopValueException e) {
-        throw new RuntimeException(e);
-      }
-    }
-
-    private Object[] getHashValue() throws HopValueException {
-      Object[] groupDataHash = new Object[groupMeta.size()];
-      for (int i = 0; i < groupMeta.size(); i++) {
-        IValueMeta valueMeta = groupMeta.getValueMeta(i);
-        groupDataHash[i] = valueMeta.convertToNormalStorageType(groupData[i]);
-      }
-      return groupDataHash;
-    }
-  }
-
-  public HashMap<HashEntry, Aggregate> map;
+  public GroupMap map;
 
   public IRowMeta aggMeta;
   public IRowMeta groupMeta;
@@ -89,16 +50,40 @@ public class MemoryGroupByData extends BaseTransformData implements ITransformDa
 
   public boolean newBatch;
 
+  /** The maximum number of groups in memory, 0 for no maximum */
+  public int maxGroups;
+
+  /** Spill new groups to disk below this percentage of free memory, 0 to never check */
+  public int freeMemoryPctLimit;
+
+  public String spillDirectory;
+
+  /** The level of the groups in the map, 0 for the input rows and higher for spilled rows */
+  public int level;
+
+  /** The rows of the new groups which don't fit in the map any more */
+  GroupSpill spill;
+
+  /** The spilled partitions which still need to be aggregated */
+  Deque<GroupSpill.Partition> partitions;
+
   public MemoryGroupByData() {
     super();
+    partitions = new ArrayDeque<>();
   }
 
-  public HashEntry getHashEntry(Object[] groupData) {
-    return new HashEntry(groupData);
-  }
-
-  /** Method responsible for clearing out memory hogs */
+  /** Method responsible for clearing out memory hogs and temporary files */
   public void clear() {
-    map = new HashMap<>();
+    if (map != null) {
+      map.clear();
+    }
+    if (spill != null) {
+      spill.close();
+      spill = null;
+    }
+    for (GroupSpill.Partition partition : partitions) {
+      GroupSpill.delete(partition.file());
+    }
+    partitions.clear();
   }
 }
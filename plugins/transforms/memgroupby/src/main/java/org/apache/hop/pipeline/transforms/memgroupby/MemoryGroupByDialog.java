@@ -33,6 +33,7 @@ import org.apache.hop.ui.core.dialog.BaseDialog;
 import org.apache.hop.ui.core.dialog.ErrorDialog;
 import org.apache.hop.ui.core.widget.ColumnInfo;
 import org.apache.hop.ui.core.widget.TableView;
+import org.apache.hop.ui.core.widget.TextVar;
 import org.apache.hop.ui.pipeline.transform.BaseTransformDialog;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.ModifyListener;
@@ -57,6 +58,12 @@ public class MemoryGroupByDialog extends BaseTransformDialog {
 
   private Button wAlwaysAddResult;
 
+  private TextVar wMaxGroups;
+
+  private TextVar wFreeMemory;
+
+  private TextVar wSpillDir;
+
   private final MemoryGroupByMeta input;
 
   private ColumnInfo[] ciKey;
@@ -144,12 +151,85 @@ public class MemoryGroupByDialog extends BaseTransformDialog {
     wAlwaysAddResult.setLayoutData(fdAlwaysAddResult);
     wAlwaysAddResult.addSelectionListener(lsSel);
 
+    // Maximum number of groups to keep in memory before spilling rows to temporary files
+    Label wlMaxGroups = new Label(shell, SWT.RIGHT);
+    wlMaxGroups.setText(BaseMessages.getString(PKG, "MemoryGroupByDialog.MaxGroups.Label"));
+    wlMaxGroups.setToolTipText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.MaxGroups.ToolTip"));
+    PropsUi.setLook(wlMaxGroups);
+    FormData fdlMaxGroups = new FormData();
+    fdlMaxGroups.left = new FormAttachment(0, 0);
+    fdlMaxGroups.right = new FormAttachment(middle, -margin);
+    fdlMaxGroups.top = new FormAttachment(wAlwaysAddResult, margin * 2);
+    wlMaxGroups.setLayoutData(fdlMaxGroups);
+    wMaxGroups = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wMaxGroups.setToolTipText(BaseMessages.getString(PKG, "MemoryGroupByDialog.MaxGroups.ToolTip"));
+    PropsUi.setLook(wMaxGroups);
+    wMaxGroups.addModifyListener(lsMod);
+    FormData fdMaxGroups = new FormData();
+    fdMaxGroups.left = new FormAttachment(middle, 0);
+    fdMaxGroups.top = new FormAttachment(wAlwaysAddResult, margin * 2);
+    fdMaxGroups.right = new FormAttachment(100, 0);
+    wMaxGroups.setLayoutData(fdMaxGroups);
+
+    // Free Memory to keep
+    Label wlFreeMemory = new Label(shell, SWT.RIGHT);
+    wlFreeMemory.setText(BaseMessages.getString(PKG, "MemoryGroupByDialog.FreeMemory.Label"));
+    wlFreeMemory.setToolTipText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.FreeMemory.ToolTip"));
+    PropsUi.setLook(wlFreeMemory);
+    FormData fdlFreeMemory = new FormData();
+    fdlFreeMemory.left = new FormAttachment(0, 0);
+    fdlFreeMemory.right = new FormAttachment(middle, -margin);
+    fdlFreeMemory.top = new FormAttachment(wMaxGroups, margin);
+    wlFreeMemory.setLayoutData(fdlFreeMemory);
+    wFreeMemory = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wFreeMemory.setToolTipText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.FreeMemory.ToolTip"));
+    PropsUi.setLook(wFreeMemory);
+    wFreeMemory.addModifyListener(lsMod);
+    FormData fdFreeMemory = new FormData();
+    fdFreeMemory.left = new FormAttachment(middle, 0);
+    fdFreeMemory.top = new FormAttachment(wMaxGroups, margin);
+    fdFreeMemory.right = new FormAttachment(100, 0);
+    wFreeMemory.setLayoutData(fdFreeMemory);
+
+    // Temp directory for the spilled rows
+    Label wlSpillDir = new Label(shell, SWT.RIGHT);
+    wlSpillDir.setText(BaseMessages.getString(PKG, "MemoryGroupByDialog.SpillDirectory.Label"));
+    PropsUi.setLook(wlSpillDir);
+    FormData fdlSpillDir = new FormData();
+    fdlSpillDir.left = new FormAttachment(0, 0);
+    fdlSpillDir.right = new FormAttachment(middle, -margin);
+    fdlSpillDir.top = new FormAttachment(wFreeMemory, margin);
+    wlSpillDir.setLayoutData(fdlSpillDir);
+
+    Button wbSpillDir = new Button(shell, SWT.PUSH | SWT.CENTER);
+    PropsUi.setLook(wbSpillDir);
+    wbSpillDir.setText(BaseMessages.getString(PKG, "System.Button.Browse"));
+    FormData fdbSpillDir = new FormData();
+    fdbSpillDir.right = new FormAttachment(100, 0);
+    fdbSpillDir.top = new FormAttachment(wFreeMemory, margin);
+    wbSpillDir.setLayoutData(fdbSpillDir);
+
+    wSpillDir = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wSpillDir);
+    wSpillDir.addModifyListener(lsMod);
+    FormData fdSpillDir = new FormData();
+    fdSpillDir.left = new FormAttachment(middle, 0);
+    fdSpillDir.top = new FormAttachment(wFreeMemory, margin);
+    fdSpillDir.right = new FormAttachment(wbSpillDir, -margin);
+    wSpillDir.setLayoutData(fdSpillDir);
+
+    wbSpillDir.addListener(
+        SWT.Selection, e -> BaseDialog.presentDirectoryDialog(shell, wSpillDir, variables));
+
     Label wlGroup = new Label(shell, SWT.NONE);
     wlGroup.setText(BaseMessages.getString(PKG, "MemoryGroupByDialog.Group.Label"));
     PropsUi.setLook(wlGroup);
     FormData fdlGroup = new FormData();
     fdlGroup.left = new FormAttachment(0, 0);
-    fdlGroup.top = new FormAttachment(wlAlwaysAddResult, 2 * margin);
+    fdlGroup.top = new FormAttachment(wbSpillDir, 2 * margin);
     wlGroup.setLayoutData(fdlGroup);
 
     int groupCols = 1;
@@ -306,6 +386,9 @@ public class MemoryGroupByDialog extends BaseTransformDialog {
     logDebug(BaseMessages.getString(PKG, "MemoryGroupByDialog.Log.GettingKeyInfo"));
 
     wAlwaysAddResult.setSelection(input.isAlwaysGivingBackOneRow());
+    wMaxGroups.setText(Const.NVL(input.getMaxGroups(), ""));
+    wFreeMemory.setText(Const.NVL(input.getFreeMemoryLimit(), ""));
+    wSpillDir.setText(Const.NVL(input.getSpillDirectory(), ""));
 
     for (int i = 0; i < input.getGroups().size(); i++) {
       TableItem item = wGroup.table.getItem(i);
@@ -342,6 +425,9 @@ public class MemoryGroupByDialog extends BaseTransformDialog {
     }
 
     input.setAlwaysGivingBackOneRow(wAlwaysAddResult.getSelection());
+    input.setMaxGroups(wMaxGroups.getText());
+    input.setFreeMemoryLimit(wFreeMemory.getText());
+    input.setSpillDirectory(wSpillDir.getText());
 
     input.getGroups().clear();
     for (TableItem item : wGroup.getNonEmptyItems()) {
@@ -82,6 +82,27 @@ public class MemoryGroupByMeta extends BaseTransformMeta<MemoryGroupBy, MemoryGr
       injectionKeyDescription = "MemoryGroupBy.Injection.ALWAYSGIVINGBACKONEROW")
   private boolean alwaysGivingBackOneRow;
 
+  /** The maximum number of groups kept in memory, the rows of other groups are spilled to disk */
+  @HopMetadataProperty(
+      key = "max_groups",
+      injectionKey = "MAX_GROUPS",
+      injectionKeyDescription = "MemoryGroupBy.Injection.MAX_GROUPS")
+  private String maxGroups;
+
+  /** Spill the rows of new groups to disk when the percentage of free memory drops below this */
+  @HopMetadataProperty(
+      key = "free_memory",
+      injectionKey = "FREE_MEMORY_THRESHOLD",
+      injectionKeyDescription = "MemoryGroupBy.Injection.FREE_MEMORY_THRESHOLD")
+  private String freeMemoryLimit;
+
+  /** The directory of the temporary files with the spilled rows */
+  @HopMetadataProperty(
+      key = "spill_directory",
+      injectionKey = "SPILL_DIRECTORY",
+      injectionKeyDescription = "MemoryGroupBy.Injection.SPILL_DIRECTORY")
+  private String spillDirectory;
+
   public MemoryGroupByMeta() {
     this.groups = new ArrayList<>();
     this.aggregates = new ArrayList<>();
@@ -96,6 +117,9 @@ public class MemoryGroupByMeta extends BaseTransformMeta<MemoryGroupBy, MemoryGr
       aggregates.add(new GAggregate(aggregate));
     }
     this.alwaysGivingBackOneRow = meta.alwaysGivingBackOneRow;
+    this.maxGroups = meta.maxGroups;
+    this.freeMemoryLimit = meta.freeMemoryLimit;
+    this.spillDirectory = meta.spillDirectory;
   }
 
   @Override
@@ -464,6 +488,60 @@ public class MemoryGroupByMeta extends BaseTransformMeta<MemoryGroupBy, MemoryGr
     this.alwaysGivingBackOneRow = alwaysGivingBackOneRow;
   }
 
+  /**
+   * Gets maxGroups
+   *
+   * @return value of maxGroups
+   */
+  public String getMaxGroups() {
+    return maxGroups;
+  }
+
+  /**
+   * Sets maxGroups
+   *
+   * @param maxGroups value of maxGroups
+   */
+  public void setMaxGroups(String maxGroups) {
+    this.maxGroups = maxGroups;
+  }
+
+  /**
+   * Gets freeMemoryLimit
+   *
+   * @return value of freeMemoryLimit
+   */
+  public String getFreeMemoryLimit() {
+    return freeMemoryLimit;
+  }
+
+  /**
+   * Sets freeMemoryLimit
+   *
+   * @param freeMemoryLimit value of freeMemoryLimit
+   */
+  public void setFreeMemoryLimit(String freeMemoryLimit) {
+    this.freeMemoryLimit = freeMemoryLimit;
+  }
+
+  /**
+   * Gets spillDirectory
+   *
+   * @return value of spillDirectory
+   */
+  public String getSpillDirectory() {
+    return spillDirectory;
+  }
+
+  /**
+   * Sets spillDirectory
+   *
+   * @param spillDirectory value of spillDirectory
+   */
+  public void setSpillDirectory(String spillDirectory) {
+    this.spillDirectory = spillDirectory;
+  }
+
   @Override
   public boolean supportsMultiCopyExecution() {
     return false;
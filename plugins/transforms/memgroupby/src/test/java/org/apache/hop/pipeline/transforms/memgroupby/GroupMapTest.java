@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.memgroupby;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.jupiter.api.Test;
+
+class GroupMapTest {
+
+  @Test
+  void testBinaryStringKeys() throws Exception {
+    ValueMetaString valueMeta = new ValueMetaString("key");
+    valueMeta.setStorageType(IValueMeta.STORAGE_TYPE_BINARY_STRING);
+    valueMeta.setStorageMetadata(new ValueMetaString("key"));
+    IRowMeta groupMeta = new RowMeta();
+    groupMeta.addValueMeta(valueMeta);
+    GroupMap map = new GroupMap(groupMeta);
+
+    Aggregate aggregate = new Aggregate();
+    map.put(new Object[] {"key".getBytes()}, aggregate);
+
+    // Another array with the same bytes is the same group
+    assertSame(aggregate, map.get(new Object[] {"key".getBytes()}));
+    assertNull(map.get(new Object[] {"other".getBytes()}));
+
+    // The hash code is the one of the normal storage values
+    assertEquals(
+        new RowMeta().hashCode(new Object[] {"key"}),
+        map.hashCode(new Object[] {"key".getBytes()}, new int[] {0}));
+  }
+
+  @Test
+  void testGroupsOfRows() throws Exception {
+    IRowMeta groupMeta = new RowMeta();
+    groupMeta.addValueMeta(new ValueMetaInteger("id"));
+    groupMeta.addValueMeta(new ValueMetaString("name"));
+    GroupMap map = new GroupMap(groupMeta);
+
+    // The group fields are in a different order in the rows
+    int[] fieldnrs = {2, 0};
+    Map<String, Aggregate> expected = new HashMap<>();
+    List<String> order = new ArrayList<>();
+    Random random = new Random(42);
+    for (int i = 0; i < 100_000; i++) {
+      Long id = random.nextInt(20) == 0 ? null : (long) random.nextInt(5000);
+      String name = random.nextBoolean() ? null : "name" + random.nextInt(3);
+      Object[] row = {name, "other", id};
+
+      int hash = map.hashCode(row, fieldnrs);
+      Aggregate aggregate = map.get(row, fieldnrs, hash);
+      assertSame(expected.get(id + "/" + name), aggregate);
+      if (aggregate == null) {
+        aggregate = new Aggregate();
+        map.put(new Object[] {id, name}, hash, aggregate);
+        expected.put(id + "/" + name, aggregate);
+        order.add(id + "/" + name);
+      }
+    }
+    assertEquals(expected.size(), map.size());
+
+    // The groups are kept in the order in which they were added
+    for (int g = 0; g < map.size(); g++) {
+      Object[] groupData = map.getGroupData(g);
+      assertEquals(order.get(g), groupData[0] + "/" + groupData[1]);
+      assertSame(expected.get(order.get(g)), map.getAggregate(g));
+    }
+
+    map.clear();
+    assertTrue(map.isEmpty());
+    assertNull(map.get(new Object[] {1L, "name1"}));
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.memgroupby;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironmentExtension;
+import org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByMeta.GroupType;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class MemoryGroupBySpillTest {
+
+  @RegisterExtension
+  static RestoreHopEngineEnvironmentExtension env = new RestoreHopEngineEnvironmentExtension();
+
+  @TempDir Path tempDir;
+
+  private TransformMockHelper<MemoryGroupByMeta, MemoryGroupByData> transformMockHelper;
+
+  @BeforeAll
+  static void setUpBeforeClass() throws HopException {
+    HopEnvironment.init();
+  }
+
+  @BeforeEach
+  void setUp() {
+    transformMockHelper =
+        new TransformMockHelper<>(
+            "Memory Group By", MemoryGroupByMeta.class, MemoryGroupByData.class);
+    when(transformMockHelper.logChannelFactory.create(any(), any(ILoggingObject.class)))
+        .thenReturn(transformMockHelper.iLogChannel);
+    when(transformMockHelper.pipeline.isRunning()).thenReturn(true);
+  }
+
+  @AfterEach
+  void tearDown() {
+    transformMockHelper.cleanUp();
+  }
+
+  /** Spilling gives the same aggregates, also the ones which depend on the order of the rows */
+  @ParameterizedTest
+  @ValueSource(strings = {"1", "10", "100", "1000"})
+  void testSpilledGroups(String maxGroups) throws Exception {
+    IRowMeta inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta(new ValueMetaInteger("key"));
+    inputRowMeta.addValueMeta(new ValueMetaString("name"));
+    inputRowMeta.addValueMeta(new ValueMetaInteger("value"));
+
+    Random random = new Random(42);
+    List<Object[]> input = new ArrayList<>();
+    for (long i = 0; i < 2000; i++) {
+      Long key = random.nextInt(30) == 0 ? null : (long) random.nextInt(500);
+      input.add(new Object[] {key, "row " + i, (long) random.nextInt(100)});
+    }
+
+    MemoryGroupByMeta meta = new MemoryGroupByMeta();
+    meta.getGroups().add(new GGroup("key"));
+    meta.getAggregates().add(new GAggregate("sum", "value", GroupType.Sum, null));
+    meta.getAggregates().add(new GAggregate("first", "name", GroupType.First, null));
+    meta.getAggregates().add(new GAggregate("last", "name", GroupType.Last, null));
+    meta.getAggregates().add(new GAggregate("concat", "value", GroupType.ConcatComma, null));
+    meta.getAggregates().add(new GAggregate("distinct", "value", GroupType.CountDistinct, null));
+    meta.getAggregates().add(new GAggregate("median", "value", GroupType.Median, null));
+
+    Map<Long, Object[]> expected = aggregate(meta, inputRowMeta, input);
+
+    meta.setMaxGroups(maxGroups);
+    meta.setSpillDirectory(tempDir.toString());
+    Map<Long, Object[]> actual = aggregate(meta, inputRowMeta, input);
+
+    assertEquals(expected.keySet(), actual.keySet());
+    for (Map.Entry<Long, Object[]> entry : expected.entrySet()) {
+      assertArrayEquals(entry.getValue(), actual.get(entry.getKey()), "Group " + entry.getKey());
+    }
+
+    // All temporary files are removed
+    File[] files = tempDir.toFile().listFiles();
+    assertEquals(0, files == null ? 0 : files.length);
+  }
+
+  /** The output rows by group key, the null key is stored as -1 */
+  private Map<Long, Object[]> aggregate(
+      MemoryGroupByMeta meta, IRowMeta inputRowMeta, List<Object[]> input) throws HopException {
+    Map<Long, Object[]> output = new TreeMap<>();
+    MemoryGroupByData data = new MemoryGroupByData();
+    MemoryGroupBy memoryGroupBy =
+        new MemoryGroupBy(
+            transformMockHelper.transformMeta,
+            meta,
+            data,
+            0,
+            transformMockHelper.pipelineMeta,
+            transformMockHelper.pipeline) {
+          private int index;
+
+          @Override
+          public Object[] getRow() {
+            return index < input.size() ? input.get(index++) : null;
+          }
+
+          @Override
+          public IRowMeta getInputRowMeta() {
+            return inputRowMeta;
+          }
+
+          @Override
+          public void putRow(IRowMeta rowMeta, Object[] row) {
+            Long key = row[0] == null ? -1L : (Long) row[0];
+            assertNull(output.put(key, row), "Group " + key + " is output more than once");
+          }
+        };
+    assertTrue(memoryGroupBy.init());
+
+    while (memoryGroupBy.processRow()) {
+      // Keep on aggregating
+    }
+    memoryGroupBy.dispose();
+    return output;
+  }
+}
@@ -321,7 +321,7 @@ public class MetaInjectMeta extends BaseTransformMeta<MetaInject, MetaInjectData
     this.fileName = fileName;
   }
 
-  public static final synchronized PipelineMeta loadPipelineMeta(
+  public static final PipelineMeta loadPipelineMeta(
       MetaInjectMeta injectMeta, IHopMetadataProvider metadataProvider, IVariables variables)
       throws HopException {
     PipelineMeta mappingPipelineMeta = null;
@@ -336,6 +336,8 @@ public class MetaInjectMeta extends BaseTransformMeta<MetaInject, MetaInjectData
       // OK, load the meta-data from file...
       //
       // Don't set internal variables: they belong to the parent thread!
+      // The file is parsed every time and not loaded from the MetaFileCache: the injection
+      // changes the lists in the metadata of the transforms, which a copy shares with the cache.
       //
       if (mappingPipelineMeta == null) {
         mappingPipelineMeta = new PipelineMeta(realFilename, metadataProvider, tmpSpace);
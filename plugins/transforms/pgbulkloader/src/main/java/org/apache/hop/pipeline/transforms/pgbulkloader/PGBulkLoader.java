@@ -30,6 +30,7 @@ import java.math.BigDecimal;
 import java.nio.charset.Charset;
 import java.sql.Connection;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.List;
@@ -110,17 +111,69 @@ public class PGBulkLoader extends BaseTransform<PGBulkLoaderMeta, PGBulkLoaderDa
     contents.append(" FROM STDIN"); // FIFO file
 
     // The "FORMAT" clause
-    contents
-        .append(" WITH CSV DELIMITER AS '")
-        .append(resolve(meta.getDelimiter()))
-        .append("' QUOTE AS '")
-        .append(resolve(meta.getEnclosure()))
-        .append("'");
+    if (isBinaryFormat()) {
+      contents.append(" WITH (FORMAT binary)");
+    } else {
+      contents
+          .append(" WITH CSV DELIMITER AS '")
+          .append(resolve(meta.getDelimiter()))
+          .append("' QUOTE AS '")
+          .append(resolve(meta.getEnclosure()))
+          .append("'");
+    }
     contents.append(";").append(Const.CR);
 
     return contents.toString();
   }
 
+  /**
+   * @return true if the rows are sent in the binary format of the COPY command instead of CSV
+   */
+  boolean isBinaryFormat() {
+    return PGBulkLoaderMeta.FORMAT_BINARY.equalsIgnoreCase(resolve(meta.getFormat()));
+  }
+
+  /**
+   * The binary format has to match the types of the columns exactly, look them up in the table.
+   *
+   * @return the types of the columns to load, in the order of the mappings
+   * @throws Exception in case the table can't be read or a column type can't be written
+   */
+  PGCopyBinaryWriter.ColumnType[] getColumnTypes() throws Exception {
+    DatabaseMeta dm = getPipelineMeta().findDatabase(meta.getConnection(), variables);
+    String tableName =
+        dm.getQuotedSchemaTableCombination(this, meta.getSchemaName(), meta.getTableName());
+    List<PGBulkLoaderMappingMeta> mapping = meta.getMappings();
+
+    StringBuilder sql = new StringBuilder("SELECT ");
+    for (int i = 0; i < mapping.size(); i++) {
+      if (i != 0) {
+        sql.append(", ");
+      }
+      sql.append(dm.quoteField(mapping.get(i).getFieldTable()));
+    }
+    sql.append(" FROM ").append(tableName).append(" WHERE 1 = 0");
+
+    PGCopyBinaryWriter.ColumnType[] columnTypes = new PGCopyBinaryWriter.ColumnType[mapping.size()];
+    try (Statement statement = data.db.getConnection().createStatement();
+        ResultSet rs = statement.executeQuery(sql.toString())) {
+      ResultSetMetaData rsMeta = rs.getMetaData();
+      for (int i = 0; i < columnTypes.length; i++) {
+        String typeName = rsMeta.getColumnTypeName(i + 1);
+        columnTypes[i] = PGCopyBinaryWriter.ColumnType.lookup(typeName);
+        if (columnTypes[i] == null) {
+          throw new HopException(
+              BaseMessages.getString(
+                  PKG,
+                  "PGBulkLoader.Exception.BinaryColumnTypeNotSupported",
+                  mapping.get(i).getFieldTable(),
+                  typeName));
+        }
+      }
+    }
+    return columnTypes;
+  }
+
   void checkClientEncoding() throws Exception {
     Connection connection = data.db.getConnection();
 
@@ -158,10 +211,18 @@ public class PGBulkLoader extends BaseTransform<PGBulkLoaderMeta, PGBulkLoaderDa
 
       processTruncate();
 
+      PGCopyBinaryWriter.ColumnType[] columnTypes = isBinaryFormat() ? getColumnTypes() : null;
+
       if (isBasic()) {
         logBasic("Launching command: " + copyCmd);
       }
       pgCopyOut = new PGCopyOutputStream((PGConnection) data.db.getConnection(), copyCmd);
+      data.pgOutputStream = pgCopyOut;
+
+      if (columnTypes != null) {
+        data.binaryWriter = new PGCopyBinaryWriter(pgCopyOut, clientEncoding, columnTypes);
+        data.binaryWriter.writeHeader();
+      }
 
     } catch (Exception ex) {
       throw new HopException("Error while preparing the COPY " + copyCmd, ex);
@@ -224,6 +285,9 @@ public class PGBulkLoader extends BaseTransform<PGBulkLoaderMeta, PGBulkLoaderDa
         // Close the output stream...
         // will be null if no records (empty stream)
         if (data != null && pgCopyOut != null) {
+          if (data.binaryWriter != null) {
+            data.binaryWriter.writeTrailer();
+          }
           pgCopyOut.flush();
           pgCopyOut.endCopy();
           pgCopyOut.close();
@@ -267,9 +331,17 @@ public class PGBulkLoader extends BaseTransform<PGBulkLoaderMeta, PGBulkLoaderDa
     }
   }
 
-  private void writeRowToPostgres(IRowMeta rowMeta, Object[] r) throws HopException {
+  @VisibleForTesting
+  void writeRowToPostgres(IRowMeta rowMeta, Object[] r) throws HopException {
 
     try {
+      // The binary format is written straight from the values
+      //
+      if (data.binaryWriter != null) {
+        data.binaryWriter.writeRow(rowMeta, r, data.keynrs);
+        return;
+      }
+
       // So, we have this output stream to which we can write CSV data to.
       // Basically, what we need to do is write the binary data (from strings to it as part of this
       // proof of concept)
@@ -280,7 +352,7 @@ public class PGBulkLoader extends BaseTransform<PGBulkLoaderMeta, PGBulkLoaderDa
         if (i > 0) {
           // Write a separator
           //
-          pgCopyOut.write(data.separator);
+          data.pgOutputStream.write(data.separator);
         }
 
         int index = data.keynrs[i];
@@ -290,22 +362,22 @@ public class PGBulkLoader extends BaseTransform<PGBulkLoaderMeta, PGBulkLoaderDa
         if (valueData != null) {
           switch (valueMeta.getType()) {
             case IValueMeta.TYPE_STRING:
-              pgCopyOut.write(data.quote);
+              data.pgOutputStream.write(data.quote);
 
               // No longer dump the bytes for a Lazy Conversion
               // We need to escape the quote characters in every string
               String quoteStr = new String(data.quote);
               String escapedString =
                   valueMeta.getString(valueData).replace(quoteStr, quoteStr + quoteStr);
-              pgCopyOut.write(escapedString.getBytes(clientEncoding));
+              data.pgOutputStream.write(escapedString.getBytes(clientEncoding));
 
-              pgCopyOut.write(data.quote);
+              data.pgOutputStream.write(data.quote);
               break;
             case IValueMeta.TYPE_INTEGER:
               if (valueMeta.isStorageBinaryString()) {
-                pgCopyOut.write((byte[]) valueData);
+                data.pgOutputStream.write((byte[]) valueData);
               } else {
-                pgCopyOut.write(
+                data.pgOutputStream.write(
                     Long.toString(valueMeta.getInteger(valueData)).getBytes(clientEncoding));
               }
               break;
@@ -317,11 +389,11 @@ public class PGBulkLoader extends BaseTransform<PGBulkLoaderMeta, PGBulkLoaderDa
                   //
                 case PGBulkLoaderMeta.NR_DATE_MASK_PASS_THROUGH:
                   if (valueMeta.isStorageBinaryString()) {
-                    pgCopyOut.write((byte[]) valueData);
+                    data.pgOutputStream.write((byte[]) valueData);
                   } else {
                     String dateString = valueMeta.getString(valueData);
                     if (dateString != null) {
-                      pgCopyOut.write(dateString.getBytes(clientEncoding));
+                      data.pgOutputStream.write(dateString.getBytes(clientEncoding));
                     }
                   }
                   break;
@@ -331,7 +403,7 @@ public class PGBulkLoader extends BaseTransform<PGBulkLoaderMeta, PGBulkLoaderDa
                 case PGBulkLoaderMeta.NR_DATE_MASK_DATE:
                   String dateString = data.dateMeta.getString(valueMeta.getDate(valueData));
                   if (dateString != null) {
-                    pgCopyOut.write(dateString.getBytes(clientEncoding));
+                    data.pgOutputStream.write(dateString.getBytes(clientEncoding));
                   }
                   break;
 
@@ -340,13 +412,14 @@ public class PGBulkLoader extends BaseTransform<PGBulkLoaderMeta, PGBulkLoaderDa
                 case PGBulkLoaderMeta.NR_DATE_MASK_DATETIME:
                   String dateTimeString = data.dateTimeMeta.getString(valueMeta.getDate(valueData));
                   if (dateTimeString != null) {
-                    pgCopyOut.write(dateTimeString.getBytes(clientEncoding));
+                    data.pgOutputStream.write(dateTimeString.getBytes(clientEncoding));
                   }
                   break;
 
                 default:
                   throw new HopException(
-                      "PGBulkLoader doesn't know how to handle date (neither passthrough, nor date or datetime for field "
+                      "PGBulkLoader doesn't know how to handle date (neither passthrough, nor date"
+                          + " or datetime for field "
                           + valueMeta.getName());
               }
               break;
@@ -358,11 +431,11 @@ public class PGBulkLoader extends BaseTransform<PGBulkLoaderMeta, PGBulkLoaderDa
                   //
                 case PGBulkLoaderMeta.NR_DATE_MASK_PASS_THROUGH:
                   if (valueMeta.isStorageBinaryString()) {
-                    pgCopyOut.write((byte[]) valueData);
+                    data.pgOutputStream.write((byte[]) valueData);
                   } else {
                     String dateString = valueMeta.getString(valueData);
                     if (dateString != null) {
-                      pgCopyOut.write(dateString.getBytes(clientEncoding));
+                      data.pgOutputStream.write(dateString.getBytes(clientEncoding));
                     }
                   }
                   break;
@@ -372,7 +445,7 @@ public class PGBulkLoader extends BaseTransform<PGBulkLoaderMeta, PGBulkLoaderDa
                 case PGBulkLoaderMeta.NR_DATE_MASK_DATE:
                   String dateString = data.dateMeta.getString(valueMeta.getDate(valueData));
                   if (dateString != null) {
-                    pgCopyOut.write(dateString.getBytes(clientEncoding));
+                    data.pgOutputStream.write(dateString.getBytes(clientEncoding));
                   }
                   break;
 
@@ -381,39 +454,40 @@ public class PGBulkLoader extends BaseTransform<PGBulkLoaderMeta, PGBulkLoaderDa
                 case PGBulkLoaderMeta.NR_DATE_MASK_DATETIME:
                   String dateTimeString = data.dateTimeMeta.getString(valueMeta.getDate(valueData));
                   if (dateTimeString != null) {
-                    pgCopyOut.write(dateTimeString.getBytes(clientEncoding));
+                    data.pgOutputStream.write(dateTimeString.getBytes(clientEncoding));
                   }
                   break;
 
                 default:
                   throw new HopException(
-                      "PGBulkLoader doesn't know how to handle timestamp (neither passthrough, nor date or datetime for field "
+                      "PGBulkLoader doesn't know how to handle timestamp (neither passthrough, nor"
+                          + " date or datetime for field "
                           + valueMeta.getName());
               }
               break;
             case IValueMeta.TYPE_BOOLEAN:
               if (valueMeta.isStorageBinaryString()) {
-                pgCopyOut.write((byte[]) valueData);
+                data.pgOutputStream.write((byte[]) valueData);
               } else {
-                pgCopyOut.write(
+                data.pgOutputStream.write(
                     Double.toString(valueMeta.getNumber(valueData)).getBytes(clientEncoding));
               }
               break;
             case IValueMeta.TYPE_NUMBER:
               if (valueMeta.isStorageBinaryString()) {
-                pgCopyOut.write((byte[]) valueData);
+                data.pgOutputStream.write((byte[]) valueData);
               } else {
-                pgCopyOut.write(
+                data.pgOutputStream.write(
                     Double.toString(valueMeta.getNumber(valueData)).getBytes(clientEncoding));
               }
               break;
             case IValueMeta.TYPE_BIGNUMBER:
               if (valueMeta.isStorageBinaryString()) {
-                pgCopyOut.write((byte[]) valueData);
+                data.pgOutputStream.write((byte[]) valueData);
               } else {
                 BigDecimal big = valueMeta.getBigNumber(valueData);
                 if (big != null) {
-                  pgCopyOut.write(big.toString().getBytes(clientEncoding));
+                  data.pgOutputStream.write(big.toString().getBytes(clientEncoding));
                 }
               }
               break;
@@ -422,11 +496,11 @@ public class PGBulkLoader extends BaseTransform<PGBulkLoaderMeta, PGBulkLoaderDa
               // UUID supports
               if (valueMeta.getType() == ValueMetaFactory.getIdForValueMeta("UUID")) {
                 if (valueMeta.isStorageBinaryString()) {
-                  pgCopyOut.write((byte[]) valueData);
+                  data.pgOutputStream.write((byte[]) valueData);
                 } else {
                   String s = valueMeta.getString(valueData);
                   if (s != null) {
-                    pgCopyOut.write(s.getBytes(clientEncoding));
+                    data.pgOutputStream.write(s.getBytes(clientEncoding));
                   }
                 }
               } else {
@@ -439,7 +513,7 @@ public class PGBulkLoader extends BaseTransform<PGBulkLoaderMeta, PGBulkLoaderDa
 
       // Now write a newline
       //
-      pgCopyOut.write(data.newline);
+      data.pgOutputStream.write(data.newline);
     } catch (Exception e) {
       throw new HopException("Error serializing rows of data to the COPY command", e);
     }
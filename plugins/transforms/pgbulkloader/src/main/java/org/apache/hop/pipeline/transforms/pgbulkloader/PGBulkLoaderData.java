@@ -41,6 +41,9 @@ public class PGBulkLoaderData extends BaseTransformData implements ITransformDat
 
   public OutputStream pgOutputStream;
 
+  /** Writes the rows in the binary format, null for CSV */
+  PGCopyBinaryWriter binaryWriter;
+
   public byte[] quote;
   public byte[] separator;
   public byte[] newline;
@@ -78,6 +78,8 @@ public class PGBulkLoaderDialog extends BaseTransformDialog {
 
   private CCombo wLoadAction;
 
+  private CCombo wFormat;
+
   private TableView wReturn;
 
   private TextVar wEnclosure;
@@ -248,6 +250,28 @@ public class PGBulkLoaderDialog extends BaseTransformDialog {
     fdLoadAction.right = new FormAttachment(100, 0);
     wLoadAction.setLayoutData(fdLoadAction);
 
+    // Format line
+    Label wlFormat = new Label(shell, SWT.RIGHT);
+    wlFormat.setText(BaseMessages.getString(PKG, "PGBulkLoaderDialog.Format.Label"));
+    PropsUi.setLook(wlFormat);
+    FormData fdlFormat = new FormData();
+    fdlFormat.left = new FormAttachment(0, 0);
+    fdlFormat.right = new FormAttachment(middle, -margin);
+    fdlFormat.top = new FormAttachment(wLoadAction, margin);
+    wlFormat.setLayoutData(fdlFormat);
+    wFormat = new CCombo(shell, SWT.SINGLE | SWT.READ_ONLY | SWT.BORDER);
+    wFormat.add(BaseMessages.getString(PKG, "PGBulkLoaderDialog.CsvFormat.Label"));
+    wFormat.add(BaseMessages.getString(PKG, "PGBulkLoaderDialog.BinaryFormat.Label"));
+    wFormat.select(0);
+    wFormat.addModifyListener(lsMod);
+    wFormat.addListener(SWT.Selection, e -> setFormatFlags());
+    PropsUi.setLook(wFormat);
+    FormData fdFormat = new FormData();
+    fdFormat.left = new FormAttachment(middle, 0);
+    fdFormat.top = new FormAttachment(wLoadAction, margin);
+    fdFormat.right = new FormAttachment(100, 0);
+    wFormat.setLayoutData(fdFormat);
+
     // Db Name Override line
     Label wlDbNameOverride = new Label(shell, SWT.RIGHT);
     wlDbNameOverride.setText(
@@ -255,7 +279,7 @@ public class PGBulkLoaderDialog extends BaseTransformDialog {
     PropsUi.setLook(wlDbNameOverride);
     FormData fdlDbNameOverride = new FormData();
     fdlDbNameOverride.left = new FormAttachment(0, 0);
-    fdlDbNameOverride.top = new FormAttachment(wLoadAction, margin);
+    fdlDbNameOverride.top = new FormAttachment(wFormat, margin);
     fdlDbNameOverride.right = new FormAttachment(middle, -margin);
     wlDbNameOverride.setLayoutData(fdlDbNameOverride);
     wDbNameOverride = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
@@ -263,7 +287,7 @@ public class PGBulkLoaderDialog extends BaseTransformDialog {
     wDbNameOverride.addModifyListener(lsMod);
     FormData fdDbNameOverride = new FormData();
     fdDbNameOverride.left = new FormAttachment(middle, 0);
-    fdDbNameOverride.top = new FormAttachment(wLoadAction, margin);
+    fdDbNameOverride.top = new FormAttachment(wFormat, margin);
     fdDbNameOverride.right = new FormAttachment(100, 0);
     wDbNameOverride.setLayoutData(fdDbNameOverride);
 
@@ -454,6 +478,13 @@ public class PGBulkLoaderDialog extends BaseTransformDialog {
     return transformName;
   }
 
+  /** The enclosure and delimiter are only used in the CSV format */
+  private void setFormatFlags() {
+    boolean csv = wFormat.getSelectionIndex() != 1;
+    wEnclosure.setEnabled(csv);
+    wDelimiter.setEnabled(csv);
+  }
+
   /** Copy information from the meta-data input to the dialog fields. */
   public void getData() {
     logDebug(BaseMessages.getString(PKG, "PGBulkLoaderDialog.Log.GettingKeyInfo"));
@@ -515,6 +546,9 @@ public class PGBulkLoaderDialog extends BaseTransformDialog {
       wLoadAction.select(0);
     }
 
+    wFormat.select(PGBulkLoaderMeta.FORMAT_BINARY.equals(input.getFormat()) ? 1 : 0);
+    setFormatFlags();
+
     wReturn.setRowNums();
     wReturn.optWidth(true);
 
@@ -716,6 +750,10 @@ public class PGBulkLoaderDialog extends BaseTransformDialog {
     inf.setDelimiter(wDelimiter.getText());
     inf.setEnclosure(wEnclosure.getText());
     inf.setStopOnError(wStopOnError.getSelection());
+    inf.setFormat(
+        wFormat.getSelectionIndex() == 1
+            ? PGBulkLoaderMeta.FORMAT_BINARY
+            : PGBulkLoaderMeta.FORMAT_CSV);
 
     /*
      * /* Set the loadaction
@@ -110,6 +110,12 @@ public class PGBulkLoaderMeta extends BaseTransformMeta<PGBulkLoader, PGBulkLoad
       injectionKeyDescription = "PGBulkLoader.Injection.Enclosure.Label")
   private String enclosure;
 
+  /** The format of the rows sent to the COPY command: CSV or BINARY */
+  @HopMetadataProperty(
+      key = "format",
+      injectionKeyDescription = "PGBulkLoader.Injection.Format.Label")
+  private String format;
+
   /** Stop On Error */
   @HopMetadataProperty(
       key = "stop_on_error",
@@ -129,6 +135,12 @@ public class PGBulkLoaderMeta extends BaseTransformMeta<PGBulkLoader, PGBulkLoad
   public static final String DATE_MASK_DATE = "DATE";
   public static final String DATE_MASK_DATETIME = "DATETIME";
 
+  /*
+   * Do not translate following values!!! They are will end up in the workflow export.
+   */
+  public static final String FORMAT_CSV = "CSV";
+  public static final String FORMAT_BINARY = "BINARY";
+
   public static final int NR_DATE_MASK_PASS_THROUGH = 0;
   public static final int NR_DATE_MASK_DATE = 1;
   public static final int NR_DATE_MASK_DATETIME = 2;
@@ -145,6 +157,7 @@ public class PGBulkLoaderMeta extends BaseTransformMeta<PGBulkLoader, PGBulkLoad
     dbNameOverride = "";
     delimiter = ";";
     enclosure = "\"";
+    format = FORMAT_CSV;
     stopOnError = false;
     mappings = new ArrayList<>();
   }
@@ -518,6 +531,14 @@ public class PGBulkLoaderMeta extends BaseTransformMeta<PGBulkLoader, PGBulkLoad
     this.enclosure = enclosure;
   }
 
+  public String getFormat() {
+    return format;
+  }
+
+  public void setFormat(String format) {
+    this.format = format;
+  }
+
   public boolean isStopOnError() {
     return this.stopOnError;
   }
@@ -0,0 +1,457 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.pgbulkloader;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.TimeZone;
+import java.util.UUID;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+
+/**
+ * Writes rows in the binary format of the PostgreSQL COPY command. The values are encoded straight
+ * from their Java objects into a buffer of its own, in the binary representation of the type of
+ * their column. The types have to match the columns exactly, PostgreSQL doesn't convert binary
+ * values.
+ *
+ * <p>See <a href="https://www.postgresql.org/docs/current/sql-copy.html">the binary format</a>
+ */
+class PGCopyBinaryWriter {
+
+  /** The column types which can be written, by the name PostgreSQL gives them */
+  enum ColumnType {
+    INT2("int2", "smallint", "smallserial"),
+    INT4("int4", "integer", "serial"),
+    INT8("int8", "bigint", "bigserial"),
+    FLOAT4("float4", "real"),
+    FLOAT8("float8", "double precision"),
+    NUMERIC("numeric", "decimal"),
+    BOOL("bool", "boolean"),
+    TEXT("text", "varchar", "bpchar", "char", "name", "citext", "json"),
+    JSONB("jsonb"),
+    BYTEA("bytea"),
+    DATE("date"),
+    TIMESTAMP("timestamp"),
+    TIMESTAMPTZ("timestamptz"),
+    UUID("uuid");
+
+    private final String[] typeNames;
+
+    ColumnType(String... typeNames) {
+      this.typeNames = typeNames;
+    }
+
+    /**
+     * @param typeName the name of the type of a column
+     * @return the column type or null if the type can't be written
+     */
+    static ColumnType lookup(String typeName) {
+      if (typeName == null) {
+        return null;
+      }
+      for (ColumnType columnType : values()) {
+        for (String name : columnType.typeNames) {
+          if (name.equalsIgnoreCase(typeName)) {
+            return columnType;
+          }
+        }
+      }
+      return null;
+    }
+  }
+
+  private static final byte[] SIGNATURE = {
+    'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0
+  };
+
+  /** Milliseconds between 1970-01-01 and 2000-01-01, the epoch of PostgreSQL */
+  private static final long PG_EPOCH_MILLIS = 946684800000L;
+
+  private static final long PG_EPOCH_DAYS = 10957L;
+  private static final long MILLIS_PER_DAY = 86400000L;
+
+  private static final int DEFAULT_BUFFER_SIZE = 65536;
+
+  private final OutputStream out;
+  private final Charset charset;
+  private final boolean utf8;
+  private final TimeZone timeZone;
+  private final ColumnType[] columnTypes;
+  private final byte[] buffer;
+  private int position;
+
+  /**
+   * @param out the stream to write the rows to
+   * @param charset the client encoding of the connection, the encoding of text values
+   * @param columnTypes the types of the columns the values are written to
+   */
+  PGCopyBinaryWriter(OutputStream out, Charset charset, ColumnType[] columnTypes) {
+    this(out, charset, columnTypes, DEFAULT_BUFFER_SIZE);
+  }
+
+  PGCopyBinaryWriter(OutputStream out, Charset charset, ColumnType[] columnTypes, int bufferSize) {
+    this.out = out;
+    this.charset = charset;
+    this.utf8 = StandardCharsets.UTF_8.equals(charset);
+    this.timeZone = TimeZone.getDefault();
+    this.columnTypes = columnTypes;
+    this.buffer = new byte[Math.max(bufferSize, 64)];
+  }
+
+  /** Write the signature, the flags and the length of the header extension */
+  void writeHeader() throws IOException {
+    ensure(SIGNATURE.length + 8);
+    System.arraycopy(SIGNATURE, 0, buffer, position, SIGNATURE.length);
+    position += SIGNATURE.length;
+    putInt(0);
+    putInt(0);
+  }
+
+  /**
+   * Write a row
+   *
+   * @param rowMeta the layout of the row
+   * @param row the row
+   * @param fieldIndexes the indexes of the values to write in the row, one per column
+   * @throws HopValueException in case a value can't be converted to the type of its column
+   * @throws IOException in case the row can't be written
+   */
+  void writeRow(IRowMeta rowMeta, Object[] row, int[] fieldIndexes)
+      throws HopValueException, IOException {
+    ensure(2);
+    putShort(fieldIndexes.length);
+    for (int i = 0; i < fieldIndexes.length; i++) {
+      IValueMeta valueMeta = rowMeta.getValueMeta(fieldIndexes[i]);
+      Object value = row[fieldIndexes[i]];
+      if (valueMeta.isNull(value)) {
+        ensure(4);
+        putInt(-1);
+      } else {
+        writeValue(columnTypes[i], valueMeta, value);
+      }
+    }
+  }
+
+  /** Write the end of the data and pass all the buffered rows on */
+  void writeTrailer() throws IOException {
+    ensure(2);
+    putShort(-1);
+    flush();
+  }
+
+  /** Pass the buffered rows on to the stream */
+  void flush() throws IOException {
+    if (position > 0) {
+      out.write(buffer, 0, position);
+      position = 0;
+    }
+  }
+
+  private void writeValue(ColumnType columnType, IValueMeta valueMeta, Object value)
+      throws HopValueException, IOException {
+    switch (columnType) {
+      case INT2:
+        ensure(6);
+        putInt(2);
+        putShort(
+            (int)
+                checkRange(
+                    valueMeta, valueMeta.getInteger(value), Short.MIN_VALUE, Short.MAX_VALUE));
+        break;
+      case INT4:
+        ensure(8);
+        putInt(4);
+        putInt(
+            (int)
+                checkRange(
+                    valueMeta, valueMeta.getInteger(value), Integer.MIN_VALUE, Integer.MAX_VALUE));
+        break;
+      case INT8:
+        ensure(12);
+        putInt(8);
+        putLong(valueMeta.getInteger(value));
+        break;
+      case FLOAT4:
+        ensure(8);
+        putInt(4);
+        putInt(Float.floatToIntBits(valueMeta.getNumber(value).floatValue()));
+        break;
+      case FLOAT8:
+        ensure(12);
+        putInt(8);
+        putLong(Double.doubleToLongBits(valueMeta.getNumber(value)));
+        break;
+      case NUMERIC:
+        writeNumeric(valueMeta.getBigNumber(value));
+        break;
+      case BOOL:
+        ensure(5);
+        putInt(1);
+        buffer[position++] = Boolean.TRUE.equals(valueMeta.getBoolean(value)) ? (byte) 1 : 0;
+        break;
+      case TEXT:
+        writeText(valueMeta.getString(value), false);
+        break;
+      case JSONB:
+        writeText(valueMeta.getString(value), true);
+        break;
+      case BYTEA:
+        writeBytes(valueMeta.getBinary(value));
+        break;
+      case DATE:
+        {
+          long millis = valueMeta.getDate(value).getTime();
+          ensure(8);
+          putInt(4);
+          putInt(
+              (int)
+                  (Math.floorDiv(millis + timeZone.getOffset(millis), MILLIS_PER_DAY)
+                      - PG_EPOCH_DAYS));
+        }
+        break;
+      case TIMESTAMP:
+        {
+          // Without time zone: the local date and time, like the text format
+          Date date = valueMeta.getDate(value);
+          ensure(12);
+          putInt(8);
+          putLong(toMicros(date, timeZone.getOffset(date.getTime())));
+        }
+        break;
+      case TIMESTAMPTZ:
+        ensure(12);
+        putInt(8);
+        putLong(toMicros(valueMeta.getDate(value), 0));
+        break;
+      case UUID:
+        {
+          UUID uuid =
+              value instanceof UUID u ? u : java.util.UUID.fromString(valueMeta.getString(value));
+          ensure(20);
+          putInt(16);
+          putLong(uuid.getMostSignificantBits());
+          putLong(uuid.getLeastSignificantBits());
+        }
+        break;
+      default:
+        throw new HopValueException("Unsupported column type " + columnType);
+    }
+  }
+
+  private static long checkRange(IValueMeta valueMeta, long value, long min, long max)
+      throws HopValueException {
+    if (value < min || value > max) {
+      throw new HopValueException(
+          "Value " + value + " of field " + valueMeta.getName() + " is out of range");
+    }
+    return value;
+  }
+
+  /** Microseconds since the epoch of PostgreSQL, with the microseconds of a timestamp */
+  private static long toMicros(Date date, long offset) {
+    long millis = date.getTime() + offset - PG_EPOCH_MILLIS;
+    if (date instanceof Timestamp timestamp) {
+      return Math.floorDiv(millis, 1000L) * 1000000L + timestamp.getNanos() / 1000;
+    }
+    return millis * 1000L;
+  }
+
+  /**
+   * Write a text value in the client encoding. UTF-8 is encoded straight into the buffer, the
+   * length is filled in afterwards.
+   */
+  private void writeText(String string, boolean jsonb) throws IOException {
+    int prefix = jsonb ? 1 : 0;
+    int maxLength = string.length() * 3 + prefix;
+    if (!utf8 || maxLength + 4 > buffer.length) {
+      byte[] bytes = string.getBytes(charset);
+      ensure(4 + prefix);
+      putInt(bytes.length + prefix);
+      if (jsonb) {
+        buffer[position++] = 1;
+      }
+      writeRaw(bytes);
+      return;
+    }
+
+    ensure(maxLength + 4);
+    int lengthPosition = position;
+    position += 4;
+    if (jsonb) {
+      buffer[position++] = 1; // The version of the jsonb format
+    }
+    int start = position;
+    for (int i = 0; i < string.length(); i++) {
+      char c = string.charAt(i);
+      if (c < 0x80) {
+        buffer[position++] = (byte) c;
+      } else if (c < 0x800) {
+        buffer[position++] = (byte) (0xC0 | (c >> 6));
+        buffer[position++] = (byte) (0x80 | (c & 0x3F));
+      } else if (Character.isHighSurrogate(c)
+          && i + 1 < string.length()
+          && Character.isLowSurrogate(string.charAt(i + 1))) {
+        // 4 bytes for 2 chars, the 6 reserved bytes are enough
+        int codePoint = Character.toCodePoint(c, string.charAt(++i));
+        buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+        buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+        buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+        buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+      } else if (Character.isSurrogate(c)) {
+        buffer[position++] = '?'; // Like String.getBytes() does with a lone surrogate
+      } else {
+        buffer[position++] = (byte) (0xE0 | (c >> 12));
+        buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+        buffer[position++] = (byte) (0x80 | (c & 0x3F));
+      }
+    }
+    int length = position - start + prefix;
+    int end = position;
+    position = lengthPosition;
+    putInt(length);
+    position = end;
+  }
+
+  private void writeBytes(byte[] bytes) throws IOException {
+    ensure(4);
+    putInt(bytes.length);
+    writeRaw(bytes);
+  }
+
+  /** Large values are written straight to the stream */
+  private void writeRaw(byte[] bytes) throws IOException {
+    if (bytes.length > buffer.length - position) {
+      flush();
+      if (bytes.length > buffer.length) {
+        out.write(bytes);
+        return;
+      }
+    }
+    System.arraycopy(bytes, 0, buffer, position, bytes.length);
+    position += bytes.length;
+  }
+
+  /**
+   * A numeric is written as base 10000 digits, most significant first: the number of digits, the
+   * weight of the first digit, the sign and the number of decimals to display.
+   */
+  private void writeNumeric(BigDecimal value) throws IOException {
+    int displayScale = Math.max(value.scale(), 0);
+    int sign = value.signum() < 0 ? 0x4000 : 0;
+
+    // Scale the unscaled value so the decimals are a whole number of base 10000 digits
+    //
+    BigInteger unscaled = value.unscaledValue().abs();
+    int scale = value.scale();
+    if (scale < 0) {
+      unscaled = unscaled.multiply(BigInteger.TEN.pow(-scale));
+      scale = 0;
+    }
+    int padding = (4 - scale % 4) % 4;
+    if (padding > 0) {
+      unscaled = unscaled.multiply(BigInteger.TEN.pow(padding));
+      scale += padding;
+    }
+
+    // The digits, least significant first
+    //
+    short[] digits = new short[unscaled.bitLength() / 13 + 2];
+    int nrDigits = 0;
+    if (unscaled.bitLength() < 63) {
+      long rest = unscaled.longValue();
+      while (rest != 0) {
+        digits[nrDigits++] = (short) (rest % 10000);
+        rest /= 10000;
+      }
+    } else {
+      BigInteger tenThousand = BigInteger.valueOf(10000);
+      BigInteger rest = unscaled;
+      while (rest.signum() != 0) {
+        BigInteger[] qr = rest.divideAndRemainder(tenThousand);
+        digits[nrDigits++] = qr[1].shortValue();
+        rest = qr[0];
+      }
+    }
+    int weight = nrDigits - 1 - scale / 4;
+
+    // Trailing zero digits are left out
+    //
+    int first = 0;
+    while (first < nrDigits && digits[first] == 0) {
+      first++;
+    }
+    int count = nrDigits - first;
+    if (count == 0) {
+      weight = 0;
+      sign = 0;
+    }
+
+    if (12 + count * 2 > buffer.length) {
+      // Thousands of digits, rare enough to allocate
+      ByteBuffer bytes = ByteBuffer.allocate(8 + count * 2);
+      bytes.putShort((short) count).putShort((short) weight);
+      bytes.putShort((short) sign).putShort((short) displayScale);
+      for (int i = nrDigits - 1; i >= first; i--) {
+        bytes.putShort(digits[i]);
+      }
+      writeBytes(bytes.array());
+      return;
+    }
+    ensure(12 + count * 2);
+    putInt(8 + count * 2);
+    putShort(count);
+    putShort(weight);
+    putShort(sign);
+    putShort(displayScale);
+    for (int i = nrDigits - 1; i >= first; i--) {
+      putShort(digits[i]);
+    }
+  }
+
+  private void ensure(int size) throws IOException {
+    if (position + size > buffer.length) {
+      flush();
+    }
+  }
+
+  private void putShort(int value) {
+    buffer[position++] = (byte) (value >>> 8);
+    buffer[position++] = (byte) value;
+  }
+
+  private void putInt(int value) {
+    buffer[position++] = (byte) (value >>> 24);
+    buffer[position++] = (byte) (value >>> 16);
+    buffer[position++] = (byte) (value >>> 8);
+    buffer[position++] = (byte) value;
+  }
+
+  private void putLong(long value) {
+    putInt((int) (value >>> 32));
+    putInt((int) value);
+  }
+}
@@ -0,0 +1,233 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.pgbulkloader;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaBoolean;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.row.value.ValueMetaTimestamp;
+import org.apache.hop.pipeline.transforms.pgbulkloader.PGCopyBinaryWriter.ColumnType;
+import org.junit.jupiter.api.Test;
+
+class PGCopyBinaryWriterTest {
+
+  @Test
+  void testColumnTypeLookup() {
+    assertEquals(ColumnType.INT8, ColumnType.lookup("bigserial"));
+    assertEquals(ColumnType.TEXT, ColumnType.lookup("VARCHAR"));
+    assertEquals(ColumnType.TIMESTAMPTZ, ColumnType.lookup("timestamptz"));
+    assertNull(ColumnType.lookup("geometry"));
+    assertNull(ColumnType.lookup(null));
+  }
+
+  @Test
+  void testHeaderAndTrailer() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    PGCopyBinaryWriter writer =
+        new PGCopyBinaryWriter(out, StandardCharsets.UTF_8, new ColumnType[0]);
+    writer.writeHeader();
+    writer.writeTrailer();
+
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    DataOutputStream data = new DataOutputStream(expected);
+    data.write("PGCOPY\n".getBytes(StandardCharsets.US_ASCII));
+    data.write(new byte[] {(byte) 0xFF, '\r', '\n', 0});
+    data.writeInt(0);
+    data.writeInt(0);
+    data.writeShort(-1);
+    assertArrayEquals(expected.toByteArray(), out.toByteArray());
+  }
+
+  @Test
+  void testRow() throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("ignored"));
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaNumber("amount"));
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+    rowMeta.addValueMeta(new ValueMetaBoolean("flag"));
+    rowMeta.addValueMeta(new ValueMetaString("missing"));
+    Object[] row = {"x", 42L, 1.5, "Zo\u00eb \u20ac", Boolean.TRUE, null};
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    PGCopyBinaryWriter writer =
+        new PGCopyBinaryWriter(
+            out,
+            StandardCharsets.UTF_8,
+            new ColumnType[] {
+              ColumnType.INT8, ColumnType.FLOAT8, ColumnType.TEXT, ColumnType.BOOL, ColumnType.TEXT
+            });
+    writer.writeRow(rowMeta, row, new int[] {1, 2, 3, 4, 5});
+    writer.flush();
+
+    byte[] name = "Zo\u00eb \u20ac".getBytes(StandardCharsets.UTF_8);
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    DataOutputStream data = new DataOutputStream(expected);
+    data.writeShort(5);
+    data.writeInt(8);
+    data.writeLong(42L);
+    data.writeInt(8);
+    data.writeDouble(1.5);
+    data.writeInt(name.length);
+    data.write(name);
+    data.writeInt(1);
+    data.writeByte(1);
+    data.writeInt(-1);
+    assertArrayEquals(expected.toByteArray(), out.toByteArray());
+  }
+
+  @Test
+  void testNumeric() throws Exception {
+    // ndigits, weight, sign, dscale and the base 10000 digits
+    assertArrayEquals(numeric(2, 1, 0, 2, 1, 2345), writeNumeric("12345.00"));
+    assertArrayEquals(numeric(1, -1, 0, 4, 1), writeNumeric("0.0001"));
+    assertArrayEquals(numeric(2, 0, 0x4000, 2, 3, 1400), writeNumeric("-3.14"));
+    assertArrayEquals(numeric(1, 1, 0, 0, 1), writeNumeric("1E+4"));
+    assertArrayEquals(numeric(0, 0, 0, 2), writeNumeric("0.00"));
+    assertArrayEquals(
+        numeric(6, 5, 0, 0, 123, 4567, 8901, 2345, 6789, 123),
+        writeNumeric("12345678901234567890123"));
+  }
+
+  @Test
+  void testTimestamps() throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaTimestamp("ts"));
+    Timestamp timestamp = Timestamp.from(Instant.parse("2000-01-02T00:00:01.123456Z"));
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    PGCopyBinaryWriter writer =
+        new PGCopyBinaryWriter(
+            out, StandardCharsets.UTF_8, new ColumnType[] {ColumnType.TIMESTAMPTZ});
+    writer.writeRow(rowMeta, new Object[] {timestamp}, new int[] {0});
+    writer.flush();
+
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    DataOutputStream data = new DataOutputStream(expected);
+    data.writeShort(1);
+    data.writeInt(8);
+    data.writeLong(86401123456L);
+    assertArrayEquals(expected.toByteArray(), out.toByteArray());
+  }
+
+  @Test
+  void testUuid() throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("uuid"));
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    PGCopyBinaryWriter writer =
+        new PGCopyBinaryWriter(out, StandardCharsets.UTF_8, new ColumnType[] {ColumnType.UUID});
+    writer.writeRow(rowMeta, new Object[] {"00112233-4455-6677-8899-aabbccddeeff"}, new int[] {0});
+    writer.flush();
+
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    DataOutputStream data = new DataOutputStream(expected);
+    data.writeShort(1);
+    data.writeInt(16);
+    data.writeLong(0x0011223344556677L);
+    data.writeLong(0x8899AABBCCDDEEFFL);
+    assertArrayEquals(expected.toByteArray(), out.toByteArray());
+  }
+
+  @Test
+  void testOutOfRange() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    PGCopyBinaryWriter writer =
+        new PGCopyBinaryWriter(
+            new ByteArrayOutputStream(),
+            StandardCharsets.UTF_8,
+            new ColumnType[] {ColumnType.INT2});
+    assertThrows(
+        HopValueException.class,
+        () -> writer.writeRow(rowMeta, new Object[] {40000L}, new int[] {0}));
+  }
+
+  /** Values larger than the buffer are written straight to the stream, in the right order */
+  @Test
+  void testSmallBuffer() throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("text"));
+    String text = "abcdefghij".repeat(20);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    PGCopyBinaryWriter writer =
+        new PGCopyBinaryWriter(
+            out, StandardCharsets.ISO_8859_1, new ColumnType[] {ColumnType.TEXT}, 64);
+    writer.writeRow(rowMeta, new Object[] {text}, new int[] {0});
+    writer.writeRow(rowMeta, new Object[] {text}, new int[] {0});
+    writer.flush();
+
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    DataOutputStream data = new DataOutputStream(expected);
+    for (int i = 0; i < 2; i++) {
+      data.writeShort(1);
+      data.writeInt(text.length());
+      data.write(text.getBytes(StandardCharsets.ISO_8859_1));
+    }
+    assertArrayEquals(expected.toByteArray(), out.toByteArray());
+  }
+
+  private static byte[] writeNumeric(String value) throws IOException, HopValueException {
+    IRowMeta rowMeta = new RowMeta();
+    IValueMeta valueMeta = new ValueMetaBigNumber("number");
+    rowMeta.addValueMeta(valueMeta);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    PGCopyBinaryWriter writer =
+        new PGCopyBinaryWriter(out, StandardCharsets.UTF_8, new ColumnType[] {ColumnType.NUMERIC});
+    writer.writeRow(rowMeta, new Object[] {new BigDecimal(value)}, new int[] {0});
+    writer.flush();
+    return out.toByteArray();
+  }
+
+  private static byte[] numeric(int nrDigits, int weight, int sign, int scale, int... digits)
+      throws IOException {
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    DataOutputStream data = new DataOutputStream(expected);
+    data.writeShort(1);
+    data.writeInt(8 + digits.length * 2);
+    data.writeShort(nrDigits);
+    data.writeShort(weight);
+    data.writeShort(sign);
+    data.writeShort(scale);
+    for (int digit : digits) {
+      data.writeShort(digit);
+    }
+    return expected.toByteArray();
+  }
+}
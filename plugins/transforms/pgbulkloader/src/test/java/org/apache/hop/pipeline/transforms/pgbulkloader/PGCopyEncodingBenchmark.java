@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.pgbulkloader;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.row.value.ValueMetaTimestamp;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.apache.hop.pipeline.transforms.pgbulkloader.PGCopyBinaryWriter.ColumnType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the cost of encoding wide rows for the COPY command in the CSV format with the binary
+ * format. Every row has 40 integer, number, big number, timestamp and string fields. The rows are
+ * written to a stream which only counts the bytes, so the database and the network are left out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PGCopyEncodingBenchmark {
+
+  private static final int NR_ROWS = 1000;
+
+  private TransformMockHelper<PGBulkLoaderMeta, PGBulkLoaderData> mockHelper;
+  private IRowMeta rowMeta;
+  private List<Object[]> rows;
+  private final CountingOutputStream sink = new CountingOutputStream();
+  private PGBulkLoader textLoader;
+  private PGBulkLoader binaryLoader;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    mockHelper =
+        new TransformMockHelper<>(
+            "PostgreSQL Bulk Loader", PGBulkLoaderMeta.class, PGBulkLoaderData.class);
+    when(mockHelper.logChannelFactory.create(any(), any(ILoggingObject.class)))
+        .thenReturn(mockHelper.iLogChannel);
+
+    rowMeta = new RowMeta();
+    List<ColumnType> columnTypes = new ArrayList<>();
+    List<Integer> dateFormatChoices = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      rowMeta.addValueMeta(new ValueMetaInteger("integer" + i));
+      columnTypes.add(ColumnType.INT8);
+      dateFormatChoices.add(PGBulkLoaderMeta.NR_DATE_MASK_PASS_THROUGH);
+    }
+    for (int i = 0; i < 10; i++) {
+      rowMeta.addValueMeta(new ValueMetaNumber("number" + i));
+      columnTypes.add(ColumnType.FLOAT8);
+      dateFormatChoices.add(PGBulkLoaderMeta.NR_DATE_MASK_PASS_THROUGH);
+    }
+    for (int i = 0; i < 5; i++) {
+      rowMeta.addValueMeta(new ValueMetaBigNumber("bignumber" + i));
+      columnTypes.add(ColumnType.NUMERIC);
+      dateFormatChoices.add(PGBulkLoaderMeta.NR_DATE_MASK_PASS_THROUGH);
+    }
+    for (int i = 0; i < 5; i++) {
+      rowMeta.addValueMeta(new ValueMetaTimestamp("timestamp" + i));
+      columnTypes.add(ColumnType.TIMESTAMP);
+      dateFormatChoices.add(PGBulkLoaderMeta.NR_DATE_MASK_DATETIME);
+    }
+    for (int i = 0; i < 10; i++) {
+      rowMeta.addValueMeta(new ValueMetaString("string" + i));
+      columnTypes.add(ColumnType.TEXT);
+      dateFormatChoices.add(PGBulkLoaderMeta.NR_DATE_MASK_PASS_THROUGH);
+    }
+
+    Random random = new Random(42L);
+    rows = new ArrayList<>(NR_ROWS);
+    for (int r = 0; r < NR_ROWS; r++) {
+      Object[] row = new Object[rowMeta.size()];
+      int index = 0;
+      for (int i = 0; i < 10; i++) {
+        row[index++] = random.nextLong();
+      }
+      for (int i = 0; i < 10; i++) {
+        row[index++] = random.nextDouble() * 1000000;
+      }
+      for (int i = 0; i < 5; i++) {
+        row[index++] = BigDecimal.valueOf(random.nextInt(), 4);
+      }
+      for (int i = 0; i < 5; i++) {
+        row[index++] = new Timestamp(1700000000000L + random.nextInt());
+      }
+      for (int i = 0; i < 10; i++) {
+        row[index++] = "value " + random.nextInt() + " of row " + r;
+      }
+      rows.add(row);
+    }
+
+    int[] keynrs = new int[rowMeta.size()];
+    Arrays.setAll(keynrs, i -> i);
+
+    PGBulkLoaderData textData = new PGBulkLoaderData();
+    textData.keynrs = keynrs;
+    textData.dateFormatChoices = dateFormatChoices.stream().mapToInt(Integer::intValue).toArray();
+    textData.quote = "\"".getBytes();
+    textData.separator = ";".getBytes();
+    textData.newline = Const.CR.getBytes();
+    textData.pgOutputStream = sink;
+    textLoader = newLoader(textData);
+
+    PGBulkLoaderData binaryData = new PGBulkLoaderData();
+    binaryData.keynrs = keynrs;
+    binaryData.binaryWriter =
+        new PGCopyBinaryWriter(
+            sink, StandardCharsets.UTF_8, columnTypes.toArray(new ColumnType[0]));
+    binaryLoader = newLoader(binaryData);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    mockHelper.cleanUp();
+  }
+
+  private PGBulkLoader newLoader(PGBulkLoaderData data) {
+    return new PGBulkLoader(
+        mockHelper.transformMeta,
+        mockHelper.iTransformMeta,
+        data,
+        0,
+        mockHelper.pipelineMeta,
+        mockHelper.pipeline);
+  }
+
+  @Benchmark
+  public long text() throws HopException {
+    for (Object[] row : rows) {
+      textLoader.writeRowToPostgres(rowMeta, row);
+    }
+    return sink.count;
+  }
+
+  @Benchmark
+  public long binary() throws HopException {
+    for (Object[] row : rows) {
+      binaryLoader.writeRowToPostgres(rowMeta, row);
+    }
+    return sink.count;
+  }
+
+  /** Only counts the bytes written, like a connection which is never slow */
+  private static final class CountingOutputStream extends OutputStream {
+    private long count;
+
+    @Override
+    public void write(int b) {
+      count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      count += len;
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(PGCopyEncodingBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
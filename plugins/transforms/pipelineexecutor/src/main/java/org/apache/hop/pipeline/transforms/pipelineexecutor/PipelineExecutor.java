@@ -21,6 +21,7 @@ import com.google.common.annotations.VisibleForTesting;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -39,11 +40,15 @@ import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.RowProducer;
+import org.apache.hop.pipeline.SingleThreadedPipelineExecutor;
 import org.apache.hop.pipeline.TransformWithMappingMeta;
 import org.apache.hop.pipeline.engine.IPipelineEngine;
 import org.apache.hop.pipeline.engine.PipelineEngineFactory;
+import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.injector.InjectorMeta;
 
 /** Execute a pipeline for every input row, set parameters. */
 public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, PipelineExecutorData> {
@@ -75,6 +80,7 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
 
       if (row == null) {
         executePipeline(null);
+        disposeReusedPipeline();
         setOutputDone();
         return false;
       }
@@ -226,19 +232,38 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
       discardLogLines(pipelineExecutorData);
     }
 
-    IPipelineEngine<PipelineMeta> executorPipeline = createInternalPipeline();
-    pipelineExecutorData.setExecutorPipeline(executorPipeline);
-    if (incomingFieldValues != null) {
-      // Pass parameter values
-      passParametersToPipeline(incomingFieldValues);
-    } else {
+    if (incomingFieldValues == null) {
       List<String> lastIncomingFieldValues = getLastIncomingFieldValues();
       // incomingFieldValues == null-  There are no more rows - Last Case - pass previous values if
       // exists
       // If not still pass the null parameter values
-      passParametersToPipeline(
-          !Utils.isEmpty(lastIncomingFieldValues) ? lastIncomingFieldValues : incomingFieldValues);
+      if (!Utils.isEmpty(lastIncomingFieldValues)) {
+        incomingFieldValues = lastIncomingFieldValues;
+      }
     }
+    Map<String, String> parameterValues = getParameterValues(incomingFieldValues);
+
+    Result result = null;
+    if (meta.isReusingPipeline() && !pipelineExecutorData.reuseImpossible) {
+      result = executeReusedPipeline(parameterValues);
+    }
+    if (result == null) {
+      result = executeNewPipeline(parameterValues);
+    }
+
+    collectPipelineResults(result);
+    collectExecutionResults(result);
+    collectExecutionResultFiles(result);
+
+    pipelineExecutorData.groupBuffer.clear();
+  }
+
+  /** Starts a new pipeline for the rows of the group buffer and waits until it is finished */
+  private Result executeNewPipeline(Map<String, String> parameterValues) throws HopException {
+    PipelineExecutorData pipelineExecutorData = getData();
+    IPipelineEngine<PipelineMeta> executorPipeline = createInternalPipeline();
+    pipelineExecutorData.setExecutorPipeline(executorPipeline);
+    passParametersToPipeline(parameterValues);
 
     // keep track for drill down in HopGui...
     getPipeline().addActiveSubPipeline(getTransformName(), executorPipeline);
@@ -262,12 +287,172 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
       result.setResult(false);
       result.setNrErrors(1);
     }
+    return result;
+  }
 
-    collectPipelineResults(result);
-    collectExecutionResults(result);
-    collectExecutionResultFiles(result);
+  /**
+   * Passes the rows of the group buffer through the pipeline kept running between the groups. The
+   * pipeline is started for the first group and started again when the parameter values change, so
+   * that the transforms see the values of the group. It processes all the rows of a group in one
+   * iteration, at the end of which the transforms are told that the group is complete.
+   *
+   * @return the result of the group or null if the pipeline can't be kept running
+   */
+  private Result executeReusedPipeline(Map<String, String> parameterValues) throws HopException {
+    PipelineExecutorData pipelineExecutorData = getData();
+    if (pipelineExecutorData.getReusedExecutor() != null
+        && !parameterValues.equals(pipelineExecutorData.getReusedParameterValues())) {
+      disposeReusedPipeline();
+    }
+    if (pipelineExecutorData.getReusedExecutor() == null) {
+      LocalPipelineEngine reusedPipeline = createReusedPipeline(parameterValues);
+      if (reusedPipeline == null) {
+        return null;
+      }
+      try {
+        startReusedPipeline(reusedPipeline, parameterValues);
+      } catch (HopException e) {
+        logError("An error occurred starting the pipeline: ", e);
+        return getErrorResult();
+      }
+    }
 
-    pipelineExecutorData.groupBuffer.clear();
+    SingleThreadedPipelineExecutor executor = pipelineExecutorData.getReusedExecutor();
+    Pipeline reusedPipeline = executor.getPipeline();
+    Result result;
+    try {
+      RowProducer rowProducer = pipelineExecutorData.getReusedRowProducer();
+      for (RowMetaAndData row : pipelineExecutorData.groupBuffer) {
+        rowProducer.putRow(row.getRowMeta(), row.getData());
+      }
+      executor.oneIteration();
+
+      // The metrics and the result rows of this group only
+      //
+      result = reusedPipeline.getResult();
+      result.setRows(new ArrayList<>(reusedPipeline.getResultRows()));
+      reusedPipeline.getResultRows().clear();
+      result.getResultFiles().keySet().removeAll(pipelineExecutorData.getReusedResultFiles());
+      pipelineExecutorData.getReusedResultFiles().addAll(result.getResultFiles().keySet());
+      result.setResult(result.getNrErrors() == 0);
+      executor.buildExecutionSummary();
+    } catch (HopException e) {
+      logError("An error occurred executing the pipeline: ", e);
+      result = getErrorResult();
+    }
+
+    // Start with a fresh pipeline after an error
+    //
+    if (result.getNrErrors() > 0 || executor.isStopped()) {
+      disposeReusedPipeline();
+    }
+    return result;
+  }
+
+  /**
+   * Creates the pipeline to keep running between the groups. The rows of every group go to the
+   * Injector transform of the pipeline, other transforms which read data themselves would only do
+   * so for the first group.
+   *
+   * @return the pipeline or null if the pipeline can't be kept running, it is then started for
+   *     every group
+   */
+  private LocalPipelineEngine createReusedPipeline(Map<String, String> parameterValues)
+      throws HopException {
+    PipelineMeta reusedPipelineMeta = getData().getExecutorPipelineMeta();
+    String injectorName = null;
+    for (TransformMeta transformMeta : reusedPipelineMeta.getTransforms()) {
+      if (transformMeta.getTransform() instanceof InjectorMeta && injectorName == null) {
+        injectorName = transformMeta.getName();
+      } else if (reusedPipelineMeta.findPreviousTransforms(transformMeta, true).isEmpty()) {
+        return reuseImpossible(
+            "transform '" + transformMeta.getName() + "' doesn't read from an Injector transform");
+      }
+    }
+    if (injectorName == null) {
+      return reuseImpossible("there is no Injector transform to pass the rows to");
+    }
+
+    IPipelineEngine<PipelineMeta> executorPipeline = createInternalPipeline(reusedPipelineMeta);
+    if (!(executorPipeline instanceof LocalPipelineEngine reusedPipeline)) {
+      return reuseImpossible("it doesn't run on the local pipeline engine");
+    }
+    // This copy of the transform loaded the pipeline metadata, from now on it only runs it this way
+    //
+    reusedPipelineMeta.setPipelineType(PipelineMeta.PipelineType.SingleThreaded);
+    getData().setExecutorPipeline(reusedPipeline);
+    passParametersToPipeline(parameterValues);
+
+    // keep track for drill down in HopGui...
+    getPipeline().addActiveSubPipeline(getTransformName(), reusedPipeline);
+
+    return reusedPipeline;
+  }
+
+  private LocalPipelineEngine reuseImpossible(String reason) {
+    getData().reuseImpossible = true;
+    logBasic(
+        "The pipeline is started for every group of rows and not kept running because " + reason);
+    return null;
+  }
+
+  private void startReusedPipeline(
+      LocalPipelineEngine reusedPipeline, Map<String, String> parameterValues) throws HopException {
+    PipelineExecutorData pipelineExecutorData = getData();
+    String injectorName =
+        reusedPipeline.getPipelineMeta().getTransforms().stream()
+            .filter(transformMeta -> transformMeta.getTransform() instanceof InjectorMeta)
+            .findFirst()
+            .orElseThrow()
+            .getName();
+
+    reusedPipeline.setPreviousResult(new Result());
+    reusedPipeline.prepareExecution();
+    RowProducer rowProducer = reusedPipeline.addRowProducer(injectorName, 0);
+    reusedPipeline.startThreads();
+
+    // prepareExecution() initialized the transforms already, they stay initialized until the
+    // pipeline is disposed of
+    //
+    SingleThreadedPipelineExecutor executor = new SingleThreadedPipelineExecutor(reusedPipeline);
+    executor.setClearingMetricsPerIteration(true);
+    pipelineExecutorData.setReusedExecutor(executor);
+    pipelineExecutorData.setReusedRowProducer(rowProducer);
+    pipelineExecutorData.setReusedParameterValues(parameterValues);
+    pipelineExecutorData.setReusedResultFiles(new HashSet<>());
+    if (isDetailed()) {
+      logDetailed(
+          "Started pipeline '"
+              + reusedPipeline.getPipelineMeta().getName()
+              + "' to reuse for the groups");
+    }
+  }
+
+  private Result getErrorResult() {
+    Result result = new Result();
+    result.setResult(false);
+    result.setNrErrors(1);
+    return result;
+  }
+
+  /** Lets the transforms of the pipeline kept running between the groups finish */
+  private void disposeReusedPipeline() {
+    PipelineExecutorData pipelineExecutorData = getData();
+    SingleThreadedPipelineExecutor executor = pipelineExecutorData.getReusedExecutor();
+    if (executor == null) {
+      return;
+    }
+    pipelineExecutorData.setReusedExecutor(null);
+    pipelineExecutorData.setReusedRowProducer(null);
+    pipelineExecutorData.setReusedParameterValues(null);
+    pipelineExecutorData.setReusedResultFiles(null);
+
+    executor.dispose();
+    try {
+      executor.getPipeline().fireExecutionFinishedListeners();
+    } catch (HopException e) {
+      logError("An error occurred finishing the pipeline: ", e);
+    }
   }
 
   @VisibleForTesting
@@ -283,11 +468,16 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
 
   @VisibleForTesting
   IPipelineEngine<PipelineMeta> createInternalPipeline() throws HopException {
+    return createInternalPipeline(getData().getExecutorPipelineMeta());
+  }
+
+  private IPipelineEngine<PipelineMeta> createInternalPipeline(PipelineMeta executorPipelineMeta)
+      throws HopException {
 
     String runConfigurationName = resolve(meta.getRunConfigurationName());
     IPipelineEngine<PipelineMeta> executorPipeline =
         PipelineEngineFactory.createPipelineEngine(
-            this, runConfigurationName, metadataProvider, getData().getExecutorPipelineMeta());
+            this, runConfigurationName, metadataProvider, executorPipelineMeta);
     executorPipeline.setParentPipeline(getPipeline());
     executorPipeline.setParent(this);
     executorPipeline.setLogLevel(getLogLevel());
@@ -299,6 +489,13 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
 
   @VisibleForTesting
   void passParametersToPipeline(List<String> incomingFieldValues) {
+    passParametersToPipeline(getParameterValues(incomingFieldValues));
+  }
+
+  /**
+   * @return the values of the parameters for the pipeline, by parameter name
+   */
+  private Map<String, String> getParameterValues(List<String> incomingFieldValues) {
     // The values of the incoming fields from the previous transform.
     if (incomingFieldValues == null) {
       incomingFieldValues = new ArrayList<>();
@@ -309,12 +506,10 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
 
     // A map where the final parameters and values are stored.
     Map<String, String> resolvingValuesMap = new LinkedHashMap<>();
-    List<String> resolvingParameters = new ArrayList<>();
     List<String> fieldsToUse = new ArrayList<>();
     List<String> staticInputs = new ArrayList<>();
 
     for (PipelineExecutorParameters parameter : parameters) {
-      resolvingParameters.add(parameter.getVariable());
       resolvingValuesMap.put(parameter.getVariable(), null);
       fieldsToUse.add(parameter.getField());
       staticInputs.add(parameter.getInput());
@@ -385,6 +580,16 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
       }
     }
 
+    return resolvingValuesMap;
+  }
+
+  private void passParametersToPipeline(Map<String, String> resolvingValuesMap) {
+    List<PipelineExecutorParameters> parameters = meta.getParameters();
+    List<String> resolvingParameters = new ArrayList<>();
+    for (PipelineExecutorParameters parameter : parameters) {
+      resolvingParameters.add(parameter.getVariable());
+    }
+
     // Transform the values of the resolvingValuesMap into a String array "inputFieldValues" to be
     // passed as parameter..
     String[] inputFieldValues = new String[parameters.size()];
@@ -543,6 +748,9 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
 
   private boolean initPipeline(PipelineExecutorData pipelineExecutorData) throws HopException {
 
+    // A pipeline kept running between groups belongs to the previous pipeline file
+    disposeReusedPipeline();
+    pipelineExecutorData.reuseImpossible = false;
     pipelineExecutorData.setExecutorPipelineMeta(loadExecutorPipelineMeta());
 
     // Do we have a pipeline at all?
@@ -565,6 +773,7 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
   @Override
   public void dispose() {
     PipelineExecutorData pipelineExecutorData = getData();
+    disposeReusedPipeline();
     pipelineExecutorData.groupBuffer = null;
     super.dispose();
   }
@@ -18,6 +18,8 @@
 package org.apache.hop.pipeline.transforms.pipelineexecutor;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import lombok.Getter;
 import lombok.Setter;
 import org.apache.hop.core.IRowSet;
@@ -25,6 +27,8 @@ import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.RowProducer;
+import org.apache.hop.pipeline.SingleThreadedPipelineExecutor;
 import org.apache.hop.pipeline.engine.IPipelineEngine;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
@@ -59,6 +63,16 @@ public class PipelineExecutorData extends BaseTransformData implements ITransfor
   private IRowSet resultFilesRowSet;
   private IRowSet executionResultRowSet;
 
+  /** The pipeline kept running between the groups, null if it is started for every group */
+  private SingleThreadedPipelineExecutor reusedExecutor;
+
+  private RowProducer reusedRowProducer;
+  private Map<String, String> reusedParameterValues;
+  private Set<String> reusedResultFiles;
+
+  /** Set once we know the pipeline can't be kept running between the groups */
+  public boolean reuseImpossible;
+
   public PipelineExecutorData() {
     super();
   }
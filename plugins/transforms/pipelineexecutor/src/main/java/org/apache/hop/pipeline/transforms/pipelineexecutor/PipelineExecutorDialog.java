@@ -108,6 +108,7 @@ public class PipelineExecutorDialog extends BaseTransformDialog {
   private CCombo wGroupField;
   private Label wlGroupTime;
   private TextVar wGroupTime;
+  private Button wReusePipeline;
 
   private CCombo wExecutionResultTarget;
   private TableItem tiExecutionTimeField;
@@ -503,6 +504,7 @@ public class PipelineExecutorDialog extends BaseTransformDialog {
     wGroupSize.setText(Const.NVL(pipelineExecutorMeta.getGroupSize(), ""));
     wGroupTime.setText(Const.NVL(pipelineExecutorMeta.getGroupTime(), ""));
     wGroupField.setText(Const.NVL(pipelineExecutorMeta.getGroupField(), ""));
+    wReusePipeline.setSelection(pipelineExecutorMeta.isReusingPipeline());
 
     wExecutionResultTarget.setText(
         pipelineExecutorMeta.getExecutionResultTargetTransformMeta() == null
@@ -863,6 +865,19 @@ public class PipelineExecutorDialog extends BaseTransformDialog {
     fdGroupTime.left = new FormAttachment(middle, 0);
     wGroupTime.setLayoutData(fdGroupTime);
 
+    // Keep the pipeline running between the groups
+    //
+    wReusePipeline = new Button(wInputComposite, SWT.CHECK);
+    PropsUi.setLook(wReusePipeline);
+    wReusePipeline.setText(
+        BaseMessages.getString(PKG, "PipelineExecutorDialog.ReusePipeline.Label"));
+    wReusePipeline.setToolTipText(
+        BaseMessages.getString(PKG, "PipelineExecutorDialog.ReusePipeline.Tooltip"));
+    FormData fdReusePipeline = new FormData();
+    fdReusePipeline.top = new FormAttachment(wGroupTime, 10);
+    fdReusePipeline.left = new FormAttachment(middle, 0);
+    wReusePipeline.setLayoutData(fdReusePipeline);
+
     wTab.setControl(wInputComposite);
     wTabFolder.setSelection(wTab);
   }
@@ -1299,6 +1314,7 @@ public class PipelineExecutorDialog extends BaseTransformDialog {
     pipelineExecutorMeta.setGroupSize(wGroupSize.getText());
     pipelineExecutorMeta.setGroupField(wGroupField.getText());
     pipelineExecutorMeta.setGroupTime(wGroupTime.getText());
+    pipelineExecutorMeta.setReusingPipeline(wReusePipeline.getSelection());
 
     pipelineExecutorMeta.setExecutionResultTargetTransform(wExecutionResultTarget.getText());
     pipelineExecutorMeta.setExecutionResultTargetTransformMeta(
@@ -107,6 +107,13 @@ public class PipelineExecutorMeta
   @HopMetadataProperty(key = "group_time")
   private String groupTime;
 
+  /**
+   * Keep the pipeline running between the groups of rows instead of starting it for every group.
+   * The rows of every group are passed to the Injector transform of the pipeline.
+   */
+  @HopMetadataProperty(key = "reuse_pipeline")
+  private boolean reusingPipeline;
+
   @HopMetadataProperty(key = "variable_mapping", groupKey = "parameters")
   private List<PipelineExecutorParameters> parameters;
 
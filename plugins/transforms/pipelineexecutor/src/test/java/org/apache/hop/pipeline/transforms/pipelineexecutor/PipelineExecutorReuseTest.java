@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.pipelineexecutor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.variables.Variables;
+import org.apache.hop.junit.rules.RestoreHopEnvironmentExtension;
+import org.apache.hop.metadata.serializer.memory.MemoryMetadataProvider;
+import org.apache.hop.pipeline.PipelineHopMeta;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.RowProducer;
+import org.apache.hop.pipeline.config.PipelineRunConfiguration;
+import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
+import org.apache.hop.pipeline.engines.local.LocalPipelineRunConfiguration;
+import org.apache.hop.pipeline.transform.RowAdapter;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.dummy.DummyMeta;
+import org.apache.hop.pipeline.transforms.injector.InjectorMeta;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Executes a pipeline for every row, either kept running between the rows or started every time */
+@ExtendWith(RestoreHopEnvironmentExtension.class)
+class PipelineExecutorReuseTest {
+
+  private static final String RUN_CONFIGURATION = "local";
+
+  @TempDir Path tempDir;
+
+  @BeforeAll
+  static void setUpBeforeClass() throws HopException {
+    HopEnvironment.init();
+  }
+
+  @Test
+  void testReusedPipeline() throws Exception {
+    List<Object[]> results = executeRows(childWithInjector(), true, 3);
+
+    assertEquals(3, results.size());
+    Set<Object> logChannelIds = new HashSet<>();
+    for (Object[] result : results) {
+      assertEquals(Boolean.TRUE, result[0]);
+      assertEquals(1L, result[1]);
+      logChannelIds.add(result[2]);
+    }
+    // The same pipeline processed every row
+    assertEquals(1, logChannelIds.size());
+  }
+
+  @Test
+  void testPipelineWithoutInjector() throws Exception {
+    List<Object[]> results = executeRows(childWithoutInjector(), true, 3);
+
+    assertEquals(3, results.size());
+    Set<Object> logChannelIds = new HashSet<>();
+    for (Object[] result : results) {
+      assertEquals(Boolean.TRUE, result[0]);
+      logChannelIds.add(result[2]);
+    }
+    // A new pipeline processed every row
+    assertEquals(3, logChannelIds.size());
+  }
+
+  @Test
+  void testPipelineStartedForEveryGroup() throws Exception {
+    List<Object[]> results = executeRows(childWithInjector(), false, 3);
+
+    assertEquals(3, results.size());
+    assertNotEquals(results.get(0)[2], results.get(1)[2]);
+  }
+
+  private PipelineMeta childWithInjector() {
+    PipelineMeta pipelineMeta = new PipelineMeta();
+    pipelineMeta.setName("child");
+    TransformMeta injector = new TransformMeta("Injector", "input", new InjectorMeta());
+    TransformMeta dummy = new TransformMeta("Dummy", "output", new DummyMeta());
+    pipelineMeta.addTransform(injector);
+    pipelineMeta.addTransform(dummy);
+    pipelineMeta.addPipelineHop(new PipelineHopMeta(injector, dummy));
+    return pipelineMeta;
+  }
+
+  private PipelineMeta childWithoutInjector() {
+    PipelineMeta pipelineMeta = new PipelineMeta();
+    pipelineMeta.setName("child");
+    pipelineMeta.addTransform(new TransformMeta("Dummy", "output", new DummyMeta()));
+    return pipelineMeta;
+  }
+
+  /**
+   * Runs a pipeline which passes the given number of rows to a pipeline executor, one row per group
+   *
+   * @return the execution results: the result, the number of lines read and the log channel id
+   */
+  private List<Object[]> executeRows(PipelineMeta childMeta, boolean reusing, int nrRows)
+      throws Exception {
+    Path childFile = tempDir.resolve("child.hpl");
+    Files.writeString(childFile, childMeta.getXml(new Variables()), StandardCharsets.UTF_8);
+
+    MemoryMetadataProvider metadataProvider = new MemoryMetadataProvider();
+    PipelineRunConfiguration runConfiguration =
+        new PipelineRunConfiguration(
+            RUN_CONFIGURATION,
+            "",
+            null,
+            new ArrayList<>(),
+            new LocalPipelineRunConfiguration(),
+            null,
+            false);
+    runConfiguration.getEngineRunConfiguration().setEnginePluginId("Local");
+    metadataProvider.getSerializer(PipelineRunConfiguration.class).save(runConfiguration);
+
+    PipelineExecutorMeta executorMeta = new PipelineExecutorMeta();
+    executorMeta.setFilename(childFile.toString());
+    executorMeta.setRunConfigurationName(RUN_CONFIGURATION);
+    executorMeta.setGroupSize("1");
+    executorMeta.setReusingPipeline(reusing);
+    executorMeta.setParameters(new ArrayList<>());
+    executorMeta.setResultRows(new ArrayList<>());
+    executorMeta.setExecutionResultField("result");
+    executorMeta.setExecutionLinesReadField("linesRead");
+    executorMeta.setExecutionLogChannelIdField("logChannelId");
+
+    PipelineMeta pipelineMeta = new PipelineMeta();
+    pipelineMeta.setName("parent");
+    pipelineMeta.setMetadataProvider(metadataProvider);
+    TransformMeta injector = new TransformMeta("Injector", "input", new InjectorMeta());
+    TransformMeta executor = new TransformMeta("PipelineExecutor", "executor", executorMeta);
+    TransformMeta results = new TransformMeta("Dummy", "results", new DummyMeta());
+    pipelineMeta.addTransform(injector);
+    pipelineMeta.addTransform(executor);
+    pipelineMeta.addTransform(results);
+    pipelineMeta.addPipelineHop(new PipelineHopMeta(injector, executor));
+    pipelineMeta.addPipelineHop(new PipelineHopMeta(executor, results));
+    executorMeta.setExecutionResultTargetTransform(results.getName());
+    executorMeta.setExecutionResultTargetTransformMeta(results);
+
+    LocalPipelineEngine pipeline = new LocalPipelineEngine(pipelineMeta);
+    pipeline.setMetadataProvider(metadataProvider);
+    pipeline.prepareExecution();
+    List<Object[]> rows = new ArrayList<>();
+    pipeline
+        .getTransform(results.getName(), 0)
+        .addRowListener(
+            new RowAdapter() {
+              @Override
+              public void rowReadEvent(IRowMeta rowMeta, Object[] row) {
+                rows.add(row);
+              }
+            });
+    RowProducer rowProducer = pipeline.addRowProducer(injector.getName(), 0);
+    pipeline.startThreads();
+
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+    for (int i = 0; i < nrRows; i++) {
+      rowProducer.putRow(rowMeta, new Object[] {"row " + i});
+    }
+    rowProducer.finished();
+    pipeline.waitUntilFinished();
+
+    assertEquals(0, pipeline.getResult().getNrErrors());
+    return rows;
+  }
+}
@@ -47,6 +47,7 @@ import org.apache.hop.core.encryption.Encr;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.util.HttpClientManager;
+import org.apache.hop.core.util.OrderedCallQueue;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.metadata.rest.RestConnection;
@@ -54,6 +55,14 @@ import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.glassfish.jersey.apache.connector.ApacheClientProperties;
 import org.glassfish.jersey.apache.connector.ApacheConnectorProvider;
 import org.glassfish.jersey.client.ClientConfig;
 import org.glassfish.jersey.client.ClientProperties;
@@ -91,6 +100,38 @@ public class Rest extends BaseTransform<RestMeta, RestData> {
     return queryParams;
   }
 
+  /**
+   * The client is built once and shared by all the rows of this transform copy, so its connections
+   * are kept alive between the calls. With a REST connection the connection builds the client.
+   *
+   * @return the client of this transform copy
+   */
+  protected synchronized Client getClient() throws HopException {
+    if (data.client == null) {
+      data.client = connection != null ? connection.createClient() : createClient();
+    }
+    return data.client;
+  }
+
+  @SuppressWarnings("java:S5527")
+  private Client createClient() {
+    ClientBuilder clientBuilder = createClientBuilder();
+    clientBuilder
+        .withConfig(data.config)
+        .property(HttpUrlConnectorProvider.SET_METHOD_WORKAROUND, true);
+
+    if (meta.isIgnoreSsl() || !Utils.isEmpty(data.trustStoreFile)) {
+      clientBuilder.hostnameVerifier((s1, s2) -> true);
+      clientBuilder.sslContext(data.sslContext);
+    }
+
+    Client client = clientBuilder.build();
+    if (data.basicAuthentication != null) {
+      client.register(data.basicAuthentication);
+    }
+    return client;
+  }
+
   /**
    * Perform the rest call Ignore Sonar SSL warning, SSL can be disabled by a user action
    *
@@ -101,24 +142,27 @@ public class Rest extends BaseTransform<RestMeta, RestData> {
   @SuppressWarnings("java:S5527")
   protected Object[] callRest(Object[] rowData) throws HopException {
 
+    // The calls can run concurrently, keep the url and method of this row to ourselves
+    String url = data.realUrl;
+    String method = data.method;
+
     // get dynamic url ?
     if (meta.isUrlInField()) {
       if (!Utils.isEmpty(data.connectionName)) {
-        data.realUrl = baseUrl + data.inputRowMeta.getString(rowData, data.indexOfUrlField);
+        url = baseUrl + data.inputRowMeta.getString(rowData, data.indexOfUrlField);
       } else {
-        data.realUrl = data.inputRowMeta.getString(rowData, data.indexOfUrlField);
+        url = data.inputRowMeta.getString(rowData, data.indexOfUrlField);
       }
     }
 
     // get dynamic method?
     if (meta.isDynamicMethod()) {
-      data.method = data.inputRowMeta.getString(rowData, data.indexOfMethod);
-      if (Utils.isEmpty(data.method)) {
+      method = data.inputRowMeta.getString(rowData, data.indexOfMethod);
+      if (Utils.isEmpty(method)) {
         throw new HopException(BaseMessages.getString(PKG, "Rest.Error.MethodMissing"));
       }
     }
     WebTarget webResource = null;
-    Client client = null;
     Invocation.Builder invocationBuilder = null;
     Object[] newRow = null;
     long startTime = 0;
@@ -127,27 +171,14 @@ public class Rest extends BaseTransform<RestMeta, RestData> {
     }
     try {
       if (isDetailed()) {
-        logDetailed(BaseMessages.getString(PKG, "Rest.Log.ConnectingToURL", data.realUrl));
+        logDetailed(BaseMessages.getString(PKG, "Rest.Log.ConnectingToURL", url));
       }
       if (!StringUtils.isEmpty(meta.getConnectionName())) {
-        invocationBuilder = connection.getInvocationBuilder(data.realUrl);
+        invocationBuilder = connection.getInvocationBuilder(getClient(), url);
       } else {
-        ClientBuilder clientBuilder = createClientBuilder();
-        clientBuilder
-            .withConfig(data.config)
-            .property(HttpUrlConnectorProvider.SET_METHOD_WORKAROUND, true);
-
-        if (meta.isIgnoreSsl() || !Utils.isEmpty(data.trustStoreFile)) {
-          clientBuilder.hostnameVerifier((s1, s2) -> true);
-          clientBuilder.sslContext(data.sslContext);
-        }
-
-        client = clientBuilder.build();
-        if (data.basicAuthentication != null) {
-          client.register(data.basicAuthentication);
-        }
+        Client client = getClient();
         // create a WebResource object, which encapsulates a web resource for the client
-        webResource = client.target(data.realUrl);
+        webResource = client.target(url);
 
         // used for calculating the responseTime
         startTime = System.currentTimeMillis();
@@ -248,7 +279,7 @@ public class Rest extends BaseTransform<RestMeta, RestData> {
         }
       }
       try {
-        switch (data.method) {
+        switch (method) {
           case RestMeta.HTTP_METHOD_GET -> response = invocationBuilder.get(Response.class);
           case RestMeta.HTTP_METHOD_POST -> {
             if (null != contentType) {
@@ -284,7 +315,7 @@ public class Rest extends BaseTransform<RestMeta, RestData> {
           }
           default ->
               throw new HopException(
-                  BaseMessages.getString(PKG, "Rest.Error.UnknownMethod", data.method));
+                  BaseMessages.getString(PKG, "Rest.Error.UnknownMethod", method));
         }
       } catch (Exception e) {
         throw new HopException("Request could not be processed", e);
@@ -297,7 +328,7 @@ public class Rest extends BaseTransform<RestMeta, RestData> {
       if (isDetailed()) {
         logDetailed(
             BaseMessages.getString(
-                PKG, "Rest.Log.ResponseTime", String.valueOf(responseTime), data.realUrl));
+                PKG, "Rest.Log.ResponseTime", String.valueOf(responseTime), url));
       }
 
       // Get status
@@ -323,8 +354,7 @@ public class Rest extends BaseTransform<RestMeta, RestData> {
         if (errorMessage != null
             && errorMessage.contains("Too many \"Content-Type\" header values")) {
           throw new HopException(
-              BaseMessages.getString(
-                  PKG, "Rest.Error.DuplicateContentType", data.realUrl, errorMessage),
+              BaseMessages.getString(PKG, "Rest.Error.DuplicateContentType", url, errorMessage),
               ex);
         }
         // For other ProcessingExceptions, try fallback to raw InputStream
@@ -340,7 +370,7 @@ public class Rest extends BaseTransform<RestMeta, RestData> {
             }
             // If fallback also fails, throw with original exception context
             throw new HopException(
-                BaseMessages.getString(PKG, "Rest.Error.CanNotReadResponse", data.realUrl), ex);
+                BaseMessages.getString(PKG, "Rest.Error.CanNotReadResponse", url), ex);
           }
         } else {
           if (isDetailed()) {
@@ -360,7 +390,7 @@ public class Rest extends BaseTransform<RestMeta, RestData> {
               logDetailed("Unable to read response entity as String", ioEx);
             }
             throw new HopException(
-                BaseMessages.getString(PKG, "Rest.Error.CanNotReadResponse", data.realUrl), ex);
+                BaseMessages.getString(PKG, "Rest.Error.CanNotReadResponse", url), ex);
           }
         } else {
           if (isDetailed()) {
@@ -405,15 +435,11 @@ public class Rest extends BaseTransform<RestMeta, RestData> {
         newRow = RowDataUtil.addValueData(newRow, returnFieldsOffset, headerString);
       }
     } catch (Exception e) {
-      throw new HopException(
-          BaseMessages.getString(PKG, "Rest.Error.CanNotReadURL", data.realUrl), e);
+      throw new HopException(BaseMessages.getString(PKG, "Rest.Error.CanNotReadURL", url), e);
     } finally {
       if (webResource != null) {
         webResource = null;
       }
-      if (client != null) {
-        client.close();
-      }
     }
     return newRow;
   }
@@ -451,7 +477,36 @@ public class Rest extends BaseTransform<RestMeta, RestData> {
       if (meta.isIgnoreSsl()) {
         setTrustAll();
       }
+      if (data.concurrentRequests > 1) {
+        setConnectionManager();
+      }
+    }
+  }
+
+  /**
+   * The connector only keeps 2 connections per host alive by default. Give it a pool which is large
+   * enough for the requests in flight. The connector ignores the SSL context of the client once it
+   * gets a pool, so the pool has to use it.
+   */
+  @SuppressWarnings("java:S5527")
+  private void setConnectionManager() {
+    SSLConnectionSocketFactory sslSocketFactory;
+    if (data.sslContext != null) {
+      sslSocketFactory =
+          new SSLConnectionSocketFactory(data.sslContext, NoopHostnameVerifier.INSTANCE);
+    } else {
+      sslSocketFactory = SSLConnectionSocketFactory.getSocketFactory();
     }
+    Registry<ConnectionSocketFactory> socketFactoryRegistry =
+        RegistryBuilder.<ConnectionSocketFactory>create()
+            .register("http", PlainConnectionSocketFactory.getSocketFactory())
+            .register("https", sslSocketFactory)
+            .build();
+    PoolingHttpClientConnectionManager connectionManager =
+        new PoolingHttpClientConnectionManager(socketFactoryRegistry);
+    connectionManager.setDefaultMaxPerRoute(Math.max(2, data.concurrentRequests));
+    connectionManager.setMaxTotal(Math.max(20, 2 * data.concurrentRequests));
+    data.config.property(ApacheClientProperties.CONNECTION_MANAGER, connectionManager);
   }
 
   private void setTrustAll() throws HopException {
@@ -501,6 +556,9 @@ public class Rest extends BaseTransform<RestMeta, RestData> {
 
     if (r == null) {
       // no more input to be expected...
+      if (data.requests != null && !takeRequests(true)) {
+        return false;
+      }
       setOutputDone();
       return false;
     }
@@ -624,31 +682,66 @@ public class Rest extends BaseTransform<RestMeta, RestData> {
           data.useBody = true;
         }
       }
+
+      if (data.concurrentRequests > 1) {
+        data.requests =
+            new OrderedCallQueue<>(getTransformName() + "." + getCopy(), data.concurrentRequests);
+      }
     } // end if first
+
+    if (data.requests != null) {
+      // Keep a number of calls in flight, their rows are passed on in the order they came in
+      Object[] row = r;
+      data.requests.submit(row, () -> callRest(row));
+      return takeRequests(false);
+    }
+
     try {
-      Object[] outputRowData = callRest(r);
-      putRow(data.outputRowMeta, outputRowData); // copy row to output rowset(s)
-      if (checkFeedback(getLinesRead()) && isDetailed()) {
-        logDetailed(BaseMessages.getString(PKG, "Rest.LineNumber") + getLinesRead());
-      }
+      putOutputRow(callRest(r));
     } catch (HopException e) {
-      boolean sendToErrorRow = false;
-      String errorMessage = null;
-      if (getTransformMeta().isDoingErrorHandling()) {
-        sendToErrorRow = true;
-        errorMessage = e.toString();
-      } else {
-        logError(BaseMessages.getString(PKG, "Rest.ErrorInTransformRunning") + e.getMessage());
-        setErrors(1);
-        logError(Const.getStackTracker(e));
-        stopAll();
-        setOutputDone(); // signal end to receiver(s)
-        return false;
-      }
-      if (sendToErrorRow) {
-        // Simply add this row to the error row
-        putError(getInputRowMeta(), r, 1, errorMessage, null, "Rest001");
-      }
+      return handleRowError(r, e);
+    }
+    return true;
+  }
+
+  /**
+   * Passes on the rows of the finished calls, in the order of the input rows.
+   *
+   * @param all true to wait for all the calls in flight, false to wait only until there is room for
+   *     another call
+   * @return false if the transform has to stop
+   */
+  private boolean takeRequests(boolean all) throws HopException {
+    return data.requests.take(all, this::putOutputRow, this::handleRowError);
+  }
+
+  private void putOutputRow(Object[] outputRowData) throws HopException {
+    putRow(data.outputRowMeta, outputRowData); // copy row to output rowset(s)
+    if (checkFeedback(getLinesRead()) && isDetailed()) {
+      logDetailed(BaseMessages.getString(PKG, "Rest.LineNumber") + getLinesRead());
+    }
+  }
+
+  /**
+   * @return false if the transform has to stop because of the error
+   */
+  private boolean handleRowError(Object[] r, HopException e) throws HopException {
+    boolean sendToErrorRow = false;
+    String errorMessage = null;
+    if (getTransformMeta().isDoingErrorHandling()) {
+      sendToErrorRow = true;
+      errorMessage = e.toString();
+    } else {
+      logError(BaseMessages.getString(PKG, "Rest.ErrorInTransformRunning") + e.getMessage());
+      setErrors(1);
+      logError(Const.getStackTracker(e));
+      stopAll();
+      setOutputDone(); // signal end to receiver(s)
+      return false;
+    }
+    if (sendToErrorRow) {
+      // Simply add this row to the error row
+      putError(getInputRowMeta(), r, 1, errorMessage, null, "Rest001");
     }
     return true;
   }
@@ -682,6 +775,11 @@ public class Rest extends BaseTransform<RestMeta, RestData> {
 
       data.realConnectionTimeout = Const.toInt(resolve(meta.getConnectionTimeout()), -1);
       data.realReadTimeout = Const.toInt(resolve(meta.getReadTimeout()), -1);
+      data.concurrentRequests =
+          Math.max(
+              1,
+              Const.toInt(
+                  resolve(meta.getConcurrentRequests()), RestMeta.DEFAULT_CONCURRENT_REQUESTS));
 
       // get authentication settings once
       data.realProxyHost = resolve(meta.getProxyHost());
@@ -732,6 +830,14 @@ public class Rest extends BaseTransform<RestMeta, RestData> {
   @Override
   public void dispose() {
 
+    if (data.requests != null) {
+      data.requests.close();
+      data.requests = null;
+    }
+    if (data.client != null) {
+      data.client.close();
+      data.client = null;
+    }
     data.config = null;
     data.headerNames = null;
     data.indexOfHeaderFields = null;
@@ -17,9 +17,11 @@
 
 package org.apache.hop.pipeline.transforms.rest;
 
+import jakarta.ws.rs.client.Client;
 import jakarta.ws.rs.core.MediaType;
 import javax.net.ssl.SSLContext;
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.util.OrderedCallQueue;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 import org.glassfish.jersey.client.ClientConfig;
@@ -106,6 +108,15 @@ public class RestData extends BaseTransformData implements ITransformData {
 
   public SSLContext sslContext;
 
+  /** The number of calls in flight at the same time */
+  public int concurrentRequests;
+
+  /** The client shared by all the calls of this transform copy */
+  public Client client;
+
+  /** The calls in flight if more than one call runs at the same time */
+  public OrderedCallQueue<Object[], Object[]> requests;
+
   public RestData() {
     super();
     this.indexOfUrlField = -1;
@@ -128,5 +139,6 @@ public class RestData extends BaseTransformData implements ITransformData {
     this.trustStorePassword = null;
     this.basicAuthentication = null;
     this.sslContext = null;
+    this.concurrentRequests = RestMeta.DEFAULT_CONCURRENT_REQUESTS;
   }
 }
@@ -112,6 +112,8 @@ public class RestDialog extends BaseTransformDialog {
 
   private TextVar wReadTimeout;
 
+  private TextVar wConcurrentRequests;
+
   private TextVar wHttpLogin;
 
   private TextVar wHttpPassword;
@@ -216,6 +218,7 @@ public class RestDialog extends BaseTransformDialog {
     setupAppTypeLine(lsMod, middle, margin, gSettings);
     setupConnectionTimeoutLine(lsMod, gSettings);
     setupReadTimeoutLine(lsMod, gSettings);
+    setupConcurrentRequestsLine(lsMod, gSettings);
 
     FormData fdSettings = new FormData();
     fdSettings.left = new FormAttachment(0, 0);
@@ -792,6 +795,30 @@ public class RestDialog extends BaseTransformDialog {
     wReadTimeout.setLayoutData(fdReadTimeout);
   }
 
+  private void setupConcurrentRequestsLine(ModifyListener lsMod, Group gSettings) {
+    int margin = PropsUi.getMargin();
+    int middle = props.getMiddlePct();
+    Label wlConcurrentRequests = new Label(gSettings, SWT.RIGHT);
+    wlConcurrentRequests.setText(
+        BaseMessages.getString(PKG, "RestDialog.ConcurrentRequests.Label"));
+    PropsUi.setLook(wlConcurrentRequests);
+    FormData fdlConcurrentRequests = new FormData();
+    fdlConcurrentRequests.top = new FormAttachment(wReadTimeout, margin);
+    fdlConcurrentRequests.left = new FormAttachment(0, 0);
+    fdlConcurrentRequests.right = new FormAttachment(middle, -margin);
+    wlConcurrentRequests.setLayoutData(fdlConcurrentRequests);
+    wConcurrentRequests = new TextVar(variables, gSettings, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wConcurrentRequests.addModifyListener(lsMod);
+    wConcurrentRequests.setToolTipText(
+        BaseMessages.getString(PKG, "RestDialog.ConcurrentRequests.Tooltip"));
+    PropsUi.setLook(wConcurrentRequests);
+    FormData fdConcurrentRequests = new FormData();
+    fdConcurrentRequests.top = new FormAttachment(wReadTimeout, margin);
+    fdConcurrentRequests.left = new FormAttachment(middle, 0);
+    fdConcurrentRequests.right = new FormAttachment(100, 0);
+    wConcurrentRequests.setLayoutData(fdConcurrentRequests);
+  }
+
   private void setupProxyPortLine(ModifyListener lsMod, int middle, int margin, Group gProxy) {
     // Proxy Port
     Label wlProxyPort = new Label(gProxy, SWT.RIGHT);
@@ -1430,6 +1457,9 @@ public class RestDialog extends BaseTransformDialog {
     if (input.getReadTimeout() != null) {
       wReadTimeout.setText(input.getReadTimeout());
     }
+    if (input.getConcurrentRequests() != null) {
+      wConcurrentRequests.setText(input.getConcurrentRequests());
+    }
     if (input.getHttpLogin() != null) {
       wHttpLogin.setText(input.getHttpLogin());
     }
@@ -1526,6 +1556,7 @@ public class RestDialog extends BaseTransformDialog {
     input.getResultField().setResponseHeader(wResponseHeader.getText());
     input.setConnectionTimeout(wConnectionTimeout.getText());
     input.setReadTimeout(wReadTimeout.getText());
+    input.setConcurrentRequests(wConcurrentRequests.getText());
     input.setHttpLogin(wHttpLogin.getText());
     input.setHttpPassword(wHttpPassword.getText());
     input.setProxyHost(wProxyHost.getText());
@@ -104,6 +104,9 @@ public class RestMeta extends BaseTransformMeta<Rest, RestData> {
   /** The default timeout for waiting for reading data (milliseconds) */
   public static final int DEFAULT_READ_TIMEOUT = 10000;
 
+  /** By default the calls are made one at a time */
+  public static final int DEFAULT_CONCURRENT_REQUESTS = 1;
+
   @HopMetadataProperty(key = "connection_name", injectionKey = "CONNECTION_NAME")
   private String connectionName;
 
@@ -158,6 +161,10 @@ public class RestMeta extends BaseTransformMeta<Rest, RestData> {
   @HopMetadataProperty(key = "readTimeout", injectionKey = "READ_TIMEOUT")
   private String readTimeout;
 
+  /** The number of calls in flight at the same time, the output keeps the order of the input */
+  @HopMetadataProperty(key = "concurrentRequests", injectionKey = "CONCURRENT_REQUESTS")
+  private String concurrentRequests;
+
   @HopMetadataProperty(key = "ignoreSsl", injectionKey = "IGNORE_SSL")
   private boolean ignoreSsl;
 
@@ -216,6 +223,7 @@ public class RestMeta extends BaseTransformMeta<Rest, RestData> {
     this.applicationType = APPLICATION_TYPE_TEXT_PLAIN;
     this.readTimeout = String.valueOf(DEFAULT_READ_TIMEOUT);
     this.connectionTimeout = String.valueOf(DEFAULT_CONNECTION_TIMEOUT);
+    this.concurrentRequests = String.valueOf(DEFAULT_CONCURRENT_REQUESTS);
   }
 
   @Override
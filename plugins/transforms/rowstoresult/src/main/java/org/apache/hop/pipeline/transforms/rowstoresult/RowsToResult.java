@@ -66,6 +66,16 @@ public class RowsToResult extends BaseTransform<RowsToResultMeta, RowsToResultDa
     return true;
   }
 
+  /**
+   * A single threaded pipeline which is kept running passes a batch of rows at a time, the rows of
+   * the batch are the result of that batch.
+   */
+  @Override
+  public void batchComplete() throws HopException {
+    ((Pipeline) getPipeline()).getResultRows().addAll(data.rows);
+    data.rows.clear();
+  }
+
   @Override
   public boolean init() {
 
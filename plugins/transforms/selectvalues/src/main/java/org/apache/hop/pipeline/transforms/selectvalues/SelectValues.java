@@ -387,24 +387,14 @@ public class SelectValues extends BaseTransform<SelectValuesMeta, SelectValuesDa
 
   @Override
   public boolean processRow() throws HopException {
-    Object[] rowData = getRow(); // get row from rowset, wait for our turn, indicate busy!
-    if (rowData == null) { // no more input to be expected...
+    // get rows from rowset, wait for our turn, indicate busy!
+    Object[][] rows = getRows(Const.ROWS_IN_BATCH);
+    if (rows == null) { // no more input to be expected...
 
       setOutputDone();
       return false;
     }
 
-    Object[] rowCopy = null;
-    if (getTransformMeta().isDoingErrorHandling()) {
-      rowCopy = getInputRowMeta().cloneRow(rowData);
-    }
-
-    if (isRowLevel()) {
-      logRowlevel(
-          BaseMessages.getString(PKG, "SelectValues.Log.GotRowFromPreviousTransform")
-              + getInputRowMeta().getString(rowData));
-    }
-
     if (first) {
       first = false;
 
@@ -416,49 +406,71 @@ public class SelectValues extends BaseTransform<SelectValuesMeta, SelectValuesDa
       meta.getMetadataFields(data.metadataRowMeta, getTransformName(), this);
     }
 
-    try {
-      Object[] outputData = rowData;
-
-      if (data.select) {
-        outputData = selectValues(getInputRowMeta(), outputData);
-      }
-      if (data.deselect) {
-        outputData = removeValues(data.selectRowMeta, outputData);
-      }
-      if (data.metadata) {
-        outputData = metadataValues(data.deselectRowMeta, outputData);
-      }
+    // The output rows replace the input rows at the start of the batch
+    //
+    int nrOutput = 0;
+    for (int i = 0; i < rows.length; i++) {
+      Object[] rowData = rows[i];
 
-      if (outputData == null) {
-        setOutputDone(); // signal end to receiver(s)
-        return false;
+      Object[] rowCopy = null;
+      if (getTransformMeta().isDoingErrorHandling()) {
+        rowCopy = getInputRowMeta().cloneRow(rowData);
       }
 
-      // Send the row on its way
-      //
-      putRow(data.metadataRowMeta, outputData);
       if (isRowLevel()) {
         logRowlevel(
-            BaseMessages.getString(PKG, "SelectValues.Log.WroteRowToNextTransform")
-                + data.metadataRowMeta.getString(outputData));
+            BaseMessages.getString(PKG, "SelectValues.Log.GotRowFromPreviousTransform")
+                + getInputRowMeta().getString(rowData));
       }
 
-    } catch (HopException e) {
-      if (getTransformMeta().isDoingErrorHandling()) {
-        String field;
-        if (e instanceof HopConversionException hopConversionException) {
-          List<IValueMeta> fields = hopConversionException.getFields();
-          field = fields.isEmpty() ? null : fields.get(0).getName();
+      try {
+        Object[] outputData = rowData;
+
+        if (data.select) {
+          outputData = selectValues(getInputRowMeta(), outputData);
+        }
+        if (data.deselect) {
+          outputData = removeValues(data.selectRowMeta, outputData);
+        }
+        if (data.metadata) {
+          outputData = metadataValues(data.deselectRowMeta, outputData);
+        }
+
+        if (outputData == null) {
+          putRows(data.metadataRowMeta, rows, nrOutput);
+          setOutputDone(); // signal end to receiver(s)
+          return false;
+        }
+
+        rows[nrOutput++] = outputData;
+        if (isRowLevel()) {
+          logRowlevel(
+              BaseMessages.getString(PKG, "SelectValues.Log.WroteRowToNextTransform")
+                  + data.metadataRowMeta.getString(outputData));
+        }
+
+      } catch (HopException e) {
+        if (getTransformMeta().isDoingErrorHandling()) {
+          String field;
+          if (e instanceof HopConversionException hopConversionException) {
+            List<IValueMeta> fields = hopConversionException.getFields();
+            field = fields.isEmpty() ? null : fields.get(0).getName();
+          } else {
+            field = null;
+          }
+          putError(getInputRowMeta(), rowCopy, 1, e.getMessage(), field, "SELECT001");
         } else {
-          field = null;
+          putRows(data.metadataRowMeta, rows, nrOutput);
+          throw e;
         }
-        putError(getInputRowMeta(), rowCopy, 1, e.getMessage(), field, "SELECT001");
-      } else {
-        throw e;
       }
     }
 
-    if (checkFeedback(getLinesRead()) && isBasic()) {
+    // Send the rows on their way
+    //
+    putRows(data.metadataRowMeta, rows, nrOutput);
+
+    if (checkFeedback(getLinesRead(), rows.length) && isBasic()) {
       logBasic(BaseMessages.getString(PKG, "SelectValues.Log.LineNumber") + getLinesRead());
     }
 
@@ -20,6 +20,7 @@ package org.apache.hop.pipeline.transforms.selectvalues;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doNothing;
@@ -80,7 +81,7 @@ class SelectValuesTest {
     transform =
         new SelectValues(helper.transformMeta, meta, data, 1, helper.pipelineMeta, helper.pipeline);
     transform = spy(transform);
-    doReturn(inputRow).when(transform).getRow();
+    doReturn(new Object[][] {inputRow}).when(transform).getRows(anyInt());
     doNothing()
         .when(transform)
         .putError(
@@ -148,7 +149,7 @@ class SelectValuesTest {
             helper.pipeline);
     transform2 = spy(transform2);
     inputRow2 = new Object[] {new BigDecimal("589")}; // Starting with a BigDecimal (no places)
-    doReturn(inputRow2).when(transform2).getRow();
+    doReturn(new Object[][] {inputRow2}).when(transform2).getRows(anyInt());
     doNothing()
         .when(transform2)
         .putError(
@@ -204,7 +205,7 @@ class SelectValuesTest {
             helper.pipelineMeta,
             helper.pipeline);
     transform2 = spy(transform2);
-    doReturn(inputRow2).when(transform2).getRow();
+    doReturn(new Object[][] {inputRow2}).when(transform2).getRows(anyInt());
     doNothing()
         .when(transform2)
         .putError(
@@ -262,7 +263,7 @@ class SelectValuesTest {
             helper.pipeline);
     transform2 = spy(transform2);
     inputRow2 = new Object[] {Long.valueOf("589")}; // Starting with a Long
-    doReturn(inputRow2).when(transform2).getRow();
+    doReturn(new Object[][] {inputRow2}).when(transform2).getRows(anyInt());
     doNothing()
         .when(transform2)
         .putError(
@@ -358,6 +359,13 @@ class SelectValuesTest {
       rowMeta = rm;
     }
 
+    @Override
+    public void putRows(IRowMeta rm, Object[][] rows, int n) throws HopTransformException {
+      for (int i = 0; i < n; i++) {
+        putRow(rm, rows[i]);
+      }
+    }
+
     /**
      * Find input row set.
      *
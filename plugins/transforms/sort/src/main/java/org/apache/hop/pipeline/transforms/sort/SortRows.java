@@ -17,26 +17,18 @@
 
 package org.apache.hop.pipeline.transforms.sort;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
-import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.net.SocketTimeoutException;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
+import java.util.ListIterator;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.exception.HopException;
-import org.apache.hop.core.exception.HopFileException;
 import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
@@ -52,6 +44,9 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
 
   private static final Class<?> PKG = SortRows.class;
 
+  /** The maximum number of temporary files which are merged at once */
+  static final int MERGE_FAN_IN = 128;
+
   public SortRows(
       TransformMeta transformMeta,
       SortRowsMeta meta,
@@ -123,63 +118,36 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
     quickSort(data.buffer);
 
     // Then write them to disk...
-    DataOutputStream dos;
-    GZIPOutputStream gzos;
-    int p;
-
     try {
       FileObject fileObject =
           HopVfs.createTempFile(meta.getPrefix(), ".tmp", resolve(meta.getDirectory()), variables);
-
       data.files.add(fileObject); // Remember the files!
-      OutputStream outputStream = HopVfs.getOutputStream(fileObject, false);
-      if (data.compressFiles) {
-        gzos = new GZIPOutputStream(new BufferedOutputStream(outputStream));
-        dos = new DataOutputStream(gzos);
-      } else {
-        dos = new DataOutputStream(new BufferedOutputStream(outputStream, 500000));
-        gzos = null;
-      }
-
-      // Just write the data, nothing else
-      List<Integer> duplicates = new ArrayList<>();
-      Object[] previousRow = null;
-      if (meta.isOnlyPassingUniqueRows()) {
-        int index = 0;
-        while (index < data.buffer.size()) {
-          Object[] row = data.buffer.get(index);
-          if (previousRow != null) {
-            int result = data.outputRowMeta.compare(row, previousRow, data.fieldnrs);
-            if (result == 0) {
-              duplicates.add(index);
-              if (isRowLevel()) {
-                logRowlevel(
-                    BaseMessages.getString(
-                        PKG,
-                        "SortRows.RowLevel.DuplicateRowRemoved",
-                        data.outputRowMeta.getString(row)));
-              }
+      int nrRows = 0;
+      try (DataOutputStream dos =
+          SortRowsMerger.openOutput(
+              HopVfs.getOutputStream(fileObject, false), data.compressFiles)) {
+        Object[] previousRow = null;
+        for (Object[] row : data.buffer) {
+          if (meta.isOnlyPassingUniqueRows()
+              && previousRow != null
+              && data.outputRowMeta.compare(row, previousRow, data.fieldnrs) == 0) {
+            if (isRowLevel()) {
+              logRowlevel(
+                  BaseMessages.getString(
+                      PKG,
+                      "SortRows.RowLevel.DuplicateRowRemoved",
+                      data.outputRowMeta.getString(row)));
             }
+          } else {
+            data.outputRowMeta.writeData(dos, row);
+            nrRows++;
           }
-          index++;
           previousRow = row;
         }
       }
 
       // How many records do we have left?
-      data.bufferSizes.add(data.buffer.size() - duplicates.size());
-
-      int duplicatesIndex = 0;
-      for (p = 0; p < data.buffer.size(); p++) {
-        boolean skip = false;
-        if (duplicatesIndex < duplicates.size() && p == duplicates.get(duplicatesIndex)) {
-          skip = true;
-          duplicatesIndex++;
-        }
-        if (!skip) {
-          data.outputRowMeta.writeData(dos, data.buffer.get(p));
-        }
-      }
+      data.bufferSizes.add(nrRows);
 
       if (data.sortSize < 0 && data.buffer.size() > data.minSortSize) {
         data.minSortSize = data.buffer.size(); // if we did it once, we can do
@@ -195,13 +163,6 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
       // Clear the list
       data.buffer.clear();
 
-      // Close temp-file
-      dos.close(); // close data stream
-      if (gzos != null) {
-        gzos.close(); // close gzip stream
-      }
-      outputStream.close(); // close file stream
-
       // How much memory do we have left?
       //
       data.freeMemoryPct = Const.getPercentageFreeMemory();
@@ -218,148 +179,108 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
     data.getBufferIndex = 0;
   }
 
-  private DataInputStream getDataInputStream(GZIPInputStream gzipInputStream) {
-    DataInputStream result = new DataInputStream(gzipInputStream);
-    data.gzis.add(gzipInputStream);
-    return result;
+  /**
+   * Merge groups of temporary files into new ones until there are no more files left than can be
+   * merged at once. This keeps the number of open files and read buffers limited. The order of the
+   * files is kept, so rows which compare as equal keep their order too.
+   */
+  void mergeTempFiles() throws HopException {
+    while (data.files.size() > data.mergeFanIn && !isStopped()) {
+      for (int i = 0; i < data.files.size() && !isStopped(); i++) {
+        int end = Math.min(i + data.mergeFanIn, data.files.size());
+        if (end - i > 1) {
+          mergeTempFiles(i, end);
+        }
+      }
+    }
   }
 
-  // get sorted rows from available files in iterative manner.
-  // that means call to this method will continue to return rows
-  // till all temp files will not be read to the end.
-  Object[] getBuffer() throws HopValueException {
-    Object[] retval;
+  /** Replace the temporary files from index start to end (exclusive) by a single merged file */
+  private void mergeTempFiles(int start, int end) throws HopException {
+    List<FileObject> files = data.files.subList(start, end);
+    List<Integer> sizes = data.bufferSizes.subList(start, end);
+    if (isDetailed()) {
+      logDetailed(BaseMessages.getString(PKG, "SortRows.Detailed.MergingTempFiles", files.size()));
+    }
 
-    // Open all files at once and read one row from each file...
-    if (CollectionUtils.isNotEmpty(data.files) && (data.dis.isEmpty() || data.fis.isEmpty())) {
-      if (isBasic()) {
-        logBasic(BaseMessages.getString(PKG, "SortRows.Basic.OpeningTempFiles", data.files.size()));
+    FileObject fileObject =
+        HopVfs.createTempFile(meta.getPrefix(), ".tmp", resolve(meta.getDirectory()), variables);
+    int nrRows = 0;
+    try (SortRowsMerger merger =
+            new SortRowsMerger(
+                data.outputRowMeta, data.rowComparator, files, sizes, data.compressFiles);
+        DataOutputStream dos =
+            SortRowsMerger.openOutput(
+                HopVfs.getOutputStream(fileObject, false), data.compressFiles)) {
+      Object[] row;
+      while ((row = merger.next()) != null) {
+        data.outputRowMeta.writeData(dos, row);
+        nrRows++;
       }
-
+    } catch (HopException | IOException e) {
       try {
-        for (int f = 0; f < data.files.size() && !isStopped(); f++) {
-          FileObject fileObject = data.files.get(f);
-          String filename = HopVfs.getFilename(fileObject);
-          if (isDetailed()) {
-            logDetailed(BaseMessages.getString(PKG, "SortRows.Detailed.OpeningTempFile", filename));
-          }
-          InputStream fi = HopVfs.getInputStream(fileObject);
-          DataInputStream di;
-          data.fis.add(fi);
-          if (data.compressFiles) {
-            di = getDataInputStream(new GZIPInputStream(new BufferedInputStream(fi)));
-          } else {
-            di = new DataInputStream(new BufferedInputStream(fi, 50000));
-          }
-          data.dis.add(di);
-
-          // How long is the buffer?
-          int buffersize = data.bufferSizes.get(f);
-
-          if (isDetailed()) {
-            logDetailed(
-                BaseMessages.getString(
-                    PKG, "SortRows.Detailed.FromFileExpectingRows", filename, buffersize));
-          }
-
-          if (buffersize > 0) {
-            Object[] row = data.outputRowMeta.readData(di);
-            data.rowbuffer.add(row); // new row from input stream
-            data.tempRows.add(new RowTempFile(row, f));
-          }
-        }
-
-        // Sort the data row buffer
-        Collections.sort(data.tempRows, data.comparator);
-      } catch (Exception e) {
-        logError(BaseMessages.getString(PKG, "SortRows.Error.ErrorReadingBackTempFiles"), e);
+        fileObject.delete();
+      } catch (FileSystemException fse) {
+        logError(fse.getLocalizedMessage(), fse);
       }
+      throw new HopException("Error merging temp-files!", e);
     }
 
+    files.clear();
+    sizes.clear();
+    data.files.add(start, fileObject);
+    data.bufferSizes.add(start, nrRows);
+  }
+
+  // get sorted rows from available files in iterative manner.
+  // that means call to this method will continue to return rows
+  // till all temp files will not be read to the end.
+  Object[] getBuffer() throws HopException {
     if (data.files.isEmpty()) {
       // read from in-memory processing
-
+      Object[] retval = null;
       if (data.getBufferIndex < data.buffer.size()) {
         retval = data.buffer.get(data.getBufferIndex);
         data.getBufferIndex++;
-      } else {
-        retval = null;
       }
-    } else {
-      // read from disk processing
-
-      if (data.rowbuffer.isEmpty()) {
-        retval = null;
-      } else {
-        // We now have "filenr" rows waiting: which one is the smallest?
-        //
-        if (isRowLevel()) {
-          for (int i = 0; i < data.rowbuffer.size() && !isStopped(); i++) {
-            Object[] b = data.rowbuffer.get(i);
-            logRowlevel(
-                BaseMessages.getString(
-                    PKG, "SortRows.RowLevel.PrintRow", i, data.outputRowMeta.getString(b)));
-          }
-        }
-
-        RowTempFile rowTempFile = data.tempRows.remove(0);
-        retval = rowTempFile.row;
-        int smallest = rowTempFile.fileNumber;
-
-        // now get another Row for position smallest
-
-        FileObject file = data.files.get(smallest);
-        DataInputStream di = data.dis.get(smallest);
-        InputStream fi = data.fis.get(smallest);
-
-        try {
-          Object[] row2 = data.outputRowMeta.readData(di);
-          RowTempFile extra = new RowTempFile(row2, smallest);
-
-          int index = Collections.binarySearch(data.tempRows, extra, data.comparator);
-          if (index < 0) {
-            data.tempRows.add(index * (-1) - 1, extra);
-          } else {
-            data.tempRows.add(index, extra);
-          }
-        } catch (HopFileException fe) { // empty file or EOF mostly
-          GZIPInputStream gzfi = (data.compressFiles) ? data.gzis.get(smallest) : null;
-          try {
-            di.close();
-            fi.close();
-            if (gzfi != null) {
-              gzfi.close();
-            }
-            file.delete();
-          } catch (IOException e) {
-            logError(
-                BaseMessages.getString(
-                    PKG, "SortRows.Error.UnableToCloseFile", smallest, file.toString()));
-            setErrors(1);
-            stopAll();
-            return null;
-          }
-
-          data.files.remove(smallest);
-          data.dis.remove(smallest);
-          data.fis.remove(smallest);
+      return retval;
+    }
 
-          if (gzfi != null) {
-            data.gzis.remove(smallest);
-          }
+    // read from disk processing
+    // Open all files at once and read one row from each file...
+    if (data.merger == null) {
+      mergeTempFiles();
 
-          // Also update all file numbers in in data.tempRows if they are larger
-          // than smallest.
-          //
-          for (RowTempFile rtf : data.tempRows) {
-            if (rtf.fileNumber > smallest) {
-              rtf.fileNumber--;
-            }
-          }
-        } catch (SocketTimeoutException e) {
-          throw new HopValueException(e); // should never happen on local files
+      if (isBasic()) {
+        logBasic(BaseMessages.getString(PKG, "SortRows.Basic.OpeningTempFiles", data.files.size()));
+      }
+      if (isDetailed()) {
+        for (int f = 0; f < data.files.size(); f++) {
+          String filename = HopVfs.getFilename(data.files.get(f));
+          logDetailed(BaseMessages.getString(PKG, "SortRows.Detailed.OpeningTempFile", filename));
+          logDetailed(
+              BaseMessages.getString(
+                  PKG,
+                  "SortRows.Detailed.FromFileExpectingRows",
+                  filename,
+                  data.bufferSizes.get(f)));
         }
       }
+      data.merger =
+          new SortRowsMerger(
+              data.outputRowMeta,
+              data.rowComparator,
+              data.files,
+              data.bufferSizes,
+              data.compressFiles);
+    }
+
+    Object[] retval = data.merger.next();
+    if (retval == null) {
+      // All files are read and deleted
+      data.merger = null;
+      data.files.clear();
+      data.bufferSizes.clear();
     }
     return retval;
   }
@@ -417,7 +338,6 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
       // Metadata
       data.outputRowMeta = inputRowMeta.clone();
       meta.getFields(data.outputRowMeta, getTransformName(), null, null, this, metadataProvider);
-      data.comparator = new RowTemapFileComparator(data.outputRowMeta, data.fieldnrs);
 
       for (int i = 0; i < meta.getSortFields().size(); i++) {
         data.fieldnrs[i] = inputRowMeta.indexOfValue(meta.getSortFields().get(i).getFieldName());
@@ -442,6 +362,16 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
         i++;
       }
       data.rowComparator = new RowObjectArrayComparator(data.outputRowMeta, data.fieldnrs);
+
+      // Comparing values with a lazy conversion changes the value metadata, so we can only sort
+      // in parallel when all the keys are stored in their native type.
+      //
+      data.parallelSort = true;
+      for (int fieldnr : data.fieldnrs) {
+        if (!data.outputRowMeta.getValueMeta(fieldnr).isStorageNormal()) {
+          data.parallelSort = false;
+        }
+      }
     } // end if first
 
     // it is not first row and it is null
@@ -565,17 +495,13 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
     //
     data.buffer = new ArrayList<>(5000);
 
-    // Buffer for reading from disk
-    //
-    data.rowbuffer = new ArrayList<>(5000);
-
     data.compressFiles =
         getVariableBoolean(meta.getCompressFilesVariable(), meta.isCompressFiles());
 
-    data.tempRows = new ArrayList<>();
-
     data.minSortSize = 5000;
 
+    data.mergeFanIn = MERGE_FAN_IN;
+
     return true;
   }
 
@@ -590,19 +516,11 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
     // Clean out the sort buffer
     data.buffer.clear();
     data.getBufferIndex = 0;
-    data.rowbuffer.clear();
 
-    // close any open DataInputStream objects
-    if (CollectionUtils.isNotEmpty(data.dis)) {
-      for (DataInputStream dis : data.dis) {
-        BaseTransform.closeQuietly(dis);
-      }
-    }
-    // close any open InputStream objects
-    if (CollectionUtils.isNotEmpty(data.fis)) {
-      for (InputStream is : data.fis) {
-        BaseTransform.closeQuietly(is);
-      }
+    // close the files we're merging
+    if (data.merger != null) {
+      data.merger.close();
+      data.merger = null;
     }
     // remove temp files
     for (int f = 0; f < data.files.size(); f++) {
@@ -615,12 +533,32 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
         logError(e.getLocalizedMessage(), e);
       }
     }
+    data.files.clear();
+    data.bufferSizes.clear();
   }
 
-  /** Sort the entire vector, if it is not empty. */
+  /**
+   * Sort the entire vector, if it is not empty. Large vectors are sorted in parallel when all the
+   * keys have the normal storage type, like Collections.sort() the sort is stable.
+   */
   void quickSort(List<Object[]> elements) {
     if (CollectionUtils.isNotEmpty(elements)) {
-      Collections.sort(elements, data.rowComparator);
+      Object[][] rows = elements.toArray(new Object[0][]);
+      if (data.parallelSort) {
+        // Every sorting thread compares with its own copy of the value metadata
+        //
+        ThreadLocal<Comparator<Object[]>> comparators =
+            ThreadLocal.withInitial(
+                () -> new RowObjectArrayComparator(data.outputRowMeta.clone(), data.fieldnrs));
+        Arrays.parallelSort(rows, (o1, o2) -> comparators.get().compare(o1, o2));
+      } else {
+        Arrays.sort(rows, data.rowComparator);
+      }
+      ListIterator<Object[]> iterator = elements.listIterator();
+      for (Object[] row : rows) {
+        iterator.next();
+        iterator.set(row);
+      }
 
       long nrConversions = 0L;
       for (IValueMeta valueMeta : data.outputRowMeta.getValueMetaList()) {
@@ -699,23 +637,6 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
     }
   }
 
-  private class RowTemapFileComparator extends SortRowsComparator
-      implements Comparator<RowTempFile> {
-    RowTemapFileComparator(IRowMeta rowMeta, int[] fieldNrs) {
-      super(rowMeta, fieldNrs);
-    }
-
-    @Override
-    public int compare(RowTempFile o1, RowTempFile o2) {
-      try {
-        return rowMeta.compare(o1.row, o2.row, fieldNrs);
-      } catch (HopValueException e) {
-        logError("Error comparing rows: " + e.toString());
-        return 0;
-      }
-    }
-  }
-
   private class RowObjectArrayComparator extends SortRowsComparator
       implements Comparator<Object[]> {
     RowObjectArrayComparator(IRowMeta rowMeta, int[] fieldNrs) {
@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.sort;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.vfs.HopVfs;
+import org.apache.hop.i18n.BaseMessages;
+import org.apache.hop.pipeline.transform.BaseTransform;
+import org.xerial.snappy.SnappyInputStream;
+import org.xerial.snappy.SnappyOutputStream;
+
+/**
+ * Merges sorted temporary files, the runs, into a single sorted stream of rows. The smallest row of
+ * every run is kept in a heap, so getting the next row takes log(runs) comparisons. Rows which
+ * compare as equal are returned in the order of their runs. Every run is deleted as soon as all of
+ * its rows are read.
+ */
+class SortRowsMerger implements AutoCloseable {
+  private static final Class<?> PKG = SortRows.class;
+  private static final int INPUT_BUFFER_SIZE = 50000;
+  private static final int OUTPUT_BUFFER_SIZE = 500000;
+
+  private final IRowMeta rowMeta;
+  private final FileObject[] files;
+  private final DataInputStream[] inputs;
+
+  /** The number of rows in every run which are not read yet */
+  private final int[] unread;
+
+  private final PriorityQueue<RowTempFile> queue;
+
+  /**
+   * Open the runs and read the first row of each
+   *
+   * @param rowMeta the layout of the rows in the runs
+   * @param comparator the order of the rows in the runs
+   * @param files the runs to merge
+   * @param sizes the number of rows in every run
+   * @param compressed true if the runs are compressed
+   * @throws HopException in case a run can't be read
+   */
+  SortRowsMerger(
+      IRowMeta rowMeta,
+      Comparator<Object[]> comparator,
+      List<FileObject> files,
+      List<Integer> sizes,
+      boolean compressed)
+      throws HopException {
+    this.rowMeta = rowMeta;
+    this.files = files.toArray(new FileObject[0]);
+    this.inputs = new DataInputStream[this.files.length];
+    this.unread = new int[this.files.length];
+    this.queue =
+        new PriorityQueue<>(
+            Math.max(1, this.files.length),
+            (one, two) -> {
+              int cmp = comparator.compare(one.row, two.row);
+              return cmp != 0 ? cmp : Integer.compare(one.fileNumber, two.fileNumber);
+            });
+
+    try {
+      for (int f = 0; f < this.files.length; f++) {
+        inputs[f] = openInput(HopVfs.getInputStream(this.files[f]), compressed);
+        unread[f] = sizes.get(f);
+        if (unread[f] > 0) {
+          unread[f]--;
+          queue.add(new RowTempFile(rowMeta.readData(inputs[f]), f));
+        } else {
+          closeRun(f);
+        }
+      }
+    } catch (Exception e) {
+      close();
+      throw new HopException(
+          BaseMessages.getString(PKG, "SortRows.Error.ErrorReadingBackTempFiles"), e);
+    }
+  }
+
+  /**
+   * @return the next row in sort order or null if all runs are read
+   * @throws HopException in case a run can't be read
+   */
+  Object[] next() throws HopException {
+    RowTempFile smallest = queue.poll();
+    if (smallest == null) {
+      return null;
+    }
+    Object[] row = smallest.row;
+    int f = smallest.fileNumber;
+    if (unread[f] > 0) {
+      unread[f]--;
+      try {
+        smallest.row = rowMeta.readData(inputs[f]);
+      } catch (SocketTimeoutException e) {
+        throw new HopException(e); // should never happen on local files
+      }
+      queue.add(smallest);
+    } else {
+      closeRun(f);
+    }
+    return row;
+  }
+
+  /** Close and delete the runs which are not completely read yet */
+  @Override
+  public void close() {
+    for (int f = 0; f < files.length; f++) {
+      try {
+        closeRun(f);
+      } catch (HopException e) {
+        // Ignore, this is a cleanup
+      }
+    }
+    queue.clear();
+  }
+
+  private void closeRun(int f) throws HopException {
+    BaseTransform.closeQuietly(inputs[f]);
+    inputs[f] = null;
+    if (files[f] != null) {
+      try {
+        files[f].delete();
+      } catch (IOException e) {
+        throw new HopException(
+            BaseMessages.getString(PKG, "SortRows.Error.UnableToCloseFile", f, files[f]), e);
+      }
+      files[f] = null;
+    }
+  }
+
+  /**
+   * Open a run for writing
+   *
+   * @param outputStream the output stream of the temporary file
+   * @param compressed true to compress the rows with Snappy
+   * @return the stream to write the rows to with {@link IRowMeta#writeData(DataOutputStream,
+   *     Object[])}
+   * @throws IOException in case the compression stream can't be created
+   */
+  static DataOutputStream openOutput(OutputStream outputStream, boolean compressed)
+      throws IOException {
+    OutputStream buffered = new BufferedOutputStream(outputStream, OUTPUT_BUFFER_SIZE);
+    return new DataOutputStream(compressed ? new SnappyOutputStream(buffered) : buffered);
+  }
+
+  /**
+   * Open a run for reading
+   *
+   * @param inputStream the input stream of the temporary file
+   * @param compressed true if the rows are compressed with Snappy
+   * @return the stream to read the rows from with {@link IRowMeta#readData(DataInputStream)}
+   * @throws IOException in case the compression stream can't be created
+   */
+  static DataInputStream openInput(InputStream inputStream, boolean compressed) throws IOException {
+    InputStream buffered = new BufferedInputStream(inputStream, INPUT_BUFFER_SIZE);
+    return new DataInputStream(compressed ? new SnappyInputStream(buffered) : buffered);
+  }
+}
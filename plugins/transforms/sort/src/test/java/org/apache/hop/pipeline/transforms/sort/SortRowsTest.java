@@ -0,0 +1,270 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.sort;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironmentExtension;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class SortRowsTest {
+
+  @RegisterExtension
+  static RestoreHopEngineEnvironmentExtension env = new RestoreHopEngineEnvironmentExtension();
+
+  @TempDir Path tempDir;
+
+  private TransformMockHelper<SortRowsMeta, SortRowsData> transformMockHelper;
+
+  @BeforeAll
+  static void setUpBeforeClass() throws HopException {
+    HopEnvironment.init();
+  }
+
+  @BeforeEach
+  void setUp() {
+    transformMockHelper =
+        new TransformMockHelper<>("SortRows", SortRowsMeta.class, SortRowsData.class);
+    when(transformMockHelper.logChannelFactory.create(any(), any(ILoggingObject.class)))
+        .thenReturn(transformMockHelper.iLogChannel);
+    when(transformMockHelper.pipeline.isRunning()).thenReturn(true);
+  }
+
+  @AfterEach
+  void tearDown() {
+    transformMockHelper.cleanUp();
+  }
+
+  /** Rows with the same key keep their input order, also when they were in different files */
+  @ParameterizedTest
+  @CsvSource({
+    "1000000, 128, false, false",
+    "10, 128, false, false",
+    "10, 3, false, false",
+    "7, 2, true, false",
+    "10, 3, false, true",
+    "7, 2, true, true"
+  })
+  void testSortRows(String sortSize, int mergeFanIn, boolean compress, boolean unique)
+      throws Exception {
+    IRowMeta inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta(new ValueMetaInteger("key"));
+    inputRowMeta.addValueMeta(new ValueMetaString("name"));
+    inputRowMeta.addValueMeta(new ValueMetaInteger("sequence"));
+
+    Random random = new Random(42);
+    List<Object[]> input = new ArrayList<>();
+    for (long i = 0; i < 500; i++) {
+      Object[] row = new Object[] {(long) random.nextInt(50), "row " + i, i};
+      if (i % 37 == 0) {
+        row[0] = null;
+      }
+      input.add(row);
+    }
+
+    SortRowsMeta meta = new SortRowsMeta();
+    meta.setDefault();
+    meta.setDirectory(tempDir.toString());
+    meta.setSortSize(sortSize);
+    meta.setCompressFiles(compress);
+    meta.setOnlyPassingUniqueRows(unique);
+    meta.getSortFields().add(new SortRowsField("key", true, true, false, 0, false));
+
+    List<Object[]> output = sort(meta, mergeFanIn, inputRowMeta, input);
+
+    // The expected result is a stable sort of the input
+    Comparator<Object[]> comparator =
+        Comparator.comparing(
+            row -> (Long) row[0], Comparator.nullsFirst(Comparator.naturalOrder()));
+    List<Object[]> expected = new ArrayList<>(input);
+    expected.sort(comparator);
+    if (unique) {
+      List<Object[]> uniqueRows = new ArrayList<>();
+      for (Object[] row : expected) {
+        if (uniqueRows.isEmpty()
+            || comparator.compare(uniqueRows.get(uniqueRows.size() - 1), row) != 0) {
+          uniqueRows.add(row);
+        }
+      }
+      expected = uniqueRows;
+    }
+
+    assertEquals(expected.size(), output.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertArrayEquals(expected.get(i), output.get(i), "Row " + i);
+    }
+
+    // All temporary files are removed
+    File[] files = tempDir.toFile().listFiles();
+    assertEquals(0, files == null ? 0 : files.length);
+  }
+
+  /** Keys read with lazy conversion are converted before the rows are sorted in parallel */
+  @Test
+  void testSortLazyConversionKeys() throws Exception {
+    ValueMetaString storageMeta = new ValueMetaString("key");
+    ValueMetaString keyMeta = new ValueMetaString("key");
+    keyMeta.setStorageType(IValueMeta.STORAGE_TYPE_BINARY_STRING);
+    keyMeta.setStorageMetadata(storageMeta);
+    IRowMeta inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta(keyMeta);
+    inputRowMeta.addValueMeta(new ValueMetaInteger("sequence"));
+
+    Random random = new Random(42);
+    List<Object[]> input = new ArrayList<>();
+    for (long i = 0; i < 20_000; i++) {
+      String key = String.format("%05d", random.nextInt(5000));
+      input.add(new Object[] {key.getBytes(StandardCharsets.UTF_8), i});
+    }
+
+    SortRowsMeta meta = new SortRowsMeta();
+    meta.setDefault();
+    meta.setDirectory(tempDir.toString());
+    meta.setSortSize("1000000");
+    meta.getSortFields().add(new SortRowsField("key", true, true, false, 0, false));
+
+    SortRowsData data = new SortRowsData();
+    List<Object[]> output = sort(meta, data, 128, inputRowMeta, input);
+
+    assertTrue(data.parallelSort);
+    assertEquals(input.size(), output.size());
+    for (int i = 1; i < output.size(); i++) {
+      Object[] previous = output.get(i - 1);
+      Object[] row = output.get(i);
+      int cmp = ((String) previous[0]).compareTo((String) row[0]);
+      assertTrue(cmp < 0 || (cmp == 0 && (Long) previous[1] < (Long) row[1]), "Row " + i);
+    }
+  }
+
+  /** Keys which still need a conversion while comparing are sorted in a single thread */
+  @Test
+  void testSortBinaryStringKeysSequentially() throws Exception {
+    ValueMetaString keyMeta = new ValueMetaString("key");
+    keyMeta.setStorageType(IValueMeta.STORAGE_TYPE_BINARY_STRING);
+    keyMeta.setStorageMetadata(new ValueMetaString("key"));
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(keyMeta);
+
+    SortRowsData data = new SortRowsData();
+    data.outputRowMeta = rowMeta;
+    data.fieldnrs = new int[] {0};
+    data.rowComparator = (o1, o2) -> compareKeys(rowMeta, o1, o2);
+    SortRows sortRows =
+        new SortRows(
+            transformMockHelper.transformMeta,
+            new SortRowsMeta(),
+            data,
+            0,
+            transformMockHelper.pipelineMeta,
+            transformMockHelper.pipeline);
+
+    List<Object[]> rows = new ArrayList<>();
+    for (int i = 20_000; i > 0; i--) {
+      rows.add(new Object[] {String.format("%05d", i).getBytes(StandardCharsets.UTF_8)});
+    }
+    sortRows.quickSort(rows);
+
+    assertEquals("00001", new String((byte[]) rows.get(0)[0], StandardCharsets.UTF_8));
+    assertEquals("20000", new String((byte[]) rows.get(19_999)[0], StandardCharsets.UTF_8));
+  }
+
+  private static int compareKeys(IRowMeta rowMeta, Object[] o1, Object[] o2) {
+    try {
+      return rowMeta.compare(o1, o2, new int[] {0});
+    } catch (HopValueException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private List<Object[]> sort(
+      SortRowsMeta meta, int mergeFanIn, IRowMeta inputRowMeta, List<Object[]> input)
+      throws HopException {
+    return sort(meta, new SortRowsData(), mergeFanIn, inputRowMeta, input);
+  }
+
+  private List<Object[]> sort(
+      SortRowsMeta meta,
+      SortRowsData data,
+      int mergeFanIn,
+      IRowMeta inputRowMeta,
+      List<Object[]> input)
+      throws HopException {
+    List<Object[]> output = new ArrayList<>();
+    SortRows sortRows =
+        new SortRows(
+            transformMockHelper.transformMeta,
+            meta,
+            data,
+            0,
+            transformMockHelper.pipelineMeta,
+            transformMockHelper.pipeline) {
+          private int index;
+
+          @Override
+          public Object[] getRow() {
+            return index < input.size() ? input.get(index++) : null;
+          }
+
+          @Override
+          public IRowMeta getInputRowMeta() {
+            return inputRowMeta;
+          }
+
+          @Override
+          public void putRow(IRowMeta rowMeta, Object[] row) {
+            output.add(row);
+          }
+        };
+    assertTrue(sortRows.init());
+    data.mergeFanIn = mergeFanIn;
+
+    while (sortRows.processRow()) {
+      // Keep on sorting
+    }
+    sortRows.dispose();
+    return output;
+  }
+}
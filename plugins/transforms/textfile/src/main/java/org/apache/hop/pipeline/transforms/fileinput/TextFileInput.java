@@ -1430,10 +1430,7 @@ public class TextFileInput extends BaseTransform<TextFileInputMeta, TextFileInpu
   private void rejectCurrentFile(String errorMsg) {
     if (StringUtils.isNotBlank(meta.getFileErrorField())
         || StringUtils.isNotBlank(meta.getFileErrorMessageField())) {
-      IRowMeta rowMeta = getInputRowMeta();
-      if (rowMeta == null) {
-        rowMeta = new RowMeta();
-      }
+      IRowMeta rowMeta = getInputRowMeta() == null ? new RowMeta() : getInputRowMeta().clone();
 
       int errorFileIndex =
           (StringUtils.isBlank(meta.getFileErrorField()))
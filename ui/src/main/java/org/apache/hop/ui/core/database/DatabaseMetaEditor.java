@@ -28,6 +28,7 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.Props;
 import org.apache.hop.core.database.BaseDatabaseMeta;
+import org.apache.hop.core.database.DatabaseConnectionPoolParameter;
 import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.database.DatabasePluginType;
 import org.apache.hop.core.database.DatabaseTestResults;
@@ -106,6 +107,9 @@ public class DatabaseMetaEditor extends MetadataEditor<DatabaseMeta> {
 
   private TableView wOptions;
 
+  private Button wUsePool;
+  private TableView wPoolParameters;
+
   private PropsUi props;
   private int middle;
   private int margin;
@@ -212,6 +216,7 @@ public class DatabaseMetaEditor extends MetadataEditor<DatabaseMeta> {
     addGeneralTab();
     addAdvancedTab();
     addOptionsTab();
+    addPoolTab();
 
     // Select the general tab
     //
@@ -255,6 +260,9 @@ public class DatabaseMetaEditor extends MetadataEditor<DatabaseMeta> {
     wPreferredSchema.addListener(SWT.Modify, modifyListener);
     wSqlStatements.addListener(SWT.Modify, modifyListener);
     wOptions.addListener(SWT.Modify, modifyListener);
+    wUsePool.addListener(SWT.Selection, modifyListener);
+    wUsePool.addListener(SWT.Selection, event -> enableFields());
+    wPoolParameters.addListener(SWT.Modify, modifyListener);
   }
 
   private void addGeneralTab() {
@@ -786,6 +794,95 @@ public class DatabaseMetaEditor extends MetadataEditor<DatabaseMeta> {
     wOptionsTab.setControl(wOptionsComp);
   }
 
+  private void addPoolTab() {
+
+    CTabItem wPoolTab = new CTabItem(wTabFolder, SWT.NONE);
+    wPoolTab.setFont(GuiResource.getInstance().getFontDefault());
+    wPoolTab.setText("   " + BaseMessages.getString(PKG, "DatabaseDialog.PoolTab.title") + "   ");
+
+    Composite wPoolComp = new Composite(wTabFolder, SWT.NONE);
+    PropsUi.setLook(wPoolComp);
+
+    FormLayout poolLayout = new FormLayout();
+    poolLayout.marginWidth = PropsUi.getFormMargin() * 2;
+    poolLayout.marginHeight = PropsUi.getFormMargin() * 2;
+    wPoolComp.setLayout(poolLayout);
+
+    // Use a connection pool?
+    //
+    Label wlUsePool = new Label(wPoolComp, SWT.RIGHT);
+    PropsUi.setLook(wlUsePool);
+    wlUsePool.setText(BaseMessages.getString(PKG, "DatabaseDialog.label.UseConnectionPool"));
+    FormData fdlUsePool = new FormData();
+    fdlUsePool.top = new FormAttachment(0, 0);
+    fdlUsePool.left = new FormAttachment(0, 0); // First one in the left top corner
+    fdlUsePool.right = new FormAttachment(middle, 0);
+    wlUsePool.setLayoutData(fdlUsePool);
+    wUsePool = new Button(wPoolComp, SWT.CHECK | SWT.LEFT);
+    PropsUi.setLook(wUsePool);
+    FormData fdUsePool = new FormData();
+    fdUsePool.top = new FormAttachment(wlUsePool, 0, SWT.CENTER);
+    fdUsePool.left = new FormAttachment(middle, margin); // To the right of the label
+    fdUsePool.right = new FormAttachment(100, 0);
+    wUsePool.setLayoutData(fdUsePool);
+
+    ColumnInfo[] poolColumns =
+        new ColumnInfo[] {
+          new ColumnInfo(
+              BaseMessages.getString(PKG, "DatabaseDialog.column.Parameter"),
+              ColumnInfo.COLUMN_TYPE_TEXT,
+              false,
+              true),
+          new ColumnInfo(
+              BaseMessages.getString(PKG, "DatabaseDialog.column.Value"),
+              ColumnInfo.COLUMN_TYPE_TEXT,
+              false),
+          new ColumnInfo(
+              BaseMessages.getString(PKG, "DatabaseDialog.column.Description"),
+              ColumnInfo.COLUMN_TYPE_TEXT,
+              false,
+              true),
+        };
+    poolColumns[1].setUsingVariables(true);
+
+    // The pool parameters
+    //
+    Label wlPoolParameters = new Label(wPoolComp, SWT.LEFT);
+    PropsUi.setLook(wlPoolParameters);
+    wlPoolParameters.setText(BaseMessages.getString(PKG, "DatabaseDialog.label.PoolParameters"));
+    FormData fdlPoolParameters = new FormData();
+    fdlPoolParameters.top = new FormAttachment(wUsePool, margin * 2);
+    fdlPoolParameters.left = new FormAttachment(0, 0);
+    fdlPoolParameters.right = new FormAttachment(100, 0);
+    wlPoolParameters.setLayoutData(fdlPoolParameters);
+    wPoolParameters =
+        new TableView(
+            manager.getVariables(),
+            wPoolComp,
+            SWT.BORDER,
+            poolColumns,
+            BaseDatabaseMeta.poolingParameters.length,
+            event -> setChanged(),
+            props);
+    PropsUi.setLook(wPoolParameters);
+    FormData fdPoolParameters = new FormData();
+    fdPoolParameters.top = new FormAttachment(wlPoolParameters, margin * 2);
+    fdPoolParameters.bottom = new FormAttachment(100, 0);
+    fdPoolParameters.left = new FormAttachment(0, 0);
+    fdPoolParameters.right = new FormAttachment(100, 0);
+    wPoolParameters.setLayoutData(fdPoolParameters);
+
+    FormData fdPoolComp = new FormData();
+    fdPoolComp.left = new FormAttachment(0, 0);
+    fdPoolComp.top = new FormAttachment(0, 0);
+    fdPoolComp.right = new FormAttachment(100, 0);
+    fdPoolComp.bottom = new FormAttachment(100, 0);
+    wPoolComp.setLayoutData(fdPoolComp);
+
+    wPoolComp.layout();
+    wPoolTab.setControl(wPoolComp);
+  }
+
   private void enableFields() {
     boolean manualUrl = false;
     if (wManualUrl != null) {
@@ -798,6 +895,8 @@ public class DatabaseMetaEditor extends MetadataEditor<DatabaseMeta> {
     //
     guiCompositeWidgets.enableWidgets(
         getMetadata().getIDatabase(), DatabaseMeta.GUI_PLUGIN_ELEMENT_PARENT_ID, !manualUrl);
+
+    wPoolParameters.setEnabled(wUsePool.getSelection());
   }
 
   private void test() {
@@ -888,6 +987,19 @@ public class DatabaseMetaEditor extends MetadataEditor<DatabaseMeta> {
     wOptions.setRowNums();
     wOptions.optWidth(true);
 
+    wUsePool.setSelection(databaseMeta.isUsingConnectionPool());
+    wPoolParameters.clearAll(false);
+    Map<String, String> poolParameters = databaseMeta.getConnectionPoolingParameters();
+    for (DatabaseConnectionPoolParameter parameter : BaseDatabaseMeta.poolingParameters) {
+      TableItem item = new TableItem(wPoolParameters.table, SWT.NONE);
+      item.setText(1, parameter.getParameter());
+      item.setText(2, Const.NVL(poolParameters.get(parameter.getParameter()), ""));
+      item.setText(3, Const.NVL(parameter.getDescription(), ""));
+    }
+    wPoolParameters.removeEmptyRows();
+    wPoolParameters.setRowNums();
+    wPoolParameters.optWidth(true);
+
     updateDriverInfo();
     enableFields();
   }
@@ -938,6 +1050,20 @@ public class DatabaseMetaEditor extends MetadataEditor<DatabaseMeta> {
       String value = item.getText(2);
       meta.addExtraOption(meta.getPluginId(), option, value);
     }
+
+    // Only keep the pool parameters with a value, the others get their default value
+    //
+    meta.setUsingConnectionPool(wUsePool.getSelection());
+    Map<String, String> poolParameters = new HashMap<>();
+    for (int i = 0; i < wPoolParameters.nrNonEmpty(); i++) {
+      TableItem item = wPoolParameters.getNonEmpty(i);
+      String parameter = item.getText(1);
+      String value = item.getText(2);
+      if (!Utils.isEmpty(parameter) && !Utils.isEmpty(value)) {
+        poolParameters.put(parameter, value);
+      }
+    }
+    meta.setConnectionPoolingParameters(poolParameters);
   }
 
   /** Update JDBC driver information and version */